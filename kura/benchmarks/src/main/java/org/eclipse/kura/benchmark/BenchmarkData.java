@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.kura.message.KuraPayload;
+import org.eclipse.kura.message.KuraPosition;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.wire.WireRecord;
+
+/**
+ * Factory of the sample data shared by the benchmarks. The data mimics a typical asset read: a mix of numeric,
+ * boolean and string channel values plus the per-channel timestamp properties added by the Asset.
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+        // Static Factory Methods container. No need to instantiate.
+    }
+
+    /**
+     * Creates the properties of a {@link WireRecord} with the provided number of channel values.
+     */
+    public static Map<String, TypedValue<?>> newRecordProperties(final int channels) {
+        final Map<String, TypedValue<?>> properties = new HashMap<>();
+        final long timestamp = System.currentTimeMillis();
+        for (int i = 0; i < channels; i++) {
+            properties.put("channel" + i, newValue(i));
+            properties.put("channel" + i + "_timestamp", TypedValues.newLongValue(timestamp));
+        }
+        return properties;
+    }
+
+    public static WireRecord newRecord(final int channels) {
+        return new WireRecord(newRecordProperties(channels));
+    }
+
+    public static List<WireRecord> newRecords(final int count, final int channels) {
+        final List<WireRecord> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(newRecord(channels));
+        }
+        return records;
+    }
+
+    /**
+     * Creates a {@link KuraPayload} with a position and the provided number of metrics.
+     */
+    public static KuraPayload newPayload(final int metrics) {
+        final KuraPayload payload = new KuraPayload();
+        payload.setTimestamp(new Date());
+
+        final KuraPosition position = new KuraPosition();
+        position.setLatitude(45.9);
+        position.setLongitude(13.6);
+        position.setAltitude(120.0);
+        position.setTimestamp(new Date());
+        payload.setPosition(position);
+
+        for (int i = 0; i < metrics; i++) {
+            payload.addMetric("metric" + i, newValue(i).getValue());
+        }
+        return payload;
+    }
+
+    private static TypedValue<?> newValue(final int index) {
+        switch (index % 4) {
+        case 0:
+            return TypedValues.newDoubleValue(index * 1.5);
+        case 1:
+            return TypedValues.newIntegerValue(index);
+        case 2:
+            return TypedValues.newBooleanValue(index % 3 == 0);
+        default:
+            return TypedValues.newStringValue("value" + index);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.driver.block.Block;
+import org.eclipse.kura.driver.block.BlockAggregator;
+import org.eclipse.kura.driver.block.BlockCostModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the aggregation of the channel blocks performed by the block drivers before every read. The input
+ * blocks model two-register channels scattered over an address range four times larger than the number of channels,
+ * in random order. The input list is copied for every invocation since the aggregator sorts it in place. The
+ * {@code costModel} parameter enables the cost model based aggregation, using a Modbus like model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockAggregatorBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int blocks;
+
+    @Param({ "0", "8" })
+    private int minimumGapSize;
+
+    @Param({ "false", "true" })
+    private boolean costModel;
+
+    private static final BlockCostModel MODEL = new BlockCostModel(8, 1, 125, 1);
+
+    private List<Block> inputBlocks;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        this.inputBlocks = new ArrayList<>(this.blocks);
+        for (int i = 0; i < this.blocks; i++) {
+            final int start = random.nextInt(this.blocks * 4);
+            this.inputBlocks.add(new Block(start, start + 2));
+        }
+        Collections.shuffle(this.inputBlocks, random);
+    }
+
+    @Benchmark
+    public long aggregate() {
+        final BlockAggregator<Block> aggregator = new BlockAggregator<>(new ArrayList<>(this.inputBlocks),
+                Block::new);
+        aggregator.setMinimumGapSize(this.minimumGapSize);
+        if (this.costModel) {
+            aggregator.setCostModel(MODEL);
+        }
+        return aggregator.stream().count();
+    }
+}
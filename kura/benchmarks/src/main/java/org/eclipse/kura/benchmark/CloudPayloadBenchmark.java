@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.KuraInvalidMessageException;
+import org.eclipse.kura.core.cloud.CloudPayloadJsonDecoder;
+import org.eclipse.kura.core.cloud.CloudPayloadJsonEncoder;
+import org.eclipse.kura.core.cloud.CloudPayloadProtoBufDecoderImpl;
+import org.eclipse.kura.core.cloud.CloudPayloadProtoBufEncoderImpl;
+import org.eclipse.kura.message.KuraPayload;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the Kura Protobuf and JSON payload codecs used by the Cloud Service on every publish and on every
+ * received control message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CloudPayloadBenchmark {
+
+    /** Number of metrics of the payload */
+    @Param({ "1", "10", "100", "1000" })
+    private int metrics;
+
+    private KuraPayload payload;
+
+    private byte[] protobuf;
+
+    private byte[] json;
+
+    @Setup
+    public void setup() throws IOException {
+        this.payload = BenchmarkData.newPayload(this.metrics);
+        this.protobuf = new CloudPayloadProtoBufEncoderImpl(this.payload).getBytes();
+        this.json = CloudPayloadJsonEncoder.getBytes(this.payload);
+    }
+
+    @Benchmark
+    public byte[] encodeProtobuf() throws IOException {
+        return new CloudPayloadProtoBufEncoderImpl(this.payload).getBytes();
+    }
+
+    @Benchmark
+    public KuraPayload decodeProtobuf() throws KuraInvalidMessageException, IOException {
+        return new CloudPayloadProtoBufDecoderImpl(this.protobuf).buildFromByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return CloudPayloadJsonEncoder.getBytes(this.payload);
+    }
+
+    @Benchmark
+    public KuraPayload decodeJson() {
+        return CloudPayloadJsonDecoder.buildFromByteArray(this.json);
+    }
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.benchmark;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.KuraStoreException;
+import org.eclipse.kura.core.cloud.CloudPayloadProtoBufEncoderImpl;
+import org.eclipse.kura.core.data.DataMessage;
+import org.eclipse.kura.core.data.store.DbDataStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link DbDataStore} operations performed by the Data Service on the publishing path, against an
+ * in-memory H2 database. The store is emptied and refilled with the configured backlog of unpublished messages
+ * before every iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DbDataStoreBenchmark {
+
+    private static final String TABLE = "ds_messages";
+
+    private static final String TOPIC = "$EDC/account/client/app/topic";
+
+    private static final int DEFAULT_PRIORITY = 4;
+
+    /** Number of unpublished messages in the store at the beginning of every iteration */
+    @Param({ "0", "1000" })
+    private int backlog;
+
+    private InMemoryH2DbService dbService;
+
+    private DbDataStore store;
+
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws KuraStoreException, IOException {
+        this.payload = new CloudPayloadProtoBufEncoderImpl(BenchmarkData.newPayload(10)).getBytes();
+        this.dbService = new InMemoryH2DbService("DbDataStoreBenchmark");
+        this.store = new DbDataStore(TABLE);
+        this.store.start(this.dbService, 3600, 60, Integer.MAX_VALUE);
+    }
+
+    @Setup(Level.Iteration)
+    public void fill() throws SQLException, KuraStoreException {
+        this.dbService.execute("DELETE FROM " + TABLE);
+        for (int i = 0; i < this.backlog; i++) {
+            this.store.store(TOPIC, this.payload, 1, false, DEFAULT_PRIORITY);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        this.store.stop();
+        this.dbService.shutdown();
+    }
+
+    @Benchmark
+    public DataMessage store() throws KuraStoreException {
+        return this.store.store(TOPIC, this.payload, 1, false, DEFAULT_PRIORITY);
+    }
+
+    @Benchmark
+    public DataMessage nextMessage() throws KuraStoreException {
+        return this.store.getNextMessage();
+    }
+
+    /**
+     * A full store and forward cycle, as performed by the Data Service for every QoS 1 message.
+     */
+    @Benchmark
+    public DataMessage storeAndPublish() throws KuraStoreException {
+        this.store.store(TOPIC, this.payload, 1, false, DEFAULT_PRIORITY);
+        final DataMessage message = this.store.getNextMessage();
+        this.store.published(message.getId(), message.getId(), "session");
+        return message;
+    }
+}
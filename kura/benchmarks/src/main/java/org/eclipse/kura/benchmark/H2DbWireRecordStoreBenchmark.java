@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.benchmark;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.internal.wire.h2db.store.H2DbWireRecordStore;
+import org.eclipse.kura.internal.wire.helper.BenchmarkWireHelperService;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of the {@link H2DbWireRecordStore} receiving envelopes from an upstream component, against
+ * an in-memory H2 database. The database is recreated before every iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class H2DbWireRecordStoreBenchmark {
+
+    /** Number of records of every received envelope */
+    @Param({ "1", "10" })
+    private int records;
+
+    /** Number of channels of every record */
+    @Param({ "10" })
+    private int channels;
+
+    @Param({ "NONE", "HOUR" })
+    private String partitionInterval;
+
+    private InMemoryH2DbService dbService;
+
+    private StandaloneWireRecordStore store;
+
+    private WireEnvelope envelope;
+
+    @Setup
+    public void setup() {
+        this.dbService = new InMemoryH2DbService("H2DbWireRecordStoreBenchmark");
+
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("table.name", "WR_data");
+        properties.put("maximum.table.size", Integer.MAX_VALUE);
+        properties.put("partition.interval", this.partitionInterval);
+
+        final BenchmarkWireHelperService wireHelperService = new BenchmarkWireHelperService(false);
+        this.store = new StandaloneWireRecordStore();
+        wireHelperService.register(this.store, "store");
+        this.store.bindWireHelperService(wireHelperService);
+        this.store.activate(properties);
+
+        this.envelope = new WireEnvelope("emitter", BenchmarkData.newRecords(this.records, this.channels));
+    }
+
+    @Setup(Level.Iteration)
+    public void resetDatabase() throws SQLException {
+        this.store.unbindDbService(this.dbService);
+        this.dbService.execute("DROP ALL OBJECTS");
+        this.store.bindDbService(this.dbService);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        this.store.deactivate();
+        this.dbService.shutdown();
+    }
+
+    @Benchmark
+    public void receive() {
+        this.store.onWireReceive(this.envelope);
+    }
+
+    /**
+     * Runs the store outside of the OSGi framework, the database service is bound directly instead of being
+     * tracked.
+     */
+    private static final class StandaloneWireRecordStore extends H2DbWireRecordStore {
+
+        void activate(final Map<String, Object> properties) {
+            activate(null, properties);
+        }
+
+        void deactivate() {
+            deactivate(null);
+        }
+
+        @Override
+        protected void restartDbServiceTracker() {
+            // the database service is bound by the benchmark
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.benchmark;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.eclipse.kura.db.H2DbService;
+import org.h2.jdbcx.JdbcConnectionPool;
+
+/**
+ * A {@link H2DbService} backed by a private in-memory H2 database, configured like the default Kura instance
+ * ({@code jdbc:h2:mem:kuradb}) but without the OSGi and crypto dependencies of the real service.
+ */
+public final class InMemoryH2DbService implements H2DbService {
+
+    private final JdbcConnectionPool connectionPool;
+
+    public InMemoryH2DbService(final String name) {
+        this.connectionPool = JdbcConnectionPool.create("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "SA", "");
+    }
+
+    /**
+     * Executes the provided statements, used by the benchmarks to reset the database between iterations.
+     */
+    public void execute(final String... sqls) throws SQLException {
+        try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
+            for (final String sql : sqls) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    public void shutdown() throws SQLException {
+        execute("SHUTDOWN");
+        this.connectionPool.dispose();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return this.connectionPool.getConnection();
+    }
+
+    @Override
+    public void rollback(final Connection conn) {
+        try {
+            if (conn != null) {
+                conn.rollback();
+            }
+        } catch (final SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close(final ResultSet... rss) {
+        for (final ResultSet rs : rss) {
+            try {
+                if (rs != null) {
+                    rs.close();
+                }
+            } catch (final SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close(final Statement... stmts) {
+        for (final Statement stmt : stmts) {
+            try {
+                if (stmt != null) {
+                    stmt.close();
+                }
+            } catch (final SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close(final Connection conn) {
+        try {
+            if (conn != null) {
+                conn.close();
+            }
+        } catch (final SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.wire.WireRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the cost of building and reading {@link WireRecord}s, paid on every emit of every Wire Component.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireRecordBenchmark {
+
+    /** Number of channels of the record, every channel contributes a value and a timestamp property */
+    @Param({ "1", "10", "100" })
+    private int channels;
+
+    private Map<String, TypedValue<?>> properties;
+
+    private WireRecord record;
+
+    @Setup
+    public void setup() {
+        this.properties = BenchmarkData.newRecordProperties(this.channels);
+        this.record = new WireRecord(this.properties);
+    }
+
+    @Benchmark
+    public WireRecord construct() {
+        return new WireRecord(this.properties);
+    }
+
+    @Benchmark
+    public void iterateProperties(final Blackhole blackhole) {
+        for (final Map.Entry<String, TypedValue<?>> entry : this.record.getProperties().entrySet()) {
+            blackhole.consume(entry.getKey());
+            blackhole.consume(entry.getValue().getValue());
+        }
+    }
+}
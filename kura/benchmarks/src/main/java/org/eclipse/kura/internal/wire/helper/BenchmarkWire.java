@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.helper;
+
+import static org.osgi.service.wireadmin.WireConstants.WIREADMIN_CONSUMER_PID;
+import static org.osgi.service.wireadmin.WireConstants.WIREADMIN_PRODUCER_PID;
+
+import java.util.Dictionary;
+import java.util.Hashtable;
+
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireSupport;
+import org.osgi.service.wireadmin.Wire;
+
+/**
+ * A synchronous {@link Wire} that delivers the updates directly to the Wire Support of the receiver, like the Wire
+ * Admin implementation does for the Kura Wires.
+ */
+public final class BenchmarkWire implements Wire {
+
+    private static final String[] SCOPE = new String[] { "WIRES" };
+
+    private final WireSupport receiverSupport;
+
+    private final Dictionary<String, Object> properties = new Hashtable<>();
+
+    private Object lastValue;
+
+    BenchmarkWire(final String emitterServicePid, final WireSupport receiverSupport) {
+        this.receiverSupport = receiverSupport;
+        this.properties.put(WIREADMIN_PRODUCER_PID, emitterServicePid);
+        this.properties.put(WIREADMIN_CONSUMER_PID, String.valueOf(System.identityHashCode(receiverSupport)));
+    }
+
+    @Override
+    public boolean isValid() {
+        return true;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return true;
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public Class[] getFlavors() {
+        return new Class[] { WireEnvelope.class };
+    }
+
+    @Override
+    public void update(final Object value) {
+        this.lastValue = value;
+        this.receiverSupport.updated(this, value);
+    }
+
+    @Override
+    public Object poll() {
+        return this.lastValue;
+    }
+
+    @Override
+    public Object getLastValue() {
+        return this.lastValue;
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Override
+    public Dictionary getProperties() {
+        return this.properties;
+    }
+
+    @Override
+    public String[] getScope() {
+        return SCOPE.clone();
+    }
+
+    @Override
+    public boolean hasScope(final String name) {
+        return SCOPE[0].equals(name);
+    }
+}
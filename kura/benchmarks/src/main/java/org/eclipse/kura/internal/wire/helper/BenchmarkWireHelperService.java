@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.helper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.kura.wire.WireComponent;
+import org.eclipse.kura.wire.WireEmitter;
+import org.eclipse.kura.wire.WireHelperService;
+import org.eclipse.kura.wire.WireReceiver;
+import org.eclipse.kura.wire.WireSupport;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+
+/**
+ * A {@link WireHelperService} that creates the real {@link WireSupportImpl} outside of the OSGi framework. The
+ * component PIDs are explicitly registered instead of being looked up in the service registry and the emit events
+ * are discarded.
+ * <p>
+ * It lives in the Wire Helper package to access the package private Wire Support implementation.
+ */
+public final class BenchmarkWireHelperService implements WireHelperService {
+
+    private static final EventAdmin NOOP_EVENT_ADMIN = new EventAdmin() {
+
+        @Override
+        public void postEvent(final Event event) {
+            // events are not needed by the benchmarks
+        }
+
+        @Override
+        public void sendEvent(final Event event) {
+            // events are not needed by the benchmarks
+        }
+    };
+
+    private final Map<WireComponent, String> pids = new ConcurrentHashMap<>();
+
+    private final WireMetricsRegistry metrics = new WireMetricsRegistry();
+
+    /**
+     * Instantiates a new {@link BenchmarkWireHelperService}.
+     *
+     * @param metricsEnabled
+     *            true if the created Wire Supports must collect the Wires runtime metrics
+     */
+    public BenchmarkWireHelperService(final boolean metricsEnabled) {
+        this.metrics.setEnabled(metricsEnabled);
+    }
+
+    /**
+     * Assigns a Kura Service PID to the provided component, must be called before creating its Wire Support.
+     */
+    public void register(final WireComponent wireComponent, final String pid) {
+        this.pids.put(wireComponent, pid);
+    }
+
+    /**
+     * Creates a {@link BenchmarkWire} that delivers the envelopes emitted by the first component to the second one.
+     */
+    public BenchmarkWire connect(final WireComponent emitter, final WireSupport receiverSupport) {
+        return new BenchmarkWire(getServicePid(emitter), receiverSupport);
+    }
+
+    @Override
+    public String getPid(final WireComponent wireComponent) {
+        return this.pids.get(wireComponent);
+    }
+
+    @Override
+    public String getServicePid(final String wireComponentPid) {
+        return wireComponentPid + ".service";
+    }
+
+    @Override
+    public String getServicePid(final WireComponent wireComponent) {
+        return getServicePid(getPid(wireComponent));
+    }
+
+    @Override
+    public boolean isEmitter(final String wireComponentPid) {
+        return findComponent(wireComponentPid) instanceof WireEmitter;
+    }
+
+    @Override
+    public boolean isReceiver(final String wireComponentPid) {
+        return findComponent(wireComponentPid) instanceof WireReceiver;
+    }
+
+    @Override
+    public WireSupport newWireSupport(final WireComponent wireComponent) {
+        return new WireSupportImpl(wireComponent, this, NOOP_EVENT_ADMIN, this.metrics);
+    }
+
+    private WireComponent findComponent(final String pid) {
+        for (final Map.Entry<WireComponent, String> entry : this.pids.entrySet()) {
+            if (entry.getValue().equals(pid)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+}
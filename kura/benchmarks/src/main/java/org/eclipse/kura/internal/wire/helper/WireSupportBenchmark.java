@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.helper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.benchmark.BenchmarkData;
+import org.eclipse.kura.wire.WireEmitter;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireReceiver;
+import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.WireSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgi.service.wireadmin.Wire;
+
+/**
+ * Measures {@link WireSupportImpl#emit(List)}, delivering an envelope from one emitter to a number of receivers
+ * connected by synchronous wires, with and without the Wires runtime metrics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireSupportBenchmark {
+
+    /** Number of receivers connected to the emitter */
+    @Param({ "1", "4", "16" })
+    private int fanOut;
+
+    /** Number of records of the emitted envelope */
+    @Param({ "1", "10" })
+    private int records;
+
+    @Param({ "false", "true" })
+    private boolean metrics;
+
+    private WireSupport emitterSupport;
+
+    private List<WireRecord> wireRecords;
+
+    private CountingReceiver[] receivers;
+
+    @Setup
+    public void setup() {
+        final BenchmarkWireHelperService wireHelperService = new BenchmarkWireHelperService(this.metrics);
+
+        final Emitter emitter = new Emitter();
+        wireHelperService.register(emitter, "emitter");
+        this.emitterSupport = wireHelperService.newWireSupport(emitter);
+
+        this.receivers = new CountingReceiver[this.fanOut];
+        final Wire[] wires = new Wire[this.fanOut];
+        for (int i = 0; i < this.fanOut; i++) {
+            this.receivers[i] = new CountingReceiver();
+            wireHelperService.register(this.receivers[i], "receiver" + i);
+            final WireSupport receiverSupport = wireHelperService.newWireSupport(this.receivers[i]);
+            wires[i] = wireHelperService.connect(emitter, receiverSupport);
+            receiverSupport.producersConnected(new Wire[] { wires[i] });
+        }
+        this.emitterSupport.consumersConnected(wires);
+
+        this.wireRecords = BenchmarkData.newRecords(this.records, 10);
+    }
+
+    @Benchmark
+    public long emit() {
+        this.emitterSupport.emit(this.wireRecords);
+        return this.receivers[this.fanOut - 1].received;
+    }
+
+    private static final class Emitter implements WireEmitter {
+
+        @Override
+        public Object polled(final Wire wire) {
+            return null;
+        }
+
+        @Override
+        public void consumersConnected(final Wire[] wires) {
+            // connections are managed by the benchmark
+        }
+    }
+
+    private static final class CountingReceiver implements WireReceiver {
+
+        private long received;
+
+        @Override
+        public void onWireReceive(final WireEnvelope wireEnvelope) {
+            this.received += wireEnvelope.getRecords().size();
+        }
+
+        @Override
+        public void updated(final Wire wire, final Object value) {
+            // envelopes are delivered through the Wire Support
+        }
+
+        @Override
+        public void producersConnected(final Wire[] wires) {
+            // connections are managed by the benchmark
+        }
+    }
+}
@@ -0,0 +1,361 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.emulator.driver;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.kura.KuraErrorCode;
+import org.eclipse.kura.KuraException;
+import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.configuration.ConfigurationService;
+import org.eclipse.kura.wire.WireConfiguration;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireHelperService;
+import org.eclipse.kura.wire.WireReceiver;
+import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.WireService;
+import org.eclipse.kura.wire.WireSupport;
+import org.osgi.service.component.ComponentContext;
+import org.osgi.service.wireadmin.Wire;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the throughput of a driver through the Wires.
+ * <p>
+ * When enabled, the load test creates N {@code WireAsset}s reading the same channels through the configured driver
+ * and a {@code Timer} triggering all of them, and wires the timer and the assets to itself. It then reports
+ * periodically and at the end of the test:
+ * <ul>
+ * <li>the achieved poll rate, compared to the rate requested by the timer</li>
+ * <li>the read latency percentiles, measured for each asset from the reception of the tick that triggered the poll
+ * to the reception of the asset record</li>
+ * <li>the CPU time spent per poll by all the threads of the framework, excluding the threads of the simulators of
+ * this bundle; the time of the threads that terminated during the test is not accounted</li>
+ * </ul>
+ * The test configurations are created without taking snapshots and deleted when the test ends.
+ */
+public class DriverLoadTest implements WireReceiver, ConfigurableComponent {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverLoadTest.class);
+
+    private static final String WIRE_ASSET_FACTORY_PID = "org.eclipse.kura.wire.WireAsset";
+    private static final String TIMER_FACTORY_PID = "org.eclipse.kura.wire.Timer";
+
+    private static final long COMPONENT_REGISTRATION_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+    private static final int LATENCY_SAMPLES = 1 << 16;
+
+    private volatile WireHelperService wireHelperService;
+    private ConfigurationService configurationService;
+    private WireService wireService;
+
+    private WireSupport wireSupport;
+    private String componentPid;
+    private ScheduledExecutorService executor;
+
+    private volatile TestRun run;
+
+    public void bindWireHelperService(final WireHelperService wireHelperService) {
+        if (isNull(this.wireHelperService)) {
+            this.wireHelperService = wireHelperService;
+        }
+    }
+
+    public void unbindWireHelperService(final WireHelperService wireHelperService) {
+        if (this.wireHelperService == wireHelperService) {
+            this.wireHelperService = null;
+        }
+    }
+
+    public void setConfigurationService(ConfigurationService configurationService) {
+        this.configurationService = configurationService;
+    }
+
+    public void unsetConfigurationService(ConfigurationService configurationService) {
+        this.configurationService = null;
+    }
+
+    public void setWireService(WireService wireService) {
+        this.wireService = wireService;
+    }
+
+    public void unsetWireService(WireService wireService) {
+        this.wireService = null;
+    }
+
+    // ----------------------------------------------------------------
+    //
+    // Activation APIs
+    //
+    // ----------------------------------------------------------------
+
+    protected void activate(ComponentContext componentContext, Map<String, Object> properties) {
+        logger.info("Activating DriverLoadTest...");
+        this.wireSupport = this.wireHelperService.newWireSupport(this);
+        this.componentPid = (String) properties.get(ConfigurationService.KURA_SERVICE_PID);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "DriverLoadTest"));
+        updated(properties);
+    }
+
+    public void updated(Map<String, Object> properties) {
+        final LoadTestOptions options;
+        try {
+            options = new LoadTestOptions(properties);
+        } catch (RuntimeException e) {
+            logger.error("Invalid load test configuration", e);
+            this.executor.execute(this::stopRun);
+            return;
+        }
+        this.executor.execute(() -> {
+            stopRun();
+            if (options.isEnabled()) {
+                startRun(options);
+            }
+        });
+    }
+
+    protected void deactivate(ComponentContext componentContext) {
+        logger.info("Deactivating DriverLoadTest...");
+        try {
+            this.executor.submit(this::stopRun).get(COMPONENT_REGISTRATION_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Failed to stop the load test", e);
+        }
+        this.executor.shutdownNow();
+    }
+
+    // ----------------------------------------------------------------
+    //
+    // Wire APIs
+    //
+    // ----------------------------------------------------------------
+
+    /**
+     * Records the ticks of the timer and the polls of the assets.
+     */
+    @Override
+    public void onWireReceive(WireEnvelope wireEnvelope) {
+        final long now = System.nanoTime();
+        final TestRun currentRun = this.run;
+        if (currentRun == null) {
+            return;
+        }
+        if (currentRun.timerPid.equals(wireEnvelope.getEmitterPid())) {
+            currentRun.statistics.ticked(now);
+            return;
+        }
+        for (WireRecord wireRecord : wireEnvelope.getRecords()) {
+            currentRun.statistics.polled(wireRecord, now);
+        }
+    }
+
+    @Override
+    public void producersConnected(Wire[] wires) {
+        this.wireSupport.producersConnected(wires);
+    }
+
+    @Override
+    public void updated(Wire wire, Object value) {
+        this.wireSupport.updated(wire, value);
+    }
+
+    // ----------------------------------------------------------------
+    //
+    // Private methods, run by the executor
+    //
+    // ----------------------------------------------------------------
+
+    private void startRun(LoadTestOptions options) {
+        final TestRun newRun = new TestRun(options, this.componentPid);
+        try {
+            for (String assetPid : newRun.assetPids) {
+                this.configurationService.createFactoryConfiguration(WIRE_ASSET_FACTORY_PID, assetPid,
+                        options.newAssetProperties(), false);
+                newRun.componentPids.add(assetPid);
+            }
+            final Map<String, Object> timerProperties = new HashMap<>();
+            timerProperties.put("type", "SIMPLE");
+            timerProperties.put("simple.interval", options.getTimerInterval());
+            timerProperties.put("simple.time.unit", "MILLISECONDS");
+            this.configurationService.createFactoryConfiguration(TIMER_FACTORY_PID, newRun.timerPid, timerProperties,
+                    false);
+            newRun.componentPids.add(newRun.timerPid);
+
+            awaitRegistration(newRun.componentPids);
+
+            for (String assetPid : newRun.assetPids) {
+                newRun.wires.add(this.wireService.createWireConfiguration(newRun.timerPid, assetPid));
+                newRun.wires.add(this.wireService.createWireConfiguration(assetPid, this.componentPid));
+            }
+            newRun.wires.add(this.wireService.createWireConfiguration(newRun.timerPid, this.componentPid));
+        } catch (KuraException | InterruptedException e) {
+            logger.error("Failed to set up the load test", e);
+            tearDown(newRun);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+
+        logger.info("Load test started: {} assets of {} channels polled every {} ms", options.getAssetCount(),
+                options.getChannelCount(), options.getTimerInterval());
+        newRun.start();
+        this.run = newRun;
+        newRun.reportTask = this.executor.scheduleAtFixedRate(() -> report(newRun, false),
+                options.getReportInterval(), options.getReportInterval(), TimeUnit.SECONDS);
+        if (options.getTestDuration() > 0) {
+            newRun.stopTask = this.executor.schedule(this::stopRun, options.getTestDuration(), TimeUnit.SECONDS);
+        }
+    }
+
+    private void stopRun() {
+        final TestRun currentRun = this.run;
+        if (currentRun == null) {
+            return;
+        }
+        this.run = null;
+        currentRun.reportTask.cancel(false);
+        if (nonNull(currentRun.stopTask)) {
+            currentRun.stopTask.cancel(false);
+        }
+        report(currentRun, true);
+        tearDown(currentRun);
+    }
+
+    private void awaitRegistration(List<String> pids) throws KuraException, InterruptedException {
+        final long deadline = System.currentTimeMillis() + COMPONENT_REGISTRATION_TIMEOUT;
+        for (String pid : pids) {
+            while (isNull(this.wireHelperService.getServicePid(pid))) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new KuraException(KuraErrorCode.TIMED_OUT, pid + " not registered");
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private void tearDown(TestRun oldRun) {
+        for (WireConfiguration wire : oldRun.wires) {
+            this.wireService.deleteWireConfiguration(wire);
+        }
+        for (String pid : oldRun.componentPids) {
+            try {
+                this.configurationService.deleteFactoryConfiguration(pid, false);
+            } catch (KuraException e) {
+                logger.warn("Failed to delete the configuration of {}", pid, e);
+            }
+        }
+    }
+
+    private static void report(TestRun run, boolean last) {
+        final LoadTestOptions options = run.options;
+        final long now = System.nanoTime();
+        final long cpuTime = getCpuTime();
+        final PollStatistics statistics = run.statistics;
+        final LatencyRecorder.Summary latency = statistics.getAndResetLatency(last);
+
+        final long elapsed = now - (last ? run.startTime : run.intervalStartTime);
+        final long cpuElapsed = cpuTime - (last ? run.startCpuTime : run.intervalStartCpuTime);
+        final long totalPolls = statistics.getPolls();
+        final long polls = last ? totalPolls : totalPolls - run.intervalStartPolls;
+        run.intervalStartTime = now;
+        run.intervalStartCpuTime = cpuTime;
+        run.intervalStartPolls = totalPolls;
+
+        final double seconds = elapsed / 1e9;
+        final double targetRate = options.getAssetCount() * 1000.0 / options.getTimerInterval();
+        final String cpu = cpuTime < 0 || polls == 0 ? "n/a"
+                : TimeUnit.NANOSECONDS.toMicros(cpuElapsed / polls) + "us";
+
+        logger.info(
+                "Load test {}: {} polls in {} s, {} polls/s (target {} polls/s), {} failed polls, "
+                        + "{} failed channel reads, read latency {}, cpu per poll {}",
+                last ? "completed" : "progress", polls, String.format("%.1f", seconds),
+                String.format("%.1f", polls / seconds), String.format("%.1f", targetRate),
+                statistics.getFailedPolls(), statistics.getFailedChannels(), latency, cpu);
+    }
+
+    /**
+     * @return the CPU time consumed by the live threads, excluding the simulators, or -1 if not supported
+     */
+    private static long getCpuTime() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadCpuTimeSupported() || !threads.isThreadCpuTimeEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (info == null || info.getThreadName().startsWith(SimulatorOptions.THREAD_NAME_PREFIX)) {
+                continue;
+            }
+            final long cpuTime = threads.getThreadCpuTime(info.getThreadId());
+            if (cpuTime > 0) {
+                total += cpuTime;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * The state of a running test.
+     */
+    private static final class TestRun {
+
+        private final LoadTestOptions options;
+        private final String timerPid;
+        private final List<String> assetPids = new ArrayList<>();
+        private final List<String> componentPids = new ArrayList<>();
+        private final List<WireConfiguration> wires = new ArrayList<>();
+
+        private final PollStatistics statistics;
+
+        private long startTime;
+        private long startCpuTime;
+        private long intervalStartTime;
+        private long intervalStartCpuTime;
+        private long intervalStartPolls;
+        private ScheduledFuture<?> reportTask;
+        private ScheduledFuture<?> stopTask;
+
+        TestRun(LoadTestOptions options, String componentPid) {
+            this.options = options;
+            this.timerPid = componentPid + ".timer";
+            for (int i = 0; i < options.getAssetCount(); i++) {
+                this.assetPids.add(componentPid + ".asset" + i);
+            }
+            this.statistics = new PollStatistics(this.assetPids, options.getChannelCount(),
+                    LoadTestOptions.ASSET_REQUEST_TIMEOUT, LATENCY_SAMPLES);
+        }
+
+        void start() {
+            this.startTime = this.intervalStartTime = System.nanoTime();
+            this.startCpuTime = this.intervalStartCpuTime = getCpuTime();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.emulator.driver;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The response time of a simulated device: each response is delayed by the configured latency plus a jitter
+ * uniformly distributed between {@code -jitter} and {@code +jitter}, never going below zero.
+ */
+public final class LatencyModel {
+
+    private final long latencyNanos;
+    private final long jitterNanos;
+
+    /**
+     * @param latency
+     *            the mean response latency, in milliseconds
+     * @param jitter
+     *            the maximum deviation from the mean latency, in milliseconds
+     */
+    public LatencyModel(int latency, int jitter) {
+        if (latency < 0 || jitter < 0) {
+            throw new IllegalArgumentException("Latency and jitter must not be negative");
+        }
+        this.latencyNanos = TimeUnit.MILLISECONDS.toNanos(latency);
+        this.jitterNanos = TimeUnit.MILLISECONDS.toNanos(jitter);
+    }
+
+    /**
+     * Waits until the response to a request is due.
+     *
+     * @param receivedNanos
+     *            the time the request has been received, as returned by {@link System#nanoTime()}
+     */
+    public void awaitResponse(long receivedNanos) {
+        long delay = this.latencyNanos;
+        if (this.jitterNanos > 0) {
+            delay += ThreadLocalRandom.current().nextLong(-this.jitterNanos, this.jitterNanos + 1);
+        }
+        if (delay <= 0) {
+            return;
+        }
+
+        final long deadline = receivedNanos + delay;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.emulator.driver;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects latency samples and computes their percentiles.
+ * <p>
+ * The memory used is bounded: once the configured number of samples is reached, the samples are kept with reservoir
+ * sampling, so that the percentiles remain representative of the whole period. The count, mean and maximum are
+ * always exact.
+ */
+final class LatencyRecorder {
+
+    private final long[] samples;
+    private long count;
+    private long total;
+    private long max;
+
+    LatencyRecorder(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    synchronized void record(long nanos) {
+        if (this.count < this.samples.length) {
+            this.samples[(int) this.count] = nanos;
+        } else {
+            final long index = ThreadLocalRandom.current().nextLong(this.count + 1);
+            if (index < this.samples.length) {
+                this.samples[(int) index] = nanos;
+            }
+        }
+        this.count++;
+        this.total += nanos;
+        this.max = Math.max(this.max, nanos);
+    }
+
+    /**
+     * Returns the summary of the samples recorded since the previous reset and starts a new period.
+     */
+    synchronized Summary getAndReset() {
+        final int size = (int) Math.min(this.count, this.samples.length);
+        final long[] sorted = Arrays.copyOf(this.samples, size);
+        Arrays.sort(sorted);
+        final Summary summary = new Summary(this.count, this.count == 0 ? 0 : this.total / this.count,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99), this.max);
+        this.count = 0;
+        this.total = 0;
+        this.max = 0;
+        return summary;
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        // nearest rank
+        final int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    static final class Summary {
+
+        private final long count;
+        private final long mean;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long max;
+
+        Summary(long count, long mean, long p50, long p90, long p99, long max) {
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        long getCount() {
+            return this.count;
+        }
+
+        long getMean() {
+            return this.mean;
+        }
+
+        long getP50() {
+            return this.p50;
+        }
+
+        long getP90() {
+            return this.p90;
+        }
+
+        long getP99() {
+            return this.p99;
+        }
+
+        long getMax() {
+            return this.max;
+        }
+
+        @Override
+        public String toString() {
+            return "mean=" + micros(this.mean) + "us, p50=" + micros(this.p50) + "us, p90=" + micros(this.p90)
+                    + "us, p99=" + micros(this.p99) + "us, max=" + micros(this.max) + "us";
+        }
+
+        private static long micros(long nanos) {
+            return TimeUnit.NANOSECONDS.toMicros(nanos);
+        }
+    }
+}
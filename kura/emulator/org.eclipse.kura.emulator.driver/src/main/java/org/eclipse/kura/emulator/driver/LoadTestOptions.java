@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.emulator.driver;
+
+import static org.eclipse.kura.asset.provider.AssetConstants.ASSET_DESC_PROP;
+import static org.eclipse.kura.asset.provider.AssetConstants.ASSET_DRIVER_PROP;
+import static org.eclipse.kura.asset.provider.AssetConstants.ASSET_REQUEST_TIMEOUT_PROP;
+import static org.eclipse.kura.asset.provider.AssetConstants.CHANNEL_PROPERTY_SEPARATOR;
+import static org.eclipse.kura.asset.provider.AssetConstants.NAME;
+import static org.eclipse.kura.asset.provider.AssetConstants.TYPE;
+import static org.eclipse.kura.asset.provider.AssetConstants.VALUE_TYPE;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.kura.channel.ChannelType;
+import org.eclipse.kura.type.DataType;
+
+/**
+ * The configuration of a {@link DriverLoadTest}.
+ */
+final class LoadTestOptions {
+
+    /** The request timeout of the test assets, in milliseconds */
+    static final int ASSET_REQUEST_TIMEOUT = 10000;
+
+    private static final String ENABLED = "enabled";
+    private static final String DRIVER_PID = "driver.pid";
+    private static final String ASSET_COUNT = "asset.count";
+    private static final String CHANNEL_COUNT = "channel.count";
+    private static final String CHANNEL_VALUE_TYPE = "channel.value.type";
+    private static final String CHANNEL_PROPERTIES = "channel.properties";
+    private static final String CHANNEL_OFFSET_STRIDE = "channel.offset.stride";
+    private static final String TIMER_INTERVAL = "timer.interval";
+    private static final String TEST_DURATION = "test.duration";
+    private static final String REPORT_INTERVAL = "report.interval";
+
+    private static final String CHANNEL_PLACEHOLDER = "{channel}";
+    private static final String OFFSET_PLACEHOLDER = "{offset}";
+
+    private final boolean enabled;
+    private final String driverPid;
+    private final int assetCount;
+    private final int channelCount;
+    private final DataType valueType;
+    private final Map<String, String> channelProperties;
+    private final int offsetStride;
+    private final int timerInterval;
+    private final int testDuration;
+    private final int reportInterval;
+
+    /**
+     * @throws IllegalArgumentException
+     *             if the configuration is not valid
+     */
+    LoadTestOptions(Map<String, Object> properties) {
+        this.enabled = (Boolean) properties.getOrDefault(ENABLED, false);
+        this.driverPid = ((String) properties.getOrDefault(DRIVER_PID, "")).trim();
+        this.assetCount = getPositiveInt(properties, ASSET_COUNT, 10);
+        this.channelCount = getPositiveInt(properties, CHANNEL_COUNT, 10);
+        this.valueType = DataType.getDataType((String) properties.getOrDefault(CHANNEL_VALUE_TYPE, "INTEGER"));
+        this.channelProperties = parseChannelProperties((String) properties.getOrDefault(CHANNEL_PROPERTIES, ""));
+        this.offsetStride = (Integer) properties.getOrDefault(CHANNEL_OFFSET_STRIDE, 2);
+        this.timerInterval = getPositiveInt(properties, TIMER_INTERVAL, 1000);
+        this.testDuration = (Integer) properties.getOrDefault(TEST_DURATION, 60);
+        this.reportInterval = getPositiveInt(properties, REPORT_INTERVAL, 10);
+        if (this.enabled && this.driverPid.isEmpty()) {
+            throw new IllegalArgumentException(DRIVER_PID + " is required");
+        }
+    }
+
+    boolean isEnabled() {
+        return this.enabled;
+    }
+
+    int getAssetCount() {
+        return this.assetCount;
+    }
+
+    int getChannelCount() {
+        return this.channelCount;
+    }
+
+    /**
+     * @return the timer interval, in milliseconds
+     */
+    int getTimerInterval() {
+        return this.timerInterval;
+    }
+
+    /**
+     * @return the test duration in seconds, 0 if the test runs until it is disabled
+     */
+    int getTestDuration() {
+        return this.testDuration;
+    }
+
+    /**
+     * @return the interval between the intermediate reports, in seconds
+     */
+    int getReportInterval() {
+        return this.reportInterval;
+    }
+
+    /**
+     * Builds the configuration of a test asset: all the assets read the same channels.
+     */
+    Map<String, Object> newAssetProperties() {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put(ASSET_DRIVER_PROP.value(), this.driverPid);
+        properties.put(ASSET_DESC_PROP.value(), "Driver load test asset");
+        properties.put(ASSET_REQUEST_TIMEOUT_PROP.value(), ASSET_REQUEST_TIMEOUT);
+
+        final String separator = CHANNEL_PROPERTY_SEPARATOR.value();
+        for (int i = 0; i < this.channelCount; i++) {
+            final String channelName = "channel" + i;
+            final String prefix = channelName + separator;
+            properties.put(prefix + NAME.value(), channelName);
+            properties.put(prefix + TYPE.value(), ChannelType.READ.name());
+            properties.put(prefix + VALUE_TYPE.value(), this.valueType.name());
+
+            final String channel = Integer.toString(i);
+            final String offset = Integer.toString(i * this.offsetStride);
+            for (Map.Entry<String, String> entry : this.channelProperties.entrySet()) {
+                properties.put(prefix + entry.getKey(),
+                        entry.getValue().replace(CHANNEL_PLACEHOLDER, channel).replace(OFFSET_PLACEHOLDER, offset));
+            }
+        }
+        return properties;
+    }
+
+    private static Map<String, String> parseChannelProperties(String description) {
+        final Map<String, String> result = new LinkedHashMap<>();
+        for (String entry : description.split(";")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            final int equals = entry.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Invalid channel property: " + entry);
+            }
+            result.put(entry.substring(0, equals).trim(), entry.substring(equals + 1).trim());
+        }
+        return result;
+    }
+
+    private static int getPositiveInt(Map<String, Object> properties, String key, int defaultValue) {
+        final int value = (Integer) properties.getOrDefault(key, defaultValue);
+        if (value <= 0) {
+            throw new IllegalArgumentException(key + " must be positive");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.emulator.driver;
+
+import static org.eclipse.kura.protocol.modbus.ModbusFunctionCodes.FORCE_MULTIPLE_COILS;
+import static org.eclipse.kura.protocol.modbus.ModbusFunctionCodes.PRESET_MULTIPLE_REGS;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.protocol.modbus.Crc16;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves Modbus RTU requests on a pseudo terminal.
+ * <p>
+ * The server starts {@code socat} to create a pair of linked pseudo terminals: the clients open the device path
+ * provided to the constructor like a serial port, the server uses the other end. The frames are delimited using the
+ * length implied by the function code rather than the silent intervals, which are meaningless on a pseudo terminal.
+ *
+ * See MODBUS over Serial Line Specification and Implementation Guide V1.02, 2.5.1 RTU Transmission Mode
+ */
+final class ModbusRtuServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusRtuServer.class);
+
+    private static final long PTY_CREATION_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+
+    /** Slave address, PDU and CRC. */
+    private static final int MAX_FRAME_LENGTH = 1 + ModbusSlave.MAX_PDU_LENGTH + 2;
+
+    private final ModbusSlave slave;
+    private final LatencyModel latencyModel;
+    private final int unitId;
+    private final Process socat;
+    private final InputStream in;
+    private final OutputStream out;
+
+    /**
+     * @param devicePath
+     *            the path of the link to the pseudo terminal opened by the clients
+     * @param unitId
+     *            the slave address
+     * @throws IOException
+     *             if the pseudo terminals cannot be created
+     */
+    ModbusRtuServer(String devicePath, int unitId, ModbusSlave slave, LatencyModel latencyModel) throws IOException {
+        this.slave = slave;
+        this.latencyModel = latencyModel;
+        this.unitId = unitId;
+
+        final File serverPath = new File(devicePath + ".simulator");
+        this.socat = new ProcessBuilder("socat", "pty,raw,echo=0,link=" + devicePath,
+                "pty,raw,echo=0,link=" + serverPath).redirectErrorStream(true).start();
+        try {
+            final long deadline = System.currentTimeMillis() + PTY_CREATION_TIMEOUT;
+            while (!serverPath.exists() || !new File(devicePath).exists()) {
+                if (!this.socat.isAlive() || System.currentTimeMillis() > deadline) {
+                    throw new IOException("Failed to create the pseudo terminals with socat");
+                }
+                Thread.sleep(10);
+            }
+            this.in = new FileInputStream(serverPath);
+            this.out = new FileOutputStream(serverPath);
+        } catch (IOException e) {
+            this.socat.destroy();
+            throw e;
+        } catch (InterruptedException e) {
+            this.socat.destroy();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while creating the pseudo terminals", e);
+        }
+        SimulatorOptions.newThread("ModbusRtu-" + devicePath, this::serve).start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // closing the pseudo terminals makes the reads fail
+        this.socat.destroy();
+        this.out.close();
+    }
+
+    private void serve() {
+        final byte[] request = new byte[MAX_FRAME_LENGTH];
+        final byte[] response = new byte[MAX_FRAME_LENGTH];
+        try {
+            while (true) {
+                final int length = readFrame(request);
+                final long received = System.nanoTime();
+                if (length < 0) {
+                    discardInput();
+                    continue;
+                }
+                if (Crc16.getCrc16(request, length, 0xffff) != 0) {
+                    logger.debug("Bad CRC, discarding frame");
+                    discardInput();
+                    continue;
+                }
+                final int address = request[0] & 0xff;
+                if (address != this.unitId && address != 0) {
+                    continue;
+                }
+
+                final int responseLength = 1 + this.slave.process(request, 1, length - 3, response, 1);
+                // broadcast requests are executed but not answered
+                if (address == 0) {
+                    continue;
+                }
+                response[0] = (byte) this.unitId;
+                final int crc = Crc16.getCrc16(response, responseLength, 0xffff);
+                response[responseLength] = (byte) crc;
+                response[responseLength + 1] = (byte) (crc >> 8);
+
+                this.latencyModel.awaitResponse(received);
+                this.out.write(response, 0, responseLength + 2);
+                this.out.flush();
+            }
+        } catch (IOException e) {
+            logger.debug("Modbus RTU pseudo terminal closed");
+        } finally {
+            try {
+                this.in.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close the Modbus RTU pseudo terminal", e);
+            }
+        }
+    }
+
+    /**
+     * Reads a request frame.
+     *
+     * @return the frame length, CRC included, or -1 if the function code is not supported
+     */
+    private int readFrame(byte[] frame) throws IOException {
+        readFully(frame, 0, 2);
+        final int function = frame[1] & 0xff;
+        if (function >= 1 && function <= 6) {
+            // address, quantity or value
+            readFully(frame, 2, 6);
+            return 8;
+        }
+        if (function == FORCE_MULTIPLE_COILS || function == PRESET_MULTIPLE_REGS) {
+            // address, quantity and byte count
+            readFully(frame, 2, 5);
+            final int byteCount = frame[6] & 0xff;
+            if (7 + byteCount + 2 > frame.length) {
+                return -1;
+            }
+            readFully(frame, 7, byteCount + 2);
+            return 7 + byteCount + 2;
+        }
+        return -1;
+    }
+
+    private void readFully(byte[] buffer, int offset, int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            final int count = this.in.read(buffer, offset + read, length - read);
+            if (count < 0) {
+                throw new EOFException();
+            }
+            read += count;
+        }
+    }
+
+    /**
+     * Drops the rest of a frame that cannot be parsed, the client will time out and retry.
+     */
+    private void discardInput() throws IOException {
+        while (this.in.available() > 0) {
+            this.in.skip(this.in.available());
+        }
+    }
+}
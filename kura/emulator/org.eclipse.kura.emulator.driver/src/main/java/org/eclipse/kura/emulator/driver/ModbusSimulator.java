@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.emulator.driver;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.osgi.service.component.ComponentContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Simulates a Modbus slave reachable over TCP and over RTU on a pseudo terminal. Both transports share the same
+ * register map.
+ */
+public class ModbusSimulator implements ConfigurableComponent {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusSimulator.class);
+
+    private static final String TCP_ENABLED = "tcp.enabled";
+    private static final String TCP_PORT = "tcp.port";
+    private static final String RTU_ENABLED = "rtu.enabled";
+    private static final String RTU_DEVICE = "rtu.device";
+    private static final String RTU_UNIT_ID = "rtu.unit.id";
+
+    private ModbusTcpServer tcpServer;
+    private ModbusRtuServer rtuServer;
+
+    // ----------------------------------------------------------------
+    //
+    // Activation APIs
+    //
+    // ----------------------------------------------------------------
+
+    protected void activate(ComponentContext componentContext, Map<String, Object> properties) {
+        logger.info("Activating ModbusSimulator...");
+        updated(properties);
+    }
+
+    protected void deactivate(ComponentContext componentContext) {
+        logger.info("Deactivating ModbusSimulator...");
+        stop();
+    }
+
+    public synchronized void updated(Map<String, Object> properties) {
+        stop();
+
+        final SimulatorOptions options = new SimulatorOptions(properties);
+        if (!options.isEnabled()) {
+            return;
+        }
+
+        try {
+            final RegisterMap registerMap = RegisterMap.parse(options.getRegisterMap(), ModbusSlave::sizeInBytes);
+            final ModbusSlave slave = new ModbusSlave(registerMap);
+            final LatencyModel latencyModel = options.getLatencyModel();
+
+            if (options.getBoolean(TCP_ENABLED, true)) {
+                this.tcpServer = new ModbusTcpServer(options.getInt(TCP_PORT, 5020), slave, latencyModel);
+                logger.info("Modbus TCP simulator listening on port {}", this.tcpServer.getPort());
+            }
+            if (options.getBoolean(RTU_ENABLED, false)) {
+                final String device = options.getString(RTU_DEVICE, "/tmp/ttyModbusSimulator");
+                this.rtuServer = new ModbusRtuServer(device, options.getInt(RTU_UNIT_ID, 1), slave, latencyModel);
+                logger.info("Modbus RTU simulator listening on {}", device);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Failed to start the Modbus simulator", e);
+            stop();
+        }
+    }
+
+    private void stop() {
+        close(this.tcpServer);
+        close(this.rtuServer);
+        this.tcpServer = null;
+        this.rtuServer = null;
+    }
+
+    private static void close(AutoCloseable server) {
+        if (server == null) {
+            return;
+        }
+        try {
+            server.close();
+        } catch (Exception e) {
+            logger.warn("Failed to stop the Modbus simulator", e);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.emulator.driver;
+
+import static org.eclipse.kura.protocol.modbus.ModbusFunctionCodes.FORCE_MULTIPLE_COILS;
+import static org.eclipse.kura.protocol.modbus.ModbusFunctionCodes.FORCE_SINGLE_COIL;
+import static org.eclipse.kura.protocol.modbus.ModbusFunctionCodes.PRESET_MULTIPLE_REGS;
+import static org.eclipse.kura.protocol.modbus.ModbusFunctionCodes.PRESET_SINGLE_REG;
+import static org.eclipse.kura.protocol.modbus.ModbusFunctionCodes.READ_COIL_STATUS;
+import static org.eclipse.kura.protocol.modbus.ModbusFunctionCodes.READ_HOLDING_REGS;
+import static org.eclipse.kura.protocol.modbus.ModbusFunctionCodes.READ_INPUT_REGS;
+import static org.eclipse.kura.protocol.modbus.ModbusFunctionCodes.READ_INPUT_STATUS;
+
+import java.util.Arrays;
+
+import org.eclipse.kura.emulator.driver.RegisterMap.Area;
+
+/**
+ * Executes the Modbus requests against a register map, independently of the transport.
+ * <p>
+ * The register map can contain the {@code coils}, {@code discrete.inputs}, {@code holding.registers} and
+ * {@code input.registers} areas, their element count is the number of bits or registers. The requests addressing a
+ * missing area or exceeding its size are answered with the illegal data address exception.
+ *
+ * See MODBUS Application Protocol Specification V1.1b3, 6 Function codes descriptions
+ */
+final class ModbusSlave {
+
+    static final String COILS = "coils";
+    static final String DISCRETE_INPUTS = "discrete.inputs";
+    static final String HOLDING_REGISTERS = "holding.registers";
+    static final String INPUT_REGISTERS = "input.registers";
+
+    /** Maximum size of a PDU, function code included. */
+    static final int MAX_PDU_LENGTH = 253;
+
+    private static final int ILLEGAL_FUNCTION = 0x01;
+    private static final int ILLEGAL_DATA_ADDRESS = 0x02;
+    private static final int ILLEGAL_DATA_VALUE = 0x03;
+
+    private final Area coils;
+    private final Area discreteInputs;
+    private final Area holdingRegisters;
+    private final Area inputRegisters;
+
+    ModbusSlave(RegisterMap registerMap) {
+        this.coils = registerMap.getArea(COILS);
+        this.discreteInputs = registerMap.getArea(DISCRETE_INPUTS);
+        this.holdingRegisters = registerMap.getArea(HOLDING_REGISTERS);
+        this.inputRegisters = registerMap.getArea(INPUT_REGISTERS);
+    }
+
+    /**
+     * The size in bytes of the areas supported by the slave, to be used to parse the register map.
+     */
+    static int sizeInBytes(String name, int count) {
+        if (COILS.equals(name) || DISCRETE_INPUTS.equals(name)) {
+            return count + 7 >> 3;
+        }
+        if (HOLDING_REGISTERS.equals(name) || INPUT_REGISTERS.equals(name)) {
+            return count * 2;
+        }
+        throw new IllegalArgumentException("Unsupported Modbus area: " + name);
+    }
+
+    /**
+     * Executes a request.
+     *
+     * @param request
+     *            the buffer containing the request PDU
+     * @param offset
+     *            the offset of the function code in the request buffer
+     * @param length
+     *            the length of the request PDU
+     * @param response
+     *            the buffer receiving the response PDU, at least {@link #MAX_PDU_LENGTH} bytes long from the response
+     *            offset
+     * @param responseOffset
+     *            the offset of the function code in the response buffer
+     * @return the length of the response PDU
+     */
+    int process(byte[] request, int offset, int length, byte[] response, int responseOffset) {
+        final int function = request[offset] & 0xff;
+        response[responseOffset] = (byte) function;
+        if (length < 5) {
+            return exception(response, responseOffset, function,
+                    isSupported(function) ? ILLEGAL_DATA_VALUE : ILLEGAL_FUNCTION);
+        }
+        final int address = getWord(request, offset + 1);
+        final int quantity = getWord(request, offset + 3);
+
+        switch (function) {
+        case READ_COIL_STATUS:
+            return readBits(this.coils, address, quantity, response, responseOffset);
+        case READ_INPUT_STATUS:
+            return readBits(this.discreteInputs, address, quantity, response, responseOffset);
+        case READ_HOLDING_REGS:
+            return readRegisters(this.holdingRegisters, address, quantity, response, responseOffset);
+        case READ_INPUT_REGS:
+            return readRegisters(this.inputRegisters, address, quantity, response, responseOffset);
+        case FORCE_SINGLE_COIL:
+            return writeSingleCoil(request, offset, address, quantity, response, responseOffset);
+        case PRESET_SINGLE_REG:
+            return writeSingleRegister(request, offset, address, response, responseOffset);
+        case FORCE_MULTIPLE_COILS:
+            return writeMultipleCoils(request, offset, length, address, quantity, response, responseOffset);
+        case PRESET_MULTIPLE_REGS:
+            return writeMultipleRegisters(request, offset, length, address, quantity, response, responseOffset);
+        default:
+            return exception(response, responseOffset, function, ILLEGAL_FUNCTION);
+        }
+    }
+
+    private static boolean isSupported(int function) {
+        return function >= READ_COIL_STATUS && function <= PRESET_SINGLE_REG || function == FORCE_MULTIPLE_COILS
+                || function == PRESET_MULTIPLE_REGS;
+    }
+
+    private static int readBits(Area area, int address, int quantity, byte[] response, int offset) {
+        if (quantity < 1 || quantity > 2000) {
+            return exception(response, offset, response[offset], ILLEGAL_DATA_VALUE);
+        }
+        if (area == null || address + quantity > area.getCount()) {
+            return exception(response, offset, response[offset], ILLEGAL_DATA_ADDRESS);
+        }
+        final int byteCount = quantity + 7 >> 3;
+        response[offset + 1] = (byte) byteCount;
+        // the padding bits of the last byte must be zero
+        Arrays.fill(response, offset + 2, offset + 2 + byteCount, (byte) 0);
+        area.readBits(address, quantity, response, offset + 2);
+        return 2 + byteCount;
+    }
+
+    private static int readRegisters(Area area, int address, int quantity, byte[] response, int offset) {
+        if (quantity < 1 || quantity > 125) {
+            return exception(response, offset, response[offset], ILLEGAL_DATA_VALUE);
+        }
+        if (area == null || address + quantity > area.getCount()) {
+            return exception(response, offset, response[offset], ILLEGAL_DATA_ADDRESS);
+        }
+        final int byteCount = quantity * 2;
+        response[offset + 1] = (byte) byteCount;
+        area.read(address * 2, response, offset + 2, byteCount);
+        return 2 + byteCount;
+    }
+
+    private int writeSingleCoil(byte[] request, int offset, int address, int value, byte[] response,
+            int responseOffset) {
+        if (value != 0xff00 && value != 0x0000) {
+            return exception(response, responseOffset, FORCE_SINGLE_COIL, ILLEGAL_DATA_VALUE);
+        }
+        if (this.coils == null || address >= this.coils.getCount()) {
+            return exception(response, responseOffset, FORCE_SINGLE_COIL, ILLEGAL_DATA_ADDRESS);
+        }
+        this.coils.writeBits(address, 1, new byte[] { (byte) (value == 0 ? 0 : 1) }, 0);
+        return echo(request, offset, response, responseOffset);
+    }
+
+    private int writeSingleRegister(byte[] request, int offset, int address, byte[] response, int responseOffset) {
+        if (this.holdingRegisters == null || address >= this.holdingRegisters.getCount()) {
+            return exception(response, responseOffset, PRESET_SINGLE_REG, ILLEGAL_DATA_ADDRESS);
+        }
+        this.holdingRegisters.write(address * 2, request, offset + 3, 2);
+        return echo(request, offset, response, responseOffset);
+    }
+
+    private int writeMultipleCoils(byte[] request, int offset, int length, int address, int quantity,
+            byte[] response, int responseOffset) {
+        if (quantity < 1 || quantity > 1968 || length < 6 || (request[offset + 5] & 0xff) != quantity + 7 >> 3
+                || length < 6 + (quantity + 7 >> 3)) {
+            return exception(response, responseOffset, FORCE_MULTIPLE_COILS, ILLEGAL_DATA_VALUE);
+        }
+        if (this.coils == null || address + quantity > this.coils.getCount()) {
+            return exception(response, responseOffset, FORCE_MULTIPLE_COILS, ILLEGAL_DATA_ADDRESS);
+        }
+        this.coils.writeBits(address, quantity, request, offset + 6);
+        return echo(request, offset, response, responseOffset);
+    }
+
+    private int writeMultipleRegisters(byte[] request, int offset, int length, int address, int quantity,
+            byte[] response, int responseOffset) {
+        if (quantity < 1 || quantity > 123 || length < 6 || (request[offset + 5] & 0xff) != quantity * 2
+                || length < 6 + quantity * 2) {
+            return exception(response, responseOffset, PRESET_MULTIPLE_REGS, ILLEGAL_DATA_VALUE);
+        }
+        if (this.holdingRegisters == null || address + quantity > this.holdingRegisters.getCount()) {
+            return exception(response, responseOffset, PRESET_MULTIPLE_REGS, ILLEGAL_DATA_ADDRESS);
+        }
+        this.holdingRegisters.write(address * 2, request, offset + 6, quantity * 2);
+        return echo(request, offset, response, responseOffset);
+    }
+
+    /**
+     * The responses to the write requests repeat the function code, the address and the quantity or value.
+     */
+    private static int echo(byte[] request, int offset, byte[] response, int responseOffset) {
+        System.arraycopy(request, offset, response, responseOffset, 5);
+        return 5;
+    }
+
+    private static int exception(byte[] response, int offset, int function, int exceptionCode) {
+        response[offset] = (byte) (function | 0x80);
+        response[offset + 1] = (byte) exceptionCode;
+        return 2;
+    }
+
+    static int getWord(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xff) << 8 | buffer[offset + 1] & 0xff;
+    }
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.emulator.driver;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves Modbus TCP requests on a local port. Each connection is served by its own thread, the requests of a
+ * connection are answered one at a time in the order they are received.
+ *
+ * See MODBUS Messaging on TCP/IP Implementation Guide V1.0b, 3.1.3 MODBUS On TCP/IP Application Data Unit
+ */
+final class ModbusTcpServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusTcpServer.class);
+
+    /** Transaction identifier, protocol identifier, length and unit identifier. */
+    private static final int MBAP_HEADER_LENGTH = 7;
+
+    private final ModbusSlave slave;
+    private final LatencyModel latencyModel;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    ModbusTcpServer(int port, ModbusSlave slave, LatencyModel latencyModel) throws IOException {
+        this.slave = slave;
+        this.latencyModel = latencyModel;
+        this.serverSocket = new ServerSocket(port);
+        SimulatorOptions.newThread("ModbusTcp-" + port, this::accept).start();
+    }
+
+    int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.serverSocket.close();
+        for (Socket socket : this.connections) {
+            socket.close();
+        }
+    }
+
+    private void accept() {
+        while (!this.serverSocket.isClosed()) {
+            try {
+                final Socket socket = this.serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                this.connections.add(socket);
+                SimulatorOptions.newThread("ModbusTcp-" + socket.getRemoteSocketAddress(), () -> serve(socket))
+                        .start();
+            } catch (IOException e) {
+                logger.debug("Modbus TCP server socket closed");
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        final byte[] request = new byte[MBAP_HEADER_LENGTH + ModbusSlave.MAX_PDU_LENGTH];
+        final byte[] response = new byte[MBAP_HEADER_LENGTH + ModbusSlave.MAX_PDU_LENGTH];
+        try (Socket s = socket) {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            final OutputStream out = s.getOutputStream();
+            while (true) {
+                in.readFully(request, 0, MBAP_HEADER_LENGTH);
+                // the length field counts the unit identifier and the PDU
+                final int pduLength = ModbusSlave.getWord(request, 4) - 1;
+                if (pduLength < 1 || pduLength > ModbusSlave.MAX_PDU_LENGTH) {
+                    logger.warn("Invalid Modbus TCP frame length, closing connection");
+                    return;
+                }
+                in.readFully(request, MBAP_HEADER_LENGTH, pduLength);
+                final long received = System.nanoTime();
+
+                final int responseLength = this.slave.process(request, MBAP_HEADER_LENGTH, pduLength, response,
+                        MBAP_HEADER_LENGTH);
+                System.arraycopy(request, 0, response, 0, MBAP_HEADER_LENGTH);
+                response[4] = (byte) (responseLength + 1 >> 8);
+                response[5] = (byte) (responseLength + 1);
+
+                this.latencyModel.awaitResponse(received);
+                out.write(response, 0, MBAP_HEADER_LENGTH + responseLength);
+                out.flush();
+            }
+        } catch (EOFException e) {
+            logger.debug("Modbus TCP connection closed");
+        } catch (IOException e) {
+            logger.debug("Modbus TCP connection closed", e);
+        } finally {
+            this.connections.remove(socket);
+        }
+    }
+}
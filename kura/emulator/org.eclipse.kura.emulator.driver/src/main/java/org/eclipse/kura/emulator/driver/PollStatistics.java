@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.emulator.driver;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.wire.WireRecord;
+
+/**
+ * Accounts the polls of the load test assets.
+ * <p>
+ * The latency of a poll is measured from the tick that triggered it: every asset keeps the reception times of the
+ * ticks it has not answered yet, and the record of an asset is matched with its oldest pending tick. The ticks not
+ * answered within the request timeout of the assets are accounted as failed polls, since the asset does not emit a
+ * record if its read fails.
+ */
+final class PollStatistics {
+
+    private static final String ASSET_NAME_PROPERTY = "assetName";
+    private static final String TIMESTAMP_PROPERTY_SUFFIX = "_timestamp";
+
+    private final int channelCount;
+    private final long timeoutNanos;
+    private final Map<String, PendingTicks> pendingTicks = new HashMap<>();
+
+    private final LongAdder polls = new LongAdder();
+    private final LongAdder failedPolls = new LongAdder();
+    private final LongAdder failedChannels = new LongAdder();
+    private final LatencyRecorder intervalLatency;
+    private final LatencyRecorder totalLatency;
+
+    /**
+     * @param assetPids
+     *            the pids of the polled assets
+     * @param channelCount
+     *            the number of channels of each asset
+     * @param timeout
+     *            the request timeout of the assets, in milliseconds
+     * @param latencySamples
+     *            the maximum number of latency samples kept
+     */
+    PollStatistics(Collection<String> assetPids, int channelCount, long timeout, int latencySamples) {
+        this.channelCount = channelCount;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+        for (String assetPid : assetPids) {
+            this.pendingTicks.put(assetPid, new PendingTicks());
+        }
+        this.intervalLatency = new LatencyRecorder(latencySamples);
+        this.totalLatency = new LatencyRecorder(latencySamples);
+    }
+
+    /**
+     * Records a tick of the timer, received by all the assets.
+     *
+     * @param now
+     *            the reception time, as returned by {@link System#nanoTime()}
+     */
+    void ticked(long now) {
+        for (PendingTicks ticks : this.pendingTicks.values()) {
+            synchronized (ticks) {
+                expire(ticks, now);
+                if (ticks.unmatchedPolls > 0) {
+                    // the record has been received before the tick that triggered it
+                    ticks.unmatchedPolls--;
+                } else {
+                    ticks.times.addLast(now);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the result of a poll. The asset records contain the asset name and, for each channel read
+     * successfully, its value and timestamp.
+     *
+     * @param wireRecord
+     *            the record emitted by an asset
+     * @param now
+     *            the reception time, as returned by {@link System#nanoTime()}
+     */
+    void polled(WireRecord wireRecord, long now) {
+        final Map<String, TypedValue<?>> properties = wireRecord.getProperties();
+        final TypedValue<?> assetName = properties.get(ASSET_NAME_PROPERTY);
+        final PendingTicks ticks = assetName == null ? null : this.pendingTicks.get(assetName.getValue());
+        if (ticks == null) {
+            return;
+        }
+
+        final Long tick;
+        synchronized (ticks) {
+            expire(ticks, now);
+            tick = ticks.times.pollFirst();
+            if (tick == null) {
+                ticks.unmatchedPolls++;
+            }
+        }
+
+        this.polls.increment();
+        int channels = 0;
+        for (String key : properties.keySet()) {
+            if (key.endsWith(TIMESTAMP_PROPERTY_SUFFIX)) {
+                channels++;
+            }
+        }
+        if (channels == 0) {
+            this.failedPolls.increment();
+            return;
+        }
+        this.failedChannels.add(Math.max(0, this.channelCount - channels));
+        if (tick != null) {
+            final long latency = now - tick;
+            this.intervalLatency.record(latency);
+            this.totalLatency.record(latency);
+        }
+    }
+
+    private void expire(PendingTicks ticks, long now) {
+        while (!ticks.times.isEmpty() && now - ticks.times.peekFirst() > this.timeoutNanos) {
+            ticks.times.pollFirst();
+            this.failedPolls.increment();
+        }
+    }
+
+    long getPolls() {
+        return this.polls.sum();
+    }
+
+    long getFailedPolls() {
+        return this.failedPolls.sum();
+    }
+
+    long getFailedChannels() {
+        return this.failedChannels.sum();
+    }
+
+    /**
+     * @param total
+     *            {@code true} for the latency of the whole test, {@code false} for the latency since the previous
+     *            interval summary
+     */
+    LatencyRecorder.Summary getAndResetLatency(boolean total) {
+        return total ? this.totalLatency.getAndReset() : this.intervalLatency.getAndReset();
+    }
+
+    private static final class PendingTicks {
+
+        private final Deque<Long> times = new ArrayDeque<>();
+        private int unmatchedPolls;
+    }
+}
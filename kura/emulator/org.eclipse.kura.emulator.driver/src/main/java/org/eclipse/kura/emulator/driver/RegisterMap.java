@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.emulator.driver;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * The memory of a simulated device, made of named areas.
+ * <p>
+ * A register map is described by a list of {@code name=count[:mode]} entries separated by semicolons or new lines,
+ * for example {@code holding.registers=1000:counter;coils=512}. The meaning of the name and the size of an element
+ * are defined by the simulator, the mode defines how the content evolves:
+ * <ul>
+ * <li>{@code static}, the default: the area only changes when written by a client</li>
+ * <li>{@code counter}: every 16 bit word read is incremented before being returned</li>
+ * <li>{@code random}: the bytes read are randomized before being returned</li>
+ * </ul>
+ */
+public final class RegisterMap {
+
+    public enum Mode {
+        STATIC,
+        COUNTER,
+        RANDOM
+    }
+
+    private final Map<String, Area> areas;
+
+    private RegisterMap(Map<String, Area> areas) {
+        this.areas = Collections.unmodifiableMap(areas);
+    }
+
+    /**
+     * Parses a register map description.
+     *
+     * @param description
+     *            the register map description
+     * @param sizeInBytes
+     *            returns the size in bytes of an area given its name and element count, throws
+     *            {@link IllegalArgumentException} if the name is not supported by the simulator
+     * @return the register map, with all the areas cleared
+     * @throws IllegalArgumentException
+     *             if the description is not valid
+     */
+    public static RegisterMap parse(String description, ToIntBiFunction<String, Integer> sizeInBytes) {
+        final Map<String, Area> areas = new LinkedHashMap<>();
+        for (String entry : description.split("[;\\n]")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            final int equals = entry.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Invalid register map entry: " + entry);
+            }
+            final String name = entry.substring(0, equals).trim();
+            final String[] spec = entry.substring(equals + 1).split(":");
+            if (spec.length > 2) {
+                throw new IllegalArgumentException("Invalid register map entry: " + entry);
+            }
+
+            final int count;
+            try {
+                count = Integer.parseInt(spec[0].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid element count in register map entry: " + entry);
+            }
+            if (count <= 0) {
+                throw new IllegalArgumentException("Invalid element count in register map entry: " + entry);
+            }
+            final Mode mode = spec.length > 1 ? Mode.valueOf(spec[1].trim().toUpperCase(Locale.ENGLISH))
+                    : Mode.STATIC;
+
+            if (areas.put(name, new Area(name, count, sizeInBytes.applyAsInt(name, count), mode)) != null) {
+                throw new IllegalArgumentException("Duplicate register map area: " + name);
+            }
+        }
+        return new RegisterMap(areas);
+    }
+
+    /**
+     * @return the area with the given name, or {@code null} if the map does not contain it
+     */
+    public Area getArea(String name) {
+        return this.areas.get(name);
+    }
+
+    public Map<String, Area> getAreas() {
+        return this.areas;
+    }
+
+    /**
+     * An area of the device memory. The accesses are synchronized, so that an area can be shared by the connections
+     * served concurrently.
+     */
+    public static final class Area {
+
+        private final String name;
+        private final int count;
+        private final byte[] data;
+        private final Mode mode;
+
+        Area(String name, int count, int size, Mode mode) {
+            this.name = name;
+            this.count = count;
+            this.data = new byte[size];
+            this.mode = mode;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * @return the number of elements as configured, registers or bits depending on the simulator
+         */
+        public int getCount() {
+            return this.count;
+        }
+
+        /**
+         * @return the size of the area in bytes
+         */
+        public int getSize() {
+            return this.data.length;
+        }
+
+        public Mode getMode() {
+            return this.mode;
+        }
+
+        /**
+         * Copies a range of the area, applying the mode of the area to the range before.
+         *
+         * @return {@code false} if the range exceeds the area
+         */
+        public synchronized boolean read(int offset, byte[] dest, int destOffset, int length) {
+            if (!contains(offset, length)) {
+                return false;
+            }
+            refresh(offset, length);
+            System.arraycopy(this.data, offset, dest, destOffset, length);
+            return true;
+        }
+
+        /**
+         * @return {@code false} if the range exceeds the area
+         */
+        public synchronized boolean write(int offset, byte[] src, int srcOffset, int length) {
+            if (!contains(offset, length)) {
+                return false;
+            }
+            System.arraycopy(src, srcOffset, this.data, offset, length);
+            return true;
+        }
+
+        /**
+         * Copies a range of bits of the area into a packed bit array, least significant bit first, applying the mode
+         * of the area to the range before.
+         *
+         * @return {@code false} if the range exceeds the area
+         */
+        public synchronized boolean readBits(int bitOffset, int bitCount, byte[] dest, int destOffset) {
+            final int byteOffset = bitOffset >> 3;
+            final int byteLength = (bitOffset + bitCount + 7 >> 3) - byteOffset;
+            if (!contains(byteOffset, byteLength)) {
+                return false;
+            }
+            refresh(byteOffset, byteLength);
+            for (int i = 0; i < bitCount; i++) {
+                final int bit = bitOffset + i;
+                final int destBit = 1 << (i & 7);
+                if ((this.data[bit >> 3] & 1 << (bit & 7)) != 0) {
+                    dest[destOffset + (i >> 3)] |= destBit;
+                } else {
+                    dest[destOffset + (i >> 3)] &= ~destBit;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Updates a range of bits of the area from a packed bit array, least significant bit first.
+         *
+         * @return {@code false} if the range exceeds the area
+         */
+        public synchronized boolean writeBits(int bitOffset, int bitCount, byte[] src, int srcOffset) {
+            if (!contains(bitOffset >> 3, (bitOffset + bitCount + 7 >> 3) - (bitOffset >> 3))) {
+                return false;
+            }
+            for (int i = 0; i < bitCount; i++) {
+                final int bit = bitOffset + i;
+                if ((src[srcOffset + (i >> 3)] & 1 << (i & 7)) != 0) {
+                    this.data[bit >> 3] |= 1 << (bit & 7);
+                } else {
+                    this.data[bit >> 3] &= ~(1 << (bit & 7));
+                }
+            }
+            return true;
+        }
+
+        private boolean contains(int offset, int length) {
+            return offset >= 0 && length >= 0 && offset + length <= this.data.length;
+        }
+
+        private void refresh(int offset, int length) {
+            if (this.mode == Mode.COUNTER) {
+                // the words are aligned to the start of the area
+                final int end = Math.min(offset + length + 1 & ~1, this.data.length - 1);
+                for (int i = offset & ~1; i < end; i += 2) {
+                    final int value = ((this.data[i] & 0xff) << 8 | this.data[i + 1] & 0xff) + 1;
+                    this.data[i] = (byte) (value >> 8);
+                    this.data[i + 1] = (byte) value;
+                }
+            } else if (this.mode == Mode.RANDOM) {
+                final ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = offset; i < offset + length; i++) {
+                    this.data[i] = (byte) random.nextInt();
+                }
+            }
+        }
+    }
+}
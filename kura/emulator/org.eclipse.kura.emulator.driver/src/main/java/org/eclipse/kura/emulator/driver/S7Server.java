@@ -0,0 +1,283 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.emulator.driver;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.kura.emulator.driver.RegisterMap.Area;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves the ISO-on-TCP endpoint of a S7 CPU on a local port.
+ * <p>
+ * The server supports the ISO connection, the PDU negotiation and the read var and write var functions with any
+ * number of items, addressed in bytes. The register map can contain the {@code PE}, {@code PA} and {@code MK} areas
+ * and the {@code DB<n>} data blocks, their element count is the size in bytes. The items addressing a missing area or
+ * exceeding its size are rejected with the "object does not exist" return code.
+ */
+final class S7Server implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(S7Server.class);
+
+    private static final int ISO_HEADER_SIZE = 7;
+    private static final byte RETURN_CODE_SUCCESS = (byte) 0xff;
+    private static final byte RETURN_CODE_OBJECT_DOES_NOT_EXIST = (byte) 0x0a;
+
+    private static final int AREA_PE = 0x81;
+    private static final int AREA_PA = 0x82;
+    private static final int AREA_MK = 0x83;
+    private static final int AREA_DB = 0x84;
+
+    private final Map<Integer, Area> areas = new HashMap<>();
+    private final int pduLength;
+    private final LatencyModel latencyModel;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    S7Server(int port, int pduLength, RegisterMap registerMap, LatencyModel latencyModel) throws IOException {
+        for (Area area : registerMap.getAreas().values()) {
+            this.areas.put(key(area.getName()), area);
+        }
+        this.pduLength = pduLength;
+        this.latencyModel = latencyModel;
+        this.serverSocket = new ServerSocket(port);
+        SimulatorOptions.newThread("S7-" + port, this::accept).start();
+    }
+
+    /**
+     * The size in bytes of the areas supported by the server, to be used to parse the register map.
+     */
+    static int sizeInBytes(String name, int count) {
+        key(name);
+        return count;
+    }
+
+    int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.serverSocket.close();
+        for (Socket socket : this.connections) {
+            socket.close();
+        }
+    }
+
+    private static Integer key(String name) {
+        switch (name) {
+        case "PE":
+            return key(AREA_PE, 0);
+        case "PA":
+            return key(AREA_PA, 0);
+        case "MK":
+            return key(AREA_MK, 0);
+        default:
+            if (name.startsWith("DB")) {
+                try {
+                    final int dbNumber = Integer.parseInt(name.substring(2));
+                    if (dbNumber > 0 && dbNumber <= 0xffff) {
+                        return key(AREA_DB, dbNumber);
+                    }
+                } catch (NumberFormatException e) {
+                    // fall through
+                }
+            }
+            throw new IllegalArgumentException("Unsupported S7 area: " + name);
+        }
+    }
+
+    private static Integer key(int area, int dbNumber) {
+        // the data block number is only meaningful for the DB area
+        return area << 16 | (area == AREA_DB ? dbNumber : 0);
+    }
+
+    private void accept() {
+        while (!this.serverSocket.isClosed()) {
+            try {
+                final Socket socket = this.serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                this.connections.add(socket);
+                SimulatorOptions.newThread("S7-" + socket.getRemoteSocketAddress(), () -> serve(socket)).start();
+            } catch (IOException e) {
+                logger.debug("S7 server socket closed");
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket) {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            final OutputStream out = s.getOutputStream();
+            final byte[] header = new byte[4];
+            while (true) {
+                in.readFully(header);
+                final int length = getWord(header, 2);
+                if (length <= ISO_HEADER_SIZE) {
+                    logger.warn("Invalid TPKT length, closing connection");
+                    return;
+                }
+                final byte[] packet = Arrays.copyOf(header, length);
+                in.readFully(packet, 4, length - 4);
+                final long received = System.nanoTime();
+
+                final byte[] reply = handle(packet);
+                if (reply == null) {
+                    logger.warn("Unsupported S7 request, closing connection");
+                    return;
+                }
+                this.latencyModel.awaitResponse(received);
+                out.write(reply);
+                out.flush();
+            }
+        } catch (EOFException e) {
+            logger.debug("S7 connection closed");
+        } catch (IOException e) {
+            logger.debug("S7 connection closed", e);
+        } finally {
+            this.connections.remove(socket);
+        }
+    }
+
+    private byte[] handle(byte[] packet) {
+        if (packet[5] == (byte) 0xe0) {
+            // connection request, confirm it echoing the parameters
+            final byte[] reply = Arrays.copyOf(packet, packet.length);
+            reply[5] = (byte) 0xd0;
+            return reply;
+        }
+        if (packet.length < ISO_HEADER_SIZE + 12 || packet[8] != 0x01) {
+            // not a job request
+            return null;
+        }
+
+        final int function = packet[17] & 0xff;
+        if (function == 0xf0) {
+            final byte[] reply = newReply(packet, 8, 0);
+            reply[19] = (byte) 0xf0;
+            setWord(reply, 21, 1);
+            setWord(reply, 23, 1);
+            setWord(reply, 25, Math.min(this.pduLength, getWord(packet, 23)));
+            return reply;
+        }
+        if (function == 0x04) {
+            return readVar(packet);
+        }
+        if (function == 0x05) {
+            return writeVar(packet);
+        }
+        return null;
+    }
+
+    private byte[] readVar(byte[] packet) {
+        final int count = packet[18] & 0xff;
+
+        final byte[] data = new byte[this.pduLength];
+        int dataLength = 0;
+        for (int i = 0; i < count; i++) {
+            final int itemOffset = 19 + i * 12;
+            final int amount = getWord(packet, itemOffset + 4);
+            final Area area = getArea(packet, itemOffset);
+            if (dataLength + 4 + amount > data.length || area == null
+                    || !area.read(getStart(packet, itemOffset), data, dataLength + 4, amount)) {
+                data[dataLength] = RETURN_CODE_OBJECT_DOES_NOT_EXIST;
+                dataLength += 4;
+            } else {
+                data[dataLength] = RETURN_CODE_SUCCESS;
+                data[dataLength + 1] = 0x04;
+                setWord(data, dataLength + 2, amount << 3);
+                dataLength += 4 + amount;
+                if ((amount & 1) != 0 && i < count - 1) {
+                    dataLength++;
+                }
+            }
+        }
+
+        final byte[] reply = newReply(packet, 2, dataLength);
+        reply[19] = 0x04;
+        reply[20] = (byte) count;
+        System.arraycopy(data, 0, reply, 21, dataLength);
+        return reply;
+    }
+
+    private byte[] writeVar(byte[] packet) {
+        final int count = packet[18] & 0xff;
+
+        final byte[] reply = newReply(packet, 2, count);
+        reply[19] = 0x05;
+        reply[20] = (byte) count;
+
+        int offset = 19 + count * 12;
+        for (int i = 0; i < count; i++) {
+            final int itemOffset = 19 + i * 12;
+            final int amount = getWord(packet, itemOffset + 4);
+            final int length = getWord(packet, offset + 2) >> 3;
+            final Area area = getArea(packet, itemOffset);
+            if (area == null || length != amount
+                    || !area.write(getStart(packet, itemOffset), packet, offset + 4, length)) {
+                reply[21 + i] = RETURN_CODE_OBJECT_DOES_NOT_EXIST;
+            } else {
+                reply[21 + i] = RETURN_CODE_SUCCESS;
+            }
+            offset += 4 + length;
+            if ((length & 1) != 0 && i < count - 1) {
+                offset++;
+            }
+        }
+        return reply;
+    }
+
+    private Area getArea(byte[] packet, int itemOffset) {
+        return this.areas.get(key(packet[itemOffset + 8] & 0xff, getWord(packet, itemOffset + 6)));
+    }
+
+    private static int getStart(byte[] packet, int itemOffset) {
+        // the address is expressed in bits
+        return ((packet[itemOffset + 9] & 0xff) << 16 | (packet[itemOffset + 10] & 0xff) << 8
+                | packet[itemOffset + 11] & 0xff) >> 3;
+    }
+
+    private static byte[] newReply(byte[] request, int parameterLength, int dataLength) {
+        final int length = ISO_HEADER_SIZE + 12 + parameterLength + dataLength;
+        final byte[] reply = new byte[length];
+        System.arraycopy(request, 0, reply, 0, ISO_HEADER_SIZE);
+        setWord(reply, 2, length);
+        reply[7] = 0x32;
+        reply[8] = 0x03; // ack data
+        reply[11] = request[11];
+        reply[12] = request[12];
+        setWord(reply, 13, parameterLength);
+        setWord(reply, 15, dataLength);
+        return reply;
+    }
+
+    private static int getWord(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xff) << 8 | buffer[offset + 1] & 0xff;
+    }
+
+    private static void setWord(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >> 8);
+        buffer[offset + 1] = (byte) value;
+    }
+}
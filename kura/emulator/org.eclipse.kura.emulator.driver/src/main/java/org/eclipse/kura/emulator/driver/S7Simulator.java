@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.emulator.driver;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.osgi.service.component.ComponentContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Simulates a S7 CPU reachable over ISO-on-TCP.
+ */
+public class S7Simulator implements ConfigurableComponent {
+
+    private static final Logger logger = LoggerFactory.getLogger(S7Simulator.class);
+
+    private static final String PORT = "port";
+    private static final String PDU_LENGTH = "pdu.length";
+
+    private S7Server server;
+
+    // ----------------------------------------------------------------
+    //
+    // Activation APIs
+    //
+    // ----------------------------------------------------------------
+
+    protected void activate(ComponentContext componentContext, Map<String, Object> properties) {
+        logger.info("Activating S7Simulator...");
+        updated(properties);
+    }
+
+    protected void deactivate(ComponentContext componentContext) {
+        logger.info("Deactivating S7Simulator...");
+        stop();
+    }
+
+    public synchronized void updated(Map<String, Object> properties) {
+        stop();
+
+        final SimulatorOptions options = new SimulatorOptions(properties);
+        if (!options.isEnabled()) {
+            return;
+        }
+
+        try {
+            final RegisterMap registerMap = RegisterMap.parse(options.getRegisterMap(), S7Server::sizeInBytes);
+            this.server = new S7Server(options.getInt(PORT, 10102), options.getInt(PDU_LENGTH, 480), registerMap,
+                    options.getLatencyModel());
+            logger.info("S7 simulator listening on port {}", this.server.getPort());
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Failed to start the S7 simulator", e);
+        }
+    }
+
+    private void stop() {
+        if (this.server != null) {
+            try {
+                this.server.close();
+            } catch (IOException e) {
+                logger.warn("Failed to stop the S7 simulator", e);
+            }
+            this.server = null;
+        }
+    }
+}
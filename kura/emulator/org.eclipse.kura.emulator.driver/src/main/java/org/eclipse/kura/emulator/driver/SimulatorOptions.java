@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.emulator.driver;
+
+import java.util.Map;
+
+/**
+ * Reads the configuration properties of the simulators, the properties shared by all the simulators are the enabled
+ * flag, the register map and the response latency and jitter.
+ */
+final class SimulatorOptions {
+
+    /** Prefix of the names of the threads of the simulators. */
+    static final String THREAD_NAME_PREFIX = "DeviceSimulator-";
+
+    private static final String ENABLED = "enabled";
+    private static final String REGISTER_MAP = "register.map";
+    private static final String RESPONSE_LATENCY = "response.latency";
+    private static final String RESPONSE_JITTER = "response.jitter";
+
+    private final Map<String, Object> properties;
+
+    SimulatorOptions(Map<String, Object> properties) {
+        this.properties = properties;
+    }
+
+    boolean isEnabled() {
+        return getBoolean(ENABLED, false);
+    }
+
+    String getRegisterMap() {
+        return getString(REGISTER_MAP, "");
+    }
+
+    LatencyModel getLatencyModel() {
+        return new LatencyModel(getInt(RESPONSE_LATENCY, 0), getInt(RESPONSE_JITTER, 0));
+    }
+
+    boolean getBoolean(String key, boolean defaultValue) {
+        final Object value = this.properties.get(key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    int getInt(String key, int defaultValue) {
+        final Object value = this.properties.get(key);
+        return value instanceof Integer ? (Integer) value : defaultValue;
+    }
+
+    String getString(String key, String defaultValue) {
+        final Object value = this.properties.get(key);
+        return value instanceof String ? (String) value : defaultValue;
+    }
+
+    static Thread newThread(String name, Runnable runnable) {
+        final Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
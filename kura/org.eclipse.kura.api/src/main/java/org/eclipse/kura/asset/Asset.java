@@ -11,6 +11,8 @@ package org.eclipse.kura.asset;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.kura.KuraErrorCode;
 import org.eclipse.kura.KuraException;
@@ -168,4 +170,95 @@ public interface Asset {
      */
     public void write(List<ChannelRecord> channelRecords) throws KuraException;
 
+    /**
+     * Asynchronous variant of {@link #read(Set)}. The returned future is completed with the channel records, or
+     * exceptionally with a {@link KuraException} if the connection to the asset was interrupted or the read did not
+     * complete within the provided timeout, in this case the error code is {@link KuraErrorCode#TIMED_OUT}.
+     * <p>
+     * The default implementation performs a blocking {@link #read(Set)} on the calling thread, ignoring the timeout,
+     * and returns an already completed future.
+     *
+     * @param channelNames
+     *            the set of channel names which are to be read
+     * @param timeout
+     *            the maximum time to wait for the read to complete
+     * @param unit
+     *            the time unit of the timeout
+     * @return the future list of channel records
+     * @throws NullPointerException
+     *             if any of the arguments is null
+     * @since 1.3
+     */
+    public default CompletableFuture<List<ChannelRecord>> readAsync(final Set<String> channelNames,
+            final long timeout, final TimeUnit unit) {
+        final CompletableFuture<List<ChannelRecord>> result = new CompletableFuture<>();
+        try {
+            result.complete(read(channelNames));
+        } catch (final KuraException | RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Asynchronous variant of {@link #readAllChannels()}. The returned future is completed with the channel records,
+     * or exceptionally with a {@link KuraException} if the connection to the asset was interrupted or the read did
+     * not complete within the provided timeout, in this case the error code is {@link KuraErrorCode#TIMED_OUT}.
+     * <p>
+     * The default implementation performs a blocking {@link #readAllChannels()} on the calling thread, ignoring the
+     * timeout, and returns an already completed future.
+     *
+     * @param timeout
+     *            the maximum time to wait for the read to complete
+     * @param unit
+     *            the time unit of the timeout
+     * @return the future list of channel records
+     * @throws NullPointerException
+     *             if the time unit is null
+     * @since 1.3
+     */
+    public default CompletableFuture<List<ChannelRecord>> readAllChannelsAsync(final long timeout,
+            final TimeUnit unit) {
+        final CompletableFuture<List<ChannelRecord>> result = new CompletableFuture<>();
+        try {
+            result.complete(readAllChannels());
+        } catch (final KuraException | RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Asynchronous variant of {@link #write(List)}. The returned future is completed when the channel flags have been
+     * set in the provided channel records, or exceptionally with a {@link KuraException} if the connection to the
+     * asset was interrupted or the write did not complete within the provided timeout, in this case the error code
+     * is {@link KuraErrorCode#TIMED_OUT}.
+     * <p>
+     * The default implementation performs a blocking {@link #write(List)} on the calling thread, ignoring the
+     * timeout, and returns an already completed future.
+     *
+     * @param channelRecords
+     *            the channel records hold the information of what channels are to be written and the values that
+     *            are to be written
+     * @param timeout
+     *            the maximum time to wait for the write to complete
+     * @param unit
+     *            the time unit of the timeout
+     * @return the future result of the write
+     * @throws NullPointerException
+     *             if any of the arguments is null
+     * @since 1.3
+     */
+    public default CompletableFuture<Void> writeAsync(final List<ChannelRecord> channelRecords, final long timeout,
+            final TimeUnit unit) {
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            write(channelRecords);
+            result.complete(null);
+        } catch (final KuraException | RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
 }
@@ -15,6 +15,7 @@ package org.eclipse.kura.driver;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.kura.KuraRuntimeException;
 import org.eclipse.kura.channel.ChannelRecord;
@@ -216,6 +217,60 @@ public interface Driver {
      */
     public void write(List<ChannelRecord> records) throws ConnectionException;
 
+    /**
+     * Asynchronous variant of {@link #read(List)}. The returned future is completed with the provided records, filled
+     * with the read results, or exceptionally with a {@code ConnectionException} if the connection to the field
+     * device is interrupted.
+     * <p>
+     * The default implementation performs a blocking {@link #read(List)} on the calling thread and returns an already
+     * completed future. Drivers capable of non blocking I/O should override this method. Callers that must not block,
+     * like the Kura Assets, invoke this method on an executor dedicated to the driver.
+     *
+     * @param records
+     *            the records hold the information of what channels are to be read
+     * @return the future result of the read
+     * @throws NullPointerException
+     *             if argument is null
+     * @since 1.3
+     */
+    public default CompletableFuture<List<ChannelRecord>> readAsync(final List<ChannelRecord> records) {
+        final CompletableFuture<List<ChannelRecord>> result = new CompletableFuture<>();
+        try {
+            read(records);
+            result.complete(records);
+        } catch (final ConnectionException | RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Asynchronous variant of {@link #write(List)}. The returned future is completed when the write results have been
+     * set in the provided records, or exceptionally with a {@code ConnectionException} if the connection to the field
+     * device is interrupted.
+     * <p>
+     * The default implementation performs a blocking {@link #write(List)} on the calling thread and returns an
+     * already completed future. Drivers capable of non blocking I/O should override this method.
+     *
+     * @param records
+     *            the records hold the information of what channels are to be written and the values that are to
+     *            written
+     * @return the future result of the write
+     * @throws NullPointerException
+     *             if argument is null
+     * @since 1.3
+     */
+    public default CompletableFuture<Void> writeAsync(final List<ChannelRecord> records) {
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            write(records);
+            result.complete(null);
+        } catch (final ConnectionException | RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
     /**
      * This method allows the driver to perform protocol specific optimizations in order to accelerate the execution of
      * batches of read requests having the same channel configuration.
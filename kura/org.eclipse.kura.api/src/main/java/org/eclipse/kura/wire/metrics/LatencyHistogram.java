@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.wire.metrics;
+
+import static java.util.Objects.requireNonNull;
+
+import org.eclipse.kura.annotation.Immutable;
+import org.eclipse.kura.annotation.ThreadSafe;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * The Class LatencyHistogram is a snapshot of the distribution of a set of measured durations.
+ * <br/>
+ * <br/>
+ * The durations are counted in buckets with exponentially increasing bounds: the bucket {@code 0}
+ * counts the durations shorter than {@link #BASE_BUCKET_NANOS} nanoseconds, the bucket {@code i}
+ * counts the durations shorter than {@code BASE_BUCKET_NANOS << i} nanoseconds that are not counted
+ * by the previous buckets. The last bucket also counts all the longer durations.
+ *
+ * @noextend This class is not intended to be extended by clients.
+ * @since 1.3
+ */
+@Immutable
+@ThreadSafe
+@ProviderType
+public final class LatencyHistogram {
+
+    /** The upper bound of the first bucket, in nanoseconds */
+    public static final long BASE_BUCKET_NANOS = 1024;
+
+    private final long[] buckets;
+
+    private final long count;
+
+    private final long totalNanos;
+
+    private final long maxNanos;
+
+    /**
+     * Instantiates a new {@link LatencyHistogram}.
+     *
+     * @param buckets
+     *            the number of durations counted in every bucket
+     * @param totalNanos
+     *            the sum of all the durations in nanoseconds
+     * @param maxNanos
+     *            the longest duration in nanoseconds
+     * @throws NullPointerException
+     *             if the buckets array is null
+     */
+    public LatencyHistogram(final long[] buckets, final long totalNanos, final long maxNanos) {
+        requireNonNull(buckets, "Buckets cannot be null");
+        this.buckets = buckets.clone();
+        long sum = 0;
+        for (final long bucket : buckets) {
+            sum += bucket;
+        }
+        this.count = sum;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * Returns the index of the bucket that counts the provided duration, for a histogram with the provided number
+     * of buckets.
+     *
+     * @param nanos
+     *            the duration in nanoseconds
+     * @param bucketCount
+     *            the number of buckets
+     * @return the bucket index
+     */
+    public static int bucketOf(final long nanos, final int bucketCount) {
+        final int index = 64 - Long.numberOfLeadingZeros(nanos / BASE_BUCKET_NANOS);
+        return Math.min(index, bucketCount - 1);
+    }
+
+    /**
+     * Returns the number of measured durations.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the sum of the measured durations.
+     *
+     * @return the total in nanoseconds
+     */
+    public long getTotalNanos() {
+        return this.totalNanos;
+    }
+
+    /**
+     * Returns the mean of the measured durations.
+     *
+     * @return the mean in nanoseconds, or 0 if no duration has been measured
+     */
+    public long getMeanNanos() {
+        return this.count == 0 ? 0 : this.totalNanos / this.count;
+    }
+
+    /**
+     * Returns the longest measured duration.
+     *
+     * @return the maximum in nanoseconds
+     */
+    public long getMaxNanos() {
+        return this.maxNanos;
+    }
+
+    /**
+     * Returns the number of buckets.
+     *
+     * @return the number of buckets
+     */
+    public int getBucketCount() {
+        return this.buckets.length;
+    }
+
+    /**
+     * Returns the number of durations counted by the provided bucket.
+     *
+     * @param index
+     *            the bucket index
+     * @return the number of durations
+     * @throws ArrayIndexOutOfBoundsException
+     *             if the index is not valid
+     */
+    public long getBucket(final int index) {
+        return this.buckets[index];
+    }
+
+    /**
+     * Returns the exclusive upper bound of the provided bucket, the last bucket has no upper bound.
+     *
+     * @param index
+     *            the bucket index
+     * @return the upper bound in nanoseconds, or {@link Long#MAX_VALUE} for the last bucket
+     */
+    public long getBucketUpperBoundNanos(final int index) {
+        if (index >= this.buckets.length - 1) {
+            return Long.MAX_VALUE;
+        }
+        return BASE_BUCKET_NANOS << index;
+    }
+
+    /**
+     * Returns an estimate of the provided percentile of the measured durations, computed as the upper bound of the
+     * bucket that contains it. The estimate for the last bucket is the maximum measured duration.
+     *
+     * @param percentile
+     *            the percentile, between 0 and 100
+     * @return the estimated percentile in nanoseconds, or 0 if no duration has been measured
+     */
+    public long getPercentileNanos(final double percentile) {
+        if (this.count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(this.count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < this.buckets.length; i++) {
+            seen += this.buckets[i];
+            if (seen >= rank) {
+                return Math.min(getBucketUpperBoundNanos(i), this.maxNanos);
+            }
+        }
+        return this.maxNanos;
+    }
+}
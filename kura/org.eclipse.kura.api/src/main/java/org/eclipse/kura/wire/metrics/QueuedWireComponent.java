@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.wire.metrics;
+
+import org.eclipse.kura.wire.WireComponent;
+import org.osgi.annotation.versioning.ConsumerType;
+
+/**
+ * The interface QueuedWireComponent is implemented by the Wire Components that buffer the received
+ * {@link org.eclipse.kura.wire.WireEnvelope}s before processing them, it allows the
+ * {@link WireMetricsService} to report their queue depth.
+ *
+ * @since 1.3
+ */
+@ConsumerType
+public interface QueuedWireComponent extends WireComponent {
+
+    /**
+     * Returns the number of envelopes currently waiting to be processed.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth();
+}
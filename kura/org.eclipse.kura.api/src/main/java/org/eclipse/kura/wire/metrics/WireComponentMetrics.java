@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.wire.metrics;
+
+import static java.util.Objects.requireNonNull;
+
+import org.eclipse.kura.annotation.Immutable;
+import org.eclipse.kura.annotation.ThreadSafe;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * The Class WireComponentMetrics is a snapshot of the metrics collected for a Wire Component
+ * since the metrics collection has been enabled or reset.
+ * <br/>
+ * <br/>
+ * The receive time measures the execution time of the
+ * {@link org.eclipse.kura.wire.WireReceiver#onWireReceive(org.eclipse.kura.wire.WireEnvelope)} method
+ * and includes the time spent in emitting the records to the downstream components, if the component
+ * emits them while processing the received envelope. The time spent in emitting is also reported
+ * separately as emit blocked time.
+ *
+ * @noextend This class is not intended to be extended by clients.
+ * @since 1.3
+ */
+@Immutable
+@ThreadSafe
+@ProviderType
+public final class WireComponentMetrics {
+
+    /** The queue depth reported for the components that do not implement {@link QueuedWireComponent} */
+    public static final int QUEUE_DEPTH_UNAVAILABLE = -1;
+
+    private final String pid;
+
+    private final long envelopesIn;
+
+    private final long recordsIn;
+
+    private final long envelopesOut;
+
+    private final long recordsOut;
+
+    private final long emitBlockedNanos;
+
+    private final int queueDepth;
+
+    private final LatencyHistogram receiveTime;
+
+    /**
+     * Instantiates a new {@link WireComponentMetrics}.
+     *
+     * @param pid
+     *            the Wire Component PID (kura.service.pid)
+     * @param envelopesIn
+     *            the number of received envelopes
+     * @param recordsIn
+     *            the number of received records
+     * @param envelopesOut
+     *            the number of emitted envelopes
+     * @param recordsOut
+     *            the number of emitted records
+     * @param emitBlockedNanos
+     *            the time spent in delivering the emitted envelopes to the downstream components
+     * @param queueDepth
+     *            the current queue depth, or {@link #QUEUE_DEPTH_UNAVAILABLE}
+     * @param receiveTime
+     *            the distribution of the receive times
+     * @throws NullPointerException
+     *             if the PID or the receive time histogram is null
+     */
+    public WireComponentMetrics(final String pid, final long envelopesIn, final long recordsIn,
+            final long envelopesOut, final long recordsOut, final long emitBlockedNanos, final int queueDepth,
+            final LatencyHistogram receiveTime) {
+        requireNonNull(pid, "Wire Component PID cannot be null");
+        requireNonNull(receiveTime, "Receive time histogram cannot be null");
+        this.pid = pid;
+        this.envelopesIn = envelopesIn;
+        this.recordsIn = recordsIn;
+        this.envelopesOut = envelopesOut;
+        this.recordsOut = recordsOut;
+        this.emitBlockedNanos = emitBlockedNanos;
+        this.queueDepth = queueDepth;
+        this.receiveTime = receiveTime;
+    }
+
+    /**
+     * Gets the Wire Component PID (kura.service.pid).
+     *
+     * @return the Wire Component PID
+     */
+    public String getPid() {
+        return this.pid;
+    }
+
+    /**
+     * Gets the number of received envelopes.
+     *
+     * @return the number of received envelopes
+     */
+    public long getEnvelopesIn() {
+        return this.envelopesIn;
+    }
+
+    /**
+     * Gets the number of received records.
+     *
+     * @return the number of received records
+     */
+    public long getRecordsIn() {
+        return this.recordsIn;
+    }
+
+    /**
+     * Gets the number of emitted envelopes.
+     *
+     * @return the number of emitted envelopes
+     */
+    public long getEnvelopesOut() {
+        return this.envelopesOut;
+    }
+
+    /**
+     * Gets the number of emitted records.
+     *
+     * @return the number of emitted records
+     */
+    public long getRecordsOut() {
+        return this.recordsOut;
+    }
+
+    /**
+     * Gets the total time spent in delivering the emitted envelopes to the downstream components.
+     *
+     * @return the emit blocked time in nanoseconds
+     */
+    public long getEmitBlockedNanos() {
+        return this.emitBlockedNanos;
+    }
+
+    /**
+     * Gets the number of envelopes waiting to be processed by the component.
+     *
+     * @return the queue depth, or {@link #QUEUE_DEPTH_UNAVAILABLE} if the component does not implement
+     *         {@link QueuedWireComponent}
+     */
+    public int getQueueDepth() {
+        return this.queueDepth;
+    }
+
+    /**
+     * Gets the distribution of the execution times of the receive callback.
+     *
+     * @return the receive time histogram
+     */
+    public LatencyHistogram getReceiveTime() {
+        return this.receiveTime;
+    }
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.wire.metrics;
+
+import static java.util.Objects.requireNonNull;
+
+import org.eclipse.kura.annotation.Immutable;
+import org.eclipse.kura.annotation.ThreadSafe;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * The Class WireMetrics is a snapshot of the metrics collected for a single wire between a Wire
+ * Emitter and a Wire Receiver since the metrics collection has been enabled or reset.
+ *
+ * @noextend This class is not intended to be extended by clients.
+ * @since 1.3
+ */
+@Immutable
+@ThreadSafe
+@ProviderType
+public final class WireMetrics {
+
+    private final String emitterPid;
+
+    private final String receiverPid;
+
+    private final long envelopes;
+
+    private final long records;
+
+    private final long deliveryNanos;
+
+    /**
+     * Instantiates a new {@link WireMetrics}.
+     *
+     * @param emitterPid
+     *            the Wire Emitter PID (kura.service.pid)
+     * @param receiverPid
+     *            the Wire Receiver PID (kura.service.pid)
+     * @param envelopes
+     *            the number of envelopes delivered through the wire
+     * @param records
+     *            the number of records delivered through the wire
+     * @param deliveryNanos
+     *            the time spent by the emitter waiting for the receiver to accept the envelopes
+     * @throws NullPointerException
+     *             if any of the PIDs is null
+     */
+    public WireMetrics(final String emitterPid, final String receiverPid, final long envelopes, final long records,
+            final long deliveryNanos) {
+        requireNonNull(emitterPid, "Emitter PID cannot be null");
+        requireNonNull(receiverPid, "Receiver PID cannot be null");
+        this.emitterPid = emitterPid;
+        this.receiverPid = receiverPid;
+        this.envelopes = envelopes;
+        this.records = records;
+        this.deliveryNanos = deliveryNanos;
+    }
+
+    /**
+     * Gets the Wire Emitter PID.
+     *
+     * @return the Wire Emitter PID
+     */
+    public String getEmitterPid() {
+        return this.emitterPid;
+    }
+
+    /**
+     * Gets the Wire Receiver PID.
+     *
+     * @return the Wire Receiver PID
+     */
+    public String getReceiverPid() {
+        return this.receiverPid;
+    }
+
+    /**
+     * Gets the number of envelopes delivered through the wire.
+     *
+     * @return the number of envelopes
+     */
+    public long getEnvelopes() {
+        return this.envelopes;
+    }
+
+    /**
+     * Gets the number of records delivered through the wire.
+     *
+     * @return the number of records
+     */
+    public long getRecords() {
+        return this.records;
+    }
+
+    /**
+     * Gets the time spent by the emitter waiting for the receiver to accept the envelopes.
+     *
+     * @return the delivery time in nanoseconds
+     */
+    public long getDeliveryNanos() {
+        return this.deliveryNanos;
+    }
+}
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.wire.metrics;
+
+import java.util.List;
+
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * The interface WireMetricsService provides the throughput and latency metrics collected by the
+ * {@link org.eclipse.kura.wire.WireSupport} instances of the Wire Components. The metrics collection
+ * is disabled by default, since it adds a small overhead to every emitted and received envelope.
+ * <br/>
+ * <br/>
+ * While the collection is enabled, the service periodically posts an event on the
+ * {@link #METRICS_EVENT_TOPIC} topic containing the current snapshots.
+ *
+ * @noimplement This interface is not intended to be implemented by clients.
+ * @since 1.3
+ */
+@ProviderType
+public interface WireMetricsService {
+
+    /**
+     * The topic of the events containing the periodic metrics snapshots
+     */
+    public static final String METRICS_EVENT_TOPIC = "org/eclipse/kura/wires/metrics";
+
+    /**
+     * The event property containing the list of {@link WireComponentMetrics}
+     */
+    public static final String COMPONENT_METRICS_PROPERTY = "components";
+
+    /**
+     * The event property containing the list of {@link WireMetrics}
+     */
+    public static final String WIRE_METRICS_PROPERTY = "wires";
+
+    /**
+     * Checks whether the metrics collection is enabled
+     *
+     * @return true if the metrics are being collected
+     */
+    public boolean isEnabled();
+
+    /**
+     * Returns the metrics of all the active Wire Components that emitted or received at least one envelope
+     *
+     * @return the list of Wire Component metrics, empty if the metrics collection is disabled
+     */
+    public List<WireComponentMetrics> getComponentMetrics();
+
+    /**
+     * Returns the metrics of all the wires that delivered at least one envelope
+     *
+     * @return the list of wire metrics, empty if the metrics collection is disabled
+     */
+    public List<WireMetrics> getWireMetrics();
+
+    /**
+     * Resets all the collected metrics
+     */
+    public void reset();
+}
@@ -0,0 +1,15 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ *******************************************************************************/
+/**
+ * Provides the APIs to retrieve the runtime metrics of the Kura Wires graph
+ *
+ * @since 1.3
+ */
+package org.eclipse.kura.wire.metrics;
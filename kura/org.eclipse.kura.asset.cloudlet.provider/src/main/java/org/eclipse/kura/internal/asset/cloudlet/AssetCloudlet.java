@@ -14,12 +14,21 @@
 package org.eclipse.kura.internal.asset.cloudlet;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.eclipse.kura.asset.Asset;
 import org.eclipse.kura.asset.AssetService;
@@ -27,6 +36,7 @@ import org.eclipse.kura.channel.ChannelRecord;
 import org.eclipse.kura.cloud.CloudService;
 import org.eclipse.kura.cloud.Cloudlet;
 import org.eclipse.kura.cloud.CloudletTopic;
+import org.eclipse.kura.configuration.ConfigurableComponent;
 import org.eclipse.kura.internal.asset.cloudlet.serialization.request.MetadataRequest;
 import org.eclipse.kura.internal.asset.cloudlet.serialization.request.ReadRequest;
 import org.eclipse.kura.internal.asset.cloudlet.serialization.request.WriteRequest;
@@ -45,7 +55,7 @@ import org.slf4j.LoggerFactory;
 import com.eclipsesource.json.Json;
 import com.eclipsesource.json.JsonArray;
 
-public final class AssetCloudlet extends Cloudlet {
+public final class AssetCloudlet extends Cloudlet implements ConfigurableComponent {
 
     private static final String ASSET_TOPIC_RESOURCE = "assets";
     private static final String READ_TOPIC_RESOURCE = "read";
@@ -65,6 +75,12 @@ public final class AssetCloudlet extends Cloudlet {
 
     private ServiceTracker<Asset, Asset> assetServiceTracker;
 
+    private final AssetReadCache readCache = new AssetReadCache();
+
+    private ExecutorService readExecutor;
+
+    private int readParallelism;
+
     public AssetCloudlet() {
         super(APP_ID);
     }
@@ -93,9 +109,10 @@ public final class AssetCloudlet extends Cloudlet {
         }
     }
 
-    @Override
-    protected synchronized void activate(final ComponentContext componentContext) {
+    protected synchronized void activate(final ComponentContext componentContext,
+            final Map<String, Object> properties) {
         logger.debug(message.activating());
+        updated(properties);
         super.activate(componentContext);
         try {
             this.assetTrackerCustomizer = new AssetTrackerCustomizer(componentContext.getBundleContext(),
@@ -109,14 +126,46 @@ public final class AssetCloudlet extends Cloudlet {
         logger.debug(message.activatingDone());
     }
 
+    public synchronized void updated(final Map<String, Object> properties) {
+        logger.debug(message.updating());
+        final AssetCloudletOptions options = new AssetCloudletOptions(properties);
+        this.readCache.setTtl(options.getReadCacheTtl());
+        if (this.readExecutor == null || this.readParallelism != options.getReadParallelism()) {
+            shutdownReadExecutor();
+            this.readParallelism = options.getReadParallelism();
+            this.readExecutor = createReadExecutor(this.readParallelism);
+        }
+        logger.debug(message.updatingDone());
+    }
+
     @Override
     protected synchronized void deactivate(final ComponentContext componentContext) {
         logger.debug(message.deactivating());
         super.deactivate(componentContext);
         this.assetServiceTracker.close();
+        shutdownReadExecutor();
         logger.debug(message.deactivatingDone());
     }
 
+    private static ExecutorService createReadExecutor(final int parallelism) {
+        if (parallelism <= 1) {
+            return null;
+        }
+        final AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(parallelism, runnable -> {
+            final Thread thread = new Thread(runnable, "AssetCloudletReader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void shutdownReadExecutor() {
+        if (this.readExecutor != null) {
+            this.readExecutor.shutdown();
+            this.readExecutor = null;
+        }
+    }
+
     private void findAssets() {
         this.assets = this.assetTrackerCustomizer.getRegisteredAssets();
     }
@@ -203,40 +252,68 @@ public final class AssetCloudlet extends Cloudlet {
         }
     }
 
-    private void readAsset(String assetName, Set<String> channelNames, ChannelOperationResponse response) {
+    private Consumer<ChannelOperationResponse> readAsset(String assetName, Set<String> channelNames) {
         final Asset asset = this.assets.get(assetName);
         if (asset == null) {
-            response.reportAssetNotFound(assetName);
-            return;
+            return response -> response.reportAssetNotFound(assetName);
         }
         try {
-            if (channelNames.isEmpty()) {
-                response.reportResult(assetName, asset.readAllChannels());
-            } else {
-                response.reportResult(assetName, asset.read(channelNames));
-            }
+            final List<ChannelRecord> records = this.readCache.read(assetName, asset, channelNames);
+            return response -> response.reportResult(assetName, records);
         } catch (Exception e) {
-            response.reportAllFailed(assetName, channelNames.iterator(),
-                    Optional.ofNullable(e.getMessage()).orElse(message.unknownError()));
+            final Iterator<String> failedChannels = channelNames.isEmpty()
+                    ? asset.getAssetConfiguration().getAssetChannels().keySet().iterator()
+                    : channelNames.iterator();
+            final String errorMessage = Optional.ofNullable(e.getMessage()).orElse(message.unknownError());
+            return response -> response.reportAllFailed(assetName, failedChannels, errorMessage);
         }
     }
 
-    private ChannelOperationResponse readAllAssets(final KuraResponsePayload respPayload) {
-        ChannelOperationResponse response = new ChannelOperationResponse();
-        for (Entry<String, Asset> entry : this.assets.entrySet()) {
-            final String assetName = entry.getKey();
-            final Asset asset = entry.getValue();
-            try {
-                response.reportResult(assetName, asset.readAllChannels());
-            } catch (Exception e) {
-                response.reportAllFailed(assetName,
-                        asset.getAssetConfiguration().getAssetChannels().keySet().iterator(),
-                        Optional.ofNullable(e.getMessage()).orElse(message.unknownError()));
+    private ChannelOperationResponse readAssets(final List<ReadRequest> readRequests) {
+        final ExecutorService executor;
+        synchronized (this) {
+            executor = this.readExecutor;
+        }
+
+        final List<Consumer<ChannelOperationResponse>> results = new ArrayList<>(readRequests.size());
+
+        if (executor == null || readRequests.size() == 1) {
+            for (ReadRequest readRequest : readRequests) {
+                results.add(readAsset(readRequest.getAssetName(), readRequest.getChannelNames()));
+            }
+        } else {
+            final List<CompletableFuture<Consumer<ChannelOperationResponse>>> futures = new ArrayList<>(
+                    readRequests.size());
+            for (ReadRequest readRequest : readRequests) {
+                final Supplier<Consumer<ChannelOperationResponse>> read = () -> readAsset(readRequest.getAssetName(),
+                        readRequest.getChannelNames());
+                try {
+                    futures.add(CompletableFuture.supplyAsync(read, executor));
+                } catch (RejectedExecutionException e) {
+                    // the executor has been replaced by a configuration update
+                    futures.add(CompletableFuture.completedFuture(read.get()));
+                }
+            }
+            for (CompletableFuture<Consumer<ChannelOperationResponse>> future : futures) {
+                results.add(future.join());
             }
         }
+
+        final ChannelOperationResponse response = new ChannelOperationResponse();
+        for (Consumer<ChannelOperationResponse> result : results) {
+            result.accept(response);
+        }
         return response;
     }
 
+    private ChannelOperationResponse readAllAssets() {
+        final List<ReadRequest> readRequests = new ArrayList<>(this.assets.size());
+        for (Entry<String, Asset> entry : this.assets.entrySet()) {
+            readRequests.add(new ReadRequest(entry.getKey(), Collections.emptySet()));
+        }
+        return readAssets(readRequests);
+    }
+
     private void read(final KuraRequestPayload reqPayload, final KuraResponsePayload respPayload) {
         this.findAssets();
 
@@ -252,7 +329,7 @@ public final class AssetCloudlet extends Cloudlet {
         ChannelOperationResponse response;
 
         if (request == null || request.isEmpty()) {
-            response = readAllAssets(respPayload);
+            response = readAllAssets();
         } else {
             List<ReadRequest> readRequests;
             try {
@@ -261,10 +338,7 @@ public final class AssetCloudlet extends Cloudlet {
                 respPayload.setResponseCode(KuraResponsePayload.RESPONSE_CODE_BAD_REQUEST);
                 return;
             }
-            response = new ChannelOperationResponse();
-            for (ReadRequest readRequest : readRequests) {
-                readAsset(readRequest.getAssetName(), readRequest.getChannelNames(), response);
-            }
+            response = readAssets(readRequests);
         }
 
         respPayload.setBody(response.serialize());
@@ -279,7 +353,13 @@ public final class AssetCloudlet extends Cloudlet {
         }
         try {
             if (!channelRecords.isEmpty()) {
-                asset.write(channelRecords);
+                // the reads performed while the write is in progress might return the previous values
+                this.readCache.invalidate(assetName);
+                try {
+                    asset.write(channelRecords);
+                } finally {
+                    this.readCache.invalidate(assetName);
+                }
             }
             response.reportResult(assetName, channelRecords);
         } catch (Exception e) {
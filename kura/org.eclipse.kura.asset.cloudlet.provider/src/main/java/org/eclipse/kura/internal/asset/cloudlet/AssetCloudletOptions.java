@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Eurotech
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.asset.cloudlet;
+
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Map;
+
+import org.eclipse.kura.localization.LocalizationAdapter;
+import org.eclipse.kura.localization.resources.AssetCloudletMessages;
+
+/**
+ * The Class AssetCloudletOptions is responsible to provide all the required
+ * options for the Asset Cloudlet
+ */
+final class AssetCloudletOptions {
+
+    private static final AssetCloudletMessages message = LocalizationAdapter.adapt(AssetCloudletMessages.class);
+
+    /** The Constant denoting the time to live of the cached read results. */
+    private static final String CONF_READ_CACHE_TTL = "read.cache.ttl";
+
+    /** The Constant denoting the maximum number of assets read in parallel. */
+    private static final String CONF_READ_PARALLELISM = "read.parallelism";
+
+    private static final int DEFAULT_READ_CACHE_TTL = 0;
+
+    private static final int DEFAULT_READ_PARALLELISM = 4;
+
+    private final Map<String, Object> properties;
+
+    /**
+     * Instantiates a new asset cloudlet options.
+     *
+     * @param properties
+     *            the properties
+     * @throws NullPointerException
+     *             if the provided properties are null
+     */
+    AssetCloudletOptions(final Map<String, Object> properties) {
+        requireNonNull(properties, message.propertiesNonNull());
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the time in milliseconds during which the result of a read can be returned to subsequent identical
+     * requests without accessing the field devices again, 0 means that read results are not cached.
+     *
+     * @return the read cache time to live in milliseconds
+     */
+    int getReadCacheTtl() {
+        int readCacheTtl = DEFAULT_READ_CACHE_TTL;
+        final Object ttl = this.properties.get(CONF_READ_CACHE_TTL);
+        if (nonNull(ttl) && ttl instanceof Integer) {
+            readCacheTtl = Math.max(0, (Integer) ttl);
+        }
+        return readCacheTtl;
+    }
+
+    /**
+     * Returns the maximum number of assets that are read in parallel while serving a single request.
+     *
+     * @return the read parallelism
+     */
+    int getReadParallelism() {
+        int readParallelism = DEFAULT_READ_PARALLELISM;
+        final Object parallelism = this.properties.get(CONF_READ_PARALLELISM);
+        if (nonNull(parallelism) && parallelism instanceof Integer) {
+            readParallelism = Math.max(1, (Integer) parallelism);
+        }
+        return readParallelism;
+    }
+}
@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Eurotech
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.asset.cloudlet;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.eclipse.kura.KuraErrorCode;
+import org.eclipse.kura.KuraException;
+import org.eclipse.kura.asset.Asset;
+import org.eclipse.kura.channel.ChannelRecord;
+
+/**
+ * The Class AssetReadCache performs the asset reads requested by the cloud applications, making sure that
+ * concurrent identical reads result in a single read of the field devices, whose result is returned to all the
+ * requesters. The result of a successful read can also be returned to identical requests received during the
+ * configured time to live. Failures are never cached.
+ * <p>
+ * Every invalidation of an asset increments its version: a result obtained by a read started before an invalidation
+ * is still returned to the requesters of that read, but is never returned to the subsequent ones.
+ * </p>
+ */
+final class AssetReadCache {
+
+    private final Map<ReadKey, ReadEntry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+
+    private volatile long ttlNanos;
+
+    AssetReadCache() {
+        this(System::nanoTime);
+    }
+
+    AssetReadCache(final LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Sets the time to live of the cached read results.
+     *
+     * @param ttl
+     *            the time to live in milliseconds, 0 for coalescing only the concurrent reads
+     */
+    void setTtl(final long ttl) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttl);
+        this.entries.clear();
+    }
+
+    /**
+     * Reads the provided channels of an asset, or returns the result of an identical read that is in progress or
+     * whose result is still valid. The returned records must not be modified.
+     *
+     * @param assetName
+     *            the asset name
+     * @param asset
+     *            the asset
+     * @param channelNames
+     *            the names of the channels to be read, an empty set for reading all the channels
+     * @return the list of read channel records
+     * @throws KuraException
+     *             if the read fails
+     */
+    List<ChannelRecord> read(final String assetName, final Asset asset, final Set<String> channelNames)
+            throws KuraException {
+        final ReadKey key = new ReadKey(assetName, channelNames);
+        final long now = this.nanoClock.getAsLong();
+        final long version = getVersion(assetName);
+        final ReadEntry candidate = new ReadEntry(asset, version);
+
+        final ReadEntry entry = this.entries.compute(key,
+                (k, existing) -> existing != null && existing.isValid(asset, version, now, this.ttlNanos) ? existing
+                        : candidate);
+
+        if (entry == candidate) {
+            evictExpired(now);
+            performRead(key, entry, channelNames);
+        }
+
+        try {
+            return entry.result.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KuraException(KuraErrorCode.INTERNAL_ERROR, e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof KuraException) {
+                throw (KuraException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+    }
+
+    /**
+     * Discards the cached results of the provided asset and the results of the reads of the asset in progress, for
+     * example because its channels are being written.
+     *
+     * @param assetName
+     *            the asset name
+     */
+    void invalidate(final String assetName) {
+        this.versions.merge(assetName, 1L, Long::sum);
+        this.entries.keySet().removeIf(key -> key.assetName.equals(assetName));
+    }
+
+    private long getVersion(final String assetName) {
+        final Long version = this.versions.get(assetName);
+        return version != null ? version : 0;
+    }
+
+    private void performRead(final ReadKey key, final ReadEntry entry, final Set<String> channelNames) {
+        try {
+            final List<ChannelRecord> records = channelNames.isEmpty() ? entry.asset.readAllChannels()
+                    : entry.asset.read(channelNames);
+            entry.completionTime = this.nanoClock.getAsLong();
+            entry.result.complete(records);
+            if (this.ttlNanos == 0 || entry.version != getVersion(key.assetName)) {
+                this.entries.remove(key, entry);
+            }
+        } catch (final Throwable e) {
+            this.entries.remove(key, entry);
+            entry.result.completeExceptionally(e);
+        }
+    }
+
+    private void evictExpired(final long now) {
+        final long ttl = this.ttlNanos;
+        this.entries.values().removeIf(entry -> entry.isExpired(now, ttl));
+    }
+
+    private static final class ReadKey {
+
+        private final String assetName;
+        private final Set<String> channelNames;
+
+        ReadKey(final String assetName, final Set<String> channelNames) {
+            this.assetName = assetName;
+            this.channelNames = Collections.unmodifiableSet(new HashSet<>(channelNames));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.assetName.hashCode() + this.channelNames.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ReadKey)) {
+                return false;
+            }
+            final ReadKey other = (ReadKey) obj;
+            return this.assetName.equals(other.assetName) && this.channelNames.equals(other.channelNames);
+        }
+    }
+
+    private static final class ReadEntry {
+
+        private final Asset asset;
+        private final long version;
+        private final CompletableFuture<List<ChannelRecord>> result = new CompletableFuture<>();
+
+        private volatile long completionTime;
+
+        ReadEntry(final Asset asset, final long version) {
+            this.asset = asset;
+            this.version = version;
+        }
+
+        boolean isValid(final Asset currentAsset, final long currentVersion, final long now, final long ttl) {
+            return this.asset == currentAsset && this.version == currentVersion && !isExpired(now, ttl);
+        }
+
+        boolean isExpired(final long now, final long ttl) {
+            return this.result.isDone() && now - this.completionTime >= ttl;
+        }
+    }
+}
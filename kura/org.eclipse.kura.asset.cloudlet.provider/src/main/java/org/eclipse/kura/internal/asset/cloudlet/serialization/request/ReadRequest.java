@@ -36,6 +36,11 @@ public class ReadRequest {
         });
     }
 
+    public ReadRequest(String assetName, Set<String> channelNames) {
+        this.assetName = assetName;
+        this.channelNames = channelNames;
+    }
+
     public static List<ReadRequest> parseAll(JsonArray array) {
         List<ReadRequest> result = new ArrayList<>();
         for (JsonValue value : array) {
@@ -30,6 +30,9 @@ public enum AssetConstants {
     /** Driver PID Property to be used in the configuration. */
     ASSET_DRIVER_PROP("driver.pid"),
 
+    /** Timeout in milliseconds of the asynchronous Asset operations, to be used in the configuration. */
+    ASSET_REQUEST_TIMEOUT_PROP("asset.request.timeout"),
+
     /** Name Property to be used in the configuration. */
     NAME(CHANNEL_DEFAULT_PROPERTY_PREFIX.value() + "name"),
 
@@ -37,7 +40,10 @@ public enum AssetConstants {
     TYPE(CHANNEL_DEFAULT_PROPERTY_PREFIX.value() + "type"),
 
     /** Value type Property to be used in the configuration. */
-    VALUE_TYPE(CHANNEL_DEFAULT_PROPERTY_PREFIX.value() + "value.type");
+    VALUE_TYPE(CHANNEL_DEFAULT_PROPERTY_PREFIX.value() + "value.type"),
+
+    /** Poll interval in milliseconds Property to be used in the configuration. */
+    POLL_INTERVAL(CHANNEL_DEFAULT_PROPERTY_PREFIX.value() + "poll.interval");
 
     /** The value. */
     private String value;
@@ -18,19 +18,26 @@ import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
 import static org.eclipse.kura.asset.provider.AssetConstants.ASSET_DESC_PROP;
 import static org.eclipse.kura.asset.provider.AssetConstants.ASSET_DRIVER_PROP;
+import static org.eclipse.kura.asset.provider.AssetConstants.ASSET_REQUEST_TIMEOUT_PROP;
+import static org.eclipse.kura.asset.provider.AssetConstants.POLL_INTERVAL;
 import static org.eclipse.kura.channel.ChannelFlag.FAILURE;
 import static org.eclipse.kura.channel.ChannelType.READ;
 import static org.eclipse.kura.channel.ChannelType.READ_WRITE;
 import static org.eclipse.kura.channel.ChannelType.WRITE;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
 
 import org.eclipse.kura.KuraErrorCode;
 import org.eclipse.kura.KuraException;
@@ -57,6 +64,7 @@ import org.eclipse.kura.driver.Driver;
 import org.eclipse.kura.driver.Driver.ConnectionException;
 import org.eclipse.kura.driver.PreparedRead;
 import org.eclipse.kura.internal.asset.provider.AssetOptions;
+import org.eclipse.kura.internal.asset.provider.DriverExecutors;
 import org.eclipse.kura.internal.asset.provider.DriverTrackerCustomizer;
 import org.eclipse.kura.localization.LocalizationAdapter;
 import org.eclipse.kura.localization.resources.AssetMessages;
@@ -97,6 +105,8 @@ import org.slf4j.LoggerFactory;
  * <li>{@code +type} identifies the channel type (READ, WRITE or READ_WRITE) as specified by {@code ChannelType}</li>
  * <li>{@code +value.type} identifies the {@link DataType} of the channel.</li>
  * </ul>
+ * The optional {@code +poll.interval} generic property is the minimum interval in milliseconds between two reads of
+ * the channel performed by {@link #readDueChannelsAsync(long, TimeUnit)}, see {@link BaseChannelDescriptor}.
  * For example, the property keys above for a channel named channel1 would be encoded as channel1#+type and
  * channel1#+value.type<br>
  * 
@@ -113,6 +123,12 @@ import org.slf4j.LoggerFactory;
  * channel1#modbus.unit.id etc.<br>
  * <br>
  *
+ * The asynchronous operations are performed on an executor dedicated to the driver, shared by all the assets attached
+ * to it, see {@link DriverExecutors}. The value associated with the <b><i>asset.request.timeout</i></b> key is
+ * the default timeout in milliseconds of the asynchronous operations performed by subclasses, see
+ * {@link #getRequestTimeout()}.<br>
+ * <br>
+ *
  * @see AssetOptions
  * @see AssetConfiguration
  */
@@ -146,18 +162,32 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
 
     private ServiceTracker<Driver, Driver> driverServiceTracker;
 
-    private PreparedRead preparedRead;
+    /** The readable channels grouped by poll interval, in ascending interval order. */
+    private volatile List<ReadGroup> readGroups = Collections.emptyList();
 
     private boolean hasReadChannels;
 
+    /** Time of the previous {@link #readDueChannelsAsync(long, TimeUnit)} call, as returned by System.nanoTime(). */
+    private long lastPollNanos;
+
+    private boolean polled;
+
+    /** The source of the poll times, System.nanoTime() except in tests. */
+    private final LongSupplier nanoClock;
+
     private String kuraServicePid;
 
     /**
      * Instantiates a new asset instance.
      */
     public BaseAsset() {
+        this(System::nanoTime);
+    }
+
+    BaseAsset(final LongSupplier nanoClock) {
         this.channelListeners = new CopyOnWriteArraySet<>();
         this.monitor = new ReentrantLock();
+        this.nanoClock = nanoClock;
     }
 
     /**
@@ -298,23 +328,16 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
 
     public synchronized void setDriver(Driver driver) {
         this.driver = driver;
-        if (preparedRead != null) {
-            try {
-                preparedRead.close();
-            } catch (Exception e) {
-                logger.warn(message.errorClosingPreparingRead(), e);
-            }
-            preparedRead = null;
-        }
+        closeReadGroups();
         if (driver != null) {
             try {
                 updateExistingProperties(driver);
             } catch (KuraException e) {
                 logger.warn(message.errorUpdatingAssetConfiguration(), e);
             }
-            List<ChannelRecord> readRecords = getAllReadRecords();
-            hasReadChannels = !readRecords.isEmpty();
-            tryPrepareRead(readRecords);
+            List<Channel> readChannels = getReadChannels();
+            hasReadChannels = !readChannels.isEmpty();
+            tryPrepareReads(readChannels);
         }
     }
 
@@ -350,8 +373,19 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
         driverNameAd.setDescription(message.driverName());
         driverNameAd.setRequired(true);
 
+        final Tad requestTimeoutAd = new Tad();
+        requestTimeoutAd.setId(ASSET_REQUEST_TIMEOUT_PROP.value());
+        requestTimeoutAd.setName(ASSET_REQUEST_TIMEOUT_PROP.value());
+        requestTimeoutAd.setCardinality(0);
+        requestTimeoutAd.setType(Tscalar.INTEGER);
+        requestTimeoutAd.setDescription(message.requestTimeout());
+        requestTimeoutAd.setRequired(false);
+        requestTimeoutAd.setDefault(String.valueOf(AssetOptions.DEFAULT_REQUEST_TIMEOUT));
+        requestTimeoutAd.setMin("1");
+
         mainOcd.addAD(assetDescriptionAd);
         mainOcd.addAD(driverNameAd);
+        mainOcd.addAD(requestTimeoutAd);
 
         final Map<String, Object> props = CollectionUtil.newHashMap();
         for (final Map.Entry<String, Object> entry : this.properties.entrySet()) {
@@ -463,21 +497,67 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
         return kuraServicePid;
     }
 
-    private List<ChannelRecord> getAllReadRecords() {
-        List<ChannelRecord> readRecords = new ArrayList<>();
+    /**
+     * Returns the configured timeout of the asynchronous operations.
+     *
+     * @return the timeout in milliseconds
+     */
+    protected long getRequestTimeout() {
+        return this.assetOptions != null ? this.assetOptions.getRequestTimeout()
+                : AssetOptions.DEFAULT_REQUEST_TIMEOUT;
+    }
+
+    private List<Channel> getReadChannels() {
+        List<Channel> readChannels = new ArrayList<>();
 
         if (this.assetConfiguration != null) {
             for (Entry<String, Channel> e : assetConfiguration.getAssetChannels().entrySet()) {
                 final Channel channel = e.getValue();
                 if (channel.getType() == ChannelType.READ || channel.getType() == ChannelType.READ_WRITE) {
-                    readRecords.add(channel.createReadRecord());
+                    readChannels.add(channel);
                 }
             }
         }
 
+        return readChannels;
+    }
+
+    private List<ChannelRecord> getAllReadRecords() {
+        return createReadRecords(getReadChannels());
+    }
+
+    private static List<ChannelRecord> createReadRecords(final List<Channel> channels) {
+        final List<ChannelRecord> readRecords = new ArrayList<>(channels.size());
+        for (final Channel channel : channels) {
+            readRecords.add(channel.createReadRecord());
+        }
         return readRecords;
     }
 
+    /**
+     * Returns the poll interval of the provided channel, 0 if the channel must be read on every trigger.
+     *
+     * @param channel
+     *            the channel
+     * @return the poll interval in nanoseconds
+     */
+    private static long getPollInterval(final Channel channel) {
+        final Object pollInterval = channel.getConfiguration().get(POLL_INTERVAL.value());
+        if (pollInterval == null) {
+            return 0;
+        }
+        try {
+            final long value = Long.parseLong(pollInterval.toString().trim());
+            if (value >= 0) {
+                return TimeUnit.MILLISECONDS.toNanos(value);
+            }
+        } catch (final NumberFormatException e) {
+            // handled below
+        }
+        logger.warn(message.errorPollInterval(), channel.getName());
+        return 0;
+    }
+
     /** {@inheritDoc} */
     @Override
     public List<ChannelRecord> readAllChannels() throws KuraException {
@@ -486,10 +566,11 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
 
         final List<ChannelRecord> channelRecords;
 
+        final List<ReadGroup> currentReadGroups = this.readGroups;
         this.monitor.lock();
         try {
-            if (preparedRead != null) {
-                channelRecords = preparedRead.execute();
+            if (!currentReadGroups.isEmpty()) {
+                channelRecords = executeReadGroups(this.driver, currentReadGroups);
             } else {
                 channelRecords = getAllReadRecords();
                 driver.read(channelRecords);
@@ -510,9 +591,36 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
         requireNonNull(this.driver, message.driverNonNull());
         logger.debug(message.readingChannels());
 
-        final List<ChannelRecord> channelRecords = new ArrayList<>(channelNames.size());
         final List<ChannelRecord> validRecords = new ArrayList<>(channelNames.size());
+        final List<ChannelRecord> channelRecords = createReadRecords(channelNames, validRecords);
 
+        if (!validRecords.isEmpty()) {
+            this.monitor.lock();
+            try {
+                this.driver.read(validRecords);
+            } catch (final ConnectionException ce) {
+                throw new KuraException(KuraErrorCode.CONNECTION_FAILED, ce);
+            } finally {
+                this.monitor.unlock();
+            }
+        }
+        logger.debug(message.readingChannelsDone());
+        return channelRecords;
+    }
+
+    /**
+     * Creates the records for reading the provided channels. The channels that do not exist or are not readable get
+     * a failure record.
+     *
+     * @param channelNames
+     *            the names of the channels to read
+     * @param validRecords
+     *            the list filled with the records of the readable channels, to be passed to the driver
+     * @return the records of all the provided channels
+     */
+    private List<ChannelRecord> createReadRecords(final Set<String> channelNames,
+            final List<ChannelRecord> validRecords) {
+        final List<ChannelRecord> channelRecords = new ArrayList<>(channelNames.size());
         final Map<String, Channel> channels = this.assetConfiguration.getAssetChannels();
 
         for (final String name : channelNames) {
@@ -532,19 +640,143 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
             validRecords.add(record);
             channelRecords.add(record);
         }
+        return channelRecords;
+    }
 
-        if (!validRecords.isEmpty()) {
+    /** {@inheritDoc} */
+    @Override
+    public CompletableFuture<List<ChannelRecord>> readAllChannelsAsync(final long timeout, final TimeUnit unit) {
+        final Driver currentDriver = this.driver;
+        requireNonNull(currentDriver, message.driverNonNull());
+
+        final List<ReadGroup> currentReadGroups = this.readGroups;
+        if (!currentReadGroups.isEmpty()) {
+            return executeReadGroupsAsync(currentDriver, currentReadGroups, timeout, unit);
+        }
+        return readAsync(currentDriver, getAllReadRecords(), timeout, unit);
+    }
+
+    /**
+     * Reads the channels that are due according to their poll interval, see {@link BaseChannelDescriptor}.
+     * <p>
+     * This method is meant to be called periodically, for example by a timer. The channels without a poll interval are
+     * read on every call, the other ones only when their interval has elapsed since the call that last read them. The
+     * channels that share the same poll interval are read together, with a single prepared read if supported by the
+     * driver. Since the calls are not perfectly periodic, a channel is also read if its next read is due within half
+     * of the time elapsed since the previous call, but never more than a quarter of its poll interval in advance.
+     *
+     * @param timeout
+     *            the maximum time to wait for the read to complete
+     * @param unit
+     *            the time unit of the timeout
+     * @return the future records of the channels that have been read, empty if no channel is due
+     * @throws NullPointerException
+     *             if the driver is not attached
+     */
+    public CompletableFuture<List<ChannelRecord>> readDueChannelsAsync(final long timeout, final TimeUnit unit) {
+        final Driver currentDriver = this.driver;
+        requireNonNull(currentDriver, message.driverNonNull());
+
+        final List<ReadGroup> dueReadGroups = getDueReadGroups();
+        if (dueReadGroups.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        return executeReadGroupsAsync(currentDriver, dueReadGroups, timeout, unit);
+    }
+
+    synchronized List<ReadGroup> getDueReadGroups() {
+        final long now = this.nanoClock.getAsLong();
+        final long tolerance = this.polled ? (now - this.lastPollNanos) / 2 : 0;
+        this.lastPollNanos = now;
+        this.polled = true;
+
+        final List<ReadGroup> currentReadGroups = this.readGroups;
+        final List<ReadGroup> dueReadGroups = new ArrayList<>(currentReadGroups.size());
+        for (final ReadGroup readGroup : currentReadGroups) {
+            if (readGroup.poll(now, tolerance)) {
+                dueReadGroups.add(readGroup);
+            }
+        }
+        return dueReadGroups;
+    }
+
+    /**
+     * Executes the prepared reads of the provided groups.
+     *
+     * @param groups
+     *            the groups to read
+     * @param channelRecords
+     *            the list filled with the records returned by the prepared reads
+     * @return the records of the groups without a prepared read, still to be passed to the driver
+     */
+    private static List<ChannelRecord> executePreparedReads(final List<ReadGroup> groups,
+            final List<ChannelRecord> channelRecords) throws ConnectionException, KuraException {
+        final List<ChannelRecord> unpreparedRecords = new ArrayList<>();
+        for (final ReadGroup group : groups) {
+            if (group.preparedRead != null) {
+                channelRecords.addAll(group.preparedRead.execute());
+            } else {
+                unpreparedRecords.addAll(createReadRecords(group.channels));
+            }
+        }
+        return unpreparedRecords;
+    }
+
+    private static List<ChannelRecord> executeReadGroups(final Driver currentDriver, final List<ReadGroup> groups)
+            throws ConnectionException, KuraException {
+        final List<ChannelRecord> channelRecords = new ArrayList<>();
+        final List<ChannelRecord> unpreparedRecords = executePreparedReads(groups, channelRecords);
+        if (!unpreparedRecords.isEmpty()) {
+            currentDriver.read(unpreparedRecords);
+            channelRecords.addAll(unpreparedRecords);
+        }
+        return channelRecords;
+    }
+
+    private CompletableFuture<List<ChannelRecord>> executeReadGroupsAsync(final Driver currentDriver,
+            final List<ReadGroup> groups, final long timeout, final TimeUnit unit) {
+        return DriverExecutors.submit(currentDriver, () -> {
+            final List<ChannelRecord> channelRecords = new ArrayList<>();
             this.monitor.lock();
             try {
-                this.driver.read(validRecords);
-            } catch (final ConnectionException ce) {
-                throw new KuraException(KuraErrorCode.CONNECTION_FAILED, ce);
+                final List<ChannelRecord> unpreparedRecords = executePreparedReads(groups, channelRecords);
+                if (unpreparedRecords.isEmpty()) {
+                    return CompletableFuture.completedFuture(channelRecords);
+                }
+                channelRecords.addAll(unpreparedRecords);
+                return currentDriver.readAsync(unpreparedRecords).thenApply(records -> channelRecords);
             } finally {
                 this.monitor.unlock();
             }
+        }, timeout, unit);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CompletableFuture<List<ChannelRecord>> readAsync(final Set<String> channelNames, final long timeout,
+            final TimeUnit unit) {
+        final Driver currentDriver = this.driver;
+        requireNonNull(currentDriver, message.driverNonNull());
+
+        final List<ChannelRecord> validRecords = new ArrayList<>(channelNames.size());
+        final List<ChannelRecord> channelRecords = createReadRecords(channelNames, validRecords);
+
+        if (validRecords.isEmpty()) {
+            return CompletableFuture.completedFuture(channelRecords);
         }
-        logger.debug(message.readingChannelsDone());
-        return channelRecords;
+        return readAsync(currentDriver, validRecords, timeout, unit).thenApply(records -> channelRecords);
+    }
+
+    private CompletableFuture<List<ChannelRecord>> readAsync(final Driver currentDriver,
+            final List<ChannelRecord> records, final long timeout, final TimeUnit unit) {
+        return DriverExecutors.submit(currentDriver, () -> {
+            this.monitor.lock();
+            try {
+                return currentDriver.readAsync(records);
+            } finally {
+                this.monitor.unlock();
+            }
+        }, timeout, unit);
     }
 
     public boolean hasReadChannels() {
@@ -632,19 +864,35 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
         logger.debug(message.unregisteringListenerDone());
     }
 
-    private synchronized void tryPrepareRead(List<ChannelRecord> readRecords) {
-        if (this.preparedRead != null) {
-            try {
-                this.preparedRead.close();
-            } catch (Exception e) {
-                logger.warn(message.errorClosingPreparingRead(), e);
-            }
-            this.preparedRead = null;
+    private synchronized void tryPrepareReads(List<Channel> readChannels) {
+        closeReadGroups();
+
+        final Map<Long, List<Channel>> channelsByPollInterval = new TreeMap<>();
+        for (final Channel channel : readChannels) {
+            channelsByPollInterval.computeIfAbsent(getPollInterval(channel), interval -> new ArrayList<>())
+                    .add(channel);
+        }
+
+        final List<ReadGroup> groups = new ArrayList<>(channelsByPollInterval.size());
+        for (final Entry<Long, List<Channel>> entry : channelsByPollInterval.entrySet()) {
+            final List<Channel> channels = entry.getValue();
+            final PreparedRead preparedRead = driver != null ? driver.prepareRead(createReadRecords(channels)) : null;
+            groups.add(new ReadGroup(entry.getKey(), channels, preparedRead));
         }
+        this.readGroups = groups;
+    }
 
-        if (!readRecords.isEmpty() && driver != null) {
-            this.preparedRead = driver.prepareRead(readRecords);
+    private synchronized void closeReadGroups() {
+        for (final ReadGroup group : this.readGroups) {
+            if (group.preparedRead != null) {
+                try {
+                    group.preparedRead.close();
+                } catch (Exception e) {
+                    logger.warn(message.errorClosingPreparingRead(), e);
+                }
+            }
         }
+        this.readGroups = Collections.emptyList();
     }
 
     /** {@inheritDoc} */
@@ -653,6 +901,52 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
         requireNonNull(this.driver, message.driverNonNull());
         logger.debug(message.writing());
 
+        final List<ChannelRecord> validRecords = validateWriteRecords(channelRecords);
+
+        if (!validRecords.isEmpty()) {
+            this.monitor.lock();
+            try {
+                this.driver.write(validRecords);
+            } catch (final ConnectionException ce) {
+                throw new KuraException(KuraErrorCode.CONNECTION_FAILED, ce);
+            } finally {
+                this.monitor.unlock();
+            }
+        }
+        logger.debug(message.writingDone());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CompletableFuture<Void> writeAsync(final List<ChannelRecord> channelRecords, final long timeout,
+            final TimeUnit unit) {
+        final Driver currentDriver = this.driver;
+        requireNonNull(currentDriver, message.driverNonNull());
+
+        final List<ChannelRecord> validRecords = validateWriteRecords(channelRecords);
+
+        if (validRecords.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return DriverExecutors.submit(currentDriver, () -> {
+            this.monitor.lock();
+            try {
+                return currentDriver.writeAsync(validRecords);
+            } finally {
+                this.monitor.unlock();
+            }
+        }, timeout, unit);
+    }
+
+    /**
+     * Validates the provided write records. The records of the channels that do not exist or are not writable get a
+     * failure status, the configuration of the channels is set in the other ones.
+     *
+     * @param channelRecords
+     *            the records to validate
+     * @return the valid records, to be passed to the driver
+     */
+    private List<ChannelRecord> validateWriteRecords(final List<ChannelRecord> channelRecords) {
         final List<ChannelRecord> validRecords = new ArrayList<>(channelRecords.size());
 
         final Map<String, Channel> channels = this.assetConfiguration.getAssetChannels();
@@ -672,17 +966,57 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
             channelRecord.setChannelConfig(channel.getConfiguration());
             validRecords.add(channelRecord);
         }
+        return validRecords;
+    }
 
-        if (!validRecords.isEmpty()) {
-            this.monitor.lock();
-            try {
-                this.driver.write(validRecords);
-            } catch (final ConnectionException ce) {
-                throw new KuraException(KuraErrorCode.CONNECTION_FAILED, ce);
-            } finally {
-                this.monitor.unlock();
+    /**
+     * The readable channels that share the same poll interval.
+     */
+    static final class ReadGroup {
+
+        /** The poll interval in nanoseconds, 0 if the channels are read on every trigger. */
+        final long pollInterval;
+
+        final List<Channel> channels;
+
+        /** The prepared read of the channels, null if not supported by the driver. */
+        private final PreparedRead preparedRead;
+
+        private long nextPollNanos;
+
+        private boolean polled;
+
+        ReadGroup(final long pollInterval, final List<Channel> channels, final PreparedRead preparedRead) {
+            this.pollInterval = pollInterval;
+            this.channels = channels;
+            this.preparedRead = preparedRead;
+        }
+
+        /**
+         * Determines whether the channels are due and, if so, schedules their next read.
+         *
+         * @param now
+         *            the current time, as returned by System.nanoTime()
+         * @param tolerance
+         *            the channels are due if their next read is scheduled within this time, in nanoseconds, capped to
+         *            a quarter of the poll interval
+         * @return true if the channels must be read now
+         */
+        boolean poll(final long now, final long tolerance) {
+            if (this.pollInterval == 0) {
+                return true;
+            }
+            if (this.polled && this.nextPollNanos - now > Math.min(tolerance, this.pollInterval / 4)) {
+                return false;
             }
+            // keep the poll phase, unless a whole interval has been missed
+            if (this.polled && now - this.nextPollNanos < this.pollInterval) {
+                this.nextPollNanos += this.pollInterval;
+            } else {
+                this.nextPollNanos = now + this.pollInterval;
+            }
+            this.polled = true;
+            return true;
         }
-        logger.debug(message.writingDone());
     }
-}
\ No newline at end of file
+}
@@ -14,6 +14,7 @@
 package org.eclipse.kura.asset.provider;
 
 import static org.eclipse.kura.asset.provider.AssetConstants.NAME;
+import static org.eclipse.kura.asset.provider.AssetConstants.POLL_INTERVAL;
 import static org.eclipse.kura.asset.provider.AssetConstants.TYPE;
 import static org.eclipse.kura.asset.provider.AssetConstants.VALUE_TYPE;
 
@@ -38,6 +39,7 @@ import org.eclipse.kura.util.collection.CollectionUtil;
  * <li>name</li> denotes the name of the channel
  * <li>type</li>
  * <li>value.type</li>
+ * <li>poll.interval</li>
  * </ul>
  *
  * The <b><i>type</i></b> would be one of the following:
@@ -58,6 +60,10 @@ import org.eclipse.kura.util.collection.CollectionUtil;
  * <li>BYTE_ARRAY</li>
  * </ul>
  *
+ * The optional <b><i>poll.interval</i></b> is the minimum interval in milliseconds between two reads of the channel
+ * performed by {@link BaseAsset#readDueChannelsAsync(long, java.util.concurrent.TimeUnit)}, 0 (the default) to read
+ * the channel every time.
+ *
  * @see AssetConfiguration
  */
 public final class BaseChannelDescriptor implements ChannelDescriptor {
@@ -157,6 +163,18 @@ public final class BaseChannelDescriptor implements ChannelDescriptor {
         valueType.getOption().add(oString);
 
         this.defaultElements.add(valueType);
+
+        final Tad pollInterval = new Tad();
+        pollInterval.setName(POLL_INTERVAL.value());
+        pollInterval.setId(POLL_INTERVAL.value());
+        pollInterval.setDescription(s_message.pollInterval());
+        pollInterval.setType(Tscalar.INTEGER);
+        pollInterval.setCardinality(0);
+        pollInterval.setRequired(false);
+        pollInterval.setDefault("0");
+        pollInterval.setMin("0");
+
+        this.defaultElements.add(pollInterval);
     }
 
     /** {@inheritDoc} */
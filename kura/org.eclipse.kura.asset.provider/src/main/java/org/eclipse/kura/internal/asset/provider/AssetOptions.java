@@ -13,9 +13,11 @@
 package org.eclipse.kura.internal.asset.provider;
 
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
 import static org.eclipse.kura.asset.provider.AssetConstants.ASSET_DESC_PROP;
 import static org.eclipse.kura.asset.provider.AssetConstants.ASSET_DRIVER_PROP;
+import static org.eclipse.kura.asset.provider.AssetConstants.ASSET_REQUEST_TIMEOUT_PROP;
 import static org.eclipse.kura.asset.provider.AssetConstants.CHANNEL_NAME_PROHIBITED_CHARS;
 import static org.eclipse.kura.asset.provider.AssetConstants.CHANNEL_PROPERTY_SEPARATOR;
 import static org.eclipse.kura.asset.provider.AssetConstants.TYPE;
@@ -49,6 +51,9 @@ public final class AssetOptions {
 
     private static final AssetMessages message = LocalizationAdapter.adapt(AssetMessages.class);
 
+    /** Default timeout of the asynchronous operations in milliseconds. */
+    public static final int DEFAULT_REQUEST_TIMEOUT = 10000;
+
     private String assetDescription;
 
     /** The list of channels associated with this asset. */
@@ -57,6 +62,9 @@ public final class AssetOptions {
     /** Name of the driver to be associated with. */
     private String driverPid;
 
+    /** Timeout of the asynchronous operations in milliseconds. */
+    private int requestTimeout;
+
     /**
      * Instantiates a new asset configuration.
      *
@@ -80,6 +88,11 @@ public final class AssetOptions {
         try {
             this.driverPid = (String) properties.get(ASSET_DRIVER_PROP.value());
             this.assetDescription = (String) properties.get(ASSET_DESC_PROP.value());
+            this.requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+            final Object timeout = properties.get(ASSET_REQUEST_TIMEOUT_PROP.value());
+            if (nonNull(timeout) && timeout instanceof Integer && (Integer) timeout > 0) {
+                this.requestTimeout = (Integer) timeout;
+            }
             this.channels = retreiveChannelList(properties);
         } catch (final Exception ex) {
             logger.error(message.errorRetrievingChannels(), ex);
@@ -95,6 +108,15 @@ public final class AssetOptions {
         return new AssetConfiguration(this.assetDescription, this.driverPid, this.channels);
     }
 
+    /**
+     * Gets the timeout of the asynchronous operations.
+     *
+     * @return the timeout in milliseconds
+     */
+    public int getRequestTimeout() {
+        return this.requestTimeout;
+    }
+
     /** {@inheritDoc} */
     @Override
     public String toString() {
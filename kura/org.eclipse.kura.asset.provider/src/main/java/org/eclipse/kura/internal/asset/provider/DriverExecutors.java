@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.asset.provider;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.kura.KuraErrorCode;
+import org.eclipse.kura.KuraException;
+import org.eclipse.kura.driver.Driver;
+import org.eclipse.kura.driver.Driver.ConnectionException;
+
+/**
+ * Runs the asynchronous Asset operations on executors dedicated to the drivers.
+ * <p>
+ * Every {@link Driver} instance gets a single threaded executor with a bounded queue, shared by all the Assets
+ * attached to it. The operations on the same driver are therefore performed in submission order, one at a time, while
+ * the operations on different drivers run in parallel. Blocking drivers only block their own executor thread, drivers
+ * that implement non blocking I/O return immediately and complete the operations later. The executor threads
+ * terminate when idle and the executors are discarded together with the drivers.
+ * <p>
+ * The executors are created on demand and are shut down by {@link #shutdown()} when the bundle is stopped, see
+ * {@link DriverExecutorsComponent}.
+ */
+public final class DriverExecutors {
+
+    /** Maximum number of operations waiting for a driver, further operations are rejected */
+    private static final int QUEUE_CAPACITY = 64;
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private static final Map<Driver, ThreadPoolExecutor> executors = new WeakHashMap<>();
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private static ScheduledExecutorService timeoutScheduler;
+
+    private DriverExecutors() {
+        // Static Factory Methods container. No need to instantiate.
+    }
+
+    /**
+     * Submits an operation to the executor of the provided driver.
+     * <p>
+     * The returned future is completed with the result of the future returned by the operation, or exceptionally if
+     * the operation does not complete within the provided timeout ({@link KuraErrorCode#TIMED_OUT}), if the
+     * connection to the field device is interrupted ({@link KuraErrorCode#CONNECTION_FAILED}) or if too many
+     * operations are waiting for the driver ({@link KuraErrorCode#INTERNAL_ERROR}). The timeout includes the time
+     * spent waiting for the preceding operations. An operation that times out is removed from the queue if it did
+     * not start yet, otherwise the driver thread is interrupted and the future returned by the operation is
+     * cancelled.
+     *
+     * @param driver
+     *            the driver
+     * @param operation
+     *            the operation, invoked on the driver executor
+     * @param timeout
+     *            the maximum time to wait for the operation to complete
+     * @param unit
+     *            the time unit of the timeout
+     * @return the future result of the operation
+     * @throws NullPointerException
+     *             if any of the arguments is null
+     */
+    public static <T> CompletableFuture<T> submit(final Driver driver, final Callable<CompletableFuture<T>> operation,
+            final long timeout, final TimeUnit unit) {
+        requireNonNull(driver, "Driver cannot be null");
+        requireNonNull(operation, "Operation cannot be null");
+        requireNonNull(unit, "Time unit cannot be null");
+
+        final DriverOperation<T> task;
+        final ScheduledExecutorService scheduler;
+        synchronized (DriverExecutors.class) {
+            final ThreadPoolExecutor executor = getExecutor(driver);
+            task = new DriverOperation<>(executor, operation);
+            try {
+                executor.execute(task);
+            } catch (final RejectedExecutionException e) {
+                task.result.completeExceptionally(new KuraException(KuraErrorCode.INTERNAL_ERROR, e, e.getMessage()));
+                return task.result;
+            }
+            scheduler = getTimeoutScheduler();
+        }
+
+        final ScheduledFuture<?> timeoutTask = scheduler.schedule(task::timeout, timeout, unit);
+        task.result.whenComplete((value, e) -> timeoutTask.cancel(false));
+        return task.result;
+    }
+
+    /**
+     * Shuts down the driver executors and the timeout scheduler. The operations waiting for a driver are completed
+     * exceptionally ({@link KuraErrorCode#INTERNAL_ERROR}), the running ones are interrupted.
+     */
+    static synchronized void shutdown() {
+        for (final ThreadPoolExecutor executor : executors.values()) {
+            for (final Runnable pending : executor.shutdownNow()) {
+                if (pending instanceof DriverOperation) {
+                    ((DriverOperation<?>) pending).abort();
+                }
+            }
+        }
+        executors.clear();
+        if (timeoutScheduler != null) {
+            timeoutScheduler.shutdownNow();
+            timeoutScheduler = null;
+        }
+    }
+
+    private static <T> void complete(final CompletableFuture<T> result, final T value, final Throwable e) {
+        if (e == null) {
+            result.complete(value);
+            return;
+        }
+        Throwable cause = e;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof ConnectionException) {
+            result.completeExceptionally(new KuraException(KuraErrorCode.CONNECTION_FAILED, cause));
+        } else {
+            result.completeExceptionally(cause);
+        }
+    }
+
+    private static ThreadPoolExecutor getExecutor(final Driver driver) {
+        return executors.computeIfAbsent(driver, d -> {
+            final String name = "AssetDriverThread-" + d.getClass().getSimpleName() + "-"
+                    + threadCount.incrementAndGet();
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                        final Thread thread = new Thread(r, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        });
+    }
+
+    private static ScheduledExecutorService getTimeoutScheduler() {
+        if (timeoutScheduler == null) {
+            final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+                final Thread thread = new Thread(r, "AssetTimeoutThread");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+            timeoutScheduler = scheduler;
+        }
+        return timeoutScheduler;
+    }
+
+    /**
+     * An operation submitted to a driver executor, together with the future that is completed with its result.
+     */
+    private static final class DriverOperation<T> implements Runnable {
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private final ThreadPoolExecutor executor;
+
+        private final Callable<CompletableFuture<T>> operation;
+
+        private final FutureTask<Void> task;
+
+        private volatile CompletableFuture<T> operationResult;
+
+        DriverOperation(final ThreadPoolExecutor executor, final Callable<CompletableFuture<T>> operation) {
+            this.executor = executor;
+            this.operation = operation;
+            this.task = new FutureTask<>(this::execute, null);
+        }
+
+        @Override
+        public void run() {
+            this.task.run();
+        }
+
+        private void execute() {
+            if (this.result.isDone()) {
+                return;
+            }
+            try {
+                this.operationResult = this.operation.call();
+                this.operationResult.whenComplete((value, e) -> complete(this.result, value, e));
+            } catch (final Exception e) {
+                complete(this.result, null, e);
+            }
+        }
+
+        /**
+         * Removes the operation from the queue or interrupts it if running, completes the result with a timeout and
+         * cancels the future returned by the operation.
+         */
+        void timeout() {
+            if (this.result.isDone()) {
+                return;
+            }
+            // free the queue slot before completing the result, a queued operation cannot complete in the meantime
+            this.executor.remove(this);
+            if (!this.result.completeExceptionally(new KuraException(KuraErrorCode.TIMED_OUT))) {
+                return;
+            }
+            this.task.cancel(true);
+            final CompletableFuture<T> pending = this.operationResult;
+            if (pending != null) {
+                pending.cancel(true);
+            }
+        }
+
+        void abort() {
+            this.result.completeExceptionally(
+                    new KuraException(KuraErrorCode.INTERNAL_ERROR, null, "Driver executor shut down"));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.asset.provider;
+
+/**
+ * Ties the lifecycle of the {@link DriverExecutors} to the bundle: the executors are shut down when the component is
+ * deactivated, which happens at the latest when the bundle is stopped.
+ */
+public final class DriverExecutorsComponent {
+
+    /**
+     * OSGi service component deactivation callback
+     */
+    protected void deactivate() {
+        DriverExecutors.shutdown();
+    }
+}
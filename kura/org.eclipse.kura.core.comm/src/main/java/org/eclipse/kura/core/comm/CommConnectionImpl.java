@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2016 Eurotech and/or its affiliates and others
+ * Copyright (c) 2011, 2017 Eurotech and/or its affiliates and others
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -21,8 +21,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.ByteBuffer;
 import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
 
 import javax.comm.CommPort;
 import javax.comm.CommPortIdentifier;
@@ -37,6 +37,15 @@ import org.eclipse.kura.comm.CommURI;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * A {@link CommConnection} to a serial port.
+ * <p>
+ * The data received by the port is read by a thread dedicated to the connection, with blocking bulk reads, into a
+ * ring buffer. The input stream of the connection, the command methods and the framed reads all consume
+ * that buffer and block until the data they need is received, without polling the port. The receive timeout of the
+ * URI is applied by the input stream. {@link CommDataListener}s can be registered to be notified of the received
+ * data as it arrives.
+ */
 public class CommConnectionImpl implements CommConnection, Closeable {
 
     private static final String JAVA_EXT_DIRS = "java.ext.dirs";
@@ -62,9 +71,18 @@ public class CommConnectionImpl implements CommConnection, Closeable {
         }
     }
 
+    /** Receive timeout of the port used by the reader thread, bounds the time needed to stop it. */
+    private static final int READER_TIMEOUT_MS = 200;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int FLUSH_TIMEOUT_MS = 50;
+
     private final CommURI commUri;
-    private SerialPort serialPort;
-    private InputStream inputStream;
+    private final Object writeLock = new Object();
+    private final Object commandLock = new Object();
+    private volatile SerialPort serialPort;
+    private final InputStream inputStream;
+    private final SerialBuffer buffer;
+    private final SerialReader reader;
     private OutputStream outputStream;
 
     public CommConnectionImpl(CommURI commUri, int mode, boolean timeouts)
@@ -92,19 +110,25 @@ public class CommConnectionImpl implements CommConnection, Closeable {
             try {
                 this.serialPort.setSerialPortParams(baudRate, dataBits, stopBits, parity);
                 this.serialPort.setFlowControlMode(flowControl);
-                if (receiveTimeout > 0) {
-                    this.serialPort.enableReceiveTimeout(receiveTimeout);
-                    if (!this.serialPort.isReceiveTimeoutEnabled()) {
-                        throw new IOException("Serial receive timeout not supported by driver");
-                    }
+                this.serialPort.disableReceiveThreshold();
+                this.serialPort.enableReceiveTimeout(READER_TIMEOUT_MS);
+                if (!this.serialPort.isReceiveTimeoutEnabled()) {
+                    logger.debug("Serial receive timeout not supported by driver, reads only stop on close");
                 }
             } catch (UnsupportedCommOperationException e) {
                 logger.error("Failed to configure COM port", e);
+                this.serialPort.close();
                 throw new IOException(e);
             }
         } else {
+            commPort.close();
             throw new IOException("Unsupported Port Type");
         }
+
+        this.buffer = new SerialBuffer(BUFFER_SIZE);
+        this.inputStream = this.buffer.newInputStream(receiveTimeout);
+        this.reader = new SerialReader(port, this.serialPort.getInputStream(), this.buffer);
+        this.reader.start();
     }
 
     @Override
@@ -117,13 +141,13 @@ public class CommConnectionImpl implements CommConnection, Closeable {
         return new DataInputStream(openInputStream());
     }
 
+    /**
+     * Returns a stream of the received data. Reads wait for at most the receive timeout of the URI and return no
+     * data if it expires.
+     */
     @Override
     public synchronized InputStream openInputStream() throws IOException {
         checkIfClosed();
-
-        if (this.inputStream == null) {
-            this.inputStream = this.serialPort.getInputStream();
-        }
         return this.inputStream;
     }
 
@@ -147,10 +171,8 @@ public class CommConnectionImpl implements CommConnection, Closeable {
         if (this.serialPort != null) {
             this.serialPort.notifyOnDataAvailable(false);
             this.serialPort.removeEventListener();
-            if (this.inputStream != null) {
-                this.inputStream.close();
-                this.inputStream = null;
-            }
+            this.reader.stop(2L * READER_TIMEOUT_MS);
+            this.serialPort.getInputStream().close();
             if (this.outputStream != null) {
                 this.outputStream.close();
                 this.outputStream = null;
@@ -167,8 +189,21 @@ public class CommConnectionImpl implements CommConnection, Closeable {
         }
     }
 
+    /**
+     * Registers a listener notified with the data received from the port, in addition to the readers of the input
+     * stream. Listeners are called by the reader thread of the connection and should return quickly.
+     */
+    public void addDataListener(CommDataListener listener) throws IOException {
+        checkIfClosed();
+        this.reader.addListener(requireNonNull(listener));
+    }
+
+    public void removeDataListener(CommDataListener listener) {
+        this.reader.removeListener(listener);
+    }
+
     @Override
-    public synchronized void sendMessage(byte[] message) throws KuraException, IOException {
+    public void sendMessage(byte[] message) throws KuraException, IOException {
         checkIfClosed();
 
         if (message == null) {
@@ -179,147 +214,109 @@ public class CommConnectionImpl implements CommConnection, Closeable {
             logger.debug("sendMessage() - {}", getBytesAsString(message));
         }
 
-        if (this.outputStream == null) {
-            openOutputStream();
-        }
-
-        this.outputStream.write(message, 0, message.length);
-        this.outputStream.flush();
+        write(message);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The response is made of the bytes received when the first one arrives.
+     */
     @Override
-    public synchronized byte[] sendCommand(byte[] command, int timeout) throws KuraException, IOException {
-        checkIfClosed();
-
-        if (command == null) {
-            throw new NullPointerException("Serial command must not be null");
+    public byte[] sendCommand(byte[] command, int timeout) throws KuraException, IOException {
+        synchronized (this.commandLock) {
+            sendRequest(command);
+            return this.buffer.readAvailable(timeout, TimeUnit.MILLISECONDS);
         }
+    }
 
-        if (logger.isDebugEnabled()) {
-            logger.debug("sendMessage() - {}", getBytesAsString(command));
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The response is made of the bytes received until the line stays idle for {@code demark} milliseconds.
+     */
+    @Override
+    public byte[] sendCommand(byte[] command, int timeout, int demark) throws KuraException, IOException {
+        synchronized (this.commandLock) {
+            sendRequest(command);
+            return this.buffer.readUntilIdle(timeout, demark, TimeUnit.MILLISECONDS);
         }
+    }
 
-        if (this.outputStream == null) {
-            openOutputStream();
-        }
-        if (this.inputStream == null) {
-            openInputStream();
+    /**
+     * Sends a command whose response is terminated by a delimiter.
+     *
+     * @param command
+     *            the array of bytes to send
+     * @param delimiter
+     *            the last byte of the response
+     * @param timeout
+     *            the maximum time to wait for the complete response, in milliseconds
+     * @return the response including the delimiter, or {@code null} if the delimiter is not received in time
+     */
+    public byte[] sendCommandUntil(byte[] command, byte delimiter, int timeout) throws KuraException, IOException {
+        synchronized (this.commandLock) {
+            sendRequest(command);
+            return this.buffer.readUntil(delimiter, timeout, TimeUnit.MILLISECONDS);
         }
+    }
 
-        byte[] dataInBuffer = flushSerialBuffer();
-        if (dataInBuffer != null && dataInBuffer.length > 0) {
-            logger.warn("eating bytes in the serial buffer input stream before sending command: {}",
-                    getBytesAsString(dataInBuffer));
-        }
-        this.outputStream.write(command, 0, command.length);
-        this.outputStream.flush();
-
-        ByteBuffer buffer = getResponse(timeout);
-        if (buffer != null) {
-            byte[] response = new byte[buffer.limit()];
-            buffer.get(response, 0, response.length);
-            return response;
-        } else {
-            return null;
+    /**
+     * Sends a command whose response has a known length.
+     *
+     * @param command
+     *            the array of bytes to send
+     * @param length
+     *            the length of the response
+     * @param timeout
+     *            the maximum time to wait for the complete response, in milliseconds
+     * @return the response, or {@code null} if it is not received in time
+     */
+    public byte[] sendCommandForLength(byte[] command, int length, int timeout) throws KuraException, IOException {
+        synchronized (this.commandLock) {
+            sendRequest(command);
+            return this.buffer.readLength(length, timeout, TimeUnit.MILLISECONDS);
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Waits for at most 50 milliseconds if no bytes are buffered.
+     */
     @Override
-    public synchronized byte[] sendCommand(byte[] command, int timeout, int demark) throws KuraException, IOException {
+    public byte[] flushSerialBuffer() throws KuraException, IOException {
+        checkIfClosed();
+        return this.buffer.readAvailable(FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void sendRequest(byte[] command) throws IOException {
         checkIfClosed();
 
         if (command == null) {
             throw new NullPointerException("Serial command must not be null");
         }
 
-        logger.debug("sendMessage() - {}", getBytesAsString(command));
-
-        if (this.outputStream == null) {
-            openOutputStream();
-        }
-        if (this.inputStream == null) {
-            openInputStream();
+        if (logger.isDebugEnabled()) {
+            logger.debug("sendMessage() - {}", getBytesAsString(command));
         }
 
-        byte[] dataInBuffer = flushSerialBuffer();
-        if (dataInBuffer != null && dataInBuffer.length > 0) {
+        final byte[] dataInBuffer = this.buffer.drain();
+        if (dataInBuffer != null) {
             logger.warn("eating bytes in the serial buffer input stream before sending command: {}",
                     getBytesAsString(dataInBuffer));
         }
-        this.outputStream.write(command, 0, command.length);
-        this.outputStream.flush();
-
-        ByteBuffer buffer = getResponse(timeout, demark);
-        if (buffer != null) {
-            byte[] response = new byte[buffer.limit()];
-            buffer.get(response, 0, response.length);
-            return response;
-        } else {
-            return null;
-        }
+        write(command);
     }
 
-    @Override
-    public synchronized byte[] flushSerialBuffer() throws KuraException, IOException {
-        checkIfClosed();
-
-        ByteBuffer buffer = getResponse(50);
-        if (buffer != null) {
-            byte[] response = new byte[buffer.limit()];
-            buffer.get(response, 0, response.length);
-            return response;
-        } else {
-            return null;
+    private void write(byte[] data) throws IOException {
+        final OutputStream out = openOutputStream();
+        synchronized (this.writeLock) {
+            out.write(data, 0, data.length);
+            out.flush();
         }
     }
 
-    private synchronized ByteBuffer getResponse(int timeout) throws IOException {
-        ByteBuffer buffer = ByteBuffer.allocate(4096);
-        long start = System.currentTimeMillis();
-
-        while (this.inputStream.available() < 1 && System.currentTimeMillis() - start < timeout) {
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                // ignore
-            }
-        }
-
-        while (this.inputStream.available() >= 1) {
-            int c = this.inputStream.read();
-            buffer.put((byte) c);
-        }
-
-        buffer.flip();
-
-        return buffer.limit() > 0 ? buffer : null;
-    }
-
-    private synchronized ByteBuffer getResponse(int timeout, int demark) throws IOException {
-        ByteBuffer buffer = ByteBuffer.allocate(4096);
-        long start = System.currentTimeMillis();
-
-        while (this.inputStream.available() < 1 && System.currentTimeMillis() - start < timeout) {
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-            }
-        }
-
-        start = System.currentTimeMillis();
-        do {
-            if (this.inputStream.available() > 0) {
-                start = System.currentTimeMillis();
-                int c = this.inputStream.read();
-                buffer.put((byte) c);
-            }
-        } while (System.currentTimeMillis() - start < demark);
-
-        buffer.flip();
-
-        return buffer.limit() > 0 ? buffer : null;
-    }
-
     /* default */ static String getBytesAsString(byte[] bytes) {
         if (bytes == null) {
             return null;
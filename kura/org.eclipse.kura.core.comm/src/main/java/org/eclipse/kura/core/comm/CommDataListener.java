@@ -0,0 +1,26 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.kura.core.comm;
+
+/**
+ * Notified about the data received by a {@link CommConnectionImpl}, see
+ * {@link CommConnectionImpl#addDataListener(CommDataListener)}.
+ */
+@FunctionalInterface
+public interface CommDataListener {
+
+    /**
+     * Called by the reader thread of the connection with each chunk of received bytes. The same bytes remain
+     * available to the readers of the connection input stream.
+     *
+     * @param data
+     *            the received bytes, owned by the listener
+     */
+    public void onDataReceived(byte[] data);
+}
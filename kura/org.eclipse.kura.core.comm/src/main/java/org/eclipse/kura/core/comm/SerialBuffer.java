@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.kura.core.comm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded ring of the bytes received from a serial port, filled by a {@link SerialReader} and consumed either
+ * as a stream or with the framed read methods.
+ * <p>
+ * Readers block until the data they need is available, the timeout expires or the buffer is closed, without
+ * polling. If the consumers cannot keep up with the port the oldest bytes are overwritten and counted as dropped.
+ * A negative timeout waits forever.
+ */
+class SerialBuffer {
+
+    private final byte[] data;
+
+    private int head;
+    private int size;
+    private long dropped;
+    private long lastWriteNanos;
+    private boolean closed;
+
+    SerialBuffer(int capacity) {
+        this.data = new byte[capacity];
+    }
+
+    /**
+     * Appends received bytes, overwriting the oldest ones if the buffer is full.
+     */
+    synchronized void write(byte[] b, int off, int len) {
+        if (len > this.data.length) {
+            this.dropped += len - this.data.length;
+            off += len - this.data.length;
+            len = this.data.length;
+        }
+        final int overflow = this.size + len - this.data.length;
+        if (overflow > 0) {
+            this.head = (this.head + overflow) % this.data.length;
+            this.size -= overflow;
+            this.dropped += overflow;
+        }
+
+        final int tail = (this.head + this.size) % this.data.length;
+        final int first = Math.min(len, this.data.length - tail);
+        System.arraycopy(b, off, this.data, tail, first);
+        System.arraycopy(b, off + first, this.data, 0, len - first);
+        this.size += len;
+        this.lastWriteNanos = System.nanoTime();
+        notifyAll();
+    }
+
+    /**
+     * Wakes up all the readers, which return the remaining data and then report the end of the stream.
+     */
+    synchronized void close() {
+        this.closed = true;
+        notifyAll();
+    }
+
+    synchronized boolean isClosed() {
+        return this.closed;
+    }
+
+    synchronized int available() {
+        return this.size;
+    }
+
+    synchronized long getDroppedCount() {
+        return this.dropped;
+    }
+
+    /**
+     * Reads up to {@code len} bytes, waiting for at least one byte to be available.
+     *
+     * @return the number of bytes read, 0 if the timeout expired or -1 if the buffer is closed and empty
+     */
+    synchronized int read(byte[] b, int off, int len, long timeout, TimeUnit unit) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!awaitSize(1, deadline(timeout, unit))) {
+            return this.closed ? -1 : 0;
+        }
+        final int count = Math.min(len, this.size);
+        take(b, off, count);
+        return count;
+    }
+
+    /**
+     * Removes and returns all the buffered bytes, without waiting.
+     *
+     * @return the buffered bytes, or {@code null} if the buffer is empty
+     */
+    synchronized byte[] drain() {
+        if (this.size == 0) {
+            return null;
+        }
+        final byte[] result = new byte[this.size];
+        take(result, 0, result.length);
+        return result;
+    }
+
+    /**
+     * Waits for at least one byte and then returns all the buffered bytes.
+     *
+     * @return the buffered bytes, or {@code null} if no bytes are received before the timeout
+     */
+    synchronized byte[] readAvailable(long timeout, TimeUnit unit) throws IOException {
+        awaitSize(1, deadline(timeout, unit));
+        return drain();
+    }
+
+    /**
+     * Waits for at least one byte and then keeps collecting bytes until the line stays idle for the provided time.
+     *
+     * @return the received bytes, or {@code null} if no bytes are received before the timeout
+     */
+    synchronized byte[] readUntilIdle(long timeout, long idleTime, TimeUnit unit) throws IOException {
+        if (!awaitSize(1, deadline(timeout, unit))) {
+            return drain();
+        }
+        final long idleNanos = unit.toNanos(idleTime);
+        long remaining;
+        while (!this.closed && (remaining = this.lastWriteNanos + idleNanos - System.nanoTime()) > 0) {
+            waitNanos(remaining);
+        }
+        return drain();
+    }
+
+    /**
+     * Waits for exactly {@code length} bytes.
+     *
+     * @return the bytes, or {@code null} if they are not received before the timeout, in which case the bytes
+     *         received so far are left in the buffer
+     */
+    synchronized byte[] readLength(int length, long timeout, TimeUnit unit) throws IOException {
+        if (length > this.data.length) {
+            throw new IllegalArgumentException("Length exceeds the buffer capacity");
+        }
+        if (!awaitSize(length, deadline(timeout, unit))) {
+            return null;
+        }
+        final byte[] result = new byte[length];
+        take(result, 0, length);
+        return result;
+    }
+
+    /**
+     * Waits for a delimiter and returns the bytes up to and including it.
+     *
+     * @return the bytes, or {@code null} if the delimiter is not received before the timeout, in which case the
+     *         bytes received so far are left in the buffer
+     */
+    synchronized byte[] readUntil(byte delimiter, long timeout, TimeUnit unit) throws IOException {
+        final long deadline = deadline(timeout, unit);
+        long seenDropped = this.dropped;
+        int scanned = 0;
+        while (true) {
+            for (; scanned < this.size; scanned++) {
+                if (this.data[(this.head + scanned) % this.data.length] == delimiter) {
+                    final byte[] result = new byte[scanned + 1];
+                    take(result, 0, result.length);
+                    return result;
+                }
+            }
+            if (!awaitSize(scanned + 1, deadline)) {
+                return null;
+            }
+            if (this.dropped != seenDropped) {
+                // the scanned bytes may have been overwritten while waiting
+                seenDropped = this.dropped;
+                scanned = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns a stream view of the buffer, whose reads wait for at most the provided time and return 0 bytes (-1
+     * for the single byte read) if it expires, like the ones of a serial port with a receive timeout.
+     *
+     * @param receiveTimeout
+     *            the receive timeout in milliseconds, 0 to wait forever
+     */
+    InputStream newInputStream(int receiveTimeout) {
+        return new BufferInputStream(receiveTimeout > 0 ? receiveTimeout : -1);
+    }
+
+    private static long deadline(long timeout, TimeUnit unit) {
+        return timeout < 0 ? Long.MAX_VALUE : System.nanoTime() + unit.toNanos(timeout);
+    }
+
+    private boolean awaitSize(int minimumSize, long deadline) throws IOException {
+        while (this.size < minimumSize) {
+            if (this.closed) {
+                return false;
+            }
+            if (deadline == Long.MAX_VALUE) {
+                waitNanos(Long.MAX_VALUE);
+                continue;
+            }
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            waitNanos(remaining);
+        }
+        return true;
+    }
+
+    private void waitNanos(long nanos) throws IOException {
+        try {
+            if (nanos == Long.MAX_VALUE) {
+                wait();
+            } else {
+                TimeUnit.NANOSECONDS.timedWait(this, nanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for serial data", e);
+        }
+    }
+
+    private void take(byte[] b, int off, int len) {
+        final int first = Math.min(len, this.data.length - this.head);
+        System.arraycopy(this.data, this.head, b, off, first);
+        System.arraycopy(this.data, 0, b, off + first, len - first);
+        this.head = (this.head + len) % this.data.length;
+        this.size -= len;
+    }
+
+    private final class BufferInputStream extends InputStream {
+
+        private final long receiveTimeout;
+
+        BufferInputStream(long receiveTimeout) {
+            this.receiveTimeout = receiveTimeout;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) > 0 ? b[0] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            return SerialBuffer.this.read(b, off, len, this.receiveTimeout, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return SerialBuffer.this.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // the buffer is owned by the connection
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.kura.core.comm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Moves the data received by a serial port into a {@link SerialBuffer} with blocking bulk reads, on a thread
+ * dedicated to the port, and notifies the {@link CommDataListener}s. The buffer is closed when the port reports the
+ * end of the stream, fails or the reader is stopped.
+ */
+class SerialReader implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SerialReader.class);
+
+    private static final int CHUNK_SIZE = 1024;
+
+    private final String port;
+    private final InputStream in;
+    private final SerialBuffer buffer;
+    private final List<CommDataListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private Thread thread;
+    private long reportedDrops;
+
+    SerialReader(String port, InputStream in, SerialBuffer buffer) {
+        this.port = port;
+        this.in = in;
+        this.buffer = buffer;
+    }
+
+    synchronized void start() {
+        this.running = true;
+        this.thread = new Thread(this, "SerialReader-" + this.port);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stops the reader, waiting for at most the provided time for the pending read to return.
+     */
+    synchronized void stop(long timeoutMillis) {
+        this.running = false;
+        this.buffer.close();
+        if (this.thread != null && this.thread != Thread.currentThread()) {
+            try {
+                this.thread.join(timeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.thread = null;
+    }
+
+    void addListener(CommDataListener listener) {
+        this.listeners.add(listener);
+    }
+
+    void removeListener(CommDataListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    @Override
+    public void run() {
+        final byte[] chunk = new byte[CHUNK_SIZE];
+        try {
+            while (this.running) {
+                // returns 0 when the receive timeout of the port expires, which only bounds the time needed to stop
+                final int count = this.in.read(chunk);
+                if (count < 0) {
+                    break;
+                }
+                if (count > 0) {
+                    this.buffer.write(chunk, 0, count);
+                    notifyListeners(chunk, count);
+                    reportDrops();
+                }
+            }
+        } catch (IOException e) {
+            if (this.running) {
+                logger.error("Error reading from serial port {}", this.port, e);
+            }
+        } finally {
+            this.buffer.close();
+        }
+    }
+
+    private void notifyListeners(byte[] chunk, int count) {
+        for (final CommDataListener listener : this.listeners) {
+            try {
+                listener.onDataReceived(Arrays.copyOf(chunk, count));
+            } catch (Exception e) {
+                logger.warn("Serial data listener failure", e);
+            }
+        }
+    }
+
+    private void reportDrops() {
+        final long drops = this.buffer.getDroppedCount();
+        if (drops != this.reportedDrops) {
+            logger.debug("{} unread bytes discarded from serial port {}", drops - this.reportedDrops, this.port);
+            this.reportedDrops = drops;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.eclipse.kura.core.data.DataMessage;
 import org.eclipse.kura.core.data.DataStore;
 import org.eclipse.kura.db.H2DbService;
 import org.eclipse.kura.system.SystemService;
+import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.FrameworkUtil;
 import org.osgi.framework.ServiceReference;
@@ -158,8 +159,16 @@ public class DbDataStore implements DataStore {
     }
 
     private boolean isRepairEnabled() {
-        final BundleContext context = FrameworkUtil.getBundle(DbDataStore.class).getBundleContext();
+        final Bundle bundle = FrameworkUtil.getBundle(DbDataStore.class);
+        final BundleContext context = bundle != null ? bundle.getBundleContext() : null;
+        if (context == null) {
+            // not running in an OSGi framework, e.g. in the benchmarks
+            return false;
+        }
         ServiceReference<SystemService> reference = context.getServiceReference(SystemService.class);
+        if (reference == null) {
+            return false;
+        }
         SystemService systemService = context.getService(reference);
         if (systemService == null) {
             return false;
@@ -78,5 +78,49 @@ public abstract class BinaryData<T> {
      */
     public abstract T read(Buffer buf, int offset);
 
+    /**
+     * Reads the value as a primitive {@code long}, without allocating a boxed instance.
+     * The default implementation boxes the value returned by {@link #read(Buffer, int)}, the numeric types provided
+     * by {@link BinaryDataTypes} override this method.
+     *
+     * @param buf
+     *            a {@link Buffer} from which the data needs to be read
+     * @param offset
+     *            the offset from which the data will be read
+     * @return the obtained value, converted to {@code long} as by {@link Number#longValue()}
+     * @throws UnsupportedOperationException
+     *             if the value type of this {@link BinaryData} is not a {@link Number}
+     * @since 1.1
+     */
+    public long readLong(Buffer buf, int offset) {
+        return toNumber(read(buf, offset)).longValue();
+    }
+
+    /**
+     * Reads the value as a primitive {@code double}, without allocating a boxed instance.
+     * The default implementation boxes the value returned by {@link #read(Buffer, int)}, the numeric types provided
+     * by {@link BinaryDataTypes} override this method.
+     *
+     * @param buf
+     *            a {@link Buffer} from which the data needs to be read
+     * @param offset
+     *            the offset from which the data will be read
+     * @return the obtained value, converted to {@code double} as by {@link Number#doubleValue()}
+     * @throws UnsupportedOperationException
+     *             if the value type of this {@link BinaryData} is not a {@link Number}
+     * @since 1.1
+     */
+    public double readDouble(Buffer buf, int offset) {
+        return toNumber(read(buf, offset)).doubleValue();
+    }
+
     public abstract Class<T> getValueType();
+
+    private Number toNumber(T value) {
+        if (!(value instanceof Number)) {
+            throw new UnsupportedOperationException(
+                    getClass().getSimpleName() + " does not represent a numeric value");
+        }
+        return (Number) value;
+    }
 }
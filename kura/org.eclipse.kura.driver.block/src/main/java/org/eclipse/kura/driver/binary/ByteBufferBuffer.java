@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.driver.binary;
+
+import static java.util.Objects.requireNonNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * A {@link Buffer} backed by a {@link ByteBuffer}, for example a direct buffer that can be passed without copies to
+ * the NIO channel used by a driver to exchange data with the field device.
+ * </p>
+ * <p>
+ * The buffer covers the bytes between the position and the limit of the provided {@link ByteBuffer} at construction
+ * time, subsequent changes to the position and limit of the provided instance do not affect this buffer.
+ * The methods of this class do not allocate memory. This class is not thread safe.
+ * </p>
+ *
+ * @since 1.1
+ */
+public class ByteBufferBuffer implements Buffer {
+
+    private final ByteBuffer data;
+    private final ByteBuffer view;
+
+    /**
+     * Creates a new {@link ByteBufferBuffer} sharing the content of the provided {@link ByteBuffer}.
+     *
+     * @param data
+     *            the backing {@link ByteBuffer}
+     * @throws NullPointerException
+     *             if the provided buffer is null
+     */
+    public ByteBufferBuffer(ByteBuffer data) {
+        requireNonNull(data, "The provided buffer cannot be null");
+        this.data = data.slice();
+        this.view = this.data.duplicate();
+    }
+
+    /**
+     * Creates a new {@link ByteBufferBuffer} backed by a newly allocated direct {@link ByteBuffer}.
+     *
+     * @param length
+     *            the length of the buffer
+     * @return the new {@link ByteBufferBuffer}
+     */
+    public static ByteBufferBuffer allocateDirect(int length) {
+        return new ByteBufferBuffer(ByteBuffer.allocateDirect(length));
+    }
+
+    @Override
+    public void put(int offset, byte value) {
+        this.data.put(offset, value);
+    }
+
+    @Override
+    public byte get(int offset) {
+        return this.data.get(offset);
+    }
+
+    @Override
+    public int getLength() {
+        return this.data.capacity();
+    }
+
+    @Override
+    public void write(int offset, int length, byte[] data) {
+        this.view.limit(offset + length).position(offset);
+        this.view.put(data, 0, length);
+    }
+
+    @Override
+    public void read(int offset, int length, byte[] data) {
+        this.view.limit(offset + length).position(offset);
+        this.view.get(data, 0, length);
+    }
+
+    /**
+     * Returns the backing {@link ByteBuffer}, whose position 0 corresponds to the offset 0 of this buffer.
+     *
+     * @return the backing {@link ByteBuffer}
+     */
+    public ByteBuffer getBackingBuffer() {
+        return this.data;
+    }
+}
@@ -44,6 +44,16 @@ class Double extends BinaryData<java.lang.Double> {
 
     @Override
     public java.lang.Double read(Buffer buf, int offset) {
+        return readDouble(buf, offset);
+    }
+
+    @Override
+    public long readLong(Buffer buf, int offset) {
+        return (long) readDouble(buf, offset);
+    }
+
+    @Override
+    public double readDouble(Buffer buf, int offset) {
         long tmp;
         if (this.endianness == Endianness.BIG_ENDIAN) {
             tmp = buf.get(offset + 7) & 0xffL;
@@ -36,6 +36,16 @@ class Float extends BinaryData<java.lang.Float> {
 
     @Override
     public java.lang.Float read(Buffer buf, int offset) {
+        return (float) readDouble(buf, offset);
+    }
+
+    @Override
+    public long readLong(Buffer buf, int offset) {
+        return (long) readDouble(buf, offset);
+    }
+
+    @Override
+    public double readDouble(Buffer buf, int offset) {
         int tmp;
         if (this.endianness == Endianness.BIG_ENDIAN) {
             tmp = buf.get(offset + 3) & 0xff;
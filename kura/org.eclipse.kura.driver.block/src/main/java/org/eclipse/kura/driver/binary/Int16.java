@@ -32,6 +32,11 @@ class Int16 extends BinaryData<Integer> {
 
     @Override
     public Integer read(Buffer buf, int offset) {
+        return (int) readLong(buf, offset);
+    }
+
+    @Override
+    public long readLong(Buffer buf, int offset) {
         short result;
         if (this.endianness == Endianness.BIG_ENDIAN) {
             result = (short) (buf.get(offset + 1) & 0xff);
@@ -40,7 +45,12 @@ class Int16 extends BinaryData<Integer> {
             result = (short) (buf.get(offset) & 0xff);
             result |= (buf.get(offset + 1) & 0xff) << 8;
         }
-        return (int) result;
+        return result;
+    }
+
+    @Override
+    public double readDouble(Buffer buf, int offset) {
+        return readLong(buf, offset);
     }
 
     @Override
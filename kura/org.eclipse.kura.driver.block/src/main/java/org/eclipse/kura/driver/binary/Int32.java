@@ -35,6 +35,11 @@ class Int32 extends BinaryData<Integer> {
 
     @Override
     public Integer read(Buffer buf, int offset) {
+        return (int) readLong(buf, offset);
+    }
+
+    @Override
+    public long readLong(Buffer buf, int offset) {
         int result;
         if (this.endianness == Endianness.BIG_ENDIAN) {
             result = buf.get(offset + 3) & 0xff;
@@ -50,6 +55,11 @@ class Int32 extends BinaryData<Integer> {
         return result;
     }
 
+    @Override
+    public double readDouble(Buffer buf, int offset) {
+        return readLong(buf, offset);
+    }
+
     @Override
     public Class<Integer> getValueType() {
         return Integer.class;
@@ -43,6 +43,11 @@ class Int64 extends BinaryData<Long> {
 
     @Override
     public Long read(Buffer buf, int offset) {
+        return readLong(buf, offset);
+    }
+
+    @Override
+    public long readLong(Buffer buf, int offset) {
         long result;
         if (this.endianness == Endianness.BIG_ENDIAN) {
             result = buf.get(offset + 7) & 0xffL;
@@ -66,6 +71,11 @@ class Int64 extends BinaryData<Long> {
         return result;
     }
 
+    @Override
+    public double readDouble(Buffer buf, int offset) {
+        return readLong(buf, offset);
+    }
+
     @Override
     public Class<Long> getValueType() {
         return Long.class;
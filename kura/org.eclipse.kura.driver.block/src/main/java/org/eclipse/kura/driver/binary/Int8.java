@@ -25,7 +25,17 @@ class Int8 extends BinaryData<Integer> {
 
     @Override
     public Integer read(Buffer buf, int offset) {
-        return (int) buf.get(offset);
+        return (int) readLong(buf, offset);
+    }
+
+    @Override
+    public long readLong(Buffer buf, int offset) {
+        return buf.get(offset);
+    }
+
+    @Override
+    public double readDouble(Buffer buf, int offset) {
+        return readLong(buf, offset);
     }
 
     @Override
@@ -35,6 +35,11 @@ class UInt32 extends BinaryData<Long> {
 
     @Override
     public Long read(Buffer buf, int offset) {
+        return readLong(buf, offset);
+    }
+
+    @Override
+    public long readLong(Buffer buf, int offset) {
         long result;
         if (this.endianness == Endianness.BIG_ENDIAN) {
             result = (long) buf.get(offset + 3) & 0xff;
@@ -50,6 +55,11 @@ class UInt32 extends BinaryData<Long> {
         return result;
     }
 
+    @Override
+    public double readDouble(Buffer buf, int offset) {
+        return readLong(buf, offset);
+    }
+
     @Override
     public Class<Long> getValueType() {
         return Long.class;
@@ -25,7 +25,17 @@ class UInt8 extends BinaryData<Integer> {
 
     @Override
     public Integer read(Buffer buf, int offset) {
-        return (int) (buf.get(offset) & 0xff);
+        return (int) readLong(buf, offset);
+    }
+
+    @Override
+    public long readLong(Buffer buf, int offset) {
+        return buf.get(offset) & 0xff;
+    }
+
+    @Override
+    public double readDouble(Buffer buf, int offset) {
+        return readLong(buf, offset);
     }
 
     @Override
@@ -14,6 +14,8 @@ package org.eclipse.kura.driver.block;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
@@ -64,6 +66,20 @@ import java.util.stream.StreamSupport;
  * transfered.
  * </p>
  *
+ * <p>
+ * As an alternative to the {@code minimumGapSize} parameter, a {@link BlockCostModel} can be specified using the
+ * {@link #setCostModel(BlockCostModel)} method. In this case the {@code minimumGapSize} parameter is ignored, and the
+ * input blocks are partitioned in the set of output blocks having the minimum total cost according to the model,
+ * computed by dynamic programming. Overlapping input blocks are always assigned to the same output block, the output
+ * blocks do not exceed the maximum block size of the model and their boundaries are aligned as specified by the
+ * model, unless this would cause an overlap with a prohibited block. The overlapping input blocks that are larger than
+ * the maximum block size are returned alone in an output block exceeding it, it is up to the user of the result to
+ * transfer them in multiple requests or to report their failure. If a maximum block size is specified, the
+ * resulting block set might contain pairs of blocks such as {@code b1.getStart() == b2.getEnd()}. If the model does
+ * not allow gaps, see {@link BlockCostModel#withoutGaps(int, int)}, input blocks separated by a gap are never
+ * assigned to the same output block.
+ * </p>
+ *
  * @param <T>
  *            The type of the blocks obtained as result of the aggregation process.
  */
@@ -72,6 +88,7 @@ public class BlockAggregator<T extends Block> {
     protected List<Block> blocks;
     private final BlockFactory<T> factory;
     private int minimumGapSize;
+    private BlockCostModel costModel;
 
     /**
      * Creates a new {@link BlockAggregator} instance that operates on the given list of blocks.
@@ -112,6 +129,9 @@ public class BlockAggregator<T extends Block> {
     @SuppressWarnings("unchecked")
     public Stream<T> stream() {
         this.blocks.sort((Block o1, Block o2) -> o1.getStart() - o2.getStart());
+        if (this.costModel != null) {
+            return partition().stream();
+        }
         return (Stream<T>) StreamSupport
                 .stream(Spliterators.spliteratorUnknownSize(new AggregatingIterator(this.blocks.listIterator()),
                         Spliterator.ORDERED), false)
@@ -132,6 +152,27 @@ public class BlockAggregator<T extends Block> {
         this.minimumGapSize = minimumGapSize;
     }
 
+    /**
+     * Specifies the {@link BlockCostModel} used for the aggregation. The default is {@code null}, meaning that the
+     * aggregation is performed using the {@code minimumGapSize} parameter.
+     *
+     * @param costModel
+     *            the cost model, or {@code null}
+     */
+    public void setCostModel(BlockCostModel costModel) {
+        this.costModel = costModel;
+    }
+
+    /**
+     * Returns the {@link BlockCostModel} used for the aggregation.
+     *
+     * @return the cost model, or {@code null} if the aggregation is performed using the {@code minimumGapSize}
+     *         parameter
+     */
+    public BlockCostModel getCostModel() {
+        return this.costModel;
+    }
+
     /**
      * Inserts a new {@link Block} into the input blocks list.
      *
@@ -143,6 +184,93 @@ public class BlockAggregator<T extends Block> {
         this.blocks.add(block);
     }
 
+    private List<T> partition() {
+        final List<T> result = new ArrayList<>();
+        final List<Block> run = new ArrayList<>();
+        int lowerLimit = Integer.MIN_VALUE;
+        Block last = null;
+
+        for (final Block block : this.blocks) {
+            if (block instanceof ProhibitedBlock) {
+                if (last != null && last.getEnd() > block.getStart()) {
+                    throw new IllegalArgumentException("Conflicting blocks: " + last + " " + block);
+                }
+                partitionRun(run, lowerLimit, block.getStart(), result);
+                run.clear();
+                lowerLimit = Math.max(lowerLimit, block.getEnd());
+                last = null;
+                continue;
+            }
+            if (block.getStart() < lowerLimit) {
+                throw new IllegalArgumentException("Conflicting blocks: " + block + " prohibited until " + lowerLimit);
+            }
+            if (last != null && this.costModel.alignStart(block.getStart()) < this.costModel.alignEnd(last.getEnd())) {
+                // overlapping blocks, or blocks sharing an alignment unit, cannot be split
+                last.setEnd(Math.max(last.getEnd(), block.getEnd()));
+            } else {
+                last = new Block(block.getStart(), block.getEnd());
+                run.add(last);
+            }
+        }
+        partitionRun(run, lowerLimit, Integer.MAX_VALUE, result);
+        return result;
+    }
+
+    private void partitionRun(List<Block> atoms, int lowerLimit, int upperLimit, List<T> result) {
+        final int count = atoms.size();
+        if (count == 0) {
+            return;
+        }
+
+        final BlockCostModel model = this.costModel;
+        final boolean canPruneGaps = model.getAlignment() == 1;
+
+        // best[j] is the minimum cost for the first j atoms, the last request of the corresponding partition starts
+        // at atom split[j]
+        final double[] best = new double[count + 1];
+        final int[] split = new int[count + 1];
+
+        for (int j = 1; j <= count; j++) {
+            best[j] = Double.POSITIVE_INFINITY;
+            final int end = Math.min(model.alignEnd(atoms.get(j - 1).getEnd()), upperLimit);
+            for (int i = j; i >= 1; i--) {
+                if (!model.isGapAllowed() && i < j
+                        && model.alignEnd(atoms.get(i - 1).getEnd()) < model.alignStart(atoms.get(i).getStart())) {
+                    break;
+                }
+                final int start = Math.max(model.alignStart(atoms.get(i - 1).getStart()), lowerLimit);
+                if (!model.isAllowed(start, end)) {
+                    if (i == j) {
+                        // an atom larger than the maximum block size is transferred alone, the failure of its request
+                        // must not affect the other atoms
+                        best[j] = best[j - 1] + model.getCost(start, end);
+                        split[j] = j - 1;
+                    }
+                    break;
+                }
+                final double cost = best[i - 1] + model.getCost(start, end);
+                if (cost < best[j]) {
+                    best[j] = cost;
+                    split[j] = i - 1;
+                }
+                // reading a gap that costs more than a request is never convenient
+                if (canPruneGaps && i > 1 && model.getUnitCost()
+                        * (atoms.get(i - 1).getStart() - atoms.get(i - 2).getEnd()) >= model.getRequestCost()) {
+                    break;
+                }
+            }
+        }
+
+        final List<T> runResult = new ArrayList<>();
+        for (int j = count; j > 0; j = split[j]) {
+            final int start = Math.max(model.alignStart(atoms.get(split[j]).getStart()), lowerLimit);
+            final int end = Math.min(model.alignEnd(atoms.get(j - 1).getEnd()), upperLimit);
+            runResult.add(this.factory.build(start, end));
+        }
+        Collections.reverse(runResult);
+        result.addAll(runResult);
+    }
+
     private class AggregatingIterator implements Iterator<Block> {
 
         private final ListIterator<Block> source;
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.driver.block;
+
+/**
+ * <p>
+ * Describes the cost of the requests represented by the blocks produced by a {@link BlockAggregator}, see
+ * {@link BlockAggregator#setCostModel(BlockCostModel)}.
+ * </p>
+ * <p>
+ * The cost of a request spanning the interval {@code [start, end)} is
+ * {@code requestCost + unitCost * (end - start)}, where {@code start} and {@code end} are aligned to the
+ * {@code alignment} parameter. For example the request cost can be the round trip time of the link and the unit cost
+ * the time needed to transfer a single unit (such as a register or a byte) of data.
+ * </p>
+ * <p>
+ * The {@code maximumBlockSize} parameter is the maximum size of a request supported by the protocol, for example 125
+ * registers for a Modbus read, 0 means unlimited.
+ * </p>
+ * <p>
+ * A model obtained from {@link #withoutGaps(int, int)} never aggregates blocks separated by a gap, this is required
+ * for example by write requests, that must not overwrite data that has not been requested.
+ * </p>
+ */
+public class BlockCostModel {
+
+    private final double requestCost;
+    private final double unitCost;
+    private final int maximumBlockSize;
+    private final int alignment;
+    private final boolean gapAllowed;
+
+    /**
+     * Creates a new {@link BlockCostModel} without size limits and alignment.
+     *
+     * @param requestCost
+     *            the fixed cost of a request
+     * @param unitCost
+     *            the cost of transferring a single unit of data
+     * @throws IllegalArgumentException
+     *             if any of the costs is negative
+     */
+    public BlockCostModel(double requestCost, double unitCost) {
+        this(requestCost, unitCost, 0, 1);
+    }
+
+    /**
+     * Creates a new {@link BlockCostModel}.
+     *
+     * @param requestCost
+     *            the fixed cost of a request
+     * @param unitCost
+     *            the cost of transferring a single unit of data
+     * @param maximumBlockSize
+     *            the maximum size of a request, 0 means unlimited
+     * @param alignment
+     *            the alignment of the request boundaries, 1 means no alignment
+     * @throws IllegalArgumentException
+     *             if any of the costs or the maximum block size is negative, if the alignment is not positive or if the
+     *             maximum block size is not a multiple of the alignment
+     */
+    public BlockCostModel(double requestCost, double unitCost, int maximumBlockSize, int alignment) {
+        this(requestCost, unitCost, maximumBlockSize, alignment, true);
+    }
+
+    private BlockCostModel(double requestCost, double unitCost, int maximumBlockSize, int alignment,
+            boolean gapAllowed) {
+        if (!(requestCost >= 0) || !(unitCost >= 0)) {
+            throw new IllegalArgumentException("Costs must be non negative");
+        }
+        if (maximumBlockSize < 0) {
+            throw new IllegalArgumentException("Maximum block size must be non negative");
+        }
+        if (alignment <= 0) {
+            throw new IllegalArgumentException("Alignment must be positive");
+        }
+        if (maximumBlockSize % alignment != 0) {
+            throw new IllegalArgumentException("Maximum block size must be a multiple of the alignment");
+        }
+        this.requestCost = requestCost;
+        this.unitCost = unitCost;
+        this.maximumBlockSize = maximumBlockSize;
+        this.alignment = alignment;
+        this.gapAllowed = gapAllowed;
+    }
+
+    /**
+     * Creates a new {@link BlockCostModel} that only aggregates contiguous or overlapping blocks, in the minimum number
+     * of requests allowed by the maximum block size. Two blocks are contiguous if they are separated only by the
+     * portions of an alignment unit that would be transferred anyway by two separate requests.
+     *
+     * @param maximumBlockSize
+     *            the maximum size of a request, 0 means unlimited
+     * @param alignment
+     *            the alignment of the request boundaries, 1 means no alignment
+     * @return the created {@link BlockCostModel}
+     * @throws IllegalArgumentException
+     *             if the maximum block size is negative, if the alignment is not positive or if the maximum block size
+     *             is not a multiple of the alignment
+     */
+    public static BlockCostModel withoutGaps(int maximumBlockSize, int alignment) {
+        return new BlockCostModel(1, 0, maximumBlockSize, alignment, false);
+    }
+
+    public double getRequestCost() {
+        return this.requestCost;
+    }
+
+    public double getUnitCost() {
+        return this.unitCost;
+    }
+
+    public int getMaximumBlockSize() {
+        return this.maximumBlockSize;
+    }
+
+    public int getAlignment() {
+        return this.alignment;
+    }
+
+    /**
+     * Returns whether blocks separated by a gap can be aggregated in a single request.
+     *
+     * @return {@code false} if the model has been created by {@link #withoutGaps(int, int)}, {@code true} otherwise
+     */
+    public boolean isGapAllowed() {
+        return this.gapAllowed;
+    }
+
+    /**
+     * Returns the start address of a request that includes the provided address.
+     *
+     * @param start
+     *            the address
+     * @return the aligned start address
+     */
+    public int alignStart(int start) {
+        return Math.floorDiv(start, this.alignment) * this.alignment;
+    }
+
+    /**
+     * Returns the end address of a request that includes the address preceding the provided one.
+     *
+     * @param end
+     *            the address
+     * @return the aligned end address
+     */
+    public int alignEnd(int end) {
+        return -Math.floorDiv(-end, this.alignment) * this.alignment;
+    }
+
+    /**
+     * Returns whether a request spanning the provided interval is allowed by the maximum block size. The interval is
+     * assumed to be aligned.
+     *
+     * @param start
+     *            the start address
+     * @param end
+     *            the end address
+     * @return {@code true} if the request is allowed, {@code false} otherwise
+     */
+    public boolean isAllowed(int start, int end) {
+        return this.maximumBlockSize == 0 || end - start <= this.maximumBlockSize;
+    }
+
+    /**
+     * Returns the cost of a request spanning the provided interval. The interval is assumed to be aligned.
+     *
+     * @param start
+     *            the start address
+     * @param end
+     *            the end address
+     * @return the cost of the request
+     */
+    public double getCost(int start, int end) {
+        return this.requestCost + this.unitCost * (end - start);
+    }
+
+    @Override
+    public String toString() {
+        return "BlockCostModel [requestCost=" + this.requestCost + ", unitCost=" + this.unitCost
+                + ", maximumBlockSize=" + this.maximumBlockSize + ", alignment=" + this.alignment + ", gapAllowed="
+                + this.gapAllowed + "]";
+    }
+}
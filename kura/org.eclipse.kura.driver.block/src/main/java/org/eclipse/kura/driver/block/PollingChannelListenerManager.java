@@ -0,0 +1,402 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.driver.block;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.KuraErrorCode;
+import org.eclipse.kura.KuraRuntimeException;
+import org.eclipse.kura.channel.ChannelFlag;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.channel.ChannelStatus;
+import org.eclipse.kura.channel.listener.ChannelEvent;
+import org.eclipse.kura.channel.listener.ChannelListener;
+import org.eclipse.kura.driver.Driver;
+import org.eclipse.kura.driver.PreparedRead;
+import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.TypedValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Provides {@link ChannelListener} support for drivers whose field protocol does not support unsolicited
+ * notifications, by periodically polling the channels with registered listeners (report by exception).
+ * </p>
+ * <p>
+ * The registered channels are grouped by poll interval. The channels of each group are read using a single
+ * {@link PreparedRead} obtained from the driver, for example a {@link org.eclipse.kura.driver.block.task.AbstractBlockDriver}
+ * will aggregate them in the smallest possible number of requests. The prepared read is recreated only when the
+ * registrations of the group change.
+ * </p>
+ * <p>
+ * After every poll the value of each channel is compared with the last value notified to its listener, and
+ * {@link ChannelListener#onChannelEvent(ChannelEvent)} is called only if the value changed. For numeric channels a
+ * deadband can be specified: changes smaller than or equal to the deadband are ignored. A failure, including a failure
+ * of the driver in preparing the read, is notified when it occurs, subsequent failures are not notified until the
+ * channel is successfully read again.
+ * </p>
+ * <p>
+ * The polls are performed by a single thread, created when the first listener is registered and terminated when the
+ * last one is unregistered or {@link #close()} is called.
+ * </p>
+ */
+public class PollingChannelListenerManager {
+
+    /** The channel configuration property containing the channel name */
+    public static final String CHANNEL_NAME_PROPERTY = "+name";
+
+    /** The channel configuration property containing the channel value type */
+    public static final String CHANNEL_VALUE_TYPE_PROPERTY = "+value.type";
+
+    private static final Logger logger = LoggerFactory.getLogger(PollingChannelListenerManager.class);
+
+    private final Driver driver;
+    private final Map<Long, PollGroup> groups = new HashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * Creates a new {@link PollingChannelListenerManager} for the provided driver.
+     *
+     * @param driver
+     *            the driver used to perform the reads
+     */
+    public PollingChannelListenerManager(final Driver driver) {
+        requireNonNull(driver, "The provided driver cannot be null");
+        this.driver = driver;
+    }
+
+    /**
+     * Registers a listener for the channel described by the provided configuration.
+     *
+     * @param channelConfig
+     *            the channel configuration, must contain the {@link #CHANNEL_NAME_PROPERTY} and
+     *            {@link #CHANNEL_VALUE_TYPE_PROPERTY} properties
+     * @param listener
+     *            the listener
+     * @param pollInterval
+     *            the poll interval in milliseconds
+     * @param deadband
+     *            the deadband for numeric channels, 0 for notifying every change
+     * @throws KuraRuntimeException
+     *             if the channel configuration is not valid, if the poll interval is not positive or if the deadband
+     *             is negative
+     * @throws NullPointerException
+     *             if any of the arguments is null
+     */
+    public synchronized void registerChannelListener(final Map<String, Object> channelConfig,
+            final ChannelListener listener, final long pollInterval, final double deadband) {
+        requireNonNull(channelConfig, "The provided channel configuration cannot be null");
+        requireNonNull(listener, "The provided listener cannot be null");
+
+        if (pollInterval <= 0) {
+            throw new KuraRuntimeException(KuraErrorCode.INVALID_PARAMETER, "poll interval", pollInterval);
+        }
+        if (deadband < 0 || Double.isNaN(deadband)) {
+            throw new KuraRuntimeException(KuraErrorCode.INVALID_PARAMETER, "deadband", deadband);
+        }
+
+        final ChannelRecord record = createRecord(channelConfig);
+
+        PollGroup group = this.groups.get(pollInterval);
+        if (group == null) {
+            group = new PollGroup(pollInterval);
+            this.groups.put(pollInterval, group);
+            group.start(getExecutor());
+        }
+        group.add(new Registration(record, listener, deadband));
+    }
+
+    /**
+     * Unregisters all the registrations of the provided listener.
+     *
+     * @param listener
+     *            the listener
+     * @throws NullPointerException
+     *             if the argument is null
+     */
+    public synchronized void unregisterChannelListener(final ChannelListener listener) {
+        requireNonNull(listener, "The provided listener cannot be null");
+
+        final Iterator<PollGroup> iterator = this.groups.values().iterator();
+        while (iterator.hasNext()) {
+            final PollGroup group = iterator.next();
+            if (group.remove(listener) && group.isEmpty()) {
+                group.stop();
+                iterator.remove();
+            }
+        }
+
+        if (this.groups.isEmpty()) {
+            shutdownExecutor();
+        }
+    }
+
+    /**
+     * Returns whether there are registered listeners.
+     *
+     * @return {@code true} if at least one listener is registered, {@code false} otherwise
+     */
+    public synchronized boolean hasListeners() {
+        return !this.groups.isEmpty();
+    }
+
+    /**
+     * Unregisters all the listeners and releases the polling thread.
+     */
+    public synchronized void close() {
+        for (final PollGroup group : this.groups.values()) {
+            group.stop();
+        }
+        this.groups.clear();
+        shutdownExecutor();
+    }
+
+    private ScheduledExecutorService getExecutor() {
+        if (this.executor == null) {
+            final String name = "ChannelListenerPoller-" + this.driver.getClass().getSimpleName();
+            final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+                final Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+            this.executor = scheduler;
+        }
+        return this.executor;
+    }
+
+    private void shutdownExecutor() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+            this.executor = null;
+        }
+    }
+
+    private static ChannelRecord createRecord(final Map<String, Object> channelConfig) {
+        final Object name = channelConfig.get(CHANNEL_NAME_PROPERTY);
+        final Object valueType = channelConfig.get(CHANNEL_VALUE_TYPE_PROPERTY);
+
+        if (name == null) {
+            throw new KuraRuntimeException(KuraErrorCode.INVALID_PARAMETER, CHANNEL_NAME_PROPERTY, null);
+        }
+        if (valueType == null) {
+            throw new KuraRuntimeException(KuraErrorCode.INVALID_PARAMETER, CHANNEL_VALUE_TYPE_PROPERTY, null);
+        }
+
+        final DataType dataType;
+        try {
+            dataType = DataType.getDataType(valueType.toString());
+        } catch (final IllegalArgumentException e) {
+            throw new KuraRuntimeException(KuraErrorCode.INVALID_PARAMETER, e, CHANNEL_VALUE_TYPE_PROPERTY,
+                    valueType);
+        }
+
+        final ChannelRecord record = ChannelRecord.createReadRecord(name.toString(), dataType);
+        record.setChannelConfig(channelConfig);
+        return record;
+    }
+
+    private final class PollGroup implements Runnable {
+
+        private final long pollInterval;
+        private final List<Registration> registrations = new ArrayList<>();
+
+        private PreparedRead preparedRead;
+        private boolean changed;
+        private ScheduledFuture<?> future;
+
+        PollGroup(final long pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        void start(final ScheduledExecutorService executor) {
+            this.future = executor.scheduleAtFixedRate(this, 0, this.pollInterval, TimeUnit.MILLISECONDS);
+        }
+
+        void stop() {
+            if (this.future != null) {
+                this.future.cancel(false);
+                this.future = null;
+            }
+            closePreparedRead();
+        }
+
+        void add(final Registration registration) {
+            this.registrations.add(registration);
+            this.changed = true;
+        }
+
+        boolean remove(final ChannelListener listener) {
+            final boolean removed = this.registrations.removeIf(registration -> registration.listener == listener);
+            this.changed |= removed;
+            return removed;
+        }
+
+        boolean isEmpty() {
+            return this.registrations.isEmpty();
+        }
+
+        @Override
+        public void run() {
+            // an exception thrown by a periodic task would silently cancel all the subsequent polls
+            try {
+                poll();
+            } catch (final Exception e) {
+                logger.warn("Unexpected exception during channel listener poll", e);
+            }
+        }
+
+        private void poll() {
+            PreparedRead read = null;
+            final List<Registration> currentRegistrations;
+            Exception failure = null;
+
+            synchronized (PollingChannelListenerManager.this) {
+                if (this.future == null) {
+                    return;
+                }
+                currentRegistrations = new ArrayList<>(this.registrations);
+                try {
+                    if (this.changed) {
+                        closePreparedRead();
+                        final List<ChannelRecord> records = new ArrayList<>(currentRegistrations.size());
+                        for (final Registration registration : currentRegistrations) {
+                            records.add(registration.record);
+                        }
+                        this.preparedRead = PollingChannelListenerManager.this.driver.prepareRead(records);
+                        this.changed = false;
+                    }
+                    read = this.preparedRead;
+                } catch (final Exception e) {
+                    // the read is prepared again by the next poll
+                    logger.warn("Failed to prepare channel listener read", e);
+                    failure = e;
+                }
+            }
+
+            if (read != null) {
+                try {
+                    read.execute();
+                } catch (final Exception e) {
+                    logger.debug("Channel listener poll failed", e);
+                    failure = e;
+                }
+            }
+
+            if (failure != null) {
+                final long timestamp = System.currentTimeMillis();
+                for (final Registration registration : currentRegistrations) {
+                    registration.record
+                            .setChannelStatus(new ChannelStatus(ChannelFlag.FAILURE, failure.getMessage(), failure));
+                    registration.record.setTimestamp(timestamp);
+                }
+            }
+
+            for (final Registration registration : currentRegistrations) {
+                registration.update();
+            }
+        }
+
+        private void closePreparedRead() {
+            if (this.preparedRead != null) {
+                try {
+                    this.preparedRead.close();
+                } catch (final Exception e) {
+                    logger.warn("Failed to close prepared read", e);
+                }
+                this.preparedRead = null;
+            }
+        }
+    }
+
+    private static final class Registration {
+
+        private final ChannelRecord record;
+        private final ChannelListener listener;
+        private final double deadband;
+
+        private TypedValue<?> lastValue;
+        private boolean failed;
+
+        Registration(final ChannelRecord record, final ChannelListener listener, final double deadband) {
+            this.record = record;
+            this.listener = listener;
+            this.deadband = deadband;
+        }
+
+        void update() {
+            final ChannelStatus status = this.record.getChannelStatus();
+            if (status == null) {
+                return;
+            }
+
+            if (status.getChannelFlag() == ChannelFlag.FAILURE) {
+                if (!this.failed) {
+                    this.failed = true;
+                    this.lastValue = null;
+                    notifyListener();
+                }
+                return;
+            }
+
+            final TypedValue<?> value = this.record.getValue();
+            if (value == null || !(this.failed || isChanged(value))) {
+                return;
+            }
+            this.failed = false;
+            this.lastValue = value;
+            notifyListener();
+        }
+
+        private boolean isChanged(final TypedValue<?> value) {
+            if (this.lastValue == null) {
+                return true;
+            }
+            final Object current = value.getValue();
+            final Object last = this.lastValue.getValue();
+            if (this.deadband > 0 && current instanceof Number && last instanceof Number) {
+                return Math.abs(((Number) current).doubleValue() - ((Number) last).doubleValue()) > this.deadband;
+            }
+            return !value.equals(this.lastValue);
+        }
+
+        private void notifyListener() {
+            // the record is reused by the next poll, the listener receives a copy
+            final ChannelRecord event = ChannelRecord.createReadRecord(this.record.getChannelName(),
+                    this.record.getValueType());
+            if (!this.failed) {
+                event.setValue(this.record.getValue());
+            }
+            event.setChannelStatus(this.record.getChannelStatus());
+            event.setTimestamp(this.record.getTimestamp());
+            event.setChannelConfig(this.record.getChannelConfig());
+            try {
+                this.listener.onChannelEvent(new ChannelEvent(event));
+            } catch (final Exception e) {
+                logger.warn("Unexpected exception in channel listener", e);
+            }
+        }
+    }
+}
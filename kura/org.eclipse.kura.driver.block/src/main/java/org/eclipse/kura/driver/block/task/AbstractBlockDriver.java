@@ -15,11 +15,22 @@ package org.eclipse.kura.driver.block.task;
 import static java.util.Objects.requireNonNull;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -34,7 +45,9 @@ import org.eclipse.kura.channel.listener.ChannelListener;
 import org.eclipse.kura.driver.Driver;
 import org.eclipse.kura.driver.PreparedRead;
 import org.eclipse.kura.driver.block.Block;
+import org.eclipse.kura.driver.block.BlockCostModel;
 import org.eclipse.kura.driver.block.BlockFactory;
+import org.eclipse.kura.driver.block.PollingChannelListenerManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,14 +77,60 @@ import org.slf4j.LoggerFactory;
  * This class provides a default implementation for the {@link #read(List)}, {@link #write(List)} and
  * {@link #prepareRead(List)} methods of the {@link Driver} interface.
  * </p>
+ * <p>
+ * The {@link #registerChannelListener(Map, ChannelListener)} and {@link #unregisterChannelListener(ChannelListener)}
+ * methods are implemented by polling the channels with registered listeners using a
+ * {@link PollingChannelListenerManager}. The poll interval and the deadband of each channel can be specified using the
+ * {@value #LISTENER_POLL_INTERVAL_PROPERTY} and {@value #LISTENER_DEADBAND_PROPERTY} channel configuration properties,
+ * see {@link #getChannelListenerPollInterval(Map)} and {@link #getChannelListenerDeadband(Map)}. Implementors should
+ * call {@link #close()} when the driver is deactivated.
+ * </p>
+ * <p>
+ * The task plans computed by {@link #read(List)} are cached, keyed by the names, value types and configurations of the
+ * channels, see {@link #getReadPlanCacheSize()}. Implementors must call {@link #clearReadPlanCache()} when a change in
+ * the driver configuration affects the result of {@link #toTasks(List, Mode)} or
+ * {@link #getTaskFactoryForDomain(Object, Mode)}.
+ * </p>
+ * <p>
+ * By default the tasks of all domains are run sequentially. Implementors whose transport supports concurrent requests
+ * on different domains can override {@link #getMaxParallelDomains()}, in this case the tasks of different domains are
+ * run concurrently, while the tasks of the same domain are always run sequentially in the aggregation order.
+ * </p>
  *
  * @param <T>
  *            the type of the domain, can be any type suitable for being used as an {@link HashMap} key
  */
 public abstract class AbstractBlockDriver<T> implements Driver {
 
+    /** The channel configuration property containing the listener poll interval in milliseconds */
+    public static final String LISTENER_POLL_INTERVAL_PROPERTY = "listener.poll.interval";
+
+    /** The channel configuration property containing the listener deadband */
+    public static final String LISTENER_DEADBAND_PROPERTY = "listener.deadband";
+
+    /** The poll interval used for the channels that do not specify one */
+    public static final long DEFAULT_LISTENER_POLL_INTERVAL = 1000;
+
     private static final Logger logger = LoggerFactory.getLogger(AbstractBlockDriver.class);
 
+    /** The default size of the read plan cache */
+    public static final int DEFAULT_READ_PLAN_CACHE_SIZE = 16;
+
+    private final PollingChannelListenerManager channelListenerManager = new PollingChannelListenerManager(this);
+
+    private final Map<List<List<Object>>, ReadPlan> readPlanCache = new LinkedHashMap<List<List<Object>>, ReadPlan>(
+            16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Entry<List<List<Object>>, ReadPlan> eldest) {
+            return size() > getReadPlanCacheSize();
+        }
+    };
+
+    private ExecutorService domainExecutor;
+
     /**
      * This method must provide a {@link BlockFactory} that can be used for creating {@link ToplevelBlockTask} instances
      * responsible of implementing the I/O operations for the specified domain.
@@ -122,6 +181,26 @@ public abstract class AbstractBlockDriver<T> implements Driver {
         return 0;
     }
 
+    /**
+     * Returns the {@link BlockCostModel} that will be used to aggregate tasks in the specified mode for the specified
+     * domain. If a cost model is returned, the value returned by {@link #getReadMinimumGapSizeForDomain(Object)} is
+     * ignored. Implementors should return a cost model if the protocol limits the size of a request or if the optimal
+     * aggregation depends on the characteristics of the link. The default is {@code null}, meaning that the
+     * aggregation is performed using the minimum gap size. In {@link Mode#WRITE} mode only the maximum block size and
+     * the alignment of the model are used: tasks separated by a gap are never aggregated, since the resulting request
+     * would overwrite the data in the gap, see {@link BlockCostModel#withoutGaps(int, int)}.
+     *
+     * @param domain
+     *            the domain
+     * @param mode
+     *            the {@link Mode} of the {@link ToplevelBlockTask} instances to be produced, can be either
+     *            {@link Mode#READ} or {@link Mode#WRITE}
+     * @return the {@link BlockCostModel} for the provided domain and mode, or {@code null}
+     */
+    protected BlockCostModel getCostModelForDomain(T domain, Mode mode) {
+        return null;
+    }
+
     /**
      * This method is called immediately before an aggregation is performed for the specific domain and mode. This
      * method can be overridden by implementors in order to customize the {@link BlockTaskAggregator} provided as
@@ -160,8 +239,42 @@ public abstract class AbstractBlockDriver<T> implements Driver {
      *             if any exception is thrown during the process
      */
     protected List<BlockTask> optimize(List<ChannelRecord> records, Mode mode) throws KuraException {
+        final ArrayList<BlockTask> resultTasks = new ArrayList<>();
+        aggregateByDomain(records, mode).values().forEach(resultTasks::addAll);
+        return resultTasks;
+    }
+
+    /**
+     * Performs the same operations as {@link #optimize(List, Mode)}, but returns the resulting {@link BlockTask}
+     * instances grouped by domain. The tasks of each domain are listed in the order in which they must be run. This
+     * method is used by the {@link #read(List)}, {@link #write(List)} and {@link #prepareRead(List)} implementations.
+     * <p>
+     * If {@link #getMaxParallelDomains()} returns 1 (the default) the tasks do not need to be grouped, the default
+     * implementation returns the result of {@link #optimize(List, Mode)} as a single group with a {@code null} key, so
+     * that an overridden {@link #optimize(List, Mode)} is honored. Otherwise the aggregation is performed directly,
+     * implementors that run domains concurrently and customize the aggregation must override this method.
+     * </p>
+     *
+     * @param records
+     *            the {@link ChannelRecord} instances to be converted to {@link BlockTask} instances.
+     * @param mode
+     *            the mode
+     * @return the {@link BlockTask} instances resulting from the aggregation, grouped by domain
+     * @throws KuraException
+     *             if any exception is thrown during the process
+     */
+    protected Map<T, List<BlockTask>> optimizeByDomain(List<ChannelRecord> records, Mode mode) throws KuraException {
+        if (getMaxParallelDomains() <= 1) {
+            final Map<T, List<BlockTask>> resultTasks = new HashMap<>(2);
+            resultTasks.put(null, optimize(records, mode));
+            return resultTasks;
+        }
+        return aggregateByDomain(records, mode);
+    }
+
+    private Map<T, List<BlockTask>> aggregateByDomain(List<ChannelRecord> records, Mode mode) throws KuraException {
         try {
-            final ArrayList<BlockTask> resultTasks = new ArrayList<>();
+            final Map<T, List<BlockTask>> resultTasks = new LinkedHashMap<>();
             final HashSet<T> domainsWithUpdateTasks = new HashSet<>();
 
             final Function<Pair<T, BlockTask>, T> classifier;
@@ -183,17 +296,25 @@ public abstract class AbstractBlockDriver<T> implements Driver {
                 final T domain = entry.getKey();
                 final BlockTaskAggregator aggregator;
                 if (domainsWithUpdateTasks.contains(domain)) {
-                    aggregator = new UpdateBlockTaskAggregator(entry.getValue(),
-                            getTaskFactoryForDomain(domain, Mode.READ), getTaskFactoryForDomain(domain, Mode.WRITE));
-                    aggregator.setMinimumGapSize(getReadMinimumGapSizeForDomain(domain));
+                    final UpdateBlockTaskAggregator updateAggregator = new UpdateBlockTaskAggregator(
+                            entry.getValue(), getTaskFactoryForDomain(domain, Mode.READ),
+                            getTaskFactoryForDomain(domain, Mode.WRITE));
+                    updateAggregator.setMinimumGapSize(getReadMinimumGapSizeForDomain(domain));
+                    updateAggregator.setReadCostModel(getCostModelForDomain(domain, Mode.READ));
+                    updateAggregator.setCostModel(toWriteCostModel(getCostModelForDomain(domain, Mode.WRITE)));
+                    aggregator = updateAggregator;
                 } else {
                     aggregator = new BlockTaskAggregator(entry.getValue(), getTaskFactoryForDomain(domain, mode));
                     if (mode == Mode.READ) {
                         aggregator.setMinimumGapSize(getReadMinimumGapSizeForDomain(domain));
                     }
+                    final BlockCostModel costModel = getCostModelForDomain(domain, mode);
+                    aggregator.setCostModel(mode == Mode.READ ? costModel : toWriteCostModel(costModel));
                 }
                 beforeAggregation(domain, mode, aggregator);
-                aggregator.stream().forEach(resultTasks::add);
+                final List<BlockTask> tasks = new ArrayList<>();
+                aggregator.stream().forEach(tasks::add);
+                resultTasks.put(domain, tasks);
             });
 
             return resultTasks;
@@ -202,6 +323,13 @@ public abstract class AbstractBlockDriver<T> implements Driver {
         }
     }
 
+    private static BlockCostModel toWriteCostModel(BlockCostModel costModel) {
+        if (costModel == null || !costModel.isGapAllowed()) {
+            return costModel;
+        }
+        return BlockCostModel.withoutGaps(costModel.getMaximumBlockSize(), costModel.getAlignment());
+    }
+
     /**
      * Executes the provided {@link BlockTask}. Implementors can override this method, for example for catching any
      * exception thrown by the task and implement error handling.
@@ -217,22 +345,205 @@ public abstract class AbstractBlockDriver<T> implements Driver {
         }
     }
 
+    /**
+     * Returns the maximum number of domains whose tasks can be run concurrently. The default is 1, meaning that all
+     * tasks are run sequentially by the calling thread. Implementors can return a greater value if the underlying
+     * transport supports concurrent requests on different domains, in this case {@link #runTask(BlockTask)} can be
+     * called concurrently for tasks belonging to different domains and must be thread safe. The tasks of the same
+     * domain are always run sequentially in the aggregation order.
+     *
+     * @return the maximum number of domains processed concurrently
+     */
+    protected int getMaxParallelDomains() {
+        return 1;
+    }
+
+    /**
+     * Returns the maximum number of task plans cached by {@link #read(List)}. The default is
+     * {@link #DEFAULT_READ_PLAN_CACHE_SIZE}, returning 0 disables the cache.
+     *
+     * @return the size of the read plan cache
+     */
+    protected int getReadPlanCacheSize() {
+        return DEFAULT_READ_PLAN_CACHE_SIZE;
+    }
+
+    /**
+     * Discards the task plans cached by {@link #read(List)}. Implementors must call this method when a change in the
+     * driver configuration affects the result of {@link #toTasks(List, Mode)} or
+     * {@link #getTaskFactoryForDomain(Object, Mode)}.
+     */
+    protected synchronized void clearReadPlanCache() {
+        this.readPlanCache.clear();
+    }
+
+    /**
+     * Runs the provided tasks, grouped by domain, using {@link #runTask(BlockTask)}. The tasks of different domains
+     * are run concurrently if allowed by {@link #getMaxParallelDomains()}.
+     *
+     * @param domainTasks
+     *            the tasks to be run, grouped by domain
+     */
+    protected void runTasks(Collection<List<BlockTask>> domainTasks) {
+        final int parallelism = Math.min(getMaxParallelDomains(), domainTasks.size());
+        if (parallelism <= 1) {
+            for (List<BlockTask> tasks : domainTasks) {
+                tasks.forEach(this::runTask);
+            }
+            return;
+        }
+
+        final ConcurrentLinkedQueue<List<BlockTask>> pending = new ConcurrentLinkedQueue<>(domainTasks);
+        final Runnable worker = () -> {
+            List<BlockTask> tasks;
+            while ((tasks = pending.poll()) != null) {
+                tasks.forEach(this::runTask);
+            }
+        };
+
+        final List<Future<?>> futures = new ArrayList<>(parallelism - 1);
+        final ExecutorService executor = getDomainExecutor();
+        for (int i = 1; i < parallelism; i++) {
+            futures.add(executor.submit(worker));
+        }
+        worker.run();
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new KuraRuntimeException(KuraErrorCode.INTERNAL_ERROR, e);
+            } catch (ExecutionException e) {
+                throw new KuraRuntimeException(KuraErrorCode.INTERNAL_ERROR, e.getCause());
+            }
+        }
+    }
+
+    private synchronized ExecutorService getDomainExecutor() {
+        if (this.domainExecutor == null) {
+            final String name = "BlockDriverWorker-" + getClass().getSimpleName();
+            this.domainExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), r -> {
+                        final Thread thread = new Thread(r, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        return this.domainExecutor;
+    }
+
+    private ReadPlan getReadPlan(final List<ChannelRecord> records) throws KuraException {
+        final List<List<Object>> key = new ArrayList<>(records.size());
+        for (ChannelRecord record : records) {
+            key.add(Arrays.asList(record.getChannelName(), record.getValueType(), record.getChannelConfig()));
+        }
+
+        ReadPlan plan = this.readPlanCache.get(key);
+        if (plan == null) {
+            final List<ChannelRecord> planRecords = new ArrayList<>(records.size());
+            for (ChannelRecord record : records) {
+                final ChannelRecord planRecord = ChannelRecord.createReadRecord(record.getChannelName(),
+                        record.getValueType());
+                if (record.getChannelConfig() != null) {
+                    planRecord.setChannelConfig(record.getChannelConfig());
+                }
+                planRecords.add(planRecord);
+            }
+            plan = new ReadPlan(planRecords, optimizeByDomain(planRecords, Mode.READ).values());
+            this.readPlanCache.put(key, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Returns the poll interval in milliseconds to be used for a channel with a registered listener. The default
+     * implementation returns the value of the {@value #LISTENER_POLL_INTERVAL_PROPERTY} channel configuration
+     * property, or {@link #DEFAULT_LISTENER_POLL_INTERVAL} if the property is not specified.
+     *
+     * @param channelConfig
+     *            the channel configuration
+     * @return the poll interval
+     */
+    protected long getChannelListenerPollInterval(final Map<String, Object> channelConfig) {
+        final Object value = channelConfig.get(LISTENER_POLL_INTERVAL_PROPERTY);
+        if (value == null) {
+            return DEFAULT_LISTENER_POLL_INTERVAL;
+        }
+        try {
+            return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString().trim());
+        } catch (final NumberFormatException e) {
+            throw new KuraRuntimeException(KuraErrorCode.INVALID_PARAMETER, e, LISTENER_POLL_INTERVAL_PROPERTY,
+                    value);
+        }
+    }
+
+    /**
+     * Returns the deadband to be used for a channel with a registered listener, changes of numeric values smaller than
+     * or equal to the deadband are not notified. The default implementation returns the value of the
+     * {@value #LISTENER_DEADBAND_PROPERTY} channel configuration property, or 0 if the property is not specified.
+     *
+     * @param channelConfig
+     *            the channel configuration
+     * @return the deadband
+     */
+    protected double getChannelListenerDeadband(final Map<String, Object> channelConfig) {
+        final Object value = channelConfig.get(LISTENER_DEADBAND_PROPERTY);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return value instanceof Number ? ((Number) value).doubleValue()
+                    : Double.parseDouble(value.toString().trim());
+        } catch (final NumberFormatException e) {
+            throw new KuraRuntimeException(KuraErrorCode.INVALID_PARAMETER, e, LISTENER_DEADBAND_PROPERTY, value);
+        }
+    }
+
+    /**
+     * Unregisters all the channel listeners and stops polling. Implementors should call this method when the driver
+     * is deactivated.
+     */
+    protected void closeChannelListeners() {
+        this.channelListenerManager.close();
+    }
+
+    /**
+     * Unregisters all the channel listeners, as {@link #closeChannelListeners()}, and stops the threads used for
+     * running the domains concurrently. Implementors should call this method when the driver is deactivated, the
+     * threads are created again if the driver is used afterwards.
+     */
+    protected void close() {
+        closeChannelListeners();
+        synchronized (this) {
+            if (this.domainExecutor != null) {
+                this.domainExecutor.shutdown();
+                this.domainExecutor = null;
+            }
+        }
+    }
+
     @Override
     public void registerChannelListener(final Map<String, Object> channelConfig, final ChannelListener listener)
             throws ConnectionException {
-        throw new KuraRuntimeException(KuraErrorCode.OPERATION_NOT_SUPPORTED);
+        this.channelListenerManager.registerChannelListener(channelConfig, listener,
+                getChannelListenerPollInterval(channelConfig), getChannelListenerDeadband(channelConfig));
     }
 
     @Override
     public void unregisterChannelListener(final ChannelListener listener) throws ConnectionException {
-        throw new KuraRuntimeException(KuraErrorCode.OPERATION_NOT_SUPPORTED);
+        this.channelListenerManager.unregisterChannelListener(listener);
     }
 
     @Override
     public synchronized void read(final List<ChannelRecord> records) throws ConnectionException {
         connect();
         try {
-            optimize(records, Mode.READ).forEach(this::runTask);
+            if (getReadPlanCacheSize() > 0) {
+                getReadPlan(records).execute(records);
+            } else {
+                runTasks(optimizeByDomain(records, Mode.READ).values());
+            }
         } catch (Exception e) {
             logger.warn("Unexpected exception during read", e);
             for (ChannelRecord record : records) {
@@ -246,7 +557,7 @@ public abstract class AbstractBlockDriver<T> implements Driver {
     public synchronized void write(final List<ChannelRecord> records) throws ConnectionException {
         connect();
         try {
-            optimize(records, Mode.WRITE).forEach(this::runTask);
+            runTasks(optimizeByDomain(records, Mode.WRITE).values());
         } catch (Exception e) {
             logger.warn("Unexpected exception during write", e);
             for (ChannelRecord record : records) {
@@ -260,10 +571,28 @@ public abstract class AbstractBlockDriver<T> implements Driver {
         return new BlockPreparedRead(records, tasks);
     }
 
+    /**
+     * Creates the {@link PreparedRead} returned by {@link #prepareRead(List)}. If the tasks are not grouped by domain,
+     * see {@link #optimizeByDomain(List, Mode)}, the default implementation delegates to
+     * {@link #createPreparedRead(List, List)}.
+     *
+     * @param records
+     *            the records of the prepared read
+     * @param domainTasks
+     *            the tasks of the prepared read, grouped by domain
+     * @return the {@link PreparedRead}
+     */
+    protected PreparedRead createPreparedRead(List<ChannelRecord> records, Map<T, List<BlockTask>> domainTasks) {
+        if (domainTasks.size() == 1 && domainTasks.containsKey(null)) {
+            return createPreparedRead(records, domainTasks.get(null));
+        }
+        return new BlockPreparedRead(records, domainTasks.values());
+    }
+
     @Override
     public synchronized PreparedRead prepareRead(List<ChannelRecord> records) {
         try {
-            return createPreparedRead(records, optimize(records, Mode.READ));
+            return createPreparedRead(records, optimizeByDomain(records, Mode.READ));
         } catch (KuraException e) {
             for (ChannelRecord record : records) {
                 record.setChannelStatus(new ChannelStatus(ChannelFlag.FAILURE, e.getMessage(), e));
@@ -276,11 +605,16 @@ public abstract class AbstractBlockDriver<T> implements Driver {
     public class BlockPreparedRead implements PreparedRead {
 
         private final List<ChannelRecord> records;
-        private final List<BlockTask> tasks;
+        private final Collection<List<BlockTask>> domainTasks;
 
         public BlockPreparedRead(List<ChannelRecord> records, List<BlockTask> tasks) {
             this.records = records;
-            this.tasks = tasks;
+            this.domainTasks = Collections.singletonList(tasks);
+        }
+
+        public BlockPreparedRead(List<ChannelRecord> records, Collection<List<BlockTask>> domainTasks) {
+            this.records = records;
+            this.domainTasks = domainTasks;
         }
 
         @Override
@@ -291,9 +625,7 @@ public abstract class AbstractBlockDriver<T> implements Driver {
         public List<ChannelRecord> execute() throws ConnectionException, KuraException {
             synchronized (AbstractBlockDriver.this) {
                 connect();
-                for (BlockTask task : this.tasks) {
-                    runTask(task);
-                }
+                runTasks(this.domainTasks);
                 return this.records;
             }
         }
@@ -305,6 +637,45 @@ public abstract class AbstractBlockDriver<T> implements Driver {
 
     }
 
+    private final class ReadPlan {
+
+        private final List<ChannelRecord> records;
+        private final Collection<List<BlockTask>> domainTasks;
+
+        ReadPlan(List<ChannelRecord> records, Collection<List<BlockTask>> domainTasks) {
+            this.records = records;
+            this.domainTasks = domainTasks;
+        }
+
+        void execute(List<ChannelRecord> targets) {
+            // the timestamps of the previous execution must not be reported again
+            for (ChannelRecord record : this.records) {
+                record.setTimestamp(0);
+            }
+            runTasks(this.domainTasks);
+            for (int i = 0; i < targets.size(); i++) {
+                final ChannelRecord source = this.records.get(i);
+                final ChannelRecord target = targets.get(i);
+                final ChannelStatus status = source.getChannelStatus();
+                if (status != null) {
+                    target.setChannelStatus(status);
+                }
+                final long timestamp = source.getTimestamp();
+                if (status != null && status.getChannelFlag() == ChannelFlag.FAILURE) {
+                    // keep the previous value, but report when the read failed
+                    target.setTimestamp(timestamp != 0 ? timestamp : System.currentTimeMillis());
+                    continue;
+                }
+                if (timestamp != 0) {
+                    target.setTimestamp(timestamp);
+                }
+                if (source.getValue() != null) {
+                    target.setValue(source.getValue());
+                }
+            }
+        }
+    }
+
     public static final class Pair<U, V> {
 
         private final U first;
@@ -15,6 +15,7 @@ package org.eclipse.kura.driver.block.task;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.function.Function;
+import java.util.function.LongFunction;
 
 import org.eclipse.kura.channel.ChannelRecord;
 import org.eclipse.kura.driver.binary.BinaryData;
@@ -31,6 +32,17 @@ import org.eclipse.kura.type.TypedValues;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * <p>
+ * A {@link ChannelBlockTask} that reads or writes a value of the channel using a {@link BinaryData} instance.
+ * </p>
+ * <p>
+ * If the task is created specifying the Kura {@link DataType} of the channel and both the {@link BinaryData} value
+ * type and the {@link DataType} are numeric, values are decoded using the primitive methods of {@link BinaryData}. In
+ * this case the {@link TypedValue} instance set in the {@link ChannelRecord} is reused as long as the decoded value
+ * does not change, so that repeatedly executing the task does not allocate memory unless the value changes.
+ * </p>
+ */
 public class BinaryDataTask<T> extends ChannelBlockTask {
 
     private static final Logger logger = LoggerFactory.getLogger(BinaryDataTask.class);
@@ -40,6 +52,8 @@ public class BinaryDataTask<T> extends ChannelBlockTask {
     private Function<T, TypedValue<?>> toTypedValue;
     private Function<TypedValue<?>, T> fromTypedValue;
 
+    private NumericDecoder numericDecoder;
+
     @SuppressWarnings("unchecked")
     public BinaryDataTask(ChannelRecord record, int offset, BinaryData<T> dataType, Mode mode) {
         this(record, offset, dataType, value -> TypedValues.newTypedValue(value),
@@ -50,6 +64,7 @@ public class BinaryDataTask<T> extends ChannelBlockTask {
             Mode mode) {
         this(record, offset, binaryDataType, createToTypedValueAdapter(binaryDataType.getValueType(), dataType),
                 createFromTypedValueAdapter(binaryDataType.getValueType(), dataType), mode);
+        this.numericDecoder = NumericDecoder.create(binaryDataType, dataType);
     }
 
     public BinaryDataTask(ChannelRecord record, int offset, BinaryData<T> dataType,
@@ -66,11 +81,17 @@ public class BinaryDataTask<T> extends ChannelBlockTask {
         Buffer buffer = parent.getBuffer();
 
         if (getMode() == Mode.READ) {
-            logger.debug("Read {}: offset: {}", this.dataType.getClass().getSimpleName(), getStart());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Read {}: offset: {}", this.dataType.getClass().getSimpleName(), getStart());
+            }
 
-            final T result = this.dataType.read(buffer, getStart() - parent.getStart());
+            final int offset = getStart() - parent.getStart();
 
-            this.record.setValue(this.toTypedValue.apply(result));
+            if (this.numericDecoder != null) {
+                this.record.setValue(this.numericDecoder.decode(buffer, offset));
+            } else {
+                this.record.setValue(this.toTypedValue.apply(this.dataType.read(buffer, offset)));
+            }
             onSuccess();
         } else {
             logger.debug("Write {}: offset: {}", this.dataType.getClass().getSimpleName(), getStart());
@@ -163,4 +184,77 @@ public class BinaryDataTask<T> extends ChannelBlockTask {
         throw new IllegalArgumentException("Cannot convert from Kura data type " + sourceType.name()
                 + " to native type " + targetType.getSimpleName());
     }
+
+    /**
+     * Decodes numeric values without boxing, caching the last {@link TypedValue} instance. The raw bits of the last
+     * decoded value are compared with the current ones, floating point values are compared using their IEEE 754
+     * representation.
+     */
+    private static final class NumericDecoder {
+
+        private final BinaryData<?> dataType;
+        private final boolean isFloatingPoint;
+        private final LongFunction<TypedValue<?>> toTypedValue;
+
+        private TypedValue<?> lastValue;
+        private long lastBits;
+
+        private NumericDecoder(BinaryData<?> dataType, boolean isFloatingPoint,
+                LongFunction<TypedValue<?>> toTypedValue) {
+            this.dataType = dataType;
+            this.isFloatingPoint = isFloatingPoint;
+            this.toTypedValue = toTypedValue;
+        }
+
+        static NumericDecoder create(BinaryData<?> dataType, DataType targetType) {
+            final Class<?> sourceType = dataType.getValueType();
+
+            if (sourceType == Integer.class || sourceType == Long.class) {
+                final LongFunction<TypedValue<?>> adapter = createIntegralAdapter(targetType);
+                return adapter != null ? new NumericDecoder(dataType, false, adapter) : null;
+            } else if (sourceType == Float.class || sourceType == Double.class) {
+                final LongFunction<TypedValue<?>> adapter = createFloatingPointAdapter(targetType);
+                return adapter != null ? new NumericDecoder(dataType, true, adapter) : null;
+            }
+            return null;
+        }
+
+        private static LongFunction<TypedValue<?>> createIntegralAdapter(DataType targetType) {
+            if (targetType == DataType.INTEGER) {
+                return value -> new IntegerValue((int) value);
+            } else if (targetType == DataType.LONG) {
+                return LongValue::new;
+            } else if (targetType == DataType.FLOAT) {
+                return value -> new FloatValue(value);
+            } else if (targetType == DataType.DOUBLE) {
+                return value -> new DoubleValue(value);
+            }
+            return null;
+        }
+
+        private static LongFunction<TypedValue<?>> createFloatingPointAdapter(DataType targetType) {
+            if (targetType == DataType.INTEGER) {
+                return bits -> new IntegerValue((int) Double.longBitsToDouble(bits));
+            } else if (targetType == DataType.LONG) {
+                return bits -> new LongValue((long) Double.longBitsToDouble(bits));
+            } else if (targetType == DataType.FLOAT) {
+                return bits -> new FloatValue((float) Double.longBitsToDouble(bits));
+            } else if (targetType == DataType.DOUBLE) {
+                return bits -> new DoubleValue(Double.longBitsToDouble(bits));
+            }
+            return null;
+        }
+
+        TypedValue<?> decode(Buffer buffer, int offset) {
+            final long bits = this.isFloatingPoint
+                    ? Double.doubleToRawLongBits(this.dataType.readDouble(buffer, offset))
+                    : this.dataType.readLong(buffer, offset);
+
+            if (this.lastValue == null || bits != this.lastBits) {
+                this.lastValue = this.toTypedValue.apply(bits);
+                this.lastBits = bits;
+            }
+            return this.lastValue;
+        }
+    }
 }
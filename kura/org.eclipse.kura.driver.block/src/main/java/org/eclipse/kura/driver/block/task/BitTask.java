@@ -21,6 +21,10 @@ import org.slf4j.LoggerFactory;
 public class BitTask extends UpdateBlockTask {
 
     private static final Logger logger = LoggerFactory.getLogger(BitTask.class);
+
+    private static final BooleanValue TRUE = new BooleanValue(true);
+    private static final BooleanValue FALSE = new BooleanValue(false);
+
     private int bit;
 
     public BitTask(ChannelRecord record, int start, int bit, Mode mode) {
@@ -41,9 +45,11 @@ public class BitTask extends UpdateBlockTask {
 
         final boolean result = (b >> this.bit & 0x01) == 1;
 
-        logger.debug("Reading Bit: offset {} bit index {} result {}", getStart(), this.bit, result);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Reading Bit: offset {} bit index {} result {}", getStart(), this.bit, result);
+        }
 
-        this.record.setValue(new BooleanValue(result));
+        this.record.setValue(result ? TRUE : FALSE);
         onSuccess();
     }
 
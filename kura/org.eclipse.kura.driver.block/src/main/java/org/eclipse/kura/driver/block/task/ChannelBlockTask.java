@@ -26,6 +26,8 @@ import org.eclipse.kura.channel.ChannelStatus;
  */
 public abstract class ChannelBlockTask extends BlockTask {
 
+    private static final ChannelStatus SUCCESS_STATUS = new ChannelStatus(ChannelFlag.SUCCESS);
+
     protected final ChannelRecord record;
 
     /**
@@ -52,7 +54,7 @@ public abstract class ChannelBlockTask extends BlockTask {
      */
     @Override
     public void onSuccess() {
-        this.record.setChannelStatus(new ChannelStatus(ChannelFlag.SUCCESS));
+        this.record.setChannelStatus(SUCCESS_STATUS);
         this.record.setTimestamp(System.currentTimeMillis());
     }
 
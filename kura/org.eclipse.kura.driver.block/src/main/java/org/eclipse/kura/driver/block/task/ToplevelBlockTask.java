@@ -117,7 +117,8 @@ public abstract class ToplevelBlockTask extends BlockTask {
      */
     protected void runChildren() throws IOException {
         this.isAborted = false;
-        for (BlockTask child : getChildren()) {
+        for (int i = 0; i < this.children.size(); i++) {
+            final BlockTask child = this.children.get(i);
             child.setParent(this);
             child.run();
             if (this.isAborted) {
@@ -180,8 +181,8 @@ public abstract class ToplevelBlockTask extends BlockTask {
      */
     @Override
     public void onSuccess() {
-        for (BlockTask child : getChildren()) {
-            child.onSuccess();
+        for (int i = 0; i < this.children.size(); i++) {
+            this.children.get(i).onSuccess();
         }
     }
 
@@ -190,8 +191,8 @@ public abstract class ToplevelBlockTask extends BlockTask {
      */
     @Override
     public void onFailure(Exception exception) {
-        for (BlockTask child : getChildren()) {
-            child.onFailure(exception);
+        for (int i = 0; i < this.children.size(); i++) {
+            this.children.get(i).onFailure(exception);
         }
     }
 
@@ -20,6 +20,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.kura.driver.block.Block;
+import org.eclipse.kura.driver.block.BlockCostModel;
 import org.eclipse.kura.driver.block.BlockFactory;
 import org.eclipse.kura.driver.block.ProhibitedBlock;
 
@@ -105,6 +106,18 @@ public class UpdateBlockTaskAggregator extends BlockTaskAggregator {
         this.readTaskAggregator.setMinimumGapSize(minimumGapSize);
     }
 
+    /**
+     * Sets the {@link BlockCostModel} that will be used for aggregating the {@link ToplevelBlockTask} tasks in
+     * {@link Mode#READ} mode. The {@link BlockCostModel} for the {@link ToplevelBlockTask} tasks in
+     * {@link Mode#WRITE} mode can be specified using {@link #setCostModel(BlockCostModel)}.
+     *
+     * @param costModel
+     *            the cost model, or {@code null}
+     */
+    public void setReadCostModel(BlockCostModel costModel) {
+        this.readTaskAggregator.setCostModel(costModel);
+    }
+
     /**
      * {@inheritDoc}
      *
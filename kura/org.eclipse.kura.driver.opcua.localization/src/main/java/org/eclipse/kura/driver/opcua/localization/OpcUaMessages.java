@@ -105,4 +105,13 @@ public interface OpcUaMessages {
     @En("Operation Result Variant cannot be null")
     public String errorNullVariant();
 
-}
\ No newline at end of file
+    @En("Channel Listener cannot be null")
+    public String listenerNonNull();
+
+    @En("Unable to create the OPC-UA Monitored Item")
+    public String errorCreatingMonitoredItem();
+
+    @En("Unable to delete the OPC-UA Monitored Item")
+    public String errorDeletingMonitoredItem();
+
+}
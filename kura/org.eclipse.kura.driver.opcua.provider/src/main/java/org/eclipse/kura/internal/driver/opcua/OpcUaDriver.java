@@ -15,14 +15,16 @@ package org.eclipse.kura.internal.driver.opcua;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
-import static org.eclipse.kura.KuraErrorCode.OPERATION_NOT_SUPPORTED;
+import static org.eclipse.kura.KuraErrorCode.INVALID_PARAMETER;
 import static org.eclipse.kura.channel.ChannelFlag.FAILURE;
 import static org.eclipse.kura.channel.ChannelFlag.SUCCESS;
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -31,11 +33,13 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.kura.KuraRuntimeException;
 import org.eclipse.kura.channel.ChannelFlag;
 import org.eclipse.kura.channel.ChannelRecord;
 import org.eclipse.kura.channel.ChannelStatus;
+import org.eclipse.kura.channel.listener.ChannelEvent;
 import org.eclipse.kura.channel.listener.ChannelListener;
 import org.eclipse.kura.crypto.CryptoService;
 import org.eclipse.kura.driver.ChannelDescriptor;
@@ -51,14 +55,24 @@ import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
 import org.eclipse.milo.opcua.sdk.client.api.config.OpcUaClientConfig;
 import org.eclipse.milo.opcua.sdk.client.api.config.OpcUaClientConfigBuilder;
 import org.eclipse.milo.opcua.sdk.client.api.nodes.VariableNode;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaMonitoredItem;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaSubscription;
 import org.eclipse.milo.opcua.stack.client.UaTcpStackClient;
+import org.eclipse.milo.opcua.stack.core.AttributeId;
+import org.eclipse.milo.opcua.stack.core.Identifiers;
 import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
 import org.eclipse.milo.opcua.stack.core.types.builtin.LocalizedText;
 import org.eclipse.milo.opcua.stack.core.types.builtin.NodeId;
+import org.eclipse.milo.opcua.stack.core.types.builtin.QualifiedName;
 import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
 import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
 import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.MonitoringMode;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
 import org.eclipse.milo.opcua.stack.core.types.structured.EndpointDescription;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoredItemCreateRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoringParameters;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -70,6 +84,13 @@ import io.netty.util.internal.StringUtil;
  * node. As of now, it doesn't support method execution or history read.
  * <br/>
  * <br/>
+ * The channels read together, using {@link #read(List)} or a {@link PreparedRead}, are
+ * read using a single Read service call, split in multiple calls only if the number
+ * of nodes exceeds the limit advertised by the server or the configured one.
+ * Channel listeners are backed by monitored items of a single OPC-UA subscription,
+ * the server notifies the value changes without the need of polling.
+ * <br/>
+ * <br/>
  * This OPC-UA Driver can be used in cooperation with Kura Asset Model and in
  * isolation as well. In case of isolation, the properties needs to be provided
  * externally.
@@ -86,6 +107,12 @@ import io.netty.util.internal.StringUtil;
  */
 public final class OpcUaDriver implements Driver {
 
+    /** The channel configuration property containing the channel name */
+    private static final String CHANNEL_NAME_PROPERTY = "+name";
+
+    /** The channel configuration property containing the channel value type */
+    private static final String CHANNEL_VALUE_TYPE_PROPERTY = "+value.type";
+
     /** The Logger instance. */
     private static final Logger logger = LoggerFactory.getLogger(OpcUaDriver.class);
 
@@ -103,6 +130,17 @@ public final class OpcUaDriver implements Driver {
 
     private final AtomicBoolean isBusy = new AtomicBoolean();
 
+    /** Maximum number of nodes per Read service call advertised by the server, 0 if unknown */
+    private volatile int serverMaxNodesPerRead;
+
+    /** The registered channel listeners, kept across reconnections */
+    private final List<ListenerRegistration> listenerRegistrations = new ArrayList<>();
+
+    /** The subscription containing the monitored items of the registered listeners */
+    private UaSubscription subscription;
+
+    private final AtomicLong clientHandles = new AtomicLong();
+
     private <U> U runSafe(final Future<U> future) throws ExecutionException, InterruptedException, TimeoutException {
         try {
             return future.get(this.options.getRequestTimeout(), TimeUnit.MILLISECONDS);
@@ -198,6 +236,7 @@ public final class OpcUaDriver implements Driver {
             logger.debug("Connecting...");
             newClient = new OpcUaClient(clientConfigBuilder.build());
             this.client = (OpcUaClient) runSafe(newClient.connect());
+            this.serverMaxNodesPerRead = readServerMaxNodesPerRead();
 
             logger.info(message.connectingDone());
         } catch (final Exception e) {
@@ -208,6 +247,7 @@ public final class OpcUaDriver implements Driver {
         } finally {
             this.isBusy.set(false);
         }
+        restoreMonitoredItems();
     }
 
     /**
@@ -222,6 +262,9 @@ public final class OpcUaDriver implements Driver {
             logger.error(message.errorDisconnecting(), e);
         }
         this.client = null;
+        synchronized (this.listenerRegistrations) {
+            this.listenerRegistrations.clear();
+        }
         logger.debug("Deactivating OPC-UA Driver... Done");
     }
 
@@ -233,6 +276,14 @@ public final class OpcUaDriver implements Driver {
         }
         try {
             logger.info(message.disconnecting());
+            // the subscription is deleted by the server together with the session, the registrations are kept
+            // and their monitored items are created again on the next connection
+            synchronized (this.listenerRegistrations) {
+                this.subscription = null;
+                for (final ListenerRegistration registration : this.listenerRegistrations) {
+                    registration.monitoredItem = null;
+                }
+            }
             shutdownClient(this.client);
             this.client = null;
             logger.info(message.disconnectingDone());
@@ -312,15 +363,80 @@ public final class OpcUaDriver implements Driver {
         }
     }
 
-    private void runReadRequest(OpcUaRequestInfo requestInfo) {
-        ChannelRecord record = requestInfo.channelRecord;
-        final VariableNode node = this.client.getAddressSpace().createVariableNode(requestInfo.nodeId);
-        Object readResult = null;
+    private static ReadValueId createReadValueId(final NodeId nodeId) {
+        return new ReadValueId(nodeId, AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE);
+    }
+
+    private int readServerMaxNodesPerRead() {
         try {
-            logger.debug("reading:  namespace index: {} node id: {}", requestInfo.nodeNamespaceIndex,
-                    requestInfo.nodeId);
-            readResult = extractValue(runSafe(node.readValue()));
+            final DataValue[] results = runSafe(this.client.read(0, TimestampsToReturn.Neither,
+                    Collections.singletonList(
+                            createReadValueId(Identifiers.Server_ServerCapabilities_OperationLimits_MaxNodesPerRead))))
+                                    .getResults();
+            final Object limit = extractValue(results[0]);
+            if (limit instanceof Number) {
+                return (int) Math.min(((Number) limit).longValue(), Integer.MAX_VALUE);
+            }
+        } catch (final Exception e) {
+            logger.debug("Unable to retrieve the MaxNodesPerRead server limit", e);
+        }
+        return 0;
+    }
+
+    private int getMaxNodesPerRead() {
+        int maxNodesPerRead = Integer.MAX_VALUE;
+        if (this.options.getMaxNodesPerRead() > 0) {
+            maxNodesPerRead = this.options.getMaxNodesPerRead();
+        }
+        if (this.serverMaxNodesPerRead > 0) {
+            maxNodesPerRead = Math.min(maxNodesPerRead, this.serverMaxNodesPerRead);
+        }
+        return maxNodesPerRead;
+    }
+
+    private void runReadRequests(final List<OpcUaRequestInfo> requestInfos) {
+        final int maxNodesPerRead = getMaxNodesPerRead();
+        for (int start = 0; start < requestInfos.size(); start += maxNodesPerRead) {
+            runReadRequest(requestInfos.subList(start, Math.min(requestInfos.size(), start + maxNodesPerRead)));
+        }
+    }
+
+    private void runReadRequest(final List<OpcUaRequestInfo> requestInfos) {
+        final List<ReadValueId> readValueIds = new ArrayList<>(requestInfos.size());
+        for (final OpcUaRequestInfo requestInfo : requestInfos) {
+            readValueIds.add(createReadValueId(requestInfo.nodeId));
+        }
+
+        final DataValue[] results;
+        try {
+            logger.debug("reading {} nodes", readValueIds.size());
+            results = runSafe(this.client.read(0, TimestampsToReturn.Both, readValueIds)).getResults();
+            requireNonNull(results, message.errorNullResult());
+            if (results.length != readValueIds.size()) {
+                throw new IOException(message.readFailed());
+            }
             logger.debug("Read Successful");
+        } catch (final Exception e) {
+            for (final OpcUaRequestInfo requestInfo : requestInfos) {
+                requestInfo.channelRecord
+                        .setChannelStatus(new ChannelStatus(ChannelFlag.FAILURE, message.readFailed(), e));
+                requestInfo.channelRecord.setTimestamp(System.currentTimeMillis());
+            }
+            logger.warn(message.readFailed(), e);
+            return;
+        }
+
+        for (int i = 0; i < results.length; i++) {
+            final OpcUaRequestInfo requestInfo = requestInfos.get(i);
+            fillRecord(requestInfo.channelRecord, requestInfo.dataType, results[i]);
+        }
+    }
+
+    private void fillRecord(final ChannelRecord record, final DataType dataType, final DataValue value) {
+        final Object readResult;
+        try {
+            checkStatus(value.getStatusCode());
+            readResult = extractValue(value);
         } catch (final Exception e) {
             record.setChannelStatus(new ChannelStatus(ChannelFlag.FAILURE, message.readFailed(), e));
             record.setTimestamp(System.currentTimeMillis());
@@ -328,7 +444,7 @@ public final class OpcUaDriver implements Driver {
             return;
         }
 
-        final Optional<TypedValue<?>> typedValue = this.getTypedValue(requestInfo.dataType, readResult);
+        final Optional<TypedValue<?>> typedValue = this.getTypedValue(dataType, readResult);
         if (!typedValue.isPresent()) {
             record.setChannelStatus(new ChannelStatus(FAILURE, message.errorValueTypeConversion(), null));
             record.setTimestamp(System.currentTimeMillis());
@@ -339,6 +455,14 @@ public final class OpcUaDriver implements Driver {
         record.setTimestamp(System.currentTimeMillis());
     }
 
+    private static List<OpcUaRequestInfo> extractRequestInfos(final List<ChannelRecord> records) {
+        final List<OpcUaRequestInfo> requestInfos = new ArrayList<>(records.size());
+        for (final ChannelRecord record : records) {
+            OpcUaRequestInfo.extract(record).ifPresent(requestInfos::add);
+        }
+        return requestInfos;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void read(final List<ChannelRecord> records) throws ConnectionException {
@@ -348,22 +472,171 @@ public final class OpcUaDriver implements Driver {
         if (isNull(this.client)) {
             this.connect();
         }
-        for (final ChannelRecord record : records) {
-            OpcUaRequestInfo.extract(record).ifPresent(this::runReadRequest);
-        }
+        runReadRequests(extractRequestInfos(records));
     }
 
     /** {@inheritDoc} */
     @Override
     public void registerChannelListener(final Map<String, Object> channelConfig, final ChannelListener listener)
             throws ConnectionException {
-        throw new KuraRuntimeException(OPERATION_NOT_SUPPORTED);
+        requireNonNull(channelConfig, message.propertiesNonNull());
+        requireNonNull(listener, message.listenerNonNull());
+
+        final ChannelRecord record = createListenerRecord(channelConfig);
+        final OpcUaRequestInfo requestInfo = OpcUaRequestInfo.extract(record)
+                .orElseThrow(() -> new KuraRuntimeException(INVALID_PARAMETER,
+                        record.getChannelStatus().getExceptionMessage(), channelConfig));
+        final ListenerRegistration registration = new ListenerRegistration(listener, requestInfo);
+
+        if (this.isBusy.get()) {
+            throw new ConnectionException(message.errorDriverBusy());
+        }
+        if (isNull(this.client)) {
+            this.connect();
+        }
+
+        synchronized (this.listenerRegistrations) {
+            try {
+                createMonitoredItems(Collections.singletonList(registration));
+            } catch (final Exception e) {
+                deleteUnusedSubscription();
+                throw new ConnectionException(message.errorCreatingMonitoredItem(), e);
+            }
+            if (isNull(registration.monitoredItem)) {
+                deleteUnusedSubscription();
+                throw new ConnectionException(message.errorCreatingMonitoredItem());
+            }
+            this.listenerRegistrations.add(registration);
+        }
+    }
+
+    /**
+     * Deletes the subscription if there are no registered listeners, for example if it has been created for a
+     * listener whose monitored item could not be created. Must be called holding the {@link #listenerRegistrations}
+     * lock.
+     */
+    private void deleteUnusedSubscription() {
+        if (isNull(this.subscription) || !this.listenerRegistrations.isEmpty()) {
+            return;
+        }
+        final UaSubscription unusedSubscription = this.subscription;
+        this.subscription = null;
+        try {
+            runSafe(this.client.getSubscriptionManager().deleteSubscription(unusedSubscription.getSubscriptionId()));
+        } catch (final Exception e) {
+            logger.warn(message.errorDeletingMonitoredItem(), e);
+        }
     }
 
     /** {@inheritDoc} */
     @Override
     public void unregisterChannelListener(final ChannelListener listener) throws ConnectionException {
-        throw new KuraRuntimeException(OPERATION_NOT_SUPPORTED);
+        requireNonNull(listener, message.listenerNonNull());
+
+        synchronized (this.listenerRegistrations) {
+            final List<UaMonitoredItem> monitoredItems = new ArrayList<>();
+            final Iterator<ListenerRegistration> iterator = this.listenerRegistrations.iterator();
+            while (iterator.hasNext()) {
+                final ListenerRegistration registration = iterator.next();
+                if (registration.listener == listener) {
+                    iterator.remove();
+                    if (nonNull(registration.monitoredItem)) {
+                        monitoredItems.add(registration.monitoredItem);
+                    }
+                }
+            }
+
+            if (isNull(this.subscription)) {
+                return;
+            }
+            try {
+                if (this.listenerRegistrations.isEmpty()) {
+                    runSafe(this.client.getSubscriptionManager()
+                            .deleteSubscription(this.subscription.getSubscriptionId()));
+                    this.subscription = null;
+                } else if (!monitoredItems.isEmpty()) {
+                    runSafe(this.subscription.deleteMonitoredItems(monitoredItems));
+                }
+            } catch (final Exception e) {
+                throw new ConnectionException(message.errorDeletingMonitoredItem(), e);
+            }
+        }
+    }
+
+    private static ChannelRecord createListenerRecord(final Map<String, Object> channelConfig) {
+        final Object name = channelConfig.get(CHANNEL_NAME_PROPERTY);
+        final Object valueType = channelConfig.get(CHANNEL_VALUE_TYPE_PROPERTY);
+
+        if (isNull(name)) {
+            throw new KuraRuntimeException(INVALID_PARAMETER, CHANNEL_NAME_PROPERTY, null);
+        }
+        if (isNull(valueType)) {
+            throw new KuraRuntimeException(INVALID_PARAMETER, CHANNEL_VALUE_TYPE_PROPERTY, null);
+        }
+
+        final DataType dataType;
+        try {
+            dataType = DataType.getDataType(valueType.toString());
+        } catch (final IllegalArgumentException e) {
+            throw new KuraRuntimeException(INVALID_PARAMETER, e, CHANNEL_VALUE_TYPE_PROPERTY, valueType);
+        }
+
+        final ChannelRecord record = ChannelRecord.createReadRecord(name.toString(), dataType);
+        record.setChannelConfig(channelConfig);
+        return record;
+    }
+
+    /**
+     * Creates the monitored items of the provided registrations with a single CreateMonitoredItems service call,
+     * creating the subscription first if needed. Must be called holding the {@link #listenerRegistrations} lock.
+     */
+    private void createMonitoredItems(final List<ListenerRegistration> registrations) throws Exception {
+        if (isNull(this.subscription)) {
+            this.subscription = runSafe(this.client.getSubscriptionManager()
+                    .createSubscription(this.options.getSubscriptionPublishingInterval()));
+            logger.debug("Created subscription {}, revised publishing interval: {} ms",
+                    this.subscription.getSubscriptionId(), this.subscription.getRevisedPublishingInterval());
+        }
+
+        final double samplingInterval = this.options.getSubscriptionSamplingInterval();
+        // keep the changes sampled between two publishing cycles
+        final long queueSize = Math.max(1,
+                (long) Math.ceil(this.subscription.getRevisedPublishingInterval() / Math.max(1, samplingInterval)));
+
+        final List<MonitoredItemCreateRequest> requests = new ArrayList<>(registrations.size());
+        for (final ListenerRegistration registration : registrations) {
+            final MonitoringParameters parameters = new MonitoringParameters(
+                    uint(this.clientHandles.incrementAndGet()), samplingInterval, null, uint(queueSize), true);
+            requests.add(new MonitoredItemCreateRequest(createReadValueId(registration.requestInfo.nodeId),
+                    MonitoringMode.Reporting, parameters));
+        }
+
+        // the value consumers must be set before the items start reporting
+        final List<UaMonitoredItem> monitoredItems = runSafe(this.subscription.createMonitoredItems(
+                TimestampsToReturn.Both, requests,
+                (item, index) -> item.setValueConsumer(registrations.get(index)::onValue)));
+
+        for (int i = 0; i < monitoredItems.size(); i++) {
+            final UaMonitoredItem monitoredItem = monitoredItems.get(i);
+            if (monitoredItem.getStatusCode().isGood()) {
+                registrations.get(i).monitoredItem = monitoredItem;
+            } else {
+                logger.warn(message.errorBadResultStatus(monitoredItem.getStatusCode().getValue()));
+            }
+        }
+    }
+
+    private void restoreMonitoredItems() {
+        synchronized (this.listenerRegistrations) {
+            if (this.listenerRegistrations.isEmpty() || isNull(this.client)) {
+                return;
+            }
+            try {
+                createMonitoredItems(this.listenerRegistrations);
+            } catch (final Exception e) {
+                logger.warn(message.errorCreatingMonitoredItem(), e);
+            }
+        }
     }
 
     /**
@@ -417,6 +690,31 @@ public final class OpcUaDriver implements Driver {
         }
     }
 
+    private class ListenerRegistration {
+
+        private final ChannelListener listener;
+        private final OpcUaRequestInfo requestInfo;
+        private UaMonitoredItem monitoredItem;
+
+        ListenerRegistration(final ChannelListener listener, final OpcUaRequestInfo requestInfo) {
+            this.listener = listener;
+            this.requestInfo = requestInfo;
+        }
+
+        void onValue(final UaMonitoredItem item, final DataValue value) {
+            final ChannelRecord template = this.requestInfo.channelRecord;
+            final ChannelRecord record = ChannelRecord.createReadRecord(template.getChannelName(),
+                    template.getValueType());
+            record.setChannelConfig(template.getChannelConfig());
+            fillRecord(record, this.requestInfo.dataType, value);
+            try {
+                this.listener.onChannelEvent(new ChannelEvent(record));
+            } catch (final Exception e) {
+                logger.warn("Unexpected exception in channel listener", e);
+            }
+        }
+    }
+
     private static class OpcUaRequestInfo {
 
         private final DataType dataType;
@@ -481,16 +779,13 @@ public final class OpcUaDriver implements Driver {
 
         OpcUaPreparedRead preparedRead = new OpcUaPreparedRead();
         preparedRead.channelRecords = channelRecords;
-
-        for (ChannelRecord record : channelRecords) {
-            OpcUaRequestInfo.extract(record).ifPresent(preparedRead.requestInfos::add);
-        }
+        preparedRead.requestInfos = extractRequestInfos(channelRecords);
         return preparedRead;
     }
 
     private class OpcUaPreparedRead implements PreparedRead {
 
-        private List<OpcUaRequestInfo> requestInfos = new ArrayList<>();
+        private List<OpcUaRequestInfo> requestInfos;
         private volatile List<ChannelRecord> channelRecords;
 
         @Override
@@ -502,9 +797,7 @@ public final class OpcUaDriver implements Driver {
                 OpcUaDriver.this.connect();
             }
 
-            for (OpcUaRequestInfo requestInfo : requestInfos) {
-                OpcUaDriver.this.runReadRequest(requestInfo);
-            }
+            OpcUaDriver.this.runReadRequests(requestInfos);
 
             return Collections.unmodifiableList(channelRecords);
         }
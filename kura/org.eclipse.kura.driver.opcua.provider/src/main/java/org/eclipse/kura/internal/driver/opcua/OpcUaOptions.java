@@ -57,6 +57,9 @@ import org.slf4j.LoggerFactory;
  * <li>password</li>
  * <li>request.timeout</li>
  * <li>session.timeout</li>
+ * <li>max.nodes.per.read</li>
+ * <li>subscription.publishing.interval</li>
+ * <li>subscription.sampling.interval</li>
  * </ul>
  */
 final class OpcUaOptions {
@@ -110,6 +113,11 @@ final class OpcUaOptions {
      */
     private static final String PASSWORD = "password";
 
+    /**
+     * Configurable property specifying the maximum number of nodes read with a single Read service call
+     */
+    private static final String MAX_NODES_PER_READ = "max.nodes.per.read";
+
     /** OPC-UA Endpoint Port */
     private static final String PORT = "endpoint.port";
 
@@ -131,6 +139,16 @@ final class OpcUaOptions {
      */
     private static final String SESSION_TIMEOUT = "session.timeout";
 
+    /**
+     * Configurable property specifying the publishing interval of the channel listener subscription
+     */
+    private static final String SUBSCRIPTION_PUBLISHING_INTERVAL = "subscription.publishing.interval";
+
+    /**
+     * Configurable property specifying the sampling interval of the channel listener monitored items
+     */
+    private static final String SUBSCRIPTION_SAMPLING_INTERVAL = "subscription.sampling.interval";
+
     /**
      * Configurable Property to set OPC-UA server username
      */
@@ -293,6 +311,21 @@ final class OpcUaOptions {
         return keystoreType;
     }
 
+    /**
+     * Returns the maximum number of nodes read with a single Read service call, 0 if the only limit is the one
+     * advertised by the server
+     *
+     * @return the maximum number of nodes per Read service call
+     */
+    int getMaxNodesPerRead() {
+        int maxNodesPerRead = 0;
+        final Object maxNodes = this.properties.get(MAX_NODES_PER_READ);
+        if (nonNull(maxNodes) && (maxNodes instanceof Integer)) {
+            maxNodesPerRead = (Integer) maxNodes;
+        }
+        return maxNodesPerRead;
+    }
+
     /**
      * Returns the OPC-UA Password
      *
@@ -392,6 +425,34 @@ final class OpcUaOptions {
         return sessionTimeout * 1000;
     }
 
+    /**
+     * Returns the publishing interval of the channel listener subscription (in milliseconds)
+     *
+     * @return the publishing interval (in milliseconds)
+     */
+    long getSubscriptionPublishingInterval() {
+        long publishingInterval = 1000;
+        final Object interval = this.properties.get(SUBSCRIPTION_PUBLISHING_INTERVAL);
+        if (nonNull(interval) && (interval instanceof Integer)) {
+            publishingInterval = (Integer) interval;
+        }
+        return publishingInterval;
+    }
+
+    /**
+     * Returns the sampling interval of the channel listener monitored items (in milliseconds)
+     *
+     * @return the sampling interval (in milliseconds)
+     */
+    long getSubscriptionSamplingInterval() {
+        long samplingInterval = 1000;
+        final Object interval = this.properties.get(SUBSCRIPTION_SAMPLING_INTERVAL);
+        if (nonNull(interval) && (interval instanceof Integer)) {
+            samplingInterval = (Integer) interval;
+        }
+        return samplingInterval;
+    }
+
     /**
      * Returns the OPC-UA Username
      *
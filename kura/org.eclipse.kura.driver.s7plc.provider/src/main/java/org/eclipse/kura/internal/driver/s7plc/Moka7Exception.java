@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.s7plc;
+
+import java.io.IOException;
+
+import Moka7.S7Client;
+
+/**
+ * Reports a failed {@link S7Client} operation.
+ */
+final class Moka7Exception extends IOException {
+
+    private static final long serialVersionUID = 7265404364186376434L;
+
+    private final int statusCode;
+
+    Moka7Exception(int statusCode) {
+        super(S7Client.ErrorText(statusCode));
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * Returns the error code reported by {@link S7Client}.
+     *
+     * @return the error code
+     */
+    int getStatusCode() {
+        return this.statusCode;
+    }
+
+    /**
+     * Returns whether the error left the connection in an unusable state, for example because of a timeout or because
+     * an invalid packet has been received, in this case the connection must be closed.
+     *
+     * @return {@code true} if the connection must be closed
+     */
+    boolean isConnectionError() {
+        return this.statusCode <= S7Client.errS7InvalidPDU;
+    }
+}
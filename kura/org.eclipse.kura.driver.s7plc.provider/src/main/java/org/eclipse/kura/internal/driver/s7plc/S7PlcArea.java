@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.s7plc;
+
+import Moka7.S7;
+
+/**
+ * The S7 memory areas that can be addressed by the channels.
+ */
+enum S7PlcArea {
+
+    /** Data blocks */
+    DB(S7.S7AreaDB),
+    /** Merkers */
+    MK(S7.S7AreaMK),
+    /** Process inputs */
+    PE(S7.S7AreaPE),
+    /** Process outputs */
+    PA(S7.S7AreaPA);
+
+    private final int code;
+
+    private S7PlcArea(int code) {
+        this.code = code;
+    }
+
+    /**
+     * Returns the area code used by the S7 protocol.
+     *
+     * @return the area code
+     */
+    int getCode() {
+        return this.code;
+    }
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.s7plc;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.kura.configuration.metatype.Option;
+import org.eclipse.kura.core.configuration.metatype.Tad;
+import org.eclipse.kura.core.configuration.metatype.Toption;
+import org.eclipse.kura.core.configuration.metatype.Tscalar;
+import org.eclipse.kura.driver.ChannelDescriptor;
+import org.eclipse.kura.util.collection.CollectionUtil;
+
+/**
+ * S7 specific channel descriptor. The descriptor contains the following
+ * attribute definition identifiers.
+ *
+ * <ul>
+ * <li>s7.area</li> denotes the memory area, one of DB, MK, PE, PA
+ * <li>data.block.no</li> denotes the data block number, used only if the area is DB
+ * <li>offset</li> denotes the byte offset of the value in the area
+ * <li>s7.data.type</li> denotes the S7 data type of the value
+ * <li>byte.count</li> denotes the length in bytes of CHAR and BYTE_ARRAY values
+ * <li>bit.index</li> denotes the index of the bit inside the byte for BOOL values
+ * </ul>
+ */
+public final class S7PlcChannelDescriptor implements ChannelDescriptor {
+
+    private static final String AREA = "s7.area";
+    private static final String DATA_BLOCK_NO = "data.block.no";
+    private static final String OFFSET = "offset";
+    private static final String DATA_TYPE = "s7.data.type";
+    private static final String BYTE_COUNT = "byte.count";
+    private static final String BIT_INDEX = "bit.index";
+
+    private static void addOptions(Tad target, Enum<?>[] values) {
+        final List<Option> options = target.getOption();
+        for (Enum<?> value : values) {
+            Toption option = new Toption();
+            option.setLabel(value.name());
+            option.setValue(value.name());
+            options.add(option);
+        }
+    }
+
+    private static Tad newAttribute(String id, Tscalar type, String defaultValue) {
+        final Tad attribute = new Tad();
+        attribute.setName(id);
+        attribute.setId(id);
+        attribute.setDescription(id);
+        attribute.setType(type);
+        attribute.setRequired(true);
+        attribute.setDefault(defaultValue);
+        return attribute;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object getDescriptor() {
+        final List<Tad> elements = CollectionUtil.newArrayList();
+
+        final Tad area = newAttribute(AREA, Tscalar.STRING, S7PlcArea.DB.name());
+        addOptions(area, S7PlcArea.values());
+        elements.add(area);
+
+        elements.add(newAttribute(DATA_BLOCK_NO, Tscalar.INTEGER, "0"));
+        elements.add(newAttribute(OFFSET, Tscalar.INTEGER, "0"));
+
+        final Tad dataType = newAttribute(DATA_TYPE, Tscalar.STRING, S7PlcDataType.INT.name());
+        addOptions(dataType, S7PlcDataType.values());
+        elements.add(dataType);
+
+        elements.add(newAttribute(BYTE_COUNT, Tscalar.INTEGER, "0"));
+        elements.add(newAttribute(BIT_INDEX, Tscalar.INTEGER, "0"));
+
+        return elements;
+    }
+
+    static S7PlcArea getArea(Map<String, Object> properties) {
+        return S7PlcArea.valueOf(getString(properties, AREA));
+    }
+
+    static int getDataBlockNo(Map<String, Object> properties) {
+        return getNonNegativeInt(properties, DATA_BLOCK_NO);
+    }
+
+    static int getOffset(Map<String, Object> properties) {
+        return getNonNegativeInt(properties, OFFSET);
+    }
+
+    static S7PlcDataType getDataType(Map<String, Object> properties) {
+        return S7PlcDataType.valueOf(getString(properties, DATA_TYPE));
+    }
+
+    static int getByteCount(Map<String, Object> properties) {
+        final int byteCount = getNonNegativeInt(properties, BYTE_COUNT);
+        if (byteCount == 0) {
+            throw new IllegalArgumentException(BYTE_COUNT + " must be positive");
+        }
+        return byteCount;
+    }
+
+    static int getBitIndex(Map<String, Object> properties) {
+        final int bitIndex = getNonNegativeInt(properties, BIT_INDEX);
+        if (bitIndex > 7) {
+            throw new IllegalArgumentException(BIT_INDEX + " must be between 0 and 7");
+        }
+        return bitIndex;
+    }
+
+    private static String getString(Map<String, Object> properties, String key) {
+        final Object value = properties.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException(key + " is missing");
+        }
+        return value.toString().trim();
+    }
+
+    private static int getNonNegativeInt(Map<String, Object> properties, String key) {
+        final int value = Integer.parseInt(getString(properties, key));
+        if (value < 0) {
+            throw new IllegalArgumentException(key + " must not be negative");
+        }
+        return value;
+    }
+}
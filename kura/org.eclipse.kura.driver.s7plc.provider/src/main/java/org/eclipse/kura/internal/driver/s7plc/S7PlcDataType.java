@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.s7plc;
+
+import org.eclipse.kura.driver.binary.BinaryData;
+import org.eclipse.kura.driver.binary.BinaryDataTypes;
+
+/**
+ * The S7 data types supported by the channels. The numeric types are stored in big endian order, {@link #BOOL} is a
+ * single bit of a byte, {@link #CHAR} and {@link #BYTE_ARRAY} are arrays whose length is specified by the channel
+ * configuration.
+ */
+enum S7PlcDataType {
+
+    BOOL(null),
+    BYTE(BinaryDataTypes.UINT8),
+    WORD(BinaryDataTypes.UINT16_BE),
+    DWORD(BinaryDataTypes.UINT32_BE),
+    INT(BinaryDataTypes.INT16_BE),
+    DINT(BinaryDataTypes.INT32_BE),
+    REAL(BinaryDataTypes.FLOAT_BE),
+    CHAR(null),
+    BYTE_ARRAY(null);
+
+    private final BinaryData<?> binaryData;
+
+    private S7PlcDataType(BinaryData<?> binaryData) {
+        this.binaryData = binaryData;
+    }
+
+    /**
+     * Returns the {@link BinaryData} that decodes the numeric types.
+     *
+     * @return the {@link BinaryData}, or {@code null} if this type is not numeric
+     */
+    BinaryData<?> getBinaryData() {
+        return this.binaryData;
+    }
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.s7plc;
+
+/**
+ * Identifies a contiguous address space of the PLC, a memory area or a single data block.
+ */
+final class S7PlcDomain {
+
+    private final S7PlcArea area;
+    private final int dbNumber;
+
+    S7PlcDomain(S7PlcArea area, int dbNumber) {
+        this.area = area;
+        this.dbNumber = area == S7PlcArea.DB ? dbNumber : 0;
+    }
+
+    S7PlcArea getArea() {
+        return this.area;
+    }
+
+    int getDbNumber() {
+        return this.dbNumber;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.area.hashCode() + this.dbNumber;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof S7PlcDomain)) {
+            return false;
+        }
+        final S7PlcDomain other = (S7PlcDomain) obj;
+        return this.area == other.area && this.dbNumber == other.dbNumber;
+    }
+
+    @Override
+    public String toString() {
+        return this.area == S7PlcArea.DB ? "DB" + this.dbNumber : this.area.name();
+    }
+}
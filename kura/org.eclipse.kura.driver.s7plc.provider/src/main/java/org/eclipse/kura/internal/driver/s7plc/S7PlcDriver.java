@@ -0,0 +1,414 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.s7plc;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.eclipse.kura.channel.ChannelFlag;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.channel.ChannelStatus;
+import org.eclipse.kura.driver.ChannelDescriptor;
+import org.eclipse.kura.driver.Driver;
+import org.eclipse.kura.driver.binary.BinaryData;
+import org.eclipse.kura.driver.block.BlockCostModel;
+import org.eclipse.kura.driver.block.BlockFactory;
+import org.eclipse.kura.driver.block.task.AbstractBlockDriver;
+import org.eclipse.kura.driver.block.task.BinaryDataTask;
+import org.eclipse.kura.driver.block.task.BitTask;
+import org.eclipse.kura.driver.block.task.BlockTask;
+import org.eclipse.kura.driver.block.task.ByteArrayTask;
+import org.eclipse.kura.driver.block.task.Mode;
+import org.eclipse.kura.driver.block.task.StringTask;
+import org.eclipse.kura.driver.block.task.ToplevelBlockTask;
+import org.eclipse.kura.type.DataType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import Moka7.S7Client;
+import Moka7.S7DataItem;
+
+/**
+ * The Class {@link S7PlcDriver} is a S7 PLC Driver implementation for Kura Asset-Driver Topology, based on the Moka7
+ * library.
+ * <p>
+ * The channels are grouped by memory area and data block, the channels of each group are aggregated into blocks
+ * whose size fits the negotiated PDU. The blocks are then transferred using the S7 multi variable read and write
+ * functions, packing as many blocks as allowed by the PDU size into a single request.
+ * <p>
+ * The driver connection specific properties are enlisted in {@link S7PlcOptions}
+ *
+ * @see Driver
+ * @see S7PlcOptions
+ * @see S7PlcChannelDescriptor
+ */
+public final class S7PlcDriver extends AbstractBlockDriver<S7PlcDomain> {
+
+    private static final Logger logger = LoggerFactory.getLogger(S7PlcDriver.class);
+
+    /** PDU size assumed for the aggregation before connecting, the minimum size negotiated by S7 CPUs */
+    private static final int DEFAULT_PDU_LENGTH = 240;
+
+    /** Header of a read var reply containing a single item, including the item header */
+    private static final int READ_REPLY_OVERHEAD = 18;
+
+    /** Header of a write var request containing a single item, including the item specification and header */
+    private static final int WRITE_REQUEST_OVERHEAD = 28;
+
+    /** S7 header and function parameter header of a read or write var request */
+    private static final int REQUEST_HEADER_SIZE = 12;
+
+    /** S7 header and function parameter header of a read var reply */
+    private static final int READ_REPLY_HEADER_SIZE = 14;
+
+    /** Size of the specification of an item in a read or write var request */
+    private static final int ITEM_SPEC_SIZE = 12;
+
+    /** Size of the header preceding the data of an item */
+    private static final int ITEM_HEADER_SIZE = 4;
+
+    private final S7Client client = new S7Client();
+
+    private S7PlcOptions options;
+
+    /** PDU size negotiated by the last connection */
+    private int pduLength;
+
+    /**
+     * OSGi service component callback while activation.
+     *
+     * @param properties
+     *            the service properties
+     */
+    protected synchronized void activate(final Map<String, Object> properties) {
+        logger.debug("Activating S7 PLC Driver...");
+        extractProperties(properties);
+        logger.debug("Activating S7 PLC Driver... Done");
+    }
+
+    /**
+     * OSGi service component callback while deactivation.
+     */
+    protected synchronized void deactivate() {
+        logger.debug("Deactivating S7 PLC Driver...");
+        close();
+        disconnect();
+        logger.debug("Deactivating S7 PLC Driver... Done");
+    }
+
+    /**
+     * OSGi service component callback while updating.
+     *
+     * @param properties
+     *            the service properties
+     */
+    public synchronized void updated(final Map<String, Object> properties) {
+        logger.debug("Updating S7 PLC Driver...");
+        disconnect();
+        extractProperties(properties);
+        logger.debug("Updating S7 PLC Driver... Done");
+    }
+
+    private void extractProperties(final Map<String, Object> properties) {
+        requireNonNull(properties, "Properties cannot be null");
+        this.options = new S7PlcOptions(properties);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void connect() throws ConnectionException {
+        if (this.client.Connected) {
+            return;
+        }
+        final String ip = this.options == null ? null : this.options.getIp();
+        if (ip == null || ip.isEmpty()) {
+            throw new ConnectionException("PLC IP address not configured");
+        }
+        logger.info("Connecting to S7 PLC at {}...", ip);
+        this.client.RecvTimeout = this.options.getTimeout();
+        this.client.SetConnectionPort(this.options.getPort());
+        final int result = this.client.ConnectTo(ip, this.options.getRack(), this.options.getSlot());
+        if (result != 0) {
+            throw new ConnectionException("Unable to connect to S7 PLC", new Moka7Exception(result));
+        }
+        final int negotiatedPduLength = this.client.PDULength();
+        if (negotiatedPduLength != this.pduLength) {
+            // the cached read plans have been aggregated for a different PDU size
+            this.pduLength = negotiatedPduLength;
+            clearReadPlanCache();
+        }
+        logger.info("Connecting to S7 PLC at {}... Done, PDU length: {}", ip, negotiatedPduLength);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void disconnect() {
+        if (this.client.Connected) {
+            logger.info("Disconnecting from S7 PLC...");
+            this.client.Disconnect();
+            logger.info("Disconnecting from S7 PLC... Done");
+        }
+    }
+
+    /**
+     * Returns the PDU length negotiated by the last connection.
+     *
+     * @return the PDU length, 0 if the driver never connected
+     */
+    synchronized int getPduLength() {
+        return this.pduLength;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ChannelDescriptor getChannelDescriptor() {
+        return new S7PlcChannelDescriptor();
+    }
+
+    @Override
+    protected BlockFactory<ToplevelBlockTask> getTaskFactoryForDomain(final S7PlcDomain domain, final Mode mode) {
+        return (start, end) -> new S7PlcToplevelBlockTask(this.client, domain, start, end, mode);
+    }
+
+    @Override
+    protected BlockCostModel getCostModelForDomain(final S7PlcDomain domain, final Mode mode) {
+        final int pdu = this.pduLength > 0 ? this.pduLength : DEFAULT_PDU_LENGTH;
+        if (mode == Mode.WRITE) {
+            // writing a gap would overwrite the bytes that do not belong to any channel
+            return BlockCostModel.withoutGaps(pdu - WRITE_REQUEST_OVERHEAD, 1);
+        }
+        // a separate block costs its item specification and item header, the round trips are shared by the
+        // blocks transferred with the same multi variable request
+        return new BlockCostModel(ITEM_SPEC_SIZE + ITEM_HEADER_SIZE, 1, pdu - READ_REPLY_OVERHEAD, 1);
+    }
+
+    @Override
+    protected Stream<Pair<S7PlcDomain, BlockTask>> toTasks(final List<ChannelRecord> records, final Mode mode) {
+        return records.stream().map(record -> toTask(record, mode)).filter(Objects::nonNull);
+    }
+
+    private Pair<S7PlcDomain, BlockTask> toTask(final ChannelRecord record, final Mode mode) {
+        try {
+            final Map<String, Object> config = record.getChannelConfig();
+            final S7PlcArea area = S7PlcChannelDescriptor.getArea(config);
+            final int dbNumber = area == S7PlcArea.DB ? S7PlcChannelDescriptor.getDataBlockNo(config) : 0;
+            final int offset = S7PlcChannelDescriptor.getOffset(config);
+            final S7PlcDataType dataType = S7PlcChannelDescriptor.getDataType(config);
+            final DataType valueType = record.getValueType();
+
+            final BlockTask task;
+            switch (dataType) {
+            case BOOL:
+                if (valueType != DataType.BOOLEAN) {
+                    throw new IllegalArgumentException("BOOL channels must have BOOLEAN value type");
+                }
+                task = new BitTask(record, offset, S7PlcChannelDescriptor.getBitIndex(config),
+                        mode == Mode.READ ? Mode.READ : Mode.UPDATE);
+                break;
+            case CHAR:
+                task = new StringTask(record, offset, offset + S7PlcChannelDescriptor.getByteCount(config), mode);
+                break;
+            case BYTE_ARRAY:
+                task = new ByteArrayTask(record, offset, offset + S7PlcChannelDescriptor.getByteCount(config), mode);
+                break;
+            default:
+                task = newBinaryDataTask(record, offset, dataType.getBinaryData(), valueType, mode);
+            }
+            return new Pair<>(new S7PlcDomain(area, dbNumber), task);
+        } catch (Exception e) {
+            logger.warn("Invalid channel configuration for channel {}", record.getChannelName(), e);
+            record.setChannelStatus(
+                    new ChannelStatus(ChannelFlag.FAILURE, "Invalid channel configuration: " + e.getMessage(), e));
+            record.setTimestamp(System.currentTimeMillis());
+            return null;
+        }
+    }
+
+    private static <T> BlockTask newBinaryDataTask(final ChannelRecord record, final int offset,
+            final BinaryData<T> binaryData, final DataType valueType, final Mode mode) {
+        return new BinaryDataTask<>(record, offset, binaryData, valueType, mode);
+    }
+
+    /**
+     * Runs the provided tasks using as few requests as possible. All the read tasks are run before the write tasks,
+     * this preserves the order within each domain since the aggregation lists the reads of a read-update-write
+     * operation before the writes. The tasks are packed into multi variable requests that fit the negotiated PDU,
+     * tasks that are alone in a request are run using a plain read or write.
+     */
+    @Override
+    protected void runTasks(final Collection<List<BlockTask>> domainTasks) {
+        final List<S7PlcToplevelBlockTask> reads = new ArrayList<>();
+        final List<S7PlcToplevelBlockTask> writes = new ArrayList<>();
+        for (final List<BlockTask> tasks : domainTasks) {
+            for (final BlockTask task : tasks) {
+                if (!(task instanceof S7PlcToplevelBlockTask)) {
+                    runTask(task);
+                } else if (task.getMode() == Mode.READ) {
+                    reads.add((S7PlcToplevelBlockTask) task);
+                } else {
+                    writes.add((S7PlcToplevelBlockTask) task);
+                }
+            }
+        }
+        runReads(reads);
+
+        final List<S7PlcToplevelBlockTask> preparedWrites = new ArrayList<>(writes.size());
+        for (final S7PlcToplevelBlockTask task : writes) {
+            if (task.prepareWrite()) {
+                preparedWrites.add(task);
+            }
+        }
+        runWrites(preparedWrites);
+    }
+
+    private void runReads(final List<S7PlcToplevelBlockTask> tasks) {
+        int start = 0;
+        while (start < tasks.size()) {
+            int end = start;
+            int requestSize = REQUEST_HEADER_SIZE;
+            int replySize = READ_REPLY_HEADER_SIZE;
+            while (end < tasks.size() && end - start < S7Client.MaxVars) {
+                final int length = tasks.get(end).getLength();
+                final int itemReplySize = ITEM_HEADER_SIZE + length + (length & 1);
+                if (end > start && (requestSize + ITEM_SPEC_SIZE > this.pduLength
+                        || replySize + itemReplySize > this.pduLength)) {
+                    break;
+                }
+                requestSize += ITEM_SPEC_SIZE;
+                replySize += itemReplySize;
+                end++;
+            }
+            if (end - start == 1) {
+                runRead(tasks.get(start));
+            } else {
+                runMultiRead(tasks.subList(start, end));
+            }
+            start = end;
+        }
+    }
+
+    private void runWrites(final List<S7PlcToplevelBlockTask> tasks) {
+        int start = 0;
+        while (start < tasks.size()) {
+            int end = start;
+            int requestSize = REQUEST_HEADER_SIZE;
+            while (end < tasks.size() && end - start < S7Client.MaxVars) {
+                final int length = tasks.get(end).getLength();
+                final int itemSize = ITEM_SPEC_SIZE + ITEM_HEADER_SIZE + length + (length & 1);
+                if (end > start && requestSize + itemSize > this.pduLength) {
+                    break;
+                }
+                requestSize += itemSize;
+                end++;
+            }
+            if (end - start == 1) {
+                runWrite(tasks.get(start));
+            } else {
+                runMultiWrite(tasks.subList(start, end));
+            }
+            start = end;
+        }
+    }
+
+    private void runRead(final S7PlcToplevelBlockTask task) {
+        try {
+            ensureConnected();
+            task.processBuffer();
+            task.completeRead(null);
+        } catch (IOException e) {
+            logger.warn("Read of {} failed", task, e);
+            task.completeRead(e);
+            handleFailure(e);
+        }
+    }
+
+    private void runWrite(final S7PlcToplevelBlockTask task) {
+        try {
+            ensureConnected();
+            task.processBuffer();
+            task.completeWrite(null);
+        } catch (IOException e) {
+            logger.warn("Write of {} failed", task, e);
+            task.completeWrite(e);
+            handleFailure(e);
+        }
+    }
+
+    private void runMultiRead(final List<S7PlcToplevelBlockTask> tasks) {
+        final S7DataItem[] items = toDataItems(tasks);
+        try {
+            ensureConnected();
+            final int result = this.client.ReadMultiVars(items, items.length);
+            if (result != 0) {
+                throw new Moka7Exception(result);
+            }
+        } catch (IOException e) {
+            logger.warn("Multi variable read of {} items failed", items.length, e);
+            tasks.forEach(task -> task.completeRead(e));
+            handleFailure(e);
+            return;
+        }
+        for (int i = 0; i < items.length; i++) {
+            final int result = items[i].Result;
+            tasks.get(i).completeRead(result == 0 ? null : new Moka7Exception(result));
+        }
+    }
+
+    private void runMultiWrite(final List<S7PlcToplevelBlockTask> tasks) {
+        final S7DataItem[] items = toDataItems(tasks);
+        try {
+            ensureConnected();
+            final int result = this.client.WriteMultiVars(items, items.length);
+            if (result != 0) {
+                throw new Moka7Exception(result);
+            }
+        } catch (IOException e) {
+            logger.warn("Multi variable write of {} items failed", items.length, e);
+            tasks.forEach(task -> task.completeWrite(e));
+            handleFailure(e);
+            return;
+        }
+        for (int i = 0; i < items.length; i++) {
+            final int result = items[i].Result;
+            tasks.get(i).completeWrite(result == 0 ? null : new Moka7Exception(result));
+        }
+    }
+
+    private static S7DataItem[] toDataItems(final List<S7PlcToplevelBlockTask> tasks) {
+        final S7DataItem[] items = new S7DataItem[tasks.size()];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = tasks.get(i).toDataItem();
+        }
+        return items;
+    }
+
+    private void ensureConnected() throws IOException {
+        if (!this.client.Connected) {
+            throw new IOException("Not connected");
+        }
+    }
+
+    private void handleFailure(final IOException e) {
+        if (e instanceof Moka7Exception && ((Moka7Exception) e).isConnectionError()) {
+            // the remaining requests would fail as well or receive stale replies, the next operation will reconnect
+            disconnect();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.s7plc;
+
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Map;
+
+/**
+ * The Class {@link S7PlcOptions} is responsible to provide all the required
+ * configurable options for the S7 PLC Driver.<br/>
+ * <br/>
+ *
+ * The different properties to configure a S7 PLC Driver are as follows:
+ * <ul>
+ * <li>host.ip</li>
+ * <li>port</li>
+ * <li>rack</li>
+ * <li>slot</li>
+ * <li>timeout</li>
+ * </ul>
+ */
+final class S7PlcOptions {
+
+    /** PLC IP address */
+    private static final String IP = "host.ip";
+
+    /** PLC ISO-on-TCP port */
+    private static final String PORT = "port";
+
+    /** PLC rack number */
+    private static final String RACK = "rack";
+
+    /** PLC slot number */
+    private static final String SLOT = "slot";
+
+    /**
+     * Configurable property specifying the maximum time the connection can stay idle while waiting for a response
+     */
+    private static final String TIMEOUT = "timeout";
+
+    private static final int DEFAULT_PORT = 102;
+    private static final int DEFAULT_RACK = 0;
+    private static final int DEFAULT_SLOT = 2;
+    private static final int DEFAULT_TIMEOUT = 2000;
+
+    /** The properties as associated */
+    private final Map<String, Object> properties;
+
+    /**
+     * Instantiates a new S7 PLC options.
+     *
+     * @param properties
+     *            the properties
+     * @throws NullPointerException
+     *             if the argument is null
+     */
+    S7PlcOptions(final Map<String, Object> properties) {
+        requireNonNull(properties, "Properties cannot be null");
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the PLC IP address
+     *
+     * @return the PLC IP address, or {@code null} if not configured
+     */
+    String getIp() {
+        String ipAddress = null;
+        final Object ip = this.properties.get(IP);
+        if (nonNull(ip) && ip instanceof String) {
+            ipAddress = ip.toString();
+        }
+        return ipAddress;
+    }
+
+    /**
+     * Returns the PLC ISO-on-TCP port
+     *
+     * @return the port
+     */
+    int getPort() {
+        return getInt(PORT, DEFAULT_PORT);
+    }
+
+    /**
+     * Returns the PLC rack number
+     *
+     * @return the rack number
+     */
+    int getRack() {
+        return getInt(RACK, DEFAULT_RACK);
+    }
+
+    /**
+     * Returns the PLC slot number
+     *
+     * @return the slot number
+     */
+    int getSlot() {
+        return getInt(SLOT, DEFAULT_SLOT);
+    }
+
+    /**
+     * Returns the maximum time the connection can stay idle while waiting for a response
+     *
+     * @return the timeout in milliseconds
+     */
+    int getTimeout() {
+        return getInt(TIMEOUT, DEFAULT_TIMEOUT);
+    }
+
+    private int getInt(final String key, final int defaultValue) {
+        int result = defaultValue;
+        final Object value = this.properties.get(key);
+        if (nonNull(value) && value instanceof Integer) {
+            result = (Integer) value;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.s7plc;
+
+import java.io.IOException;
+
+import org.eclipse.kura.driver.binary.Buffer;
+import org.eclipse.kura.driver.binary.ByteArrayBuffer;
+import org.eclipse.kura.driver.block.task.Mode;
+import org.eclipse.kura.driver.block.task.ToplevelBlockTask;
+
+import Moka7.S7Client;
+import Moka7.S7DataItem;
+
+/**
+ * A {@link ToplevelBlockTask} that reads or writes a contiguous range of bytes of a {@link S7PlcDomain}.
+ * <p>
+ * The task can be run on its own, performing a single read or write request, or can be part of a multi variable
+ * request issued by {@link S7PlcDriver}. In the latter case the driver transfers the data described by
+ * {@link #toDataItem()} and notifies the result using the {@link #completeRead(Exception)},
+ * {@link #prepareWrite()} and {@link #completeWrite(Exception)} methods.
+ */
+final class S7PlcToplevelBlockTask extends ToplevelBlockTask {
+
+    private final S7Client client;
+    private final S7PlcDomain domain;
+    private final ByteArrayBuffer data;
+
+    private boolean isAborted;
+
+    S7PlcToplevelBlockTask(S7Client client, S7PlcDomain domain, int start, int end, Mode mode) {
+        super(start, end, mode);
+        this.client = client;
+        this.domain = domain;
+        this.data = new ByteArrayBuffer(new byte[end - start]);
+    }
+
+    @Override
+    public Buffer getBuffer() {
+        return this.data;
+    }
+
+    @Override
+    public void processBuffer() throws IOException {
+        final byte[] buffer = this.data.getBackingArray();
+        final int result;
+        if (getMode() == Mode.READ) {
+            result = this.client.ReadArea(this.domain.getArea().getCode(), this.domain.getDbNumber(), getStart(),
+                    buffer.length, buffer);
+        } else {
+            result = this.client.WriteArea(this.domain.getArea().getCode(), this.domain.getDbNumber(), getStart(),
+                    buffer.length, buffer);
+        }
+        if (result != 0) {
+            throw new Moka7Exception(result);
+        }
+    }
+
+    @Override
+    public void abort(Exception exception) {
+        this.isAborted = true;
+        super.abort(exception);
+    }
+
+    /**
+     * Returns the length in bytes of the transferred data.
+     *
+     * @return the length
+     */
+    int getLength() {
+        return getEnd() - getStart();
+    }
+
+    /**
+     * Returns a {@link S7DataItem} describing the data transferred by this task, the item shares the buffer of this
+     * task.
+     *
+     * @return the data item
+     */
+    S7DataItem toDataItem() {
+        final byte[] buffer = this.data.getBackingArray();
+        return new S7DataItem(this.domain.getArea().getCode(), this.domain.getDbNumber(), getStart(), buffer.length,
+                buffer);
+    }
+
+    /**
+     * Completes a read performed by the caller, filling the buffer of this task. The children are run if the read
+     * succeeded, otherwise they are notified of the failure.
+     *
+     * @param failure
+     *            the failure, or {@code null} if the read succeeded
+     */
+    void completeRead(Exception failure) {
+        if (failure != null) {
+            onFailure(failure);
+            return;
+        }
+        try {
+            runChildren();
+        } catch (Exception e) {
+            onFailure(e);
+        }
+    }
+
+    /**
+     * Runs the children of a task in {@link Mode#WRITE} mode, filling the buffer that will be written by the caller.
+     *
+     * @return {@code true} if the buffer must be written, {@code false} if a child aborted the operation, in this case
+     *         the children have already been notified of the failure
+     */
+    boolean prepareWrite() {
+        this.isAborted = false;
+        try {
+            runChildren();
+        } catch (Exception e) {
+            onFailure(e);
+            return false;
+        }
+        return !this.isAborted;
+    }
+
+    /**
+     * Completes a write performed by the caller, notifying the result to the children.
+     *
+     * @param failure
+     *            the failure, or {@code null} if the write succeeded
+     */
+    void completeWrite(Exception failure) {
+        if (failure != null) {
+            onFailure(failure);
+        } else {
+            onSuccess();
+        }
+    }
+}
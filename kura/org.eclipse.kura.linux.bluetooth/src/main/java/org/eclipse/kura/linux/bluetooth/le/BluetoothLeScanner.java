@@ -25,6 +25,11 @@ import org.eclipse.kura.bluetooth.BluetoothLeScanListener;
 import org.eclipse.kura.bluetooth.listener.BluetoothAdvertisementData;
 import org.eclipse.kura.bluetooth.listener.BluetoothAdvertisementScanListener;
 import org.eclipse.kura.linux.bluetooth.BluetoothDeviceImpl;
+import org.eclipse.kura.linux.bluetooth.le.beacon.AdvertisementDispatcher;
+import org.eclipse.kura.linux.bluetooth.le.beacon.AdvertisementDispatcher.BatchListener;
+import org.eclipse.kura.linux.bluetooth.le.beacon.AdvertisementFilter;
+import org.eclipse.kura.linux.bluetooth.le.beacon.AdvertisingReport;
+import org.eclipse.kura.linux.bluetooth.le.beacon.AdvertisingReportDecoder;
 import org.eclipse.kura.linux.bluetooth.util.BTSnoopListener;
 import org.eclipse.kura.linux.bluetooth.util.BluetoothProcess;
 import org.eclipse.kura.linux.bluetooth.util.BluetoothProcessListener;
@@ -39,8 +44,21 @@ public class BluetoothLeScanner implements BluetoothProcessListener, BTSnoopList
 
     public static final int SCAN_FAILED_INTERNAL_ERROR = 0x0003;
     private static final String SIGINT = "2";
+    private static final String UNKNOWN_NAME = "(unknown)";
+
+    // Duplicate filtering and dispatching of the advertisements received with duplicates enabled
+    private static final int MAX_FILTERED_ADDRESSES = 1024;
+    private static final long DUPLICATE_INTERVAL = 1000; // in milliseconds
+    private static final int DISPATCH_QUEUE_CAPACITY = 1024;
+    private static final int DISPATCH_BATCH_SIZE = 64;
 
     private final Map<String, String> m_devices;
+    private final AdvertisingReportDecoder m_decoder = new AdvertisingReportDecoder();
+    private final AdvertisementFilter m_filter = new AdvertisementFilter(MAX_FILTERED_ADDRESSES,
+            DUPLICATE_INTERVAL);
+    private AdvertisementDispatcher<BluetoothBeaconData> m_beaconDispatcher;
+    private AdvertisementDispatcher<BluetoothAdvertisementData> m_advertisementDispatcher;
+    private int m_companyId = -1;
     private List<BluetoothDevice> m_scanResult;
     private BluetoothProcess m_proc = null;
     private BluetoothProcess m_dump_proc = null;
@@ -48,7 +66,6 @@ public class BluetoothLeScanner implements BluetoothProcessListener, BTSnoopList
     private BluetoothBeaconScanListener m_beacon_listener = null;
     private BluetoothAdvertisementScanListener m_advertisement_listener = null;
     private boolean m_scanRunning = false;
-    private String m_companyName;
 
     public BluetoothLeScanner() {
         this.m_devices = new HashMap<String, String>();
@@ -62,12 +79,30 @@ public class BluetoothLeScanner implements BluetoothProcessListener, BTSnoopList
         // Start scan process
         this.m_proc = BluetoothUtil.hcitoolCmd(name, "lescan", this);
 
+        // Start dump process, the devices are collected from the advertising reports
+        this.m_dump_proc = BluetoothUtil.btdumpCmd(name, this);
+
         setScanRunning(true);
     }
 
     public void startAdvertisementScan(String name, String companyName, BluetoothAdvertisementScanListener listener) {
         this.m_advertisement_listener = listener;
-        this.m_companyName = companyName;
+        this.m_advertisementDispatcher = new AdvertisementDispatcher<BluetoothAdvertisementData>(
+                DISPATCH_QUEUE_CAPACITY, DISPATCH_BATCH_SIZE, new BatchListener<BluetoothAdvertisementData>() {
+
+                    @Override
+                    public void onBatch(List<BluetoothAdvertisementData> batch) {
+                        for (BluetoothAdvertisementData advertisementData : batch) {
+                            try {
+                                BluetoothLeScanner.this.m_advertisement_listener
+                                        .onAdvertisementDataReceived(advertisementData);
+                            } catch (Exception e) {
+                                s_logger.error("Scan listener threw exception", e);
+                            }
+                        }
+                    }
+                });
+        this.m_advertisementDispatcher.start("BluetoothLeScanner Advertisement Dispatcher");
 
         s_logger.info("Starting bluetooth le advertisement scan...");
 
@@ -82,7 +117,22 @@ public class BluetoothLeScanner implements BluetoothProcessListener, BTSnoopList
 
     public void startBeaconScan(String name, String companyName, BluetoothBeaconScanListener listener) {
         this.m_beacon_listener = listener;
-        this.m_companyName = companyName;
+        this.m_companyId = parseCompanyId(companyName);
+        this.m_beaconDispatcher = new AdvertisementDispatcher<BluetoothBeaconData>(DISPATCH_QUEUE_CAPACITY,
+                DISPATCH_BATCH_SIZE, new BatchListener<BluetoothBeaconData>() {
+
+                    @Override
+                    public void onBatch(List<BluetoothBeaconData> batch) {
+                        for (BluetoothBeaconData beaconData : batch) {
+                            try {
+                                BluetoothLeScanner.this.m_beacon_listener.onBeaconDataReceived(beaconData);
+                            } catch (Exception e) {
+                                s_logger.error("Scan listener threw exception", e);
+                            }
+                        }
+                    }
+                });
+        this.m_beaconDispatcher.start("BluetoothLeScanner Beacon Dispatcher");
 
         s_logger.info("Starting bluetooth le beacon scan...");
 
@@ -114,6 +164,15 @@ public class BluetoothLeScanner implements BluetoothProcessListener, BTSnoopList
             s_logger.info("Cannot Kill btdump, m_dump_proc = null ...");
         }
 
+        if (this.m_beaconDispatcher != null) {
+            this.m_beaconDispatcher.stop();
+            this.m_beaconDispatcher = null;
+        }
+        if (this.m_advertisementDispatcher != null) {
+            this.m_advertisementDispatcher.stop();
+            this.m_advertisementDispatcher = null;
+        }
+
         setScanRunning(false);
     }
 
@@ -132,9 +191,11 @@ public class BluetoothLeScanner implements BluetoothProcessListener, BTSnoopList
             }
 
             this.m_scanResult = new ArrayList<BluetoothDevice>();
-            for (Entry<String, String> device : this.m_devices.entrySet()) {
-                this.m_scanResult.add(new BluetoothDeviceImpl(device.getKey(), device.getValue()));
-                s_logger.info("m_scanResult.add {} - {}", device.getKey(), device.getValue());
+            synchronized (this.m_devices) {
+                for (Entry<String, String> device : this.m_devices.entrySet()) {
+                    this.m_scanResult.add(new BluetoothDeviceImpl(device.getKey(), device.getValue()));
+                    s_logger.info("m_scanResult.add {} - {}", device.getKey(), device.getValue());
+                }
             }
 
             // Alert listener that scan is complete
@@ -147,46 +208,51 @@ public class BluetoothLeScanner implements BluetoothProcessListener, BTSnoopList
     }
 
     @Override
-    public void processBTSnoopRecord(byte[] record) {
+    public void processBTSnoopRecord(byte[] record, int length) {
 
         try {
 
-            // Extract raw advertisement data
-            BluetoothAdvertisementData bAdData = BluetoothUtil.parseLEAdvertisement(record);
-
-            // Notify advertisement listeners
-            if (bAdData != null && this.m_advertisement_listener != null) {
-                try {
-                    this.m_advertisement_listener.onAdvertisementDataReceived(bAdData);
-                } catch (Exception e) {
-                    s_logger.error("Scan listener threw exception", e);
-                }
+            // Decode the reports of an LE Advertising Report event in place
+            int numReports = this.m_decoder.decode(record, length);
+            if (numReports == 0) {
+                return;
             }
 
-            // Extract beacon advertisements
-            List<BluetoothBeaconData> beaconDatas = BluetoothUtil.parseLEAdvertisingReport(record, this.m_companyName);
+            long now = System.nanoTime();
+            boolean accepted = false;
+            for (int i = 0; i < numReports; i++) {
+                AdvertisingReport report = this.m_decoder.getReport(i);
 
-            // Extract beacon data
-            for (BluetoothBeaconData beaconData : beaconDatas) {
+                // Drop the duplicates before building any object for the listeners
+                if (!this.m_filter.accept(report, now)) {
+                    continue;
+                }
+                accepted = true;
 
-                // Notify the listener
-                try {
+                if (this.m_listener != null) {
+                    addDevice(report.getAddressString(), report.getLocalName());
+                }
 
-                    if (this.m_beacon_listener != null) {
-                        this.m_beacon_listener.onBeaconDataReceived(beaconData);
+                // Extract beacon data
+                if (this.m_beaconDispatcher != null && this.m_companyId >= 0) {
+                    BluetoothBeaconData beaconData = report.newBeaconData(this.m_companyId);
+                    if (beaconData != null) {
+                        this.m_beaconDispatcher.offer(beaconData);
                     }
-
-                } catch (Exception e) {
-                    s_logger.error("Scan listener threw exception", e);
                 }
             }
 
+            // Notify advertisement listeners
+            if (accepted && this.m_advertisementDispatcher != null) {
+                this.m_advertisementDispatcher.offer(this.m_decoder.newAdvertisementData(record, length));
+            }
+
         } catch (Exception e) {
             s_logger.error("Error processing advertising report", e);
         }
 
     }
-    
+
     @Override
     public void processErrorStream(String string) {
     }
@@ -211,20 +277,47 @@ public class BluetoothLeScanner implements BluetoothProcessListener, BTSnoopList
                 name = results[1].trim();
 
                 if (address.matches(MAC_REGEX)) {
-                    if (this.m_devices.containsKey(address)) {
-                        if (!name.equals("(unknown)") && !this.m_devices.get(address).equals(name)) {
-                            s_logger.debug("Updating device: {} - {}", address, name);
-                            this.m_devices.put(address, name);
-                        }
-                    } else {
-                        s_logger.debug("Device found: {} - {}", address, name);
-                        this.m_devices.put(address, name);
-                    }
+                    addDevice(address, name);
                 }
             }
         }
     }
 
+    private void addDevice(String address, String name) {
+        if (name == null) {
+            name = UNKNOWN_NAME;
+        }
+        synchronized (this.m_devices) {
+            if (this.m_devices.containsKey(address)) {
+                if (!name.equals(UNKNOWN_NAME) && !this.m_devices.get(address).equals(name)) {
+                    s_logger.debug("Updating device: {} - {}", address, name);
+                    this.m_devices.put(address, name);
+                }
+            } else {
+                s_logger.debug("Device found: {} - {}", address, name);
+                this.m_devices.put(address, name);
+            }
+        }
+    }
+
+    /**
+     * @param companyName
+     *            the company identifier as 4 hexadecimal digits, most significant first
+     * @return the company identifier, or -1 if not valid
+     */
+    private static int parseCompanyId(String companyName) {
+        if (companyName == null || companyName.length() != 4) {
+            s_logger.warn("Invalid company code: {}", companyName);
+            return -1;
+        }
+        try {
+            return Integer.parseInt(companyName, 16);
+        } catch (NumberFormatException e) {
+            s_logger.warn("Invalid company code: {}", companyName);
+            return -1;
+        }
+    }
+
     public boolean isScanRunning() {
         return this.m_scanRunning;
     }
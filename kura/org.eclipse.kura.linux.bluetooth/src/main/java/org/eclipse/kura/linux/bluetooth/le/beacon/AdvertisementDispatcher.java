@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.linux.bluetooth.le.beacon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hands the decoded advertisements over to the scan listeners on a dedicated thread, in batches, so that slow
+ * listeners do not stall the reading of the btsnoop stream.
+ * <p>
+ * The queue is bounded: when the listeners cannot keep up, the newest advertisements are dropped.
+ *
+ * @param <T>
+ *            the type of the dispatched objects
+ */
+public class AdvertisementDispatcher<T> {
+
+    private static final Logger s_logger = LoggerFactory.getLogger(AdvertisementDispatcher.class);
+
+    public interface BatchListener<T> {
+
+        /**
+         * @param batch
+         *            the advertisements received since the previous batch, the list is reused after the call
+         */
+        public void onBatch(List<T> batch);
+    }
+
+    private final BlockingQueue<T> m_queue;
+    private final int m_maxBatchSize;
+    private final BatchListener<T> m_listener;
+    private ExecutorService m_executor;
+    private volatile long m_dropped;
+
+    public AdvertisementDispatcher(int capacity, int maxBatchSize, BatchListener<T> listener) {
+        this.m_queue = new ArrayBlockingQueue<T>(capacity);
+        this.m_maxBatchSize = maxBatchSize;
+        this.m_listener = listener;
+    }
+
+    public synchronized void start(final String name) {
+        if (this.m_executor != null) {
+            return;
+        }
+        this.m_executor = Executors.newSingleThreadExecutor();
+        this.m_executor.submit(new Runnable() {
+
+            @Override
+            public void run() {
+                Thread.currentThread().setName(name);
+                dispatch();
+            }
+        });
+    }
+
+    public synchronized void stop() {
+        if (this.m_executor != null) {
+            this.m_executor.shutdownNow();
+            this.m_executor = null;
+        }
+        this.m_queue.clear();
+        if (this.m_dropped > 0) {
+            s_logger.info("{} advertisements dropped because the listeners could not keep up", this.m_dropped);
+        }
+    }
+
+    /**
+     * Queues an advertisement, without blocking.
+     *
+     * @return {@code false} if the queue is full and the advertisement has been dropped
+     */
+    public boolean offer(T advertisement) {
+        if (this.m_queue.offer(advertisement)) {
+            return true;
+        }
+        this.m_dropped++;
+        return false;
+    }
+
+    private void dispatch() {
+        final List<T> batch = new ArrayList<T>(this.m_maxBatchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(this.m_queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            this.m_queue.drainTo(batch, this.m_maxBatchSize - 1);
+
+            try {
+                this.m_listener.onBatch(batch);
+            } catch (Exception e) {
+                s_logger.error("Scan listener threw exception", e);
+            }
+            batch.clear();
+        }
+        s_logger.debug("Advertisement dispatcher stopped");
+    }
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.linux.bluetooth.le.beacon;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drops the duplicate advertisements reported by a scan with duplicates enabled.
+ * <p>
+ * A report is accepted if its address was not seen recently, if its event type or data changed or if the minimum
+ * interval elapsed since the last accepted report of the same address. The last accepted data is compared byte by
+ * byte. The addresses are kept in a least recently used cache of bounded size, so that a crowded environment cannot
+ * make it grow without limits.
+ * <p>
+ * This class is not thread safe, it is meant to be used by the thread reading the btsnoop stream.
+ */
+public class AdvertisementFilter {
+
+    private final long minIntervalNanos;
+    private final Map<Long, Entry> entries;
+
+    /**
+     * @param maxAddresses
+     *            the maximum number of addresses remembered
+     * @param minInterval
+     *            the minimum interval between two reports with the same data from an address, in milliseconds
+     */
+    public AdvertisementFilter(final int maxAddresses, long minInterval) {
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minInterval);
+        this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxAddresses;
+            }
+        };
+    }
+
+    /**
+     * @param report
+     *            the decoded report
+     * @param timestamp
+     *            the reception time, as returned by {@link System#nanoTime()}
+     * @return {@code true} if the report must be dispatched
+     */
+    public boolean accept(AdvertisingReport report, long timestamp) {
+        final Long address = report.getAddress();
+
+        final Entry entry = this.entries.get(address);
+        if (entry == null) {
+            this.entries.put(address, new Entry(report, timestamp));
+            return true;
+        }
+        if (!entry.hasSameData(report) || timestamp - entry.timestamp >= this.minIntervalNanos) {
+            entry.set(report, timestamp);
+            return true;
+        }
+        return false;
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public void clear() {
+        this.entries.clear();
+    }
+
+    private static final class Entry {
+
+        private int eventType;
+        private byte[] data;
+        private int dataLength;
+        private long timestamp;
+
+        Entry(AdvertisingReport report, long timestamp) {
+            set(report, timestamp);
+        }
+
+        void set(AdvertisingReport report, long timestamp) {
+            this.eventType = report.getEventType();
+            this.dataLength = report.getDataLength();
+            if (this.data == null || this.data.length < this.dataLength) {
+                this.data = new byte[this.dataLength];
+            }
+            System.arraycopy(report.getData(), 0, this.data, 0, this.dataLength);
+            this.timestamp = timestamp;
+        }
+
+        boolean hasSameData(AdvertisingReport report) {
+            if (this.eventType != report.getEventType() || this.dataLength != report.getDataLength()) {
+                return false;
+            }
+            final byte[] reportData = report.getData();
+            for (int i = 0; i < this.dataLength; i++) {
+                if (this.data[i] != reportData[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.linux.bluetooth.le.beacon;
+
+import java.nio.charset.Charset;
+
+import org.eclipse.kura.bluetooth.BluetoothBeaconData;
+import org.eclipse.kura.bluetooth.listener.AdvertisingReportRecord;
+
+/**
+ * A single report of an HCI LE Advertising Report event, as decoded by {@link AdvertisingReportDecoder}.
+ * <p>
+ * Instances are reused for every decoded packet: the accessors returning primitives do not allocate, the objects
+ * handed to the listeners are only created by the {@code new...} methods.
+ */
+public class AdvertisingReport {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final int AD_TYPE_SHORTENED_LOCAL_NAME = 0x08;
+    private static final int AD_TYPE_COMPLETE_LOCAL_NAME = 0x09;
+    private static final int AD_TYPE_MANUFACTURER_SPECIFIC = 0xFF;
+
+    /** Manufacturer specific data of an iBeacon: company, type, length, uuid, major, minor and tx power. */
+    private static final int BEACON_DATA_LENGTH = 2 + 2 + 16 + 2 + 2 + 1;
+    private static final int BEACON_TYPE = 0x02;
+    private static final int BEACON_LENGTH = 0x15;
+
+    private int eventType;
+    private int addressType;
+    private long address;
+    private final byte[] data = new byte[255];
+    private int dataLength;
+    private int rssi;
+
+    void set(int eventType, int addressType, byte[] packet, int addressOffset, int dataOffset, int dataLength,
+            int rssi) {
+        this.eventType = eventType;
+        this.addressType = addressType;
+        // the address is transmitted least significant byte first
+        long value = 0;
+        for (int i = 5; i >= 0; i--) {
+            value = value << 8 | packet[addressOffset + i] & 0xFF;
+        }
+        this.address = value;
+        System.arraycopy(packet, dataOffset, this.data, 0, dataLength);
+        this.dataLength = dataLength;
+        this.rssi = rssi;
+    }
+
+    public int getEventType() {
+        return this.eventType;
+    }
+
+    public int getAddressType() {
+        return this.addressType;
+    }
+
+    /**
+     * @return the 48 bit device address
+     */
+    public long getAddress() {
+        return this.address;
+    }
+
+    /**
+     * @return the device address in the XX:XX:XX:XX:XX:XX format
+     */
+    public String getAddressString() {
+        final char[] chars = new char[17];
+        for (int i = 0; i < 6; i++) {
+            final int b = (int) (this.address >>> 8 * (5 - i)) & 0xFF;
+            chars[i * 3] = HEX_DIGITS[b >>> 4];
+            chars[i * 3 + 1] = HEX_DIGITS[b & 0x0F];
+            if (i < 5) {
+                chars[i * 3 + 2] = ':';
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @return the advertising data, valid up to {@link #getDataLength()}
+     */
+    public byte[] getData() {
+        return this.data;
+    }
+
+    public int getDataLength() {
+        return this.dataLength;
+    }
+
+    public int getRssi() {
+        return this.rssi;
+    }
+
+    /**
+     * Looks up an AD structure of the advertising data.
+     *
+     * See Bluetooth Core 4.0; Vol 3, Part C, 11 ADVERTISING AND SCAN RESPONSE DATA FORMAT
+     *
+     * @param adType
+     *            the AD type
+     * @return the offset of the length byte of the structure, or -1 if the data does not contain the structure
+     */
+    public int findAdStructure(int adType) {
+        int ptr = 0;
+        while (ptr < this.dataLength) {
+            final int structSize = this.data[ptr] & 0xFF;
+            if (structSize == 0 || ptr + structSize >= this.dataLength) {
+                break;
+            }
+            if ((this.data[ptr + 1] & 0xFF) == adType) {
+                return ptr;
+            }
+            ptr += structSize + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the complete or shortened local name, or {@code null} if not advertised
+     */
+    public String getLocalName() {
+        int ptr = findAdStructure(AD_TYPE_COMPLETE_LOCAL_NAME);
+        if (ptr < 0) {
+            ptr = findAdStructure(AD_TYPE_SHORTENED_LOCAL_NAME);
+        }
+        if (ptr < 0) {
+            return null;
+        }
+        return new String(this.data, ptr + 2, (this.data[ptr] & 0xFF) - 1, UTF_8);
+    }
+
+    /**
+     * Extracts the iBeacon data advertised in the manufacturer specific data of the given company.
+     *
+     * @param companyId
+     *            the company identifier
+     * @return the beacon data, or {@code null} if this is not a beacon of the company
+     */
+    public BluetoothBeaconData newBeaconData(int companyId) {
+        final int ptr = findAdStructure(AD_TYPE_MANUFACTURER_SPECIFIC);
+        if (ptr < 0 || (this.data[ptr] & 0xFF) - 1 < BEACON_DATA_LENGTH) {
+            return null;
+        }
+
+        final int prefixPtr = ptr + 2;
+        if ((this.data[prefixPtr] & 0xFF | (this.data[prefixPtr + 1] & 0xFF) << 8) != companyId
+                || this.data[prefixPtr + 2] != BEACON_TYPE || this.data[prefixPtr + 3] != BEACON_LENGTH) {
+            return null;
+        }
+
+        final int uuidPtr = prefixPtr + 4;
+        final int majorPtr = uuidPtr + 16;
+        final int minorPtr = majorPtr + 2;
+
+        final char[] uuid = new char[32];
+        for (int i = 0; i < 16; i++) {
+            final int b = this.data[uuidPtr + i] & 0xFF;
+            uuid[i * 2] = HEX_DIGITS[b >>> 4];
+            uuid[i * 2 + 1] = HEX_DIGITS[b & 0x0F];
+        }
+
+        final BluetoothBeaconData beaconData = new BluetoothBeaconData();
+        beaconData.uuid = new String(uuid);
+        beaconData.major = (this.data[majorPtr] & 0xFF) << 8 | this.data[majorPtr + 1] & 0xFF;
+        beaconData.minor = (this.data[minorPtr] & 0xFF) << 8 | this.data[minorPtr + 1] & 0xFF;
+        beaconData.txpower = this.data[minorPtr + 2];
+        beaconData.address = getAddressString();
+        beaconData.rssi = this.rssi;
+        return beaconData;
+    }
+
+    public AdvertisingReportRecord newReportRecord() {
+        final AdvertisingReportRecord record = new AdvertisingReportRecord();
+        record.setEventType(this.eventType);
+        record.setAddressType(this.addressType);
+        record.setAddress(getAddressString());
+        record.setLength(this.dataLength);
+        final byte[] reportData = new byte[this.dataLength];
+        System.arraycopy(this.data, 0, reportData, 0, this.dataLength);
+        record.setReportData(reportData);
+        return record;
+    }
+}
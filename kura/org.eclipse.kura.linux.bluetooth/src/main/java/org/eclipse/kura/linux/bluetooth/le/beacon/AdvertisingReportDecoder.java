@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.linux.bluetooth.le.beacon;
+
+import org.eclipse.kura.bluetooth.listener.BluetoothAdvertisementData;
+
+/**
+ * Decodes the HCI LE Advertising Report events of a btsnoop stream captured by hcidump.
+ * <p>
+ * The decoder and its {@link AdvertisingReport}s are reused for every packet, their content is valid until the next
+ * call to {@link #decode(byte[], int)}.
+ *
+ * See Bluetooth Core 4.0; Vol 2, Part E, 7.7.65.2 LE Advertising Report Event
+ */
+public class AdvertisingReportDecoder {
+
+    private static final int HCI_EVENT_PACKET = 0x04;
+    private static final int LE_META_EVENT = 0x3E;
+    private static final int LE_ADVERTISING_REPORT = 0x02;
+
+    private static final int EVENT_HEADER_LENGTH = 5;
+    /** Event type, address type, address, data length and rssi. */
+    private static final int REPORT_OVERHEAD = 1 + 1 + 6 + 1 + 1;
+    private static final int MAX_REPORTS = 0x19;
+
+    private final AdvertisingReport[] reports = new AdvertisingReport[MAX_REPORTS];
+    private int reportCount;
+
+    public AdvertisingReportDecoder() {
+        for (int i = 0; i < this.reports.length; i++) {
+            this.reports[i] = new AdvertisingReport();
+        }
+    }
+
+    /**
+     * Decodes a packet.
+     *
+     * @param packet
+     *            the packet data of a btsnoop record
+     * @param length
+     *            the length of the packet data
+     * @return the number of reports in the packet, 0 if the packet is not a well formed LE Advertising Report event
+     */
+    public int decode(byte[] packet, int length) {
+        this.reportCount = 0;
+
+        // Packet Type: Event, Event Code: LE Meta Event, Subevent Code: LE Advertising Report
+        if (length < EVENT_HEADER_LENGTH || packet[0] != HCI_EVENT_PACKET || (packet[1] & 0xFF) != LE_META_EVENT
+                || packet[3] != LE_ADVERTISING_REPORT) {
+            return 0;
+        }
+        final int end = Math.min(length, 3 + (packet[2] & 0xFF));
+
+        final int numReports = packet[4] & 0xFF;
+        if (numReports > MAX_REPORTS) {
+            return 0;
+        }
+
+        int ptr = EVENT_HEADER_LENGTH;
+        for (int i = 0; i < numReports; i++) {
+            if (ptr + REPORT_OVERHEAD > end) {
+                return 0;
+            }
+            final int eventType = packet[ptr] & 0xFF;
+            final int addressType = packet[ptr + 1] & 0xFF;
+            final int addressPtr = ptr + 2;
+            final int dataLength = packet[ptr + 8] & 0xFF;
+            final int dataPtr = ptr + 9;
+            if (dataPtr + dataLength + 1 > end) {
+                return 0;
+            }
+            final int rssi = packet[dataPtr + dataLength];
+
+            this.reports[i].set(eventType, addressType, packet, addressPtr, dataPtr, dataLength, rssi);
+            ptr = dataPtr + dataLength + 1;
+        }
+
+        this.reportCount = numReports;
+        return numReports;
+    }
+
+    public int getReportCount() {
+        return this.reportCount;
+    }
+
+    public AdvertisingReport getReport(int index) {
+        if (index >= this.reportCount) {
+            throw new IndexOutOfBoundsException();
+        }
+        return this.reports[index];
+    }
+
+    /**
+     * Builds the advertisement data of the last decoded packet.
+     *
+     * @param packet
+     *            the packet passed to {@link #decode(byte[], int)}
+     * @param length
+     *            the length of the packet data
+     */
+    public BluetoothAdvertisementData newAdvertisementData(byte[] packet, int length) {
+        final byte[] rawData = new byte[length];
+        System.arraycopy(packet, 0, rawData, 0, length);
+
+        final BluetoothAdvertisementData btAdData = new BluetoothAdvertisementData();
+        btAdData.setRawData(rawData);
+        btAdData.setPacketType(packet[0]);
+        btAdData.setEventType(packet[1]);
+        btAdData.setParameterLength(packet[2] & 0xFF);
+        btAdData.setSubEventCode(packet[3]);
+        btAdData.setNumberOfReports(this.reportCount);
+        for (int i = 0; i < this.reportCount; i++) {
+            btAdData.addReportRecord(this.reports[i].newReportRecord());
+        }
+        return btAdData;
+    }
+}
@@ -1,7 +1,9 @@
 package org.eclipse.kura.linux.bluetooth.le.beacon;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
 import org.apache.commons.io.IOUtils;
 
@@ -10,30 +12,40 @@ import org.apache.commons.io.IOUtils;
  */
 public class BTSnoopParser {
 
+    /**
+     * Size of a record buffer large enough for any HCI event, including the packet indicator of the HCI UART
+     * transport used by hcidump.
+     */
+    public static final int MAX_EVENT_RECORD_LENGTH = 1 + 2 + 255;
+
+    private static final byte[] MAGIC = { 'b', 't', 's', 'n', 'o', 'o', 'p', 0 };
+    private static final int HEADER_LENGTH = 16;
+    private static final int RECORD_HEADER_LENGTH = 24;
+
     private InputStream is;
     private boolean gotHeader = false;
+    private final byte[] recordHeader = new byte[RECORD_HEADER_LENGTH];
 
     public BTSnoopParser() {
     }
 
     public void setInputStream(InputStream is) {
         this.is = is;
+        this.gotHeader = false;
     }
 
+    /**
+     * Reads the next record into a new array.
+     *
+     * @return the packet data of the record
+     * @throws EOFException
+     *             if the stream ends
+     */
     public byte[] readRecord() throws IOException {
-        if (!this.gotHeader) {
-            // Read past the 16-byte header
-            IOUtils.readFully(this.is, new byte[16]);
-            this.gotHeader = true;
+        if (!readRecordHeader()) {
+            throw new EOFException();
         }
-
-        readInt();
-        int includedLength = readInt();
-        readInt();
-        readInt();
-        readInt();
-        readInt();
-        byte[] packetData = new byte[includedLength];
+        byte[] packetData = new byte[includedLength()];
 
         // bluetooth record
         IOUtils.readFully(this.is, packetData);
@@ -41,12 +53,58 @@ public class BTSnoopParser {
         return packetData;
     }
 
-    private int readInt() throws IOException {
+    /**
+     * Reads the next record that fits the provided buffer, the records that are longer than the buffer, such as the
+     * ACL data packets captured along with the events, are skipped.
+     *
+     * @param buffer
+     *            the buffer that receives the packet data, reused by the caller across records
+     * @return the length of the packet data, or -1 if the stream ends
+     */
+    public int readRecord(byte[] buffer) throws IOException {
+        while (readRecordHeader()) {
+            final int includedLength = includedLength();
+            if (includedLength <= buffer.length) {
+                IOUtils.readFully(this.is, buffer, 0, includedLength);
+                return includedLength;
+            }
+            IOUtils.skipFully(this.is, includedLength);
+        }
+        return -1;
+    }
+
+    private boolean readRecordHeader() throws IOException {
+        if (!this.gotHeader) {
+            // Check the 16-byte header: identification pattern, version and datalink type
+            final byte[] header = new byte[HEADER_LENGTH];
+            IOUtils.readFully(this.is, header);
+            if (!Arrays.equals(MAGIC, Arrays.copyOf(header, MAGIC.length))) {
+                throw new IOException("Not a btsnoop stream");
+            }
+            this.gotHeader = true;
+        }
 
-        byte[] intBytes = new byte[4];
+        // original length, included length, flags, cumulative drops and 64 bit timestamp
+        final int read = IOUtils.read(this.is, this.recordHeader);
+        if (read == 0) {
+            return false;
+        }
+        if (read < RECORD_HEADER_LENGTH) {
+            throw new EOFException("Truncated btsnoop record");
+        }
+        return true;
+    }
 
-        IOUtils.readFully(this.is, intBytes);
+    private int includedLength() throws IOException {
+        final long includedLength = readInt(this.recordHeader, 4);
+        if (includedLength > Integer.MAX_VALUE) {
+            throw new IOException("Invalid btsnoop record length " + includedLength);
+        }
+        return (int) includedLength;
+    }
 
-        return intBytes[0] << 24 | intBytes[1] << 16 | intBytes[2] << 8 | intBytes[3];
+    private static long readInt(byte[] b, int offset) {
+        return (b[offset] & 0xFFL) << 24 | (b[offset + 1] & 0xFF) << 16 | (b[offset + 2] & 0xFF) << 8
+                | b[offset + 3] & 0xFF;
     }
-}
\ No newline at end of file
+}
@@ -9,8 +9,11 @@ public interface BTSnoopListener {
      * Process a BTSnoop Record
      *
      * @param record
+     *            the buffer holding the packet data, reused for the following records
+     * @param length
+     *            the length of the packet data
      */
-    public void processBTSnoopRecord(byte[] record);
+    public void processBTSnoopRecord(byte[] record, int length);
     
     public void processErrorStream(String string);
 
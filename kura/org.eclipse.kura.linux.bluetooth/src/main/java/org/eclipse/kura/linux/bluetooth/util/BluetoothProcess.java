@@ -167,11 +167,14 @@ public class BluetoothProcess {
 
         this.parser.setInputStream(is);
 
+        // only the HCI events are of interest, the longer records are skipped by the parser
+        final byte[] packet = new byte[BTSnoopParser.MAX_EVENT_RECORD_LENGTH];
         while (this.btSnoopReady) {
-            if (is != null) {
-                byte[] packet = this.parser.readRecord();
-                listener.processBTSnoopRecord(packet);
+            int length = this.parser.readRecord(packet);
+            if (length < 0) {
+                break;
             }
+            listener.processBTSnoopRecord(packet, length);
         }
 
         s_logger.debug("End of stream!");
@@ -13,11 +13,12 @@ package org.eclipse.kura.linux.position;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.kura.KuraConnectionStatus;
@@ -45,39 +46,35 @@ public class GpsDevice {
     private static Object lock = new Object();
     static final String PROTOCOL_NAME = "position";
 
+    /**
+     * Notified by the reader thread when the validity of the position changes and when a sentence changes the
+     * position.
+     */
+    interface DeviceListener {
+
+        void onValidityChanged(boolean validPosition);
+
+        /**
+         * Called for every new position, after the validity of the position has been updated.
+         */
+        void onPositionChanged(NmeaPosition position);
+    }
+
     // private String unitName = PROTOCOL_NAME;
     private SerialCommunicate comm;
     private boolean connConfigd = false;
-    private boolean validPosition = false;
-    private String lastSentence;
-
-    private Measurement latitude = null;
-    private Measurement longitude = null;
-    private Measurement altitude = null;
-    private Measurement speed = null;
-    private Measurement track = null;
-    private double latitudeNmea = 0;
-    private double longitudeNmea = 0;
-    private double altitudeNmea = 0;
-    private double speedNmea = 0;
-    private double trackNmea = 0;
-    private int fixQuality = 0;
-    private int nrSatellites = 0;
-    private double dop = 0;
-    private double pdop = 0;
-    private double hdop = 0;
-    private double vdop = 0;
-    private int fix3D = 0;
-    private String dateNmea = "";
-    private String timeNmea = "";
+    private volatile boolean validPosition = false;
+    private final byte[] lastSentence = new byte[NMEAParser.MAX_SENTENCE_LENGTH];
+    private int lastSentenceLength = -1;
+
+    /** The sentences of a receiver are parsed by the same parser, the fields not in a sentence are retained. */
+    private final NMEAParser parser = new NMEAParser();
+    /** Replaced, never modified, when a sentence changes the position. */
+    private volatile Fix fix = new Fix();
     private Collection<PositionListener> listeners;
+    private volatile DeviceListener deviceListener;
 
     public GpsDevice() {
-        this.latitude = new Measurement(java.lang.Math.toRadians(0), Unit.rad);
-        this.longitude = new Measurement(java.lang.Math.toRadians(0), Unit.rad);
-        this.altitude = new Measurement(0, Unit.m);
-        this.speed = new Measurement(0, Unit.m_s);
-        this.track = new Measurement(java.lang.Math.toRadians(0), Unit.rad);
     }
 
     public String getProtocolName() {
@@ -125,13 +122,18 @@ public class GpsDevice {
     }
 
     public Position getPosition() {
-        return new Position(this.latitude, this.longitude, this.altitude, this.speed, this.track);
+        final Fix current = this.fix;
+        return new Position(new Measurement(Math.toRadians(current.latitude), Unit.rad),
+                new Measurement(Math.toRadians(current.longitude), Unit.rad),
+                new Measurement(current.altitude, Unit.m), new Measurement(current.speed, Unit.m_s),
+                new Measurement(Math.toRadians(current.track), Unit.rad));
     }
 
     public NmeaPosition getNmeaPosition() {
-        return new NmeaPosition(this.latitudeNmea, this.longitudeNmea, this.altitudeNmea, this.speedNmea,
-                this.trackNmea, this.fixQuality, this.nrSatellites, this.dop, this.pdop, this.hdop, this.vdop,
-                this.fix3D);
+        final Fix current = this.fix;
+        return new NmeaPosition(current.latitude, current.longitude, current.altitude, current.speed, current.track,
+                current.fixQuality, current.nrSatellites, current.dop, current.pdop, current.hdop, current.vdop,
+                current.fix3D);
     }
 
     public boolean isValidPosition() {
@@ -139,11 +141,11 @@ public class GpsDevice {
     }
 
     public String getDateNmea() {
-        return this.dateNmea;
+        return this.fix.dateNmea;
     }
 
     public String getTimeNmea() {
-        return this.timeNmea;
+        return this.fix.timeNmea;
     }
 
     public void connect() throws PositionException {
@@ -160,7 +162,12 @@ public class GpsDevice {
     }
 
     public String getLastSentence() {
-        return this.lastSentence;
+        synchronized (this.lastSentence) {
+            if (this.lastSentenceLength < 0) {
+                return null;
+            }
+            return new String(this.lastSentence, 0, this.lastSentenceLength, StandardCharsets.US_ASCII);
+        }
     }
 
     /**
@@ -176,14 +183,21 @@ public class GpsDevice {
     private final class SerialCommunicate {
 
         private final static long THREAD_TERMINATION_TOUT = 1; // in seconds
+        private static final int READ_BUFFER_SIZE = 512;
+        private static final long NO_DATA_WAIT = 20; // in milliseconds
 
-        private ScheduledExecutorService executor;
-        private ScheduledFuture<?> task;
+        private ExecutorService executor;
+        private Future<?> task;
 
         InputStream in;
         CommConnection conn = null;
         Properties connConfig = null;
 
+        /** The sentence being received, reused for every sentence. */
+        private final byte[] sentence = new byte[NMEAParser.MAX_SENTENCE_LENGTH];
+        private int sentenceLength;
+        private boolean sentenceOverflow;
+
         public SerialCommunicate(ConnectionFactory connFactory, Properties connectionConfig) throws PositionException {
             logger.debug("Configure serial connection");
 
@@ -225,27 +239,16 @@ public class GpsDevice {
                 throw new PositionException("input stream", e);
             }
 
-            // clean up if this is not our first run
-            if (this.task != null && !this.task.isDone()) {
-                logger.debug("SerialCommunicate() :: Cancelling GpsSerialCommunicate task ...");
-                this.task.cancel(true);
-                logger.info("SerialCommunicate() :: GpsSerialCommunicate task cancelled? = {}", this.task.isDone());
-                this.task = null;
-            }
-
-            this.executor = Executors.newSingleThreadScheduledExecutor();
+            this.executor = Executors.newSingleThreadExecutor();
 
-            this.task = this.executor.scheduleAtFixedRate(new Runnable() {
+            this.task = this.executor.submit(new Runnable() {
 
                 @Override
                 public void run() {
                     Thread.currentThread().setName("GpsSerialCommunicate");
-                    if (!doPollWork()) {
-                        logger.info("The doPollWork() method returned 'false' - disconnecting ...");
-                        disconnect();
-                    }
+                    readSentences();
                 }
-            }, 0, 20, TimeUnit.MILLISECONDS);
+            });
         }
 
         public void connect() {
@@ -299,220 +302,307 @@ public class GpsDevice {
             return this.connConfig;
         }
 
-        public boolean doPollWork() {
-            try {
-                StringBuffer readBuffer = new StringBuffer();
-                int c = -1;
-                if (this.in != null) {
-                    while (c != 10) {
-                        try {
-                            c = this.in.read();
-                        } catch (Exception e) {
-                            logger.error("Exception in gps read - {}", e);
-                            try {
-                                Thread.sleep(1000);
-                            } catch (InterruptedException e1) {
-                                logger.warn("Interrupted - {}", e1);
-                            }
-                            return false;
-                        }
-                        if (c != 13 && c != -1) {
-                            readBuffer.append((char) c);
-                        }
+        /**
+         * Reads the stream in blocks, as long as the connection is open, and parses the sentences as soon as their
+         * line terminator is received.
+         */
+        private void readSentences() {
+            final byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+
+            while (!Thread.currentThread().isInterrupted()) {
+                final InputStream stream = this.in;
+                if (stream == null) {
+                    logger.debug("GPS InputStream is null");
+                    if (!sleep(1000)) {
+                        return;
                     }
-                    try {
-                        if (readBuffer.length() > 0) {
-                            logger.debug("GPS RAW: {}", readBuffer.toString());
-                            if (GpsDevice.this.listeners != null && !GpsDevice.this.listeners.isEmpty()) {
-                                for (PositionListener listener : GpsDevice.this.listeners) {
-                                    listener.newNmeaSentence(readBuffer.toString());
-                                }
-                            }
-                            parseNmeaSentence(readBuffer.toString());
-                        }
-                    } catch (Exception e) {
-                        logger.error("Exception in parseNmeaSentence - {}", e);
+                    continue;
+                }
+
+                final int read;
+                try {
+                    read = stream.read(readBuffer);
+                } catch (Exception e) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
                     }
-                } else {
-                    logger.debug("GPS InputStream is null");
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException e) {
+                    logger.error("Exception in gps read - {}", e);
+                    logger.info("The GPS stream cannot be read - disconnecting ...");
+                    disconnect();
+                    return;
+                }
+
+                if (read <= 0) {
+                    // receive timeout, or a stream that does not block
+                    if (!sleep(NO_DATA_WAIT)) {
+                        return;
                     }
+                    continue;
                 }
-            } catch (Exception e) {
-                logger.error("Exception in Gps doPollWork");
+
+                for (int i = 0; i < read; i++) {
+                    append(readBuffer[i]);
+                }
+            }
+        }
+
+        private boolean sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private void append(byte b) {
+            if (b == '\r') {
+                return;
+            }
+            if (this.sentenceLength < this.sentence.length) {
+                this.sentence[this.sentenceLength++] = b;
+            } else {
+                this.sentenceOverflow = true;
+            }
+            if (b != '\n') {
+                return;
+            }
+
+            if (this.sentenceOverflow) {
+                logger.warn("Discarding NMEA sentence longer than {} characters", this.sentence.length);
+            } else {
                 try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException e1) {
+                    processSentence(this.sentence, this.sentenceLength);
+                } catch (Exception e) {
+                    logger.error("Exception in parseNmeaSentence - {}", e);
                 }
             }
-            return true;
+            this.sentenceLength = 0;
+            this.sentenceOverflow = false;
         }
 
-        private void parseNmeaSentence(String scannedInput) {
+        private void processSentence(byte[] buffer, int length) {
+            final Collection<PositionListener> currentListeners = GpsDevice.this.listeners;
+            final boolean notify = currentListeners != null && !currentListeners.isEmpty();
+            if (notify || logger.isDebugEnabled()) {
+                final String rawSentence = new String(buffer, 0, length, StandardCharsets.US_ASCII);
+                logger.debug("GPS RAW: {}", rawSentence);
+                if (notify) {
+                    for (PositionListener listener : currentListeners) {
+                        listener.newNmeaSentence(rawSentence);
+                    }
+                }
+            }
+            parseNmeaSentence(buffer, length);
+        }
 
-            double lon, lat, speed, alt, track;
+        private void parseNmeaSentence(byte[] buffer, int length) {
 
             // got a message... do a cksum
-            if (!NmeaCksum(scannedInput)) {
+            if (!NMEAParser.isChecksumValid(buffer, length)) {
                 logger.error("NMEA checksum not valid");
                 return;
             }
-            // s_logger.info(scannedInput);
-            GpsDevice.this.lastSentence = scannedInput;
-            NMEAParser gpsParser = new NMEAParser();
+            synchronized (GpsDevice.this.lastSentence) {
+                System.arraycopy(buffer, 0, GpsDevice.this.lastSentence, 0, length);
+                GpsDevice.this.lastSentenceLength = length;
+            }
 
-            gpsParser.parseSentence(scannedInput);
-            GpsDevice.this.validPosition = gpsParser.isValidPosition();
-            // s_logger.debug("Parse : "+scannedInput+" position valid = "+m_validPosition);
+            final NMEAParser gpsParser = GpsDevice.this.parser;
+            gpsParser.parseSentence(buffer, length);
+            final boolean valid = gpsParser.isValidPosition();
 
-            if (!GpsDevice.this.validPosition) {
-                return;
+            final Fix previous = GpsDevice.this.fix;
+            if (valid) {
+                commitSentence(gpsParser, buffer, length);
             }
+            updateValidity(valid);
 
-            if (!scannedInput.startsWith("$G")) {
+            final DeviceListener listener = GpsDevice.this.deviceListener;
+            if (listener != null && GpsDevice.this.fix != previous) {
+                listener.onPositionChanged(getNmeaPosition());
+            }
+        }
+
+        private void commitSentence(NMEAParser gpsParser, byte[] buffer, int length) {
+            if (length < 6 || buffer[0] != '$' || buffer[1] != 'G') {
                 // Invalid NMEA String. Return.
-                logger.warn("Invalid NMEA sentence: " + scannedInput);
+                logger.warn("Invalid NMEA sentence: {}", new String(buffer, 0, length, StandardCharsets.US_ASCII));
                 return;
             }
-            // Remove the first 3 characters from the input string in order to normalize the commands
-            scannedInput = scannedInput.substring(3);
 
-            if (scannedInput.startsWith("TXT")) {
-                logger.debug("U-Blox init message: {}", scannedInput);
-            } else if (scannedInput.startsWith("GGA")) {
-                try {
-                    lon = gpsParser.getLongNmea();
-                    lat = gpsParser.getLatNmea();
-                    alt = gpsParser.getAltNmea();
-                    GpsDevice.this.fixQuality = gpsParser.getFixQuality();
-                    GpsDevice.this.latitude = new Measurement(java.lang.Math.toRadians(lat), Unit.rad);
-                    GpsDevice.this.longitude = new Measurement(java.lang.Math.toRadians(lon), Unit.rad);
-                    GpsDevice.this.altitude = new Measurement(alt, Unit.m);
-                    GpsDevice.this.latitudeNmea = lat;
-                    GpsDevice.this.longitudeNmea = lon;
-                    GpsDevice.this.altitudeNmea = alt;
-                    GpsDevice.this.dop = gpsParser.getDOPNmea();
-                    GpsDevice.this.nrSatellites = gpsParser.getNrSatellites();
-                    GpsDevice.this.timeNmea = gpsParser.getTimeNmea();
-                } catch (Exception e) {
-                    GpsDevice.this.latitude = null;
-                    GpsDevice.this.longitude = null;
-                    GpsDevice.this.altitude = null;
-                    GpsDevice.this.latitudeNmea = 0;
-                    GpsDevice.this.longitudeNmea = 0;
-                    GpsDevice.this.altitudeNmea = 0;
+            // The sentence type follows the 3 characters of the talker in order to normalize the commands
+            final Fix current = GpsDevice.this.fix;
+            if (isType(buffer, "TXT")) {
+                logger.debug("U-Blox init message: {}", new String(buffer, 0, length, StandardCharsets.US_ASCII));
+            } else if (isType(buffer, "GGA")) {
+                if (current.latitude != gpsParser.getLatNmea() || current.longitude != gpsParser.getLongNmea()
+                        || current.altitude != gpsParser.getAltNmea()
+                        || current.fixQuality != gpsParser.getFixQuality() || current.dop != gpsParser.getDOPNmea()
+                        || current.nrSatellites != gpsParser.getNrSatellites()
+                        || !gpsParser.isTimeNmea(current.timeNmea)) {
+                    final Fix next = new Fix(current);
+                    next.latitude = gpsParser.getLatNmea();
+                    next.longitude = gpsParser.getLongNmea();
+                    next.altitude = gpsParser.getAltNmea();
+                    next.fixQuality = gpsParser.getFixQuality();
+                    next.dop = gpsParser.getDOPNmea();
+                    next.nrSatellites = gpsParser.getNrSatellites();
+                    if (!gpsParser.isTimeNmea(current.timeNmea)) {
+                        next.timeNmea = gpsParser.getTimeNmea();
+                    }
+                    GpsDevice.this.fix = next;
                 }
-            } else if (scannedInput.startsWith("GLL")) {
-                try {
-                    lon = gpsParser.getLongNmea();
-                    lat = gpsParser.getLatNmea();
-                    GpsDevice.this.latitude = new Measurement(java.lang.Math.toRadians(lat), Unit.rad);
-                    GpsDevice.this.longitude = new Measurement(java.lang.Math.toRadians(lon), Unit.rad);
-                    GpsDevice.this.latitudeNmea = lat;
-                    GpsDevice.this.longitudeNmea = lon;
-                } catch (Exception e) {
-                    GpsDevice.this.latitude = null;
-                    GpsDevice.this.longitude = null;
-                    GpsDevice.this.latitudeNmea = 0;
-                    GpsDevice.this.longitudeNmea = 0;
+            } else if (isType(buffer, "GLL")) {
+                if (current.latitude != gpsParser.getLatNmea() || current.longitude != gpsParser.getLongNmea()) {
+                    final Fix next = new Fix(current);
+                    next.latitude = gpsParser.getLatNmea();
+                    next.longitude = gpsParser.getLongNmea();
+                    GpsDevice.this.fix = next;
                 }
-            } else if (scannedInput.startsWith("GSA")) {
-                try {
-                    GpsDevice.this.pdop = gpsParser.getPDOPNmea();
-                    GpsDevice.this.hdop = gpsParser.getHDOPNmea();
-                    GpsDevice.this.vdop = gpsParser.getVDOPNmea();
-                    GpsDevice.this.fix3D = gpsParser.getFix3DNmea();
-                    // System.out.println("PDOP = "+pdop+" HDOP = "+hdop+" VDOP = "+vdop+" fix3D = "+fix3D);
-                } catch (Exception e) {
-                    GpsDevice.this.pdop = 0;
-                    GpsDevice.this.hdop = 0;
-                    GpsDevice.this.vdop = 0;
-                    GpsDevice.this.fix3D = 0;
+            } else if (isType(buffer, "GSA")) {
+                if (current.pdop != gpsParser.getPDOPNmea() || current.hdop != gpsParser.getHDOPNmea()
+                        || current.vdop != gpsParser.getVDOPNmea() || current.fix3D != gpsParser.getFix3DNmea()) {
+                    final Fix next = new Fix(current);
+                    next.pdop = gpsParser.getPDOPNmea();
+                    next.hdop = gpsParser.getHDOPNmea();
+                    next.vdop = gpsParser.getVDOPNmea();
+                    next.fix3D = gpsParser.getFix3DNmea();
+                    GpsDevice.this.fix = next;
                 }
-            } else if (scannedInput.startsWith("GSV")) {
-            } else if (scannedInput.startsWith("RMC")) {
-                try {
-                    lon = gpsParser.getLongNmea();
-                    lat = gpsParser.getLatNmea();
-                    speed = gpsParser.getSpeedNmea();
-                    track = gpsParser.getTrackNmea();
-                    GpsDevice.this.latitude = new Measurement(java.lang.Math.toRadians(lat), Unit.rad);
-                    GpsDevice.this.longitude = new Measurement(java.lang.Math.toRadians(lon), Unit.rad);
-                    GpsDevice.this.speed = new Measurement(speed, Unit.m_s);
-                    GpsDevice.this.track = new Measurement(java.lang.Math.toRadians(track), Unit.rad);
-                    GpsDevice.this.latitudeNmea = lat;
-                    GpsDevice.this.longitudeNmea = lon;
-                    GpsDevice.this.speedNmea = speed;
-                    GpsDevice.this.trackNmea = track;
-                    GpsDevice.this.dateNmea = gpsParser.getDateNmea();
-                } catch (Exception e) {
-                    GpsDevice.this.latitude = null;
-                    GpsDevice.this.longitude = null;
-                    GpsDevice.this.speed = null;
-                    GpsDevice.this.latitudeNmea = 0;
-                    GpsDevice.this.longitudeNmea = 0;
-                    GpsDevice.this.speedNmea = 0;
-                    GpsDevice.this.trackNmea = 0;
+            } else if (isType(buffer, "GSV")) {
+            } else if (isType(buffer, "RMC")) {
+                if (current.latitude != gpsParser.getLatNmea() || current.longitude != gpsParser.getLongNmea()
+                        || current.speed != gpsParser.getSpeedNmea() || current.track != gpsParser.getTrackNmea()
+                        || !gpsParser.isDateNmea(current.dateNmea)) {
+                    final Fix next = new Fix(current);
+                    next.latitude = gpsParser.getLatNmea();
+                    next.longitude = gpsParser.getLongNmea();
+                    next.speed = gpsParser.getSpeedNmea();
+                    next.track = gpsParser.getTrackNmea();
+                    if (!gpsParser.isDateNmea(current.dateNmea)) {
+                        next.dateNmea = gpsParser.getDateNmea();
+                    }
+                    GpsDevice.this.fix = next;
                 }
-            } else if (scannedInput.startsWith("VTG")) {
-                try {
-                    speed = gpsParser.getSpeedNmea();
-                    GpsDevice.this.speed = new Measurement(speed, Unit.m_s);
-                    GpsDevice.this.speedNmea = speed;
-                } catch (Exception e) {
-                    GpsDevice.this.speed = null;
-                    GpsDevice.this.speedNmea = 0;
+            } else if (isType(buffer, "VTG")) {
+                if (current.speed != gpsParser.getSpeedNmea()) {
+                    final Fix next = new Fix(current);
+                    next.speed = gpsParser.getSpeedNmea();
+                    GpsDevice.this.fix = next;
                 }
-            } else if (scannedInput.indexOf("FOM") != -1) {
+            } else if (contains(buffer, length, "FOM")) {
                 // FOM = scannedInput;
-            } else if (scannedInput.indexOf("PPS") != -1) {
+            } else if (contains(buffer, length, "PPS")) {
                 // PPS = scannedInput;
             } else {
-                logger.warn("Unrecognized NMEA sentence: " + scannedInput);
+                logger.warn("Unrecognized NMEA sentence: {}", new String(buffer, 3, length - 3,
+                        StandardCharsets.US_ASCII));
             }
         }
 
-        private boolean NmeaCksum(String nmeaMessageIn) {
-            int starpos = nmeaMessageIn.indexOf('*');
-            String s_Cksum = nmeaMessageIn.substring(starpos + 1, nmeaMessageIn.length() - 1);
-            int i_Cksum = Integer.parseInt(s_Cksum, 16); // Check sum is coded in hex string
+        private void updateValidity(boolean valid) {
+            if (GpsDevice.this.validPosition == valid) {
+                return;
+            }
+            GpsDevice.this.validPosition = valid;
+            final DeviceListener listener = GpsDevice.this.deviceListener;
+            if (listener != null) {
+                listener.onValidityChanged(valid);
+            }
+        }
+
+        private boolean isType(byte[] buffer, String type) {
+            return buffer[3] == type.charAt(0) && buffer[4] == type.charAt(1) && buffer[5] == type.charAt(2);
+        }
 
-            int i_newCksum = 0;
-            for (int i = 1; i < starpos; i++) {
-                i_newCksum ^= nmeaMessageIn.charAt(i);
+        private boolean contains(byte[] buffer, int length, String token) {
+            for (int i = 3; i + token.length() <= length; i++) {
+                int j = 0;
+                while (j < token.length() && buffer[i + j] == token.charAt(j)) {
+                    j++;
+                }
+                if (j == token.length()) {
+                    return true;
+                }
             }
+            return false;
+        }
+    }
+
+    /**
+     * Values of the last valid sentences. An instance is never modified once published, so that readers always see a
+     * consistent position.
+     */
+    private static final class Fix {
+
+        double latitude;
+        double longitude;
+        double altitude;
+        double speed;
+        double track;
+        int fixQuality;
+        int nrSatellites;
+        double dop;
+        double pdop;
+        double hdop;
+        double vdop;
+        int fix3D;
+        String dateNmea = "";
+        String timeNmea = "";
+
+        Fix() {
+        }
 
-            return i_newCksum == i_Cksum;
+        Fix(Fix other) {
+            this.latitude = other.latitude;
+            this.longitude = other.longitude;
+            this.altitude = other.altitude;
+            this.speed = other.speed;
+            this.track = other.track;
+            this.fixQuality = other.fixQuality;
+            this.nrSatellites = other.nrSatellites;
+            this.dop = other.dop;
+            this.pdop = other.pdop;
+            this.hdop = other.hdop;
+            this.vdop = other.vdop;
+            this.fix3D = other.fix3D;
+            this.dateNmea = other.dateNmea;
+            this.timeNmea = other.timeNmea;
         }
     }
 
     @Override
     public String toString() {
+        final Fix current = this.fix;
         StringBuilder sb = new StringBuilder();
         sb.append(" longitude=");
-        sb.append(this.longitudeNmea);
+        sb.append(current.longitude);
         sb.append("\n latitude=");
-        sb.append(this.latitudeNmea);
+        sb.append(current.latitude);
         sb.append("\n altitude=");
-        sb.append(this.altitudeNmea);
+        sb.append(current.altitude);
         sb.append("\n speed=");
-        sb.append(this.speedNmea);
+        sb.append(current.speed);
         sb.append("\n date=");
-        sb.append(this.dateNmea);
+        sb.append(current.dateNmea);
         sb.append("   time=");
-        sb.append(this.timeNmea);
+        sb.append(current.timeNmea);
         sb.append("\n DOP=");
-        sb.append(this.dop);
+        sb.append(current.dop);
         sb.append("\n 3Dfix=");
-        sb.append(this.fix3D);
+        sb.append(current.fix3D);
         sb.append("\n fixQuality=");
-        sb.append(this.fixQuality);
+        sb.append(current.fixQuality);
         return sb.toString();
     }
 
     public void setListeners(Collection<PositionListener> listeners) {
         this.listeners = listeners;
     }
+
+    void setDeviceListener(DeviceListener deviceListener) {
+        this.deviceListener = deviceListener;
+    }
 }
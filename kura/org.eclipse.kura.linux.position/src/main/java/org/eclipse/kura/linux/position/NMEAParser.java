@@ -11,15 +11,32 @@
  *******************************************************************************/
 package org.eclipse.kura.linux.position;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Implements NMEA sentences parser functions.
- *
+ * <p>
+ * Sentences are parsed in place from a byte array: fields are located by their offsets and numeric values are
+ * converted directly into the primitive fields of the parser, so that parsing a sentence does not allocate any
+ * object. The values of the fields not included in a sentence are retained from the previous ones, a single parser
+ * is meant to be fed with the whole stream of a receiver.
  */
 public class NMEAParser {
 
+    static final int MAX_SENTENCE_LENGTH = 128;
+    private static final int MAX_FIELDS = 32;
+    private static final int MAX_TIME_LENGTH = 16;
+
+    /** Digits that fit a double mantissa, so that converting a decimal field is exact before the division. */
+    private static final int MAX_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15 };
+
     private int fixQuality;
-    private String timeNmea;
-    private String dateNmea;
+    private final byte[] timeNmea = new byte[MAX_TIME_LENGTH];
+    private int timeLength = -1;
+    private final byte[] dateNmea = new byte[MAX_TIME_LENGTH];
+    private int dateLength = -1;
     private double longNmea;
     private double latNmea;
     private double speedNmea;
@@ -31,7 +48,17 @@ public class NMEAParser {
     private double vdopNmea;
     private int fix3DNmea;
     private int nrSatellites;
-    private static boolean validPosition;
+    private boolean validPosition;
+
+    /** The sentence being parsed. */
+    private byte[] data;
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    /** Number of fields up to the last non empty one. */
+    private int fieldCount;
+
+    /** Buffer for the sentences provided as strings. */
+    private final byte[] stringBuffer = new byte[MAX_SENTENCE_LENGTH];
 
     /**
      * Fill the fields of GPS position depending of the type of the sentence
@@ -40,11 +67,24 @@ public class NMEAParser {
      *            most recent sentence String from GPS modem
      */
     public void parseSentence(String sentence) {
-        // first remove the end "*"+chksum
-        int starpos = sentence.indexOf('*');
-        String s_sentence = sentence.substring(0, starpos);
+        final int length = Math.min(sentence.length(), this.stringBuffer.length);
+        for (int i = 0; i < length; i++) {
+            this.stringBuffer[i] = (byte) sentence.charAt(i);
+        }
+        parseSentence(this.stringBuffer, length);
+    }
 
-        String[] tokens = s_sentence.split(",");
+    /**
+     * Fill the fields of GPS position depending of the type of the sentence
+     *
+     * @param sentence
+     *            the buffer containing the sentence, starting at index 0
+     * @param length
+     *            the length of the sentence, the checksum and the line terminator are optional
+     */
+    public void parseSentence(byte[] sentence, int length) {
+        this.data = sentence;
+        split(length);
 
         /*
          * Starting from 4.0 NMEA specs the GPS device can send messages representing different talkers
@@ -53,194 +93,365 @@ public class NMEAParser {
          * $GS = Glonass
          * $GN = GNSS, that is GPS + Glonass + possibly others
          */
-        if (!tokens[0].startsWith("$G")) {
+        final int typeStart = this.fieldStart[0];
+        final int typeEnd = this.fieldEnd[0];
+        if (typeEnd - typeStart < 2 || sentence[typeStart] != '$' || sentence[typeStart + 1] != 'G') {
             // Not a valid token. Return.
             return;
         }
 
-        if (tokens[0].endsWith("GGA")) {
-            if (tokens.length > 9) {
-                validPosition = true;
-                if (!tokens[1].isEmpty()) {
-                    this.timeNmea = tokens[1];
-                } else {
-                    validPosition = false;
-                }
-                if (!tokens[2].isEmpty()) {
-                    this.latNmea = convertPositionlat(tokens[2], tokens[3]);
-                } else {
-                    validPosition = false;
-                }
-                if (!tokens[4].isEmpty()) {
-                    this.longNmea = convertPositionlon(tokens[4], tokens[5]);
-                } else {
-                    validPosition = false;
-                }
-                if (!tokens[6].isEmpty()) {
-                    this.fixQuality = Integer.parseInt(tokens[6]);
-                    if (this.fixQuality == 0) {
-                        validPosition = false;
-                    }
-                } else {
-                    validPosition = false;
-                }
-                if (!tokens[7].isEmpty()) {
-                    this.nrSatellites = Integer.parseInt(tokens[7]);
-                } else {
-                    validPosition = false;
-                }
-                if (!tokens[8].isEmpty()) {
-                    this.dopNmea = Double.parseDouble(tokens[8]);
-                } else {
-                    validPosition = false;
-                }
-                if (!tokens[9].isEmpty()) {
-                    this.altNmea = Double.parseDouble(tokens[9]);
-                } else {
-                    validPosition = false;
-                }
-            } else {
-                validPosition = false;
+        if (typeEndsWith('G', 'G', 'A')) {
+            parseGga();
+        } else if (typeEndsWith('G', 'L', 'L')) {
+            parseGll();
+        } else if (typeEndsWith('R', 'M', 'C')) {
+            parseRmc();
+        } else if (typeEndsWith('G', 'S', 'A')) {
+            parseGsa();
+        } else if (typeEndsWith('V', 'T', 'G')) {
+            if (this.fieldCount > 7 && !isEmpty(7)) {
+                // conversion km/h in m/s : 1 km/h -> 0,277777778 m/s;
+                this.speedNmea = parseDouble(7) * 0.277777778;
             }
-        } else if (tokens[0].endsWith("GLL")) {
-            if (tokens.length > 5) {
-                validPosition = true;
-                if (!tokens[1].isEmpty()) {
-                    this.latNmea = convertPositionlat(tokens[1], tokens[2]);
-                } else {
-                    validPosition = false;
-                }
-                if (!tokens[3].isEmpty()) {
-                    this.longNmea = convertPositionlon(tokens[3], tokens[4]);
-                } else {
-                    validPosition = false;
-                }
-                if (!tokens[5].isEmpty()) {
-                    this.timeNmea = tokens[5];
-                } else {
-                    validPosition = false;
-                }
-                if (!tokens[6].isEmpty()) { // check validity
-                    if (!new String("A").equals(tokens[6])) {
-                        validPosition = false;
-                    }
-                } else {
-                    validPosition = false;
-                }
-            } else {
-                validPosition = false;
+        }
+    }
+
+    private void parseGga() {
+        if (this.fieldCount <= 9) {
+            this.validPosition = false;
+            return;
+        }
+        this.validPosition = true;
+        if (!isEmpty(1)) {
+            this.timeLength = copyField(1, this.timeNmea);
+        } else {
+            this.validPosition = false;
+        }
+        if (!isEmpty(2)) {
+            this.latNmea = convertPosition(2, 3, 2);
+        } else {
+            this.validPosition = false;
+        }
+        if (!isEmpty(4)) {
+            this.longNmea = convertPosition(4, 5, 3);
+        } else {
+            this.validPosition = false;
+        }
+        if (!isEmpty(6)) {
+            this.fixQuality = parseInt(6);
+            if (this.fixQuality == 0) {
+                this.validPosition = false;
             }
-        } else if (tokens[0].endsWith("RMC")) {
-            if (tokens.length > 8) {
-                validPosition = true;
-                if (!tokens[1].isEmpty()) {
-                    this.timeNmea = tokens[1];
-                }
-                if (!tokens[2].isEmpty()) { // check validity
-                    if (!new String("A").equals(tokens[2])) {
-                        validPosition = false;
-                    }
-                } else {
-                    validPosition = false;
-                }
-                if (!tokens[3].isEmpty()) {
-                    this.latNmea = convertPositionlat(tokens[3], tokens[4]);
-                } else {
-                    validPosition = false;
-                }
-                if (!tokens[5].isEmpty()) {
-                    this.longNmea = convertPositionlon(tokens[5], tokens[6]);
-                } else {
-                    validPosition = false;
-                }
-                if (!tokens[7].isEmpty()) {
-                    // conversion speed in knots to m/s : 1 m/s = 1.94384449 knots
-                    this.speedNmea = Double.parseDouble(tokens[7]) / 1.94384449;
-                }
-                if (!tokens[8].isEmpty()) {
-                    this.trackNmea = Double.parseDouble(tokens[8]);
-                }
-                if (!tokens[9].isEmpty()) {
-                    this.dateNmea = tokens[9];
-                } else {
-                    validPosition = false;
-                }
-            } else {
-                validPosition = false;
+        } else {
+            this.validPosition = false;
+        }
+        if (!isEmpty(7)) {
+            this.nrSatellites = parseInt(7);
+        } else {
+            this.validPosition = false;
+        }
+        if (!isEmpty(8)) {
+            this.dopNmea = parseDouble(8);
+        } else {
+            this.validPosition = false;
+        }
+        if (!isEmpty(9)) {
+            this.altNmea = parseDouble(9);
+        } else {
+            this.validPosition = false;
+        }
+    }
+
+    private void parseGll() {
+        if (this.fieldCount <= 5) {
+            this.validPosition = false;
+            return;
+        }
+        this.validPosition = true;
+        if (!isEmpty(1)) {
+            this.latNmea = convertPosition(1, 2, 2);
+        } else {
+            this.validPosition = false;
+        }
+        if (!isEmpty(3)) {
+            this.longNmea = convertPosition(3, 4, 3);
+        } else {
+            this.validPosition = false;
+        }
+        if (!isEmpty(5)) {
+            this.timeLength = copyField(5, this.timeNmea);
+        } else {
+            this.validPosition = false;
+        }
+        if (!isField(6, 'A')) { // check validity
+            this.validPosition = false;
+        }
+    }
+
+    private void parseRmc() {
+        if (this.fieldCount <= 8) {
+            this.validPosition = false;
+            return;
+        }
+        this.validPosition = true;
+        if (!isEmpty(1)) {
+            this.timeLength = copyField(1, this.timeNmea);
+        }
+        if (!isField(2, 'A')) { // check validity
+            this.validPosition = false;
+        }
+        if (!isEmpty(3)) {
+            this.latNmea = convertPosition(3, 4, 2);
+        } else {
+            this.validPosition = false;
+        }
+        if (!isEmpty(5)) {
+            this.longNmea = convertPosition(5, 6, 3);
+        } else {
+            this.validPosition = false;
+        }
+        if (!isEmpty(7)) {
+            // conversion speed in knots to m/s : 1 m/s = 1.94384449 knots
+            this.speedNmea = parseDouble(7) / 1.94384449;
+        }
+        if (!isEmpty(8)) {
+            this.trackNmea = parseDouble(8);
+        }
+        if (!isEmpty(9)) {
+            this.dateLength = copyField(9, this.dateNmea);
+        } else {
+            this.validPosition = false;
+        }
+    }
+
+    private void parseGsa() {
+        if (this.fieldCount <= 5) {
+            this.validPosition = false;
+            return;
+        }
+        this.validPosition = true;
+        if (!isEmpty(2)) {
+            this.fix3DNmea = parseInt(2);
+            if (this.fix3DNmea == 1) {
+                this.validPosition = false;
             }
-        } else if (tokens[0].endsWith("GSA")) {
-            if (tokens.length > 5) {
-                validPosition = true;
-                if (!tokens[2].isEmpty()) {
-                    this.fix3DNmea = Integer.parseInt(tokens[2]);
-                    if (this.fix3DNmea == 1) {
-                        validPosition = false;
+        } else {
+            this.validPosition = false;
+        }
+        final int index = this.fieldCount - 3;
+        if (!isEmpty(index)) {
+            this.pdopNmea = parseDouble(index);
+        } else {
+            this.validPosition = false;
+        }
+        if (!isEmpty(index + 1)) {
+            this.hdopNmea = parseDouble(index + 1);
+        } else {
+            this.validPosition = false;
+        }
+        if (!isEmpty(index + 2)) {
+            this.vdopNmea = parseDouble(index + 2);
+        } else {
+            this.validPosition = false;
+        }
+    }
+
+    /**
+     * Verifies the checksum of a sentence, the XOR of the characters between '$' and '*' expressed by the
+     * hexadecimal digits following '*'.
+     *
+     * @param sentence
+     *            the buffer containing the sentence, starting at index 0
+     * @param length
+     *            the length of the sentence, including the optional line terminator
+     * @return {@code true} if the sentence includes a valid checksum
+     */
+    static boolean isChecksumValid(byte[] sentence, int length) {
+        int checksum = 0;
+        int i = 1;
+        while (i < length && sentence[i] != '*') {
+            checksum ^= sentence[i] & 0xff;
+            i++;
+        }
+        if (i >= length) {
+            return false;
+        }
+
+        int expected = 0;
+        int digits = 0;
+        for (i++; i < length; i++) {
+            final int digit = Character.digit(sentence[i], 16);
+            if (digit < 0) {
+                break;
+            }
+            expected = expected << 4 | digit;
+            digits++;
+        }
+        return digits > 0 && digits <= 2 && expected == checksum;
+    }
+
+    /**
+     * Locates the fields of the current sentence, up to the checksum delimiter or the end of the line.
+     */
+    private void split(int length) {
+        int end = 0;
+        while (end < length && this.data[end] != '*' && this.data[end] != '\r' && this.data[end] != '\n') {
+            end++;
+        }
+
+        int count = 0;
+        int start = 0;
+        for (int i = 0; i <= end && count < MAX_FIELDS; i++) {
+            if (i == end || this.data[i] == ',') {
+                this.fieldStart[count] = start;
+                this.fieldEnd[count] = i;
+                count++;
+                start = i + 1;
+            }
+        }
+        // like String.split(), the trailing empty fields are not counted
+        while (count > 1 && this.fieldStart[count - 1] == this.fieldEnd[count - 1]) {
+            count--;
+        }
+        this.fieldCount = count;
+    }
+
+    private boolean typeEndsWith(char c1, char c2, char c3) {
+        final int end = this.fieldEnd[0];
+        return end - this.fieldStart[0] >= 3 && this.data[end - 3] == c1 && this.data[end - 2] == c2
+                && this.data[end - 1] == c3;
+    }
+
+    private boolean isEmpty(int field) {
+        return field >= this.fieldCount || this.fieldStart[field] == this.fieldEnd[field];
+    }
+
+    private boolean isField(int field, char value) {
+        return !isEmpty(field) && this.fieldEnd[field] - this.fieldStart[field] == 1
+                && this.data[this.fieldStart[field]] == value;
+    }
+
+    private boolean fieldContains(int field, char value) {
+        if (isEmpty(field)) {
+            return false;
+        }
+        for (int i = this.fieldStart[field]; i < this.fieldEnd[field]; i++) {
+            if (this.data[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int copyField(int field, byte[] target) {
+        final int length = Math.min(this.fieldEnd[field] - this.fieldStart[field], target.length);
+        System.arraycopy(this.data, this.fieldStart[field], target, 0, length);
+        return length;
+    }
+
+    private int parseInt(int field) {
+        return (int) parseDecimal(this.data, this.fieldStart[field], this.fieldEnd[field]);
+    }
+
+    private double parseDouble(int field) {
+        return parseDecimal(this.data, this.fieldStart[field], this.fieldEnd[field]);
+    }
+
+    /**
+     * Parses an optionally signed decimal number without exponent.
+     *
+     * @throws NumberFormatException
+     *             if the characters are not a valid number
+     */
+    static double parseDecimal(byte[] buffer, int start, int end) {
+        if (start >= end) {
+            throw new NumberFormatException("Empty field");
+        }
+        boolean negative = false;
+        int i = start;
+        if (buffer[i] == '-' || buffer[i] == '+') {
+            negative = buffer[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int scale = -1;
+        int digits = 0;
+        for (; i < end; i++) {
+            final byte c = buffer[i];
+            if (c >= '0' && c <= '9') {
+                if (digits < MAX_DIGITS) {
+                    mantissa = mantissa * 10 + c - '0';
+                    digits++;
+                    if (scale >= 0) {
+                        scale++;
                     }
-                } else {
-                    validPosition = false;
-                }
-                int index = tokens.length - 3;
-                if (!tokens[index].isEmpty()) {
-                    this.pdopNmea = Double.parseDouble(tokens[index]);
-                } else {
-                    validPosition = false;
-                }
-                if (!tokens[index + 1].isEmpty()) {
-                    this.hdopNmea = Double.parseDouble(tokens[index + 1]);
-                } else {
-                    validPosition = false;
-                }
-                if (!tokens[index + 2].isEmpty()) {
-                    this.vdopNmea = Double.parseDouble(tokens[index + 2]);
-                } else {
-                    validPosition = false;
+                } else if (scale < 0) {
+                    throw new NumberFormatException("Too many digits");
                 }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
             } else {
-                validPosition = false;
-            }
-        } else if (tokens[0].endsWith("VTG")) {
-            if (tokens.length > 7 && !tokens[7].isEmpty()) {
-                // conversion km/h in m/s : 1 km/h -> 0,277777778 m/s;
-                this.speedNmea = Double.parseDouble(tokens[7]) * 0.277777778;
+                throw new NumberFormatException("Invalid character in numeric field");
             }
         }
+        if (digits == 0) {
+            throw new NumberFormatException("No digits in numeric field");
+        }
+
+        // both operands are exact, so the division is correctly rounded like Double.parseDouble()
+        final double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+        return negative ? -value : value;
     }
 
     /**
-     * @param pos
+     * @param posField
      *            DDD?MM?.dddd
-     * @param direction
+     * @param directionField
      *            N/S, E/W
      * @param degChars
      *            number of characters representing degrees
      * @return
      */
-    private double convertPosition(String pos, String direction, int degChars) {
-        if (pos.length() < 6) {
+    private double convertPosition(int posField, int directionField, int degChars) {
+        return convertPosition(this.data, this.fieldStart[posField], this.fieldEnd[posField], degChars,
+                fieldContains(directionField, 'S') || fieldContains(directionField, 'W'));
+    }
+
+    private static double convertPosition(byte[] buffer, int start, int end, int degChars, boolean negative) {
+        if (end - start < 6) {
             return 0;
         }
 
-        String s = pos.substring(0, degChars);
-        double deg = Double.parseDouble(s);
-        s = pos.substring(degChars);
-        double min = Double.parseDouble(s);
+        double deg = parseDecimal(buffer, start, start + degChars);
+        final double min = parseDecimal(buffer, start + degChars, end);
         deg = deg + min / 60;
-        if (direction.contains("S") || direction.contains("W")) {
+        if (negative) {
             deg = -deg;
         }
         return deg;
     }
 
     double convertPositionlat(String pos, String direction) {
-        return convertPosition(pos, direction, 2);
+        final byte[] buffer = pos.getBytes(StandardCharsets.US_ASCII);
+        return convertPosition(buffer, 0, buffer.length, 2, direction.contains("S") || direction.contains("W"));
     }
 
     double convertPositionlon(String pos, String direction) {
-        return convertPosition(pos, direction, 3);
+        final byte[] buffer = pos.getBytes(StandardCharsets.US_ASCII);
+        return convertPosition(buffer, 0, buffer.length, 3, direction.contains("S") || direction.contains("W"));
     }
 
     public String getTimeNmea() {
-        return this.timeNmea;
+        return this.timeLength < 0 ? null : new String(this.timeNmea, 0, this.timeLength, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Returns {@code true} if the time of the last sentence equals the provided one, without allocating a
+     * {@link String}.
+     */
+    boolean isTimeNmea(String time) {
+        return equalsAscii(this.timeNmea, this.timeLength, time);
     }
 
     public int getFixQuality() {
@@ -248,7 +459,30 @@ public class NMEAParser {
     }
 
     public String getDateNmea() {
-        return this.dateNmea;
+        return this.dateLength < 0 ? null : new String(this.dateNmea, 0, this.dateLength, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Returns {@code true} if the date of the last sentence equals the provided one, without allocating a
+     * {@link String}.
+     */
+    boolean isDateNmea(String date) {
+        return equalsAscii(this.dateNmea, this.dateLength, date);
+    }
+
+    private static boolean equalsAscii(byte[] buffer, int length, String value) {
+        if (length < 0 || value == null) {
+            return length < 0 && value == null;
+        }
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public double getLongNmea() {
@@ -296,7 +530,7 @@ public class NMEAParser {
     }
 
     public boolean isValidPosition() {
-        return validPosition;
+        return this.validPosition;
     }
 
 }
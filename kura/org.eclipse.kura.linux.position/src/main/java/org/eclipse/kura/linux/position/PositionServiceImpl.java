@@ -18,10 +18,6 @@ import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 
 import org.eclipse.kura.configuration.ConfigurableComponent;
 import org.eclipse.kura.net.modem.ModemGpsDisabledEvent;
@@ -51,26 +47,25 @@ public class PositionServiceImpl implements PositionService, ConfigurableCompone
 
     private static final Logger logger = LoggerFactory.getLogger(PositionServiceImpl.class);
 
-    private final static long THREAD_TERMINATION_TOUT = 1; // in seconds
+    /** Topic of the events posted for every new position of the GPS device, while the position is valid. */
+    public static final String POSITION_UPDATED_EVENT_TOPIC = "org/eclipse/kura/position/updated";
 
-    private static Future<?> monitorTask;
-    private static boolean stopThread;
+    /** Property of the position updated events containing the {@link NmeaPosition}. */
+    public static final String POSITION_PROPERTY = "position";
 
     private Map<String, Object> properties;
     private Map<String, Object> positionServiceProperties;
     private ConnectionFactory connectionFactory;
     private Map<String, PositionListener> positionListeners;
     private GpsDevice gpsDevice;
-    private ExecutorService executor;
     private EventAdmin eventAdmin;
     private UsbService usbService;
 
-    private final int pollInterval = 500;	// milliseconds
     private boolean configured;
     private boolean useGpsd = false;
     private boolean configEnabled;
     private boolean isRunning;
-    private boolean hasLock;
+    private volatile boolean hasLock;
 
     // to avoid NPE don't return a null pointer
     private Position defaultPosition = null;
@@ -130,7 +125,6 @@ public class PositionServiceImpl implements PositionService, ConfigurableCompone
         this.useGpsd = false;
         initializeDefaultPosition(0, 0, 0);
 
-        this.executor = Executors.newSingleThreadExecutor();
         this.properties = new HashMap<String, Object>();
         this.positionServiceProperties = new HashMap<String, Object>();
 
@@ -150,17 +144,6 @@ public class PositionServiceImpl implements PositionService, ConfigurableCompone
 
     protected void deactivate(ComponentContext componentContext) {
         stop();
-        if (this.executor != null) {
-            logger.debug("Terminating PositionServiceImpl Thread ...");
-            this.executor.shutdownNow();
-            try {
-                this.executor.awaitTermination(THREAD_TERMINATION_TOUT, TimeUnit.SECONDS);
-            } catch (InterruptedException e) {
-                logger.warn("Interrupted", e);
-            }
-            logger.info("PositionServiceImpl Thread terminated? - {}", this.executor.isTerminated());
-            this.executor = null;
-        }
 
         this.properties = null;
         this.positionServiceProperties = null;
@@ -349,45 +332,29 @@ public class PositionServiceImpl implements PositionService, ConfigurableCompone
 
     private void start() {
         logger.debug("PositionService configured and starting");
-        stopThread = false;
-        if (monitorTask == null) {
-            monitorTask = this.executor.submit(new Runnable() {
-
-                @Override
-                public void run() {
-                    Thread.currentThread().setName("PositionServiceImpl");
-                    while (!stopThread) {
-                        performPoll();
-                        try {
-                            Thread.sleep(PositionServiceImpl.this.pollInterval);
-                        } catch (InterruptedException e) {
-                            // e.printStackTrace();
-                            // exit silently ...
-                        }
-                        ;
-                    }
-                }
-            });
-        }
-
         this.isRunning = true;
+
+        // the device may have reported a valid position before being configured
+        if (this.useGpsd) {
+            updateLock(this.gpsdIsValidPosition);
+        } else if (this.gpsDevice != null) {
+            updateLock(this.gpsDevice.isValidPosition());
+        }
     }
 
     private void stop() {
         logger.debug("PositionService stopping");
-        if (monitorTask != null && !monitorTask.isDone()) {
-            stopThread = true;
-            monitorTask.cancel(true);
-            monitorTask = null;
+        synchronized (this) {
+            // no more events from the device being disconnected
+            this.configured = false;
+            this.configEnabled = false;
+            this.hasLock = false;
         }
         if (this.gpsDevice != null) {
             this.gpsDevice.disconnect();
         }
 
-        this.configured = false;
-        this.configEnabled = false;
         this.isRunning = false;
-        this.hasLock = false;
     }
 
     private void initializeDefaultPosition(double lat, double lon, double alt) {
@@ -419,14 +386,12 @@ public class PositionServiceImpl implements PositionService, ConfigurableCompone
                 l_trackNmea, l_fixQuality, l_nrSatellites, l_DOP, l_PDOP, l_HDOP, l_VDOP, l_3Dfix);
     }
 
-    private void performPoll() {
+    /**
+     * Posts the position events when the validity of the position changes, called by the GPS device as soon as a
+     * sentence changes it.
+     */
+    private synchronized void updateLock(boolean isValidPosition) {
         if (this.configEnabled && this.configured) {
-            boolean isValidPosition;
-            if (this.useGpsd) {
-                isValidPosition = this.gpsdIsValidPosition;
-            } else {
-                isValidPosition = this.gpsDevice.isValidPosition();
-            }
             if (isValidPosition) {
                 if (!this.hasLock) {
                     this.hasLock = true;
@@ -450,6 +415,17 @@ public class PositionServiceImpl implements PositionService, ConfigurableCompone
         }
     }
 
+    /**
+     * Posts a position updated event, called by the GPS device for every new position.
+     */
+    private synchronized void updatePosition(NmeaPosition position) {
+        if (this.configEnabled && this.configured && this.hasLock) {
+            Map<String, Object> eventProperties = new HashMap<String, Object>();
+            eventProperties.put(POSITION_PROPERTY, position);
+            this.eventAdmin.postEvent(new Event(POSITION_UPDATED_EVENT_TOPIC, eventProperties));
+        }
+    }
+
     private void configureGpsDevice() throws Exception {
 
         Properties serialProperties = getSerialConnectionProperties(this.properties);
@@ -474,6 +450,18 @@ public class PositionServiceImpl implements PositionService, ConfigurableCompone
 
                 // configure connection & protocol
                 GpsDevice gpsDevice = new GpsDevice();
+                gpsDevice.setDeviceListener(new GpsDevice.DeviceListener() {
+
+                    @Override
+                    public void onValidityChanged(boolean validPosition) {
+                        updateLock(validPosition);
+                    }
+
+                    @Override
+                    public void onPositionChanged(NmeaPosition position) {
+                        updatePosition(position);
+                    }
+                });
                 gpsDevice.configureConnection(this.connectionFactory, serialProperties);
                 gpsDevice.configureProtocol(getProtocolProperties());
                 this.gpsDevice = gpsDevice;
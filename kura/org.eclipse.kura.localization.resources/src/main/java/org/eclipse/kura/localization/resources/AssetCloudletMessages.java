@@ -79,6 +79,9 @@ public interface AssetCloudletMessages {
     @En("Deactivating Asset Cloudlet...Done")
     public String deactivatingDone();
 
+    @En("Properties cannot be null")
+    public String propertiesNonNull();
+
     @En("Response Payload cannot be null")
     public String respPayloadNonNull();
 
@@ -91,6 +94,12 @@ public interface AssetCloudletMessages {
     @En("The provided value type is erroneous")
     public String valueTypeConversionError();
 
+    @En("Updating Asset Cloudlet...")
+    public String updating();
+
+    @En("Updating Asset Cloudlet...Done")
+    public String updatingDone();
+
     @En("Unknown error")
     public String unknownError();
 
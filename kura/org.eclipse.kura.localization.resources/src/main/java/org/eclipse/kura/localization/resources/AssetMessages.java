@@ -161,6 +161,9 @@ public interface AssetMessages {
     @En("Error while retrieving channels from the provided configurable properties...")
     public String errorRetrievingChannels();
 
+    @En("Invalid poll interval of channel {}, the channel will be read on every trigger")
+    public String errorPollInterval();
+
     @En("field name")
     public String fieldName();
 
@@ -191,6 +194,9 @@ public interface AssetMessages {
     @En("Old Attribute Definition cannot be null")
     public String oldAdNonNull();
 
+    @En("Minimum interval in milliseconds between two reads of the channel performed on Wire Graph triggers, 0 to read the channel on every trigger. The channels with the same interval are read together")
+    public String pollInterval();
+
     @En("Prefix cannot be null")
     public String prefixNonNull();
 
@@ -215,6 +221,9 @@ public interface AssetMessages {
     @En("Registering Channel Listener for monitoring...Done")
     public String registeringListenerDone();
 
+    @En("Timeout in milliseconds of the asynchronous read and write operations, including the time spent waiting for the other operations on the same driver")
+    public String requestTimeout();
+
     @En("Retrieving single channel information from the properties...")
     public String retrievingChannel();
 
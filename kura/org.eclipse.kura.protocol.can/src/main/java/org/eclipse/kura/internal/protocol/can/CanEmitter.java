@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.protocol.can;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.protocol.can.CanConnectionService;
+import org.eclipse.kura.protocol.can.CanMessage;
+import org.eclipse.kura.protocol.can.CanMessageListener;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.wire.WireEmitter;
+import org.eclipse.kura.wire.WireHelperService;
+import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.WireSupport;
+import org.osgi.service.wireadmin.Wire;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Wire Component emitting the frames received from a CAN interface.
+ * <p>
+ * Each batch of frames delivered by the {@link CanConnectionService} is emitted as a single envelope containing a
+ * {@link WireRecord} per frame, with the {@code interface}, {@code id} and {@code data} properties.
+ */
+public class CanEmitter implements WireEmitter, ConfigurableComponent, CanMessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CanEmitter.class);
+
+    private static final String INTERFACE_PROP_NAME = "can.interface";
+    private static final String ID_PROP_NAME = "can.id";
+    private static final String MASK_PROP_NAME = "can.mask";
+
+    private static final String INTERFACE_PROPERTY = "interface";
+    private static final String ID_PROPERTY = "id";
+    private static final String DATA_PROPERTY = "data";
+
+    private volatile WireHelperService wireHelperService;
+    private volatile CanConnectionService canConnectionService;
+
+    private WireSupport wireSupport;
+
+    public void bindWireHelperService(final WireHelperService wireHelperService) {
+        if (this.wireHelperService == null) {
+            this.wireHelperService = wireHelperService;
+        }
+    }
+
+    public void unbindWireHelperService(final WireHelperService wireHelperService) {
+        if (this.wireHelperService == wireHelperService) {
+            this.wireHelperService = null;
+        }
+    }
+
+    public void bindCanConnectionService(final CanConnectionService canConnectionService) {
+        if (this.canConnectionService == null) {
+            this.canConnectionService = canConnectionService;
+        }
+    }
+
+    public void unbindCanConnectionService(final CanConnectionService canConnectionService) {
+        if (this.canConnectionService == canConnectionService) {
+            this.canConnectionService = null;
+        }
+    }
+
+    protected void activate(final Map<String, Object> properties) {
+        logger.info("Activating CAN Emitter...");
+        this.wireSupport = this.wireHelperService.newWireSupport(this);
+        register(properties);
+        logger.info("Activating CAN Emitter... Done");
+    }
+
+    protected void updated(final Map<String, Object> properties) {
+        logger.info("Updating CAN Emitter...");
+        this.canConnectionService.unregisterCanMessageListener(this);
+        register(properties);
+        logger.info("Updating CAN Emitter... Done");
+    }
+
+    protected void deactivate() {
+        logger.info("Deactivating CAN Emitter...");
+        this.canConnectionService.unregisterCanMessageListener(this);
+        logger.info("Deactivating CAN Emitter... Done");
+    }
+
+    private void register(final Map<String, Object> properties) {
+        final String ifName = (String) properties.getOrDefault(INTERFACE_PROP_NAME, "can0");
+        final int canId = ((Number) properties.getOrDefault(ID_PROP_NAME, 0)).intValue();
+        final int canMask = ((Number) properties.getOrDefault(MASK_PROP_NAME, 0)).intValue();
+        try {
+            this.canConnectionService.registerCanMessageListener(ifName, canId, canMask, this);
+        } catch (IOException e) {
+            logger.error("Unable to receive from CAN interface {}", ifName, e);
+        }
+    }
+
+    @Override
+    public void onCanMessages(final String ifName, final List<CanMessage> messages) {
+        final List<WireRecord> wireRecords = new ArrayList<>(messages.size());
+        final TypedValue<?> interfaceValue = TypedValues.newStringValue(ifName);
+        for (final CanMessage message : messages) {
+            final Map<String, TypedValue<?>> properties = new HashMap<>();
+            properties.put(INTERFACE_PROPERTY, interfaceValue);
+            properties.put(ID_PROPERTY, TypedValues.newIntegerValue(message.getCanId()));
+            properties.put(DATA_PROPERTY, TypedValues.newByteArrayValue(message.getData()));
+            wireRecords.add(new WireRecord(properties));
+        }
+        this.wireSupport.emit(wireRecords);
+    }
+
+    @Override
+    public Object polled(final Wire wire) {
+        return this.wireSupport.polled(wire);
+    }
+
+    @Override
+    public void consumersConnected(final Wire[] wires) {
+        this.wireSupport.consumersConnected(wires);
+    }
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.protocol.can;
+
+import java.util.Arrays;
+
+import org.eclipse.kura.protocol.can.CanMessageListener;
+
+/**
+ * The id/mask filters a listener has been registered with on an interface. Instances are immutable.
+ */
+public final class CanFilterSet {
+
+    static final int CAN_EFF_MASK = 0x1FFFFFFF;
+
+    private final CanMessageListener listener;
+    private final int[] ids;
+    private final int[] masks;
+
+    public CanFilterSet(CanMessageListener listener, int canId, int canMask) {
+        this(listener, new int[] { canId & canMask & CAN_EFF_MASK }, new int[] { canMask & CAN_EFF_MASK });
+    }
+
+    private CanFilterSet(CanMessageListener listener, int[] ids, int[] masks) {
+        this.listener = listener;
+        this.ids = ids;
+        this.masks = masks;
+    }
+
+    public CanMessageListener getListener() {
+        return this.listener;
+    }
+
+    /**
+     * Returns a set including the filters of this one and the provided filter.
+     */
+    public CanFilterSet with(int canId, int canMask) {
+        final int[] newIds = Arrays.copyOf(this.ids, this.ids.length + 1);
+        final int[] newMasks = Arrays.copyOf(this.masks, this.masks.length + 1);
+        newIds[this.ids.length] = canId & canMask & CAN_EFF_MASK;
+        newMasks[this.masks.length] = canMask & CAN_EFF_MASK;
+        return new CanFilterSet(this.listener, newIds, newMasks);
+    }
+
+    public boolean matches(int canId) {
+        for (int i = 0; i < this.ids.length; i++) {
+            if ((canId & this.masks[i]) == this.ids[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the single id/mask pair accepting at least the frames accepted by any of the provided sets: the
+     * mask keeps only the bits that are significant for all the filters and have the same value in all the ids.
+     *
+     * @return an array containing the id and the mask
+     */
+    static int[] union(Iterable<CanFilterSet> filterSets) {
+        boolean first = true;
+        int id = 0;
+        int mask = 0;
+        for (final CanFilterSet filterSet : filterSets) {
+            for (int i = 0; i < filterSet.ids.length; i++) {
+                if (first) {
+                    id = filterSet.ids[i];
+                    mask = filterSet.masks[i];
+                    first = false;
+                } else {
+                    mask &= filterSet.masks[i] & ~(id ^ filterSet.ids[i]);
+                }
+            }
+        }
+        return new int[] { id & mask, mask };
+    }
+}
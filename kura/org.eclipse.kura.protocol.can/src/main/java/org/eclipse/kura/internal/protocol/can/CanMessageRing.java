@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.protocol.can;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.eclipse.kura.protocol.can.CanMessage;
+
+/**
+ * A bounded single producer, single consumer queue of {@link CanMessage} instances.
+ * <p>
+ * The producer never blocks: if the ring is full {@link #offer(CanMessage)} returns {@code false} and the message
+ * is counted as dropped. The consumer drains the available messages in batches and parks while the ring is empty,
+ * the producer only unparks it if it is actually waiting.
+ */
+final class CanMessageRing {
+
+    private final CanMessage[] buffer;
+    private final int mask;
+
+    /** Index of the next slot to be read, only written by the consumer. */
+    private final AtomicLong head = new AtomicLong();
+    /** Index of the next slot to be written, only written by the producer. */
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile Thread waitingConsumer;
+
+    /**
+     * Creates a ring, the capacity is rounded up to the next power of two.
+     */
+    CanMessageRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.buffer = new CanMessage[size];
+        this.mask = size - 1;
+    }
+
+    int capacity() {
+        return this.buffer.length;
+    }
+
+    /**
+     * Adds a message to the ring, must only be called by the producer thread.
+     *
+     * @return {@code false} if the ring was full and the message has been dropped
+     */
+    boolean offer(CanMessage message) {
+        final long currentTail = this.tail.get();
+        if (currentTail - this.head.get() >= this.buffer.length) {
+            this.dropped.incrementAndGet();
+            return false;
+        }
+        this.buffer[(int) (currentTail & this.mask)] = message;
+        this.tail.set(currentTail + 1);
+
+        final Thread consumer = this.waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Moves up to {@code maxMessages} messages to the provided list, must only be called by the consumer thread.
+     *
+     * @return the number of messages moved
+     */
+    int drainTo(List<CanMessage> target, int maxMessages) {
+        final long currentHead = this.head.get();
+        final int count = (int) Math.min(this.tail.get() - currentHead, maxMessages);
+        for (int i = 0; i < count; i++) {
+            final int index = (int) (currentHead + i & this.mask);
+            target.add(this.buffer[index]);
+            this.buffer[index] = null;
+        }
+        this.head.lazySet(currentHead + count);
+        return count;
+    }
+
+    /**
+     * Waits until at least a message is available, the timeout expires or the calling thread is unparked.
+     * Must only be called by the consumer thread.
+     *
+     * @return {@code true} if the ring is not empty
+     */
+    boolean await(long timeout, TimeUnit unit) {
+        if (!isEmpty()) {
+            return true;
+        }
+        this.waitingConsumer = Thread.currentThread();
+        try {
+            // checked again after publishing the waiting thread, so that a concurrent offer cannot be missed
+            if (isEmpty()) {
+                LockSupport.parkNanos(this, unit.toNanos(timeout));
+            }
+        } finally {
+            this.waitingConsumer = null;
+        }
+        return !isEmpty();
+    }
+
+    boolean isEmpty() {
+        return this.tail.get() == this.head.get();
+    }
+
+    /**
+     * Returns the number of messages dropped because the ring was full.
+     */
+    long getDroppedCount() {
+        return this.dropped.get();
+    }
+}
@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.protocol.can;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.protocol.can.CanMessage;
+import org.eclipse.kura.protocol.can.CanMessageListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.entropia.can.CanSocket;
+import de.entropia.can.CanSocket.CanFrame;
+import de.entropia.can.CanSocket.CanInterface;
+import de.entropia.can.CanSocket.Mode;
+
+/**
+ * Receives the frames of a CAN interface and delivers them to the registered listeners.
+ * <p>
+ * The receiver owns a RAW socket bound to the interface, whose kernel filter is programmed with the union of the
+ * filters of all the listeners, so that the frames nobody is interested in are discarded by the kernel. A receive
+ * thread only reads the frames and hands them over to a dispatch thread through a {@link CanMessageRing}, the
+ * dispatch thread drains them in batches and applies the exact filters of each listener. A slow listener therefore
+ * never delays the reads from the socket: if the ring fills up the newest frames are dropped and counted.
+ */
+public class CanReceiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(CanReceiver.class);
+
+    private static final long RETRY_DELAY_MS = 1000;
+    private static final long IDLE_CHECK_MS = 500;
+
+    private final String ifName;
+    private final CanMessageRing ring;
+    private final int maxBatchSize;
+
+    private volatile List<CanFilterSet> filterSets = Collections.emptyList();
+    private volatile boolean running;
+
+    private CanSocket socket;
+    private Thread receiveThread;
+    private Thread dispatchThread;
+    private long reportedDrops;
+
+    /**
+     * @param ifName
+     *            the name of the interface (eg "can0")
+     * @param ringCapacity
+     *            the maximum number of frames waiting to be dispatched
+     * @param maxBatchSize
+     *            the maximum number of frames delivered to a listener with a single call
+     */
+    public CanReceiver(String ifName, int ringCapacity, int maxBatchSize) {
+        this.ifName = ifName;
+        this.ring = new CanMessageRing(ringCapacity);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public String getInterfaceName() {
+        return this.ifName;
+    }
+
+    /**
+     * Opens the socket and starts the receive and dispatch threads.
+     *
+     * @throws IOException
+     *             if the socket cannot be opened or bound to the interface
+     */
+    public synchronized void start() throws IOException {
+        if (this.running) {
+            return;
+        }
+        final CanSocket newSocket = new CanSocket(Mode.RAW);
+        try {
+            newSocket.bind(new CanInterface(newSocket, this.ifName));
+            applyKernelFilter(newSocket, this.filterSets);
+        } catch (IOException e) {
+            closeQuietly(newSocket);
+            throw e;
+        }
+        this.socket = newSocket;
+        this.running = true;
+
+        this.receiveThread = new Thread(this::receive, "CanReceiver-" + this.ifName);
+        this.receiveThread.setDaemon(true);
+        this.dispatchThread = new Thread(this::dispatch, "CanDispatcher-" + this.ifName);
+        this.dispatchThread.setDaemon(true);
+        this.dispatchThread.start();
+        this.receiveThread.start();
+        logger.info("Started receiving from CAN interface {}", this.ifName);
+    }
+
+    /**
+     * Stops the dispatch of the frames and closes the socket. The receive thread terminates as soon as the
+     * pending read returns.
+     */
+    public synchronized void stop() {
+        if (!this.running) {
+            return;
+        }
+        this.running = false;
+        closeQuietly(this.socket);
+        this.socket = null;
+        this.dispatchThread.interrupt();
+        this.receiveThread = null;
+        this.dispatchThread = null;
+        logger.info("Stopped receiving from CAN interface {}", this.ifName);
+    }
+
+    /**
+     * Replaces the filters of the listeners and reprograms the kernel filter of the socket accordingly.
+     */
+    public synchronized void setFilterSets(Collection<CanFilterSet> filterSets) throws IOException {
+        final List<CanFilterSet> newFilterSets = Collections.unmodifiableList(new ArrayList<>(filterSets));
+        if (this.socket != null) {
+            applyKernelFilter(this.socket, newFilterSets);
+        }
+        this.filterSets = newFilterSets;
+    }
+
+    /**
+     * Returns the number of frames dropped because the listeners could not keep up with the interface.
+     */
+    public long getDroppedCount() {
+        return this.ring.getDroppedCount();
+    }
+
+    private static void applyKernelFilter(CanSocket socket, List<CanFilterSet> filterSets) throws IOException {
+        final int[] filter = CanFilterSet.union(filterSets);
+        socket.setCanFilter(filter[0], filter[1]);
+    }
+
+    private void receive() {
+        final CanSocket receiveSocket;
+        synchronized (this) {
+            receiveSocket = this.socket;
+        }
+        while (this.running) {
+            try {
+                final CanFrame frame = receiveSocket.recv();
+
+                final CanMessage message = new CanMessage();
+                message.setCanId(frame.getCanId().getCanId_EFF());
+                message.setData(frame.getData());
+                this.ring.offer(message);
+            } catch (IOException e) {
+                if (!this.running) {
+                    break;
+                }
+                logger.warn("Error receiving from CAN interface {}: {}", this.ifName, e.getMessage());
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    private void dispatch() {
+        while (this.running) {
+            if (!this.ring.await(IDLE_CHECK_MS, TimeUnit.MILLISECONDS)) {
+                continue;
+            }
+            // not reused, listeners are allowed to keep the delivered lists
+            final List<CanMessage> batch = new ArrayList<>(Math.min(this.maxBatchSize, this.ring.capacity()));
+            this.ring.drainTo(batch, this.maxBatchSize);
+            deliver(batch);
+            reportDrops();
+        }
+    }
+
+    private void deliver(List<CanMessage> batch) {
+        final List<CanMessage> unmodifiableBatch = Collections.unmodifiableList(batch);
+        for (final CanFilterSet filterSet : this.filterSets) {
+            final List<CanMessage> matching = select(filterSet, batch, unmodifiableBatch);
+            if (matching.isEmpty()) {
+                continue;
+            }
+            final CanMessageListener listener = filterSet.getListener();
+            try {
+                listener.onCanMessages(this.ifName, matching);
+            } catch (Exception e) {
+                logger.warn("CAN message listener failure", e);
+            }
+        }
+    }
+
+    /**
+     * Returns the messages of the batch matching the filters, the whole batch is returned without copies if all
+     * the messages match.
+     */
+    private static List<CanMessage> select(CanFilterSet filterSet, List<CanMessage> batch,
+            List<CanMessage> unmodifiableBatch) {
+        final int size = batch.size();
+        int i = 0;
+        while (i < size && filterSet.matches(batch.get(i).getCanId())) {
+            i++;
+        }
+        if (i == size) {
+            return unmodifiableBatch;
+        }
+        final List<CanMessage> matching = new ArrayList<>(batch.subList(0, i));
+        for (i++; i < size; i++) {
+            final CanMessage message = batch.get(i);
+            if (filterSet.matches(message.getCanId())) {
+                matching.add(message);
+            }
+        }
+        return matching;
+    }
+
+    private void reportDrops() {
+        final long drops = this.ring.getDroppedCount();
+        if (drops != this.reportedDrops) {
+            logger.warn("{} frames dropped from CAN interface {}, listeners are too slow", drops - this.reportedDrops,
+                    this.ifName);
+            this.reportedDrops = drops;
+        }
+    }
+
+    private static void closeQuietly(CanSocket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            logger.warn("Error closing CAN socket", e);
+        }
+    }
+}
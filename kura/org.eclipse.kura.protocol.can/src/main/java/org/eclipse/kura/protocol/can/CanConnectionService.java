@@ -65,4 +65,39 @@ public interface CanConnectionService {
      * @throws IOException
      */
     public CanMessage receiveCanMessage(int canId, int canMask) throws IOException;
+
+    /**
+     * Registers a listener for the frames received on an interface.
+     * <p>
+     * A frame is delivered to the listener if {@code (frameId & canMask) == (canId & canMask)}, a {@code canMask}
+     * of 0 selects all the frames. The same listener can be registered more than once to receive the frames
+     * matching any of several filters, a frame matching more than one of them is delivered only once.
+     * <p>
+     * Frames are read by a thread dedicated to the interface, started with the first registration and stopped
+     * when the last listener of the interface is unregistered, and do not interfere with
+     * {@link #receiveCanMessage(int, int)}.
+     *
+     * @param ifName
+     *            the name of the interface (eg "can0")
+     * @param canId
+     *            id to be filtered
+     * @param canMask
+     *            mask to be applied to the id
+     * @param listener
+     *            the listener to be notified
+     * @throws IOException
+     *             if the interface cannot be opened
+     * @since 2.1
+     */
+    public void registerCanMessageListener(String ifName, int canId, int canMask, CanMessageListener listener)
+            throws IOException;
+
+    /**
+     * Removes all the registrations of a listener.
+     *
+     * @param listener
+     *            the listener to be removed
+     * @since 2.1
+     */
+    public void unregisterCanMessageListener(CanMessageListener listener);
 }
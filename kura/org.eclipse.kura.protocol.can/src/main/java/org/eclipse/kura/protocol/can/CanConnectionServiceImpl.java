@@ -12,9 +12,16 @@
 package org.eclipse.kura.protocol.can;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.kura.KuraErrorCode;
 import org.eclipse.kura.KuraException;
+import org.eclipse.kura.internal.protocol.can.CanFilterSet;
+import org.eclipse.kura.internal.protocol.can.CanReceiver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,14 +34,47 @@ import de.entropia.can.CanSocket.Mode;
 public class CanConnectionServiceImpl implements CanConnectionService {
 
     private static final Logger s_logger = LoggerFactory.getLogger(CanConnectionServiceImpl.class);
-    
+
+    private static final int CAN_SFF_MAX_ID = 0x7FF;
+    private static final int RING_CAPACITY = 4096;
+    private static final int MAX_BATCH_SIZE = 256;
+
     private CanSocket socket = null;
+    private int socketFilterId = -1;
+    private int socketFilterMask;
+
+    private final Map<String, Sender> senders = new ConcurrentHashMap<String, Sender>();
+    private final Map<String, CanReceiver> receivers = new HashMap<String, CanReceiver>();
+    private final Map<String, Map<CanMessageListener, CanFilterSet>> filterSets = new HashMap<String, Map<CanMessageListener, CanFilterSet>>();
 
     protected void activate() {
         s_logger.info("activating CanConnectionService");
     }
 
+    /**
+     * Returns whether the frames sent by this service are looped back to the other CAN sockets of the host, including
+     * the socket used by {@link #receiveCanMessage(int, int)} and the sockets of the registered listeners. The
+     * default is {@code false}, subclasses can enable the loopback for example to test the reception without a
+     * remote node.
+     *
+     * @return {@code true} to enable the loopback of the sent frames
+     */
+    protected boolean isLoopbackEnabled() {
+        return false;
+    }
+
     protected void deactivate() {
+        synchronized (this.receivers) {
+            for (CanReceiver receiver : this.receivers.values()) {
+                receiver.stop();
+            }
+            this.receivers.clear();
+            this.filterSets.clear();
+        }
+        for (Sender sender : this.senders.values()) {
+            sender.close();
+        }
+        this.senders.clear();
         if (this.socket != null) {
             try {
                 this.socket.close();
@@ -49,15 +89,22 @@ public class CanConnectionServiceImpl implements CanConnectionService {
         this.socket = new CanSocket(Mode.RAW);
         this.socket.setLoopbackMode(false);
         this.socket.bind(CanSocket.CAN_ALL_INTERFACES);
+        this.socketFilterId = -1;
     }
-    
+
     @Override
     public void disconnectCanSocket() throws IOException {
         if (this.socket != null) {
             this.socket.close();
         }
     }
-    
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Frames are sent through a socket dedicated to the interface, bound once and reused by the following calls.
+     * Ids above 0x7FF are sent as extended frames.
+     */
     @Override
     public void sendCanMessage(String ifName, int canId, byte[] message) throws KuraException, IOException {
         if (message.length > 8) {
@@ -65,11 +112,13 @@ public class CanConnectionServiceImpl implements CanConnectionService {
         }
 
         try {
-            CanInterface canif = new CanInterface(this.socket, ifName);
-            socket.bind(canif);
-            socket.send(new CanFrame(canif, new CanId(canId), message));
+            getSender(ifName).send(canId, message);
         } catch (IOException e) {
             s_logger.error("Error on CanSocket in sendCanMessage: {}", e.getMessage());
+            final Sender sender = this.senders.remove(ifName);
+            if (sender != null) {
+                sender.close();
+            }
             throw e;
         }
     }
@@ -77,8 +126,10 @@ public class CanConnectionServiceImpl implements CanConnectionService {
     @Override
     public CanMessage receiveCanMessage(int canId, int canMask) throws IOException {
         try {
-            if (canId >= 0) {
+            if (canId >= 0 && (canId != this.socketFilterId || canMask != this.socketFilterMask)) {
                 this.socket.setCanFilter(canId, canMask);
+                this.socketFilterId = canId;
+                this.socketFilterMask = canMask;
             }
             CanFrame cf = this.socket.recv();
             CanId ci = cf.getCanId();
@@ -93,4 +144,117 @@ public class CanConnectionServiceImpl implements CanConnectionService {
         }
     }
 
+    @Override
+    public void registerCanMessageListener(String ifName, int canId, int canMask, CanMessageListener listener)
+            throws IOException {
+        if (ifName == null || listener == null) {
+            throw new IllegalArgumentException("Interface name and listener cannot be null");
+        }
+
+        synchronized (this.receivers) {
+            Map<CanMessageListener, CanFilterSet> interfaceFilterSets = this.filterSets.get(ifName);
+            if (interfaceFilterSets == null) {
+                interfaceFilterSets = new LinkedHashMap<CanMessageListener, CanFilterSet>();
+            }
+            final CanFilterSet current = interfaceFilterSets.get(listener);
+            final Map<CanMessageListener, CanFilterSet> updated = new LinkedHashMap<CanMessageListener, CanFilterSet>(
+                    interfaceFilterSets);
+            updated.put(listener, current == null ? new CanFilterSet(listener, canId, canMask)
+                    : current.with(canId, canMask));
+
+            CanReceiver receiver = this.receivers.get(ifName);
+            if (receiver == null) {
+                receiver = new CanReceiver(ifName, RING_CAPACITY, MAX_BATCH_SIZE);
+                receiver.setFilterSets(updated.values());
+                receiver.start();
+                this.receivers.put(ifName, receiver);
+            } else {
+                receiver.setFilterSets(updated.values());
+            }
+            this.filterSets.put(ifName, updated);
+        }
+    }
+
+    @Override
+    public void unregisterCanMessageListener(CanMessageListener listener) {
+        synchronized (this.receivers) {
+            final Iterator<Map.Entry<String, Map<CanMessageListener, CanFilterSet>>> iterator = this.filterSets
+                    .entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<String, Map<CanMessageListener, CanFilterSet>> entry = iterator.next();
+                if (!entry.getValue().containsKey(listener)) {
+                    continue;
+                }
+                final Map<CanMessageListener, CanFilterSet> updated = new LinkedHashMap<CanMessageListener, CanFilterSet>(
+                        entry.getValue());
+                updated.remove(listener);
+
+                final CanReceiver receiver = this.receivers.get(entry.getKey());
+                if (updated.isEmpty()) {
+                    iterator.remove();
+                    this.receivers.remove(entry.getKey());
+                    receiver.stop();
+                    continue;
+                }
+                entry.setValue(updated);
+                try {
+                    receiver.setFilterSets(updated.values());
+                } catch (IOException e) {
+                    s_logger.warn("Error updating the filter of CAN interface {}: {}", entry.getKey(),
+                            e.getMessage());
+                }
+            }
+        }
+    }
+
+    private Sender getSender(String ifName) throws IOException {
+        Sender sender = this.senders.get(ifName);
+        if (sender == null) {
+            synchronized (this.senders) {
+                sender = this.senders.get(ifName);
+                if (sender == null) {
+                    sender = new Sender(ifName, isLoopbackEnabled());
+                    this.senders.put(ifName, sender);
+                }
+            }
+        }
+        return sender;
+    }
+
+    /**
+     * A socket bound to a single interface, used to send frames without binding again on each call.
+     */
+    private static final class Sender {
+
+        private final CanSocket socket;
+        private final CanInterface canInterface;
+
+        Sender(String ifName, boolean loopback) throws IOException {
+            this.socket = new CanSocket(Mode.RAW);
+            try {
+                this.socket.setLoopbackMode(loopback);
+                this.canInterface = new CanInterface(this.socket, ifName);
+                this.socket.bind(this.canInterface);
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        synchronized void send(int canId, byte[] data) throws IOException {
+            final CanId id = new CanId(canId);
+            if (canId > CAN_SFF_MAX_ID) {
+                id.setEFFSFF();
+            }
+            this.socket.send(new CanFrame(this.canInterface, id, data));
+        }
+
+        void close() {
+            try {
+                this.socket.close();
+            } catch (IOException e) {
+                s_logger.warn("Error closing CAN socket", e);
+            }
+        }
+    }
 }
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.protocol.can;
+
+import java.util.List;
+
+/**
+ * Receives the frames matching the filters a listener has been registered with through
+ * {@link CanConnectionService#registerCanMessageListener(String, int, int, CanMessageListener)}.
+ * <p>
+ * Frames are delivered in batches, in the order they have been received from the interface, by a thread
+ * dedicated to the interface: implementations should return quickly, frames received while a listener is
+ * being notified are queued and delivered with the following batch.
+ *
+ * @since 2.1
+ */
+public interface CanMessageListener {
+
+    /**
+     * Notifies the listener about a batch of received frames.
+     *
+     * @param ifName
+     *            the name of the interface the frames have been received from (eg "can0")
+     * @param messages
+     *            the received frames, never empty
+     */
+    public void onCanMessages(String ifName, List<CanMessage> messages);
+}
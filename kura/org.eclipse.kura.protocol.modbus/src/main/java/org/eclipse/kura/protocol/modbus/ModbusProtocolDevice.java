@@ -57,7 +57,6 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
     private String m_connType = null;
     private Communicate m_comm;
     private Properties m_modbusProperties = null;
-    private static int transactionIndex = 0;
 
     public void setConnectionFactory(ConnectionFactory connectionFactory) {
         this.m_connectionFactory = connectionFactory;
@@ -187,6 +186,12 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
      * <td>port</td>
      * <td>port on the field device to connect to</td>
      * </tr>
+     * <tr>
+     * <td>pipelineDepth</td>
+     * <td>optional, only for PROTOCOL_CONNECTION_TYPE_ETHER_TCP: the maximum number of requests that can be
+     * outstanding at the same time on the connection, when issued by different threads. Responses are matched to the
+     * requests by transaction identifier. Defaults to 1</td>
+     * </tr>
      * </table>
      */
     @Override
@@ -328,6 +333,7 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
         InputStream in;
         OutputStream out;
         CommConnection conn = null;
+        ModbusSerialTransport transport;
 
         public SerialCommunicate(ConnectionFactory connFactory, Properties connectionConfig)
                 throws ModbusProtocolException {
@@ -351,9 +357,13 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
             int stop = Integer.valueOf(sStop).intValue();
             int parity = Integer.valueOf(sParity).intValue();
             int bits = Integer.valueOf(sBits).intValue();
+            int bitsPerCharacter = ModbusSerialTransport.getBitsPerCharacter(bits, stop, parity);
 
+            // the receive timeout allows to detect the silent interval at the end of RTU frames
             String uri = new CommURI.Builder(sPort).withBaudRate(baud).withDataBits(bits).withStopBits(stop)
-                    .withParity(parity).withTimeout(2000).build().toString();
+                    .withParity(parity).withOpenTimeout(2000)
+                    .withReceiveTimeout(ModbusSerialTransport.getReceiveTimeout(baud, bitsPerCharacter)).build()
+                    .toString();
 
             try {
                 this.conn = (CommConnection) connFactory.createConnection(uri, 1, false);
@@ -368,6 +378,8 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
             } catch (Exception e) {
                 throw new ModbusProtocolException(ModbusProtocolErrorCode.CONNECTION_FAILURE, e);
             }
+            this.transport = new ModbusSerialTransport(this.in, this.out, ModbusProtocolDevice.this.m_txMode, baud,
+                    bitsPerCharacter);
             s_logger.info("Serial connection connected");
         }
 
@@ -396,241 +408,18 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
             return KuraConnectionStatus.CONNECTED;
         }
 
-        private byte asciiLrcCalc(byte[] msg, int len) {
-            char[] ac = new char[2];
-            ac[0] = (char) msg[len - 4];
-            ac[1] = (char) msg[len - 3];
-            String s = new String(ac);
-            byte lrc = (byte) Integer.parseInt(s, 16);
-            return lrc;
-        }
-
-        private int binLrcCalc(byte[] msg) {
-            int llrc = 0;
-            for (byte element : msg) {
-                llrc += element & 0xff;
-            }
-            llrc = (llrc ^ 0xff) + 1;
-            // byte lrc=(byte)(llrc & 0x0ff);
-            return llrc;
-        }
-
         /**
-         * convertCommandToAscii: convert a binary command into a standard Modbus
-         * ASCII frame
-         */
-        private byte[] convertCommandToAscii(byte[] msg) {
-            int lrc = binLrcCalc(msg);
-
-            char[] hexArray = "0123456789ABCDEF".toCharArray();
-            byte[] ab = new byte[msg.length * 2 + 5];
-            ab[0] = ':';
-            int v;
-            for (int i = 0; i < msg.length; i++) {
-                v = msg[i] & 0xff;
-                ab[i * 2 + 1] = (byte) hexArray[v >>> 4];
-                ab[i * 2 + 2] = (byte) hexArray[v & 0x0f];
-            }
-            v = lrc & 0x0ff;
-            ab[ab.length - 4] = (byte) hexArray[v >>> 4];
-            ab[ab.length - 3] = (byte) hexArray[v & 0x0f];
-            ab[ab.length - 2] = 13;
-            ab[ab.length - 1] = 10;
-            return ab;
-        }
-
-        /**
-         * convertAsciiResponseToBin: convert a standard Modbus frame to
-         * byte array
-         */
-        private byte[] convertAsciiResponseToBin(byte[] msg, int len) {
-            int l = (len - 5) / 2;
-            byte[] ab = new byte[l];
-            char[] ac = new char[2];
-            // String s=new String(msg);
-            for (int i = 0; i < l; i++) {
-                ac[0] = (char) msg[i * 2 + 1];
-                ac[1] = (char) msg[i * 2 + 2];
-                // String s=new String(ac);
-                ab[i] = (byte) Integer.parseInt(new String(ac), 16);
-            }
-            return ab;
-        }
-
-        /**
-         * msgTransaction must be called with a byte array having two extra
-         * bytes for the CRC. It will return a byte array of the response to the
-         * message. Validation will include checking the CRC and verifying the
-         * command matches.
+         * msgTransaction must be called with the message without checksum, which is added according to the
+         * transmission mode. It will return a byte array of the response to the message. Validation will include
+         * checking the CRC or LRC and verifying the command matches.
          */
         @Override
         public byte[] msgTransaction(byte[] msg) throws ModbusProtocolException {
-
-            byte[] cmd = null;
-
-            if (ModbusProtocolDevice.this.m_txMode == ModbusTransmissionMode.RTU_MODE) {
-                cmd = new byte[msg.length + 2];
-                for (int i = 0; i < msg.length; i++) {
-                    cmd[i] = msg[i];
-                }
-                // Add crc calculation to end of message
-                int crc = Crc16.getCrc16(msg, msg.length, 0x0ffff);
-                cmd[msg.length] = (byte) crc;
-                cmd[msg.length + 1] = (byte) (crc >> 8);
-            } else if (ModbusProtocolDevice.this.m_txMode == ModbusTransmissionMode.ASCII_MODE) {
-                cmd = convertCommandToAscii(msg);
-            }
-
-            // Send the message
             try {
-                synchronized (this.out) {
-                    synchronized (this.in) {
-                        // flush input
-                        while (this.in.available() > 0) {
-                            this.in.read();
-                        }
-                        // send all data
-                        this.out.write(cmd, 0, cmd.length);
-                        this.out.flush();
-                        // outputStream.waitAllSent(respTout);
-
-                        // wait for and process response
-                        byte[] response = new byte[262]; // response buffer
-                        int respIndex = 0;
-                        int minimumLength = 5; // default minimum message length
-                        if (ModbusProtocolDevice.this.m_txMode == ModbusTransmissionMode.ASCII_MODE) {
-                            minimumLength = 11;
-                        }
-                        int timeOut = ModbusProtocolDevice.this.m_respTout;
-                        for (int maxLoop = 0; maxLoop < 1000; maxLoop++) {
-                            boolean endFrame = false;
-                            // while (respIndex < minimumLength) {
-                            while (!endFrame) {
-                                long start = System.currentTimeMillis();
-                                while (this.in.available() == 0) {
-                                    try {
-                                        Thread.sleep(5);	// avoid a high cpu load
-                                    } catch (InterruptedException e) {
-                                        throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
-                                                "Thread interrupted");
-                                    }
-
-                                    long elapsed = System.currentTimeMillis() - start;
-                                    if (elapsed > timeOut) {
-                                        String failMsg = "Recv timeout";
-                                        s_logger.warn(failMsg + " : " + elapsed + " minimumLength=" + minimumLength
-                                                + " respIndex=" + respIndex);
-                                        throw new ModbusProtocolException(ModbusProtocolErrorCode.RESPONSE_TIMEOUT,
-                                                failMsg);
-                                    }
-                                }
-                                // address byte must match first
-                                if (respIndex == 0) {
-                                    if (ModbusProtocolDevice.this.m_txMode == ModbusTransmissionMode.ASCII_MODE) {
-                                        if ((response[0] = (byte) this.in.read()) == ':') {
-                                            respIndex++;
-                                        }
-                                    } else {
-                                        if ((response[0] = (byte) this.in.read()) == msg[0]) {
-                                            respIndex++;
-                                        }
-                                    }
-                                } else {
-                                    response[respIndex++] = (byte) this.in.read();
-                                }
-
-                                if (ModbusProtocolDevice.this.m_txMode == ModbusTransmissionMode.RTU_MODE) {
-                                    timeOut = 100; // move to character timeout
-                                    if (respIndex >= minimumLength) {
-                                        endFrame = true;
-                                    }
-                                } else {
-                                    if (response[respIndex - 1] == 10 && response[respIndex - 2] == 13) {
-                                        endFrame = true;
-                                    }
-                                }
-                            }
-                            // if ASCII mode convert response
-                            if (ModbusProtocolDevice.this.m_txMode == ModbusTransmissionMode.ASCII_MODE) {
-                                byte lrcRec = asciiLrcCalc(response, respIndex);
-                                response = convertAsciiResponseToBin(response, respIndex);
-                                byte lrcCalc = (byte) binLrcCalc(response);
-                                if (lrcRec != lrcCalc) {
-                                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
-                                            "Bad LRC");
-                                }
-                            }
-
-                            // Check first for an Exception response
-                            if ((response[1] & 0x80) == 0x80) {
-                                if (ModbusProtocolDevice.this.m_txMode == ModbusTransmissionMode.ASCII_MODE
-                                        || Crc16.getCrc16(response, 5, 0xffff) == 0) {
-                                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
-                                            "Exception response = " + Byte.toString(response[2]));
-                                }
-                            } else {
-                                // then check for a valid message
-                                switch (response[1]) {
-                                case ModbusFunctionCodes.FORCE_SINGLE_COIL:
-                                case ModbusFunctionCodes.PRESET_SINGLE_REG:
-                                case ModbusFunctionCodes.FORCE_MULTIPLE_COILS:
-                                case ModbusFunctionCodes.PRESET_MULTIPLE_REGS:
-                                    if (respIndex < 8) {
-                                        // wait for more data
-                                        minimumLength = 8;
-                                    } else if (ModbusProtocolDevice.this.m_txMode == ModbusTransmissionMode.ASCII_MODE
-                                            || Crc16.getCrc16(response, 8, 0xffff) == 0) {
-                                        byte[] ret = new byte[6];
-                                        for (int i = 0; i < 6; i++) {
-                                            ret[i] = response[i];
-                                        }
-                                        return ret;
-                                    }
-                                    break;
-                                case ModbusFunctionCodes.READ_COIL_STATUS:
-                                case ModbusFunctionCodes.READ_INPUT_STATUS:
-                                case ModbusFunctionCodes.READ_INPUT_REGS:
-                                case ModbusFunctionCodes.READ_HOLDING_REGS:
-                                    int byteCnt;
-                                    if (ModbusProtocolDevice.this.m_txMode == ModbusTransmissionMode.ASCII_MODE) {
-                                        byteCnt = (response[2] & 0xff) + 3;
-                                    } else {
-                                        byteCnt = (response[2] & 0xff) + 5;
-                                    }
-                                    if (respIndex < byteCnt) {
-                                        // wait for more data
-                                        minimumLength = byteCnt;
-                                    } else if (ModbusProtocolDevice.this.m_txMode == ModbusTransmissionMode.ASCII_MODE
-                                            || Crc16.getCrc16(response, byteCnt, 0xffff) == 0) {
-                                        byte[] ret = new byte[byteCnt];
-                                        for (int i = 0; i < byteCnt; i++) {
-                                            ret[i] = response[i];
-                                        }
-                                        return ret;
-                                    }
-                                }
-                            }
-
-                            /*
-                             * if required length then must have failed, drop
-                             * first byte and try again
-                             */
-                            if (respIndex >= minimumLength) {
-                                respIndex--;
-                                for (int i = 0; i < respIndex; i++) {
-                                    response[i] = response[i + 1];
-                                }
-                                minimumLength = 5; // reset minimum length
-                            }
-                        }
-                    }
-                }
+                return this.transport.transact(msg, ModbusProtocolDevice.this.m_respTout);
             } catch (IOException e) {
-                // e.printStackTrace();
                 throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, e.getMessage());
             }
-            throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
-                    "Too much activity on recv line");
         }
     }
 
@@ -642,7 +431,9 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
         InputStream inputStream;
         OutputStream outputStream;
         Socket socket;
+        ModbusTcpTransport transport;
         int port;
+        int pipelineDepth = 1;
         String ipAddress;
         String connType;
         boolean connected = false;
@@ -658,21 +449,40 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
                 throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_CONFIGURATION);
             }
             this.port = Integer.valueOf(sPort).intValue();
+            String sPipelineDepth = connectionConfig.getProperty("pipelineDepth");
+            if (sPipelineDepth != null) {
+                try {
+                    this.pipelineDepth = Integer.parseInt(sPipelineDepth);
+                } catch (NumberFormatException e) {
+                    throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_CONFIGURATION);
+                }
+                if (this.pipelineDepth < 1) {
+                    throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_CONFIGURATION);
+                }
+            }
             ModbusProtocolDevice.this.m_connConfigd = true;
             this.socket = new Socket();
         }
 
         @Override
-        public void connect() {
+        public synchronized void connect() {
             if (!ModbusProtocolDevice.this.m_connConfigd) {
                 s_logger.error("Can't connect, port not configured");
             } else {
+                if (this.connected && this.transport != null && !this.transport.isOpen()) {
+                    disconnect();
+                }
                 if (!this.connected) {
                     try {
                         this.socket = new Socket(this.ipAddress, this.port);
                         try {
-                            this.inputStream = this.socket.getInputStream();
-                            this.outputStream = this.socket.getOutputStream();
+                            if (PROTOCOL_CONNECTION_TYPE_ETHER_TCP.equals(this.connType)) {
+                                this.socket.setTcpNoDelay(true);
+                                this.transport = new ModbusTcpTransport(this.socket, this.pipelineDepth);
+                            } else {
+                                this.inputStream = this.socket.getInputStream();
+                                this.outputStream = this.socket.getOutputStream();
+                            }
                             this.connected = true;
                             s_logger.info("TCP connected");
                         } catch (IOException e) {
@@ -687,22 +497,27 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
         }
 
         @Override
-        public void disconnect() {
+        public synchronized void disconnect() {
             if(this.socket==null){
                 return;
             }
             if (ModbusProtocolDevice.this.m_connConfigd) {
                 if (this.connected) {
-                    try {
-                        if (!this.socket.isInputShutdown()) {
-                            this.socket.shutdownInput();
-                        }
-                        if (!this.socket.isOutputShutdown()) {
-                            this.socket.shutdownOutput();
+                    if (this.transport != null) {
+                        this.transport.close();
+                        this.transport = null;
+                    } else {
+                        try {
+                            if (!this.socket.isInputShutdown()) {
+                                this.socket.shutdownInput();
+                            }
+                            if (!this.socket.isOutputShutdown()) {
+                                this.socket.shutdownOutput();
+                            }
+                            this.socket.close();
+                        } catch (IOException eClose) {
+                            s_logger.error("Error closing TCP: " + eClose);
                         }
-                        this.socket.close();
-                    } catch (IOException eClose) {
-                        s_logger.error("Error closing TCP: " + eClose);
                     }
                     this.inputStream = null;
                     this.outputStream = null;
@@ -729,34 +544,7 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
 
             // ---------------------------------------------- Send Message
             // ---------------------------------------------------
-            if (ModbusProtocolDevice.this.m_txMode == ModbusTransmissionMode.RTU_MODE) {
-                if (PROTOCOL_CONNECTION_TYPE_ETHER_TCP.equals(this.connType)) {
-                    cmd = new byte[msg.length + 6];
-                    // build MBAP header
-                    int index = getNextTransactionIndex();
-                    cmd[0] = (byte) (index >> 8);
-                    cmd[1] = (byte) index;
-                    cmd[2] = 0;
-                    cmd[3] = 0;
-                    // length
-                    int len = msg.length;
-                    cmd[4] = (byte) (len >> 8);
-                    cmd[5] = (byte) len;
-                    for (int i = 0; i < msg.length; i++) {
-                        cmd[i + 6] = msg[i];
-                    }
-                    // No crc in Modbus TCP
-                } else {
-                    cmd = new byte[msg.length + 2];
-                    for (int i = 0; i < msg.length; i++) {
-                        cmd[i] = msg[i];
-                    }
-                    // Add crc calculation to end of message
-                    int crc = Crc16.getCrc16(msg, msg.length, 0x0ffff);
-                    cmd[msg.length] = (byte) crc;
-                    cmd[msg.length + 1] = (byte) (crc >> 8);
-                }
-            } else {
+            if (ModbusProtocolDevice.this.m_txMode != ModbusTransmissionMode.RTU_MODE) {
                 throw new ModbusProtocolException(ModbusProtocolErrorCode.METHOD_NOT_SUPPORTED,
                         "Only RTU over TCP/IP supported");
             }
@@ -768,6 +556,19 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
                         "Cannot transact on closed socket");
             }
 
+            if (PROTOCOL_CONNECTION_TYPE_ETHER_TCP.equals(this.connType)) {
+                return tcpTransaction(msg);
+            }
+
+            cmd = new byte[msg.length + 2];
+            for (int i = 0; i < msg.length; i++) {
+                cmd[i] = msg[i];
+            }
+            // Add crc calculation to end of message
+            int crc = Crc16.getCrc16(msg, msg.length, 0x0ffff);
+            cmd[msg.length] = (byte) crc;
+            cmd[msg.length + 1] = (byte) (crc >> 8);
+
             // Send the message
             try {
                 // flush input
@@ -793,49 +594,45 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
             byte[] response = new byte[262]; // response buffer
             int respIndex = 0;
             int minimumLength = 5; // default minimum message length
-            if (PROTOCOL_CONNECTION_TYPE_ETHER_TCP.equals(this.connType)) {
-                minimumLength += 6;
+            try {
+                this.socket.setSoTimeout(ModbusProtocolDevice.this.m_respTout);
+            } catch (IOException e) {
+                s_logger.error("Socket disconnect in recv: " + e);
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Recv failure");
             }
             while (!endFrame) {
                 try {
-                    this.socket.setSoTimeout(ModbusProtocolDevice.this.m_respTout);
-                    int resp = this.inputStream.read(response, respIndex, 1);
+                    int resp = this.inputStream.read(response, respIndex, minimumLength - respIndex);
                     if (resp > 0) {
                         respIndex += resp;
-                        if (PROTOCOL_CONNECTION_TYPE_ETHER_TCP.equals(this.connType)) {
-                            if (respIndex == 7) {
-                                // test modbus id
-                                if (response[6] != msg[0]) {
-                                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
-                                            "incorrect modbus id " + String.format("%02X", response[6]));
-                                }
-                            } else if (respIndex == 8) {
-                                // test function number
-                                if ((response[7] & 0x7f) != msg[1]) {
-                                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
-                                            "incorrect function number " + String.format("%02X", response[7]));
-                                }
-                            } else if (respIndex == 9) {
-                                // Check first for an Exception response
-                            	if ((response[7] & 0x80) == 0x80) {                                    
-                            		throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
-                            				"Modbus responds an error = " + String.format("%02X", response[8]));
-                                } else {
-                                    if (response[7] == ModbusFunctionCodes.FORCE_SINGLE_COIL
-                                            || response[7] == ModbusFunctionCodes.PRESET_SINGLE_REG
-                                            || response[7] == ModbusFunctionCodes.FORCE_MULTIPLE_COILS
-                                            || response[7] == ModbusFunctionCodes.PRESET_MULTIPLE_REGS) {
-                                        minimumLength = 12;
-                                    } else {
-                                        // bytes count
-                                        minimumLength = response[8] + 9;
-                                    }
-                                }
-                            } else if (respIndex == minimumLength) {
-                                endFrame = true;
+                        if (respIndex >= 3 && minimumLength == 5) {
+                            // test modbus id
+                            if (response[0] != msg[0]) {
+                                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                                        "incorrect modbus id " + String.format("%02X", response[0]));
+                            }
+                            // test function number
+                            if ((response[1] & 0x7f) != msg[1]) {
+                                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                                        "incorrect function number " + String.format("%02X", response[1]));
+                            }
+                            // Check first for an Exception response
+                            if ((response[1] & 0x80) == 0x80) {
+                                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                                        "Modbus responds an error = " + String.format("%02X", response[2]));
+                            }
+                            if (response[1] == ModbusFunctionCodes.FORCE_SINGLE_COIL
+                                    || response[1] == ModbusFunctionCodes.PRESET_SINGLE_REG
+                                    || response[1] == ModbusFunctionCodes.FORCE_MULTIPLE_COILS
+                                    || response[1] == ModbusFunctionCodes.PRESET_MULTIPLE_REGS) {
+                                minimumLength = 8;
+                            } else {
+                                // bytes count
+                                minimumLength = (response[2] & 0xff) + 5;
                             }
-                        } else {
-
+                        }
+                        if (respIndex == minimumLength && minimumLength != 5) {
+                            endFrame = true;
                         }
                     } else {
                         s_logger.error("Socket disconnect in recv");
@@ -849,29 +646,98 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
                     s_logger.error("Socket disconnect in recv: " + e);
                     throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Recv failure");
                 }
+            }
 
+            if (Crc16.getCrc16(response, respIndex, 0xffff) != 0) {
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Bad CRC");
             }
 
             // then check for a valid message
-            switch (response[7]) {
+            switch (response[1]) {
             case ModbusFunctionCodes.FORCE_SINGLE_COIL:
             case ModbusFunctionCodes.PRESET_SINGLE_REG:
             case ModbusFunctionCodes.FORCE_MULTIPLE_COILS:
             case ModbusFunctionCodes.PRESET_MULTIPLE_REGS:
                 byte[] ret = new byte[8];
-                for (int i = 6; i < 12; i++) {
-                    ret[i - 6] = response[i];
+                System.arraycopy(response, 0, ret, 0, 6);
+                return ret;
+            case ModbusFunctionCodes.READ_COIL_STATUS:
+            case ModbusFunctionCodes.READ_INPUT_STATUS:
+            case ModbusFunctionCodes.READ_INPUT_REGS:
+            case ModbusFunctionCodes.READ_HOLDING_REGS:
+                int byteCnt = (response[2] & 0xff) + 3;
+                ret = new byte[byteCnt];
+                System.arraycopy(response, 0, ret, 0, byteCnt);
+                return ret;
+            }
+            return null;
+        }
+
+        /**
+         * Performs a Modbus TCP transaction using the pipelined transport of the connection, concurrent calls can
+         * have up to pipelineDepth outstanding requests.
+         */
+        private byte[] tcpTransaction(byte[] msg) throws ModbusProtocolException {
+            ModbusTcpTransport currentTransport;
+            synchronized (this) {
+                currentTransport = this.transport;
+            }
+            if (currentTransport == null) {
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                        "Cannot transact on closed socket");
+            }
+
+            byte[] response;
+            try {
+                response = currentTransport.transact(msg, ModbusProtocolDevice.this.m_respTout);
+            } catch (IOException e) {
+                // the transport is not usable anymore, the next transaction will reconnect
+                synchronized (this) {
+                    if (this.transport == currentTransport) {
+                        disconnect();
+                    }
                 }
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Recv failure");
+            }
+
+            // test modbus id
+            if (response[0] != msg[0]) {
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                        "incorrect modbus id " + String.format("%02X", response[0]));
+            }
+            // test function number
+            if ((response[1] & 0x7f) != msg[1]) {
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                        "incorrect function number " + String.format("%02X", response[1]));
+            }
+            // Check first for an Exception response
+            if ((response[1] & 0x80) == 0x80) {
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                        "Modbus responds an error = " + String.format("%02X", response[2]));
+            }
+
+            // then check for a valid message
+            switch (response[1]) {
+            case ModbusFunctionCodes.FORCE_SINGLE_COIL:
+            case ModbusFunctionCodes.PRESET_SINGLE_REG:
+            case ModbusFunctionCodes.FORCE_MULTIPLE_COILS:
+            case ModbusFunctionCodes.PRESET_MULTIPLE_REGS:
+                if (response.length < 6) {
+                    throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_DATA_LENGTH);
+                }
+                byte[] ret = new byte[8];
+                System.arraycopy(response, 0, ret, 0, 6);
                 return ret;
             case ModbusFunctionCodes.READ_COIL_STATUS:
             case ModbusFunctionCodes.READ_INPUT_STATUS:
             case ModbusFunctionCodes.READ_INPUT_REGS:
             case ModbusFunctionCodes.READ_HOLDING_REGS:
-                int byteCnt = (response[8] & 0xff) + 3 + 6;
-                ret = new byte[byteCnt - 6];
-                for (int i = 6; i < byteCnt; i++) {
-                    ret[i - 6] = response[i];
+                int byteCnt = (response[2] & 0xff) + 3;
+                if (response.length < byteCnt) {
+                    throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_DATA_LENGTH);
                 }
+                ret = new byte[byteCnt];
+                System.arraycopy(response, 0, ret, 0, byteCnt);
                 return ret;
             }
             return null;
@@ -1404,12 +1270,4 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
      * 
      * @return the next transaction index.
      */
-    private int getNextTransactionIndex() {
-        transactionIndex++;
-        if (transactionIndex > 0xffff) {
-            transactionIndex = 0;
-        }
-        return transactionIndex;
-    }
-
 }
@@ -0,0 +1,425 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.protocol.modbus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Modbus RTU and ASCII framing over a serial line.
+ * <p>
+ * The input stream is expected to block until at least one byte is available or until a receive timeout expires,
+ * returning no data in the latter case. The receive timeout should be configured on the port using
+ * {@link #getReceiveTimeout(int, int)}, so that the end of an RTU frame can be detected from the 3.5 character silent
+ * interval.
+ * <p>
+ * Responses are read in bulk: in RTU mode the expected frame length is derived from the function code and, if
+ * needed, from the byte count field, the silent interval is used to detect the end of the frames whose length is
+ * unknown. In ASCII mode the frame ends with CR LF. The silent interval is also enforced between the end of a
+ * response and the next request.
+ */
+final class ModbusSerialTransport {
+
+    private static final Logger s_logger = LoggerFactory.getLogger(ModbusSerialTransport.class);
+
+    private static final int MAX_RTU_ADU_LENGTH = 256;
+    private static final int MAX_ASCII_ADU_LENGTH = 513;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private final InputStream in;
+    private final OutputStream out;
+    private final int txMode;
+    private final long silentIntervalNanos;
+
+    private final byte[] sendBuffer = new byte[MAX_ASCII_ADU_LENGTH];
+    private final byte[] receiveBuffer = new byte[MAX_ASCII_ADU_LENGTH];
+
+    private long lastFrameEnd;
+
+    /**
+     * Creates a new transport.
+     *
+     * @param in
+     *            the serial port input stream
+     * @param out
+     *            the serial port output stream
+     * @param txMode
+     *            {@link ModbusTransmissionMode#RTU_MODE} or {@link ModbusTransmissionMode#ASCII_MODE}
+     * @param baudRate
+     *            the baud rate of the port
+     * @param bitsPerCharacter
+     *            the number of bits transmitted for each character, including start, parity and stop bits
+     */
+    ModbusSerialTransport(InputStream in, OutputStream out, int txMode, int baudRate, int bitsPerCharacter) {
+        this.in = in;
+        this.out = out;
+        this.txMode = txMode;
+        this.silentIntervalNanos = getSilentInterval(baudRate, bitsPerCharacter);
+        this.lastFrameEnd = System.nanoTime() - this.silentIntervalNanos;
+    }
+
+    /**
+     * Returns the 3.5 character silent interval that delimits RTU frames. As required by the specification, a fixed
+     * value of 1.75 ms is used for baud rates greater than 19200.
+     *
+     * @param baudRate
+     *            the baud rate
+     * @param bitsPerCharacter
+     *            the number of bits transmitted for each character
+     * @return the silent interval in nanoseconds
+     */
+    static long getSilentInterval(int baudRate, int bitsPerCharacter) {
+        if (baudRate <= 0 || baudRate > 19200) {
+            return 1750000L;
+        }
+        return 3500000000L * bitsPerCharacter / baudRate;
+    }
+
+    /**
+     * Returns the number of bits transmitted for each character with the provided settings.
+     *
+     * @param dataBits
+     *            the number of data bits
+     * @param stopBits
+     *            the stop bits setting, as defined by {@link org.eclipse.kura.comm.CommURI}
+     * @param parity
+     *            the parity setting, as defined by {@link org.eclipse.kura.comm.CommURI}
+     * @return the number of bits per character, including the start bit
+     */
+    static int getBitsPerCharacter(int dataBits, int stopBits, int parity) {
+        return 1 + dataBits + (parity == 0 ? 0 : 1) + (stopBits == 1 ? 1 : 2);
+    }
+
+    /**
+     * Returns the receive timeout that should be configured on the serial port, the silent interval rounded up to
+     * milliseconds.
+     *
+     * @param baudRate
+     *            the baud rate
+     * @param bitsPerCharacter
+     *            the number of bits transmitted for each character
+     * @return the receive timeout in milliseconds
+     */
+    static int getReceiveTimeout(int baudRate, int bitsPerCharacter) {
+        return (int) TimeUnit.NANOSECONDS.toMillis(getSilentInterval(baudRate, bitsPerCharacter) + 999999L);
+    }
+
+    /**
+     * Sends a request and waits for the response.
+     *
+     * @param msg
+     *            the request, starting with the slave address followed by the PDU, without checksum
+     * @param timeout
+     *            the response timeout in milliseconds, 0 means no timeout
+     * @return for write requests, the first 6 bytes of the response; for read requests, the response up to the last
+     *         data byte (in RTU mode the CRC is included); for other requests, the whole response
+     * @throws IOException
+     *             if the serial port cannot be accessed
+     * @throws ModbusProtocolException
+     *             if no valid response is received before the timeout or if the slave responds with an exception
+     */
+    synchronized byte[] transact(byte[] msg, int timeout) throws IOException, ModbusProtocolException {
+        final int cmdLength;
+        if (this.txMode == ModbusTransmissionMode.ASCII_MODE) {
+            cmdLength = encodeAscii(msg, this.sendBuffer);
+        } else {
+            System.arraycopy(msg, 0, this.sendBuffer, 0, msg.length);
+            // Add crc calculation to end of message
+            int crc = Crc16.getCrc16(msg, msg.length, 0x0ffff);
+            this.sendBuffer[msg.length] = (byte) crc;
+            this.sendBuffer[msg.length + 1] = (byte) (crc >> 8);
+            cmdLength = msg.length + 2;
+        }
+
+        waitSilentInterval();
+        discardInput();
+
+        this.out.write(this.sendBuffer, 0, cmdLength);
+        this.out.flush();
+
+        final long start = System.nanoTime();
+        final long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+        byte[] response;
+        try {
+            if (this.txMode == ModbusTransmissionMode.ASCII_MODE) {
+                response = receiveAscii(start, timeoutNanos);
+            } else {
+                response = receiveRtu(msg[0], start, timeoutNanos);
+            }
+        } finally {
+            this.lastFrameEnd = System.nanoTime();
+        }
+
+        if (response[0] != msg[0]) {
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                    "incorrect modbus id " + String.format("%02X", response[0]));
+        }
+        if ((response[1] & 0x7f) != msg[1]) {
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                    "incorrect function number " + String.format("%02X", response[1]));
+        }
+        // Check first for an Exception response
+        if ((response[1] & 0x80) == 0x80) {
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                    "Exception response = " + Byte.toString(response[2]));
+        }
+
+        switch (response[1]) {
+        case ModbusFunctionCodes.FORCE_SINGLE_COIL:
+        case ModbusFunctionCodes.PRESET_SINGLE_REG:
+        case ModbusFunctionCodes.FORCE_MULTIPLE_COILS:
+        case ModbusFunctionCodes.PRESET_MULTIPLE_REGS:
+            return copyOf(response, 6);
+        default:
+            return response;
+        }
+    }
+
+    private void waitSilentInterval() {
+        long remaining;
+        while ((remaining = this.lastFrameEnd + this.silentIntervalNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private void discardInput() throws IOException {
+        int available;
+        while ((available = this.in.available()) > 0) {
+            int discarded = this.in.read(this.receiveBuffer, 0, Math.min(available, this.receiveBuffer.length));
+            if (discarded <= 0) {
+                break;
+            }
+            s_logger.debug("Discarded {} unexpected bytes", discarded);
+        }
+    }
+
+    private byte[] receiveRtu(byte slaveAddress, long start, long timeoutNanos)
+            throws IOException, ModbusProtocolException {
+        final byte[] frame = this.receiveBuffer;
+        int length = 0;
+        int expectedLength = -1;
+        long lastByteTime = 0;
+
+        while (expectedLength < 0 || length < expectedLength) {
+            final int toRead;
+            if (expectedLength > 0) {
+                toRead = expectedLength - length;
+            } else if (length < 3) {
+                toRead = 3 - length;
+            } else {
+                toRead = MAX_RTU_ADU_LENGTH - length;
+            }
+
+            final int count = this.in.read(frame, length, toRead);
+            final long now = System.nanoTime();
+
+            if (count < 0) {
+                throw endOfStream();
+            } else if (count > 0) {
+                length = skipToAddress(frame, length, count, slaveAddress);
+                lastByteTime = now;
+                if (expectedLength < 0) {
+                    expectedLength = getRtuFrameLength(frame, length);
+                }
+                if (length >= MAX_RTU_ADU_LENGTH && expectedLength < 0) {
+                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                            "Too much activity on recv line");
+                }
+            } else if (expectedLength < 0 && length >= 4 && now - lastByteTime >= this.silentIntervalNanos) {
+                // function code with unknown response length, the silent interval ends the frame. The frames of known
+                // length are read until the response timeout, since some devices and converters pause in the middle
+                // of a frame
+                break;
+            }
+
+            final boolean complete = expectedLength >= 0 && length >= expectedLength;
+            if (!complete && timeoutNanos > 0 && now - start >= timeoutNanos) {
+                if (length == 0) {
+                    String failMsg = "Recv timeout";
+                    s_logger.warn(failMsg);
+                    throw new ModbusProtocolException(ModbusProtocolErrorCode.RESPONSE_TIMEOUT, failMsg);
+                }
+                s_logger.warn("Incomplete frame, expected: {} received: {}", expectedLength, length);
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Incomplete frame");
+            }
+        }
+
+        if (Crc16.getCrc16(frame, length, 0xffff) != 0) {
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Bad CRC");
+        }
+        return copyOf(frame, length);
+    }
+
+    /**
+     * Drops the bytes received before the slave address, returns the new frame length.
+     */
+    private static int skipToAddress(byte[] frame, int length, int count, byte slaveAddress) {
+        if (length > 0) {
+            return length + count;
+        }
+        int start = 0;
+        while (start < count && frame[start] != slaveAddress) {
+            start++;
+        }
+        if (start > 0) {
+            System.arraycopy(frame, start, frame, 0, count - start);
+        }
+        return count - start;
+    }
+
+    /**
+     * Returns the length of an RTU frame including the CRC, or -1 if it cannot be determined (yet).
+     */
+    static int getRtuFrameLength(byte[] frame, int length) {
+        if (length < 2) {
+            return -1;
+        }
+        final int functionCode = frame[1];
+        if ((functionCode & 0x80) == 0x80) {
+            return 5;
+        }
+        switch (functionCode) {
+        case ModbusFunctionCodes.READ_EXCEPTION_STATUS:
+            return 5;
+        case ModbusFunctionCodes.FORCE_SINGLE_COIL:
+        case ModbusFunctionCodes.PRESET_SINGLE_REG:
+        case ModbusFunctionCodes.FORCE_MULTIPLE_COILS:
+        case ModbusFunctionCodes.PRESET_MULTIPLE_REGS:
+        case ModbusFunctionCodes.GET_COMM_EVENT_COUNTER:
+            return 8;
+        case ModbusFunctionCodes.READ_COIL_STATUS:
+        case ModbusFunctionCodes.READ_INPUT_STATUS:
+        case ModbusFunctionCodes.READ_HOLDING_REGS:
+        case ModbusFunctionCodes.READ_INPUT_REGS:
+        case ModbusFunctionCodes.GET_COMM_EVENT_LOG:
+            return length < 3 ? -1 : (frame[2] & 0xff) + 5;
+        default:
+            return -1;
+        }
+    }
+
+    private byte[] receiveAscii(long start, long timeoutNanos) throws IOException, ModbusProtocolException {
+        final byte[] frame = this.receiveBuffer;
+        int length = 0;
+
+        while (true) {
+            final int count = this.in.read(frame, length, frame.length - length);
+
+            if (count < 0) {
+                throw endOfStream();
+            } else if (count > 0) {
+                int searchFrom = length;
+                length += count;
+                if (frame[0] != ':') {
+                    // drop the bytes received before the start of frame
+                    int colon = 0;
+                    while (colon < length && frame[colon] != ':') {
+                        colon++;
+                    }
+                    System.arraycopy(frame, colon, frame, 0, length - colon);
+                    length -= colon;
+                    searchFrom = 0;
+                }
+                for (int i = Math.max(1, searchFrom); i < length; i++) {
+                    if (frame[i] == 10 && frame[i - 1] == 13) {
+                        return decodeAscii(frame, i + 1);
+                    }
+                }
+                if (length == frame.length) {
+                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                            "Too much activity on recv line");
+                }
+            } else if (timeoutNanos > 0 && System.nanoTime() - start >= timeoutNanos) {
+                String failMsg = "Recv timeout";
+                s_logger.warn(failMsg);
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.RESPONSE_TIMEOUT, failMsg);
+            }
+        }
+    }
+
+    /**
+     * The serial port has been closed, further reads would return immediately without ever reaching the timeout.
+     */
+    private static ModbusProtocolException endOfStream() {
+        String failMsg = "End of stream reached";
+        s_logger.warn(failMsg);
+        return new ModbusProtocolException(ModbusProtocolErrorCode.CONNECTION_FAILURE, failMsg);
+    }
+
+    /**
+     * Converts a binary command into a standard Modbus ASCII frame, returns the frame length.
+     */
+    private static int encodeAscii(byte[] msg, byte[] frame) {
+        int lrc = 0;
+        frame[0] = ':';
+        for (int i = 0; i < msg.length; i++) {
+            final int v = msg[i] & 0xff;
+            lrc += v;
+            frame[i * 2 + 1] = (byte) HEX_DIGITS[v >>> 4];
+            frame[i * 2 + 2] = (byte) HEX_DIGITS[v & 0x0f];
+        }
+        lrc = -lrc & 0xff;
+        final int end = msg.length * 2 + 1;
+        frame[end] = (byte) HEX_DIGITS[lrc >>> 4];
+        frame[end + 1] = (byte) HEX_DIGITS[lrc & 0x0f];
+        frame[end + 2] = 13;
+        frame[end + 3] = 10;
+        return end + 4;
+    }
+
+    /**
+     * Converts a standard Modbus ASCII frame into a byte array, verifying the LRC.
+     */
+    private static byte[] decodeAscii(byte[] frame, int length) throws ModbusProtocolException {
+        if (length < 9 || length % 2 == 0) {
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Invalid ASCII frame");
+        }
+        final int binaryLength = (length - 3) / 2;
+        final byte[] data = new byte[binaryLength - 1];
+        int lrc = 0;
+        for (int i = 0; i < binaryLength; i++) {
+            final int v = hexValue(frame[i * 2 + 1]) << 4 | hexValue(frame[i * 2 + 2]);
+            lrc += v;
+            if (i < data.length) {
+                data[i] = (byte) v;
+            }
+        }
+        if ((lrc & 0xff) != 0) {
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Bad LRC");
+        }
+        return data;
+    }
+
+    private static int hexValue(byte c) throws ModbusProtocolException {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Invalid ASCII frame");
+    }
+
+    private static byte[] copyOf(byte[] data, int length) {
+        final byte[] result = new byte[length];
+        System.arraycopy(data, 0, result, 0, length);
+        return result;
+    }
+}
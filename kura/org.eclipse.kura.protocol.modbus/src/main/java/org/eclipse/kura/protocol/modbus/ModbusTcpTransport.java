@@ -0,0 +1,289 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.protocol.modbus;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Modbus TCP transport over a connected socket.
+ * <p>
+ * Up to {@code pipelineDepth} requests, issued by different threads, can be outstanding at the same time on the
+ * connection. Each request is assigned a transaction identifier not used by any other outstanding request, responses
+ * are matched to the requests using the transaction identifier of the MBAP header, responses with an unknown
+ * identifier (for example late responses to requests that timed out) are discarded.
+ * <p>
+ * Responses are received by a dedicated thread, which reads the MBAP header and then exactly the number of bytes
+ * specified by its length field into a reusable buffer.
+ */
+final class ModbusTcpTransport {
+
+    private static final Logger s_logger = LoggerFactory.getLogger(ModbusTcpTransport.class);
+
+    /** MBAP header length, including the unit identifier */
+    private static final int MBAP_HEADER_LENGTH = 7;
+    private static final int MAX_ADU_LENGTH = 260;
+
+    private final Socket socket;
+    private final DataInputStream inputStream;
+    private final OutputStream outputStream;
+    private final Semaphore pipeline;
+    private final Map<Integer, Transaction> pendingTransactions = new HashMap<Integer, Transaction>();
+    private final byte[] sendBuffer = new byte[MAX_ADU_LENGTH];
+    private final byte[] receiveBuffer = new byte[MAX_ADU_LENGTH];
+    private final Thread receiver;
+
+    private int nextTransactionId;
+    private IOException failure;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new transport and starts the receiver thread.
+     *
+     * @param socket
+     *            a connected socket
+     * @param pipelineDepth
+     *            the maximum number of outstanding requests, must be positive
+     * @throws IOException
+     *             if the socket streams cannot be obtained
+     */
+    ModbusTcpTransport(Socket socket, int pipelineDepth) throws IOException {
+        if (pipelineDepth < 1) {
+            throw new IllegalArgumentException("Pipeline depth must be positive");
+        }
+        this.socket = socket;
+        this.inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 4 * MAX_ADU_LENGTH));
+        this.outputStream = socket.getOutputStream();
+        this.pipeline = new Semaphore(pipelineDepth, true);
+        this.receiver = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                receive();
+            }
+        }, "ModbusTcpReceiver-" + socket.getInetAddress().getHostAddress() + ":" + socket.getPort());
+        this.receiver.setDaemon(true);
+        this.receiver.start();
+    }
+
+    /**
+     * Sends a request and waits for the corresponding response.
+     *
+     * @param msg
+     *            the request, starting with the unit identifier followed by the PDU
+     * @param timeout
+     *            the timeout in milliseconds, including the time spent waiting for the pipeline to have room for the
+     *            request, 0 means no timeout
+     * @return the response, starting with the unit identifier followed by the PDU
+     * @throws IOException
+     *             if the connection failed, the transport should not be used anymore
+     * @throws ModbusProtocolException
+     *             if the response is not received before the timeout or if the thread is interrupted
+     */
+    byte[] transact(byte[] msg, int timeout) throws IOException, ModbusProtocolException {
+        return transact(msg, timeout != 0, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout));
+    }
+
+    /**
+     * Sends a request and waits for the corresponding response until the provided deadline.
+     *
+     * @param msg
+     *            the request, starting with the unit identifier followed by the PDU
+     * @param timed
+     *            {@code false} for waiting without a deadline
+     * @param deadline
+     *            the deadline, as a {@link System#nanoTime()} value
+     * @return the response, starting with the unit identifier followed by the PDU
+     * @throws IOException
+     *             if the connection failed, the transport should not be used anymore
+     * @throws ModbusProtocolException
+     *             if the response is not received before the deadline or if the thread is interrupted
+     */
+    byte[] transact(byte[] msg, boolean timed, long deadline) throws IOException, ModbusProtocolException {
+        if (msg.length < 2 || msg.length > MAX_ADU_LENGTH - MBAP_HEADER_LENGTH + 1) {
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_DATA_LENGTH);
+        }
+
+        try {
+            if (!timed) {
+                this.pipeline.acquire();
+            } else if (!this.pipeline.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Recv timeout");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Thread interrupted");
+        }
+
+        try {
+            final Transaction transaction = new Transaction();
+            final int transactionId = register(transaction);
+            try {
+                send(transactionId, msg);
+                return transaction.await(timed, deadline);
+            } finally {
+                synchronized (this.pendingTransactions) {
+                    this.pendingTransactions.remove(transactionId);
+                }
+            }
+        } finally {
+            this.pipeline.release();
+        }
+    }
+
+    /**
+     * Closes the underlying socket, the pending requests will fail.
+     */
+    void close() {
+        this.closed = true;
+        try {
+            this.socket.close();
+        } catch (IOException e) {
+            s_logger.error("Error closing TCP: " + e);
+        }
+    }
+
+    boolean isOpen() {
+        synchronized (this.pendingTransactions) {
+            return !this.closed && this.failure == null;
+        }
+    }
+
+    private int register(Transaction transaction) throws IOException {
+        synchronized (this.pendingTransactions) {
+            if (this.failure != null) {
+                throw this.failure;
+            }
+            int transactionId;
+            do {
+                this.nextTransactionId = this.nextTransactionId + 1 & 0xffff;
+                transactionId = this.nextTransactionId;
+            } while (this.pendingTransactions.containsKey(transactionId));
+            this.pendingTransactions.put(transactionId, transaction);
+            return transactionId;
+        }
+    }
+
+    private void send(int transactionId, byte[] msg) throws IOException {
+        synchronized (this.sendBuffer) {
+            final byte[] frame = this.sendBuffer;
+            frame[0] = (byte) (transactionId >> 8);
+            frame[1] = (byte) transactionId;
+            frame[2] = 0;
+            frame[3] = 0;
+            frame[4] = (byte) (msg.length >> 8);
+            frame[5] = (byte) msg.length;
+            System.arraycopy(msg, 0, frame, 6, msg.length);
+            // No crc in Modbus TCP
+            this.outputStream.write(frame, 0, msg.length + 6);
+            this.outputStream.flush();
+        }
+    }
+
+    private void receive() {
+        final byte[] frame = this.receiveBuffer;
+        try {
+            while (true) {
+                this.inputStream.readFully(frame, 0, MBAP_HEADER_LENGTH);
+
+                final int transactionId = (frame[0] & 0xff) << 8 | frame[1] & 0xff;
+                final int protocolId = (frame[2] & 0xff) << 8 | frame[3] & 0xff;
+                final int length = (frame[4] & 0xff) << 8 | frame[5] & 0xff;
+
+                if (protocolId != 0 || length < 2 || length > MAX_ADU_LENGTH - 6) {
+                    throw new IOException("Invalid MBAP header, protocol id: " + protocolId + " length: " + length);
+                }
+
+                this.inputStream.readFully(frame, MBAP_HEADER_LENGTH, length - 1);
+
+                final Transaction transaction;
+                synchronized (this.pendingTransactions) {
+                    transaction = this.pendingTransactions.get(transactionId);
+                }
+                if (transaction == null) {
+                    s_logger.debug("Discarding response with unexpected transaction id {}", transactionId);
+                    continue;
+                }
+
+                final byte[] response = new byte[length];
+                System.arraycopy(frame, 6, response, 0, length);
+                transaction.complete(response);
+            }
+        } catch (IOException e) {
+            if (this.closed) {
+                s_logger.debug("TCP connection closed");
+            } else {
+                s_logger.error("Socket disconnect in recv: " + e);
+            }
+            fail(e);
+        }
+    }
+
+    private void fail(IOException e) {
+        final List<Transaction> transactions;
+        synchronized (this.pendingTransactions) {
+            this.failure = e;
+            transactions = new ArrayList<Transaction>(this.pendingTransactions.values());
+        }
+        for (Transaction transaction : transactions) {
+            transaction.fail(e);
+        }
+    }
+
+    private static final class Transaction {
+
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile byte[] response;
+        private volatile IOException failure;
+
+        void complete(byte[] response) {
+            this.response = response;
+            this.done.countDown();
+        }
+
+        void fail(IOException failure) {
+            this.failure = failure;
+            this.done.countDown();
+        }
+
+        byte[] await(boolean timed, long deadline) throws IOException, ModbusProtocolException {
+            try {
+                if (!timed) {
+                    this.done.await();
+                } else if (!this.done.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    s_logger.warn("Recv timeout");
+                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Recv timeout");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Thread interrupted");
+            }
+            if (this.failure != null) {
+                throw this.failure;
+            }
+            return this.response;
+        }
+    }
+}
@@ -17,12 +17,15 @@ import static java.util.Objects.isNull;
 import static java.util.Objects.requireNonNull;
 import static org.eclipse.kura.util.base.StringUtil.isNullOrEmpty;
 import static org.eclipse.kura.wire.WireSupport.EMIT_EVENT_TOPIC;
+import static org.eclipse.kura.wire.metrics.WireMetricsService.COMPONENT_METRICS_PROPERTY;
+import static org.eclipse.kura.wire.metrics.WireMetricsService.METRICS_EVENT_TOPIC;
 import static org.osgi.service.event.EventConstants.EVENT_TOPIC;
 
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.Dictionary;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
@@ -37,17 +40,24 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
+import org.eclipse.kura.wire.metrics.WireComponentMetrics;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.FrameworkUtil;
 import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+
 /**
  * The Class EventHandlerServlet is responsible for interacting between Event
  * Admin and Javascript through Server Sent Events (SSE). This is mainly required
- * for Kura Wires to delegate the emit events.
+ * for Kura Wires to delegate the emit events and the Wire metrics events. The emit
+ * events are sent as unnamed SSE messages containing the emitter PID, the metrics
+ * events are sent as SSE messages named {@code metrics} containing a JSON object.
  */
 public final class EventHandlerServlet extends HttpServlet {
 
@@ -151,7 +161,7 @@ public final class EventHandlerServlet extends HttpServlet {
                         printStream.print(":\n\n");
                     } else {
                         logger.debug("Sending data for request: {}", requestId);
-                        printStream.printf("data: %s%n%n", data);
+                        printStream.printf("%s%n%n", data);
                     }
                     requestExistsAndValid = checkRequestValidity(requestId);
                 }
@@ -161,8 +171,8 @@ public final class EventHandlerServlet extends HttpServlet {
             }
         });
 
-        final ServiceRegistration<?> registration = registerEventHandler(EMIT_EVENT_TOPIC, eventQueue, requestId,
-                elementRemovalFuture);
+        final ServiceRegistration<?> registration = registerEventHandler(
+                new String[] { EMIT_EVENT_TOPIC, METRICS_EVENT_TOPIC }, eventQueue, requestId, elementRemovalFuture);
         // unregisters event handler service and close the servlet output stream
         final CompletableFuture<Void> cleanupFuture = elementRemovalFuture.handle((ok, exeption) -> {
             logger.info("Cleaning resources for request: {}", requestId);
@@ -201,8 +211,8 @@ public final class EventHandlerServlet extends HttpServlet {
     /**
      * Registers the event handler
      *
-     * @param topic
-     *            the topic to track changes
+     * @param topics
+     *            the topics to track changes
      * @param eventQueue
      *            the shared queue
      * @param requestId
@@ -215,20 +225,22 @@ public final class EventHandlerServlet extends HttpServlet {
      * @throws NullPointerException
      *             if any of the provided arguments is null
      */
-    private ServiceRegistration<?> registerEventHandler(final String topic, final BlockingQueue<String> eventQueue,
-            final String requestId, final CompletableFuture<?> future) {
-        requireNonNull(topic, "Topic must not be null");
+    private ServiceRegistration<?> registerEventHandler(final String[] topics,
+            final BlockingQueue<String> eventQueue, final String requestId, final CompletableFuture<?> future) {
+        requireNonNull(topics, "Topics must not be null");
         requireNonNull(eventQueue, "Provided Queue must not be null");
         requireNonNull(requestId, "Provided Session ID must not be null");
         requireNonNull(future, "Future reference must not be null");
 
         // event handler properties
         final Dictionary<String, Object> props = new Hashtable<>();
-        props.put(EVENT_TOPIC, topic);
+        props.put(EVENT_TOPIC, topics);
         // register the handler as a service instance
         return this.bundleContext.registerService(EventHandler.class, event -> {
             synchronized (EventHandlerServlet.class) {
-                final String eventData = String.valueOf(event.getProperty("emitter"));
+                final String eventData = METRICS_EVENT_TOPIC.equals(event.getTopic())
+                        ? "event: metrics\ndata: " + toMetricsJson(event)
+                        : "data: " + String.valueOf(event.getProperty("emitter"));
 
                 final boolean validRequest = checkRequestValidity(requestId);
                 final boolean consumerAlive = eventQueue.offer(eventData);
@@ -245,6 +257,29 @@ public final class EventHandlerServlet extends HttpServlet {
         } , props);
     }
 
+    /**
+     * Converts the Wire Component metrics contained in the provided event to a single line JSON object
+     */
+    private static String toMetricsJson(final Event event) {
+        final JsonArray components = new JsonArray();
+        final Object metricsList = event.getProperty(COMPONENT_METRICS_PROPERTY);
+        if (metricsList instanceof List<?>) {
+            for (final Object element : (List<?>) metricsList) {
+                if (!(element instanceof WireComponentMetrics)) {
+                    continue;
+                }
+                final WireComponentMetrics metrics = (WireComponentMetrics) element;
+                components.add(new JsonObject().add("pid", metrics.getPid())
+                        .add("recordsIn", metrics.getRecordsIn()).add("recordsOut", metrics.getRecordsOut())
+                        .add("meanReceiveMicros",
+                                TimeUnit.NANOSECONDS.toMicros(metrics.getReceiveTime().getMeanNanos()))
+                        .add("queueDepth", metrics.getQueueDepth()));
+            }
+        }
+        return new JsonObject().add("timestamp", System.currentTimeMillis()).add("components", components)
+                .toString();
+    }
+
     private void cleanRequest(final String requestId) {
         logger.debug("Cleaning request: {}", requestId);
         this.requests.remove(requestId);
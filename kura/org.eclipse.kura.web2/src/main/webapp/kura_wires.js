@@ -32,6 +32,7 @@ var kuraWires = (function() {
 	var isComponentDeleted;
 	var eventSource;
 	var selectionRefreshPending = false;
+	var previousMetrics = {}; // Last received Wire metrics, by component PID
 
 	/*
 	 * / Public functions
@@ -113,9 +114,43 @@ var kuraWires = (function() {
 					}
 				});
 			};
+			eventSource.addEventListener('metrics', function(event) {
+				showMetrics(JSON.parse(event.data));
+			});
 		}
 	}
 
+	/**
+	 * Shows the Wire metrics below the name of the components
+	 */
+	function showMetrics(metrics) {
+		var current = {};
+		_.each(metrics.components, function(m) {
+			m.timestamp = metrics.timestamp;
+			current[m.pid] = m;
+		});
+		_.each(graph.getElements(), function(c) {
+			var name = c.attributes.label;
+			var m = current[name];
+			var text = joint.util.breakText(name, {
+				width : 100
+			});
+			var previous = previousMetrics[name];
+			if (m && previous && m.timestamp > previous.timestamp) {
+				var seconds = (m.timestamp - previous.timestamp) / 1000;
+				var inRate = Math.max(0, (m.recordsIn - previous.recordsIn) / seconds);
+				var outRate = Math.max(0, (m.recordsOut - previous.recordsOut) / seconds);
+				text += '\n' + inRate.toFixed(1) + ' in/s ' + outRate.toFixed(1) + ' out/s';
+				text += '\n' + (m.meanReceiveMicros / 1000).toFixed(2) + ' ms';
+				if (m.queueDepth >= 0) {
+					text += ' q:' + m.queueDepth;
+				}
+			}
+			c.attr('.label/text', text);
+		});
+		previousMetrics = current;
+	}
+
 	function toggleDeleteGraphButton(flag) {
 		$('#btn-delete-graph').prop('disabled', flag);
 	}
@@ -0,0 +1,25 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.aggregator;
+
+/**
+ * The aggregate functions supported by the {@link Aggregator}. The standard deviation is the population
+ * standard deviation of the samples in the window.
+ */
+enum AggregateFunction {
+    MIN,
+    MAX,
+    MEAN,
+    SUM,
+    COUNT,
+    STDDEV,
+    FIRST,
+    LAST
+}
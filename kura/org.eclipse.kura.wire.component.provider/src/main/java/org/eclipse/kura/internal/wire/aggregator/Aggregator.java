@@ -0,0 +1,360 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.aggregator;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.configuration.ConfigurationService;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.wire.WireComponent;
+import org.eclipse.kura.wire.WireEmitter;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireHelperService;
+import org.eclipse.kura.wire.WireReceiver;
+import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.WireSupport;
+import org.osgi.service.wireadmin.Wire;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Class {@link Aggregator} represents a {@link WireComponent} which computes window aggregates of the numeric
+ * properties of the received {@link WireRecord}s.
+ * <p>
+ * Windows can be measured in received records or in milliseconds and can be either tumbling or sliding. The
+ * records can be grouped by the value of a key property, in this case every group has its own windows. When a
+ * window closes, a {@link WireRecord} is emitted for every group that received samples in that window, containing
+ * a {@code <property>_<function>} entry for every aggregated property and function.
+ * <p>
+ * Samples are kept in primitive ring buffers, one for every group and property, and are evicted as soon as they
+ * cannot belong to any further window.
+ */
+public final class Aggregator implements WireEmitter, WireReceiver, ConfigurableComponent {
+
+    private static final Logger logger = LoggerFactory.getLogger(Aggregator.class);
+
+    /** Start of the window, emitted for time based windows only */
+    static final String WINDOW_START = "windowStart";
+
+    /** End of the window, emitted for time based windows only */
+    static final String WINDOW_END = "windowEnd";
+
+    private volatile WireHelperService wireHelperService;
+
+    private WireSupport wireSupport;
+
+    private String componentPid;
+
+    private WindowBasis windowBasis;
+
+    private int windowSize;
+
+    private int windowSlide;
+
+    private String groupBy;
+
+    private AggregateFunction[] functions;
+
+    private Pattern propertiesPattern;
+
+    private final Map<String, Group> groups = new LinkedHashMap<>();
+
+    private final double[] results = new double[AggregateFunction.values().length];
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * Binds the {@link WireHelperService}.
+     *
+     * @param wireHelperService
+     *            the new {@link WireHelperService}
+     */
+    public void bindWireHelperService(final WireHelperService wireHelperService) {
+        if (isNull(this.wireHelperService)) {
+            this.wireHelperService = wireHelperService;
+        }
+    }
+
+    /**
+     * Unbinds the {@link WireHelperService}.
+     *
+     * @param wireHelperService
+     *            the new {@link WireHelperService}
+     */
+    public void unbindWireHelperService(final WireHelperService wireHelperService) {
+        if (this.wireHelperService == wireHelperService) {
+            this.wireHelperService = null;
+        }
+    }
+
+    /**
+     * OSGi service component activation callback
+     *
+     * @param properties
+     *            the configured properties
+     */
+    public void activate(final Map<String, Object> properties) {
+        logger.info("Activating Aggregator...");
+        this.wireSupport = this.wireHelperService.newWireSupport(this);
+        updated(properties);
+        logger.info("Activating Aggregator... Done");
+    }
+
+    /**
+     * OSGi service component modification callback. The pending windows are discarded.
+     *
+     * @param properties
+     *            the updated properties
+     */
+    public synchronized void updated(final Map<String, Object> properties) {
+        logger.info("Updating Aggregator...");
+        final AggregatorOptions options = new AggregatorOptions(properties);
+        this.componentPid = String.valueOf(properties.getOrDefault(ConfigurationService.KURA_SERVICE_PID, ""));
+        this.windowBasis = options.getWindowBasis();
+        this.windowSize = options.getWindowSize();
+        this.windowSlide = options.getWindowSlide();
+        this.groupBy = options.getGroupBy();
+        this.functions = options.getAggregateFunctions();
+        this.propertiesPattern = options.getPropertiesPattern();
+        this.groups.clear();
+
+        stopExecutor();
+        if (this.windowBasis == WindowBasis.TIME) {
+            startExecutor();
+        }
+        logger.info("Updating Aggregator... Done");
+    }
+
+    /**
+     * OSGi service component deactivation callback
+     */
+    public synchronized void deactivate() {
+        logger.info("Deactivating Aggregator...");
+        stopExecutor();
+        this.groups.clear();
+        logger.info("Deactivating Aggregator... Done");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onWireReceive(final WireEnvelope wireEnvelope) {
+        requireNonNull(wireEnvelope, "Wire Envelope cannot be null");
+        final List<WireRecord> aggregated = receive(wireEnvelope.getRecords(), System.currentTimeMillis());
+        if (!aggregated.isEmpty()) {
+            this.wireSupport.emit(aggregated);
+        }
+    }
+
+    /**
+     * Adds the numeric properties of the provided records to the windows of their group.
+     *
+     * @param wireRecords
+     *            the received records
+     * @param now
+     *            the reception time, used as the sample position for time based windows
+     * @return the records produced by the count based windows closed by the provided records
+     */
+    synchronized List<WireRecord> receive(final List<WireRecord> wireRecords, final long now) {
+        final List<WireRecord> aggregated = new ArrayList<>();
+        for (final WireRecord wireRecord : wireRecords) {
+            final Map<String, TypedValue<?>> properties = wireRecord.getProperties();
+            final TypedValue<?> groupValue = this.groupBy.isEmpty() ? null : properties.get(this.groupBy);
+            final String groupKey = isNull(groupValue) ? "" : String.valueOf(groupValue.getValue());
+
+            Group group = this.groups.get(groupKey);
+            if (isNull(group)) {
+                group = new Group(groupValue, firstWindowEnd(now));
+                this.groups.put(groupKey, group);
+            }
+
+            final long position = this.windowBasis == WindowBasis.COUNT ? group.recordCount++ : now;
+            for (final Entry<String, TypedValue<?>> entry : properties.entrySet()) {
+                final String name = entry.getKey();
+                final Object value = entry.getValue().getValue();
+                if (!(value instanceof Number) || name.equals(this.groupBy)
+                        || !this.propertiesPattern.matcher(name).matches()) {
+                    continue;
+                }
+                SampleBuffer buffer = group.buffers.get(name);
+                if (isNull(buffer)) {
+                    buffer = new SampleBuffer();
+                    group.buffers.put(name, buffer);
+                }
+                buffer.add(position, ((Number) value).doubleValue());
+            }
+
+            if (this.windowBasis == WindowBasis.COUNT && group.recordCount >= group.nextWindowEnd) {
+                final WireRecord result = closeWindow(group);
+                if (nonNull(result)) {
+                    aggregated.add(result);
+                }
+            }
+        }
+        return aggregated;
+    }
+
+    /**
+     * Closes the time based windows that end before the provided time.
+     *
+     * @param now
+     *            the current time
+     * @return the produced records
+     */
+    synchronized List<WireRecord> closeTimeWindows(final long now) {
+        final List<WireRecord> aggregated = new ArrayList<>();
+        final Iterator<Group> iterator = this.groups.values().iterator();
+        while (iterator.hasNext()) {
+            final Group group = iterator.next();
+            while (group.nextWindowEnd <= now) {
+                final WireRecord result = closeWindow(group);
+                if (nonNull(result)) {
+                    aggregated.add(result);
+                }
+            }
+            if (group.isEmpty()) {
+                // will be recreated by the next sample
+                iterator.remove();
+            }
+        }
+        return aggregated;
+    }
+
+    private long firstWindowEnd(final long now) {
+        if (this.windowBasis == WindowBasis.COUNT) {
+            return this.windowSize;
+        }
+        // time based windows are aligned to the epoch
+        return now - Math.floorMod(now, (long) this.windowSlide) + this.windowSlide;
+    }
+
+    private WireRecord closeWindow(final Group group) {
+        final long end = group.nextWindowEnd;
+        final long start = end - this.windowSize;
+        group.nextWindowEnd += this.windowSlide;
+
+        final Map<String, TypedValue<?>> properties = new HashMap<>();
+        for (final Entry<String, SampleBuffer> entry : group.buffers.entrySet()) {
+            final SampleBuffer buffer = entry.getValue();
+            if (buffer.aggregate(start, end, this.functions, this.results) > 0) {
+                for (final AggregateFunction function : this.functions) {
+                    final String name = entry.getKey() + "_" + function.name().toLowerCase();
+                    final double result = this.results[function.ordinal()];
+                    properties.put(name, function == AggregateFunction.COUNT ? TypedValues.newLongValue((long) result)
+                            : TypedValues.newDoubleValue(result));
+                }
+            }
+            buffer.removeBefore(group.nextWindowEnd - this.windowSize);
+        }
+
+        if (properties.isEmpty()) {
+            return null;
+        }
+        if (nonNull(group.groupValue)) {
+            properties.put(this.groupBy, group.groupValue);
+        }
+        if (this.windowBasis == WindowBasis.TIME) {
+            properties.put(WINDOW_START, TypedValues.newLongValue(start));
+            properties.put(WINDOW_END, TypedValues.newLongValue(end));
+        }
+        return new WireRecord(properties);
+    }
+
+    private void startExecutor() {
+        final String threadName = this.componentPid + "-AggregatorThread";
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, threadName));
+        final long now = System.currentTimeMillis();
+        final long initialDelay = firstWindowEnd(now) - now;
+        this.executor.scheduleAtFixedRate(() -> {
+            try {
+                final List<WireRecord> aggregated = closeTimeWindows(System.currentTimeMillis());
+                if (!aggregated.isEmpty()) {
+                    this.wireSupport.emit(aggregated);
+                }
+            } catch (final Exception e) {
+                logger.warn("Failed to emit aggregated records", e);
+            }
+        }, initialDelay, this.windowSlide, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopExecutor() {
+        if (nonNull(this.executor)) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object polled(final Wire wire) {
+        return this.wireSupport.polled(wire);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void consumersConnected(final Wire[] wires) {
+        this.wireSupport.consumersConnected(wires);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void updated(final Wire wire, final Object value) {
+        this.wireSupport.updated(wire, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void producersConnected(final Wire[] wires) {
+        this.wireSupport.producersConnected(wires);
+    }
+
+    /**
+     * The window state of a group of records.
+     */
+    private static final class Group {
+
+        private final TypedValue<?> groupValue;
+
+        private final Map<String, SampleBuffer> buffers = new LinkedHashMap<>();
+
+        private long nextWindowEnd;
+
+        private long recordCount;
+
+        Group(final TypedValue<?> groupValue, final long nextWindowEnd) {
+            this.groupValue = groupValue;
+            this.nextWindowEnd = nextWindowEnd;
+        }
+
+        boolean isEmpty() {
+            for (final SampleBuffer buffer : this.buffers.values()) {
+                if (!buffer.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.aggregator;
+
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Class AggregatorOptions is responsible to provide all the required
+ * options for the Aggregator Wire Component
+ */
+final class AggregatorOptions {
+
+    private static final Logger logger = LoggerFactory.getLogger(AggregatorOptions.class);
+
+    private static final String CONF_WINDOW_BASIS = "window.basis";
+
+    private static final String CONF_WINDOW_TYPE = "window.type";
+
+    private static final String CONF_WINDOW_SIZE = "window.size";
+
+    private static final String CONF_WINDOW_SLIDE = "window.slide";
+
+    private static final String CONF_GROUP_BY = "group.by";
+
+    private static final String CONF_AGGREGATES = "aggregates";
+
+    private static final String CONF_PROPERTIES_REGEX = "properties.regex";
+
+    private static final WindowBasis DEFAULT_WINDOW_BASIS = WindowBasis.COUNT;
+
+    private static final WindowType DEFAULT_WINDOW_TYPE = WindowType.TUMBLING;
+
+    private static final int DEFAULT_WINDOW_SIZE = 10;
+
+    private static final int DEFAULT_WINDOW_SLIDE = 5;
+
+    private static final String DEFAULT_AGGREGATES = "MIN,MAX,MEAN,COUNT";
+
+    /** Matches all the properties except the timestamps emitted by the Wire Assets */
+    private static final String DEFAULT_PROPERTIES_REGEX = ".*(?<!_timestamp)";
+
+    private final Map<String, Object> properties;
+
+    /**
+     * Instantiates a new aggregator options.
+     *
+     * @param properties
+     *            the properties
+     */
+    AggregatorOptions(final Map<String, Object> properties) {
+        requireNonNull(properties, "Properties cannot be null");
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the unit of the window size and slide.
+     *
+     * @return the window basis
+     */
+    WindowBasis getWindowBasis() {
+        WindowBasis windowBasis = DEFAULT_WINDOW_BASIS;
+        final Object basis = this.properties.get(CONF_WINDOW_BASIS);
+        if (nonNull(basis) && basis instanceof String) {
+            try {
+                windowBasis = WindowBasis.valueOf((String) basis);
+            } catch (final IllegalArgumentException e) {
+                logger.warn("Unknown window basis {}, using {}", basis, DEFAULT_WINDOW_BASIS);
+            }
+        }
+        return windowBasis;
+    }
+
+    /**
+     * Returns the window type.
+     *
+     * @return the window type
+     */
+    WindowType getWindowType() {
+        WindowType windowType = DEFAULT_WINDOW_TYPE;
+        final Object type = this.properties.get(CONF_WINDOW_TYPE);
+        if (nonNull(type) && type instanceof String) {
+            try {
+                windowType = WindowType.valueOf((String) type);
+            } catch (final IllegalArgumentException e) {
+                logger.warn("Unknown window type {}, using {}", type, DEFAULT_WINDOW_TYPE);
+            }
+        }
+        return windowType;
+    }
+
+    /**
+     * Returns the window size, as a number of records or milliseconds depending on the window basis.
+     *
+     * @return the window size
+     */
+    int getWindowSize() {
+        int windowSize = DEFAULT_WINDOW_SIZE;
+        final Object size = this.properties.get(CONF_WINDOW_SIZE);
+        if (nonNull(size) && size instanceof Integer) {
+            windowSize = (Integer) size;
+        }
+        return Math.max(1, windowSize);
+    }
+
+    /**
+     * Returns the distance between the end of two consecutive windows, as a number of records or milliseconds
+     * depending on the window basis. For tumbling windows this is equal to the window size.
+     *
+     * @return the window slide
+     */
+    int getWindowSlide() {
+        if (getWindowType() == WindowType.TUMBLING) {
+            return getWindowSize();
+        }
+        int windowSlide = DEFAULT_WINDOW_SLIDE;
+        final Object slide = this.properties.get(CONF_WINDOW_SLIDE);
+        if (nonNull(slide) && slide instanceof Integer) {
+            windowSlide = (Integer) slide;
+        }
+        return Math.max(1, windowSlide);
+    }
+
+    /**
+     * Returns the name of the property used to group the received records, or an empty string if the records
+     * must not be grouped.
+     *
+     * @return the group by property name
+     */
+    String getGroupBy() {
+        String groupBy = "";
+        final Object group = this.properties.get(CONF_GROUP_BY);
+        if (nonNull(group) && group instanceof String) {
+            groupBy = ((String) group).trim();
+        }
+        return groupBy;
+    }
+
+    /**
+     * Returns the aggregate functions to be computed for each property, unknown function names are ignored.
+     *
+     * @return the aggregate functions, in declaration order
+     */
+    AggregateFunction[] getAggregateFunctions() {
+        String aggregates = DEFAULT_AGGREGATES;
+        final Object configured = this.properties.get(CONF_AGGREGATES);
+        if (nonNull(configured) && configured instanceof String && !((String) configured).trim().isEmpty()) {
+            aggregates = (String) configured;
+        }
+        final Set<AggregateFunction> functions = EnumSet.noneOf(AggregateFunction.class);
+        for (final String name : aggregates.split(",")) {
+            try {
+                functions.add(AggregateFunction.valueOf(name.trim().toUpperCase()));
+            } catch (final IllegalArgumentException e) {
+                logger.warn("Unknown aggregate function {}", name);
+            }
+        }
+        return functions.toArray(new AggregateFunction[functions.size()]);
+    }
+
+    /**
+     * Returns the pattern that selects the properties to be aggregated.
+     *
+     * @return the properties pattern
+     */
+    Pattern getPropertiesPattern() {
+        String regex = DEFAULT_PROPERTIES_REGEX;
+        final Object configured = this.properties.get(CONF_PROPERTIES_REGEX);
+        if (nonNull(configured) && configured instanceof String && !((String) configured).trim().isEmpty()) {
+            regex = (String) configured;
+        }
+        try {
+            return Pattern.compile(regex);
+        } catch (final PatternSyntaxException e) {
+            logger.warn("Invalid properties regex {}, using {}", regex, DEFAULT_PROPERTIES_REGEX);
+            return Pattern.compile(DEFAULT_PROPERTIES_REGEX);
+        }
+    }
+}
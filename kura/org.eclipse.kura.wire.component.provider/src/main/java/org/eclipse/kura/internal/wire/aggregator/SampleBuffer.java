@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.aggregator;
+
+/**
+ * A ring buffer of numeric samples backed by primitive arrays. Each sample is a {@code double} value associated
+ * with a {@code long} position, that is either the sample arrival time or the index of the record it belongs to.
+ * Samples must be added in non decreasing position order.
+ * <p>
+ * This class is not thread safe.
+ */
+final class SampleBuffer {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private double[] values;
+
+    private long[] positions;
+
+    private int head;
+
+    private int size;
+
+    SampleBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    SampleBuffer(final int initialCapacity) {
+        final int capacity = Math.max(1, initialCapacity);
+        this.values = new double[capacity];
+        this.positions = new long[capacity];
+    }
+
+    /**
+     * Appends a sample, the buffer capacity is doubled if needed.
+     *
+     * @param position
+     *            the sample position
+     * @param value
+     *            the sample value
+     */
+    void add(final long position, final double value) {
+        if (this.size == this.values.length) {
+            grow();
+        }
+        final int index = (this.head + this.size) % this.values.length;
+        this.values[index] = value;
+        this.positions[index] = position;
+        this.size++;
+    }
+
+    /**
+     * Removes the samples whose position is lower than the provided one.
+     *
+     * @param position
+     *            the position of the oldest sample to be retained
+     */
+    void removeBefore(final long position) {
+        while (this.size > 0 && this.positions[this.head] < position) {
+            this.head = (this.head + 1) % this.values.length;
+            this.size--;
+        }
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Returns the value of the i-th sample, the oldest sample has index 0.
+     */
+    double getValue(final int i) {
+        return this.values[(this.head + i) % this.values.length];
+    }
+
+    /**
+     * Returns the position of the i-th sample, the oldest sample has index 0.
+     */
+    long getPosition(final int i) {
+        return this.positions[(this.head + i) % this.positions.length];
+    }
+
+    /**
+     * Computes the requested aggregates over the samples whose position is in {@code [start, end)}.
+     *
+     * @param start
+     *            the window start position, inclusive
+     * @param end
+     *            the window end position, exclusive
+     * @param functions
+     *            the functions to be computed
+     * @param result
+     *            the array that will contain the results, indexed by {@link AggregateFunction#ordinal()}
+     * @return the number of samples in the window, if 0 the content of {@code result} is undefined
+     */
+    int aggregate(final long start, final long end, final AggregateFunction[] functions, final double[] result) {
+        int count = 0;
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double first = Double.NaN;
+        double last = Double.NaN;
+
+        for (int i = 0; i < this.size; i++) {
+            final long position = getPosition(i);
+            if (position < start) {
+                continue;
+            }
+            if (position >= end) {
+                break;
+            }
+            final double value = getValue(i);
+            if (count == 0) {
+                first = value;
+            }
+            last = value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+            count++;
+        }
+
+        if (count == 0) {
+            return 0;
+        }
+
+        final double mean = sum / count;
+        for (final AggregateFunction function : functions) {
+            switch (function) {
+            case MIN:
+                result[function.ordinal()] = min;
+                break;
+            case MAX:
+                result[function.ordinal()] = max;
+                break;
+            case MEAN:
+                result[function.ordinal()] = mean;
+                break;
+            case SUM:
+                result[function.ordinal()] = sum;
+                break;
+            case COUNT:
+                result[function.ordinal()] = count;
+                break;
+            case STDDEV:
+                result[function.ordinal()] = stddev(start, end, mean, count);
+                break;
+            case FIRST:
+                result[function.ordinal()] = first;
+                break;
+            case LAST:
+                result[function.ordinal()] = last;
+                break;
+            default:
+                break;
+            }
+        }
+        return count;
+    }
+
+    private double stddev(final long start, final long end, final double mean, final int count) {
+        // second pass, more stable than the sum of squares approach
+        double squares = 0;
+        for (int i = 0; i < this.size; i++) {
+            final long position = getPosition(i);
+            if (position < start) {
+                continue;
+            }
+            if (position >= end) {
+                break;
+            }
+            final double delta = getValue(i) - mean;
+            squares += delta * delta;
+        }
+        return Math.sqrt(squares / count);
+    }
+
+    private void grow() {
+        final int capacity = this.values.length * 2;
+        final double[] newValues = new double[capacity];
+        final long[] newPositions = new long[capacity];
+        for (int i = 0; i < this.size; i++) {
+            newValues[i] = getValue(i);
+            newPositions[i] = getPosition(i);
+        }
+        this.values = newValues;
+        this.positions = newPositions;
+        this.head = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "SampleBuffer [size=" + this.size + ", capacity=" + this.values.length + "]";
+    }
+}
@@ -0,0 +1,19 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.aggregator;
+
+/**
+ * Defines the unit of the window size and slide of the {@link Aggregator}: a number of received records or a
+ * number of milliseconds.
+ */
+enum WindowBasis {
+    COUNT,
+    TIME
+}
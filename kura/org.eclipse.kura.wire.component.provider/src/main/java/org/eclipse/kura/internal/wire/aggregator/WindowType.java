@@ -0,0 +1,19 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.aggregator;
+
+/**
+ * Defines how consecutive windows of the {@link Aggregator} are placed: {@link #TUMBLING} windows do not overlap,
+ * a new {@link #SLIDING} window starts every {@code window.slide} units.
+ */
+enum WindowType {
+    TUMBLING,
+    SLIDING
+}
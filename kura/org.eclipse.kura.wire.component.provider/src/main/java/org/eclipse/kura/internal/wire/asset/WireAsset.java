@@ -16,6 +16,7 @@ package org.eclipse.kura.internal.wire.asset;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.eclipse.kura.channel.ChannelType.READ_WRITE;
 import static org.eclipse.kura.channel.ChannelType.WRITE;
 
@@ -198,12 +199,18 @@ public final class WireAsset extends BaseAsset implements WireEmitter, WireRecei
      * order of executions are performed the following way:
      *
      * <ul>
-     * <li>Perform all read operations on associated reading channels</li>
+     * <li>Perform the read operations on the associated reading channels that are due</li>
      * <li>Perform all write operations on associated writing channels</li>
      * <ul>
      *
      * Both the aforementioned operations are performed as soon as this Wire Component
      * receives {@code Non Null} {@link WireEnvelop} from its upstream Wire Component(s).
+     * The operations are asynchronous: this method does not wait for the driver, the
+     * channel values are emitted when the read completes. The operations that do not
+     * complete within the configured request timeout are logged as failed.
+     * <br/>
+     * The reading channels configured with a poll interval are read only when it has elapsed, the emitted
+     * {@link WireRecord} contains only the channels that have been read. No record is emitted if no channel is due.
      *
      * @param wireEnvelope
      *            the received {@link WireEnvelope}
@@ -216,11 +223,13 @@ public final class WireAsset extends BaseAsset implements WireEmitter, WireRecei
         logger.debug(message.wireEnvelopeReceived(), this.wireSupport);
 
         if (hasReadChannels()) {
-            try {
-                emitChannelRecords(readAllChannels());
-            } catch (final KuraException e) {
-                logger.error(message.errorPerformingRead(), e);
-            }
+            readDueChannelsAsync(getRequestTimeout(), MILLISECONDS).whenComplete((channelRecords, e) -> {
+                if (nonNull(e)) {
+                    logger.error(message.errorPerformingRead(), e);
+                } else if (!channelRecords.isEmpty()) {
+                    emitChannelRecords(channelRecords);
+                }
+            });
         }
 
         final List<WireRecord> records = wireEnvelope.getRecords();
@@ -340,11 +349,11 @@ public final class WireAsset extends BaseAsset implements WireEmitter, WireRecei
             return;
         }
 
-        try {
-            write(channelRecordsToWrite);
-        } catch (final KuraException e) {
-            logger.error(message.errorPerformingWrite(), e);
-        }
+        writeAsync(channelRecordsToWrite, getRequestTimeout(), MILLISECONDS).whenComplete((result, e) -> {
+            if (nonNull(e)) {
+                logger.error(message.errorPerformingWrite(), e);
+            }
+        });
     }
 
     /** {@inheritDoc} */
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.common;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.kura.message.KuraPayload;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.wire.WireRecord;
+
+/**
+ * Encodes a list of {@link WireRecord}s in a single {@link KuraPayload} and decodes it back.
+ * <p>
+ * The format only uses the metrics of the payload, so that it can be decoded by any application that reads Kura
+ * payloads, without depending on this class:
+ * <ul>
+ * <li>the {@value #FORMAT_METRIC} metric is an integer containing the version of the format, currently
+ * {@value #FORMAT_VERSION}</li>
+ * <li>the {@value #RECORD_COUNT_METRIC} metric is an integer containing the number of records</li>
+ * <li>the value of the property {@code name} of the i-th record (starting from 0) is stored in the metric named
+ * {@code <i>.<name>}, where {@code <i>} is written in decimal digits. Since the index never contains a dot, the
+ * property name is everything after the first dot.</li>
+ * </ul>
+ * The metric names starting with {@value #RESERVED_PREFIX} are reserved for the format: a payload is a batch
+ * only if it contains both the metrics above with the expected types and version. The records published one per
+ * payload must not have properties with a reserved name, see {@link #isReserved(String)}, so that they cannot be
+ * mistaken for a batch. Payloads with an unknown format version are not considered batches.
+ */
+public final class BatchPayloadCodec {
+
+    /** The prefix of the metric names reserved for the batch format. */
+    public static final String RESERVED_PREFIX = "wire.batch.";
+
+    /** The name of the metric that marks a batch payload and contains the version of the format. */
+    public static final String FORMAT_METRIC = RESERVED_PREFIX + "format";
+
+    /** The name of the metric that contains the number of records. */
+    public static final String RECORD_COUNT_METRIC = RESERVED_PREFIX + "records";
+
+    /** The version of the format produced by {@link #encode(List)}. */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final char INDEX_SEPARATOR = '.';
+
+    private BatchPayloadCodec() {
+        // no instances
+    }
+
+    /**
+     * Encodes the provided records in a single payload.
+     *
+     * @param wireRecords
+     *            the records to be encoded
+     * @return the payload
+     * @throws NullPointerException
+     *             if the argument is null
+     */
+    public static KuraPayload encode(final List<WireRecord> wireRecords) {
+        requireNonNull(wireRecords, "Wire Records cannot be null");
+        final KuraPayload kuraPayload = new KuraPayload();
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < wireRecords.size(); i++) {
+            builder.setLength(0);
+            builder.append(i).append(INDEX_SEPARATOR);
+            final int prefixLength = builder.length();
+            for (final Entry<String, TypedValue<?>> entry : wireRecords.get(i).getProperties().entrySet()) {
+                builder.setLength(prefixLength);
+                kuraPayload.addMetric(builder.append(entry.getKey()).toString(), entry.getValue().getValue());
+            }
+        }
+        kuraPayload.addMetric(FORMAT_METRIC, FORMAT_VERSION);
+        kuraPayload.addMetric(RECORD_COUNT_METRIC, wireRecords.size());
+        return kuraPayload;
+    }
+
+    /**
+     * Checks whether the provided payload has been produced by {@link #encode(List)}.
+     *
+     * @param kuraPayload
+     *            the payload
+     * @return true if the payload contains a batch of records
+     */
+    public static boolean isBatch(final KuraPayload kuraPayload) {
+        return Integer.valueOf(FORMAT_VERSION).equals(kuraPayload.getMetric(FORMAT_METRIC))
+                && kuraPayload.getMetric(RECORD_COUNT_METRIC) instanceof Integer;
+    }
+
+    /**
+     * Checks whether the provided property or metric name is reserved for the batch format. A record with a
+     * reserved property name cannot be published in its own payload.
+     *
+     * @param name
+     *            the name
+     * @return true if the name is reserved
+     */
+    public static boolean isReserved(final String name) {
+        return name.startsWith(RESERVED_PREFIX);
+    }
+
+    /**
+     * Decodes a payload produced by {@link #encode(List)}. Metrics that do not follow the batch format are ignored.
+     *
+     * @param kuraPayload
+     *            the payload
+     * @return the properties of the records, in the encoding order
+     * @throws NullPointerException
+     *             if the argument is null
+     * @throws IllegalArgumentException
+     *             if the payload is not a batch payload
+     */
+    public static List<Map<String, Object>> decode(final KuraPayload kuraPayload) {
+        requireNonNull(kuraPayload, "Payload cannot be null");
+        if (!isBatch(kuraPayload)) {
+            throw new IllegalArgumentException("The payload does not contain a batch of records");
+        }
+        final int count = (Integer) kuraPayload.getMetric(RECORD_COUNT_METRIC);
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+
+        final List<Map<String, Object>> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(new HashMap<>());
+        }
+        for (final Entry<String, Object> metric : kuraPayload.metrics().entrySet()) {
+            final String name = metric.getKey();
+            final int index = parseIndex(name);
+            if (index >= 0 && index < count) {
+                records.get(index).put(name.substring(name.indexOf(INDEX_SEPARATOR) + 1), metric.getValue());
+            }
+        }
+        return records;
+    }
+
+    private static int parseIndex(final String metricName) {
+        final int separator = metricName.indexOf(INDEX_SEPARATOR);
+        if (separator <= 0 || separator > 9) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = 0; i < separator; i++) {
+            final char c = metricName.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+}
@@ -0,0 +1,337 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.deadband;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.wire.WireComponent;
+import org.eclipse.kura.wire.WireEmitter;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireHelperService;
+import org.eclipse.kura.wire.WireReceiver;
+import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.WireSupport;
+import org.osgi.service.wireadmin.Wire;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Class {@link Deadband} represents a {@link WireComponent} that only forwards the values that changed since
+ * they were last forwarded (report by exception).
+ * <p>
+ * A numeric value is considered changed if it differs from the last forwarded value of the same property by more
+ * than the configured absolute or percentage deadband, any other value is considered changed if it is not equal to
+ * the last forwarded one. The last forwarded values are tracked separately for every value of the key property,
+ * by default the {@code assetName} property emitted by the Wire Assets.
+ * <p>
+ * Depending on the suppression mode, either the unchanged properties are removed from the records, together with
+ * their companion properties ({@code <property>_timestamp} and {@code <property>_error}), or the records are
+ * forwarded unmodified only if at least one of their properties changed. If a heartbeat interval is configured, a
+ * value is forwarded anyway if it has not been forwarded for longer than the interval.
+ */
+public final class Deadband implements WireEmitter, WireReceiver, ConfigurableComponent {
+
+    private static final Logger logger = LoggerFactory.getLogger(Deadband.class);
+
+    /** Suffixes of the companion properties emitted by the Wire Assets together with a channel value. */
+    private static final String[] COMPANION_SUFFIXES = { "_timestamp", "_error" };
+
+    private volatile WireHelperService wireHelperService;
+
+    private WireSupport wireSupport;
+
+    private DeadbandType deadbandType;
+
+    private double deadbandValue;
+
+    private SuppressionMode suppressionMode;
+
+    private long heartbeatInterval;
+
+    private String keyProperty;
+
+    private Pattern propertiesPattern;
+
+    private final Map<String, LastValueTable> lastValues = new HashMap<>();
+
+    /**
+     * Binds the {@link WireHelperService}.
+     *
+     * @param wireHelperService
+     *            the new {@link WireHelperService}
+     */
+    public void bindWireHelperService(final WireHelperService wireHelperService) {
+        if (isNull(this.wireHelperService)) {
+            this.wireHelperService = wireHelperService;
+        }
+    }
+
+    /**
+     * Unbinds the {@link WireHelperService}.
+     *
+     * @param wireHelperService
+     *            the new {@link WireHelperService}
+     */
+    public void unbindWireHelperService(final WireHelperService wireHelperService) {
+        if (this.wireHelperService == wireHelperService) {
+            this.wireHelperService = null;
+        }
+    }
+
+    /**
+     * OSGi service component activation callback
+     *
+     * @param properties
+     *            the configured properties
+     */
+    public void activate(final Map<String, Object> properties) {
+        logger.info("Activating Deadband...");
+        this.wireSupport = this.wireHelperService.newWireSupport(this);
+        updated(properties);
+        logger.info("Activating Deadband... Done");
+    }
+
+    /**
+     * OSGi service component modification callback. The last reported values are discarded, so that the next
+     * received values are always forwarded.
+     *
+     * @param properties
+     *            the updated properties
+     */
+    public synchronized void updated(final Map<String, Object> properties) {
+        logger.info("Updating Deadband...");
+        final DeadbandOptions options = new DeadbandOptions(properties);
+        this.deadbandType = options.getDeadbandType();
+        this.deadbandValue = options.getDeadbandValue();
+        this.suppressionMode = options.getSuppressionMode();
+        this.heartbeatInterval = options.getHeartbeatInterval();
+        this.keyProperty = options.getKeyProperty();
+        this.propertiesPattern = options.getPropertiesPattern();
+        this.lastValues.clear();
+        logger.info("Updating Deadband... Done");
+    }
+
+    /**
+     * OSGi service component deactivation callback
+     */
+    public synchronized void deactivate() {
+        logger.info("Deactivating Deadband...");
+        this.lastValues.clear();
+        logger.info("Deactivating Deadband... Done");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onWireReceive(final WireEnvelope wireEnvelope) {
+        requireNonNull(wireEnvelope, "Wire Envelope cannot be null");
+        final List<WireRecord> changed = filter(wireEnvelope.getRecords(), System.currentTimeMillis());
+        if (!changed.isEmpty()) {
+            this.wireSupport.emit(changed);
+        }
+    }
+
+    /**
+     * Removes the unchanged values from the provided records.
+     *
+     * @param wireRecords
+     *            the received records
+     * @param now
+     *            the current time
+     * @return the records to be forwarded
+     */
+    synchronized List<WireRecord> filter(final List<WireRecord> wireRecords, final long now) {
+        final List<WireRecord> result = new ArrayList<>(wireRecords.size());
+        for (final WireRecord wireRecord : wireRecords) {
+            final WireRecord filtered = this.suppressionMode == SuppressionMode.RECORD ? filterRecord(wireRecord, now)
+                    : filterProperties(wireRecord, now);
+            if (filtered != null) {
+                result.add(filtered);
+            }
+        }
+        return result;
+    }
+
+    private WireRecord filterRecord(final WireRecord wireRecord, final long now) {
+        final Map<String, TypedValue<?>> properties = wireRecord.getProperties();
+        final LastValueTable table = getTable(properties);
+
+        boolean monitored = false;
+        boolean changed = false;
+        for (final Entry<String, TypedValue<?>> entry : properties.entrySet()) {
+            if (isMonitored(entry)) {
+                monitored = true;
+                if (isChanged(table, entry.getKey(), entry.getValue().getValue(), now)) {
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        if (!monitored) {
+            return wireRecord;
+        }
+        if (!changed) {
+            return null;
+        }
+        for (final Entry<String, TypedValue<?>> entry : properties.entrySet()) {
+            if (isMonitored(entry)) {
+                store(table, entry.getKey(), entry.getValue().getValue(), now);
+            }
+        }
+        return wireRecord;
+    }
+
+    private WireRecord filterProperties(final WireRecord wireRecord, final long now) {
+        final Map<String, TypedValue<?>> properties = wireRecord.getProperties();
+        final LastValueTable table = getTable(properties);
+
+        Set<String> suppressed = null;
+        int reported = 0;
+        for (final Entry<String, TypedValue<?>> entry : properties.entrySet()) {
+            if (!isMonitored(entry)) {
+                continue;
+            }
+            final String name = entry.getKey();
+            final Object value = entry.getValue().getValue();
+            if (isChanged(table, name, value, now)) {
+                store(table, name, value, now);
+                reported++;
+            } else {
+                if (suppressed == null) {
+                    suppressed = new HashSet<>();
+                }
+                suppressed.add(name);
+            }
+        }
+
+        if (suppressed == null) {
+            // nothing to be removed
+            return wireRecord;
+        }
+        if (reported == 0) {
+            return null;
+        }
+
+        final Map<String, TypedValue<?>> filteredProperties = new HashMap<>();
+        for (final Entry<String, TypedValue<?>> entry : properties.entrySet()) {
+            final String name = entry.getKey();
+            if (suppressed.contains(name) || isCompanion(name, suppressed)) {
+                continue;
+            }
+            filteredProperties.put(name, entry.getValue());
+        }
+        return new WireRecord(filteredProperties);
+    }
+
+    private LastValueTable getTable(final Map<String, TypedValue<?>> properties) {
+        final TypedValue<?> keyValue = this.keyProperty.isEmpty() ? null : properties.get(this.keyProperty);
+        final String key = isNull(keyValue) ? "" : String.valueOf(keyValue.getValue());
+        LastValueTable table = this.lastValues.get(key);
+        if (isNull(table)) {
+            table = new LastValueTable();
+            this.lastValues.put(key, table);
+        }
+        return table;
+    }
+
+    private boolean isMonitored(final Entry<String, TypedValue<?>> property) {
+        final String name = property.getKey();
+        return nonNull(property.getValue().getValue()) && !name.equals(this.keyProperty)
+                && this.propertiesPattern.matcher(name).matches();
+    }
+
+    private boolean isChanged(final LastValueTable table, final String name, final Object value, final long now) {
+        final int slot = table.find(name);
+        if (!table.isPresent(slot)) {
+            return true;
+        }
+        if (this.heartbeatInterval > 0 && now - table.getTime(slot) >= this.heartbeatInterval) {
+            return true;
+        }
+        if (value instanceof Number) {
+            return !table.isNumeric(slot) || exceeds(table.getNumeric(slot), ((Number) value).doubleValue());
+        }
+        if (table.isNumeric(slot)) {
+            return true;
+        }
+        final Object last = table.getObject(slot);
+        if (value instanceof byte[] && last instanceof byte[]) {
+            return !Arrays.equals((byte[]) value, (byte[]) last);
+        }
+        return !last.equals(value);
+    }
+
+    private boolean exceeds(final double last, final double value) {
+        if (Double.isNaN(last) || Double.isNaN(value)) {
+            return Double.compare(last, value) != 0;
+        }
+        final double delta = Math.abs(value - last);
+        if (this.deadbandType == DeadbandType.PERCENT) {
+            return delta > Math.abs(last) * this.deadbandValue / 100;
+        }
+        return delta > this.deadbandValue;
+    }
+
+    private static void store(final LastValueTable table, final String name, final Object value, final long now) {
+        final int slot = table.find(name);
+        if (value instanceof Number) {
+            table.putNumeric(slot, name, ((Number) value).doubleValue(), now);
+        } else {
+            table.putObject(slot, name, value, now);
+        }
+    }
+
+    private static boolean isCompanion(final String name, final Set<String> suppressed) {
+        for (final String suffix : COMPANION_SUFFIXES) {
+            final int index = name.length() - suffix.length();
+            if (index > 0 && name.endsWith(suffix) && suppressed.contains(name.substring(0, index))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object polled(final Wire wire) {
+        return this.wireSupport.polled(wire);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void consumersConnected(final Wire[] wires) {
+        this.wireSupport.consumersConnected(wires);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void updated(final Wire wire, final Object value) {
+        this.wireSupport.updated(wire, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void producersConnected(final Wire[] wires) {
+        this.wireSupport.producersConnected(wires);
+    }
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.deadband;
+
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Class DeadbandOptions is responsible to provide all the required
+ * options for the Deadband Wire Component
+ */
+final class DeadbandOptions {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadbandOptions.class);
+
+    private static final String CONF_DEADBAND_TYPE = "deadband.type";
+
+    private static final String CONF_DEADBAND_VALUE = "deadband.value";
+
+    private static final String CONF_SUPPRESSION_MODE = "suppression.mode";
+
+    private static final String CONF_HEARTBEAT_INTERVAL = "heartbeat.interval";
+
+    private static final String CONF_KEY_PROPERTY = "key.property";
+
+    private static final String CONF_PROPERTIES_REGEX = "properties.regex";
+
+    private static final DeadbandType DEFAULT_DEADBAND_TYPE = DeadbandType.ABSOLUTE;
+
+    private static final double DEFAULT_DEADBAND_VALUE = 0.0;
+
+    private static final SuppressionMode DEFAULT_SUPPRESSION_MODE = SuppressionMode.PROPERTY;
+
+    private static final int DEFAULT_HEARTBEAT_INTERVAL = 0;
+
+    private static final String DEFAULT_KEY_PROPERTY = "assetName";
+
+    /** Matches all the properties except the timestamps and the errors emitted by the Wire Assets */
+    private static final String DEFAULT_PROPERTIES_REGEX = ".*(?<!_timestamp|_error)";
+
+    private final Map<String, Object> properties;
+
+    /**
+     * Instantiates a new deadband options.
+     *
+     * @param properties
+     *            the properties
+     */
+    DeadbandOptions(final Map<String, Object> properties) {
+        requireNonNull(properties, "Properties cannot be null");
+        this.properties = properties;
+    }
+
+    /**
+     * Returns how the deadband is applied to numeric properties.
+     *
+     * @return the deadband type
+     */
+    DeadbandType getDeadbandType() {
+        DeadbandType deadbandType = DEFAULT_DEADBAND_TYPE;
+        final Object type = this.properties.get(CONF_DEADBAND_TYPE);
+        if (nonNull(type) && type instanceof String) {
+            try {
+                deadbandType = DeadbandType.valueOf((String) type);
+            } catch (final IllegalArgumentException e) {
+                logger.warn("Unknown deadband type {}, using {}", type, DEFAULT_DEADBAND_TYPE);
+            }
+        }
+        return deadbandType;
+    }
+
+    /**
+     * Returns the deadband, either an absolute value or a percentage depending on the deadband type.
+     *
+     * @return the deadband
+     */
+    double getDeadbandValue() {
+        double deadbandValue = DEFAULT_DEADBAND_VALUE;
+        final Object value = this.properties.get(CONF_DEADBAND_VALUE);
+        if (nonNull(value) && value instanceof Number) {
+            deadbandValue = ((Number) value).doubleValue();
+        }
+        return Math.abs(deadbandValue);
+    }
+
+    /**
+     * Returns what is removed from the records whose values did not change.
+     *
+     * @return the suppression mode
+     */
+    SuppressionMode getSuppressionMode() {
+        SuppressionMode suppressionMode = DEFAULT_SUPPRESSION_MODE;
+        final Object mode = this.properties.get(CONF_SUPPRESSION_MODE);
+        if (nonNull(mode) && mode instanceof String) {
+            try {
+                suppressionMode = SuppressionMode.valueOf((String) mode);
+            } catch (final IllegalArgumentException e) {
+                logger.warn("Unknown suppression mode {}, using {}", mode, DEFAULT_SUPPRESSION_MODE);
+            }
+        }
+        return suppressionMode;
+    }
+
+    /**
+     * Returns the maximum time a property can be suppressed, in milliseconds, 0 if properties can be suppressed
+     * indefinitely.
+     *
+     * @return the heartbeat interval in milliseconds
+     */
+    long getHeartbeatInterval() {
+        int heartbeatInterval = DEFAULT_HEARTBEAT_INTERVAL;
+        final Object interval = this.properties.get(CONF_HEARTBEAT_INTERVAL);
+        if (nonNull(interval) && interval instanceof Integer) {
+            heartbeatInterval = (Integer) interval;
+        }
+        return Math.max(0, heartbeatInterval) * 1000L;
+    }
+
+    /**
+     * Returns the name of the property that identifies the source of a record, the last reported values are
+     * tracked separately for every source.
+     *
+     * @return the key property name, empty if all the records must be tracked together
+     */
+    String getKeyProperty() {
+        String keyProperty = DEFAULT_KEY_PROPERTY;
+        final Object key = this.properties.get(CONF_KEY_PROPERTY);
+        if (nonNull(key) && key instanceof String) {
+            keyProperty = ((String) key).trim();
+        }
+        return keyProperty;
+    }
+
+    /**
+     * Returns the pattern that selects the properties subject to change detection.
+     *
+     * @return the properties pattern
+     */
+    Pattern getPropertiesPattern() {
+        String regex = DEFAULT_PROPERTIES_REGEX;
+        final Object configured = this.properties.get(CONF_PROPERTIES_REGEX);
+        if (nonNull(configured) && configured instanceof String && !((String) configured).trim().isEmpty()) {
+            regex = (String) configured;
+        }
+        try {
+            return Pattern.compile(regex);
+        } catch (final PatternSyntaxException e) {
+            logger.warn("Invalid properties regex {}, using {}", regex, DEFAULT_PROPERTIES_REGEX);
+            return Pattern.compile(DEFAULT_PROPERTIES_REGEX);
+        }
+    }
+}
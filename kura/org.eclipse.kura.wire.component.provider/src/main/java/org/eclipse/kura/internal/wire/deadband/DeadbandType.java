@@ -0,0 +1,20 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.deadband;
+
+/**
+ * Defines how the deadband of the {@link Deadband} component is applied to numeric properties.
+ */
+enum DeadbandType {
+    /** A value is reported if it differs from the last reported value by more than the deadband. */
+    ABSOLUTE,
+    /** A value is reported if it differs from the last reported value by more than the given percentage of it. */
+    PERCENT
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.deadband;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An open addressing hash table that maps property names to the last reported value of the property and to the
+ * time it was reported. Numeric values are stored in a {@code double} array, so that updating a numeric property
+ * does not allocate; non numeric values are stored as objects.
+ * <p>
+ * Entries are located by slot: {@link #find(String)} returns the slot of a property, that can then be accessed
+ * through the other methods until the next call to {@link #putNumeric(int, String, double, long)} or
+ * {@link #putObject(int, String, Object, long)}.
+ * <p>
+ * This class is not thread safe.
+ */
+final class LastValueTable {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private String[] keys;
+
+    private double[] numericValues;
+
+    private Object[] objectValues;
+
+    private long[] times;
+
+    private int size;
+
+    LastValueTable() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Returns the slot associated with the provided property name, that is either the slot that contains the
+     * property or the empty slot where the property would be inserted.
+     *
+     * @param key
+     *            the property name
+     * @return the slot
+     * @throws NullPointerException
+     *             if the argument is null
+     */
+    int find(final String key) {
+        requireNonNull(key, "Key cannot be null");
+        final int mask = this.keys.length - 1;
+        int slot = mix(key.hashCode()) & mask;
+        while (this.keys[slot] != null && !this.keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Checks whether the provided slot contains a property.
+     */
+    boolean isPresent(final int slot) {
+        return this.keys[slot] != null;
+    }
+
+    /**
+     * Checks whether the property in the provided slot has a numeric value.
+     */
+    boolean isNumeric(final int slot) {
+        return this.objectValues[slot] == null;
+    }
+
+    double getNumeric(final int slot) {
+        return this.numericValues[slot];
+    }
+
+    Object getObject(final int slot) {
+        return this.objectValues[slot];
+    }
+
+    long getTime(final int slot) {
+        return this.times[slot];
+    }
+
+    /**
+     * Stores a numeric value in the provided slot, as returned by {@link #find(String)} for the same key.
+     */
+    void putNumeric(final int slot, final String key, final double value, final long time) {
+        this.numericValues[slot] = value;
+        this.objectValues[slot] = null;
+        this.times[slot] = time;
+        insert(slot, key);
+    }
+
+    /**
+     * Stores a non numeric value in the provided slot, as returned by {@link #find(String)} for the same key.
+     */
+    void putObject(final int slot, final String key, final Object value, final long time) {
+        requireNonNull(value, "Value cannot be null");
+        this.objectValues[slot] = value;
+        this.times[slot] = time;
+        insert(slot, key);
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    private void insert(final int slot, final String key) {
+        if (this.keys[slot] != null) {
+            return;
+        }
+        this.keys[slot] = key;
+        this.size++;
+        // keep the load factor under 0.75
+        if (this.size * 4 > this.keys.length * 3) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        final String[] oldKeys = this.keys;
+        final double[] oldNumericValues = this.numericValues;
+        final Object[] oldObjectValues = this.objectValues;
+        final long[] oldTimes = this.times;
+
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                final int slot = find(oldKeys[i]);
+                this.keys[slot] = oldKeys[i];
+                this.numericValues[slot] = oldNumericValues[i];
+                this.objectValues[slot] = oldObjectValues[i];
+                this.times[slot] = oldTimes[i];
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        this.keys = new String[capacity];
+        this.numericValues = new double[capacity];
+        this.objectValues = new Object[capacity];
+        this.times = new long[capacity];
+    }
+
+    private static int mix(final int hash) {
+        // the capacity is a power of two, make the high bits of the hash code contribute to the slot
+        final int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,20 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.deadband;
+
+/**
+ * Defines what the {@link Deadband} component removes from a record when some of its values did not change.
+ */
+enum SuppressionMode {
+    /** The unchanged properties are removed, the record is dropped if no changed property is left. */
+    PROPERTY,
+    /** The record is emitted unmodified if at least one property changed, otherwise it is dropped. */
+    RECORD
+}
@@ -31,11 +31,12 @@ import org.eclipse.kura.wire.WireEnvelope;
 import org.eclipse.kura.wire.WireHelperService;
 import org.eclipse.kura.wire.WireReceiver;
 import org.eclipse.kura.wire.WireSupport;
+import org.eclipse.kura.wire.metrics.QueuedWireComponent;
 import org.osgi.service.wireadmin.Wire;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class Fifo implements WireEmitter, WireReceiver, ConfigurableComponent {
+public class Fifo implements WireEmitter, WireReceiver, QueuedWireComponent, ConfigurableComponent {
 
     private static final String DISCARD_ENVELOPES_PROP_NAME = "discard.envelopes";
     private static final String QUEUE_CAPACITY_PROP_NAME = "queue.capacity";
@@ -110,6 +111,12 @@ public class Fifo implements WireEmitter, WireReceiver, ConfigurableComponent {
         }
     }
 
+    @Override
+    public int getQueueDepth() {
+        final FifoEmitterThread thread = emitterThread;
+        return thread != null ? thread.getQueueDepth() : 0;
+    }
+
     @Override
     public Object polled(Wire wire) {
         return this.wireSupport.polled(wire);
@@ -208,6 +215,15 @@ public class Fifo implements WireEmitter, WireReceiver, ConfigurableComponent {
             submitter.accept(envelope);
         }
 
+        public int getQueueDepth() {
+            try {
+                lock.lock();
+                return queue.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
         @Override
         public void run() {
             while (run) {
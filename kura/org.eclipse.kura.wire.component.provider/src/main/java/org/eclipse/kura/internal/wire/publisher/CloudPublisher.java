@@ -17,17 +17,19 @@ import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.eclipse.kura.KuraException;
 import org.eclipse.kura.cloud.CloudClient;
 import org.eclipse.kura.cloud.CloudClientListener;
 import org.eclipse.kura.cloud.CloudService;
 import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.internal.wire.common.BatchPayloadCodec;
 import org.eclipse.kura.localization.LocalizationAdapter;
 import org.eclipse.kura.localization.resources.WireMessages;
 import org.eclipse.kura.message.KuraPayload;
@@ -56,7 +58,11 @@ import org.slf4j.LoggerFactory;
  * <br/>
  *
  * For every {@link WireRecord} as found in {@link WireEnvelope} will be wrapped inside a Kura
- * Payload and will be sent to the Cloud Platform.
+ * Payload and will be sent to the Cloud Platform.<br/>
+ * <br/>
+ *
+ * If batch publishing is enabled, the records of an envelope whose topic resolves to the same value are
+ * instead packed in a single Kura Payload, as described by {@link BatchPayloadCodec}.
  */
 public final class CloudPublisher implements WireReceiver, CloudClientListener, ConfigurableComponent {
 
@@ -101,9 +107,6 @@ public final class CloudPublisher implements WireReceiver, CloudClientListener,
 
     private static final WireMessages message = LocalizationAdapter.adapt(WireMessages.class);
 
-    private static final String TOPIC_PATTERN_STRING = "\\$([^\\s/]+)";
-    private static final Pattern TOPIC_PATTERN = Pattern.compile(TOPIC_PATTERN_STRING);
-
     private BundleContext bundleContext;
 
     private ServiceTrackerCustomizer<CloudService, CloudService> cloudServiceTrackerCustomizer;
@@ -116,6 +119,8 @@ public final class CloudPublisher implements WireReceiver, CloudClientListener,
 
     private CloudPublisherOptions cloudPublisherOptions;
 
+    private TopicTemplate topicTemplate;
+
     private volatile WireHelperService wireHelperService;
 
     private WireSupport wireSupport;
@@ -171,6 +176,7 @@ public final class CloudPublisher implements WireReceiver, CloudClientListener,
 
         // Update properties
         this.cloudPublisherOptions = new CloudPublisherOptions(properties);
+        this.topicTemplate = new TopicTemplate(this.cloudPublisherOptions.getPublishingTopic());
 
         this.cloudServiceTrackerCustomizer = new CloudPublisherServiceTrackerCustomizer();
         initCloudServiceTracking();
@@ -188,6 +194,7 @@ public final class CloudPublisher implements WireReceiver, CloudClientListener,
         logger.debug(message.updatingCloudPublisher());
         // Update properties
         this.cloudPublisherOptions = new CloudPublisherOptions(properties);
+        this.topicTemplate = new TopicTemplate(this.cloudPublisherOptions.getPublishingTopic());
 
         if (nonNull(this.cloudServiceTracker)) {
             this.cloudServiceTracker.close();
@@ -306,12 +313,17 @@ public final class CloudPublisher implements WireReceiver, CloudClientListener,
      * @return the Kura payload
      * @throws NullPointerException
      *             if the {@link WireRecord} provided is null
+     * @throws IllegalArgumentException
+     *             if a property name is reserved for the batch format
      */
     private KuraPayload buildKuraPayload(final WireRecord wireRecord) {
         requireNonNull(wireRecord, message.wireRecordNonNull());
         final KuraPayload kuraPayload = new KuraPayload();
 
         for (final Entry<String, TypedValue<?>> entry : wireRecord.getProperties().entrySet()) {
+            if (BatchPayloadCodec.isReserved(entry.getKey())) {
+                throw new IllegalArgumentException("The property name " + entry.getKey() + " is reserved");
+            }
             kuraPayload.addMetric(entry.getKey(), entry.getValue().getValue());
         }
 
@@ -342,46 +354,69 @@ public final class CloudPublisher implements WireReceiver, CloudClientListener,
         requireNonNull(wireRecords, message.wireRecordsNonNull());
 
         try {
+            if (this.cloudPublisherOptions.isBatchPublishing()) {
+                publishBatches(wireRecords);
+                return;
+            }
             for (final WireRecord dataRecord : wireRecords) {
-                // prepare the topic
-                final String appTopic = buildPublishAppTopic(dataRecord);
-
-                final KuraPayload kuraPayload = buildKuraPayload(dataRecord);
-                if (this.cloudPublisherOptions.isControlMessage()) {
-                    this.cloudClient.controlPublish(appTopic, kuraPayload,
-                            this.cloudPublisherOptions.getPublishingQos(),
-                            this.cloudPublisherOptions.getPublishingRetain(),
-                            this.cloudPublisherOptions.getPublishingPriority());
-                } else {
-                    this.cloudClient.publish(appTopic, kuraPayload, this.cloudPublisherOptions.getPublishingQos(),
-                            this.cloudPublisherOptions.getPublishingRetain(),
-                            this.cloudPublisherOptions.getPublishingPriority());
+                final KuraPayload kuraPayload;
+                try {
+                    kuraPayload = buildKuraPayload(dataRecord);
+                } catch (final IllegalArgumentException e) {
+                    // the record would be decoded as a batch by the subscribers
+                    logger.warn("Wire Record not published", e);
+                    continue;
                 }
-
+                // prepare the topic
+                final String appTopic = this.topicTemplate.resolve(dataRecord.getProperties());
+                publish(appTopic, kuraPayload);
             }
         } catch (final Exception e) {
             logger.error(message.errorPublishingWireRecords(), e);
         }
     }
 
-    private String buildPublishAppTopic(WireRecord dataRecord) {
-        Matcher matcher = TOPIC_PATTERN.matcher(this.cloudPublisherOptions.getPublishingTopic());
-        StringBuffer buffer = new StringBuffer();
-
-        while (matcher.find()) {
-            Map<String, TypedValue<?>> properties = dataRecord.getProperties();
-            if (properties.containsKey(matcher.group(1))) {
-                String replacement = matcher.group(0);
+    /**
+     * Groups the provided {@link WireRecord}s by topic and publishes every group in chunks of at most the
+     * configured batch size.
+     *
+     * @param wireRecords
+     *            the provided list of {@link WireRecord}s
+     * @throws KuraException
+     *             if publishing fails
+     */
+    private void publishBatches(final List<WireRecord> wireRecords) throws KuraException {
+        final Map<String, List<WireRecord>> recordsByTopic = new LinkedHashMap<>();
+        if (this.topicTemplate.isStatic()) {
+            recordsByTopic.put(this.topicTemplate.resolve(Collections.emptyMap()), wireRecords);
+        } else {
+            for (final WireRecord dataRecord : wireRecords) {
+                final String appTopic = this.topicTemplate.resolve(dataRecord.getProperties());
+                recordsByTopic.computeIfAbsent(appTopic, topic -> new ArrayList<>()).add(dataRecord);
+            }
+        }
 
-                TypedValue<?> value = properties.get(matcher.group(1));
-                if (replacement != null) {
-                    matcher.appendReplacement(buffer, value.getValue().toString());
-                    continue;
-                }
+        final int batchSize = this.cloudPublisherOptions.getBatchSize();
+        for (final Entry<String, List<WireRecord>> entry : recordsByTopic.entrySet()) {
+            final List<WireRecord> records = entry.getValue();
+            final int chunkSize = batchSize > 0 ? batchSize : records.size();
+            for (int from = 0; from < records.size(); from += chunkSize) {
+                final List<WireRecord> chunk = records.subList(from, Math.min(records.size(), from + chunkSize));
+                publish(entry.getKey(), BatchPayloadCodec.encode(chunk));
             }
         }
-        matcher.appendTail(buffer);
-        return buffer.toString();
+    }
+
+    private void publish(final String appTopic, final KuraPayload kuraPayload) throws KuraException {
+        if (this.cloudPublisherOptions.isControlMessage()) {
+            this.cloudClient.controlPublish(appTopic, kuraPayload, this.cloudPublisherOptions.getPublishingQos(),
+                    this.cloudPublisherOptions.getPublishingRetain(),
+                    this.cloudPublisherOptions.getPublishingPriority());
+        } else {
+            this.cloudClient.publish(appTopic, kuraPayload, this.cloudPublisherOptions.getPublishingQos(),
+                    this.cloudPublisherOptions.getPublishingRetain(),
+                    this.cloudPublisherOptions.getPublishingPriority());
+        }
     }
 
     /**
@@ -47,6 +47,12 @@ final class CloudPublisherOptions {
     /** The Constant denoting MQTT topic. */
     private static final String CONF_TOPIC = "publish.topic";
 
+    /** The Constant denoting if the records of an envelope have to be published in a single message. */
+    private static final String CONF_PUBLISH_BATCH = "publish.batch";
+
+    /** The Constant denoting the maximum number of records published in a single message. */
+    private static final String CONF_BATCH_SIZE = "publish.batch.size";
+
     private static final String DEFAULT_CLOUD_SERVICE_PID = "org.eclipse.kura.cloud.CloudService";
 
     /** The Constant application to perform (either publish or subscribe). */
@@ -61,6 +67,10 @@ final class CloudPublisherOptions {
     /** The Constant denoting default MQTT retain. */
     private static final boolean DEFAULT_RETAIN = false;
 
+    private static final boolean DEFAULT_PUBLISH_BATCH = false;
+
+    private static final int DEFAULT_BATCH_SIZE = 0;
+
     /** The Constant denoting default MQTT topic. */
     private static final String DEFAULT_TOPIC = "A1/$assetName";
 
@@ -174,4 +184,33 @@ final class CloudPublisherOptions {
         }
         return isControlMessage;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns if the records of an envelope have to be published in batch messages, each one containing all the
+     * records that resolve to the same topic.
+     *
+     * @return true if the records have to be published in batch messages
+     */
+    boolean isBatchPublishing() {
+        boolean isBatchPublishing = DEFAULT_PUBLISH_BATCH;
+        final Object batch = this.properties.get(CONF_PUBLISH_BATCH);
+        if (nonNull(batch) && batch instanceof Boolean) {
+            isBatchPublishing = (Boolean) batch;
+        }
+        return isBatchPublishing;
+    }
+
+    /**
+     * Returns the maximum number of records published in a single batch message, 0 if not limited.
+     *
+     * @return the batch size
+     */
+    int getBatchSize() {
+        int batchSize = DEFAULT_BATCH_SIZE;
+        final Object size = this.properties.get(CONF_BATCH_SIZE);
+        if (nonNull(size) && size instanceof Integer) {
+            batchSize = (Integer) size;
+        }
+        return Math.max(0, batchSize);
+    }
+}
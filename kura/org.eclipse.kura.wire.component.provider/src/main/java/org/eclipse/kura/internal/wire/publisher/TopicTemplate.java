@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.publisher;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.kura.type.TypedValue;
+
+/**
+ * A publishing topic template, parsed once and resolved for every published record.
+ * <p>
+ * Every {@code $name} token of the template, terminated by a slash or a white space, is replaced by the value of
+ * the {@code name} property of the record. Tokens that do not refer to a property of the record are left
+ * unchanged.
+ */
+final class TopicTemplate {
+
+    private static final Pattern TOPIC_PATTERN = Pattern.compile("\\$([^\\s/]+)");
+
+    /** The literal parts of the template, there is one literal more than property references */
+    private final String[] literals;
+
+    /** The tokens as written in the template, including the leading dollar sign */
+    private final String[] tokens;
+
+    /** The property names referenced by the tokens */
+    private final String[] propertyNames;
+
+    /**
+     * Parses the provided template.
+     *
+     * @param template
+     *            the topic template
+     * @throws NullPointerException
+     *             if the argument is null
+     */
+    TopicTemplate(final String template) {
+        requireNonNull(template, "Topic template cannot be null");
+        final List<String> literalList = new ArrayList<>();
+        final List<String> tokenList = new ArrayList<>();
+        final List<String> nameList = new ArrayList<>();
+
+        final Matcher matcher = TOPIC_PATTERN.matcher(template);
+        int last = 0;
+        while (matcher.find()) {
+            literalList.add(template.substring(last, matcher.start()));
+            tokenList.add(matcher.group(0));
+            nameList.add(matcher.group(1));
+            last = matcher.end();
+        }
+        literalList.add(template.substring(last));
+
+        this.literals = literalList.toArray(new String[literalList.size()]);
+        this.tokens = tokenList.toArray(new String[tokenList.size()]);
+        this.propertyNames = nameList.toArray(new String[nameList.size()]);
+    }
+
+    /**
+     * Checks whether the resolved topic does not depend on the record properties.
+     *
+     * @return true if the template does not contain property references
+     */
+    boolean isStatic() {
+        return this.propertyNames.length == 0;
+    }
+
+    /**
+     * Resolves the template against the provided record properties.
+     *
+     * @param properties
+     *            the record properties
+     * @return the resolved topic
+     */
+    String resolve(final Map<String, TypedValue<?>> properties) {
+        if (isStatic()) {
+            return this.literals[0];
+        }
+        final StringBuilder builder = new StringBuilder(this.literals[0]);
+        for (int i = 0; i < this.propertyNames.length; i++) {
+            final TypedValue<?> value = properties.get(this.propertyNames[i]);
+            if (isNull(value) || isNull(value.getValue())) {
+                builder.append(this.tokens[i]);
+            } else {
+                builder.append(value.getValue().toString());
+            }
+            builder.append(this.literals[i + 1]);
+        }
+        return builder.toString();
+    }
+}
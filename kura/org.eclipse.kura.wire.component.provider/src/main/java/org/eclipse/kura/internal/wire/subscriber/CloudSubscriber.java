@@ -18,6 +18,7 @@ import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -29,6 +30,7 @@ import org.eclipse.kura.cloud.CloudClient;
 import org.eclipse.kura.cloud.CloudClientListener;
 import org.eclipse.kura.cloud.CloudService;
 import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.internal.wire.common.BatchPayloadCodec;
 import org.eclipse.kura.localization.LocalizationAdapter;
 import org.eclipse.kura.localization.resources.WireMessages;
 import org.eclipse.kura.message.KuraPayload;
@@ -367,7 +369,19 @@ public final class CloudSubscriber implements WireEmitter, ConfigurableComponent
     private List<WireRecord> buildWireRecord(final KuraPayload payload) throws IOException {
         requireNonNull(payload, wireMessages.payloadNonNull());
 
-        final Map<String, Object> kuraPayloadProperties = payload.metrics();
+        if (BatchPayloadCodec.isBatch(payload)) {
+            // published by a Cloud Publisher in batch mode
+            final List<WireRecord> wireRecords = new ArrayList<>();
+            for (final Map<String, Object> properties : BatchPayloadCodec.decode(payload)) {
+                wireRecords.add(buildWireRecord(properties));
+            }
+            return wireRecords;
+        }
+
+        return Arrays.asList(buildWireRecord(payload.metrics()));
+    }
+
+    private WireRecord buildWireRecord(final Map<String, Object> kuraPayloadProperties) {
         final Map<String, TypedValue<?>> wireProperties = new HashMap<>();
 
         for (Entry<String, Object> entry : kuraPayloadProperties.entrySet()) {
@@ -378,8 +392,7 @@ public final class CloudSubscriber implements WireEmitter, ConfigurableComponent
             wireProperties.put(entryKey, convertedValue);
         }
 
-        final WireRecord wireRecord = new WireRecord(wireProperties);
-        return Arrays.asList(wireRecord);
+        return new WireRecord(wireProperties);
     }
 
     /**
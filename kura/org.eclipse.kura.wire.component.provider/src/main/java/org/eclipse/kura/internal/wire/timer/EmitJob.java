@@ -13,13 +13,9 @@
  *******************************************************************************/
 package org.eclipse.kura.internal.wire.timer;
 
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
-import org.eclipse.kura.type.TypedValue;
 import org.eclipse.kura.type.TypedValues;
 import org.eclipse.kura.wire.WireRecord;
 import org.eclipse.kura.wire.WireSupport;
@@ -49,17 +45,20 @@ public final class EmitJob implements Job {
     @Override
     public void execute(final JobExecutionContext context) throws JobExecutionException {
         final TimerJobDataMap dataMap = (TimerJobDataMap) context.getJobDetail().getJobDataMap();
-        final WireSupport wireSupport = dataMap.getWireSupport();
-
-        final long currentTime = new Date().getTime();
-        final TypedValue<Long> timestamp = TypedValues.newLongValue(currentTime);
-        final Map<String, TypedValue<?>> timerProperties = new HashMap<>();
-        timerProperties.put(PROP, timestamp);
-
-        final WireRecord timerWireRecord = new WireRecord(timerProperties);
-        final List<WireRecord> timerWireRecords = new ArrayList<>();
-        timerWireRecords.add(timerWireRecord);
+        emit(dataMap.getWireSupport(), System.currentTimeMillis());
+    }
 
+    /**
+     * Emits a single {@link WireRecord} containing the provided timestamp.
+     *
+     * @param wireSupport
+     *            the {@link WireSupport} of the timer
+     * @param timestamp
+     *            the timestamp of the tick
+     */
+    static void emit(final WireSupport wireSupport, final long timestamp) {
+        final List<WireRecord> timerWireRecords = Collections.singletonList(
+                new WireRecord(Collections.singletonMap(PROP, TypedValues.newLongValue(timestamp))));
         wireSupport.emit(timerWireRecords);
     }
 }
@@ -0,0 +1,25 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timer;
+
+/**
+ * Defines what the {@link TickScheduler} does with the ticks that could not be fired on time, for example because
+ * the downstream components took longer than the period to process the previous tick.
+ * <ul>
+ * <li>{@link #FIRE_ONCE}: the missed ticks are collapsed into a single tick fired immediately</li>
+ * <li>{@link #FIRE_ALL}: all the missed ticks are fired immediately, one after the other</li>
+ * <li>{@link #SKIP}: the missed ticks are dropped and the next tick is fired on schedule</li>
+ * </ul>
+ */
+enum MisfirePolicy {
+    FIRE_ONCE,
+    FIRE_ALL,
+    SKIP
+}
@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timer;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fires ticks at a fixed rate on a dedicated thread.
+ * <p>
+ * Every tick has a nominal time, computed by adding the period to the nominal time of the previous tick, so that
+ * the execution time of the tick task and the scheduling delays do not accumulate over time. The nominal times are
+ * converted to {@link System#nanoTime()} deadlines, the wall clock is only used to align the ticks and is
+ * re-synchronized if it is adjusted while the scheduler is running.
+ * <p>
+ * If phase alignment is enabled, the nominal tick times are the multiples of the period since the epoch, shifted by
+ * the configured offset. This way all the schedulers with the same period and offset fire at the same instants.
+ */
+final class TickScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickScheduler.class);
+
+    /** Wall clock adjustments smaller than this value (in milliseconds) are ignored */
+    private static final long CLOCK_RESYNC_THRESHOLD = 50;
+
+    private final long period;
+
+    private final long offset;
+
+    private final boolean phaseAligned;
+
+    private final MisfirePolicy misfirePolicy;
+
+    private final LongConsumer task;
+
+    private final TickStatistics statistics = new TickStatistics();
+
+    private final ScheduledExecutorService executor;
+
+    private final LongSupplier wallClock;
+
+    private final LongSupplier nanoClock;
+
+    private volatile boolean running;
+
+    private long baseMillis;
+
+    private long baseNanos;
+
+    private long nextTick;
+
+    /**
+     * Instantiates a new {@link TickScheduler}.
+     *
+     * @param name
+     *            the name of the scheduler thread
+     * @param period
+     *            the tick period in milliseconds
+     * @param offset
+     *            the offset of the ticks from the multiples of the period in milliseconds, only used if phase
+     *            alignment is enabled
+     * @param phaseAligned
+     *            true if the ticks must be aligned to the multiples of the period since the epoch
+     * @param misfirePolicy
+     *            the policy for the ticks that could not be fired on time
+     * @param task
+     *            the task to be executed on every tick, it receives the nominal time of the tick
+     * @throws IllegalArgumentException
+     *             if the period is less than or equal to zero
+     */
+    TickScheduler(final String name, final long period, final long offset, final boolean phaseAligned,
+            final MisfirePolicy misfirePolicy, final LongConsumer task) {
+        this(period, offset, phaseAligned, misfirePolicy, task, newExecutor(name), System::currentTimeMillis,
+                System::nanoTime);
+    }
+
+    /**
+     * Instantiates a new {@link TickScheduler} that uses the provided executor and clocks.
+     *
+     * @param executor
+     *            the executor the ticks are scheduled on, it must execute the tasks one at a time
+     * @param wallClock
+     *            the wall clock in milliseconds since the epoch
+     * @param nanoClock
+     *            the monotonic clock in nanoseconds the tick deadlines are computed with
+     */
+    TickScheduler(final long period, final long offset, final boolean phaseAligned, final MisfirePolicy misfirePolicy,
+            final LongConsumer task, final ScheduledExecutorService executor, final LongSupplier wallClock,
+            final LongSupplier nanoClock) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be greater than zero");
+        }
+        this.period = period;
+        this.offset = Math.floorMod(offset, period);
+        this.phaseAligned = phaseAligned;
+        this.misfirePolicy = requireNonNull(misfirePolicy, "Misfire policy cannot be null");
+        this.task = requireNonNull(task, "Task cannot be null");
+        this.executor = requireNonNull(executor, "Executor cannot be null");
+        this.wallClock = requireNonNull(wallClock, "Wall clock cannot be null");
+        this.nanoClock = requireNonNull(nanoClock, "Nano clock cannot be null");
+    }
+
+    private static ScheduledExecutorService newExecutor(final String name) {
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * Starts firing the ticks.
+     */
+    void start() {
+        this.executor.execute(() -> {
+            resync(this.wallClock.getAsLong());
+            this.running = true;
+            scheduleNext();
+        });
+    }
+
+    /**
+     * Stops firing the ticks. A tick that is currently being executed is interrupted.
+     */
+    void stop() {
+        this.running = false;
+        this.executor.shutdownNow();
+    }
+
+    TickStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    /**
+     * Computes the nominal time of the first tick fired after the provided time.
+     */
+    static long firstTick(final long now, final long period, final long offset, final boolean phaseAligned) {
+        if (!phaseAligned) {
+            return now + period;
+        }
+        return Math.floorDiv(now - offset, period) * period + offset + period;
+    }
+
+    /**
+     * Computes the nominal time of the tick that follows the provided one, according to the misfire policy.
+     *
+     * @param fired
+     *            the nominal time of the tick that has just been fired
+     * @param now
+     *            the current time
+     */
+    static long nextTick(final long fired, final long now, final long period, final MisfirePolicy misfirePolicy) {
+        final long next = fired + period;
+        if (next > now || misfirePolicy == MisfirePolicy.FIRE_ALL) {
+            return next;
+        }
+        final long lastMissed = next + (now - next) / period * period;
+        return misfirePolicy == MisfirePolicy.SKIP ? lastMissed + period : lastMissed;
+    }
+
+    private void resync(final long now) {
+        this.baseMillis = now;
+        this.baseNanos = this.nanoClock.getAsLong();
+        this.nextTick = firstTick(now, this.period, this.offset, this.phaseAligned);
+    }
+
+    private long toNanos(final long millis) {
+        return this.baseNanos + TimeUnit.MILLISECONDS.toNanos(millis - this.baseMillis);
+    }
+
+    private long currentTimeMillis() {
+        return this.baseMillis + TimeUnit.NANOSECONDS.toMillis(this.nanoClock.getAsLong() - this.baseNanos);
+    }
+
+    private void scheduleNext() {
+        if (this.running) {
+            this.executor.schedule(this::tick, toNanos(this.nextTick) - this.nanoClock.getAsLong(),
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void tick() {
+        if (!this.running) {
+            return;
+        }
+        final long fired = this.nextTick;
+        this.statistics.fired(this.nanoClock.getAsLong() - toNanos(fired));
+        try {
+            this.task.accept(fired);
+        } catch (final Exception e) {
+            logger.warn("Failed to execute tick", e);
+        }
+
+        final long wallClockTime = this.wallClock.getAsLong();
+        final long now = currentTimeMillis();
+        if (Math.abs(wallClockTime - now) > CLOCK_RESYNC_THRESHOLD) {
+            logger.info("System clock changed by {} ms, resynchronizing", wallClockTime - now);
+            resync(wallClockTime);
+        } else {
+            this.nextTick = nextTick(fired, now, this.period, this.misfirePolicy);
+            final long missed = (this.nextTick - fired) / this.period - 1;
+            if (missed > 0) {
+                this.statistics.missed(missed);
+            }
+        }
+        scheduleNext();
+    }
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timing statistics of a {@link TickScheduler}. The lateness of a tick is the difference between the time the tick
+ * has been fired and the time it was scheduled for, it measures the jitter introduced by the scheduler.
+ */
+final class TickStatistics {
+
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder missed = new LongAdder();
+    private final LongAdder totalLatenessNanos = new LongAdder();
+    private final AtomicLong maxLatenessNanos = new AtomicLong();
+
+    void fired(final long latenessNanos) {
+        final long lateness = Math.max(0, latenessNanos);
+        this.ticks.increment();
+        this.totalLatenessNanos.add(lateness);
+        this.maxLatenessNanos.accumulateAndGet(lateness, Math::max);
+    }
+
+    void missed(final long count) {
+        this.missed.add(count);
+    }
+
+    long getTicks() {
+        return this.ticks.sum();
+    }
+
+    long getMissed() {
+        return this.missed.sum();
+    }
+
+    long getMeanLatenessMicros() {
+        final long count = getTicks();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(this.totalLatenessNanos.sum() / count);
+    }
+
+    long getMaxLatenessMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(this.maxLatenessNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "ticks=" + getTicks() + ", missed=" + getMissed() + ", mean lateness=" + getMeanLatenessMicros()
+                + "us, max lateness=" + getMaxLatenessMicros() + "us";
+    }
+}
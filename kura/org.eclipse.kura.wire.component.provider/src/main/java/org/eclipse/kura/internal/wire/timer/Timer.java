@@ -21,6 +21,7 @@ import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.configuration.ConfigurationService;
 import org.eclipse.kura.localization.LocalizationAdapter;
 import org.eclipse.kura.localization.resources.WireMessages;
 import org.eclipse.kura.wire.WireEmitter;
@@ -35,7 +36,6 @@ import org.quartz.JobDetail;
 import org.quartz.JobKey;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
-import org.quartz.SimpleScheduleBuilder;
 import org.quartz.Trigger;
 import org.quartz.TriggerBuilder;
 import org.quartz.impl.StdSchedulerFactory;
@@ -45,6 +45,11 @@ import org.slf4j.LoggerFactory;
 /**
  * The Class Timer represents a Wire Component which triggers a ticking event on
  * every interval as configured. It fires the event on every tick.
+ * <p>
+ * SIMPLE intervals are fired by a dedicated {@link TickScheduler}, which keeps a
+ * drift free fixed rate and can align the ticks of all the timers with the same
+ * interval. CRON intervals are fired by a Quartz scheduler shared by all the
+ * instances, which is only started if at least one timer uses a CRON expression.
  */
 public class Timer implements WireEmitter, ConfigurableComponent {
 
@@ -63,6 +68,10 @@ public class Timer implements WireEmitter, ConfigurableComponent {
 
     private TimerOptions timerOptions;
 
+    private TickScheduler tickScheduler;
+
+    private String componentPid;
+
     private volatile WireHelperService wireHelperService;
 
     private WireSupport wireSupport;
@@ -106,6 +115,7 @@ public class Timer implements WireEmitter, ConfigurableComponent {
         logger.debug(message.activatingTimer());
         instanceCount.incrementAndGet();
         this.wireSupport = this.wireHelperService.newWireSupport(this);
+        this.componentPid = String.valueOf(properties.getOrDefault(ConfigurationService.KURA_SERVICE_PID, ""));
         this.timerOptions = new TimerOptions(properties);
         try {
             doUpdate();
@@ -142,6 +152,7 @@ public class Timer implements WireEmitter, ConfigurableComponent {
         logger.debug(message.deactivatingTimer());
 
         try {
+            stopTickScheduler();
             if (nonNull(this.jobKey)) {
                 getScheduler().deleteJob(this.jobKey);
             }
@@ -187,7 +198,12 @@ public class Timer implements WireEmitter, ConfigurableComponent {
      *             if job scheduling fails
      */
     private void doUpdate() throws SchedulerException {
+        stopTickScheduler();
         if ("SIMPLE".equalsIgnoreCase(this.timerOptions.getType())) {
+            if (nonNull(this.jobKey)) {
+                getScheduler().deleteJob(this.jobKey);
+                this.jobKey = null;
+            }
             scheduleSimpleInterval(
                     this.timerOptions.getSimpleInterval() * this.timerOptions.getSimpleTimeUnitMultiplier());
             return;
@@ -197,36 +213,30 @@ public class Timer implements WireEmitter, ConfigurableComponent {
     }
 
     /**
-     * Creates a trigger based on the provided interval
+     * Starts a {@link TickScheduler} firing on the provided interval
      *
      * @param interval
      *            the interval in milliseconds
-     * @throws SchedulerException
-     *             if scheduling fails
      * @throws IllegalArgumentException
      *             if the interval is less than or equal to zero
      */
-    private void scheduleSimpleInterval(final long interval) throws SchedulerException {
+    private void scheduleSimpleInterval(final long interval) {
         if (interval <= 0) {
             throw new IllegalArgumentException(message.intervalNonLessThanEqualToZero());
         }
-        final Scheduler scheduler = getScheduler();
+        final WireSupport support = this.wireSupport;
+        this.tickScheduler = new TickScheduler(this.componentPid + "-TimerThread", interval,
+                this.timerOptions.getPhaseOffset(), this.timerOptions.isPhaseAligned(),
+                this.timerOptions.getMisfirePolicy(), tick -> EmitJob.emit(support, tick));
+        this.tickScheduler.start();
+    }
 
-        final int id = nextJobId.incrementAndGet();
-        if (nonNull(this.jobKey)) {
-            scheduler.deleteJob(this.jobKey);
+    private void stopTickScheduler() {
+        if (nonNull(this.tickScheduler)) {
+            this.tickScheduler.stop();
+            logger.debug("Timer statistics: {}", this.tickScheduler.getStatistics());
+            this.tickScheduler = null;
         }
-        this.jobKey = new JobKey("emitJob" + id, GROUP_ID);
-        final Trigger trigger = TriggerBuilder.newTrigger().withIdentity("emitTrigger" + id, GROUP_ID)
-                .withSchedule(
-                        SimpleScheduleBuilder.simpleSchedule().withIntervalInMilliseconds(interval).repeatForever())
-                .build();
-
-        final TimerJobDataMap jobDataMap = new TimerJobDataMap();
-        jobDataMap.putWireSupport(this.wireSupport);
-        final JobDetail job = JobBuilder.newJob(EmitJob.class).withIdentity(this.jobKey).setJobData(jobDataMap).build();
-
-        scheduler.scheduleJob(job, trigger);
     }
 
     /**
@@ -40,6 +40,12 @@ final class TimerOptions {
 
     private static final String PROP_INTERVAL_TYPE = "type";
 
+    private static final String PROP_SIMPLE_MISFIRE_POLICY = "simple.misfire.policy";
+
+    private static final String PROP_SIMPLE_PHASE_ALIGNED = "simple.phase.aligned";
+
+    private static final String PROP_SIMPLE_PHASE_OFFSET = "simple.phase.offset";
+
     private final Map<String, Object> properties;
 
     /**
@@ -115,4 +121,48 @@ final class TimerOptions {
 
         return timeUnit.toMillis(1);
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the policy for the ticks that could not be fired on time, used if SIMPLE type is selected.
+     *
+     * @return the misfire policy
+     * @throws IllegalArgumentException
+     *             if the configured policy is not valid
+     */
+    MisfirePolicy getMisfirePolicy() {
+        final Object policy = this.properties.get(PROP_SIMPLE_MISFIRE_POLICY);
+        if (nonNull(policy) && policy instanceof String) {
+            return MisfirePolicy.valueOf((String) policy);
+        }
+        return MisfirePolicy.FIRE_ONCE;
+    }
+
+    /**
+     * Returns whether the ticks must be aligned to the multiples of the interval since the epoch, used if SIMPLE
+     * type is selected.
+     *
+     * @return true if the ticks must be phase aligned
+     */
+    boolean isPhaseAligned() {
+        boolean aligned = false;
+        final Object phaseAligned = this.properties.get(PROP_SIMPLE_PHASE_ALIGNED);
+        if (nonNull(phaseAligned) && phaseAligned instanceof Boolean) {
+            aligned = (Boolean) phaseAligned;
+        }
+        return aligned;
+    }
+
+    /**
+     * Returns the offset of the phase aligned ticks in milliseconds.
+     *
+     * @return the phase offset
+     */
+    int getPhaseOffset() {
+        int offset = 0;
+        final Object phaseOffset = this.properties.get(PROP_SIMPLE_PHASE_OFFSET);
+        if (nonNull(phaseOffset) && phaseOffset instanceof Integer) {
+            offset = (Integer) phaseOffset;
+        }
+        return offset;
+    }
+}
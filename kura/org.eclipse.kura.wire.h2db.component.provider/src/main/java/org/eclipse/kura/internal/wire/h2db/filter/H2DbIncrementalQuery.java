@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.h2db.filter;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.requireNonNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.eclipse.kura.internal.wire.h2db.common.H2DbServiceHelper;
+import org.eclipse.kura.wire.WireRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Class H2DbIncrementalQuery runs the user defined SQL query of a {@link H2DbWireRecordFilter} incrementally.
+ * <p>
+ * The query is wrapped in a derived table and a bound predicate on a watermark column is appended, so that
+ * every refresh only fetches the rows whose watermark is greater than the greatest watermark seen so far. The
+ * fetched rows are appended to a bounded window of earlier results. Every refresh takes a connection from the
+ * pool of the {@link H2DbServiceHelper} and releases it before returning.
+ * <p>
+ * This class is not thread safe, callers must provide proper synchronization.
+ */
+final class H2DbIncrementalQuery {
+
+    /**
+     * The records emitted by the filter in incremental mode.
+     */
+    enum Mode {
+        /** The user defined query is executed in full on every refresh. */
+        NONE,
+        /** Only the records fetched by the last refresh are emitted. */
+        DELTA,
+        /** The window of the last fetched records is emitted. */
+        WINDOW
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(H2DbIncrementalQuery.class);
+
+    private final H2DbServiceHelper dbHelper;
+
+    private final String sqlView;
+
+    private final String watermarkColumn;
+
+    private final int windowSize;
+
+    private final Deque<WireRecord> window = new ArrayDeque<>();
+
+    private Object watermark;
+
+    /**
+     * Instantiates a new incremental query.
+     *
+     * @param dbHelper
+     *            the {@link H2DbServiceHelper} instance
+     * @param sqlView
+     *            the user defined SQL query
+     * @param watermarkColumn
+     *            the name of the column returned by the query that must be used as watermark, its values must
+     *            increase for newly inserted rows
+     * @param windowSize
+     *            the maximum number of records kept in the window
+     * @throws NullPointerException
+     *             if any of the arguments is null
+     */
+    H2DbIncrementalQuery(final H2DbServiceHelper dbHelper, final String sqlView, final String watermarkColumn,
+            final int windowSize) {
+        requireNonNull(dbHelper);
+        requireNonNull(sqlView);
+        requireNonNull(watermarkColumn);
+        this.dbHelper = dbHelper;
+        this.sqlView = stripTerminator(sqlView);
+        this.watermarkColumn = watermarkColumn;
+        this.windowSize = Math.max(1, windowSize);
+    }
+
+    /**
+     * Fetches the rows added since the last refresh and appends them to the window.
+     *
+     * @return the fetched records, in watermark order
+     * @throws SQLException
+     *             the SQL exception, in this case the watermark and the window are left unchanged
+     */
+    List<WireRecord> refresh() throws SQLException {
+        final List<WireRecord> delta = new ArrayList<>();
+        try (Connection conn = this.dbHelper.getConnection();
+                PreparedStatement stmt = prepareStatement(conn);
+                ResultSet rset = stmt.executeQuery()) {
+            final String[] columnLabels = H2DbWireRecordFilter.getColumnLabels(rset.getMetaData());
+            final int watermarkIndex = findWatermarkColumn(columnLabels);
+
+            Object lastWatermark = null;
+            while (rset.next()) {
+                delta.add(new WireRecord(H2DbWireRecordFilter.convertSQLRowToWireRecord(rset, columnLabels)));
+                lastWatermark = rset.getObject(watermarkIndex);
+            }
+            if (!isNull(lastWatermark)) {
+                this.watermark = lastWatermark;
+            }
+        }
+
+        for (final WireRecord wireRecord : delta) {
+            if (this.window.size() == this.windowSize) {
+                this.window.removeFirst();
+            }
+            this.window.addLast(wireRecord);
+        }
+        logger.debug("Fetched {} new records, watermark is {}", delta.size(), this.watermark);
+        return delta;
+    }
+
+    /**
+     * Returns the records in the window, oldest first.
+     *
+     * @return the records in the window
+     */
+    List<WireRecord> getWindow() {
+        return new ArrayList<>(this.window);
+    }
+
+    private PreparedStatement prepareStatement(final Connection conn) throws SQLException {
+        final String sqlColumn = this.dbHelper.sanitizeSqlTableAndColumnName(this.watermarkColumn);
+        if (isNull(this.watermark)) {
+            // the user defined query can contain quotes, MessageFormat cannot be used here
+            return conn.prepareStatement("SELECT * FROM (" + this.sqlView + ") ORDER BY " + sqlColumn);
+        }
+
+        final PreparedStatement stmt = conn.prepareStatement(
+                "SELECT * FROM (" + this.sqlView + ") WHERE " + sqlColumn + " > ? ORDER BY " + sqlColumn);
+        try {
+            stmt.setObject(1, this.watermark);
+        } catch (final SQLException e) {
+            this.dbHelper.close(stmt);
+            throw e;
+        }
+        return stmt;
+    }
+
+    private int findWatermarkColumn(final String[] columnLabels) throws SQLException {
+        for (int i = 0; i < columnLabels.length; i++) {
+            if (this.watermarkColumn.equalsIgnoreCase(columnLabels[i])) {
+                return i + 1;
+            }
+        }
+        throw new SQLException("The query does not return the watermark column " + this.watermarkColumn);
+    }
+
+    private static String stripTerminator(final String sql) {
+        String result = sql.trim();
+        while (result.endsWith(";")) {
+            result = result.substring(0, result.length() - 1).trim();
+        }
+        return result;
+    }
+}
@@ -34,6 +34,7 @@ import java.util.Map;
 import org.eclipse.kura.configuration.ConfigurableComponent;
 import org.eclipse.kura.db.H2DbService;
 import org.eclipse.kura.internal.wire.h2db.common.H2DbServiceHelper;
+import org.eclipse.kura.internal.wire.h2db.filter.H2DbIncrementalQuery.Mode;
 import org.eclipse.kura.localization.LocalizationAdapter;
 import org.eclipse.kura.localization.resources.WireMessages;
 import org.eclipse.kura.type.TypedValue;
@@ -60,6 +61,9 @@ import org.slf4j.LoggerFactory;
  * The Class DbWireRecordFilter is responsible for representing a wire component
  * which is focused on performing an user defined SQL query in a database table and emitting the result as a Wire
  * Envelope.
+ * <p>
+ * If an incremental mode is configured, the query is not executed in full when the cache expires, only the rows
+ * added since the last refresh are fetched, see {@link H2DbIncrementalQuery}.
  */
 public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, ConfigurableComponent {
 
@@ -73,6 +77,8 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
 
     private H2DbWireRecordFilterOptions options;
 
+    private H2DbIncrementalQuery incrementalQuery;
+
     private volatile WireHelperService wireHelperService;
 
     private WireSupport wireSupport;
@@ -90,6 +96,7 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
     }
 
     public synchronized void unbindDbService(H2DbService dbService) {
+        resetIncrementalQuery();
         this.dbHelper = null;
     }
 
@@ -151,6 +158,7 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
         final String oldDbServicePid = this.options.getDbServiceInstancePid();
 
         this.options = new H2DbWireRecordFilterOptions(properties);
+        resetIncrementalQuery();
 
         if (!oldDbServicePid.equals(this.options.getDbServiceInstancePid())) {
             restartDbServiceTracker();
@@ -173,6 +181,7 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
      */
     protected void deactivate(final ComponentContext componentContext) {
         logger.debug(message.deactivatingFilter());
+        resetIncrementalQuery();
         logger.debug(message.deactivatingFilterDone());
     }
 
@@ -194,8 +203,9 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
             stmt = conn.createStatement();
             rset = stmt.executeQuery(sqlView);
 
+            final String[] columnLabels = getColumnLabels(rset.getMetaData());
             while (rset.next()) {
-                final WireRecord wireRecord = new WireRecord(convertSQLRowToWireRecord(rset));
+                final WireRecord wireRecord = new WireRecord(convertSQLRowToWireRecord(rset, columnLabels));
                 dataRecords.add(wireRecord);
             }
 
@@ -211,16 +221,34 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
         return dataRecords;
     }
 
-    private Map<String, TypedValue<?>> convertSQLRowToWireRecord(ResultSet rset) throws SQLException {
-        final Map<String, TypedValue<?>> wireRecordProperties = new HashMap<>();
-        final ResultSetMetaData rmet = rset.getMetaData();
-        for (int i = 1; i <= rmet.getColumnCount(); i++) {
+    /**
+     * Returns the labels of the columns described by the provided metadata, the column name is used if a column
+     * has no label.
+     *
+     * @param rmet
+     *            the result set metadata
+     * @return the column labels, the label of the column with index {@code i} is at position {@code i - 1}
+     * @throws SQLException
+     *             the SQL exception
+     */
+    static String[] getColumnLabels(final ResultSetMetaData rmet) throws SQLException {
+        final String[] columnLabels = new String[rmet.getColumnCount()];
+        for (int i = 1; i <= columnLabels.length; i++) {
             String fieldName = rmet.getColumnLabel(i);
-            Object dbExtractedData = rset.getObject(i);
-
             if (isNull(fieldName)) {
                 fieldName = rmet.getColumnName(i);
             }
+            columnLabels[i - 1] = fieldName;
+        }
+        return columnLabels;
+    }
+
+    static Map<String, TypedValue<?>> convertSQLRowToWireRecord(final ResultSet rset, final String[] columnLabels)
+            throws SQLException {
+        final Map<String, TypedValue<?>> wireRecordProperties = new HashMap<>();
+        for (int i = 1; i <= columnLabels.length; i++) {
+            final String fieldName = columnLabels[i - 1];
+            Object dbExtractedData = rset.getObject(i);
 
             if (isNull(dbExtractedData)) {
                 continue;
@@ -246,6 +274,8 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
      * The cache validity is determined by the {@link H2DbWireRecordFilterOptions#CONF_CACHE_EXPIRATION_INTERVAL}
      * property
      * provided by the user in the component configuration.
+     * In {@link Mode#DELTA} mode, only the records fetched by a refresh are emitted, and an empty envelope is emitted
+     * while the cache is valid.
      */
     @Override
     public synchronized void onWireReceive(final WireEnvelope wireEnvelope) {
@@ -256,6 +286,18 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
             return;
         }
 
+        final Mode incrementalMode = this.options.getIncrementalMode();
+        if (incrementalMode != Mode.NONE) {
+            List<WireRecord> result = new ArrayList<>();
+            if (isCacheExpired()) {
+                result = refreshIncrementalRecords(incrementalMode);
+            } else if (incrementalMode == Mode.WINDOW && nonNull(this.lastRecords)) {
+                result = this.lastRecords;
+            }
+            this.wireSupport.emit(Collections.unmodifiableList(result));
+            return;
+        }
+
         if (isCacheExpired() && this.dbHelper != null) {
             refreshCachedRecords();
         }
@@ -281,6 +323,29 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
         }
     }
 
+    private List<WireRecord> refreshIncrementalRecords(final Mode incrementalMode) {
+        if (isNull(this.incrementalQuery)) {
+            this.incrementalQuery = new H2DbIncrementalQuery(this.dbHelper, this.options.getSqlView(),
+                    this.options.getIncrementalColumn(), this.options.getIncrementalWindowSize());
+        }
+        try {
+            final List<WireRecord> delta = this.incrementalQuery.refresh();
+            this.lastRecords = this.incrementalQuery.getWindow();
+            this.lastRefreshedTime = Calendar.getInstance(this.lastRefreshedTime.getTimeZone());
+            return incrementalMode == Mode.DELTA ? delta : this.lastRecords;
+        } catch (SQLException e) {
+            logger.error(message.errorFiltering(), e);
+        }
+        return new ArrayList<>();
+    }
+
+    private synchronized void resetIncrementalQuery() {
+        if (nonNull(this.incrementalQuery)) {
+            this.incrementalQuery = null;
+            this.lastRecords = null;
+        }
+    }
+
     protected void restartDbServiceTracker() {
         stopDbServiceTracker();
         try {
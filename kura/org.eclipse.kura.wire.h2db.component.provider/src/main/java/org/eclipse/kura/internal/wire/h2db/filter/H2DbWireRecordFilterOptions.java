@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.eclipse.kura.db.H2DbService;
+import org.eclipse.kura.internal.wire.h2db.filter.H2DbIncrementalQuery.Mode;
 import org.eclipse.kura.localization.LocalizationAdapter;
 import org.eclipse.kura.localization.resources.WireMessages;
 
@@ -38,6 +39,16 @@ final class H2DbWireRecordFilterOptions {
 
     private static final String CONF_SQL_VIEW = "sql.view";
 
+    private static final String CONF_INCREMENTAL_MODE = "incremental.mode";
+
+    private static final String CONF_INCREMENTAL_COLUMN = "incremental.column";
+
+    private static final String CONF_INCREMENTAL_WINDOW_SIZE = "incremental.window.size";
+
+    private static final String DEFAULT_INCREMENTAL_COLUMN = "ID";
+
+    private static final int DEFAULT_INCREMENTAL_WINDOW_SIZE = 1000;
+
     private final Map<String, Object> properties;
 
     /**
@@ -87,4 +98,51 @@ final class H2DbWireRecordFilterOptions {
         }
         return dbServicePid;
     }
+
+    /**
+     * Returns the configured incremental mode, {@link Mode#NONE} if the query must be executed in full.
+     *
+     * @return the incremental mode
+     */
+    Mode getIncrementalMode() {
+        Mode mode = Mode.NONE;
+        final Object incrementalMode = this.properties.get(CONF_INCREMENTAL_MODE);
+        if (nonNull(incrementalMode) && incrementalMode instanceof String) {
+            try {
+                mode = Mode.valueOf((String) incrementalMode);
+            } catch (final IllegalArgumentException e) {
+                // use default
+            }
+        }
+        return mode;
+    }
+
+    /**
+     * Returns the name of the column used as watermark in incremental mode.
+     *
+     * @return the watermark column name
+     */
+    String getIncrementalColumn() {
+        String column = DEFAULT_INCREMENTAL_COLUMN;
+        final Object incrementalColumn = this.properties.get(CONF_INCREMENTAL_COLUMN);
+        if (nonNull(incrementalColumn) && incrementalColumn instanceof String
+                && !((String) incrementalColumn).trim().isEmpty()) {
+            column = ((String) incrementalColumn).trim();
+        }
+        return column;
+    }
+
+    /**
+     * Returns the maximum number of records kept in memory in incremental mode.
+     *
+     * @return the window size
+     */
+    int getIncrementalWindowSize() {
+        int windowSize = DEFAULT_INCREMENTAL_WINDOW_SIZE;
+        final Object incrementalWindowSize = this.properties.get(CONF_INCREMENTAL_WINDOW_SIZE);
+        if (nonNull(incrementalWindowSize) && incrementalWindowSize instanceof Integer) {
+            windowSize = (Integer) incrementalWindowSize;
+        }
+        return windowSize;
+    }
 }
\ No newline at end of file
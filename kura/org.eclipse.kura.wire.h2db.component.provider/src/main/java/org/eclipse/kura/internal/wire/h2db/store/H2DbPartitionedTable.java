@@ -0,0 +1,700 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.h2db.store;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.requireNonNull;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.MessageFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.eclipse.kura.internal.wire.h2db.common.H2DbServiceHelper;
+import org.eclipse.kura.internal.wire.h2db.store.H2DbDataTypeMapper.JdbcType;
+import org.eclipse.kura.type.DataType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Class H2DbPartitionedTable manages the time partitioned layout of a wire record table.
+ * <p>
+ * Records are stored in one table per time bucket, named after the configured table name followed by
+ * {@code _P} and the UTC start time of the bucket. A view having the configured table name joins all the
+ * live buckets, so that the stored records can still be queried using the configured table name.
+ * <p>
+ * Retention is performed by dropping whole buckets, either when they are older than the configured number
+ * of intervals or when the total number of stored records reaches the maximum table size. The number of
+ * records in each bucket is tracked in memory, this avoids counting the rows for every received envelope. A record
+ * whose bucket is older than the retention window, or older than all the live buckets, is stored in the newest
+ * bucket, so that the dropped buckets are never recreated.
+ * <p>
+ * When partitioning is disabled, the buckets left by a previous configuration are merged into the non partitioned
+ * table, see {@link #mergeBuckets(H2DbServiceHelper, String)}.
+ * <p>
+ * This class is not thread safe, callers must provide proper synchronization.
+ */
+final class H2DbPartitionedTable {
+
+    /**
+     * The time interval covered by a single bucket.
+     */
+    enum Interval {
+        NONE(0, null),
+        HOUR(TimeUnit.HOURS.toMillis(1), "uuuuMMddHH"),
+        DAY(TimeUnit.DAYS.toMillis(1), "uuuuMMdd");
+
+        private final long millis;
+
+        private final String pattern;
+
+        private Interval(final long millis, final String pattern) {
+            this.millis = millis;
+            this.pattern = pattern;
+        }
+
+        long getMillis() {
+            return this.millis;
+        }
+
+        long getBucketStart(final long timestamp) {
+            return timestamp - Math.floorMod(timestamp, this.millis);
+        }
+
+        String formatBucketStart(final long bucketStart) {
+            return DateTimeFormatter.ofPattern(this.pattern).withZone(ZoneOffset.UTC)
+                    .format(Instant.ofEpochMilli(bucketStart));
+        }
+    }
+
+    private static final class Bucket {
+
+        private final long start;
+
+        private final String tableName;
+
+        private long size;
+
+        Bucket(final long start, final String tableName, final long size) {
+            this.start = start;
+            this.tableName = tableName;
+            this.size = size;
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(H2DbPartitionedTable.class);
+
+    private static final String BUCKET_SEPARATOR = "_P";
+
+    private static final String COLUMN_NAME = "COLUMN_NAME";
+
+    private static final String DATA_TYPE = "DATA_TYPE";
+
+    private static final String TYPE_NAME = "TYPE_NAME";
+
+    private static final String ID_COLUMN = "ID";
+
+    private static final String TIMESTAMP_COLUMN = "TIMESTAMP";
+
+    private static final String SQL_CREATE_BUCKET = "CREATE TABLE IF NOT EXISTS {0} (ID BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH {1}, INCREMENT BY 1) PRIMARY KEY, TIMESTAMP BIGINT);";
+
+    private static final String SQL_CREATE_BUCKET_INDEX = "CREATE INDEX IF NOT EXISTS {0} ON {1} (TIMESTAMP DESC);";
+
+    private static final String SQL_DROP_INDEX = "DROP INDEX IF EXISTS {0};";
+
+    private static final String SQL_ADD_COLUMN = "ALTER TABLE {0} ADD COLUMN {1} {2};";
+
+    private static final String SQL_CREATE_VIEW = "CREATE OR REPLACE VIEW {0} AS {1};";
+
+    private static final String SQL_DROP_TABLE = "DROP TABLE IF EXISTS {0};";
+
+    private static final String SQL_RENAME_TABLE = "ALTER TABLE {0} RENAME TO {1};";
+
+    private static final String SQL_MERGE_TABLE = "INSERT INTO {0} ({1}) SELECT {1} FROM {2} ORDER BY ID;";
+
+    private static final String SQL_MAX_ID = "SELECT MAX(ID) FROM {0};";
+
+    private static final String SQL_MAX_TIMESTAMP = "SELECT MAX(TIMESTAMP) FROM {0};";
+
+    private static final String SQL_ROW_COUNT_TABLE = "SELECT COUNT(*) FROM {0};";
+
+    private static final String[] TABLE_TYPE = new String[] { "TABLE" };
+
+    private final H2DbServiceHelper dbHelper;
+
+    private final String tableName;
+
+    private final Interval interval;
+
+    private final int retentionCount;
+
+    private final LongSupplier clock;
+
+    private final NavigableMap<Long, Bucket> buckets = new TreeMap<>();
+
+    private Bucket currentBucket;
+
+    private long totalSize;
+
+    /**
+     * Instantiates a new partitioned table.
+     *
+     * @param dbHelper
+     *            the {@link H2DbServiceHelper} instance
+     * @param tableName
+     *            the configured table name, used as view name and as bucket name prefix
+     * @param interval
+     *            the time interval covered by each bucket
+     * @param retentionCount
+     *            the number of intervals to retain, 0 disables age based retention
+     * @param clock
+     *            supplies the current time in milliseconds
+     * @throws NullPointerException
+     *             if any of the arguments is null
+     */
+    H2DbPartitionedTable(final H2DbServiceHelper dbHelper, final String tableName, final Interval interval,
+            final int retentionCount, final LongSupplier clock) {
+        this(dbHelper, tableName, interval, retentionCount, clock, true);
+    }
+
+    private H2DbPartitionedTable(final H2DbServiceHelper dbHelper, final String tableName, final Interval interval,
+            final int retentionCount, final LongSupplier clock, final boolean partitioned) {
+        requireNonNull(dbHelper);
+        requireNonNull(tableName);
+        requireNonNull(interval);
+        requireNonNull(clock);
+        if (partitioned && interval == Interval.NONE) {
+            throw new IllegalArgumentException("A partitioning interval is required");
+        }
+        this.dbHelper = dbHelper;
+        this.tableName = tableName;
+        this.interval = interval;
+        this.retentionCount = retentionCount;
+        this.clock = clock;
+    }
+
+    /**
+     * Moves the records stored in the buckets of the provided table, left by a previous partitioned configuration,
+     * to the non partitioned table having the configured name, and drops the buckets. The records are moved in
+     * bucket order and get new identifiers. The non partitioned table must already exist.
+     *
+     * @param dbHelper
+     *            the {@link H2DbServiceHelper} instance
+     * @param tableName
+     *            the configured table name
+     * @throws SQLException
+     *             the SQL exception
+     * @throws NullPointerException
+     *             if any of the arguments is null
+     */
+    static void mergeBuckets(final H2DbServiceHelper dbHelper, final String tableName) throws SQLException {
+        new H2DbPartitionedTable(dbHelper, tableName, Interval.NONE, 0, System::currentTimeMillis, false)
+                .mergeBucketsIntoTable();
+    }
+
+    /**
+     * Discovers the existing buckets, migrates a non partitioned table having the configured name into a bucket,
+     * creates the bucket for the current time if needed and recreates the view.
+     *
+     * @throws SQLException
+     *             the SQL exception
+     */
+    void reconcile() throws SQLException {
+        this.buckets.clear();
+        this.currentBucket = null;
+        this.totalSize = 0;
+
+        discoverBuckets();
+        migrateLegacyTable();
+
+        final long now = this.clock.getAsLong();
+        final long bucketStart = this.interval.getBucketStart(now);
+        if (!this.buckets.containsKey(bucketStart)) {
+            createBucket(bucketStart);
+        }
+        this.currentBucket = this.buckets.get(bucketStart);
+        dropExpiredBuckets(bucketStart);
+        refreshView();
+    }
+
+    /**
+     * Reconciles the bucket that received the last record, for example after a failed insert, leaving the other
+     * buckets untouched: the bucket is created again if its table has been dropped by other means, otherwise its
+     * records are counted again.
+     *
+     * @throws SQLException
+     *             the SQL exception
+     */
+    void reconcileCurrentBucket() throws SQLException {
+        if (isNull(this.currentBucket)) {
+            reconcile();
+            return;
+        }
+        if (tableExists(this.currentBucket.tableName)) {
+            recountCurrentBucket();
+            return;
+        }
+        final Bucket missing = this.currentBucket;
+        logger.info("Bucket {} not found, creating it again", missing.tableName);
+        this.buckets.remove(missing.start);
+        this.totalSize -= missing.size;
+        this.currentBucket = createBucket(missing.start);
+        refreshView();
+    }
+
+    /**
+     * Returns the name of the bucket table that must store a record having the provided timestamp. If the
+     * bucket does not exist yet it will be created, the expired buckets will be dropped and the view will be
+     * updated. A record older than the retention window, or older than all the live buckets, is stored in the
+     * newest bucket instead.
+     *
+     * @param timestamp
+     *            the record timestamp
+     * @return the bucket table name
+     * @throws SQLException
+     *             the SQL exception
+     */
+    String getBucketTableName(final long timestamp) throws SQLException {
+        final long bucketStart = this.interval.getBucketStart(timestamp);
+        Bucket bucket = this.buckets.get(bucketStart);
+        if (isNull(bucket) && isDropped(bucketStart)) {
+            bucket = this.buckets.lastEntry().getValue();
+            logger.debug("The bucket for timestamp {} has been dropped, using bucket {}", timestamp,
+                    bucket.tableName);
+        } else if (isNull(bucket)) {
+            bucket = createBucket(bucketStart);
+            // the previous bucket can be dropped as well
+            this.currentBucket = bucket;
+            dropExpiredBuckets(bucketStart);
+            refreshView();
+        }
+        this.currentBucket = bucket;
+        return bucket.tableName;
+    }
+
+    /**
+     * Returns the name of the bucket that received the last record, or {@code null} if no bucket is available.
+     *
+     * @return the current bucket table name
+     */
+    String getCurrentBucketTableName() {
+        return isNull(this.currentBucket) ? null : this.currentBucket.tableName;
+    }
+
+    /**
+     * Notifies that a record has been stored in the current bucket.
+     */
+    void recordStored() {
+        if (!isNull(this.currentBucket)) {
+            this.currentBucket.size++;
+            this.totalSize++;
+        }
+    }
+
+    /**
+     * Returns the total number of records stored in the live buckets.
+     *
+     * @return the total number of records
+     */
+    long getTotalSize() {
+        return this.totalSize;
+    }
+
+    /**
+     * Drops the oldest buckets, except the current one, until the total number of stored records falls below
+     * the provided maximum.
+     *
+     * @param maximumSize
+     *            the maximum number of records
+     * @return {@code true} if the total number of records is still greater or equal than the provided maximum
+     * @throws SQLException
+     *             the SQL exception
+     */
+    boolean dropOldestBuckets(final long maximumSize) throws SQLException {
+        final List<Bucket> dropped = new ArrayList<>();
+        final Iterator<Bucket> iterator = this.buckets.values().iterator();
+        while (this.totalSize >= maximumSize && iterator.hasNext()) {
+            final Bucket bucket = iterator.next();
+            if (bucket == this.currentBucket) {
+                continue;
+            }
+            iterator.remove();
+            this.totalSize -= bucket.size;
+            dropped.add(bucket);
+        }
+        dropBuckets(dropped);
+        return this.totalSize >= maximumSize;
+    }
+
+    /**
+     * Recounts the records stored in the current bucket, this must be called after the current bucket has been
+     * modified by other means than inserts, for example after a partial truncation.
+     *
+     * @throws SQLException
+     *             the SQL exception
+     */
+    void recountCurrentBucket() throws SQLException {
+        if (!isNull(this.currentBucket)) {
+            final long size = countRows(this.currentBucket.tableName);
+            this.totalSize += size - this.currentBucket.size;
+            this.currentBucket.size = size;
+        }
+    }
+
+    /**
+     * Recreates the view that joins all the live buckets. Columns missing in a bucket are reported as
+     * {@code NULL}.
+     *
+     * @throws SQLException
+     *             the SQL exception
+     */
+    void refreshView() throws SQLException {
+        if (this.buckets.isEmpty()) {
+            return;
+        }
+        final Map<String, List<String>> bucketColumns = new LinkedHashMap<>();
+        final List<String> viewColumns = new ArrayList<>();
+        for (final Bucket bucket : this.buckets.values()) {
+            final List<String> columns = new ArrayList<>(getColumns(bucket.tableName).keySet());
+            bucketColumns.put(bucket.tableName, columns);
+            for (final String column : columns) {
+                if (!viewColumns.contains(column)) {
+                    viewColumns.add(column);
+                }
+            }
+        }
+
+        final StringBuilder query = new StringBuilder();
+        for (final Entry<String, List<String>> entry : bucketColumns.entrySet()) {
+            if (query.length() > 0) {
+                query.append(" UNION ALL ");
+            }
+            query.append("SELECT ");
+            boolean first = true;
+            for (final String column : viewColumns) {
+                if (!first) {
+                    query.append(", ");
+                }
+                first = false;
+                final String sqlColName = this.dbHelper.sanitizeSqlTableAndColumnName(column);
+                if (entry.getValue().contains(column)) {
+                    query.append(sqlColName);
+                } else {
+                    query.append("NULL AS ").append(sqlColName);
+                }
+            }
+            query.append(" FROM ").append(this.dbHelper.sanitizeSqlTableAndColumnName(entry.getKey()));
+        }
+
+        final String sqlViewName = this.dbHelper.sanitizeSqlTableAndColumnName(this.tableName);
+        this.dbHelper.execute(MessageFormat.format(SQL_CREATE_VIEW, sqlViewName, query.toString()));
+        logger.debug("View {} updated, {} buckets", sqlViewName, this.buckets.size());
+    }
+
+    private void discoverBuckets() throws SQLException {
+        final String prefix = this.tableName + BUCKET_SEPARATOR;
+        final List<String> tableNames = new ArrayList<>();
+        Connection conn = null;
+        ResultSet rsTbls = null;
+        try {
+            conn = this.dbHelper.getConnection();
+            final String catalog = conn.getCatalog();
+            final DatabaseMetaData dbMetaData = conn.getMetaData();
+            final String escape = dbMetaData.getSearchStringEscape();
+            final String pattern = prefix.replace(escape, escape + escape).replace("_", escape + "_").replace("%",
+                    escape + "%") + "%";
+            rsTbls = dbMetaData.getTables(catalog, null, pattern, TABLE_TYPE);
+            while (rsTbls.next()) {
+                tableNames.add(rsTbls.getString("TABLE_NAME"));
+            }
+        } finally {
+            this.dbHelper.close(rsTbls);
+            this.dbHelper.close(conn);
+        }
+
+        for (final String bucketTableName : tableNames) {
+            if (!bucketTableName.startsWith(prefix)) {
+                continue;
+            }
+            final long bucketStart = parseBucketStart(bucketTableName.substring(prefix.length()));
+            if (bucketStart < 0) {
+                continue;
+            }
+            final long size = countRows(bucketTableName);
+            this.buckets.put(bucketStart, new Bucket(bucketStart, bucketTableName, size));
+            this.totalSize += size;
+        }
+        logger.info("Found {} buckets for table {}", this.buckets.size(), this.tableName);
+    }
+
+    private void migrateLegacyTable() throws SQLException {
+        if (!tableExists(this.tableName)) {
+            return;
+        }
+        final String sqlLegacyName = this.dbHelper.sanitizeSqlTableAndColumnName(this.tableName);
+        final long newestTimestamp = queryLong(MessageFormat.format(SQL_MAX_TIMESTAMP, sqlLegacyName),
+                this.clock.getAsLong());
+        final long bucketStart = this.interval.getBucketStart(newestTimestamp);
+        final Bucket bucket = this.buckets.get(bucketStart);
+
+        if (isNull(bucket)) {
+            final String bucketTableName = toBucketTableName(bucketStart);
+            logger.info("Moving table {} to bucket {}", this.tableName, bucketTableName);
+            this.dbHelper.execute(MessageFormat.format(SQL_RENAME_TABLE, sqlLegacyName,
+                    this.dbHelper.sanitizeSqlTableAndColumnName(bucketTableName)));
+            this.dbHelper.execute(MessageFormat.format(SQL_DROP_INDEX,
+                    this.dbHelper.sanitizeSqlTableAndColumnName(this.tableName + "_TIMESTAMP")));
+            createIndex(bucketTableName);
+            final long size = countRows(bucketTableName);
+            this.buckets.put(bucketStart, new Bucket(bucketStart, bucketTableName, size));
+            this.totalSize += size;
+        } else {
+            logger.info("Merging table {} into bucket {}", this.tableName, bucket.tableName);
+            mergeTable(this.tableName, bucket.tableName);
+            this.totalSize -= bucket.size;
+            bucket.size = countRows(bucket.tableName);
+            this.totalSize += bucket.size;
+        }
+    }
+
+    private void mergeBucketsIntoTable() throws SQLException {
+        discoverBuckets();
+        for (final Bucket bucket : this.buckets.values()) {
+            logger.info("Merging bucket {} into table {}, {} records", bucket.tableName, this.tableName, bucket.size);
+            mergeTable(bucket.tableName, this.tableName);
+        }
+        this.buckets.clear();
+        this.totalSize = 0;
+    }
+
+    /**
+     * Appends the records of the source table to the target table, adding the missing columns, and drops the source
+     * table. The records get new identifiers.
+     */
+    private void mergeTable(final String sourceTableName, final String targetTableName) throws SQLException {
+        copyColumns(sourceTableName, targetTableName);
+        final StringBuilder columns = new StringBuilder();
+        for (final String column : getColumns(sourceTableName).keySet()) {
+            if (ID_COLUMN.equals(column)) {
+                continue;
+            }
+            if (columns.length() > 0) {
+                columns.append(", ");
+            }
+            columns.append(this.dbHelper.sanitizeSqlTableAndColumnName(column));
+        }
+        final String sqlSourceName = this.dbHelper.sanitizeSqlTableAndColumnName(sourceTableName);
+        this.dbHelper.execute(MessageFormat.format(SQL_MERGE_TABLE,
+                this.dbHelper.sanitizeSqlTableAndColumnName(targetTableName), columns.toString(), sqlSourceName));
+        this.dbHelper.execute(MessageFormat.format(SQL_DROP_TABLE, sqlSourceName));
+    }
+
+    private Bucket createBucket(final long bucketStart) throws SQLException {
+        final String bucketTableName = toBucketTableName(bucketStart);
+        final Entry<Long, Bucket> newest = this.buckets.lastEntry();
+
+        long firstId = 1;
+        if (!isNull(newest)) {
+            firstId = queryLong(MessageFormat.format(SQL_MAX_ID,
+                    this.dbHelper.sanitizeSqlTableAndColumnName(newest.getValue().tableName)), 0) + 1;
+        }
+
+        logger.info("Creating bucket {}", bucketTableName);
+        this.dbHelper.execute(MessageFormat.format(SQL_CREATE_BUCKET,
+                this.dbHelper.sanitizeSqlTableAndColumnName(bucketTableName), Long.toString(firstId)));
+        createIndex(bucketTableName);
+        if (!isNull(newest)) {
+            copyColumns(newest.getValue().tableName, bucketTableName);
+        }
+
+        final Bucket bucket = new Bucket(bucketStart, bucketTableName, 0);
+        this.buckets.put(bucketStart, bucket);
+        return bucket;
+    }
+
+    private void createIndex(final String bucketTableName) throws SQLException {
+        this.dbHelper.execute(MessageFormat.format(SQL_CREATE_BUCKET_INDEX,
+                this.dbHelper.sanitizeSqlTableAndColumnName(bucketTableName + "_TIMESTAMP"),
+                this.dbHelper.sanitizeSqlTableAndColumnName(bucketTableName)));
+    }
+
+    /**
+     * Checks whether the bucket starting at the provided time has been dropped, or would be dropped as soon as it is
+     * created: it is older than the oldest live bucket or outside the retention window of the newest one.
+     */
+    private boolean isDropped(final long bucketStart) {
+        if (this.buckets.isEmpty()) {
+            return false;
+        }
+        if (bucketStart < this.buckets.firstKey()) {
+            return true;
+        }
+        return this.retentionCount > 0
+                && bucketStart < this.buckets.lastKey() - (this.retentionCount - 1) * this.interval.getMillis();
+    }
+
+    private void dropExpiredBuckets(final long currentBucketStart) throws SQLException {
+        if (this.retentionCount <= 0) {
+            return;
+        }
+        final long oldestRetained = currentBucketStart - (this.retentionCount - 1) * this.interval.getMillis();
+        final List<Bucket> dropped = new ArrayList<>();
+        final Iterator<Bucket> iterator = this.buckets.headMap(oldestRetained, false).values().iterator();
+        while (iterator.hasNext()) {
+            final Bucket bucket = iterator.next();
+            if (bucket == this.currentBucket) {
+                continue;
+            }
+            iterator.remove();
+            this.totalSize -= bucket.size;
+            dropped.add(bucket);
+        }
+        dropBuckets(dropped);
+    }
+
+    private void dropBuckets(final List<Bucket> dropped) throws SQLException {
+        if (dropped.isEmpty()) {
+            return;
+        }
+        // the view must stop referencing the buckets before they are dropped
+        refreshView();
+        for (final Bucket bucket : dropped) {
+            logger.info("Dropping bucket {}, {} records", bucket.tableName, bucket.size);
+            this.dbHelper.execute(
+                    MessageFormat.format(SQL_DROP_TABLE, this.dbHelper.sanitizeSqlTableAndColumnName(bucket.tableName)));
+        }
+    }
+
+    private void copyColumns(final String sourceTableName, final String targetTableName) throws SQLException {
+        final Map<String, String> sourceColumns = getColumns(sourceTableName);
+        final Map<String, String> targetColumns = getColumns(targetTableName);
+        final String sqlTargetName = this.dbHelper.sanitizeSqlTableAndColumnName(targetTableName);
+        for (final Entry<String, String> column : sourceColumns.entrySet()) {
+            if (!targetColumns.containsKey(column.getKey())) {
+                this.dbHelper.execute(MessageFormat.format(SQL_ADD_COLUMN, sqlTargetName,
+                        this.dbHelper.sanitizeSqlTableAndColumnName(column.getKey()), column.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Returns the columns of the provided table, in ordinal order, mapped to the type to be used to recreate them.
+     */
+    private Map<String, String> getColumns(final String table) throws SQLException {
+        final Map<String, String> columns = new LinkedHashMap<>();
+        Connection conn = null;
+        ResultSet rsColumns = null;
+        try {
+            conn = this.dbHelper.getConnection();
+            final String catalog = conn.getCatalog();
+            final DatabaseMetaData dbMetaData = conn.getMetaData();
+            rsColumns = dbMetaData.getColumns(catalog, null, table, null);
+            while (rsColumns.next()) {
+                final String colName = rsColumns.getString(COLUMN_NAME);
+                final DataType dataType = H2DbDataTypeMapper.getDataType(rsColumns.getInt(DATA_TYPE));
+                final JdbcType jdbcType = isNull(dataType) ? null : H2DbDataTypeMapper.getJdbcType(dataType);
+                columns.put(colName, isNull(jdbcType) ? rsColumns.getString(TYPE_NAME) : jdbcType.getTypeString());
+            }
+        } finally {
+            this.dbHelper.close(rsColumns);
+            this.dbHelper.close(conn);
+        }
+        columns.remove(TIMESTAMP_COLUMN);
+        final Map<String, String> result = new LinkedHashMap<>();
+        if (columns.containsKey(ID_COLUMN)) {
+            result.put(ID_COLUMN, columns.remove(ID_COLUMN));
+        }
+        result.put(TIMESTAMP_COLUMN, "BIGINT");
+        result.putAll(columns);
+        return result;
+    }
+
+    private boolean tableExists(final String table) throws SQLException {
+        Connection conn = null;
+        ResultSet rsTbls = null;
+        try {
+            conn = this.dbHelper.getConnection();
+            final String catalog = conn.getCatalog();
+            final DatabaseMetaData dbMetaData = conn.getMetaData();
+            rsTbls = dbMetaData.getTables(catalog, null, table, TABLE_TYPE);
+            while (rsTbls.next()) {
+                if (table.equals(rsTbls.getString("TABLE_NAME"))) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            this.dbHelper.close(rsTbls);
+            this.dbHelper.close(conn);
+        }
+    }
+
+    private long countRows(final String table) throws SQLException {
+        return queryLong(
+                MessageFormat.format(SQL_ROW_COUNT_TABLE, this.dbHelper.sanitizeSqlTableAndColumnName(table)), 0);
+    }
+
+    private long queryLong(final String sql, final long defaultValue) throws SQLException {
+        Connection conn = null;
+        Statement stmt = null;
+        ResultSet rset = null;
+        try {
+            conn = this.dbHelper.getConnection();
+            stmt = conn.createStatement();
+            rset = stmt.executeQuery(sql);
+            if (rset.next()) {
+                final long value = rset.getLong(1);
+                return rset.wasNull() ? defaultValue : value;
+            }
+            return defaultValue;
+        } finally {
+            this.dbHelper.close(rset);
+            this.dbHelper.close(stmt);
+            this.dbHelper.close(conn);
+        }
+    }
+
+    private String toBucketTableName(final long bucketStart) {
+        return this.tableName + BUCKET_SEPARATOR + this.interval.formatBucketStart(bucketStart);
+    }
+
+    private static long parseBucketStart(final String suffix) {
+        try {
+            if (suffix.length() == Interval.HOUR.pattern.length()) {
+                return LocalDateTime.parse(suffix, DateTimeFormatter.ofPattern(Interval.HOUR.pattern))
+                        .toInstant(ZoneOffset.UTC).toEpochMilli();
+            } else if (suffix.length() == Interval.DAY.pattern.length()) {
+                return LocalDate.parse(suffix, DateTimeFormatter.ofPattern(Interval.DAY.pattern))
+                        .atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            }
+        } catch (final DateTimeParseException e) {
+            logger.debug("Ignoring table with suffix {}", suffix, e);
+        }
+        return -1;
+    }
+}
@@ -27,7 +27,6 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.text.MessageFormat;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -36,6 +35,7 @@ import org.eclipse.kura.configuration.ConfigurableComponent;
 import org.eclipse.kura.db.H2DbService;
 import org.eclipse.kura.internal.wire.h2db.common.H2DbServiceHelper;
 import org.eclipse.kura.internal.wire.h2db.store.H2DbDataTypeMapper.JdbcType;
+import org.eclipse.kura.internal.wire.h2db.store.H2DbPartitionedTable.Interval;
 import org.eclipse.kura.localization.LocalizationAdapter;
 import org.eclipse.kura.localization.resources.WireMessages;
 import org.eclipse.kura.type.BooleanValue;
@@ -69,6 +69,9 @@ import org.slf4j.LoggerFactory;
 /**
  * The Class DbWireRecordStore is a wire component which is responsible to store
  * the received {@link WireRecord}.
+ * <p>
+ * If a partitioning interval is configured, the records are stored in one table per time interval and the
+ * configured table name refers to a view joining all the partitions, see {@link H2DbPartitionedTable}.
  */
 public class H2DbWireRecordStore implements WireEmitter, WireReceiver, ConfigurableComponent {
 
@@ -92,6 +95,8 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
 
     private static final String SQL_DROP_COLUMN = "ALTER TABLE {0} DROP COLUMN {1};";
 
+    private static final String SQL_DROP_VIEW = "DROP VIEW IF EXISTS {0};";
+
     private static final String SQL_INSERT_RECORD = "INSERT INTO {0} ({1}) VALUES ({2});";
 
     private static final String SQL_TRUNCATE_TABLE = "TRUNCATE TABLE {0};";
@@ -102,6 +107,8 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
 
     private H2DbWireRecordStoreOptions wireRecordStoreOptions;
 
+    private H2DbPartitionedTable partitionedTable;
+
     private volatile WireHelperService wireHelperService;
 
     private WireSupport wireSupport;
@@ -117,6 +124,7 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
 
     public synchronized void unbindDbService(final H2DbService dbService) {
         H2DbWireRecordStore.this.dbHelper = null;
+        H2DbWireRecordStore.this.partitionedTable = null;
     }
 
     public void bindWireHelperService(final WireHelperService wireHelperService) {
@@ -191,17 +199,34 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
     private void truncate() {
         final int noOfRecordsToKeep = this.wireRecordStoreOptions.getNoOfRecordsToKeep();
 
-        truncate(noOfRecordsToKeep);
+        truncate(this.wireRecordStoreOptions.getTableName(), noOfRecordsToKeep);
+    }
+
+    /**
+     * Drops the oldest partitions until the total number of records falls below the maximum table size. If the
+     * current partition alone exceeds the limit it is truncated as a non partitioned table would be.
+     *
+     * @throws SQLException
+     *             the SQL exception
+     */
+    private void truncatePartitions() throws SQLException {
+        final int maximumTableSize = this.wireRecordStoreOptions.getMaximumTableSize();
+        if (this.partitionedTable.dropOldestBuckets(maximumTableSize)) {
+            final int noOfRecordsToKeep = this.wireRecordStoreOptions.getNoOfRecordsToKeep();
+            truncate(this.partitionedTable.getCurrentBucketTableName(), noOfRecordsToKeep);
+            this.partitionedTable.recountCurrentBucket();
+        }
     }
 
     /**
      * Truncates the records in the table
      *
+     * @param tableName
+     *            the name of the table to be truncated
      * @param noOfRecordsToKeep
      *            the no of records to keep in the table
      */
-    private void truncate(final int noOfRecordsToKeep) {
-        final String tableName = this.wireRecordStoreOptions.getTableName();
+    private void truncate(final String tableName, final int noOfRecordsToKeep) {
         final String sqlTableName = this.dbHelper.sanitizeSqlTableAndColumnName(tableName);
         Connection conn = null;
         ResultSet rsTbls = null;
@@ -272,7 +297,11 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
 
         if (dbHelper != null) {
             try {
-                if (getTableSize() >= this.wireRecordStoreOptions.getMaximumTableSize()) {
+                if (nonNull(this.partitionedTable)) {
+                    if (this.partitionedTable.getTotalSize() >= this.wireRecordStoreOptions.getMaximumTableSize()) {
+                        truncatePartitions();
+                    }
+                } else if (getTableSize() >= this.wireRecordStoreOptions.getMaximumTableSize()) {
                     truncate();
                 }
             } catch (SQLException e) {
@@ -304,7 +333,13 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
         final String tableName = this.wireRecordStoreOptions.getTableName();
         do {
             try {
-                insertDataRecord(tableName, wireRecord);
+                final long timestamp = currentTimeMillis();
+                if (nonNull(this.partitionedTable)) {
+                    insertDataRecord(this.partitionedTable.getBucketTableName(timestamp), wireRecord, timestamp);
+                    this.partitionedTable.recordStored();
+                } else {
+                    insertDataRecord(tableName, wireRecord, timestamp);
+                }
                 break;
             } catch (final SQLException e) {
                 logger.error(message.insertionFailed(), e);
@@ -325,8 +360,15 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
     private void reconcileDB(final WireRecord wireRecord, final String tableName) {
         try {
             if (nonNull(tableName) && !tableName.isEmpty()) {
-                reconcileTable(tableName);
-                reconcileColumns(tableName, wireRecord);
+                if (nonNull(this.partitionedTable)) {
+                    // only the bucket that failed is reconciled, the view reports missing columns as NULL
+                    this.partitionedTable.reconcileCurrentBucket();
+                    reconcileColumns(this.partitionedTable.getCurrentBucketTableName(), wireRecord);
+                    this.partitionedTable.refreshView();
+                } else {
+                    reconcileTable(tableName);
+                    reconcileColumns(tableName, wireRecord);
+                }
             }
         } catch (final SQLException ee) {
             logger.error(message.errorStoring(), ee);
@@ -341,8 +383,17 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
      */
     private synchronized void reconcileDB(final String tableName) {
         try {
+            this.partitionedTable = null;
             if (nonNull(dbHelper) && nonNull(tableName) && !tableName.isEmpty()) {
-                reconcileTable(tableName);
+                final Interval partitionInterval = this.wireRecordStoreOptions.getPartitionInterval();
+                if (partitionInterval != Interval.NONE) {
+                    this.partitionedTable = new H2DbPartitionedTable(this.dbHelper, tableName, partitionInterval,
+                            this.wireRecordStoreOptions.getPartitionRetentionCount(), this::currentTimeMillis);
+                    this.partitionedTable.reconcile();
+                } else {
+                    reconcileTable(tableName);
+                    H2DbPartitionedTable.mergeBuckets(this.dbHelper, tableName);
+                }
             }
         } catch (final SQLException ee) {
             logger.error(message.errorStoring(), ee);
@@ -370,8 +421,10 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
             final DatabaseMetaData dbMetaData = conn.getMetaData();
             rsTbls = dbMetaData.getTables(catalog, null, this.wireRecordStoreOptions.getTableName(), TABLE_TYPE);
             if (!rsTbls.next()) {
-                // table does not exist, create it
+                // table does not exist, create it, a view with the same name could have been left by the
+                // partitioned layout
                 logger.info(message.creatingTable(sqlTableName));
+                this.dbHelper.execute(MessageFormat.format(SQL_DROP_VIEW, sqlTableName));
                 this.dbHelper.execute(MessageFormat.format(SQL_CREATE_TABLE, sqlTableName));
                 createIndex(this.dbHelper.sanitizeSqlTableAndColumnName(tableName + "_TIMESTAMP"), sqlTableName,
                         "(TIMESTAMP DESC)");
@@ -449,12 +502,15 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
      *            the table name
      * @param wireRecord
      *            the {@link WireRecord}
+     * @param timestamp
+     *            the timestamp to be stored with the record
      * @throws SQLException
      *             the SQL exception
      * @throws NullPointerException
      *             if any of the provided arguments is null
      */
-    private void insertDataRecord(final String tableName, final WireRecord wireRecord) throws SQLException {
+    private void insertDataRecord(final String tableName, final WireRecord wireRecord, final long timestamp)
+            throws SQLException {
         requireNonNull(tableName, message.tableNameNonNull());
         requireNonNull(wireRecord, message.wireRecordNonNull());
 
@@ -464,7 +520,7 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
         PreparedStatement stmt = null;
         try {
             connection = this.dbHelper.getConnection();
-            stmt = prepareStatement(connection, tableName, wireRecordProperties, new Date().getTime());
+            stmt = prepareStatement(connection, tableName, wireRecordProperties, timestamp);
             stmt.execute();
             connection.commit();
             logger.debug(message.stored());
@@ -536,6 +592,15 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
         return stmt;
     }
 
+    /**
+     * Returns the current time, stored as the timestamp of the records.
+     *
+     * @return the current time in milliseconds
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
     protected void restartDbServiceTracker() {
         stopDbServiceTracker();
         try {
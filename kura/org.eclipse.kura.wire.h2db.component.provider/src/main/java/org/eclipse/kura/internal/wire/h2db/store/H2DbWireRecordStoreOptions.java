@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.eclipse.kura.db.H2DbService;
+import org.eclipse.kura.internal.wire.h2db.store.H2DbPartitionedTable.Interval;
 import org.eclipse.kura.localization.LocalizationAdapter;
 import org.eclipse.kura.localization.resources.WireMessages;
 
@@ -42,6 +43,12 @@ final class H2DbWireRecordStoreOptions {
 
     private static final String TABLE_NAME = "table.name";
 
+    private static final String PARTITION_INTERVAL = "partition.interval";
+
+    private static final String PARTITION_RETENTION_COUNT = "partition.retention.count";
+
+    private static final int DEFAULT_PARTITION_RETENTION_COUNT = 24;
+
     private final Map<String, Object> properties;
 
     /**
@@ -100,4 +107,36 @@ final class H2DbWireRecordStoreOptions {
         }
         return dbServicePid;
     }
+
+    /**
+     * Returns the time interval covered by each table partition, {@link Interval#NONE} if partitioning is disabled.
+     *
+     * @return the partitioning interval
+     */
+    Interval getPartitionInterval() {
+        Interval interval = Interval.NONE;
+        final Object partitionInterval = this.properties.get(PARTITION_INTERVAL);
+        if (nonNull(partitionInterval) && partitionInterval instanceof String) {
+            try {
+                interval = Interval.valueOf((String) partitionInterval);
+            } catch (final IllegalArgumentException e) {
+                // use default
+            }
+        }
+        return interval;
+    }
+
+    /**
+     * Returns the number of partition intervals to retain, 0 means that partitions are never dropped by age.
+     *
+     * @return the number of partition intervals to retain
+     */
+    int getPartitionRetentionCount() {
+        int retentionCount = DEFAULT_PARTITION_RETENTION_COUNT;
+        final Object count = this.properties.get(PARTITION_RETENTION_COUNT);
+        if (nonNull(count) && count instanceof Integer) {
+            retentionCount = (Integer) count;
+        }
+        return retentionCount;
+    }
 }
\ No newline at end of file
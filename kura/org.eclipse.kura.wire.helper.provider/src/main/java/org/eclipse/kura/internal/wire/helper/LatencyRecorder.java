@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.helper;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.kura.wire.metrics.LatencyHistogram;
+
+/**
+ * Records durations into exponential buckets, safe for concurrent updates. The bucket layout is the one described
+ * by {@link LatencyHistogram}.
+ */
+final class LatencyRecorder {
+
+    /** 32 buckets cover durations up to about 36 minutes */
+    private static final int BUCKET_COUNT = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(final long nanos) {
+        this.buckets.incrementAndGet(LatencyHistogram.bucketOf(nanos, BUCKET_COUNT));
+        this.totalNanos.add(nanos);
+        if (nanos > this.maxNanos.get()) {
+            this.maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    LatencyHistogram snapshot() {
+        final long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = this.buckets.get(i);
+        }
+        return new LatencyHistogram(counts, this.totalNanos.sum(), this.maxNanos.get());
+    }
+}
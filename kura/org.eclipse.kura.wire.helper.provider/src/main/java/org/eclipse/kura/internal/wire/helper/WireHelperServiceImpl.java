@@ -17,6 +17,19 @@ import static java.util.Objects.requireNonNull;
 import static org.eclipse.kura.configuration.ConfigurationService.KURA_SERVICE_PID;
 import static org.osgi.framework.Constants.SERVICE_PID;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.internal.wire.helper.WireMetricsRegistry.ComponentCounters;
+import org.eclipse.kura.internal.wire.helper.WireMetricsRegistry.WireCounters;
 import org.eclipse.kura.localization.LocalizationAdapter;
 import org.eclipse.kura.localization.resources.WireMessages;
 import org.eclipse.kura.util.service.ServiceUtil;
@@ -25,19 +38,32 @@ import org.eclipse.kura.wire.WireEmitter;
 import org.eclipse.kura.wire.WireHelperService;
 import org.eclipse.kura.wire.WireReceiver;
 import org.eclipse.kura.wire.WireSupport;
+import org.eclipse.kura.wire.metrics.QueuedWireComponent;
+import org.eclipse.kura.wire.metrics.WireComponentMetrics;
+import org.eclipse.kura.wire.metrics.WireMetrics;
+import org.eclipse.kura.wire.metrics.WireMetricsService;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.FrameworkUtil;
 import org.osgi.framework.ServiceReference;
+import org.osgi.service.event.Event;
 import org.osgi.service.event.EventAdmin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * The Class WireHelperServiceImpl is the implementation of
- * {@link WireHelperService}
+ * {@link WireHelperService} and {@link WireMetricsService}
  */
-public final class WireHelperServiceImpl implements WireHelperService {
+public final class WireHelperServiceImpl implements WireHelperService, WireMetricsService, ConfigurableComponent {
+
+    private static final Logger logger = LoggerFactory.getLogger(WireHelperServiceImpl.class);
 
     private static final WireMessages wireMessages = LocalizationAdapter.adapt(WireMessages.class);
 
+    private final WireMetricsRegistry metrics = new WireMetricsRegistry();
+
+    private ScheduledExecutorService eventExecutor;
+
     private volatile EventAdmin eventAdmin;
 
     /**
@@ -64,6 +90,152 @@ public final class WireHelperServiceImpl implements WireHelperService {
         }
     }
 
+    /**
+     * OSGi service component activation callback
+     *
+     * @param properties
+     *            the configured properties
+     */
+    public void activate(final Map<String, Object> properties) {
+        updated(properties);
+    }
+
+    /**
+     * OSGi service component modification callback
+     *
+     * @param properties
+     *            the updated properties
+     */
+    public synchronized void updated(final Map<String, Object> properties) {
+        final WireMetricsOptions options = new WireMetricsOptions(properties);
+        stopEvents();
+        this.metrics.setEnabled(options.isMetricsEnabled());
+        if (options.isMetricsEnabled() && options.getEventInterval() > 0) {
+            this.eventExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "WireMetricsEvents");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.eventExecutor.scheduleWithFixedDelay(this::postMetricsEvent, options.getEventInterval(),
+                    options.getEventInterval(), TimeUnit.SECONDS);
+        }
+        logger.info("Wire metrics collection {}", options.isMetricsEnabled() ? "enabled" : "disabled");
+    }
+
+    /**
+     * OSGi service component deactivation callback
+     */
+    public synchronized void deactivate() {
+        stopEvents();
+        this.metrics.setEnabled(false);
+    }
+
+    private void stopEvents() {
+        if (this.eventExecutor != null) {
+            this.eventExecutor.shutdownNow();
+            this.eventExecutor = null;
+        }
+    }
+
+    private void postMetricsEvent() {
+        try {
+            final Map<String, Object> properties = new HashMap<>();
+            properties.put(COMPONENT_METRICS_PROPERTY, getComponentMetrics());
+            properties.put(WIRE_METRICS_PROPERTY, getWireMetrics());
+            this.eventAdmin.postEvent(new Event(METRICS_EVENT_TOPIC, properties));
+        } catch (final Exception e) {
+            logger.warn("Failed to post the Wire metrics event", e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isEnabled() {
+        return this.metrics.isEnabled();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<WireComponentMetrics> getComponentMetrics() {
+        if (!this.metrics.isEnabled()) {
+            return Collections.emptyList();
+        }
+        final Map<String, WireComponent> components = getWireComponents(KURA_SERVICE_PID);
+        final List<WireComponentMetrics> result = new ArrayList<>();
+        for (final Entry<String, ComponentCounters> entry : this.metrics.getComponentCounters().entrySet()) {
+            final WireComponent component = components.get(entry.getKey());
+            if (component == null) {
+                continue;
+            }
+            final int queueDepth = component instanceof QueuedWireComponent
+                    ? ((QueuedWireComponent) component).getQueueDepth()
+                    : WireComponentMetrics.QUEUE_DEPTH_UNAVAILABLE;
+            final ComponentCounters counters = entry.getValue();
+            result.add(new WireComponentMetrics(entry.getKey(), counters.envelopesIn.sum(), counters.recordsIn.sum(),
+                    counters.envelopesOut.sum(), counters.recordsOut.sum(), counters.emitBlockedNanos.sum(),
+                    queueDepth, counters.receiveTime.snapshot()));
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<WireMetrics> getWireMetrics() {
+        if (!this.metrics.isEnabled()) {
+            return Collections.emptyList();
+        }
+        final Map<String, String> pids = getKuraServicePids();
+        final List<WireMetrics> result = new ArrayList<>();
+        for (final Entry<String, Map<String, WireCounters>> emitter : this.metrics.getWireCounters().entrySet()) {
+            for (final Entry<String, WireCounters> receiver : emitter.getValue().entrySet()) {
+                final String receiverPid = pids.get(receiver.getKey());
+                if (receiverPid == null) {
+                    continue;
+                }
+                final WireCounters counters = receiver.getValue();
+                result.add(new WireMetrics(emitter.getKey(), receiverPid, counters.envelopes.sum(),
+                        counters.records.sum(), counters.deliveryNanos.sum()));
+            }
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void reset() {
+        this.metrics.reset();
+    }
+
+    /**
+     * Returns the available Wire Components, indexed by the provided service property.
+     */
+    private Map<String, WireComponent> getWireComponents(final String property) {
+        final BundleContext context = FrameworkUtil.getBundle(this.getClass()).getBundleContext();
+        final ServiceReference<?>[] refs = ServiceUtil.getServiceReferences(context, WireComponent.class, null);
+        final Map<String, WireComponent> result = new HashMap<>();
+        try {
+            for (final ServiceReference<?> ref : refs) {
+                result.put(String.valueOf(ref.getProperty(property)), (WireComponent) context.getService(ref));
+            }
+        } finally {
+            ServiceUtil.ungetServiceReferences(context, refs);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the Kura Service PIDs of the available Wire Components, indexed by their Service PIDs.
+     */
+    private Map<String, String> getKuraServicePids() {
+        final BundleContext context = FrameworkUtil.getBundle(this.getClass()).getBundleContext();
+        final ServiceReference<?>[] refs = ServiceUtil.getServiceReferences(context, WireComponent.class, null);
+        final Map<String, String> result = new HashMap<>();
+        for (final ServiceReference<?> ref : refs) {
+            result.put(String.valueOf(ref.getProperty(SERVICE_PID)), String.valueOf(ref.getProperty(KURA_SERVICE_PID)));
+        }
+        return result;
+    }
+
     /** {@inheritDoc} */
     @Override
     public String getPid(final WireComponent wireComponent) {
@@ -161,6 +333,6 @@ public final class WireHelperServiceImpl implements WireHelperService {
     /** {@inheritDoc} */
     @Override
     public WireSupport newWireSupport(final WireComponent wireComponent) {
-        return new WireSupportImpl(wireComponent, this, this.eventAdmin);
+        return new WireSupportImpl(wireComponent, this, this.eventAdmin, this.metrics);
     }
 }
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.helper;
+
+import static java.util.Objects.nonNull;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The Class WireMetricsOptions contains the metrics related options of the {@link WireHelperServiceImpl}.
+ */
+final class WireMetricsOptions {
+
+    private static final String METRICS_ENABLED = "metrics.enabled";
+
+    private static final String METRICS_EVENT_INTERVAL = "metrics.event.interval";
+
+    private static final int DEFAULT_EVENT_INTERVAL = 5;
+
+    private final Map<String, Object> properties;
+
+    WireMetricsOptions(final Map<String, Object> properties) {
+        this.properties = nonNull(properties) ? properties : Collections.emptyMap();
+    }
+
+    /**
+     * Returns whether the metrics collection is enabled.
+     *
+     * @return true if the metrics must be collected
+     */
+    boolean isMetricsEnabled() {
+        final Object enabled = this.properties.get(METRICS_ENABLED);
+        if (nonNull(enabled) && enabled instanceof Boolean) {
+            return (Boolean) enabled;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the interval between two metrics events.
+     *
+     * @return the interval in seconds, 0 if the events are disabled
+     */
+    int getEventInterval() {
+        final Object interval = this.properties.get(METRICS_EVENT_INTERVAL);
+        if (nonNull(interval) && interval instanceof Integer) {
+            return Math.max(0, (Integer) interval);
+        }
+        return DEFAULT_EVENT_INTERVAL;
+    }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.helper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds the counters updated by the {@link WireSupportImpl} instances. The counters are only updated while the
+ * collection is enabled, and are discarded when it is disabled or reset.
+ */
+final class WireMetricsRegistry {
+
+    private final Map<String, ComponentCounters> components = new ConcurrentHashMap<>();
+
+    /** Wire counters, indexed by emitter PID and receiver service PID */
+    private final Map<String, Map<String, WireCounters>> wires = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled;
+
+    boolean isEnabled() {
+        return this.enabled;
+    }
+
+    void setEnabled(final boolean enabled) {
+        if (this.enabled != enabled) {
+            this.enabled = enabled;
+            reset();
+        }
+    }
+
+    void reset() {
+        this.components.clear();
+        this.wires.clear();
+    }
+
+    ComponentCounters getComponentCounters(final String pid) {
+        return this.components.computeIfAbsent(pid, p -> new ComponentCounters());
+    }
+
+    WireCounters getWireCounters(final String emitterPid, final String receiverServicePid) {
+        return this.wires.computeIfAbsent(emitterPid, p -> new ConcurrentHashMap<>())
+                .computeIfAbsent(receiverServicePid, p -> new WireCounters());
+    }
+
+    Map<String, ComponentCounters> getComponentCounters() {
+        return this.components;
+    }
+
+    Map<String, Map<String, WireCounters>> getWireCounters() {
+        return this.wires;
+    }
+
+    static final class ComponentCounters {
+
+        final LongAdder envelopesIn = new LongAdder();
+        final LongAdder recordsIn = new LongAdder();
+        final LongAdder envelopesOut = new LongAdder();
+        final LongAdder recordsOut = new LongAdder();
+        final LongAdder emitBlockedNanos = new LongAdder();
+        final LatencyRecorder receiveTime = new LatencyRecorder();
+    }
+
+    static final class WireCounters {
+
+        final LongAdder envelopes = new LongAdder();
+        final LongAdder records = new LongAdder();
+        final LongAdder deliveryNanos = new LongAdder();
+    }
+}
@@ -14,12 +14,15 @@
 package org.eclipse.kura.internal.wire.helper;
 
 import static java.util.Objects.requireNonNull;
+import static org.osgi.service.wireadmin.WireConstants.WIREADMIN_CONSUMER_PID;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import org.eclipse.kura.internal.wire.helper.WireMetricsRegistry.ComponentCounters;
+import org.eclipse.kura.internal.wire.helper.WireMetricsRegistry.WireCounters;
 import org.eclipse.kura.localization.LocalizationAdapter;
 import org.eclipse.kura.localization.resources.WireMessages;
 import org.eclipse.kura.util.collection.CollectionUtil;
@@ -35,7 +38,8 @@ import org.osgi.service.event.EventAdmin;
 import org.osgi.service.wireadmin.Wire;
 
 /**
- * The Class WireSupportImpl implements {@link WireSupport}
+ * The Class WireSupportImpl implements {@link WireSupport}. If the metrics collection is enabled,
+ * it also updates the counters of its Wire Component and of its outgoing wires.
  */
 final class WireSupportImpl implements WireSupport {
 
@@ -43,10 +47,15 @@ final class WireSupportImpl implements WireSupport {
 
     private final EventAdmin eventAdmin;
 
+    private final WireMetricsRegistry metrics;
+
     private List<Wire> incomingWires;
 
     private List<Wire> outgoingWires;
 
+    /** The service PIDs of the receivers of the outgoing wires, in the same order */
+    private String[] receiverServicePids;
+
     private final WireComponent wireSupporter;
 
     private String emitterPid;
@@ -62,27 +71,37 @@ final class WireSupportImpl implements WireSupport {
      *            the Wire Helper service
      * @param eventAdmin
      *            the Event Admin service
+     * @param metrics
+     *            the registry of the metrics counters
      * @throws NullPointerException
      *             if any of the provided arguments is null
      */
     WireSupportImpl(final WireComponent wireSupporter, final WireHelperService wireHelperService,
-            final EventAdmin eventAdmin) {
+            final EventAdmin eventAdmin, final WireMetricsRegistry metrics) {
         requireNonNull(wireSupporter, message.wireSupportedComponentNonNull());
         requireNonNull(wireHelperService, message.wireHelperServiceNonNull());
         requireNonNull(eventAdmin, message.eventAdminNonNull());
+        requireNonNull(metrics, "Wire Metrics Registry cannot be null");
 
         this.outgoingWires = CollectionUtil.newArrayList();
+        this.receiverServicePids = new String[0];
         this.incomingWires = CollectionUtil.newArrayList();
         this.emitterPid = wireHelperService.getServicePid(wireSupporter);
         this.pid = wireHelperService.getPid(wireSupporter);
         this.wireSupporter = wireSupporter;
         this.eventAdmin = eventAdmin;
+        this.metrics = metrics;
     }
 
     /** {@inheritDoc} */
     @Override
     public synchronized void consumersConnected(final Wire[] wires) {
         this.outgoingWires = Arrays.asList(wires);
+        final String[] servicePids = new String[wires.length];
+        for (int i = 0; i < wires.length; i++) {
+            servicePids[i] = String.valueOf(wires[i].getProperties().get(WIREADMIN_CONSUMER_PID));
+        }
+        this.receiverServicePids = servicePids;
     }
 
     /** {@inheritDoc} */
@@ -91,8 +110,12 @@ final class WireSupportImpl implements WireSupport {
         requireNonNull(wireRecords, message.wireRecordsNonNull());
         if (this.wireSupporter instanceof WireEmitter) {
             final WireEnvelope wei = new WireEnvelope(emitterPid, wireRecords);
-            for (final Wire wire : this.outgoingWires) {
-                wire.update(wei);
+            if (this.metrics.isEnabled() && this.pid != null) {
+                emitMeasured(wei, wireRecords.size());
+            } else {
+                for (final Wire wire : this.outgoingWires) {
+                    wire.update(wei);
+                }
             }
             final Map<String, Object> properties = CollectionUtil.newHashMap();
             properties.put("emitter", pid);
@@ -100,6 +123,25 @@ final class WireSupportImpl implements WireSupport {
         }
     }
 
+    private void emitMeasured(final WireEnvelope wireEnvelope, final int recordCount) {
+        final ComponentCounters counters = this.metrics.getComponentCounters(this.pid);
+        counters.envelopesOut.increment();
+        counters.recordsOut.add(recordCount);
+
+        final long start = System.nanoTime();
+        long wireStart = start;
+        for (int i = 0; i < this.outgoingWires.size(); i++) {
+            this.outgoingWires.get(i).update(wireEnvelope);
+            final long wireEnd = System.nanoTime();
+            final WireCounters wireCounters = this.metrics.getWireCounters(this.pid, this.receiverServicePids[i]);
+            wireCounters.envelopes.increment();
+            wireCounters.records.add(recordCount);
+            wireCounters.deliveryNanos.add(wireEnd - wireStart);
+            wireStart = wireEnd;
+        }
+        counters.emitBlockedNanos.add(wireStart - start);
+    }
+
     /**
      * Gets the incoming wires.
      *
@@ -135,7 +177,20 @@ final class WireSupportImpl implements WireSupport {
     public void updated(final Wire wire, final Object value) {
         requireNonNull(wire, message.wireNonNull());
         if (value instanceof WireEnvelope && this.wireSupporter instanceof WireReceiver) {
-            ((WireReceiver) this.wireSupporter).onWireReceive((WireEnvelope) value);
+            final WireEnvelope wireEnvelope = (WireEnvelope) value;
+            if (!this.metrics.isEnabled() || this.pid == null) {
+                ((WireReceiver) this.wireSupporter).onWireReceive(wireEnvelope);
+                return;
+            }
+            final ComponentCounters counters = this.metrics.getComponentCounters(this.pid);
+            counters.envelopesIn.increment();
+            counters.recordsIn.add(wireEnvelope.getRecords().size());
+            final long start = System.nanoTime();
+            try {
+                ((WireReceiver) this.wireSupporter).onWireReceive(wireEnvelope);
+            } finally {
+                counters.receiveTime.record(System.nanoTime() - start);
+            }
         }
     }
 }
@@ -15,20 +15,27 @@
 package org.eclipse.kura.internal.wire;
 
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.felix.service.command.Descriptor;
 import org.eclipse.kura.KuraException;
 import org.eclipse.kura.wire.WireConfiguration;
 import org.eclipse.kura.wire.WireService;
+import org.eclipse.kura.wire.metrics.LatencyHistogram;
+import org.eclipse.kura.wire.metrics.WireComponentMetrics;
+import org.eclipse.kura.wire.metrics.WireMetrics;
+import org.eclipse.kura.wire.metrics.WireMetricsService;
 
 /**
  * Provides Gogo Shell commands to create, delete Wire Configurations and list
- * the available ones
+ * the available ones, and to show the Wires runtime metrics
  */
 public final class WireServiceCommandProvider {
 
     private volatile WireService wireService;
 
+    private volatile WireMetricsService wireMetricsService;
+
     /**
      * Binds the Wire Service.
      *
@@ -53,6 +60,30 @@ public final class WireServiceCommandProvider {
         }
     }
 
+    /**
+     * Binds the Wire Metrics Service.
+     *
+     * @param wireMetricsService
+     *            the new Wire Metrics Service
+     */
+    public synchronized void bindWireMetricsService(final WireMetricsService wireMetricsService) {
+        if (this.wireMetricsService == null) {
+            this.wireMetricsService = wireMetricsService;
+        }
+    }
+
+    /**
+     * Unbinds the Wire Metrics Service.
+     *
+     * @param wireMetricsService
+     *            the new Wire Metrics Service
+     */
+    public synchronized void unbindWireMetricsService(final WireMetricsService wireMetricsService) {
+        if (this.wireMetricsService == wireMetricsService) {
+            this.wireMetricsService = null;
+        }
+    }
+
     /**
      * The command {@code createWire} creates a Wire Configuration between the
      * provided emitter PID and receiver PID
@@ -104,4 +135,48 @@ public final class WireServiceCommandProvider {
         }
         System.out.println("===========================================================");
     }
+
+    /**
+     * The command {@code wireMetrics} lists the metrics collected for the Wire
+     * Components and for the wires
+     */
+    @Descriptor("List the throughput and latency metrics of the Wire Components and of the wires")
+    public void wireMetrics() {
+        if (!this.wireMetricsService.isEnabled()) {
+            System.out.println("Wire metrics collection is disabled, set metrics.enabled in the "
+                    + "org.eclipse.kura.wire.WireHelperService configuration to enable it");
+            return;
+        }
+        System.out.println("===================== Wire Components =====================");
+        System.out.format("%-24s %10s %10s %10s %10s %10s %10s %10s %10s %8s%n", "PID", "Env In", "Rec In",
+                "Env Out", "Rec Out", "Mean(us)", "P99(us)", "Max(us)", "Emit(ms)", "Queue");
+        for (final WireComponentMetrics metrics : this.wireMetricsService.getComponentMetrics()) {
+            final LatencyHistogram receiveTime = metrics.getReceiveTime();
+            System.out.format("%-24s %10d %10d %10d %10d %10d %10d %10d %10d %8s%n", metrics.getPid(),
+                    metrics.getEnvelopesIn(), metrics.getRecordsIn(), metrics.getEnvelopesOut(),
+                    metrics.getRecordsOut(), TimeUnit.NANOSECONDS.toMicros(receiveTime.getMeanNanos()),
+                    TimeUnit.NANOSECONDS.toMicros(receiveTime.getPercentileNanos(99)),
+                    TimeUnit.NANOSECONDS.toMicros(receiveTime.getMaxNanos()),
+                    TimeUnit.NANOSECONDS.toMillis(metrics.getEmitBlockedNanos()),
+                    metrics.getQueueDepth() == WireComponentMetrics.QUEUE_DEPTH_UNAVAILABLE ? "-"
+                            : String.valueOf(metrics.getQueueDepth()));
+        }
+        System.out.println("========================== Wires ==========================");
+        System.out.format("%-24s %-24s %10s %10s %12s%n", "Emitter PID", "Receiver PID", "Envelopes", "Records",
+                "Delivery(ms)");
+        for (final WireMetrics metrics : this.wireMetricsService.getWireMetrics()) {
+            System.out.format("%-24s %-24s %10d %10d %12d%n", metrics.getEmitterPid(), metrics.getReceiverPid(),
+                    metrics.getEnvelopes(), metrics.getRecords(),
+                    TimeUnit.NANOSECONDS.toMillis(metrics.getDeliveryNanos()));
+        }
+        System.out.println("===========================================================");
+    }
+
+    /**
+     * The command {@code resetWireMetrics} resets the collected metrics
+     */
+    @Descriptor("Reset the collected Wire metrics")
+    public void resetWireMetrics() {
+        this.wireMetricsService.reset();
+    }
 }
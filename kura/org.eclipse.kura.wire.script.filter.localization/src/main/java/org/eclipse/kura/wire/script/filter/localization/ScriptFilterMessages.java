@@ -43,6 +43,18 @@ public interface ScriptFilterMessages {
     @En("Failed to execute script")
     public String errorExecutingScript();
 
+    @En("Script execution did not complete in {0} ms, replacing the script engine")
+    public String errorScriptTimeout(long timeout);
+
+    @En("Script not compiled, dropping {0} envelopes")
+    public String errorScriptNotCompiled(int count);
+
+    @En("No script engine available, the scripts did not terminate, dropping {0} envelopes")
+    public String errorNoScriptRunnerAvailable(int count);
+
+    @En("Script Filter statistics: {0}")
+    public String statistics(String statistics);
+
     @En("Added object cannot be null")
     public String errorNonNull();
 
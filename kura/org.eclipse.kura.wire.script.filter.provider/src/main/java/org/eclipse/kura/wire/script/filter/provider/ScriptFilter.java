@@ -9,23 +9,27 @@
  *******************************************************************************/
 package org.eclipse.kura.wire.script.filter.provider;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.function.Supplier;
-
-import javax.script.Bindings;
-import javax.script.Compilable;
-import javax.script.CompiledScript;
-import javax.script.ScriptContext;
-import javax.script.ScriptEngine;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import javax.script.ScriptException;
 
 import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.configuration.ConfigurationService;
 import org.eclipse.kura.localization.LocalizationAdapter;
-import org.eclipse.kura.type.DataType;
-import org.eclipse.kura.type.TypedValue;
-import org.eclipse.kura.type.TypedValues;
 import org.eclipse.kura.wire.WireEmitter;
 import org.eclipse.kura.wire.WireEnvelope;
 import org.eclipse.kura.wire.WireHelperService;
@@ -38,8 +42,22 @@ import org.osgi.service.wireadmin.Wire;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import jdk.nashorn.api.scripting.NashornScriptEngineFactory;
-
+/**
+ * A wire component that runs a JavaScript script on the received envelopes.
+ * <p>
+ * The filter keeps a pool of {@link ScriptRunner}s, each one with its own engine, compiled script and bindings.
+ * With a pool size of 1 the envelopes are processed one at a time and the global variables defined by the script
+ * are retained across invocations; with a larger pool, envelopes received concurrently are processed in parallel
+ * and the state that must be shared across invocations should be kept in the thread safe {@code state} map.
+ * <p>
+ * Received envelopes are queued and every invocation processes up to {@code batch.size} of them, exposed to the
+ * script as {@code inputs}. If an execution timeout is configured, an invocation that does not complete in time is
+ * abandoned and its runner is replaced by a new one. Since the engine cannot be interrupted, the thread of an
+ * abandoned invocation stays busy until the script terminates: at most {@code pool.size} runners can be abandoned at
+ * the same time, further timed out runners are not replaced until an abandoned one terminates. The envelopes that
+ * cannot be processed, because the script did not compile or because no runner becomes available, are dropped and
+ * counted in the statistics.
+ */
 public class ScriptFilter implements WireEmitter, WireReceiver, ConfigurableComponent {
 
     private static final Logger logger = LoggerFactory.getLogger(ScriptFilter.class);
@@ -47,15 +65,35 @@ public class ScriptFilter implements WireEmitter, WireReceiver, ConfigurableComp
 
     private static final String SCRIPT_PROPERTY_KEY = "script";
     private static final String SCRIPT_CONTEXT_DROP_PROPERTY_KEY = "script.context.drop";
-
-    private CompiledScript script;
-    private Bindings bindings;
+    private static final String POOL_SIZE_PROPERTY_KEY = "pool.size";
+    private static final String BATCH_SIZE_PROPERTY_KEY = "batch.size";
+    private static final String EXECUTION_TIMEOUT_PROPERTY_KEY = "execution.timeout";
+
+    private static final int RUNNING = 0;
+    private static final int TERMINATED = 1;
+    private static final int ABANDONED = 2;
+
+    private static final long ACQUIRE_POLL_INTERVAL = 100;
+
+    private final BlockingQueue<ScriptRunner> runners = new LinkedBlockingQueue<>();
+    private final Object runnersLock = new Object();
+    private final Queue<WireEnvelope> pendingEnvelopes = new ConcurrentLinkedQueue<>();
+    private final ScriptFilterStatistics statistics = new ScriptFilterStatistics();
+
+    private volatile Map<String, Object> state = new ConcurrentHashMap<>();
+    private volatile int poolSize;
+    /** The runners that are in the pool or in use, guarded by runnersLock. */
+    private int liveRunners;
+    /** The runners whose script did not terminate in time and is still running, guarded by runnersLock. */
+    private int abandonedRunners;
+    private volatile String scriptSource;
+    private volatile int batchSize = 1;
+    private volatile long executionTimeout;
+    private ExecutorService executor;
 
     private volatile WireHelperService wireHelperService;
     private WireSupport wireSupport;
 
-    private ScriptEngine scriptEngine;
-
     public void bindWireHelperService(final WireHelperService wireHelperService) {
         if (this.wireHelperService == null) {
             this.wireHelperService = wireHelperService;
@@ -72,16 +110,26 @@ public class ScriptFilter implements WireEmitter, WireReceiver, ConfigurableComp
         logger.info(message.activating());
         this.wireSupport = this.wireHelperService.newWireSupport(this);
 
-        this.scriptEngine = createEngine();
-        this.bindings = createBindings();
+        final String threadName = properties.getOrDefault(ConfigurationService.KURA_SERVICE_PID, "ScriptFilter")
+                + "-ScriptThread";
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
 
         updated(properties);
 
         logger.info(message.activatingDone());
     }
 
-    public void deactivate() {
+    public synchronized void deactivate() {
         logger.info(message.deactivating());
+        logger.info(message.statistics(this.statistics.toString()));
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
         logger.info(message.deactivatingDone());
     }
 
@@ -95,100 +143,252 @@ public class ScriptFilter implements WireEmitter, WireReceiver, ConfigurableComp
             return;
         }
 
-        this.script = null;
+        final int newPoolSize = Math.max(1, (Integer) properties.getOrDefault(POOL_SIZE_PROPERTY_KEY, 1));
+        final boolean dropContext = (Boolean) properties.getOrDefault(SCRIPT_CONTEXT_DROP_PROPERTY_KEY, false);
+
+        // wait for the running invocations, the runners cannot be modified while in use
+        final List<ScriptRunner> currentRunners = acquireRunners();
+        if (dropContext) {
+            this.state = new ConcurrentHashMap<>();
+            for (final ScriptRunner runner : currentRunners) {
+                runner.resetBindings(this.state);
+            }
+        }
+        while (currentRunners.size() > newPoolSize) {
+            currentRunners.remove(currentRunners.size() - 1);
+        }
+        while (currentRunners.size() < newPoolSize) {
+            currentRunners.add(new ScriptRunner(this.state));
+        }
+
         try {
-            this.script = ((Compilable) this.scriptEngine).compile(scriptSource);
+            for (final ScriptRunner runner : currentRunners) {
+                runner.compile(scriptSource);
+            }
         } catch (ScriptException e) {
             logger.warn(message.errorScriptCompileFalied(), e);
         }
 
-        if (this.bindings == null || (Boolean) properties.getOrDefault(SCRIPT_CONTEXT_DROP_PROPERTY_KEY, false)) {
-            this.bindings = createBindings();
+        this.scriptSource = scriptSource;
+        this.poolSize = newPoolSize;
+        this.batchSize = Math.max(1, (Integer) properties.getOrDefault(BATCH_SIZE_PROPERTY_KEY, 1));
+        this.executionTimeout = Math.max(0, (Integer) properties.getOrDefault(EXECUTION_TIMEOUT_PROPERTY_KEY, 0));
+        synchronized (this.runnersLock) {
+            this.liveRunners = currentRunners.size();
         }
+        this.runners.addAll(currentRunners);
 
+        logger.info(message.statistics(this.statistics.toString()));
         logger.info(message.updatingDone());
     }
 
     @Override
-    public synchronized void onWireReceive(WireEnvelope wireEnvelope) {
-        if (this.script == null) {
+    public void onWireReceive(WireEnvelope wireEnvelope) {
+        if (this.scriptSource == null) {
             logger.warn(message.errorScriptCompileFalied());
             return;
         }
+        this.pendingEnvelopes.add(wireEnvelope);
 
+        final ScriptRunner runner;
         try {
-            final WireEnvelopeWrapper inputEnvelopeWrapper = new WireEnvelopeWrapper(
-                    new WireRecordListWrapper(wireEnvelope.getRecords()), wireEnvelope.getEmitterPid());
-            final OutputWireRecordListWrapper outputEnvelopeWrapper = new OutputWireRecordListWrapper();
-
-            this.bindings.put("input", inputEnvelopeWrapper);
-            this.bindings.put("output", outputEnvelopeWrapper);
+            runner = acquireRunner();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (runner == null) {
+            final int dropped = dropPendingEnvelopes();
+            if (dropped > 0) {
+                logger.warn(message.errorNoScriptRunnerAvailable(dropped));
+            }
+            return;
+        }
 
-            this.script.eval(this.bindings);
+        ScriptRunner releasedRunner = runner;
+        try {
+            // the envelope might have been processed by another thread in the meantime
+            final List<WireEnvelope> batch = drainPendingEnvelopes();
+            if (batch.isEmpty()) {
+                return;
+            }
+            if (!runner.isCompiled()) {
+                this.statistics.dropped(batch.size());
+                logger.warn(message.errorScriptNotCompiled(batch.size()));
+                return;
+            }
 
-            final List<WireRecord> result = outputEnvelopeWrapper.getRecords();
+            final long start = System.nanoTime();
+            final List<WireRecord> result = execute(runner, batch);
+            final long elapsed = System.nanoTime() - start;
+            this.statistics.executed(batch.size(), elapsed);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Script executed on {} envelopes in {} us", batch.size(),
+                        TimeUnit.NANOSECONDS.toMicros(elapsed));
+            }
 
             if (result != null) {
                 this.wireSupport.emit(result);
             }
+        } catch (TimeoutException e) {
+            this.statistics.timedOut();
+            logger.warn(message.errorScriptTimeout(this.executionTimeout));
+            releasedRunner = replaceAbandonedRunner();
         } catch (Exception e) {
+            this.statistics.failed();
             logger.warn(message.errorExecutingScript(), e);
+        } finally {
+            if (releasedRunner != null) {
+                this.runners.add(releasedRunner);
+            }
         }
     }
 
-    private ScriptEngine createEngine() {
-        NashornScriptEngineFactory factory = new NashornScriptEngineFactory();
-        ScriptEngine scriptEngine = factory.getScriptEngine(className -> false);
+    ScriptFilterStatistics getStatistics() {
+        return this.statistics;
+    }
 
-        if (scriptEngine == null) {
-            throw new IllegalStateException(message.errorGettingScriptEngine());
+    /**
+     * Waits for a runner. If an execution timeout is configured, gives up after twice the timeout: by then every
+     * running invocation has either completed or been abandoned, so no runner is available only if the maximum
+     * number of runners has been abandoned.
+     *
+     * @return the runner, or null if none became available
+     */
+    private ScriptRunner acquireRunner() throws InterruptedException {
+        final long timeout = this.executionTimeout;
+        if (timeout <= 0) {
+            return this.runners.take();
         }
+        return this.runners.poll(2 * timeout, TimeUnit.MILLISECONDS);
+    }
 
-        final Bindings engineScopeBindings = scriptEngine.getBindings(ScriptContext.ENGINE_SCOPE);
-        if (engineScopeBindings != null) {
-            engineScopeBindings.remove("exit");
-            engineScopeBindings.remove("quit");
+    /**
+     * Acquires all the live runners, the number of live runners decreases if a runner in use is abandoned and not
+     * replaced.
+     */
+    private List<ScriptRunner> acquireRunners() {
+        final List<ScriptRunner> acquired = new ArrayList<>();
+        boolean interrupted = false;
+        while (acquired.size() < getLiveRunners()) {
+            try {
+                final ScriptRunner runner = this.runners.poll(ACQUIRE_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (runner != null) {
+                    acquired.add(runner);
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
         }
-
-        final Bindings globalScopeBindings = scriptEngine.getBindings(ScriptContext.GLOBAL_SCOPE);
-        if (globalScopeBindings != null) {
-            globalScopeBindings.remove("exit");
-            globalScopeBindings.remove("quit");
+        if (interrupted) {
+            Thread.currentThread().interrupt();
         }
+        return acquired;
+    }
 
-        return scriptEngine;
+    private int getLiveRunners() {
+        synchronized (this.runnersLock) {
+            return this.liveRunners;
+        }
     }
 
-    private Bindings createBindings() {
-        Bindings bindings = this.scriptEngine.createBindings();
+    int getAbandonedRunners() {
+        synchronized (this.runnersLock) {
+            return this.abandonedRunners;
+        }
+    }
 
-        bindings.put("logger", logger);
+    private int dropPendingEnvelopes() {
+        int dropped = 0;
+        while (this.pendingEnvelopes.poll() != null) {
+            dropped++;
+        }
+        this.statistics.dropped(dropped);
+        return dropped;
+    }
 
-        bindings.put("newWireRecord", (Supplier<WireRecordWrapper>) WireRecordWrapper::new);
+    private List<WireEnvelope> drainPendingEnvelopes() {
+        final int maxSize = this.batchSize;
+        final List<WireEnvelope> batch = new ArrayList<>(Math.min(maxSize, 16));
+        WireEnvelope envelope;
+        while (batch.size() < maxSize && (envelope = this.pendingEnvelopes.poll()) != null) {
+            batch.add(envelope);
+        }
+        return batch;
+    }
 
-        bindings.put("newBooleanValue", (Function<Boolean, TypedValue<?>>) TypedValues::newBooleanValue);
-        bindings.put("newByteArrayValue", (Function<byte[], TypedValue<?>>) TypedValues::newByteArrayValue);
-        bindings.put("newDoubleValue",
-                (Function<Number, TypedValue<?>>) num -> TypedValues.newDoubleValue(num.doubleValue()));
-        bindings.put("newFloatValue",
-                (Function<Number, TypedValue<?>>) num -> TypedValues.newFloatValue(num.floatValue()));
-        bindings.put("newIntegerValue",
-                (Function<Number, TypedValue<?>>) num -> TypedValues.newIntegerValue(num.intValue()));
-        bindings.put("newLongValue",
-                (Function<Number, TypedValue<?>>) num -> TypedValues.newLongValue(num.longValue()));
-        bindings.put("newStringValue",
-                (Function<Object, TypedValue<?>>) obj -> TypedValues.newStringValue(obj.toString()));
+    private List<WireRecord> execute(final ScriptRunner runner, final List<WireEnvelope> batch)
+            throws ScriptException, InterruptedException, ExecutionException, TimeoutException {
+        final long timeout = this.executionTimeout;
+        final ExecutorService currentExecutor = this.executor;
+        if (timeout <= 0 || currentExecutor == null) {
+            return runner.run(batch);
+        }
 
-        bindings.put("newByteArray", (Function<Integer, byte[]>) size -> new byte[size]);
+        final AtomicInteger invocationState = new AtomicInteger(RUNNING);
+        final Future<List<WireRecord>> future = currentExecutor.submit(() -> {
+            try {
+                return runner.run(batch);
+            } finally {
+                if (!invocationState.compareAndSet(RUNNING, TERMINATED)) {
+                    abandonedRunnerTerminated();
+                }
+            }
+        });
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (!invocationState.compareAndSet(RUNNING, ABANDONED)) {
+                // terminated in the meantime
+                return future.get();
+            }
+            // the engine does not check the interrupt flag, a script that never terminates keeps the thread busy
+            future.cancel(true);
+            throw e;
+        }
+    }
 
-        for (DataType type : DataType.values()) {
-            bindings.put(type.name(), type);
+    /**
+     * Returns the runner that replaces one whose script did not terminate, or null if the maximum number of
+     * runners is already abandoned, in which case the pool shrinks until an abandoned runner terminates.
+     */
+    private ScriptRunner replaceAbandonedRunner() {
+        synchronized (this.runnersLock) {
+            this.abandonedRunners++;
+            if (this.abandonedRunners > this.poolSize) {
+                this.liveRunners--;
+                return null;
+            }
         }
+        return createRunner();
+    }
 
-        bindings.remove("exit");
-        bindings.remove("quit");
+    /**
+     * Invoked on the script thread when an abandoned invocation terminates, restores the pool size if it shrunk.
+     */
+    private void abandonedRunnerTerminated() {
+        synchronized (this.runnersLock) {
+            this.abandonedRunners--;
+            if (this.liveRunners >= this.poolSize) {
+                return;
+            }
+            this.liveRunners++;
+        }
+        this.runners.add(createRunner());
+    }
 
-        return bindings;
+    /**
+     * Creates a runner that replaces one whose script did not terminate, the global variables of the replaced
+     * runner are lost.
+     */
+    private ScriptRunner createRunner() {
+        final ScriptRunner runner = new ScriptRunner(this.state);
+        try {
+            runner.compile(this.scriptSource);
+        } catch (ScriptException e) {
+            logger.warn(message.errorScriptCompileFalied(), e);
+        }
+        return runner;
     }
 
     @Override
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.wire.script.filter.provider;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution time statistics of a {@link ScriptFilter}, safe for concurrent updates.
+ */
+class ScriptFilterStatistics {
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder envelopes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder droppedEnvelopes = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void executed(final int envelopeCount, final long nanos) {
+        this.executions.increment();
+        this.envelopes.add(envelopeCount);
+        this.totalNanos.add(nanos);
+        this.maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void failed() {
+        this.failures.increment();
+    }
+
+    void timedOut() {
+        this.timeouts.increment();
+    }
+
+    void dropped(final int envelopeCount) {
+        this.droppedEnvelopes.add(envelopeCount);
+    }
+
+    long getExecutions() {
+        return this.executions.sum();
+    }
+
+    long getEnvelopes() {
+        return this.envelopes.sum();
+    }
+
+    long getFailures() {
+        return this.failures.sum();
+    }
+
+    long getTimeouts() {
+        return this.timeouts.sum();
+    }
+
+    long getDroppedEnvelopes() {
+        return this.droppedEnvelopes.sum();
+    }
+
+    long getMeanExecutionTimeMicros() {
+        final long count = getExecutions();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(this.totalNanos.sum() / count);
+    }
+
+    long getMaxExecutionTimeMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(this.maxNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "executions=" + getExecutions() + ", envelopes=" + getEnvelopes() + ", failures=" + getFailures()
+                + ", timeouts=" + getTimeouts() + ", dropped=" + getDroppedEnvelopes() + ", mean=" + getMeanExecutionTimeMicros() + "us, max="
+                + getMaxExecutionTimeMicros() + "us";
+    }
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.wire.script.filter.provider;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+import org.eclipse.kura.localization.LocalizationAdapter;
+import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.script.filter.localization.ScriptFilterMessages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jdk.nashorn.api.scripting.NashornScriptEngineFactory;
+
+/**
+ * A script engine together with its compiled copy of the filter script and its bindings. A runner must be used by a
+ * single thread at a time, the {@link ScriptFilter} keeps a pool of them.
+ */
+class ScriptRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScriptFilter.class);
+    private static final ScriptFilterMessages message = LocalizationAdapter.adapt(ScriptFilterMessages.class);
+
+    private final ScriptEngine scriptEngine;
+
+    private Bindings bindings;
+    private CompiledScript script;
+
+    ScriptRunner(final Map<String, Object> state) {
+        this.scriptEngine = createEngine();
+        resetBindings(state);
+    }
+
+    /**
+     * Compiles the provided source, if compilation fails the runner is left without a script.
+     */
+    void compile(final String scriptSource) throws ScriptException {
+        this.script = null;
+        this.script = ((Compilable) this.scriptEngine).compile(scriptSource);
+    }
+
+    boolean isCompiled() {
+        return this.script != null;
+    }
+
+    /**
+     * Drops the global variables defined by previous executions.
+     *
+     * @param state
+     *            the thread safe store shared by the runners of the filter, exposed to the script as {@code state}
+     */
+    void resetBindings(final Map<String, Object> state) {
+        this.bindings = createBindings(state);
+    }
+
+    /**
+     * Executes the script once for the provided envelopes. The first envelope is exposed as {@code input}, all the
+     * envelopes are exposed as {@code inputs}.
+     *
+     * @return the records added to {@code output}, or null if no record has been added
+     */
+    List<WireRecord> run(final List<WireEnvelope> envelopes) throws ScriptException {
+        final OutputWireRecordListWrapper outputEnvelopeWrapper = new OutputWireRecordListWrapper();
+
+        this.bindings.put("input", WireEnvelopeListWrapper.wrap(envelopes.get(0)));
+        this.bindings.put("inputs", new WireEnvelopeListWrapper(envelopes));
+        this.bindings.put("output", outputEnvelopeWrapper);
+
+        this.script.eval(this.bindings);
+
+        return outputEnvelopeWrapper.getRecords();
+    }
+
+    private ScriptEngine createEngine() {
+        NashornScriptEngineFactory factory = new NashornScriptEngineFactory();
+        ScriptEngine scriptEngine = factory.getScriptEngine(className -> false);
+
+        if (scriptEngine == null) {
+            throw new IllegalStateException(message.errorGettingScriptEngine());
+        }
+
+        final Bindings engineScopeBindings = scriptEngine.getBindings(ScriptContext.ENGINE_SCOPE);
+        if (engineScopeBindings != null) {
+            engineScopeBindings.remove("exit");
+            engineScopeBindings.remove("quit");
+        }
+
+        final Bindings globalScopeBindings = scriptEngine.getBindings(ScriptContext.GLOBAL_SCOPE);
+        if (globalScopeBindings != null) {
+            globalScopeBindings.remove("exit");
+            globalScopeBindings.remove("quit");
+        }
+
+        return scriptEngine;
+    }
+
+    private Bindings createBindings(final Map<String, Object> state) {
+        Bindings bindings = this.scriptEngine.createBindings();
+
+        bindings.put("logger", logger);
+        bindings.put("state", state);
+
+        bindings.put("newWireRecord", (Supplier<WireRecordWrapper>) WireRecordWrapper::new);
+
+        bindings.put("newBooleanValue", (Function<Boolean, TypedValue<?>>) TypedValues::newBooleanValue);
+        bindings.put("newByteArrayValue", (Function<byte[], TypedValue<?>>) TypedValues::newByteArrayValue);
+        bindings.put("newDoubleValue",
+                (Function<Number, TypedValue<?>>) num -> TypedValues.newDoubleValue(num.doubleValue()));
+        bindings.put("newFloatValue",
+                (Function<Number, TypedValue<?>>) num -> TypedValues.newFloatValue(num.floatValue()));
+        bindings.put("newIntegerValue",
+                (Function<Number, TypedValue<?>>) num -> TypedValues.newIntegerValue(num.intValue()));
+        bindings.put("newLongValue",
+                (Function<Number, TypedValue<?>>) num -> TypedValues.newLongValue(num.longValue()));
+        bindings.put("newStringValue",
+                (Function<Object, TypedValue<?>>) obj -> TypedValues.newStringValue(obj.toString()));
+
+        bindings.put("newByteArray", (Function<Integer, byte[]>) size -> new byte[size]);
+
+        for (DataType type : DataType.values()) {
+            bindings.put(type.name(), type);
+        }
+
+        bindings.remove("exit");
+        bindings.remove("quit");
+
+        return bindings;
+    }
+}
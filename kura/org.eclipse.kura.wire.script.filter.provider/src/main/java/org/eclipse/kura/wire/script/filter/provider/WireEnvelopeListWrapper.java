@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ *******************************************************************************/
+package org.eclipse.kura.wire.script.filter.provider;
+
+import java.util.List;
+
+import org.eclipse.kura.localization.LocalizationAdapter;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.script.filter.localization.ScriptFilterMessages;
+
+import jdk.nashorn.api.scripting.AbstractJSObject;
+
+class WireEnvelopeListWrapper extends AbstractJSObject {
+
+    private static final ScriptFilterMessages messages = LocalizationAdapter.adapt(ScriptFilterMessages.class);
+
+    private static final String LENGTH_PROP_NAME = "length";
+    private final List<WireEnvelope> envelopes;
+
+    WireEnvelopeListWrapper(List<WireEnvelope> envelopes) {
+        this.envelopes = envelopes;
+    }
+
+    static WireEnvelopeWrapper wrap(WireEnvelope envelope) {
+        return new WireEnvelopeWrapper(new WireRecordListWrapper(envelope.getRecords()), envelope.getEmitterPid());
+    }
+
+    @Override
+    public boolean isArray() {
+        return true;
+    }
+
+    @Override
+    public boolean hasMember(String name) {
+        return LENGTH_PROP_NAME.equals(name);
+    }
+
+    @Override
+    public Object getMember(String name) {
+        if (LENGTH_PROP_NAME.equals(name)) {
+            return this.envelopes.size();
+        }
+        return null;
+    }
+
+    @Override
+    public boolean hasSlot(int slot) {
+        return slot >= 0 && slot < this.envelopes.size();
+    }
+
+    @Override
+    public Object getSlot(int index) {
+        if (!hasSlot(index)) {
+            return null;
+        }
+        return wrap(this.envelopes.get(index));
+    }
+
+    @Override
+    public void setMember(String name, Object value) {
+        throw new UnsupportedOperationException(messages.errorObjectImmutable());
+    }
+
+    @Override
+    public void setSlot(int index, Object value) {
+        throw new UnsupportedOperationException(messages.errorObjectImmutable());
+    }
+
+    @Override
+    public void removeMember(String name) {
+        throw new UnsupportedOperationException(messages.errorObjectImmutable());
+    }
+}
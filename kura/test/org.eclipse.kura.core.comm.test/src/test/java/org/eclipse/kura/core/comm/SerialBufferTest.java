@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.kura.core.comm;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class SerialBufferTest {
+
+    @Test
+    public void testReadUntilDelimiter() throws IOException {
+        SerialBuffer buffer = new SerialBuffer(16);
+        write(buffer, "OK\r\nERR");
+
+        assertArrayEquals("OK\r\n".getBytes(), buffer.readUntil((byte) '\n', 100, TimeUnit.MILLISECONDS));
+        assertNull(buffer.readUntil((byte) '\n', 10, TimeUnit.MILLISECONDS));
+        assertEquals(3, buffer.available());
+    }
+
+    @Test
+    public void testReadUntilDelimiterAcrossWrites() throws Exception {
+        SerialBuffer buffer = new SerialBuffer(16);
+        writeLater(buffer, 50, "+CSQ: 1", "7,99\r\n");
+
+        assertArrayEquals("+CSQ: 17,99\r\n".getBytes(), buffer.readUntil((byte) '\n', 1000, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testReadLength() throws Exception {
+        SerialBuffer buffer = new SerialBuffer(16);
+        writeLater(buffer, 20, "abc", "def");
+
+        assertArrayEquals("abcd".getBytes(), buffer.readLength(4, 1000, TimeUnit.MILLISECONDS));
+        assertNull(buffer.readLength(4, 100, TimeUnit.MILLISECONDS));
+        assertArrayEquals("ef".getBytes(), buffer.drain());
+    }
+
+    @Test
+    public void testReadUntilIdle() throws Exception {
+        SerialBuffer buffer = new SerialBuffer(16);
+        writeLater(buffer, 20, "ab", "cd");
+
+        assertArrayEquals("abcd".getBytes(), buffer.readUntilIdle(1000, 200, TimeUnit.MILLISECONDS));
+        assertNull(buffer.readUntilIdle(20, 200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testReadAvailableTimeout() throws IOException {
+        SerialBuffer buffer = new SerialBuffer(16);
+
+        long start = System.nanoTime();
+        assertNull(buffer.readAvailable(50, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void testOverflowDropsOldest() throws IOException {
+        SerialBuffer buffer = new SerialBuffer(4);
+        write(buffer, "abc");
+        write(buffer, "def");
+
+        assertEquals(2, buffer.getDroppedCount());
+        assertArrayEquals("cdef".getBytes(), buffer.drain());
+    }
+
+    @Test
+    public void testInputStream() throws IOException {
+        SerialBuffer buffer = new SerialBuffer(16);
+        InputStream in = buffer.newInputStream(20);
+        byte[] b = new byte[8];
+
+        assertEquals(0, in.read(b));
+        assertEquals(-1, in.read());
+        write(buffer, "xyz");
+        assertEquals(3, in.available());
+        assertEquals(3, in.read(b));
+        buffer.close();
+        assertEquals(-1, in.read(b));
+    }
+
+    @Test
+    public void testReader() throws Exception {
+        SerialBuffer buffer = new SerialBuffer(64);
+        PipedOutputStream port = new PipedOutputStream();
+        SerialReader reader = new SerialReader("test", new PipedInputStream(port), buffer);
+        List<String> chunks = new ArrayList<>();
+        CountDownLatch received = new CountDownLatch(1);
+        reader.addListener(data -> {
+            synchronized (chunks) {
+                chunks.add(new String(data));
+            }
+            received.countDown();
+        });
+        reader.start();
+
+        port.write("$GPGGA,1*00\r\n".getBytes());
+        port.flush();
+
+        assertArrayEquals("$GPGGA,1*00\r\n".getBytes(), buffer.readUntil((byte) '\n', 1000, TimeUnit.MILLISECONDS));
+        assertTrue(received.await(1, TimeUnit.SECONDS));
+        synchronized (chunks) {
+            assertEquals("$GPGGA,1*00\r\n", String.join("", chunks));
+        }
+
+        port.close();
+        reader.stop(1000);
+        assertTrue(buffer.isClosed());
+    }
+
+    private static void write(SerialBuffer buffer, String data) {
+        byte[] bytes = data.getBytes();
+        buffer.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeLater(SerialBuffer buffer, long delayMillis, String... chunks) {
+        Thread writer = new Thread(() -> {
+            try {
+                for (String chunk : chunks) {
+                    Thread.sleep(delayMillis);
+                    write(buffer, chunk);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        writer.setDaemon(true);
+        writer.start();
+    }
+}
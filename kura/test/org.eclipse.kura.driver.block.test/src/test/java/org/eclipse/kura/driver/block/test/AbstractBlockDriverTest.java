@@ -14,14 +14,22 @@ package org.eclipse.kura.driver.block.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.eclipse.kura.KuraException;
@@ -29,7 +37,9 @@ import org.eclipse.kura.channel.ChannelFlag;
 import org.eclipse.kura.channel.ChannelRecord;
 import org.eclipse.kura.driver.ChannelDescriptor;
 import org.eclipse.kura.driver.Driver.ConnectionException;
+import org.eclipse.kura.driver.PreparedRead;
 import org.eclipse.kura.driver.binary.Buffer;
+import org.eclipse.kura.driver.block.BlockCostModel;
 import org.eclipse.kura.driver.block.BlockFactory;
 import org.eclipse.kura.driver.block.ProhibitedBlock;
 import org.eclipse.kura.driver.block.task.AbstractBlockDriver;
@@ -84,6 +94,65 @@ public class AbstractBlockDriverTest {
         }
     }
 
+    @Test
+    public void shouldNotBridgeGapsOnWrite() throws ConnectionException {
+        // a cost model that makes reading the gap convenient
+        final BlockCostModel costModel = new BlockCostModel(100, 1);
+        final List<BlockTask> aggregated = new ArrayList<>();
+
+        List<Pair<Integer, BlockTask>> readTasks = testTasks(1, Mode.READ, 0, 2, 10, 12);
+        TestDriver driver = new TestDriver().withTasks(readTasks).withCostModel(costModel)
+                .withBlockFactoryProvider((domain, mode) -> noopFactory(mode)).afterAggregation(aggregated::addAll);
+        driver.read(getRecords(readTasks));
+        assertEquals(1, aggregated.size());
+
+        aggregated.clear();
+        List<Pair<Integer, BlockTask>> writeTasks = testTasks(1, Mode.WRITE, 0, 2, 10, 12);
+        List<ChannelRecord> records = getRecords(writeTasks);
+        driver.withTasks(writeTasks).write(records);
+        assertEquals(2, aggregated.size());
+        assertEquals(0, aggregated.get(0).getStart());
+        assertEquals(2, aggregated.get(0).getEnd());
+        assertEquals(10, aggregated.get(1).getStart());
+        assertEquals(12, aggregated.get(1).getEnd());
+        for (ChannelRecord record : records) {
+            assertEquals(true, record.getValue().getValue());
+        }
+    }
+
+    @Test
+    public void shouldFailOnlyTheChannelsLargerThanMaximumBlockSize() throws ConnectionException {
+        final BlockCostModel costModel = new BlockCostModel(20, 1, 125, 1);
+        final List<BlockTask> aggregated = new ArrayList<>();
+
+        List<Pair<Integer, BlockTask>> tasks = testTasks(1, Mode.READ, 0, 2, 2, 200, 200, 202);
+        tasks.addAll(testTasks(2, Mode.READ, 0, 2));
+        List<ChannelRecord> records = getRecords(tasks);
+        // the device rejects the requests larger than the maximum block size
+        TestDriver driver = new TestDriver().withTasks(tasks).withCostModel(costModel)
+                .withBlockFactoryProvider((domain, mode) -> (start, end) -> new ToplevelBlockTask(start, end, mode) {
+
+                    @Override
+                    public void processBuffer() throws IOException {
+                        if (end - start > 125) {
+                            throw new IOException("Request too large");
+                        }
+                    }
+
+                    @Override
+                    public Buffer getBuffer() {
+                        return null;
+                    }
+                }).afterAggregation(aggregated::addAll);
+        driver.read(records);
+
+        assertEquals(4, aggregated.size());
+        assertEquals(ChannelFlag.FAILURE, records.get(1).getChannelStatus().getChannelFlag());
+        for (int i : new int[] { 0, 2, 3 }) {
+            assertEquals(true, records.get(i).getValue().getValue());
+        }
+    }
+
     @Test
     public void shouldReportUnfeasibleProblemOnRead() throws ConnectionException {
         List<Pair<Integer, BlockTask>> tasks = testTasks(1, Mode.READ, 0, 4, 4, 6);
@@ -186,6 +255,188 @@ public class AbstractBlockDriverTest {
         }
     }
 
+    @Test
+    public void shouldCacheReadPlans() throws ConnectionException {
+        final AtomicInteger conversions = new AtomicInteger();
+        TestBlockFactory factory = new TestBlockFactory(Mode.READ, 0, 6);
+        TestDriver driver = new TestDriver().withTaskMapper(records -> {
+            conversions.incrementAndGet();
+            return IntStream.range(0, records.size())
+                    .mapToObj(i -> new Pair<>(1, new TestTask(records.get(i), i * 2, i * 2 + 2, Mode.READ)));
+        }).withBlockFactoryProvider((domain, mode) -> factory);
+
+        for (int i = 0; i < 3; i++) {
+            List<ChannelRecord> records = readRecords("ch1", "ch2", "ch3");
+            driver.read(records);
+            for (ChannelRecord record : records) {
+                assertNotNull(record.getValue());
+                assertEquals(true, record.getValue().getValue());
+            }
+        }
+        assertEquals(1, conversions.get());
+        assertEquals(1, factory.timesCalled);
+
+        driver.read(readRecords("ch3", "ch2", "ch1"));
+        assertEquals(2, conversions.get());
+        assertEquals(2, factory.timesCalled);
+    }
+
+    @Test
+    public void shouldNotCacheReadPlansIfDisabled() throws ConnectionException {
+        final AtomicInteger conversions = new AtomicInteger();
+        TestBlockFactory factory = new TestBlockFactory(Mode.READ, 0, 2);
+        TestDriver driver = new TestDriver().withTaskMapper(records -> {
+            conversions.incrementAndGet();
+            return Stream.of(new Pair<>(1, new TestTask(records.get(0), 0, 2, Mode.READ)));
+        }).withBlockFactoryProvider((domain, mode) -> factory).withReadPlanCacheSize(0);
+
+        driver.read(readRecords("ch1"));
+        driver.read(readRecords("ch1"));
+        assertEquals(2, conversions.get());
+    }
+
+    @Test
+    public void shouldReportTheFailureTimeOnCachedReads() throws ConnectionException {
+        final AtomicBoolean fail = new AtomicBoolean();
+        TestDriver driver = new TestDriver()
+                .withTaskMapper(records -> Stream.of(new Pair<>(1, new TestTask(records.get(0), 0, 2, Mode.READ))))
+                .withBlockFactoryProvider((domain, mode) -> (start, end) -> new ToplevelBlockTask(start, end, mode) {
+
+                    @Override
+                    public void processBuffer() throws IOException {
+                        if (fail.get()) {
+                            throw new IOException("Device unreachable");
+                        }
+                    }
+
+                    @Override
+                    public Buffer getBuffer() {
+                        return null;
+                    }
+                });
+
+        final List<ChannelRecord> records = readRecords("ch1");
+        final ChannelRecord record = records.get(0);
+        driver.read(records);
+        assertEquals(true, record.getValue().getValue());
+
+        fail.set(true);
+        final long beforeFailure = System.currentTimeMillis();
+        driver.read(records);
+        assertEquals(ChannelFlag.FAILURE, record.getChannelStatus().getChannelFlag());
+        assertTrue(record.getTimestamp() >= beforeFailure);
+        assertEquals(true, record.getValue().getValue());
+
+        final List<ChannelRecord> fresh = readRecords("ch1");
+        driver.read(fresh);
+        assertEquals(ChannelFlag.FAILURE, fresh.get(0).getChannelStatus().getChannelFlag());
+        assertNull(fresh.get(0).getValue());
+    }
+
+    @Test
+    public void shouldRunDomainsConcurrently() throws ConnectionException {
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        final Function<Integer, BlockFactory<ToplevelBlockTask>> factoryProvider = domain -> (start,
+                end) -> new ToplevelBlockTask(start, end, Mode.READ) {
+
+                    @Override
+                    public void processBuffer() throws IOException {
+                        // fails if the two domains are not processed at the same time
+                        try {
+                            barrier.await(5, TimeUnit.SECONDS);
+                        } catch (Exception e) {
+                            throw new IOException(e);
+                        }
+                    }
+
+                    @Override
+                    public Buffer getBuffer() {
+                        return null;
+                    }
+                };
+        TestDriver driver = new TestDriver().withTaskMapper(records -> Stream.of(
+                new Pair<>(1, new TestTask(records.get(0), 0, 2, Mode.READ)),
+                new Pair<>(2, new TestTask(records.get(1), 0, 2, Mode.READ))))
+                .withBlockFactoryProvider((domain, mode) -> factoryProvider.apply(domain)).withMaxParallelDomains(2);
+
+        List<ChannelRecord> records = readRecords("ch1", "ch2");
+        driver.read(records);
+        for (ChannelRecord record : records) {
+            assertNotNull(record.getValue());
+            assertEquals(true, record.getValue().getValue());
+        }
+    }
+
+    @Test
+    public void shouldAggregateThroughOptimize() throws ConnectionException, KuraException {
+        List<Pair<Integer, BlockTask>> tasks = testTasks(1, Mode.READ, 0, 3, 3, 5);
+        List<ChannelRecord> records = getRecords(tasks);
+        TestBlockFactory factory = new TestBlockFactory(Mode.READ, 0, 5);
+        TestDriver driver = new TestDriver().withTasks(tasks).withBlockFactoryProvider((domain, mode) -> factory);
+
+        driver.read(records);
+        driver.prepareRead(records).execute();
+        assertEquals(2, driver.optimizeCalls);
+        assertEquals(1, driver.preparedReads);
+
+        List<Pair<Integer, BlockTask>> writeTasks = testTasks(1, Mode.WRITE, 0, 3);
+        TestBlockFactory writeFactory = new TestBlockFactory(Mode.WRITE, 0, 3);
+        driver.withTasks(writeTasks).withBlockFactoryProvider((domain, mode) -> writeFactory)
+                .write(getRecords(writeTasks));
+        assertEquals(3, driver.optimizeCalls);
+    }
+
+    @Test
+    public void shouldStopDomainThreadsOnClose() throws Exception {
+        TestDriver driver = new TestDriver().withTaskMapper(records -> Stream.of(
+                new Pair<>(1, new TestTask(records.get(0), 0, 2, Mode.READ)),
+                new Pair<>(2, new TestTask(records.get(1), 0, 2, Mode.READ))))
+                .withBlockFactoryProvider((domain, mode) -> new TestBlockFactory(Mode.READ, 0, 2))
+                .withMaxParallelDomains(2);
+
+        driver.read(readRecords("ch1", "ch2"));
+        assertTrue(countDomainThreads() > 0);
+
+        driver.close();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (countDomainThreads() > 0) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+
+        // the threads are created again if the driver is used afterwards
+        List<ChannelRecord> records = readRecords("ch1", "ch2");
+        driver.read(records);
+        for (ChannelRecord record : records) {
+            assertEquals(true, record.getValue().getValue());
+        }
+        driver.close();
+    }
+
+    private static long countDomainThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.isAlive() && thread.getName().equals("BlockDriverWorker-TestDriver")).count();
+    }
+
+    private static BlockFactory<ToplevelBlockTask> noopFactory(Mode mode) {
+        return (start, end) -> new ToplevelBlockTask(start, end, mode) {
+
+            @Override
+            public void processBuffer() throws IOException {
+            }
+
+            @Override
+            public Buffer getBuffer() {
+                return null;
+            }
+        };
+    }
+
+    private List<ChannelRecord> readRecords(String... names) {
+        return Stream.of(names).map(name -> ChannelRecord.createReadRecord(name, DataType.BOOLEAN))
+                .collect(Collectors.toList());
+    }
+
     private List<Pair<Integer, BlockTask>> testTasks(int domain, Mode mode, int... ranges) {
         assertTrue(ranges.length % 2 == 0);
         List<Pair<Integer, BlockTask>> result = new ArrayList<>(ranges.length / 2);
@@ -235,7 +486,11 @@ public class AbstractBlockDriverTest {
     private class TestTask extends UpdateBlockTask {
 
         public TestTask(int start, int end, Mode mode) {
-            super(ChannelRecord.createReadRecord("test", DataType.BOOLEAN), start, end, mode);
+            this(ChannelRecord.createReadRecord("test", DataType.BOOLEAN), start, end, mode);
+        }
+
+        public TestTask(ChannelRecord record, int start, int end, Mode mode) {
+            super(record, start, end, mode);
         }
 
         public ChannelRecord getRecord() {
@@ -275,21 +530,47 @@ public class AbstractBlockDriverTest {
     private class TestDriver extends AbstractBlockDriver<Integer> {
 
         private List<Pair<Integer, BlockTask>> tasks;
+        private Function<List<ChannelRecord>, Stream<Pair<Integer, BlockTask>>> taskMapper;
         private BiFunction<Integer, Mode, BlockFactory<ToplevelBlockTask>> blockFactoryProvider;
         private Consumer<List<BlockTask>> afterAggregation;
         private Consumer<BlockTaskAggregator> beforeAggregation;
         private int minimumGapSize;
+        private BlockCostModel costModel;
+        private int maxParallelDomains = 1;
+        private int readPlanCacheSize = DEFAULT_READ_PLAN_CACHE_SIZE;
+        private int optimizeCalls;
+        private int preparedReads;
 
         public TestDriver withTasks(List<Pair<Integer, BlockTask>> tasks) {
             this.tasks = tasks;
             return this;
         }
 
+        public TestDriver withTaskMapper(Function<List<ChannelRecord>, Stream<Pair<Integer, BlockTask>>> taskMapper) {
+            this.taskMapper = taskMapper;
+            return this;
+        }
+
+        public TestDriver withMaxParallelDomains(int maxParallelDomains) {
+            this.maxParallelDomains = maxParallelDomains;
+            return this;
+        }
+
+        public TestDriver withReadPlanCacheSize(int readPlanCacheSize) {
+            this.readPlanCacheSize = readPlanCacheSize;
+            return this;
+        }
+
         public TestDriver withMinimumGapSize(int minimumGapSize) {
             this.minimumGapSize = minimumGapSize;
             return this;
         }
 
+        public TestDriver withCostModel(BlockCostModel costModel) {
+            this.costModel = costModel;
+            return this;
+        }
+
         public TestDriver withBlockFactoryProvider(
                 BiFunction<Integer, Mode, BlockFactory<ToplevelBlockTask>> blockFactoryProvider) {
             this.blockFactoryProvider = blockFactoryProvider;
@@ -311,6 +592,11 @@ public class AbstractBlockDriverTest {
             return this.minimumGapSize;
         }
 
+        @Override
+        protected BlockCostModel getCostModelForDomain(Integer domain, Mode mode) {
+            return this.costModel;
+        }
+
         @Override
         protected void beforeAggregation(Integer domain, Mode mode, BlockTaskAggregator aggregator) {
             if (this.beforeAggregation != null) {
@@ -318,11 +604,40 @@ public class AbstractBlockDriverTest {
             }
         }
 
+        @Override
+        protected int getMaxParallelDomains() {
+            return this.maxParallelDomains;
+        }
+
+        @Override
+        protected int getReadPlanCacheSize() {
+            return this.readPlanCacheSize;
+        }
+
         @Override
         protected List<BlockTask> optimize(List<ChannelRecord> records, Mode mode) throws KuraException {
-            List<BlockTask> result = super.optimize(records, mode);
+            this.optimizeCalls++;
+            return super.optimize(records, mode);
+        }
+
+        @Override
+        protected PreparedRead createPreparedRead(List<ChannelRecord> records, List<BlockTask> tasks) {
+            this.preparedReads++;
+            return super.createPreparedRead(records, tasks);
+        }
+
+        @Override
+        protected void close() {
+            super.close();
+        }
+
+        @Override
+        protected Map<Integer, List<BlockTask>> optimizeByDomain(List<ChannelRecord> records, Mode mode)
+                throws KuraException {
+            Map<Integer, List<BlockTask>> result = super.optimizeByDomain(records, mode);
             if (this.afterAggregation != null) {
-                this.afterAggregation.accept(result);
+                this.afterAggregation.accept(
+                        result.values().stream().flatMap(List::stream).collect(Collectors.toList()));
             }
             return result;
         }
@@ -347,6 +662,9 @@ public class AbstractBlockDriverTest {
 
         @Override
         protected Stream<Pair<Integer, BlockTask>> toTasks(List<ChannelRecord> records, Mode mode) {
+            if (this.taskMapper != null) {
+                return this.taskMapper.apply(records);
+            }
             return this.tasks.stream();
         }
 
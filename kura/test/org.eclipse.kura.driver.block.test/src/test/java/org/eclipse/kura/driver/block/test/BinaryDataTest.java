@@ -15,12 +15,15 @@ package org.eclipse.kura.driver.block.test;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.function.BiFunction;
 
 import org.eclipse.kura.driver.binary.BinaryData;
 import org.eclipse.kura.driver.binary.BinaryDataTypes;
+import org.eclipse.kura.driver.binary.Buffer;
 import org.eclipse.kura.driver.binary.ByteArrayBuffer;
+import org.eclipse.kura.driver.binary.ByteBufferBuffer;
 import org.eclipse.kura.driver.binary.Endianness;
 import org.junit.Test;
 
@@ -241,6 +244,59 @@ public class BinaryDataTest {
         ByteArrayBuffer writeBuf = new ByteArrayBuffer(new byte[data.getSize()]);
         data.write(writeBuf, 0, expectedValue);
         assertArrayEquals(testBuf.getBackingArray(), writeBuf.getBackingArray());
+
+        final Number expectedNumber = (Number) expectedValue;
+        assertEquals(expectedNumber.longValue(), data.readLong(testBuf, 0));
+        assertEquals(expectedNumber.doubleValue(), data.readDouble(testBuf, 0), 0);
+
+        final ByteBufferBuffer directBuf = ByteBufferBuffer.allocateDirect(data.getSize() + 1);
+        directBuf.write(1, testBuf.getBackingArray());
+        assertEquals(expectedValue, data.read(directBuf, 1));
+        assertEquals(expectedNumber.longValue(), data.readLong(directBuf, 1));
+        assertEquals(expectedNumber.doubleValue(), data.readDouble(directBuf, 1), 0);
+    }
+
+    @Test
+    public void shouldSupportByteBufferBuffer() {
+        final ByteBuffer backing = ByteBuffer.wrap(new byte[] { 0, 1, 2, 3, 4, 5, 6, 7 });
+        backing.position(2);
+        backing.limit(6);
+        final ByteBufferBuffer buf = new ByteBufferBuffer(backing);
+
+        assertEquals(4, buf.getLength());
+        assertEquals(2, buf.get(0));
+        assertArrayEquals(new byte[] { 2, 3, 4, 5 }, buf.toArray());
+
+        final byte[] data = new byte[2];
+        buf.read(1, data);
+        assertArrayEquals(new byte[] { 3, 4 }, data);
+
+        buf.write(2, new byte[] { 10, 11 });
+        buf.put(0, (byte) 9);
+        assertArrayEquals(new byte[] { 0, 1, 9, 3, 10, 11, 6, 7 }, backing.array());
+        assertEquals(2, backing.position());
+        assertEquals(6, backing.limit());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotReadNonNumericValuesAsPrimitives() {
+        final BinaryData<String> stringData = new BinaryData<String>(Endianness.BIG_ENDIAN, 1) {
+
+            @Override
+            public void write(Buffer buf, int offset, String value) {
+            }
+
+            @Override
+            public String read(Buffer buf, int offset) {
+                return "test";
+            }
+
+            @Override
+            public Class<String> getValueType() {
+                return String.class;
+            }
+        };
+        stringData.readLong(new ByteArrayBuffer(new byte[1]), 0);
     }
 
 }
@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.driver.block.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.eclipse.kura.driver.block.Block;
+import org.eclipse.kura.driver.block.BlockAggregator;
+import org.eclipse.kura.driver.block.BlockCostModel;
+import org.eclipse.kura.driver.block.ProhibitedBlock;
+import org.eclipse.kura.driver.block.task.BlockTask;
+import org.eclipse.kura.driver.block.task.BlockTaskAggregator;
+import org.eclipse.kura.driver.block.task.Mode;
+import org.eclipse.kura.driver.block.task.ToplevelBlockTask;
+import org.eclipse.kura.driver.binary.Buffer;
+import org.junit.Test;
+
+public class BlockCostModelTest {
+
+    /** A Modbus like link: a request costs as much as transferring 20 registers, at most 125 registers per request */
+    private static final BlockCostModel MODBUS_READ = new BlockCostModel(20, 1, 125, 1);
+
+    @Test
+    public void shouldMergeBlocksOnlyIfConvenient() {
+        new TestHelper().setInput(0, 2, 8, 10).setCostModel(new BlockCostModel(10, 1)).expect(0, 10).exec();
+        new TestHelper().setInput(0, 2, 20, 22).setCostModel(new BlockCostModel(10, 1)).expect(0, 2, 20, 22).exec();
+        new TestHelper().setInput(0, 2, 8, 10, 30, 32, 35, 40).setCostModel(new BlockCostModel(10, 1))
+                .expect(0, 10, 30, 40).exec();
+    }
+
+    @Test
+    public void shouldNotExceedMaximumBlockSize() {
+        new TestHelper().setInput(0, 100, 100, 200, 200, 300).setCostModel(MODBUS_READ)
+                .expect(0, 100, 100, 200, 200, 300).exec();
+        new TestHelper().setInput(0, 60, 60, 120, 120, 125, 125, 130).setCostModel(MODBUS_READ)
+                .expect(0, 125, 125, 130).exec();
+    }
+
+    @Test
+    public void shouldIsolateBlocksLargerThanMaximumSize() {
+        new TestHelper().setInput(0, 126).setCostModel(MODBUS_READ).expect(0, 126).exec();
+        new TestHelper().setInput(0, 2, 2, 200, 200, 202, 210, 212).setCostModel(MODBUS_READ)
+                .expect(0, 2, 2, 200, 200, 212).exec();
+    }
+
+    @Test
+    public void shouldNotSplitOverlappingBlocks() {
+        new TestHelper().setInput(0, 100, 90, 120, 120, 200).setCostModel(MODBUS_READ).expect(0, 120, 120, 200)
+                .exec();
+    }
+
+    @Test
+    public void shouldAlignBlocks() {
+        new TestHelper().setInput(3, 5).setCostModel(new BlockCostModel(10, 1, 0, 4)).expect(0, 8).exec();
+        new TestHelper().setInput(3, 5, 30, 31).setCostModel(new BlockCostModel(10, 1, 0, 4)).expect(0, 8, 28, 32)
+                .exec();
+        // blocks sharing an alignment unit are never split, even if requests are free
+        new TestHelper().setInput(0, 3, 3, 5, 9, 12).setCostModel(new BlockCostModel(0, 1, 0, 4))
+                .expect(0, 8, 8, 12).exec();
+    }
+
+    @Test
+    public void shouldNotBridgeGapsWithoutGapsModel() {
+        new TestHelper().setInput(0, 2, 3, 5).setCostModel(BlockCostModel.withoutGaps(0, 1)).expect(0, 2, 3, 5).exec();
+        new TestHelper().setInput(0, 60, 60, 120, 120, 130, 140, 150).setCostModel(BlockCostModel.withoutGaps(125, 1))
+                .expect(0, 120, 120, 130, 140, 150).exec();
+        // the portions of an alignment unit are written anyway by two separate requests
+        new TestHelper().setInput(3, 5, 9, 12).setCostModel(BlockCostModel.withoutGaps(0, 4)).expect(0, 12).exec();
+        new TestHelper().setInput(3, 5, 13, 14).setCostModel(BlockCostModel.withoutGaps(0, 4)).expect(0, 8, 12, 16)
+                .exec();
+    }
+
+    @Test
+    public void shouldNotOverlapProhibitedBlocks() {
+        new TestHelper().setInput(0, 2, 8, 10).prohibit(4, 6).setCostModel(new BlockCostModel(100, 1))
+                .expect(0, 2, 8, 10).exec();
+        new TestHelper().setInput(3, 5, 7, 9).prohibit(0, 2).setCostModel(new BlockCostModel(100, 1, 0, 4))
+                .expect(2, 12).exec();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReportUnfeasibleProblem() {
+        new TestHelper().setInput(0, 2, 3, 4, 8, 10).prohibit(3, 9).setCostModel(MODBUS_READ).exec();
+    }
+
+    @Test
+    public void shouldFindOptimalPartition() {
+        final Random random = new Random(1234);
+        for (int iteration = 0; iteration < 200; iteration++) {
+            final BlockCostModel model = new BlockCostModel(1 + random.nextInt(20), 1, 10 + random.nextInt(30), 1);
+            final List<Block> input = new ArrayList<>();
+            int address = 0;
+            for (int i = 0; i < 8; i++) {
+                address += random.nextInt(15);
+                final int size = 1 + random.nextInt(8);
+                input.add(new Block(address, address + size));
+                address += size;
+            }
+
+            final BlockAggregator<Block> aggregator = new BlockAggregator<>(new ArrayList<>(input), Block::new);
+            aggregator.setCostModel(model);
+            final List<Block> result = aggregator.stream().collect(Collectors.toList());
+
+            assertEquals(bruteForceCost(input, model), cost(result, model), 1e-9);
+            for (Block block : input) {
+                assertTrue(result.stream().anyMatch(b -> b.contains(block)));
+            }
+        }
+    }
+
+    @Test
+    public void shouldReduceRequestCountOnModbusLikeLinks() {
+        // 200 holding registers, one channel every 3 registers
+        final List<Block> sparse = new ArrayList<>();
+        for (int i = 0; i < 600; i += 3) {
+            sparse.add(new Block(i, i + 1));
+        }
+        assertEquals(200, requestCount(sparse, null, 0));
+        assertEquals(1, requestCount(sparse, null, 3));
+        assertEquals(5, requestCount(sparse, MODBUS_READ, 0));
+
+        // 10 groups of 10 registers, 100 registers apart
+        final List<Block> clustered = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            clustered.add(new Block(i * 110, i * 110 + 10));
+        }
+        assertEquals(10, requestCount(clustered, null, 0));
+        assertEquals(10, requestCount(clustered, MODBUS_READ, 0));
+        // reading a 100 registers gap is convenient, but at most two groups fit in a request
+        assertEquals(5, requestCount(clustered, new BlockCostModel(120, 1, 125, 1), 0));
+    }
+
+    @Test
+    public void shouldAssignTasksToTheResultingRequests() {
+        final List<Block> tasks = new ArrayList<>();
+        for (int i = 0; i < 300; i += 2) {
+            tasks.add(new TestTask(i, i + 2));
+        }
+        final BlockTaskAggregator aggregator = new BlockTaskAggregator(tasks, TestToplevelTask::new);
+        aggregator.setCostModel(MODBUS_READ);
+        final List<ToplevelBlockTask> result = aggregator.stream().collect(Collectors.toList());
+
+        assertEquals(3, result.size());
+        int assigned = 0;
+        for (ToplevelBlockTask toplevel : result) {
+            assertTrue(toplevel.getEnd() - toplevel.getStart() <= 125);
+            for (BlockTask child : toplevel.getChildren()) {
+                assertTrue(toplevel.contains(child));
+                assigned++;
+            }
+        }
+        assertEquals(tasks.size(), assigned);
+    }
+
+    private static int requestCount(List<Block> input, BlockCostModel model, int minimumGapSize) {
+        final BlockAggregator<Block> aggregator = new BlockAggregator<>(new ArrayList<>(input), Block::new);
+        aggregator.setMinimumGapSize(minimumGapSize);
+        aggregator.setCostModel(model);
+        final List<Block> result = aggregator.stream().collect(Collectors.toList());
+        if (model != null) {
+            for (Block block : result) {
+                assertTrue(model.isAllowed(block.getStart(), block.getEnd()));
+            }
+        }
+        return result.size();
+    }
+
+    private static double cost(List<Block> blocks, BlockCostModel model) {
+        double result = 0;
+        for (Block block : blocks) {
+            assertTrue(model.isAllowed(block.getStart(), block.getEnd()));
+            result += model.getCost(block.getStart(), block.getEnd());
+        }
+        return result;
+    }
+
+    private static double bruteForceCost(List<Block> sortedInput, BlockCostModel model) {
+        final int count = sortedInput.size();
+        double best = Double.POSITIVE_INFINITY;
+        for (int splits = 0; splits < 1 << (count - 1); splits++) {
+            double total = 0;
+            int first = 0;
+            for (int i = 0; i < count && total < best; i++) {
+                if (i == count - 1 || (splits & 1 << i) != 0) {
+                    final int start = sortedInput.get(first).getStart();
+                    final int end = sortedInput.get(i).getEnd();
+                    total += model.isAllowed(start, end) ? model.getCost(start, end) : Double.POSITIVE_INFINITY;
+                    first = i + 1;
+                }
+            }
+            best = Math.min(best, total);
+        }
+        return best;
+    }
+
+    private static class TestTask extends BlockTask {
+
+        public TestTask(int start, int end) {
+            super(start, end, Mode.READ);
+        }
+
+        @Override
+        public void run() {
+        }
+
+        @Override
+        public void onSuccess() {
+        }
+
+        @Override
+        public void onFailure(Exception exception) {
+        }
+    }
+
+    private static class TestToplevelTask extends ToplevelBlockTask {
+
+        public TestToplevelTask(int start, int end) {
+            super(start, end, Mode.READ);
+        }
+
+        @Override
+        public void processBuffer() {
+        }
+
+        @Override
+        public Buffer getBuffer() {
+            return null;
+        }
+    }
+
+    private static class TestHelper {
+
+        private int[] inputBlocks;
+        private int[] prohibitedBlocks;
+        private int[] outputBlocks;
+        private BlockCostModel costModel;
+
+        public TestHelper setInput(int... inputBlocks) {
+            if (inputBlocks.length % 2 != 0) {
+                fail("block list size must be a multiple of 2");
+            }
+            this.inputBlocks = inputBlocks;
+            return this;
+        }
+
+        public TestHelper prohibit(int... prohibitedBlocks) {
+            if (prohibitedBlocks.length % 2 != 0) {
+                fail("block list size must be a multiple of 2");
+            }
+            this.prohibitedBlocks = prohibitedBlocks;
+            return this;
+        }
+
+        public TestHelper expect(int... outputBlocks) {
+            if (outputBlocks.length % 2 != 0) {
+                fail("block list size must be a multiple of 2");
+            }
+            this.outputBlocks = outputBlocks;
+            return this;
+        }
+
+        public TestHelper setCostModel(BlockCostModel costModel) {
+            this.costModel = costModel;
+            return this;
+        }
+
+        public void exec() {
+            final List<Block> input = new ArrayList<>();
+            for (int i = 0; i < this.inputBlocks.length; i += 2) {
+                input.add(new Block(this.inputBlocks[i], this.inputBlocks[i + 1]));
+            }
+            if (this.prohibitedBlocks != null) {
+                for (int i = 0; i < this.prohibitedBlocks.length; i += 2) {
+                    input.add(new ProhibitedBlock(this.prohibitedBlocks[i], this.prohibitedBlocks[i + 1]));
+                }
+            }
+            final BlockAggregator<Block> aggregator = new BlockAggregator<>(input, Block::new);
+            aggregator.setCostModel(this.costModel);
+            final List<Block> result = aggregator.stream().collect(Collectors.toList());
+
+            if (this.outputBlocks != null) {
+                assertEquals(this.outputBlocks.length / 2, result.size());
+                for (int i = 0; i < result.size(); i++) {
+                    assertEquals(this.outputBlocks[i * 2], result.get(i).getStart());
+                    assertEquals(this.outputBlocks[i * 2 + 1], result.get(i).getEnd());
+                }
+            }
+        }
+    }
+}
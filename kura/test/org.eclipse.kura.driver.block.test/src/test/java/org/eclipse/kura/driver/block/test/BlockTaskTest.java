@@ -14,6 +14,8 @@ package org.eclipse.kura.driver.block.test;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -32,6 +34,7 @@ import org.eclipse.kura.driver.block.task.Mode;
 import org.eclipse.kura.driver.block.task.StringTask;
 import org.eclipse.kura.driver.block.task.ToplevelBlockTask;
 import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.TypedValue;
 import org.eclipse.kura.type.TypedValues;
 import org.junit.Test;
 
@@ -112,6 +115,43 @@ public class BlockTaskTest {
                 testByteArray, Arrays.copyOf(testByteArray, testByteArray.length));
     }
 
+    @Test
+    public void shouldReuseTypedValuesIfUnchanged() throws IOException {
+        testValueReuse((record, offset, mode) -> new BinaryDataTask<>(record, offset, BinaryDataTypes.UINT16_BE,
+                DataType.INTEGER, mode), new byte[] { 0, 1 }, new byte[] { 0, 2 }, 1, 2);
+        testValueReuse((record, offset, mode) -> new BinaryDataTask<>(record, offset, BinaryDataTypes.INT64_LE,
+                DataType.DOUBLE, mode), new byte[] { 1, 0, 0, 0, 0, 0, 0, 0 }, new byte[] { 2, 0, 0, 0, 0, 0, 0, 0 },
+                1.0d, 2.0d);
+        testValueReuse((record, offset, mode) -> new BinaryDataTask<>(record, offset, BinaryDataTypes.FLOAT_BE,
+                DataType.LONG, mode), new byte[] { 0x3f, (byte) 0xc0, 0, 0 }, new byte[] { 0x40, 0x20, 0, 0 }, 1L, 2L);
+        testValueReuse((record, offset, mode) -> new BinaryDataTask<>(record, offset, BinaryDataTypes.DOUBLE_BE,
+                DataType.FLOAT, mode), new byte[] { 0x3f, (byte) 0xf8, 0, 0, 0, 0, 0, 0 },
+                new byte[] { (byte) 0xbf, (byte) 0xf8, 0, 0, 0, 0, 0, 0 }, 1.5f, -1.5f);
+        testValueReuse((record, offset, mode) -> new BitTask(record, offset, 1, mode), new byte[] { 2 },
+                new byte[] { 1 }, true, false);
+    }
+
+    private void testValueReuse(TaskProvider taskProvider, byte[] first, byte[] second, Object firstValue,
+            Object secondValue) throws IOException {
+        final ChannelRecord record = ChannelRecord.createReadRecord("test", DataType.BOOLEAN);
+        final byte[] buf = Arrays.copyOf(first, first.length);
+        final ToplevelBlockTask parent = getToplevelBlockTask(buf, Mode.READ);
+        parent.addChild(taskProvider.get(record, 0, Mode.READ));
+
+        parent.run();
+        final TypedValue<?> value = record.getValue();
+        assertEquals(firstValue, value.getValue());
+
+        parent.run();
+        assertSame(value, record.getValue());
+
+        System.arraycopy(second, 0, buf, 0, second.length);
+        parent.run();
+        assertNotSame(value, record.getValue());
+        assertEquals(secondValue, record.getValue().getValue());
+        assertEquals(ChannelFlag.SUCCESS, record.getChannelStatus().getChannelFlag());
+    }
+
     private ToplevelBlockTask getToplevelBlockTask(byte[] buf, Mode mode) {
         return new ToplevelBlockTask(0, buf.length, mode) {
 
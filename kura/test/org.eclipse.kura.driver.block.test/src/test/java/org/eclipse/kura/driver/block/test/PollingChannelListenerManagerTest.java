@@ -0,0 +1,376 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.driver.block.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.eclipse.kura.KuraException;
+import org.eclipse.kura.KuraRuntimeException;
+import org.eclipse.kura.channel.ChannelFlag;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.channel.ChannelStatus;
+import org.eclipse.kura.channel.listener.ChannelEvent;
+import org.eclipse.kura.channel.listener.ChannelListener;
+import org.eclipse.kura.driver.ChannelDescriptor;
+import org.eclipse.kura.driver.Driver;
+import org.eclipse.kura.driver.PreparedRead;
+import org.eclipse.kura.driver.binary.Buffer;
+import org.eclipse.kura.driver.block.BlockFactory;
+import org.eclipse.kura.driver.block.PollingChannelListenerManager;
+import org.eclipse.kura.driver.block.task.AbstractBlockDriver;
+import org.eclipse.kura.driver.block.task.BlockTask;
+import org.eclipse.kura.driver.block.task.ChannelBlockTask;
+import org.eclipse.kura.driver.block.task.Mode;
+import org.eclipse.kura.driver.block.task.ToplevelBlockTask;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.junit.After;
+import org.junit.Test;
+
+public class PollingChannelListenerManagerTest {
+
+    private static final long POLL_INTERVAL = 10;
+
+    private final TestDriver driver = new TestDriver();
+    private final PollingChannelListenerManager manager = new PollingChannelListenerManager(this.driver);
+    private final TestBlockDriver blockDriver = new TestBlockDriver();
+
+    @After
+    public void tearDown() {
+        this.manager.close();
+        this.blockDriver.close();
+    }
+
+    @Test
+    public void shouldNotifyOnlyChanges() throws InterruptedException {
+        final TestListener listener = new TestListener();
+        this.driver.value = TypedValues.newIntegerValue(1);
+        this.manager.registerChannelListener(channelConfig("ch1", "INTEGER"), listener, POLL_INTERVAL, 0);
+
+        ChannelEvent event = listener.next();
+        assertEquals("ch1", event.getChannelRecord().getChannelName());
+        assertEquals(1, event.getChannelRecord().getValue().getValue());
+
+        this.driver.awaitPolls(3);
+        assertTrue(listener.events.isEmpty());
+
+        this.driver.value = TypedValues.newIntegerValue(2);
+        event = listener.next();
+        assertEquals(2, event.getChannelRecord().getValue().getValue());
+    }
+
+    @Test
+    public void shouldApplyDeadband() throws InterruptedException {
+        final TestListener listener = new TestListener();
+        this.driver.value = TypedValues.newDoubleValue(10.0);
+        this.manager.registerChannelListener(channelConfig("ch1", "DOUBLE"), listener, POLL_INTERVAL, 0.5);
+
+        assertEquals(10.0, listener.next().getChannelRecord().getValue().getValue());
+
+        this.driver.value = TypedValues.newDoubleValue(10.4);
+        this.driver.awaitPolls(3);
+        assertTrue(listener.events.isEmpty());
+
+        this.driver.value = TypedValues.newDoubleValue(10.6);
+        assertEquals(10.6, listener.next().getChannelRecord().getValue().getValue());
+    }
+
+    @Test
+    public void shouldNotifyFailureOnce() throws InterruptedException {
+        final TestListener listener = new TestListener();
+        this.driver.value = TypedValues.newBooleanValue(true);
+        this.manager.registerChannelListener(channelConfig("ch1", "BOOLEAN"), listener, POLL_INTERVAL, 0);
+        assertEquals(true, listener.next().getChannelRecord().getValue().getValue());
+
+        this.driver.fail = true;
+        ChannelEvent event = listener.next();
+        assertEquals(ChannelFlag.FAILURE, event.getChannelRecord().getChannelStatus().getChannelFlag());
+        assertNull(event.getChannelRecord().getValue());
+
+        this.driver.awaitPolls(3);
+        assertTrue(listener.events.isEmpty());
+
+        this.driver.fail = false;
+        event = listener.next();
+        assertEquals(ChannelFlag.SUCCESS, event.getChannelRecord().getChannelStatus().getChannelFlag());
+        assertEquals(true, event.getChannelRecord().getValue().getValue());
+    }
+
+    @Test
+    public void shouldReadChannelsWithSameIntervalTogether() throws InterruptedException {
+        final TestListener listener1 = new TestListener();
+        final TestListener listener2 = new TestListener();
+        this.driver.value = TypedValues.newIntegerValue(1);
+        this.manager.registerChannelListener(channelConfig("ch1", "INTEGER"), listener1, POLL_INTERVAL, 0);
+        this.manager.registerChannelListener(channelConfig("ch2", "INTEGER"), listener2, POLL_INTERVAL, 0);
+
+        assertNotNull(listener1.next());
+        assertNotNull(listener2.next());
+        this.driver.awaitPolls(2);
+
+        assertEquals(2, this.driver.lastReadSize);
+    }
+
+    @Test
+    public void shouldStopPollingWhenUnregistered() throws InterruptedException {
+        final TestListener listener = new TestListener();
+        this.driver.value = TypedValues.newIntegerValue(1);
+        this.manager.registerChannelListener(channelConfig("ch1", "INTEGER"), listener, POLL_INTERVAL, 0);
+        assertNotNull(listener.next());
+        assertTrue(this.manager.hasListeners());
+
+        this.manager.unregisterChannelListener(listener);
+        assertFalse(this.manager.hasListeners());
+
+        Thread.sleep(POLL_INTERVAL * 3);
+        final int polls = this.driver.polls.get();
+        Thread.sleep(POLL_INTERVAL * 5);
+        assertEquals(polls, this.driver.polls.get());
+    }
+
+    @Test
+    public void shouldPollThroughBlockDriver() throws Exception {
+        final TestListener listener = new TestListener();
+        this.blockDriver.value = 1;
+        this.blockDriver.registerChannelListener(blockChannelConfig("ch1"), listener);
+        assertEquals(1, listener.next().getChannelRecord().getValue().getValue());
+
+        this.blockDriver.value = 2;
+        assertEquals(2, listener.next().getChannelRecord().getValue().getValue());
+
+        this.blockDriver.connectionFailure = true;
+        assertEquals(ChannelFlag.FAILURE, listener.next().getChannelRecord().getChannelStatus().getChannelFlag());
+
+        this.blockDriver.connectionFailure = false;
+        final ChannelEvent event = listener.next();
+        assertEquals(ChannelFlag.SUCCESS, event.getChannelRecord().getChannelStatus().getChannelFlag());
+        assertEquals(2, event.getChannelRecord().getValue().getValue());
+    }
+
+    @Test
+    public void shouldKeepPollingWhenPrepareReadFails() throws Exception {
+        final TestListener listener = new TestListener();
+        this.blockDriver.value = 1;
+        this.blockDriver.prepareFailure = true;
+        this.blockDriver.registerChannelListener(blockChannelConfig("ch1"), listener);
+
+        final ChannelEvent failure = listener.next();
+        assertEquals(ChannelFlag.FAILURE, failure.getChannelRecord().getChannelStatus().getChannelFlag());
+        assertNull(failure.getChannelRecord().getValue());
+
+        // the read is prepared again by the next polls
+        this.blockDriver.prepareFailure = false;
+        final ChannelEvent event = listener.next();
+        assertEquals(ChannelFlag.SUCCESS, event.getChannelRecord().getChannelStatus().getChannelFlag());
+        assertEquals(1, event.getChannelRecord().getValue().getValue());
+    }
+
+    @Test(expected = KuraRuntimeException.class)
+    public void shouldRejectMissingValueType() {
+        final Map<String, Object> config = new HashMap<>();
+        config.put(PollingChannelListenerManager.CHANNEL_NAME_PROPERTY, "ch1");
+        this.manager.registerChannelListener(config, new TestListener(), POLL_INTERVAL, 0);
+    }
+
+    @Test(expected = KuraRuntimeException.class)
+    public void shouldRejectInvalidPollInterval() {
+        this.manager.registerChannelListener(channelConfig("ch1", "INTEGER"), new TestListener(), 0, 0);
+    }
+
+    private static Map<String, Object> channelConfig(String name, String valueType) {
+        final Map<String, Object> config = new HashMap<>();
+        config.put(PollingChannelListenerManager.CHANNEL_NAME_PROPERTY, name);
+        config.put(PollingChannelListenerManager.CHANNEL_VALUE_TYPE_PROPERTY, valueType);
+        return config;
+    }
+
+    private static Map<String, Object> blockChannelConfig(String name) {
+        final Map<String, Object> config = channelConfig(name, "INTEGER");
+        config.put(AbstractBlockDriver.LISTENER_POLL_INTERVAL_PROPERTY, POLL_INTERVAL);
+        return config;
+    }
+
+    private static class TestListener implements ChannelListener {
+
+        private final BlockingQueue<ChannelEvent> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onChannelEvent(ChannelEvent event) {
+            this.events.add(event);
+        }
+
+        ChannelEvent next() throws InterruptedException {
+            final ChannelEvent event = this.events.poll(1, TimeUnit.SECONDS);
+            assertNotNull(event);
+            return event;
+        }
+    }
+
+    private static class TestDriver implements Driver {
+
+        private final AtomicInteger polls = new AtomicInteger();
+        private volatile TypedValue<?> value;
+        private volatile boolean fail;
+        private volatile int lastReadSize;
+
+        void awaitPolls(int count) throws InterruptedException {
+            final int target = this.polls.get() + count;
+            final long deadline = System.currentTimeMillis() + 1000;
+            while (this.polls.get() < target) {
+                assertTrue(System.currentTimeMillis() < deadline);
+                Thread.sleep(1);
+            }
+        }
+
+        @Override
+        public PreparedRead prepareRead(List<ChannelRecord> records) {
+            return new PreparedRead() {
+
+                @Override
+                public void close() throws Exception {
+                }
+
+                @Override
+                public List<ChannelRecord> execute() throws ConnectionException, KuraException {
+                    try {
+                        if (TestDriver.this.fail) {
+                            throw new ConnectionException();
+                        }
+                        for (ChannelRecord record : records) {
+                            record.setValue(TestDriver.this.value);
+                            record.setChannelStatus(new ChannelStatus(ChannelFlag.SUCCESS));
+                            record.setTimestamp(System.currentTimeMillis());
+                        }
+                        TestDriver.this.lastReadSize = records.size();
+                        return records;
+                    } finally {
+                        TestDriver.this.polls.incrementAndGet();
+                    }
+                }
+
+                @Override
+                public List<ChannelRecord> getChannelRecords() {
+                    return records;
+                }
+            };
+        }
+
+        @Override
+        public void connect() throws ConnectionException {
+        }
+
+        @Override
+        public void disconnect() throws ConnectionException {
+        }
+
+        @Override
+        public ChannelDescriptor getChannelDescriptor() {
+            return null;
+        }
+
+        @Override
+        public void read(List<ChannelRecord> records) throws ConnectionException {
+        }
+
+        @Override
+        public void registerChannelListener(Map<String, Object> channelConfig, ChannelListener listener)
+                throws ConnectionException {
+        }
+
+        @Override
+        public void unregisterChannelListener(ChannelListener listener) throws ConnectionException {
+        }
+
+        @Override
+        public void write(List<ChannelRecord> records) throws ConnectionException {
+        }
+    }
+
+    private static class TestBlockDriver extends AbstractBlockDriver<Integer> {
+
+        private volatile int value;
+        private volatile boolean connectionFailure;
+        private volatile boolean prepareFailure;
+
+        @Override
+        protected void close() {
+            super.close();
+        }
+
+        @Override
+        protected BlockFactory<ToplevelBlockTask> getTaskFactoryForDomain(Integer domain, Mode mode) {
+            return (start, end) -> new ToplevelBlockTask(start, end, mode) {
+
+                @Override
+                public Buffer getBuffer() {
+                    return null;
+                }
+
+                @Override
+                public void processBuffer() throws IOException {
+                }
+            };
+        }
+
+        @Override
+        protected Stream<Pair<Integer, BlockTask>> toTasks(List<ChannelRecord> records, Mode mode) {
+            return records.stream().map(record -> new Pair<>(0, new ChannelBlockTask(record, 0, 4, mode) {
+
+                @Override
+                public void run() throws IOException {
+                    this.record.setValue(TypedValues.newIntegerValue(TestBlockDriver.this.value));
+                    onSuccess();
+                }
+            }));
+        }
+
+        @Override
+        protected PreparedRead createPreparedRead(List<ChannelRecord> records,
+                Map<Integer, List<BlockTask>> domainTasks) {
+            if (this.prepareFailure) {
+                throw new IllegalStateException("prepare failed");
+            }
+            return super.createPreparedRead(records, domainTasks);
+        }
+
+        @Override
+        public void connect() throws ConnectionException {
+            if (this.connectionFailure) {
+                throw new ConnectionException();
+            }
+        }
+
+        @Override
+        public void disconnect() throws ConnectionException {
+        }
+
+        @Override
+        public ChannelDescriptor getChannelDescriptor() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.kura.internal.driver.opcua;
+
+import static org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+import org.eclipse.kura.channel.ChannelFlag;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.channel.listener.ChannelEvent;
+import org.eclipse.kura.channel.listener.ChannelListener;
+import org.eclipse.kura.core.testutil.TestUtil;
+import org.eclipse.kura.crypto.CryptoService;
+import org.eclipse.kura.driver.Driver.ConnectionException;
+import org.eclipse.kura.driver.PreparedRead;
+import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaMonitoredItem;
+import org.eclipse.milo.opcua.sdk.client.api.subscriptions.UaSubscription;
+import org.eclipse.milo.opcua.sdk.client.subscriptions.OpcUaSubscriptionManager;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.MonitoredItemCreateRequest;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.junit.Test;
+
+public class OpcUaDriverTest {
+
+    private final OpcUaClient client = mock(OpcUaClient.class);
+    private final OpcUaSubscriptionManager subscriptionManager = mock(OpcUaSubscriptionManager.class);
+    private final UaSubscription subscription = mock(UaSubscription.class);
+
+    /** The node ids of each Read service call */
+    private final List<List<String>> readCalls = new ArrayList<>();
+
+    @Test
+    public void testReadIsBatched() throws Exception {
+        final OpcUaDriver driver = createDriver(0, 0);
+        final List<ChannelRecord> records = createRecords(5);
+
+        driver.read(records);
+
+        assertEquals(1, this.readCalls.size());
+        assertEquals(Arrays.asList("node0", "node1", "node2", "node3", "node4"), this.readCalls.get(0));
+        assertValues(records);
+    }
+
+    @Test
+    public void testReadIsSplitByMaxNodesPerRead() throws Exception {
+        final OpcUaDriver driver = createDriver(2, 0);
+        final List<ChannelRecord> records = createRecords(5);
+
+        driver.read(records);
+
+        assertEquals(3, this.readCalls.size());
+        assertEquals(Arrays.asList("node0", "node1"), this.readCalls.get(0));
+        assertEquals(Arrays.asList("node2", "node3"), this.readCalls.get(1));
+        assertEquals(Arrays.asList("node4"), this.readCalls.get(2));
+        assertValues(records);
+    }
+
+    @Test
+    public void testServerMaxNodesPerRead() throws Exception {
+        // the lowest of the configured and the server limits is used
+        final OpcUaDriver driver = createDriver(4, 3);
+        final PreparedRead preparedRead = driver.prepareRead(createRecords(7));
+
+        final List<ChannelRecord> records = preparedRead.execute();
+
+        assertEquals(3, this.readCalls.size());
+        assertEquals(Arrays.asList("node6"), this.readCalls.get(2));
+        assertValues(records);
+
+        // the prepared read can be executed again
+        preparedRead.execute();
+        assertEquals(6, this.readCalls.size());
+    }
+
+    @Test
+    public void testReadResultStatus() throws Exception {
+        final OpcUaDriver driver = createDriver(0, 0);
+        when(this.client.read(anyDouble(), any(TimestampsToReturn.class), anyListOf(ReadValueId.class)))
+                .thenReturn(CompletableFuture.completedFuture(new ReadResponse(null,
+                        new DataValue[] { new DataValue(new Variant(1)), new DataValue(StatusCode.BAD),
+                                new DataValue(new Variant("not a number")) },
+                        null)));
+        final List<ChannelRecord> records = createRecords(3);
+
+        driver.read(records);
+
+        // each result is mapped to its own record
+        assertEquals(ChannelFlag.SUCCESS, records.get(0).getChannelStatus().getChannelFlag());
+        assertEquals(TypedValues.newIntegerValue(1), records.get(0).getValue());
+        assertEquals(ChannelFlag.FAILURE, records.get(1).getChannelStatus().getChannelFlag());
+        assertEquals(ChannelFlag.FAILURE, records.get(2).getChannelStatus().getChannelFlag());
+    }
+
+    @Test
+    public void testReadFailure() throws Exception {
+        final OpcUaDriver driver = createDriver(2, 0);
+        final CompletableFuture<ReadResponse> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new Exception("test"));
+        when(this.client.read(anyDouble(), any(TimestampsToReturn.class), anyListOf(ReadValueId.class)))
+                .thenReturn(failure);
+        final List<ChannelRecord> records = createRecords(3);
+
+        driver.read(records);
+
+        for (final ChannelRecord record : records) {
+            assertEquals(ChannelFlag.FAILURE, record.getChannelStatus().getChannelFlag());
+        }
+        verify(this.client, times(2)).read(anyDouble(), any(TimestampsToReturn.class),
+                anyListOf(ReadValueId.class));
+    }
+
+    @Test
+    public void testChannelListener() throws Exception {
+        final OpcUaDriver driver = createDriver(0, 0);
+        final List<BiConsumer<UaMonitoredItem, DataValue>> consumers = mockMonitoredItems(StatusCode.GOOD);
+        final List<ChannelEvent> events = new ArrayList<>();
+        final ChannelListener listener = events::add;
+
+        driver.registerChannelListener(createChannelConfig("ch0", "node0"), listener);
+        driver.registerChannelListener(createChannelConfig("ch1", "node1"), listener);
+
+        // a single subscription contains the monitored items of all the listeners
+        verify(this.subscriptionManager, times(1)).createSubscription(anyDouble());
+        assertEquals(2, consumers.size());
+
+        consumers.get(1).accept(mock(UaMonitoredItem.class), new DataValue(new Variant(42)));
+        assertEquals(1, events.size());
+        assertEquals("ch1", events.get(0).getChannelRecord().getChannelName());
+        assertEquals(TypedValues.newIntegerValue(42), events.get(0).getChannelRecord().getValue());
+
+        consumers.get(0).accept(mock(UaMonitoredItem.class), new DataValue(StatusCode.BAD));
+        assertEquals(2, events.size());
+        assertEquals(ChannelFlag.FAILURE, events.get(1).getChannelRecord().getChannelStatus().getChannelFlag());
+
+        // the subscription is deleted together with the last listener
+        driver.unregisterChannelListener(listener);
+        verify(this.subscriptionManager, times(1)).deleteSubscription(uint(1));
+        assertNull(TestUtil.getFieldValue(driver, "subscription"));
+    }
+
+    @Test
+    public void testSubscriptionDeletedOnMonitoredItemFailure() throws Exception {
+        final OpcUaDriver driver = createDriver(0, 0);
+        mockMonitoredItems(StatusCode.BAD);
+
+        try {
+            driver.registerChannelListener(createChannelConfig("ch0", "node0"), event -> {
+            });
+            fail("Exception expected");
+        } catch (final ConnectionException e) {
+            // expected
+        }
+
+        verify(this.subscriptionManager, times(1)).deleteSubscription(uint(1));
+        assertNull(TestUtil.getFieldValue(driver, "subscription"));
+    }
+
+    @Test
+    public void testSubscriptionKeptOnMonitoredItemFailure() throws Exception {
+        final OpcUaDriver driver = createDriver(0, 0);
+        mockMonitoredItems(StatusCode.GOOD);
+        driver.registerChannelListener(createChannelConfig("ch0", "node0"), event -> {
+        });
+
+        // the subscription is still used by the first listener
+        mockMonitoredItems(StatusCode.BAD);
+        try {
+            driver.registerChannelListener(createChannelConfig("ch1", "node1"), event -> {
+            });
+            fail("Exception expected");
+        } catch (final ConnectionException e) {
+            // expected
+        }
+
+        verify(this.subscriptionManager, never()).deleteSubscription(any());
+    }
+
+    private OpcUaDriver createDriver(final int maxNodesPerRead, final int serverMaxNodesPerRead) throws Exception {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("request.timeout", 5);
+        properties.put("max.nodes.per.read", maxNodesPerRead);
+
+        final OpcUaDriver driver = new OpcUaDriver();
+        driver.bindCryptoService(mock(CryptoService.class));
+        driver.activate(properties);
+
+        when(this.client.read(anyDouble(), any(TimestampsToReturn.class), anyListOf(ReadValueId.class)))
+                .thenAnswer(invocation -> {
+                    @SuppressWarnings("unchecked")
+                    final List<ReadValueId> readValueIds = (List<ReadValueId>) invocation.getArguments()[2];
+                    final List<String> nodeIds = new ArrayList<>();
+                    final DataValue[] results = new DataValue[readValueIds.size()];
+                    for (int i = 0; i < results.length; i++) {
+                        final String nodeId = (String) readValueIds.get(i).getNodeId().getIdentifier();
+                        nodeIds.add(nodeId);
+                        results[i] = new DataValue(new Variant(Integer.parseInt(nodeId.substring(4))));
+                    }
+                    this.readCalls.add(nodeIds);
+                    return CompletableFuture.completedFuture(new ReadResponse(null, results, null));
+                });
+        when(this.client.getSubscriptionManager()).thenReturn(this.subscriptionManager);
+        when(this.subscriptionManager.createSubscription(anyDouble()))
+                .thenReturn(CompletableFuture.completedFuture(this.subscription));
+        when(this.subscriptionManager.deleteSubscription(any()))
+                .thenReturn(CompletableFuture.completedFuture(this.subscription));
+        when(this.subscription.getSubscriptionId()).thenReturn(uint(1));
+        when(this.subscription.getRevisedPublishingInterval()).thenReturn(1000.0);
+
+        TestUtil.setFieldValue(driver, "client", this.client);
+        TestUtil.setFieldValue(driver, "serverMaxNodesPerRead", serverMaxNodesPerRead);
+        return driver;
+    }
+
+    /**
+     * Makes the subscription create monitored items with the provided status, returns the value consumers set by the
+     * driver on the created items.
+     */
+    @SuppressWarnings("unchecked")
+    private List<BiConsumer<UaMonitoredItem, DataValue>> mockMonitoredItems(final StatusCode statusCode) {
+        final List<BiConsumer<UaMonitoredItem, DataValue>> consumers = new ArrayList<>();
+        when(this.subscription.createMonitoredItems(eq(TimestampsToReturn.Both),
+                anyListOf(MonitoredItemCreateRequest.class), any(BiConsumer.class))).thenAnswer(invocation -> {
+                    final List<MonitoredItemCreateRequest> requests = (List<MonitoredItemCreateRequest>) invocation
+                            .getArguments()[1];
+                    final BiConsumer<UaMonitoredItem, Integer> onItemCreated = //
+                            (BiConsumer<UaMonitoredItem, Integer>) invocation.getArguments()[2];
+                    final List<UaMonitoredItem> items = new ArrayList<>();
+                    for (int i = 0; i < requests.size(); i++) {
+                        final UaMonitoredItem item = mock(UaMonitoredItem.class);
+                        when(item.getStatusCode()).thenReturn(statusCode);
+                        doAnswer(setConsumer -> consumers
+                                .add((BiConsumer<UaMonitoredItem, DataValue>) setConsumer.getArguments()[0]))
+                                .when(item).setValueConsumer(any(BiConsumer.class));
+                        onItemCreated.accept(item, i);
+                        items.add(item);
+                    }
+                    return CompletableFuture.completedFuture(items);
+                });
+        return consumers;
+    }
+
+    private static List<ChannelRecord> createRecords(final int count) {
+        final List<ChannelRecord> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final ChannelRecord record = ChannelRecord.createReadRecord("ch" + i, DataType.INTEGER);
+            record.setChannelConfig(createChannelConfig("ch" + i, "node" + i));
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static Map<String, Object> createChannelConfig(final String name, final String nodeId) {
+        final Map<String, Object> channelConfig = new HashMap<>();
+        channelConfig.put("+name", name);
+        channelConfig.put("+value.type", DataType.INTEGER.name());
+        channelConfig.put("node.id", nodeId);
+        channelConfig.put("node.namespace.index", "2");
+        channelConfig.put("node.id.type", "STRING");
+        return Collections.unmodifiableMap(channelConfig);
+    }
+
+    private static void assertValues(final List<ChannelRecord> records) {
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(ChannelFlag.SUCCESS, records.get(i).getChannelStatus().getChannelFlag());
+            assertEquals(TypedValues.newIntegerValue(i), records.get(i).getValue());
+        }
+    }
+}
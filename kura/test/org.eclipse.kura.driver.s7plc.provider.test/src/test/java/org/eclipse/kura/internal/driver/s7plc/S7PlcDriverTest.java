@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+
+package org.eclipse.kura.internal.driver.s7plc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.channel.ChannelFlag;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.driver.Driver.ConnectionException;
+import org.eclipse.kura.internal.driver.s7plc.test.S7ServerEmulator;
+import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.junit.After;
+import org.junit.Test;
+
+import Moka7.S7;
+
+public class S7PlcDriverTest {
+
+    private S7ServerEmulator server;
+    private S7PlcDriver driver;
+
+    @After
+    public void tearDown() throws IOException {
+        if (this.driver != null) {
+            this.driver.deactivate();
+        }
+        if (this.server != null) {
+            this.server.close();
+        }
+    }
+
+    @Test
+    public void testReadDifferentAreasInSingleRequest() throws ConnectionException {
+        start(480, 2000);
+        final byte[] db1 = this.server.getArea(S7.S7AreaDB, 1);
+        S7.SetShortAt(db1, 0, -1234);
+        S7.SetFloatAt(db1, 10, 3.5f);
+        final byte[] db2 = this.server.getArea(S7.S7AreaDB, 2);
+        S7.SetDIntAt(db2, 4, 0xfedcba98);
+        db2[8] = 0x04;
+        System.arraycopy("hello".getBytes(), 0, db2, 20, 5);
+        S7.SetWordAt(this.server.getArea(S7.S7AreaMK, 0), 2, 0xabcd);
+
+        final List<ChannelRecord> records = Arrays.asList(
+                readRecord("int", DataType.INTEGER, "DB", 1, 0, "INT"),
+                readRecord("real", DataType.FLOAT, "DB", 1, 10, "REAL"),
+                readRecord("dword", DataType.LONG, "DB", 2, 4, "DWORD"),
+                readRecord("bool", DataType.BOOLEAN, "DB", 2, 8, "BOOL", "bit.index", 2),
+                readRecord("char", DataType.STRING, "DB", 2, 20, "CHAR", "byte.count", 5),
+                readRecord("word", DataType.INTEGER, "MK", 0, 2, "WORD"));
+        this.driver.read(records);
+
+        assertSuccess(records);
+        assertEquals(-1234, records.get(0).getValue().getValue());
+        assertEquals(3.5f, records.get(1).getValue().getValue());
+        assertEquals(0xfedcba98L, records.get(2).getValue().getValue());
+        assertEquals(true, records.get(3).getValue().getValue());
+        assertEquals("hello", records.get(4).getValue().getValue());
+        assertEquals(0xabcd, records.get(5).getValue().getValue());
+        // one block for each data block and for the merkers, transferred with a single request
+        assertEquals(Arrays.asList(3), this.server.getReadRequests());
+    }
+
+    @Test
+    public void testWriteThenRead() throws ConnectionException {
+        start(480, 2000);
+
+        final List<ChannelRecord> writes = Arrays.asList(
+                writeRecord("int", TypedValues.newIntegerValue(-7), "DB", 1, 0, "INT"),
+                writeRecord("dint", TypedValues.newIntegerValue(123456789), "DB", 1, 2, "DINT"),
+                writeRecord("byte", TypedValues.newIntegerValue(200), "DB", 2, 1, "BYTE"),
+                writeRecord("bytes", TypedValues.newByteArrayValue(new byte[] { 1, 2, 3 }), "MK", 0, 4, "BYTE_ARRAY",
+                        "byte.count", 3));
+        this.driver.write(writes);
+
+        assertSuccess(writes);
+        assertEquals(Arrays.asList(3), this.server.getWriteRequests());
+        assertEquals(-7, S7.GetShortAt(this.server.getArea(S7.S7AreaDB, 1), 0));
+        assertEquals(123456789, S7.GetDIntAt(this.server.getArea(S7.S7AreaDB, 1), 2));
+        assertEquals(200, this.server.getArea(S7.S7AreaDB, 2)[1] & 0xff);
+
+        final List<ChannelRecord> reads = Arrays.asList(readRecord("int", DataType.INTEGER, "DB", 1, 0, "INT"),
+                readRecord("dint", DataType.INTEGER, "DB", 1, 2, "DINT"),
+                readRecord("byte", DataType.INTEGER, "DB", 2, 1, "BYTE"),
+                readRecord("bytes", DataType.BYTE_ARRAY, "MK", 0, 4, "BYTE_ARRAY", "byte.count", 3));
+        this.driver.read(reads);
+
+        assertSuccess(reads);
+        assertEquals(-7, reads.get(0).getValue().getValue());
+        assertEquals(123456789, reads.get(1).getValue().getValue());
+        assertEquals(200, reads.get(2).getValue().getValue());
+        assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) reads.get(3).getValue().getValue());
+    }
+
+    @Test
+    public void testBitWritePreservesOtherBits() throws ConnectionException {
+        start(480, 2000);
+        this.server.getArea(S7.S7AreaDB, 1)[3] = (byte) 0xf0;
+
+        final List<ChannelRecord> writes = Arrays.asList(
+                writeRecord("bit0", TypedValues.newBooleanValue(true), "DB", 1, 3, "BOOL", "bit.index", 0),
+                writeRecord("bit7", TypedValues.newBooleanValue(false), "DB", 1, 3, "BOOL", "bit.index", 7));
+        this.driver.write(writes);
+
+        assertSuccess(writes);
+        assertEquals(0x71, this.server.getArea(S7.S7AreaDB, 1)[3] & 0xff);
+        assertEquals(Arrays.asList(1), this.server.getReadRequests());
+        assertEquals(Arrays.asList(1), this.server.getWriteRequests());
+    }
+
+    @Test
+    public void testWriteDoesNotBridgeGaps() throws ConnectionException {
+        start(480, 2000);
+        final byte[] db1 = this.server.getArea(S7.S7AreaDB, 1);
+        Arrays.fill(db1, 2, 10, (byte) 0x55);
+
+        final List<ChannelRecord> writes = Arrays.asList(
+                writeRecord("first", TypedValues.newIntegerValue(1), "DB", 1, 0, "INT"),
+                writeRecord("second", TypedValues.newIntegerValue(2), "DB", 1, 10, "INT"));
+        this.driver.write(writes);
+
+        assertSuccess(writes);
+        // two items with a single request, the bytes between the channels are not written
+        assertEquals(Arrays.asList(2), this.server.getWriteRequests());
+        assertEquals(Collections.emptyList(), this.server.getReadRequests());
+        assertEquals(1, S7.GetShortAt(db1, 0));
+        assertEquals(2, S7.GetShortAt(db1, 10));
+        for (int i = 2; i < 10; i++) {
+            assertEquals(0x55, db1[i]);
+        }
+    }
+
+    @Test
+    public void testRequestsFitPdu() throws ConnectionException {
+        start(240, 2000);
+        final List<ChannelRecord> records = new ArrayList<>();
+        for (int db = 1; db <= 30; db++) {
+            this.server.createArea(S7.S7AreaDB, db, 100);
+            S7.SetShortAt(this.server.getArea(S7.S7AreaDB, db), 0, db);
+            records.add(readRecord("db" + db, DataType.INTEGER, "DB", db, 0, "INT"));
+        }
+        S7.SetShortAt(this.server.getArea(S7.S7AreaDB, 1), 98, 42);
+        records.add(readRecord("far", DataType.INTEGER, "DB", 1, 98, "INT"));
+        S7.SetShortAt(this.server.getArea(S7.S7AreaDB, 2), 10, 43);
+        records.add(readRecord("near", DataType.INTEGER, "DB", 2, 10, "INT"));
+
+        this.driver.read(records);
+
+        assertSuccess(records);
+        for (int db = 1; db <= 30; db++) {
+            assertEquals(db, records.get(db - 1).getValue().getValue());
+        }
+        assertEquals(42, records.get(30).getValue().getValue());
+        assertEquals(43, records.get(31).getValue().getValue());
+        assertTrue(this.server.getMaxTelegramSize() <= 240);
+        // the distant channels of DB1 are read with separate items, the close ones of DB2 with a single item,
+        // the 31 items do not fit a single request
+        final List<Integer> requests = this.server.getReadRequests();
+        assertEquals(31, requests.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(requests.size() > 1);
+        assertTrue(requests.size() <= 3);
+    }
+
+    @Test
+    public void testItemErrorOnlyAffectsItsChannels() throws ConnectionException {
+        start(480, 2000);
+        S7.SetShortAt(this.server.getArea(S7.S7AreaDB, 1), 0, 5);
+
+        final List<ChannelRecord> records = Arrays.asList(readRecord("ok", DataType.INTEGER, "DB", 1, 0, "INT"),
+                readRecord("missing", DataType.INTEGER, "DB", 9, 0, "INT"),
+                readRecord("invalid", DataType.INTEGER, "DB", 1, 2, "BOOL"),
+                readRecord("ok2", DataType.INTEGER, "MK", 0, 0, "INT"));
+        this.driver.read(records);
+
+        assertEquals(ChannelFlag.SUCCESS, records.get(0).getChannelStatus().getChannelFlag());
+        assertEquals(5, records.get(0).getValue().getValue());
+        assertEquals(ChannelFlag.FAILURE, records.get(1).getChannelStatus().getChannelFlag());
+        assertEquals(ChannelFlag.FAILURE, records.get(2).getChannelStatus().getChannelFlag());
+        assertEquals(ChannelFlag.SUCCESS, records.get(3).getChannelStatus().getChannelFlag());
+        assertEquals(Arrays.asList(3), this.server.getReadRequests());
+    }
+
+    @Test
+    public void testReceiveTimeout() throws ConnectionException {
+        start(480, 200);
+        final List<ChannelRecord> records = Arrays.asList(readRecord("a", DataType.INTEGER, "DB", 1, 0, "INT"),
+                readRecord("b", DataType.INTEGER, "DB", 2, 0, "INT"));
+
+        this.server.setSilent(true);
+        final long start = System.nanoTime();
+        this.driver.read(records);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(ChannelFlag.FAILURE, records.get(0).getChannelStatus().getChannelFlag());
+        assertEquals(ChannelFlag.FAILURE, records.get(1).getChannelStatus().getChannelFlag());
+
+        // the connection is closed after the timeout and opened again by the next operation
+        this.server.setSilent(false);
+        S7.SetShortAt(this.server.getArea(S7.S7AreaDB, 2), 0, 9);
+        this.driver.read(records);
+        assertSuccess(records);
+        assertEquals(9, records.get(1).getValue().getValue());
+    }
+
+    private void start(int pduLength, int timeout) throws ConnectionException {
+        try {
+            this.server = new S7ServerEmulator(pduLength);
+        } catch (IOException e) {
+            throw new ConnectionException(e);
+        }
+        this.server.createArea(S7.S7AreaDB, 1, 100);
+        this.server.createArea(S7.S7AreaDB, 2, 100);
+        this.server.createArea(S7.S7AreaMK, 0, 100);
+
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("host.ip", "127.0.0.1");
+        properties.put("port", this.server.getPort());
+        properties.put("rack", 0);
+        properties.put("slot", 2);
+        properties.put("timeout", timeout);
+        this.driver = new S7PlcDriver();
+        this.driver.activate(properties);
+        this.driver.connect();
+        assertEquals(pduLength, this.driver.getPduLength());
+    }
+
+    private static void assertSuccess(List<ChannelRecord> records) {
+        for (ChannelRecord record : records) {
+            assertEquals(record.getChannelName(), ChannelFlag.SUCCESS, record.getChannelStatus().getChannelFlag());
+        }
+    }
+
+    private static ChannelRecord readRecord(String name, DataType valueType, String area, int dbNumber, int offset,
+            String dataType, Object... extra) {
+        final ChannelRecord record = ChannelRecord.createReadRecord(name, valueType);
+        record.setChannelConfig(channelConfig(name, valueType, area, dbNumber, offset, dataType, extra));
+        return record;
+    }
+
+    private static ChannelRecord writeRecord(String name, TypedValue<?> value, String area, int dbNumber, int offset,
+            String dataType, Object... extra) {
+        final ChannelRecord record = ChannelRecord.createWriteRecord(name, value);
+        record.setChannelConfig(channelConfig(name, value.getType(), area, dbNumber, offset, dataType, extra));
+        return record;
+    }
+
+    private static Map<String, Object> channelConfig(String name, DataType valueType, String area, int dbNumber,
+            int offset, String dataType, Object... extra) {
+        final Map<String, Object> config = new HashMap<>();
+        config.put("+name", name);
+        config.put("+value.type", valueType.name());
+        config.put("s7.area", area);
+        config.put("data.block.no", Integer.toString(dbNumber));
+        config.put("offset", Integer.toString(offset));
+        config.put("s7.data.type", dataType);
+        config.put("byte.count", "0");
+        config.put("bit.index", "0");
+        for (int i = 0; i < extra.length; i += 2) {
+            config.put((String) extra[i], extra[i + 1].toString());
+        }
+        return config;
+    }
+}
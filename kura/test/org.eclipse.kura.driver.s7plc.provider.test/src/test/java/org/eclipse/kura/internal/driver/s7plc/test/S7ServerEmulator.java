@@ -0,0 +1,305 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+
+package org.eclipse.kura.internal.driver.s7plc.test;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Emulates the ISO-on-TCP endpoint of a S7 CPU on a local port.
+ * <p>
+ * The emulator supports the ISO connection, the PDU negotiation and the read var and write var functions with any
+ * number of items. The memory of the CPU is made of the areas created with {@link #createArea(int, int, int)}, items
+ * addressing other areas or exceeding their size are rejected with the "object does not exist" return code. The
+ * emulator records the number of items of each read var and write var request and the size of the largest
+ * telegram exchanged.
+ */
+public class S7ServerEmulator implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(S7ServerEmulator.class);
+
+    private static final int ISO_HEADER_SIZE = 7;
+    private static final byte RETURN_CODE_SUCCESS = (byte) 0xff;
+    private static final byte RETURN_CODE_OBJECT_DOES_NOT_EXIST = (byte) 0x0a;
+
+    private final ServerSocket serverSocket;
+    private final Thread acceptor;
+    private final int pduLength;
+    private final Map<String, byte[]> areas = new HashMap<>();
+    private final List<Integer> readRequests = new ArrayList<>();
+    private final List<Integer> writeRequests = new ArrayList<>();
+
+    private int maxTelegramSize;
+    private volatile boolean silent;
+
+    /**
+     * Starts the emulator on an ephemeral port of the loopback interface.
+     *
+     * @param pduLength
+     *            the PDU length accepted during the negotiation
+     * @throws IOException
+     *             if the server socket cannot be created
+     */
+    public S7ServerEmulator(int pduLength) throws IOException {
+        this.pduLength = pduLength;
+        this.serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        this.acceptor = new Thread(this::accept, "S7ServerEmulator");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    public synchronized void createArea(int area, int dbNumber, int size) {
+        this.areas.put(key(area, dbNumber), new byte[size]);
+    }
+
+    public synchronized byte[] getArea(int area, int dbNumber) {
+        return this.areas.get(key(area, dbNumber));
+    }
+
+    /**
+     * Returns the number of items of each read var request received so far.
+     */
+    public synchronized List<Integer> getReadRequests() {
+        return new ArrayList<>(this.readRequests);
+    }
+
+    /**
+     * Returns the number of items of each write var request received so far.
+     */
+    public synchronized List<Integer> getWriteRequests() {
+        return new ArrayList<>(this.writeRequests);
+    }
+
+    /**
+     * Returns the size of the largest S7 telegram, excluding the ISO headers, received or sent so far.
+     */
+    public synchronized int getMaxTelegramSize() {
+        return this.maxTelegramSize;
+    }
+
+    public synchronized void clearStatistics() {
+        this.readRequests.clear();
+        this.writeRequests.clear();
+        this.maxTelegramSize = 0;
+    }
+
+    /**
+     * If set, the requests following the connection setup are received but never answered.
+     */
+    public void setSilent(boolean silent) {
+        this.silent = silent;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.serverSocket.close();
+    }
+
+    private static String key(int area, int dbNumber) {
+        return area + ":" + dbNumber;
+    }
+
+    private void accept() {
+        while (!this.serverSocket.isClosed()) {
+            try {
+                final Socket socket = this.serverSocket.accept();
+                final Thread handler = new Thread(() -> serve(socket), "S7ServerEmulator-connection");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                logger.debug("Server socket closed");
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket) {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            final OutputStream out = s.getOutputStream();
+            while (true) {
+                final byte[] header = new byte[4];
+                in.readFully(header);
+                final int length = getWord(header, 2);
+                final byte[] packet = Arrays.copyOf(header, length);
+                in.readFully(packet, 4, length - 4);
+
+                final byte[] reply = handle(packet);
+                if (reply != null) {
+                    out.write(reply);
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Connection closed");
+        }
+    }
+
+    private byte[] handle(byte[] packet) {
+        if (packet[5] == (byte) 0xe0) {
+            // connection request, confirm it echoing the parameters
+            final byte[] reply = Arrays.copyOf(packet, packet.length);
+            reply[5] = (byte) 0xd0;
+            return reply;
+        }
+
+        final int function = packet[17] & 0xff;
+        if (function == 0xf0) {
+            final byte[] reply = newReply(packet, 8, 0);
+            reply[19] = (byte) 0xf0;
+            setWord(reply, 21, 1);
+            setWord(reply, 23, 1);
+            setWord(reply, 25, this.pduLength);
+            return reply;
+        }
+
+        synchronized (this) {
+            this.maxTelegramSize = Math.max(this.maxTelegramSize, packet.length - ISO_HEADER_SIZE);
+        }
+        if (this.silent) {
+            return null;
+        }
+
+        final byte[] reply;
+        if (function == 0x04) {
+            reply = readVar(packet);
+        } else if (function == 0x05) {
+            reply = writeVar(packet);
+        } else {
+            throw new IllegalStateException("Unsupported function: " + function);
+        }
+
+        synchronized (this) {
+            this.maxTelegramSize = Math.max(this.maxTelegramSize, reply.length - ISO_HEADER_SIZE);
+        }
+        return reply;
+    }
+
+    private synchronized byte[] readVar(byte[] packet) {
+        final int count = packet[18] & 0xff;
+        this.readRequests.add(count);
+
+        final byte[] data = new byte[packet.length + 4096];
+        int dataLength = 0;
+        for (int i = 0; i < count; i++) {
+            final Item item = new Item(packet, 19 + i * 12);
+            final byte[] area = item.getArea();
+            if (area == null) {
+                data[dataLength] = RETURN_CODE_OBJECT_DOES_NOT_EXIST;
+                dataLength += 4;
+            } else {
+                data[dataLength] = RETURN_CODE_SUCCESS;
+                data[dataLength + 1] = 0x04;
+                setWord(data, dataLength + 2, item.amount << 3);
+                System.arraycopy(area, item.start, data, dataLength + 4, item.amount);
+                dataLength += 4 + item.amount;
+                if ((item.amount & 1) != 0 && i < count - 1) {
+                    dataLength++;
+                }
+            }
+        }
+
+        final byte[] reply = newReply(packet, 2, dataLength);
+        reply[19] = 0x04;
+        reply[20] = (byte) count;
+        System.arraycopy(data, 0, reply, 21, dataLength);
+        return reply;
+    }
+
+    private synchronized byte[] writeVar(byte[] packet) {
+        final int count = packet[18] & 0xff;
+        this.writeRequests.add(count);
+
+        final byte[] reply = newReply(packet, 2, count);
+        reply[19] = 0x05;
+        reply[20] = (byte) count;
+
+        int offset = 19 + count * 12;
+        for (int i = 0; i < count; i++) {
+            final Item item = new Item(packet, 19 + i * 12);
+            final int length = getWord(packet, offset + 2) >> 3;
+            final byte[] area = item.getArea();
+            if (area == null || length != item.amount) {
+                reply[21 + i] = RETURN_CODE_OBJECT_DOES_NOT_EXIST;
+            } else {
+                System.arraycopy(packet, offset + 4, area, item.start, length);
+                reply[21 + i] = RETURN_CODE_SUCCESS;
+            }
+            offset += 4 + length;
+            if ((length & 1) != 0 && i < count - 1) {
+                offset++;
+            }
+        }
+        return reply;
+    }
+
+    private static byte[] newReply(byte[] request, int parameterLength, int dataLength) {
+        final int length = ISO_HEADER_SIZE + 12 + parameterLength + dataLength;
+        final byte[] reply = new byte[length];
+        System.arraycopy(request, 0, reply, 0, ISO_HEADER_SIZE);
+        setWord(reply, 2, length);
+        reply[7] = 0x32;
+        reply[8] = 0x03; // ack data
+        reply[11] = request[11];
+        reply[12] = request[12];
+        setWord(reply, 13, parameterLength);
+        setWord(reply, 15, dataLength);
+        return reply;
+    }
+
+    private static int getWord(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xff) << 8 | buffer[offset + 1] & 0xff;
+    }
+
+    private static void setWord(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >> 8);
+        buffer[offset + 1] = (byte) value;
+    }
+
+    private final class Item {
+
+        private final int area;
+        private final int dbNumber;
+        private final int start;
+        private final int amount;
+
+        Item(byte[] packet, int offset) {
+            this.amount = getWord(packet, offset + 4);
+            this.area = packet[offset + 8] & 0xff;
+            this.dbNumber = getWord(packet, offset + 6);
+            this.start = ((packet[offset + 9] & 0xff) << 16 | (packet[offset + 10] & 0xff) << 8
+                    | packet[offset + 11] & 0xff) >> 3;
+        }
+
+        byte[] getArea() {
+            final byte[] data = S7ServerEmulator.this.areas.get(key(this.area, this.dbNumber));
+            if (data == null || this.start + this.amount > data.length) {
+                return null;
+            }
+            return data;
+        }
+    }
+}
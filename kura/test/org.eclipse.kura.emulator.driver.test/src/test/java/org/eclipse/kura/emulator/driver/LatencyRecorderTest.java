@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.kura.emulator.driver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyRecorderTest {
+
+    @Test
+    public void testPercentiles() {
+        final LatencyRecorder recorder = new LatencyRecorder(1000);
+        // recorded in reverse order, the samples are sorted when summarized
+        for (int i = 100; i >= 1; i--) {
+            recorder.record(i * 1000L);
+        }
+
+        final LatencyRecorder.Summary summary = recorder.getAndReset();
+        assertEquals(100, summary.getCount());
+        assertEquals(50500, summary.getMean());
+        assertEquals(50000, summary.getP50());
+        assertEquals(90000, summary.getP90());
+        assertEquals(99000, summary.getP99());
+        assertEquals(100000, summary.getMax());
+        assertEquals("mean=50us, p50=50us, p90=90us, p99=99us, max=100us", summary.toString());
+    }
+
+    @Test
+    public void testNearestRank() {
+        final LatencyRecorder recorder = new LatencyRecorder(10);
+        recorder.record(10);
+        recorder.record(20);
+        recorder.record(30);
+
+        final LatencyRecorder.Summary summary = recorder.getAndReset();
+        assertEquals(20, summary.getP50());
+        assertEquals(30, summary.getP90());
+        assertEquals(30, summary.getP99());
+    }
+
+    @Test
+    public void testReset() {
+        final LatencyRecorder recorder = new LatencyRecorder(10);
+        final LatencyRecorder.Summary empty = recorder.getAndReset();
+        assertEquals(0, empty.getCount());
+        assertEquals(0, empty.getMean());
+        assertEquals(0, empty.getP99());
+        assertEquals(0, empty.getMax());
+
+        recorder.record(1000);
+        recorder.getAndReset();
+        recorder.record(10);
+        final LatencyRecorder.Summary summary = recorder.getAndReset();
+        assertEquals(1, summary.getCount());
+        assertEquals(10, summary.getMax());
+        assertEquals(10, summary.getP99());
+    }
+
+    @Test
+    public void testReservoir() {
+        final LatencyRecorder recorder = new LatencyRecorder(100);
+        for (int i = 1; i <= 10000; i++) {
+            recorder.record(i);
+        }
+
+        // the count, mean and maximum are exact, the percentiles are estimated from the kept samples
+        final LatencyRecorder.Summary summary = recorder.getAndReset();
+        assertEquals(10000, summary.getCount());
+        assertEquals(5000, summary.getMean());
+        assertEquals(10000, summary.getMax());
+        assertTrue(summary.getP50() > 2000 && summary.getP50() < 8000);
+        assertTrue(summary.getP50() <= summary.getP90() && summary.getP90() <= summary.getP99());
+    }
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.kura.emulator.driver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ModbusSlaveTest {
+
+    private RegisterMap registerMap;
+    private ModbusSlave slave;
+
+    @Before
+    public void setUp() {
+        this.registerMap = RegisterMap.parse("coils=20;discrete.inputs=8;holding.registers=10;input.registers=4",
+                ModbusSlave::sizeInBytes);
+        this.slave = new ModbusSlave(this.registerMap);
+    }
+
+    @Test
+    public void testSizeInBytes() {
+        assertEquals(3, ModbusSlave.sizeInBytes(ModbusSlave.COILS, 20));
+        assertEquals(1, ModbusSlave.sizeInBytes(ModbusSlave.DISCRETE_INPUTS, 8));
+        assertEquals(20, ModbusSlave.sizeInBytes(ModbusSlave.HOLDING_REGISTERS, 10));
+        assertEquals(8, ModbusSlave.sizeInBytes(ModbusSlave.INPUT_REGISTERS, 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedArea() {
+        RegisterMap.parse("registers=10", ModbusSlave::sizeInBytes);
+    }
+
+    @Test
+    public void testReadRegisters() {
+        this.registerMap.getArea(ModbusSlave.HOLDING_REGISTERS).write(2, new byte[] { 0x12, 0x34, 0x56, 0x78 }, 0,
+                4);
+        this.registerMap.getArea(ModbusSlave.INPUT_REGISTERS).write(6, new byte[] { 0x0a, 0x0b }, 0, 2);
+
+        assertResponse(new byte[] { 0x03, 0x04, 0x12, 0x34, 0x56, 0x78 }, 0x03, 0x00, 0x01, 0x00, 0x02);
+        assertResponse(new byte[] { 0x04, 0x02, 0x0a, 0x0b }, 0x04, 0x00, 0x03, 0x00, 0x01);
+    }
+
+    @Test
+    public void testReadBits() {
+        this.registerMap.getArea(ModbusSlave.COILS).write(0, new byte[] { (byte) 0xf0, (byte) 0xff, 0x0f }, 0, 3);
+        this.registerMap.getArea(ModbusSlave.DISCRETE_INPUTS).write(0, new byte[] { 0x05 }, 0, 1);
+
+        // coils 4..13, the padding bits of the last byte are zero
+        assertResponse(new byte[] { 0x01, 0x02, (byte) 0xff, 0x03 }, 0x01, 0x00, 0x04, 0x00, 0x0a);
+        assertResponse(new byte[] { 0x02, 0x01, 0x05 }, 0x02, 0x00, 0x00, 0x00, 0x08);
+    }
+
+    @Test
+    public void testWrites() {
+        assertResponse(new byte[] { 0x05, 0x00, 0x13, (byte) 0xff, 0x00 }, 0x05, 0x00, 0x13, 0xff, 0x00);
+        assertResponse(new byte[] { 0x06, 0x00, 0x09, 0x43, 0x21 }, 0x06, 0x00, 0x09, 0x43, 0x21);
+        assertResponse(new byte[] { 0x0f, 0x00, 0x01, 0x00, 0x03 }, 0x0f, 0x00, 0x01, 0x00, 0x03, 0x01, 0x05);
+        assertResponse(new byte[] { 0x10, 0x00, 0x00, 0x00, 0x02 }, 0x10, 0x00, 0x00, 0x00, 0x02, 0x04, 0x01, 0x02,
+                0x03, 0x04);
+
+        final byte[] coils = new byte[3];
+        this.registerMap.getArea(ModbusSlave.COILS).read(0, coils, 0, 3);
+        assertArrayEquals(new byte[] { 0x0a, 0x00, 0x08 }, coils);
+        final byte[] registers = new byte[20];
+        this.registerMap.getArea(ModbusSlave.HOLDING_REGISTERS).read(0, registers, 0, 20);
+        assertArrayEquals(new byte[] { 0x01, 0x02, 0x03, 0x04 }, Arrays.copyOfRange(registers, 0, 4));
+        assertArrayEquals(new byte[] { 0x43, 0x21 }, Arrays.copyOfRange(registers, 18, 20));
+    }
+
+    @Test
+    public void testExceptions() {
+        // illegal function
+        assertResponse(new byte[] { (byte) 0x87, 0x01 }, 0x07, 0x00, 0x00, 0x00, 0x01);
+        assertResponse(new byte[] { (byte) 0x87, 0x01 }, 0x07);
+        // illegal data address
+        assertResponse(new byte[] { (byte) 0x83, 0x02 }, 0x03, 0x00, 0x09, 0x00, 0x02);
+        assertResponse(new byte[] { (byte) 0x84, 0x02 }, 0x04, 0x00, 0x04, 0x00, 0x01);
+        assertResponse(new byte[] { (byte) 0x81, 0x02 }, 0x01, 0x00, 0x10, 0x00, 0x05);
+        assertResponse(new byte[] { (byte) 0x86, 0x02 }, 0x06, 0x00, 0x0a, 0x00, 0x01);
+        // illegal data value
+        assertResponse(new byte[] { (byte) 0x83, 0x03 }, 0x03, 0x00, 0x00, 0x00, 0x00);
+        assertResponse(new byte[] { (byte) 0x83, 0x03 }, 0x03, 0x00, 0x00, 0x00, 0x7e);
+        assertResponse(new byte[] { (byte) 0x85, 0x03 }, 0x05, 0x00, 0x00, 0x12, 0x34);
+        assertResponse(new byte[] { (byte) 0x83, 0x03 }, 0x03, 0x00);
+        // the byte count does not match the quantity
+        assertResponse(new byte[] { (byte) 0x90, 0x03 }, 0x10, 0x00, 0x00, 0x00, 0x02, 0x02, 0x01, 0x02);
+        assertResponse(new byte[] { (byte) 0x8f, 0x03 }, 0x0f, 0x00, 0x00, 0x00, 0x09, 0x01, 0x00);
+    }
+
+    @Test
+    public void testMissingArea() {
+        final ModbusSlave registersOnly = new ModbusSlave(
+                RegisterMap.parse("holding.registers=10", ModbusSlave::sizeInBytes));
+
+        final byte[] response = new byte[ModbusSlave.MAX_PDU_LENGTH];
+        assertEquals(2, registersOnly.process(new byte[] { 0x01, 0x00, 0x00, 0x00, 0x01 }, 0, 5, response, 0));
+        assertArrayEquals(new byte[] { (byte) 0x81, 0x02 }, Arrays.copyOf(response, 2));
+    }
+
+    @Test
+    public void testOffsets() {
+        this.registerMap.getArea(ModbusSlave.HOLDING_REGISTERS).write(0, new byte[] { 0x00, 0x2a }, 0, 2);
+
+        // the request and the response PDUs can be embedded in the frames of the transport
+        final byte[] request = { 0x11, 0x22, 0x03, 0x00, 0x00, 0x00, 0x01, 0x33 };
+        final byte[] response = new byte[ModbusSlave.MAX_PDU_LENGTH + 7];
+        assertEquals(4, this.slave.process(request, 2, 5, response, 7));
+        assertArrayEquals(new byte[] { 0x03, 0x02, 0x00, 0x2a }, Arrays.copyOfRange(response, 7, 11));
+    }
+
+    private void assertResponse(byte[] expected, int... request) {
+        final byte[] requestBytes = new byte[request.length];
+        for (int i = 0; i < request.length; i++) {
+            requestBytes[i] = (byte) request[i];
+        }
+        final byte[] response = new byte[ModbusSlave.MAX_PDU_LENGTH];
+        final int length = this.slave.process(requestBytes, 0, requestBytes.length, response, 0);
+        assertArrayEquals(expected, Arrays.copyOf(response, length));
+    }
+}
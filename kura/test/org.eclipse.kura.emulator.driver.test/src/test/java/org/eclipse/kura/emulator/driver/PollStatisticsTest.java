@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.kura.emulator.driver;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.wire.WireRecord;
+import org.junit.Test;
+
+public class PollStatisticsTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final PollStatistics statistics = new PollStatistics(Arrays.asList("a", "b"), 2, 1000, 100);
+
+    @Test
+    public void testLatencyFromOwnTrigger() {
+        this.statistics.ticked(0);
+        this.statistics.polled(record("a", 2), 10 * MS);
+        // the second tick arrives before the poll of b triggered by the first one completes
+        this.statistics.ticked(100 * MS);
+        this.statistics.polled(record("b", 2), 150 * MS);
+        this.statistics.polled(record("a", 2), 120 * MS);
+        this.statistics.polled(record("b", 2), 160 * MS);
+
+        final LatencyRecorder.Summary latency = this.statistics.getAndResetLatency(true);
+        assertEquals(4, latency.getCount());
+        assertEquals(150 * MS, latency.getMax());
+        assertEquals(20 * MS, latency.getP50());
+        assertEquals(4, this.statistics.getPolls());
+        assertEquals(0, this.statistics.getFailedPolls());
+    }
+
+    @Test
+    public void testChannelCount() {
+        this.statistics.ticked(0);
+        this.statistics.ticked(0);
+        this.statistics.ticked(0);
+
+        final Map<String, TypedValue<?>> properties = new HashMap<>();
+        properties.put("assetName", TypedValues.newStringValue("a"));
+        properties.put("channel0", TypedValues.newIntegerValue(1));
+        properties.put("channel0_timestamp", TypedValues.newLongValue(1));
+        properties.put("channel1_error", TypedValues.newStringValue("read failed"));
+        this.statistics.polled(new WireRecord(properties), MS);
+        this.statistics.polled(record("a", 0), MS);
+        this.statistics.polled(record("a", 2), MS);
+
+        // the properties other than the channel values and timestamps are not counted as channels
+        assertEquals(3, this.statistics.getPolls());
+        assertEquals(1, this.statistics.getFailedPolls());
+        assertEquals(1, this.statistics.getFailedChannels());
+        assertEquals(2, this.statistics.getAndResetLatency(false).getCount());
+    }
+
+    @Test
+    public void testUnansweredTicksExpire() {
+        this.statistics.ticked(0);
+        this.statistics.ticked(500 * MS);
+        this.statistics.ticked(2000 * MS);
+        this.statistics.polled(record("a", 2), 2010 * MS);
+
+        // the polls of the first two ticks failed, the record answers the last one
+        assertEquals(10 * MS, this.statistics.getAndResetLatency(true).getMax());
+        // a did not answer two ticks, b did not answer three
+        this.statistics.ticked(3100 * MS);
+        assertEquals(2 + 3, this.statistics.getFailedPolls());
+    }
+
+    @Test
+    public void testRecordBeforeTick() {
+        this.statistics.polled(record("a", 2), 0);
+        this.statistics.ticked(MS);
+        this.statistics.ticked(100 * MS);
+        this.statistics.polled(record("a", 2), 110 * MS);
+
+        // the early record consumes the tick received after it, without latency sample
+        final LatencyRecorder.Summary latency = this.statistics.getAndResetLatency(true);
+        assertEquals(1, latency.getCount());
+        assertEquals(10 * MS, latency.getMax());
+    }
+
+    @Test
+    public void testUnknownAsset() {
+        this.statistics.ticked(0);
+        this.statistics.polled(record("other", 2), MS);
+        this.statistics.polled(new WireRecord(new HashMap<>()), MS);
+
+        assertEquals(0, this.statistics.getPolls());
+    }
+
+    private static WireRecord record(String assetName, int channels) {
+        final Map<String, TypedValue<?>> properties = new HashMap<>();
+        properties.put("assetName", TypedValues.newStringValue(assetName));
+        for (int i = 0; i < channels; i++) {
+            properties.put("channel" + i, TypedValues.newIntegerValue(i));
+            properties.put("channel" + i + "_timestamp", TypedValues.newLongValue(i));
+        }
+        return new WireRecord(properties);
+    }
+}
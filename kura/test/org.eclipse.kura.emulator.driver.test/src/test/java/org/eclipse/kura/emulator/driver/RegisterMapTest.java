@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.kura.emulator.driver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.eclipse.kura.emulator.driver.RegisterMap.Area;
+import org.eclipse.kura.emulator.driver.RegisterMap.Mode;
+import org.junit.Test;
+
+public class RegisterMapTest {
+
+    @Test
+    public void testParse() {
+        RegisterMap map = RegisterMap.parse(" words=10:counter;\nbits = 9 ;bytes=4:Random;;", RegisterMapTest::size);
+
+        assertEquals(Arrays.asList("words", "bits", "bytes"), new ArrayList<>(map.getAreas().keySet()));
+        assertEquals(10, map.getArea("words").getCount());
+        assertEquals(20, map.getArea("words").getSize());
+        assertEquals(Mode.COUNTER, map.getArea("words").getMode());
+        assertEquals(2, map.getArea("bits").getSize());
+        assertEquals(Mode.STATIC, map.getArea("bits").getMode());
+        assertEquals(Mode.RANDOM, map.getArea("bytes").getMode());
+        assertNull(map.getArea("missing"));
+    }
+
+    @Test
+    public void testInvalidDescriptions() {
+        for (String description : Arrays.asList("words", "=10", "words=ten", "words=0", "words=10:static:1",
+                "words=10:unknown", "words=1;words=2", "unsupported=1")) {
+            try {
+                RegisterMap.parse(description, RegisterMapTest::size);
+                fail("Exception expected for " + description);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testReadWrite() {
+        Area area = RegisterMap.parse("bytes=8", RegisterMapTest::size).getArea("bytes");
+
+        assertTrue(area.write(2, new byte[] { 9, 1, 2, 3 }, 1, 3));
+        byte[] dest = new byte[6];
+        assertTrue(area.read(1, dest, 1, 4));
+        assertArrayEquals(new byte[] { 0, 0, 1, 2, 3, 0 }, dest);
+
+        // the ranges exceeding the area are rejected
+        assertFalse(area.read(6, dest, 0, 3));
+        assertFalse(area.write(-1, dest, 0, 1));
+        assertTrue(area.read(0, dest, 0, 0));
+    }
+
+    @Test
+    public void testBits() {
+        Area area = RegisterMap.parse("bits=16", RegisterMapTest::size).getArea("bits");
+
+        // bits 3..12 set from 0x2cd, least significant bit first
+        assertTrue(area.writeBits(3, 10, new byte[] { (byte) 0xcd, 0x02 }, 0));
+        byte[] bytes = new byte[2];
+        assertTrue(area.read(0, bytes, 0, 2));
+        assertArrayEquals(new byte[] { 0x68, 0x16 }, bytes);
+
+        byte[] bits = new byte[] { (byte) 0xff, (byte) 0xff };
+        assertTrue(area.readBits(3, 10, bits, 0));
+        // the bits following the range in the destination are preserved
+        assertArrayEquals(new byte[] { (byte) 0xcd, (byte) 0xfe }, bits);
+
+        assertFalse(area.readBits(10, 7, bits, 0));
+        assertFalse(area.writeBits(16, 1, bits, 0));
+    }
+
+    @Test
+    public void testCounter() {
+        Area area = RegisterMap.parse("words=3:counter", RegisterMapTest::size).getArea("words");
+        area.write(0, new byte[] { 0x00, (byte) 0xff }, 0, 2);
+
+        byte[] dest = new byte[2];
+        area.read(0, dest, 0, 2);
+        assertArrayEquals(new byte[] { 0x01, 0x00 }, dest);
+
+        // an unaligned read increments all the words it touches
+        dest = new byte[3];
+        area.read(1, dest, 0, 3);
+        assertArrayEquals(new byte[] { 0x01, 0x00, 0x01 }, dest);
+        area.read(4, dest, 0, 2);
+        assertArrayEquals(new byte[] { 0x00, 0x01, 0x01 }, dest);
+    }
+
+    @Test
+    public void testRandom() {
+        Area area = RegisterMap.parse("bytes=64:random", RegisterMapTest::size).getArea("bytes");
+
+        byte[] first = new byte[64];
+        byte[] second = new byte[64];
+        area.read(0, first, 0, 64);
+        area.read(0, second, 0, 64);
+        assertFalse(Arrays.equals(first, second));
+    }
+
+    private static int size(String name, int count) {
+        switch (name) {
+        case "words":
+            return count * 2;
+        case "bits":
+            return count + 7 >> 3;
+        case "bytes":
+            return count;
+        default:
+            throw new IllegalArgumentException("Unsupported area: " + name);
+        }
+    }
+}
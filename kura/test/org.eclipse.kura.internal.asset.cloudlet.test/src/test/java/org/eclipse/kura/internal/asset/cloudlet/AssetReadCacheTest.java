@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.kura.internal.asset.cloudlet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.kura.KuraErrorCode;
+import org.eclipse.kura.KuraException;
+import org.eclipse.kura.asset.Asset;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.type.DataType;
+import org.junit.After;
+import org.junit.Test;
+
+public class AssetReadCacheTest {
+
+    private static final Set<String> CHANNELS = Collections.singleton("ch1");
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AssetReadCache cache = new AssetReadCache(this.clock::get);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<Thread> threads = new ArrayList<>();
+
+    @After
+    public void tearDown() throws InterruptedException {
+        this.release.countDown();
+        for (Thread thread : this.threads) {
+            thread.join(5000);
+        }
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        final AtomicInteger reads = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final Asset asset = blockingAsset(reads, started);
+
+        final CompletableFuture<List<ChannelRecord>> first = readAsync(asset, CHANNELS);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final CompletableFuture<List<ChannelRecord>> second = readAsync(asset, CHANNELS);
+        // the second read waits for the one in progress
+        awaitBlockedThreads();
+        assertTrue(!second.isDone());
+
+        this.release.countDown();
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, reads.get());
+
+        // without a time to live the result is not reused
+        this.cache.read("asset", asset, CHANNELS);
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void testTtlExpiry() throws Exception {
+        final Asset asset = mockAsset();
+        this.cache.setTtl(1000);
+
+        final List<ChannelRecord> records = this.cache.read("asset", asset, CHANNELS);
+        this.clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertSame(records, this.cache.read("asset", asset, CHANNELS));
+        verify(asset, times(1)).read(CHANNELS);
+
+        this.clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        this.cache.read("asset", asset, CHANNELS);
+        verify(asset, times(2)).read(CHANNELS);
+
+        // different channels and different assets are not shared
+        this.cache.read("asset", asset, Collections.emptySet());
+        verify(asset, times(1)).readAllChannels();
+        this.cache.read("other", asset, CHANNELS);
+        verify(asset, times(3)).read(CHANNELS);
+    }
+
+    @Test
+    public void testInvalidation() throws Exception {
+        final Asset asset = mockAsset();
+        this.cache.setTtl(1000);
+
+        this.cache.read("asset", asset, CHANNELS);
+        this.cache.read("other", asset, CHANNELS);
+        this.cache.invalidate("asset");
+
+        this.cache.read("asset", asset, CHANNELS);
+        this.cache.read("other", asset, CHANNELS);
+        verify(asset, times(3)).read(CHANNELS);
+    }
+
+    @Test
+    public void testInvalidationDuringRead() throws Exception {
+        final AtomicInteger reads = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final Asset asset = blockingAsset(reads, started);
+        this.cache.setTtl(1000);
+
+        final CompletableFuture<List<ChannelRecord>> stale = readAsync(asset, CHANNELS);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        this.cache.invalidate("asset");
+        this.release.countDown();
+        stale.get(5, TimeUnit.SECONDS);
+
+        // the result of the read started before the invalidation is not cached
+        this.cache.read("asset", asset, CHANNELS);
+        assertEquals(2, reads.get());
+        this.cache.read("asset", asset, CHANNELS);
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void testFailuresAreNotCached() throws Exception {
+        final Asset asset = mock(Asset.class);
+        when(asset.read(anySetOf(String.class))).thenThrow(new KuraException(KuraErrorCode.CONNECTION_FAILED));
+        this.cache.setTtl(1000);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                this.cache.read("asset", asset, CHANNELS);
+                fail("Exception expected");
+            } catch (KuraException e) {
+                assertEquals(KuraErrorCode.CONNECTION_FAILED, e.getCode());
+            }
+        }
+        verify(asset, times(2)).read(CHANNELS);
+    }
+
+    @Test
+    public void testConcurrentReaders() throws Exception {
+        final AtomicInteger reads = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(2);
+        final Asset asset = blockingAsset(reads, started);
+
+        final List<CompletableFuture<List<ChannelRecord>>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(readAsync(asset, CHANNELS));
+            results.add(readAsync(asset, new HashSet<>(Arrays.asList("ch1", "ch2"))));
+        }
+
+        // the reads of different channel sets are performed concurrently
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        awaitBlockedThreads();
+        this.release.countDown();
+        for (int i = 0; i < results.size(); i++) {
+            assertSame(results.get(i % 2).get(5, TimeUnit.SECONDS), results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, reads.get());
+    }
+
+    private CompletableFuture<List<ChannelRecord>> readAsync(final Asset asset, final Set<String> channelNames) {
+        final CompletableFuture<List<ChannelRecord>> result = new CompletableFuture<>();
+        final Thread thread = new Thread(() -> {
+            try {
+                result.complete(this.cache.read("asset", asset, channelNames));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        this.threads.add(thread);
+        thread.start();
+        return result;
+    }
+
+    private void awaitBlockedThreads() throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!this.threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING
+                || thread.getState() == Thread.State.TIMED_WAITING)) {
+            assertTrue("Threads not blocked in time", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Returns an asset whose reads block until the end of the test, or until {@code release} is counted down.
+     */
+    private Asset blockingAsset(final AtomicInteger reads, final CountDownLatch started) throws KuraException {
+        final Asset asset = mock(Asset.class);
+        when(asset.read(anySetOf(String.class))).thenAnswer(invocation -> {
+            reads.incrementAndGet();
+            started.countDown();
+            this.release.await(5, TimeUnit.SECONDS);
+            return newRecords();
+        });
+        return asset;
+    }
+
+    private static Asset mockAsset() throws KuraException {
+        final Asset asset = mock(Asset.class);
+        when(asset.read(anySetOf(String.class))).thenAnswer(invocation -> newRecords());
+        when(asset.readAllChannels()).thenAnswer(invocation -> newRecords());
+        return asset;
+    }
+
+    private static List<ChannelRecord> newRecords() {
+        return Collections.singletonList(ChannelRecord.createReadRecord("ch1", DataType.INTEGER));
+    }
+}
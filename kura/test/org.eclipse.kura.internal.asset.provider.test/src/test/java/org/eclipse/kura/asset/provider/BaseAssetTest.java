@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.kura.asset.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.asset.AssetConfiguration;
+import org.eclipse.kura.asset.provider.BaseAsset.ReadGroup;
+import org.eclipse.kura.channel.Channel;
+import org.eclipse.kura.channel.ChannelType;
+import org.eclipse.kura.configuration.ConfigurationService;
+import org.eclipse.kura.core.testutil.TestUtil;
+import org.eclipse.kura.driver.Driver;
+import org.eclipse.kura.type.DataType;
+import org.junit.Test;
+
+public class BaseAssetTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private long now;
+
+    @Test
+    public void testFirstPoll() {
+        final ReadGroup group = new ReadGroup(1000 * MS, Collections.emptyList(), null);
+
+        assertTrue(group.poll(5 * MS, 0));
+        assertFalse(group.poll(6 * MS, 0));
+        assertFalse(group.poll(1004 * MS, 0));
+        assertTrue(group.poll(1005 * MS, 0));
+    }
+
+    @Test
+    public void testNoPollInterval() {
+        final ReadGroup group = new ReadGroup(0, Collections.emptyList(), null);
+
+        assertTrue(group.poll(0, 0));
+        assertTrue(group.poll(0, 0));
+        assertTrue(group.poll(MS, 0));
+    }
+
+    @Test
+    public void testPhaseKept() {
+        final ReadGroup group = new ReadGroup(1000 * MS, Collections.emptyList(), null);
+
+        assertTrue(group.poll(0, 0));
+        // a late poll does not delay the following ones
+        assertTrue(group.poll(1300 * MS, 0));
+        assertFalse(group.poll(1999 * MS, 0));
+        assertTrue(group.poll(2000 * MS, 0));
+        // unless a whole interval has been missed
+        assertTrue(group.poll(4500 * MS, 0));
+        assertFalse(group.poll(5000 * MS, 0));
+        assertTrue(group.poll(5500 * MS, 0));
+    }
+
+    @Test
+    public void testTolerance() {
+        final ReadGroup group = new ReadGroup(1000 * MS, Collections.emptyList(), null);
+
+        assertTrue(group.poll(0, 0));
+        assertFalse(group.poll(899 * MS, 100 * MS));
+        assertTrue(group.poll(900 * MS, 100 * MS));
+        // the next read is still scheduled one interval after the previous one was due
+        assertFalse(group.poll(1899 * MS, 100 * MS));
+        assertTrue(group.poll(1900 * MS, 100 * MS));
+    }
+
+    @Test
+    public void testToleranceCapped() {
+        final ReadGroup group = new ReadGroup(1000 * MS, Collections.emptyList(), null);
+
+        // a read is never anticipated by more than a quarter of the interval
+        assertTrue(group.poll(0, 0));
+        assertFalse(group.poll(749 * MS, 10000 * MS));
+        assertTrue(group.poll(750 * MS, 10000 * MS));
+        assertFalse(group.poll(1749 * MS, 10000 * MS));
+        assertTrue(group.poll(1750 * MS, 10000 * MS));
+    }
+
+    @Test
+    public void testDueReadGroups() throws NoSuchFieldException {
+        final BaseAsset asset = createAsset(channel("fast", null), channel("medium", "1000"), channel("slow", "3000"));
+
+        // the first call reads all the groups, in ascending interval order
+        assertEquals(Arrays.asList(0L, 1000 * MS, 3000 * MS), pollIntervals(asset.getDueReadGroups()));
+
+        // a call every 1100 ms, the medium channels are read on every call
+        this.now = 1100 * MS;
+        assertEquals(Arrays.asList(0L, 1000 * MS), pollIntervals(asset.getDueReadGroups()));
+        this.now = 2200 * MS;
+        assertEquals(Arrays.asList(0L, 1000 * MS), pollIntervals(asset.getDueReadGroups()));
+        this.now = 3300 * MS;
+        assertEquals(Arrays.asList(0L, 1000 * MS, 3000 * MS), pollIntervals(asset.getDueReadGroups()));
+    }
+
+    @Test
+    public void testDueReadGroupsToleranceCapped() throws NoSuchFieldException {
+        final BaseAsset asset = createAsset(channel("fast", null), channel("slow", "1000"));
+
+        assertEquals(2, asset.getDueReadGroups().size());
+
+        // the tolerance is 350 ms, but the slow channels are not read 300 ms in advance
+        this.now = 700 * MS;
+        assertEquals(Arrays.asList(0L), pollIntervals(asset.getDueReadGroups()));
+        this.now = 800 * MS;
+        assertEquals(Arrays.asList(0L), pollIntervals(asset.getDueReadGroups()));
+        this.now = 1000 * MS;
+        assertEquals(Arrays.asList(0L, 1000 * MS), pollIntervals(asset.getDueReadGroups()));
+    }
+
+    @Test
+    public void testDueReadGroupsChannelsGrouped() throws NoSuchFieldException {
+        final BaseAsset asset = createAsset(channel("a", "500"), channel("b", "500"), channel("c", null));
+
+        final List<ReadGroup> groups = asset.getDueReadGroups();
+        assertEquals(2, groups.size());
+        assertEquals(1, groups.get(0).channels.size());
+        assertEquals(2, groups.get(1).channels.size());
+    }
+
+    private BaseAsset createAsset(final Channel... channels) throws NoSuchFieldException {
+        final Map<String, Channel> channelMap = new HashMap<>();
+        for (final Channel channel : channels) {
+            channelMap.put(channel.getName(), channel);
+        }
+
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put(ConfigurationService.KURA_SERVICE_PID, "asset");
+
+        final BaseAsset asset = new BaseAsset(() -> this.now);
+        TestUtil.setFieldValue(asset, "properties", properties);
+        TestUtil.setFieldValue(asset, "assetConfiguration", new AssetConfiguration("description", "driver", channelMap));
+        asset.setDriver(mock(Driver.class));
+        return asset;
+    }
+
+    private static Channel channel(final String name, final String pollInterval) {
+        final Map<String, Object> configuration = new HashMap<>();
+        if (pollInterval != null) {
+            configuration.put("+poll.interval", pollInterval);
+        }
+        return new Channel(name, ChannelType.READ, DataType.INTEGER, configuration);
+    }
+
+    private static List<Long> pollIntervals(final List<ReadGroup> groups) {
+        final List<Long> pollIntervals = new ArrayList<>();
+        for (final ReadGroup group : groups) {
+            pollIntervals.add(group.pollInterval);
+        }
+        return pollIntervals;
+    }
+}
@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.kura.internal.asset.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.KuraErrorCode;
+import org.eclipse.kura.KuraException;
+import org.eclipse.kura.driver.Driver;
+import org.eclipse.kura.driver.Driver.ConnectionException;
+import org.junit.After;
+import org.junit.Test;
+
+public class DriverExecutorsTest {
+
+    private static final int QUEUE_CAPACITY = 64;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @After
+    public void tearDown() {
+        this.release.countDown();
+        DriverExecutors.shutdown();
+    }
+
+    @Test
+    public void testResult() throws Exception {
+        final CompletableFuture<String> result = DriverExecutors.submit(mock(Driver.class),
+                () -> CompletableFuture.completedFuture("value"), 5, TimeUnit.SECONDS);
+
+        assertEquals("value", result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testConnectionFailure() throws Exception {
+        final CompletableFuture<Void> result = DriverExecutors.submit(mock(Driver.class), () -> {
+            throw new ConnectionException();
+        }, 5, TimeUnit.SECONDS);
+
+        assertFailure(KuraErrorCode.CONNECTION_FAILED, result);
+    }
+
+    @Test
+    public void testTimeoutCancelsOperationResult() throws Exception {
+        final CompletableFuture<Void> operationResult = new CompletableFuture<>();
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        operationResult.whenComplete((value, e) -> cancelled.countDown());
+        final CompletableFuture<Void> result = DriverExecutors.submit(mock(Driver.class), () -> operationResult, 100,
+                TimeUnit.MILLISECONDS);
+
+        assertFailure(KuraErrorCode.TIMED_OUT, result);
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        assertTrue(operationResult.isCancelled());
+    }
+
+    @Test
+    public void testTimeoutInterruptsBlockedDriver() throws Exception {
+        final Driver driver = mock(Driver.class);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+
+        final CompletableFuture<Void> result = DriverExecutors.submit(driver, () -> {
+            try {
+                this.release.await();
+            } catch (final InterruptedException e) {
+                interrupted.countDown();
+            }
+            return CompletableFuture.completedFuture(null);
+        }, 100, TimeUnit.MILLISECONDS);
+
+        assertFailure(KuraErrorCode.TIMED_OUT, result);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+
+        // the driver thread is available again
+        assertEquals("next", DriverExecutors
+                .submit(driver, () -> CompletableFuture.completedFuture("next"), 5, TimeUnit.SECONDS)
+                .get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testQueueFull() throws Exception {
+        final Driver driver = mock(Driver.class);
+        final CountDownLatch started = new CountDownLatch(1);
+        submitHungOperation(driver, started);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        final List<CompletableFuture<Void>> queued = new ArrayList<>();
+        for (int i = 0; i < QUEUE_CAPACITY; i++) {
+            queued.add(DriverExecutors.submit(driver, () -> CompletableFuture.completedFuture(null), 10,
+                    TimeUnit.SECONDS));
+        }
+        for (final CompletableFuture<Void> result : queued) {
+            assertTrue(!result.isDone());
+        }
+
+        assertFailure(KuraErrorCode.INTERNAL_ERROR, DriverExecutors.submit(driver,
+                () -> CompletableFuture.completedFuture(null), 10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTimedOutOperationsLeaveTheQueue() throws Exception {
+        final Driver driver = mock(Driver.class);
+        final CountDownLatch started = new CountDownLatch(1);
+        submitHungOperation(driver, started);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // a driver that ignores interruptions keeps its thread busy, but the timed out operations do not fill
+        // the queue
+        for (int round = 0; round < 3; round++) {
+            final List<CompletableFuture<Void>> queued = new ArrayList<>();
+            for (int i = 0; i < QUEUE_CAPACITY; i++) {
+                queued.add(DriverExecutors.submit(driver, () -> CompletableFuture.completedFuture(null), 100,
+                        TimeUnit.MILLISECONDS));
+            }
+            for (final CompletableFuture<Void> result : queued) {
+                assertFailure(KuraErrorCode.TIMED_OUT, result);
+            }
+        }
+    }
+
+    @Test
+    public void testPerDriverOrdering() throws Exception {
+        final Driver driver = mock(Driver.class);
+        final List<Integer> order = new CopyOnWriteArrayList<>();
+        final Set<Thread> threads = new CopyOnWriteArraySet<>();
+
+        final List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final int index = i;
+            results.add(DriverExecutors.submit(driver, () -> {
+                order.add(index);
+                threads.add(Thread.currentThread());
+                return CompletableFuture.completedFuture(null);
+            }, 5, TimeUnit.SECONDS));
+        }
+        for (final CompletableFuture<Void> result : results) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(Integer.valueOf(i), order.get(i));
+        }
+        assertEquals(1, threads.size());
+    }
+
+    @Test
+    public void testDriversRunInParallel() throws Exception {
+        final CountDownLatch started = new CountDownLatch(2);
+        final List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            results.add(DriverExecutors.submit(mock(Driver.class), () -> {
+                started.countDown();
+                started.await(5, TimeUnit.SECONDS);
+                return CompletableFuture.completedFuture(null);
+            }, 5, TimeUnit.SECONDS));
+        }
+
+        for (final CompletableFuture<Void> result : results) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(0, started.getCount());
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        final Driver driver = mock(Driver.class);
+        final CountDownLatch started = new CountDownLatch(1);
+        submitHungOperation(driver, started);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final CompletableFuture<Void> pending = DriverExecutors.submit(driver,
+                () -> CompletableFuture.completedFuture(null), 10, TimeUnit.SECONDS);
+
+        DriverExecutors.shutdown();
+        assertFailure(KuraErrorCode.INTERNAL_ERROR, pending);
+
+        // the executors are created again on demand
+        assertEquals("value", DriverExecutors
+                .submit(driver, () -> CompletableFuture.completedFuture("value"), 5, TimeUnit.SECONDS)
+                .get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Submits an operation that blocks the driver thread until the end of the test, ignoring interruptions.
+     */
+    private void submitHungOperation(final Driver driver, final CountDownLatch started) {
+        DriverExecutors.submit(driver, () -> {
+            started.countDown();
+            while (this.release.getCount() > 0) {
+                try {
+                    this.release.await();
+                } catch (final InterruptedException e) {
+                    // ignore
+                }
+            }
+            return CompletableFuture.completedFuture(null);
+        }, 100, TimeUnit.MILLISECONDS);
+    }
+
+    private static void assertFailure(final KuraErrorCode expected, final CompletableFuture<?> result)
+            throws Exception {
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            fail("Exception expected");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof KuraException);
+            assertEquals(expected, ((KuraException) e.getCause()).getCode());
+        }
+    }
+}
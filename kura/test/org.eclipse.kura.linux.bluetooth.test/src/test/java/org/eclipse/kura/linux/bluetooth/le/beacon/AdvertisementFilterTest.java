@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+
+package org.eclipse.kura.linux.bluetooth.le.beacon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AdvertisementFilterTest {
+
+    private static final long INTERVAL = 1000;
+
+    @Test
+    public void testDuplicates() {
+        AdvertisementFilter filter = new AdvertisementFilter(16, INTERVAL);
+        long now = System.nanoTime();
+
+        assertTrue(filter.accept(report(1, 0x01, -70), now));
+        // same data, only the rssi changed
+        assertFalse(filter.accept(report(1, 0x01, -72), now + TimeUnit.MILLISECONDS.toNanos(100)));
+        assertTrue(filter.accept(report(2, 0x01, -70), now + TimeUnit.MILLISECONDS.toNanos(100)));
+        // the data changed
+        assertTrue(filter.accept(report(1, 0x02, -70), now + TimeUnit.MILLISECONDS.toNanos(200)));
+        assertFalse(filter.accept(report(1, 0x02, -70), now + TimeUnit.MILLISECONDS.toNanos(900)));
+        // the interval elapsed
+        assertTrue(filter.accept(report(1, 0x02, -70), now + TimeUnit.MILLISECONDS.toNanos(1200)));
+    }
+
+    @Test
+    public void testBoundedCache() {
+        AdvertisementFilter filter = new AdvertisementFilter(4, INTERVAL);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(filter.accept(report(i, 0x01, -70), now));
+        }
+        assertEquals(4, filter.size());
+
+        // the least recently seen addresses have been forgotten
+        assertTrue(filter.accept(report(0, 0x01, -70), now));
+        assertFalse(filter.accept(report(9, 0x01, -70), now));
+    }
+
+    @Test
+    public void testDataComparedByteByByte() {
+        AdvertisementFilter filter = new AdvertisementFilter(16, INTERVAL);
+        long now = System.nanoTime();
+
+        // the two payloads have the same 31 based polynomial hash
+        assertTrue(filter.accept(report(1, 0xFF, 0x01, -70), now));
+        assertTrue(filter.accept(report(1, 0xFE, 0x20, -70), now + TimeUnit.MILLISECONDS.toNanos(100)));
+        assertFalse(filter.accept(report(1, 0xFE, 0x20, -70), now + TimeUnit.MILLISECONDS.toNanos(200)));
+    }
+
+    private static AdvertisingReport report(int address, int value, int rssi) {
+        return report(address, 0xFF, value, rssi);
+    }
+
+    private static AdvertisingReport report(int address, int adType, int value, int rssi) {
+        byte[] packet = { 0x04, 0x3E, 0x12, 0x02, 0x01, 0x00, 0x01, (byte) address, 0x00, 0x00, 0x00, 0x00, 0x00,
+                0x06, 0x02, 0x01, 0x06, 0x02, (byte) adType, (byte) value, (byte) rssi };
+        AdvertisingReportDecoder decoder = new AdvertisingReportDecoder();
+        assertEquals(1, decoder.decode(packet, packet.length));
+        return decoder.getReport(0);
+    }
+}
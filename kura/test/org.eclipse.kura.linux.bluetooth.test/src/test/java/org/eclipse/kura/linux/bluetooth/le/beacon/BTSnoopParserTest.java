@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+
+package org.eclipse.kura.linux.bluetooth.le.beacon;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.kura.bluetooth.BluetoothBeaconData;
+import org.eclipse.kura.bluetooth.listener.BluetoothAdvertisementData;
+import org.junit.Test;
+
+public class BTSnoopParserTest {
+
+    /**
+     * Capture of an LE scan with duplicates: two iBeacons, one repeated, a named device, an ACL data packet, a beacon
+     * of another company and a truncated report.
+     */
+    private static final String CAPTURE = "src/test/resources/le_advertising_reports.btsnoop";
+
+    private static final int APPLE = 0x004C;
+    private static final String UUID = "E2C56DB5DFFB48D2B060D0F5A71096E0";
+
+    @Test
+    public void testReadRecords() throws IOException {
+        List<byte[]> records = readCapture();
+
+        // the ACL data packet does not fit the event buffer
+        assertEquals(8, records.size());
+        assertArrayEquals(new byte[] { 0x01, 0x0C, 0x20, 0x02, 0x01, 0x00 }, records.get(0));
+        assertArrayEquals(new byte[] { 0x04, 0x0E, 0x04, 0x01, 0x0C, 0x20, 0x00 }, records.get(1));
+    }
+
+    @Test
+    public void testReadRecordAllocating() throws IOException {
+        InputStream is = new FileInputStream(CAPTURE);
+        try {
+            BTSnoopParser parser = new BTSnoopParser();
+            parser.setInputStream(is);
+
+            for (int i = 0; i < 9; i++) {
+                parser.readRecord();
+            }
+            try {
+                parser.readRecord();
+            } catch (EOFException e) {
+                return;
+            }
+        } finally {
+            is.close();
+        }
+        throw new AssertionError("EOFException expected");
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotBTSnoop() throws IOException {
+        BTSnoopParser parser = new BTSnoopParser();
+        parser.setInputStream(new ByteArrayInputStream("not a btsnoop file".getBytes()));
+
+        parser.readRecord(new byte[BTSnoopParser.MAX_EVENT_RECORD_LENGTH]);
+    }
+
+    @Test
+    public void testDecodeBeacons() throws IOException {
+        AdvertisingReportDecoder decoder = new AdvertisingReportDecoder();
+        List<BluetoothBeaconData> beacons = new ArrayList<BluetoothBeaconData>();
+        int reports = 0;
+
+        for (byte[] record : readCapture()) {
+            int count = decoder.decode(record, record.length);
+            reports += count;
+            for (int i = 0; i < count; i++) {
+                BluetoothBeaconData beaconData = decoder.getReport(i).newBeaconData(APPLE);
+                if (beaconData != null) {
+                    beacons.add(beaconData);
+                }
+            }
+        }
+
+        // the truncated report is discarded
+        assertEquals(5, reports);
+        assertEquals(3, beacons.size());
+
+        BluetoothBeaconData beaconData = beacons.get(0);
+        assertEquals(UUID, beaconData.uuid);
+        assertEquals("AA:BB:CC:DD:EE:01", beaconData.address);
+        assertEquals(1, beaconData.major);
+        assertEquals(2, beaconData.minor);
+        assertEquals(-59, beaconData.txpower);
+        assertEquals(-70, beaconData.rssi);
+
+        assertEquals(-72, beacons.get(1).rssi);
+        assertEquals("AA:BB:CC:DD:EE:02", beacons.get(2).address);
+        assertEquals(3, beacons.get(2).minor);
+    }
+
+    @Test
+    public void testDecodeLocalName() throws IOException {
+        AdvertisingReportDecoder decoder = new AdvertisingReportDecoder();
+        byte[] record = readCapture().get(5);
+
+        assertEquals(1, decoder.decode(record, record.length));
+
+        AdvertisingReport report = decoder.getReport(0);
+        assertEquals(0x112233445566L, report.getAddress());
+        assertEquals("11:22:33:44:55:66", report.getAddressString());
+        assertEquals("Kura Sensor", report.getLocalName());
+        assertEquals(-80, report.getRssi());
+        assertNull(report.newBeaconData(APPLE));
+
+        BluetoothAdvertisementData advertisementData = decoder.newAdvertisementData(record, record.length);
+        assertEquals(1, advertisementData.getNumberOfReports());
+        assertEquals("11:22:33:44:55:66", advertisementData.getReportRecords().get(0).getAddress());
+        assertEquals(report.getDataLength(), advertisementData.getReportRecords().get(0).getReportData().length);
+    }
+
+    private static List<byte[]> readCapture() throws IOException {
+        List<byte[]> records = new ArrayList<byte[]>();
+        InputStream is = new FileInputStream(CAPTURE);
+        try {
+            BTSnoopParser parser = new BTSnoopParser();
+            parser.setInputStream(is);
+
+            byte[] buffer = new byte[BTSnoopParser.MAX_EVENT_RECORD_LENGTH];
+            int length;
+            while ((length = parser.readRecord(buffer)) >= 0) {
+                byte[] record = new byte[length];
+                System.arraycopy(buffer, 0, record, 0, length);
+                records.add(record);
+            }
+        } finally {
+            is.close();
+        }
+        return records;
+    }
+}
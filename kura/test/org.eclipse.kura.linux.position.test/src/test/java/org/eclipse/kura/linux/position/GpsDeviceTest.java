@@ -11,6 +11,7 @@ package org.eclipse.kura.linux.position;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -24,6 +25,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -101,7 +103,7 @@ public class GpsDeviceTest implements PositionListener {
         InputStream is = mock(InputStream.class);
         when(connMock.openInputStream()).thenReturn(is);
 
-        when(is.read()).thenThrow(new IOException("test"));
+        when(is.read(any(byte[].class))).thenThrow(new IOException("test"));
 
         gps.configureConnection(connFactoryMock, connectionConfig);
 
@@ -152,6 +154,70 @@ public class GpsDeviceTest implements PositionListener {
         }
     }
 
+    @Test
+    public void testDeviceListener() throws PositionException, IOException, InterruptedException {
+        // the validity changes and every new position are notified, the unchanged positions are not
+        gps = new GpsDevice();
+
+        final List<String> notifications = new ArrayList<String>();
+        final List<NmeaPosition> positions = new ArrayList<NmeaPosition>();
+        final CountDownLatch notified = new CountDownLatch(5);
+        gps.setDeviceListener(new GpsDevice.DeviceListener() {
+
+            @Override
+            public void onValidityChanged(boolean validPosition) {
+                notifications.add("valid " + validPosition);
+                notified.countDown();
+            }
+
+            @Override
+            public void onPositionChanged(NmeaPosition position) {
+                // the published position is the one passed to the listener
+                assertEquals(gps.getNmeaPosition().getLatitude(), position.getLatitude(), EPS);
+                notifications.add("position");
+                positions.add(position);
+                notified.countDown();
+            }
+        });
+
+        Properties connectionConfig = new Properties();
+        connectionConfig.setProperty("port", "1");
+        connectionConfig.setProperty("baudRate", "9600");
+        connectionConfig.setProperty("stopBits", "1");
+        connectionConfig.setProperty("parity", "0");
+        connectionConfig.setProperty("bitsPerWord", "8");
+
+        ConnectionFactory connFactoryMock = mock(ConnectionFactory.class);
+        CommConnection connMock = mock(CommConnection.class);
+        when(connFactoryMock.createConnection(anyString(), eq(1), eq(false))).thenReturn(connMock);
+
+        String nmeaStr = "$GPGGA,121041.000,4655.3772,N,01513.6390,E,1,06,1.7,478.3,M,44.7,M,,0000*5d\r\n"
+                + "$GPGSA,A,3,25,23,07,27,20,04,,,,,,,4.9,1.7,4.6*39\r\n"
+                + "$GPGSA,A,3,25,23,07,27,20,04,,,,,,,4.9,1.7,4.6*39\r\n"
+                + "$GPGGA,121042.000,4655.3800,N,01513.6390,E,1,06,1.7,478.3,M,44.7,M,,0000*54\r\n"
+                + "$GPGGA,121042.000,4655.3772,N,01513.6390,E,0,06,1.7,478.3,M,44.7,M,,0000*5f\r\n";
+        InputStream is = new ByteArrayInputStream(nmeaStr.getBytes());
+        when(connMock.openInputStream()).thenReturn(is);
+
+        gps.configureConnection(connFactoryMock, connectionConfig);
+
+        assertTrue(notified.await(1, TimeUnit.SECONDS));
+        // the stream is over, nothing else is notified
+        Thread.sleep(100);
+
+        gps.disconnect();
+
+        assertEquals(Arrays.asList("valid true", "position", "position", "position", "valid false"), notifications);
+        assertEquals(46.922953, positions.get(0).getLatitude(), EPS);
+        assertEquals(0.0, positions.get(0).getPDOP(), EPS);
+        assertEquals(46.922953, positions.get(1).getLatitude(), EPS);
+        assertEquals(4.9, positions.get(1).getPDOP(), EPS);
+        assertEquals(46.923, positions.get(2).getLatitude(), EPS);
+        assertEquals(4.9, positions.get(2).getPDOP(), EPS);
+        assertFalse(gps.isValidPosition());
+        assertEquals(46.923, gps.getNmeaPosition().getLatitude(), EPS);
+    }
+
     @Override
     public void newNmeaSentence(String nmeaSentence) {
         int max = visits.length - 1;
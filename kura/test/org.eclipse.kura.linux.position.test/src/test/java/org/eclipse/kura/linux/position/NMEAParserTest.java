@@ -12,6 +12,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.charset.StandardCharsets;
+
 import org.junit.Test;
 
 
@@ -247,4 +249,38 @@ public class NMEAParserTest {
         assertEquals(12.34 / 3.6, parser.getSpeedNmea(), EPS);
     }
 
+    @Test
+    public void testParseSentenceBytesWithLineTerminator() {
+        NMEAParser parser = new NMEAParser();
+
+        byte[] sentence = "$GPGGA,121041.000,4655.3772,S,01513.6390,W,1,06,1.7,478.3,M,44.7,M,,0000*5d\r\n garbage"
+                .getBytes(StandardCharsets.US_ASCII);
+        parser.parseSentence(sentence, sentence.length - 8);
+
+        assertTrue(parser.isValidPosition());
+        assertEquals("121041.000", parser.getTimeNmea());
+        assertEquals(-46.922953, parser.getLatNmea(), EPS);
+        assertEquals(-15.227317, parser.getLongNmea(), EPS);
+        assertEquals(6, parser.getNrSatellites());
+        assertEquals(478.3, parser.getAltNmea(), EPS);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseSentenceInvalidNumber() {
+        NMEAParser parser = new NMEAParser();
+
+        parser.parseSentence("$GPGGA,121041.000,4655.3772,N,01513.6390,E,1,06,1.x,478.3,M,44.7,M,,0000*5d");
+    }
+
+    @Test
+    public void testChecksum() {
+        byte[] valid = "$GPGSA,A,3,25,23,07,27,20,04,,,,,,,4.9,1.7,4.6*39\n".getBytes(StandardCharsets.US_ASCII);
+        byte[] invalid = "$GNTXT,some text with failing checksum,*4a\n".getBytes(StandardCharsets.US_ASCII);
+        byte[] missing = "$GNTXT,some text without checksum\n".getBytes(StandardCharsets.US_ASCII);
+
+        assertTrue(NMEAParser.isChecksumValid(valid, valid.length));
+        assertFalse(NMEAParser.isChecksumValid(invalid, invalid.length));
+        assertFalse(NMEAParser.isChecksumValid(missing, missing.length));
+    }
+
 }
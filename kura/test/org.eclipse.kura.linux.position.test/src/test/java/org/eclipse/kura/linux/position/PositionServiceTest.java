@@ -15,6 +15,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -24,14 +25,19 @@ import static org.mockito.Mockito.when;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.kura.comm.CommConnection;
 import org.eclipse.kura.core.testutil.TestUtil;
 import org.eclipse.kura.net.modem.ModemGpsEnabledEvent;
+import org.eclipse.kura.position.NmeaPosition;
 import org.eclipse.kura.position.PositionLockedEvent;
 import org.eclipse.kura.usb.UsbDeviceAddedEvent;
 import org.eclipse.kura.usb.UsbDeviceRemovedEvent;
@@ -187,7 +193,7 @@ public class PositionServiceTest {
             o.wait(1000);
         }
 
-        verify(eventAdminMock, times(1)).postEvent(anyObject());
+        verify(eventAdminMock, times(1)).postEvent(isA(PositionLockedEvent.class));
 
         assertTrue(ps.isLocked());
         assertNotNull(ps.getNmeaPosition());
@@ -198,6 +204,76 @@ public class PositionServiceTest {
         assertFalse(ps.isLocked());
     }
 
+    @Test
+    public void testPositionUpdated() throws IOException, InterruptedException {
+        PositionServiceImpl ps = new PositionServiceImpl();
+
+        EventAdmin eventAdminMock = mock(EventAdmin.class);
+        ps.setEventAdmin(eventAdminMock);
+
+        UsbService usbServiceMock = mock(UsbService.class);
+        ps.setUsbService(usbServiceMock);
+
+        List<UsbTtyDevice> usbDevices = new ArrayList<UsbTtyDevice>();
+        UsbTtyDevice usbDev = mock(UsbTtyDevice.class);
+        when(usbDev.getUsbPort()).thenReturn("port");
+        when(usbDev.getDeviceNode()).thenReturn("node");
+        usbDevices.add(usbDev);
+        when(usbServiceMock.getUsbTtyDevices()).thenReturn(usbDevices);
+
+        ConnectionFactory connFactoryMock = mock(ConnectionFactory.class);
+        CommConnection connMock = mock(CommConnection.class);
+        when(connFactoryMock.createConnection(anyString(), eq(1), eq(false))).thenReturn(connMock);
+        ps.setConnectionFactory(connFactoryMock);
+
+        BundleContext bundleContextMock = mock(BundleContext.class);
+        when(bundleContextMock.registerService(eq(EventHandler.class.getName()), anyObject(), anyObject()))
+                .thenReturn(null);
+
+        ComponentContext ctxMock = mock(ComponentContext.class);
+        when(ctxMock.getBundleContext()).thenReturn(bundleContextMock);
+
+        // the sentences are sent once the service is configured
+        PipedOutputStream gps = new PipedOutputStream();
+        when(connMock.openInputStream()).thenReturn(new PipedInputStream(gps));
+
+        List<Event> events = new ArrayList<Event>();
+        CountDownLatch posted = new CountDownLatch(3);
+        doAnswer(invocation -> {
+            events.add(invocation.getArgumentAt(0, Event.class));
+            posted.countDown();
+            return null;
+        }).when(eventAdminMock).postEvent(anyObject());
+
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put("enabled", true);
+        properties.put("static", false);
+        properties.put("port", "port");
+        properties.put("baudRate", 9600);
+        properties.put("stopBits", 0);
+        properties.put("parity", 0);
+        properties.put("bitsPerWord", 1);
+
+        ps.activate(ctxMock, properties);
+
+        gps.write(("$GPGGA,121041.000,4655.3772,N,01513.6390,E,1,06,1.7,478.3,M,44.7,M,,0000*5d\n"
+                + "$GPGGA,121042.000,4655.3800,N,01513.6390,E,1,06,1.7,478.3,M,44.7,M,,0000*54\n").getBytes());
+        gps.flush();
+
+        assertTrue(posted.await(1, TimeUnit.SECONDS));
+
+        ps.deactivate(ctxMock);
+        gps.close();
+
+        assertTrue(events.get(0) instanceof PositionLockedEvent);
+        assertEquals(PositionServiceImpl.POSITION_UPDATED_EVENT_TOPIC, events.get(1).getTopic());
+        assertEquals(46.922953,
+                ((NmeaPosition) events.get(1).getProperty(PositionServiceImpl.POSITION_PROPERTY)).getLatitude(), EPS);
+        assertEquals(PositionServiceImpl.POSITION_UPDATED_EVENT_TOPIC, events.get(2).getTopic());
+        assertEquals(46.923,
+                ((NmeaPosition) events.get(2).getProperty(PositionServiceImpl.POSITION_PROPERTY)).getLatitude(), EPS);
+    }
+
     @Test
     public void testHandleEventUsb() throws IOException, NoSuchFieldException {
         PositionServiceImpl ps = new PositionServiceImpl();
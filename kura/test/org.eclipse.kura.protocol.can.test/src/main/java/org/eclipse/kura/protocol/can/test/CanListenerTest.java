@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.protocol.can.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.protocol.can.CanConnectionServiceImpl;
+import org.eclipse.kura.protocol.can.CanMessage;
+import org.eclipse.kura.protocol.can.CanMessageListener;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Exercises the listener API on a virtual CAN interface, the tests are skipped if the interface is not available.
+ * <p>
+ * The interface can be created with:
+ *
+ * <pre>
+ * ip link add dev vcan0 type vcan
+ * ip link set up vcan0
+ * </pre>
+ */
+public class CanListenerTest {
+
+    private static final String IF_NAME = "vcan0";
+    private static final long TIMEOUT_MS = 5000;
+
+    private TestCanConnectionService canConnection;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(new File("/sys/class/net/" + IF_NAME).exists());
+        this.canConnection = new TestCanConnectionService();
+        this.canConnection.activate();
+    }
+
+    @After
+    public void tearDown() {
+        if (this.canConnection != null) {
+            this.canConnection.deactivate();
+        }
+    }
+
+    @Test
+    public void testFiltersAndBatches() throws Exception {
+        final RecordingListener exact = new RecordingListener();
+        final CountDownLatch sent = new CountDownLatch(1);
+        // the first delivery blocks until the burst has been sent, the following frames are queued meanwhile
+        final RecordingListener all = new RecordingListener(sent);
+        this.canConnection.registerCanMessageListener(IF_NAME, 0x100, 0x7FF, exact);
+        this.canConnection.registerCanMessageListener(IF_NAME, 0, 0, all);
+
+        for (int i = 0; i < 1000; i++) {
+            this.canConnection.sendCanMessage(IF_NAME, i % 2 == 0 ? 0x100 : 0x200, new byte[] { (byte) i });
+        }
+        Thread.sleep(100);
+        sent.countDown();
+
+        all.await(1000);
+        exact.await(500);
+        final List<CanMessage> received = all.getMessages();
+        assertEquals(1000, received.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 0 ? 0x100 : 0x200, received.get(i).getCanId());
+            assertArrayEquals(new byte[] { (byte) i }, received.get(i).getData());
+        }
+        final List<CanMessage> filtered = exact.getMessages();
+        assertEquals(500, filtered.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(0x100, filtered.get(i).getCanId());
+            assertArrayEquals(new byte[] { (byte) (2 * i) }, filtered.get(i).getData());
+        }
+        // the queued frames have been combined, at most 256 frames per batch
+        assertTrue("Frames not batched: " + all.getBatches(), all.getBatches() < received.size() / 2);
+        assertTrue(all.getBatches() >= (received.size() + 255) / 256);
+    }
+
+    @Test
+    public void testMultipleFilters() throws Exception {
+        final RecordingListener listener = new RecordingListener();
+        this.canConnection.registerCanMessageListener(IF_NAME, 0x100, 0x7FF, listener);
+        this.canConnection.registerCanMessageListener(IF_NAME, 0x12345, 0x1FFFFFFF, listener);
+        this.canConnection.registerCanMessageListener(IF_NAME, 0x100, 0x700, listener);
+
+        this.canConnection.sendCanMessage(IF_NAME, 0x300, new byte[] { 1 });
+        this.canConnection.sendCanMessage(IF_NAME, 0x100, new byte[] { 2 });
+        this.canConnection.sendCanMessage(IF_NAME, 0x12345, new byte[] { 3 });
+        this.canConnection.sendCanMessage(IF_NAME, 0x1AB, new byte[] { 4 });
+
+        listener.await(3);
+        final List<CanMessage> received = listener.getMessages();
+        assertEquals(3, received.size());
+        assertEquals(0x100, received.get(0).getCanId());
+        assertEquals(0x12345, received.get(1).getCanId());
+        assertEquals(0x1AB, received.get(2).getCanId());
+    }
+
+    @Test
+    public void testUnregister() throws Exception {
+        final RecordingListener removed = new RecordingListener();
+        final RecordingListener kept = new RecordingListener();
+        this.canConnection.registerCanMessageListener(IF_NAME, 0, 0, removed);
+        this.canConnection.registerCanMessageListener(IF_NAME, 0, 0, kept);
+        this.canConnection.unregisterCanMessageListener(removed);
+
+        this.canConnection.sendCanMessage(IF_NAME, 0x10, new byte[0]);
+
+        kept.await(1);
+        assertEquals(0, removed.getMessages().size());
+    }
+
+    private static final class TestCanConnectionService extends CanConnectionServiceImpl {
+
+        @Override
+        protected void activate() {
+            super.activate();
+        }
+
+        @Override
+        protected void deactivate() {
+            super.deactivate();
+        }
+
+        @Override
+        protected boolean isLoopbackEnabled() {
+            // the frames sent by the tests are received by the listeners of the same host
+            return true;
+        }
+    }
+
+    private static final class RecordingListener implements CanMessageListener {
+
+        private final List<CanMessage> messages = new ArrayList<>();
+        private final CountDownLatch gate;
+        private int batches;
+
+        RecordingListener() {
+            this(new CountDownLatch(0));
+        }
+
+        RecordingListener(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void onCanMessages(String ifName, List<CanMessage> received) {
+            try {
+                this.gate.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            record(ifName, received);
+        }
+
+        private synchronized void record(String ifName, List<CanMessage> received) {
+            assertEquals(IF_NAME, ifName);
+            this.messages.addAll(received);
+            this.batches++;
+            notifyAll();
+        }
+
+        synchronized void await(int count) throws InterruptedException {
+            final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+            while (this.messages.size() < count) {
+                final long remaining = end - System.nanoTime();
+                assertTrue("Timeout waiting for " + count + " frames", remaining > 0);
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        }
+
+        synchronized List<CanMessage> getMessages() {
+            return new ArrayList<>(this.messages);
+        }
+
+        synchronized int getBatches() {
+            return this.batches;
+        }
+    }
+}
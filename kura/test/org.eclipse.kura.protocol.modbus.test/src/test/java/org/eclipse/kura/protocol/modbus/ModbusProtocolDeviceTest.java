@@ -13,7 +13,13 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.kura.KuraConnectionStatus;
 import org.eclipse.kura.protocol.modbus.test.ModbusServer;
@@ -48,15 +54,23 @@ public class ModbusProtocolDeviceTest {
 
     @Before
     public void connect() throws ModbusProtocolException {
-        modbusDevice = new ModbusProtocolDevice();
+        modbusDevice = createDevice(null);
+    }
+
+    private static ModbusProtocolDevice createDevice(String pipelineDepth) throws ModbusProtocolException {
+        ModbusProtocolDevice device = new ModbusProtocolDevice();
         Properties connectionConfig = new Properties();
         connectionConfig.setProperty("connectionType", ModbusProtocolDevice.PROTOCOL_CONNECTION_TYPE_ETHER_TCP);
         connectionConfig.setProperty("ipAddress", "127.0.0.1");
         connectionConfig.setProperty("ethport", "32345");
         connectionConfig.setProperty("respTimeout", "10000");
         connectionConfig.setProperty("transmissionMode", ModbusTransmissionMode.RTU);
-        modbusDevice.configureConnection(connectionConfig);
-        modbusDevice.connect();
+        if (pipelineDepth != null) {
+            connectionConfig.setProperty("pipelineDepth", pipelineDepth);
+        }
+        device.configureConnection(connectionConfig);
+        device.connect();
+        return device;
     }
 
     @After
@@ -125,4 +139,67 @@ public class ModbusProtocolDeviceTest {
         assertEquals(10, inputRegs[0]);
     }
 
+    @Test
+    public void testMultipleTransactionsOnConnection() throws ModbusProtocolException {
+        for (int i = 0; i < 100; i++) {
+            int[] holdingRegs = modbusDevice.readHoldingRegisters(1, i, 3);
+            assertEquals(3, holdingRegs.length);
+            assertEquals(i + 2, holdingRegs[0]);
+            assertEquals(i + 4, holdingRegs[2]);
+        }
+    }
+
+    @Test
+    public void testPipelinedTransactions() throws Exception {
+        ModbusProtocolDevice pipelinedDevice = createDevice("4");
+        try {
+            modbusServer.getAndResetMaxBatchSize();
+            int maxBatchSize = readConcurrently(pipelinedDevice, 8);
+            assertTrue(maxBatchSize > 1);
+            assertTrue(maxBatchSize <= 4);
+        } finally {
+            pipelinedDevice.disconnect();
+        }
+    }
+
+    @Test
+    public void testNoPipeliningByDefault() throws Exception {
+        modbusServer.getAndResetMaxBatchSize();
+        assertEquals(1, readConcurrently(modbusDevice, 4));
+    }
+
+    @Test(expected = ModbusProtocolException.class)
+    public void testInvalidPipelineDepth() throws ModbusProtocolException {
+        createDevice("0");
+    }
+
+    private static int readConcurrently(final ModbusProtocolDevice device, int threadCount) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        modbusServer.setBatchDelay(50);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                final int address = i * 100;
+                results.add(executor.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() throws Exception {
+                        for (int j = 0; j < 5; j++) {
+                            int[] inputRegs = device.readInputRegisters(1, address + j, 2);
+                            assertEquals(address + j + 2, inputRegs[0]);
+                            assertEquals(address + j + 3, inputRegs[1]);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            modbusServer.setBatchDelay(0);
+            executor.shutdown();
+        }
+        return modbusServer.getAndResetMaxBatchSize();
+    }
 }
@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+
+package org.eclipse.kura.protocol.modbus;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.protocol.modbus.test.SerialPortEmulator;
+import org.junit.After;
+import org.junit.Test;
+
+public class ModbusSerialTest {
+
+    private ModbusProtocolDevice modbusDevice;
+    private SerialPortEmulator emulator;
+
+    @After
+    public void disconnect() throws ModbusProtocolException {
+        if (modbusDevice != null) {
+            modbusDevice.disconnect();
+        }
+    }
+
+    @Test
+    public void testReadHoldingRegisters() throws ModbusProtocolException {
+        connect(115200, ModbusTransmissionMode.RTU, 1000, (request, port) -> port.send(rtu(readResponse(request))));
+
+        int[] registers = modbusDevice.readHoldingRegisters(1, 10, 3);
+        assertArrayEquals(new int[] { 12, 13, 14 }, registers);
+        registers = modbusDevice.readInputRegisters(1, 20, 1);
+        assertArrayEquals(new int[] { 22 }, registers);
+    }
+
+    @Test
+    public void testWriteSingleRegister() throws ModbusProtocolException {
+        connect(115200, ModbusTransmissionMode.RTU, 1000, (request, port) -> port.send(request));
+
+        modbusDevice.writeSingleRegister(1, 3, 37);
+    }
+
+    @Test
+    public void testReceiveTimeout() throws ModbusProtocolException {
+        connect(115200, ModbusTransmissionMode.RTU, 1000, (request, port) -> port.send(request));
+        // 1.75 ms silent interval above 19200 baud
+        assertEquals(2, emulator.getURI().getReceiveTimeout());
+        disconnect();
+
+        connect(9600, ModbusTransmissionMode.RTU, 1000, (request, port) -> port.send(request));
+        // 3.5 characters of 10 bits (8N1)
+        assertEquals(4, emulator.getURI().getReceiveTimeout());
+    }
+
+    @Test
+    public void testFragmentedResponse() throws ModbusProtocolException {
+        connect(9600, ModbusTransmissionMode.RTU, 1000, (request, port) -> {
+            byte[] response = rtu(readResponse(request));
+            port.send(Arrays.copyOfRange(response, 0, 2));
+            port.pause(1000);
+            port.send(Arrays.copyOfRange(response, 2, 5));
+            port.pause(2000);
+            port.send(Arrays.copyOfRange(response, 5, response.length));
+        });
+
+        assertArrayEquals(new int[] { 2, 3, 4, 5 }, modbusDevice.readHoldingRegisters(1, 0, 4));
+    }
+
+    @Test
+    public void testNoiseBeforeResponse() throws ModbusProtocolException {
+        connect(115200, ModbusTransmissionMode.RTU, 1000, (request, port) -> {
+            port.send((byte) 0, (byte) 0xff, (byte) 0);
+            port.send(rtu(readResponse(request)));
+        });
+
+        assertArrayEquals(new int[] { 7 }, modbusDevice.readHoldingRegisters(1, 5, 1));
+    }
+
+    @Test
+    public void testBadCrc() throws ModbusProtocolException {
+        connect(115200, ModbusTransmissionMode.RTU, 1000, (request, port) -> {
+            byte[] response = rtu(readResponse(request));
+            response[response.length - 1]++;
+            port.send(response);
+        });
+
+        expectFailure(ModbusProtocolErrorCode.TRANSACTION_FAILURE);
+    }
+
+    @Test
+    public void testExceptionResponse() throws ModbusProtocolException {
+        connect(115200, ModbusTransmissionMode.RTU, 1000,
+                (request, port) -> port.send(rtu(new byte[] { request[0], (byte) (request[1] | 0x80), 2 })));
+
+        expectFailure(ModbusProtocolErrorCode.TRANSACTION_FAILURE);
+    }
+
+    @Test
+    public void testResponseTimeout() throws ModbusProtocolException {
+        connect(115200, ModbusTransmissionMode.RTU, 100, (request, port) -> {
+        });
+
+        expectFailure(ModbusProtocolErrorCode.RESPONSE_TIMEOUT);
+    }
+
+    @Test
+    public void testIncompleteFrame() throws ModbusProtocolException {
+        connect(9600, ModbusTransmissionMode.RTU, 500, (request, port) -> {
+            byte[] response = rtu(readResponse(request));
+            port.send(Arrays.copyOfRange(response, 0, 4));
+        });
+
+        long start = System.nanoTime();
+        expectFailure(ModbusProtocolErrorCode.TRANSACTION_FAILURE);
+        // the length of the frame is known, the remaining bytes are awaited until the response timeout
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    public void testPauseInsideFrame() throws ModbusProtocolException {
+        connect(9600, ModbusTransmissionMode.RTU, 1000, (request, port) -> {
+            byte[] response = rtu(readResponse(request));
+            port.send(Arrays.copyOfRange(response, 0, 4));
+            // much longer than the 3.5 characters silent interval
+            port.pause(50000);
+            port.send(Arrays.copyOfRange(response, 4, response.length));
+        });
+
+        assertArrayEquals(new int[] { 2, 3, 4, 5 }, modbusDevice.readHoldingRegisters(1, 0, 4));
+    }
+
+    @Test
+    public void testInterFrameSilence() throws ModbusProtocolException {
+        connect(9600, ModbusTransmissionMode.RTU, 1000, (request, port) -> port.send(rtu(readResponse(request))));
+
+        for (int i = 0; i < 10; i++) {
+            assertArrayEquals(new int[] { i + 2 }, modbusDevice.readHoldingRegisters(1, i, 1));
+        }
+        // 3.5 characters of 10 bits (8N1) at 9600 baud
+        assertTrue(emulator.getMinimumIdleTime() >= 3500000000L * 10 / 9600);
+    }
+
+    @Test(timeout = 10000)
+    public void testEndOfStream() throws ModbusProtocolException {
+        connect(9600, ModbusTransmissionMode.RTU, 0, (request, port) -> {
+            byte[] response = rtu(readResponse(request));
+            port.send(Arrays.copyOfRange(response, 0, 4));
+            port.hangUp();
+        });
+
+        // without a response timeout the end of stream must not be waited forever
+        expectFailure(ModbusProtocolErrorCode.CONNECTION_FAILURE);
+    }
+
+    @Test
+    public void testAsciiReadHoldingRegisters() throws ModbusProtocolException {
+        connect(9600, ModbusTransmissionMode.ASCII, 1000, (request, port) -> {
+            port.send((byte) 'x');
+            port.send(ascii(readResponse(fromAscii(request))));
+        });
+
+        assertArrayEquals(new int[] { 102, 103 }, modbusDevice.readHoldingRegisters(1, 100, 2));
+    }
+
+    @Test
+    public void testAsciiBadLrc() throws ModbusProtocolException {
+        connect(9600, ModbusTransmissionMode.ASCII, 1000, (request, port) -> {
+            byte[] response = ascii(readResponse(fromAscii(request)));
+            response[response.length - 3] = response[response.length - 3] == '0' ? (byte) '1' : (byte) '0';
+            port.send(response);
+        });
+
+        expectFailure(ModbusProtocolErrorCode.TRANSACTION_FAILURE);
+    }
+
+    @Test(timeout = 10000)
+    public void testAsciiEndOfStream() throws ModbusProtocolException {
+        connect(9600, ModbusTransmissionMode.ASCII, 0, (request, port) -> port.hangUp());
+
+        expectFailure(ModbusProtocolErrorCode.CONNECTION_FAILURE);
+    }
+
+    private void connect(int baudRate, String transmissionMode, int respTimeout, SerialPortEmulator.Slave slave)
+            throws ModbusProtocolException {
+        emulator = new SerialPortEmulator(slave);
+        modbusDevice = new ModbusProtocolDevice();
+        modbusDevice.setConnectionFactory(emulator);
+        Properties connectionConfig = new Properties();
+        connectionConfig.setProperty("connectionType", ModbusProtocolDevice.PROTOCOL_CONNECTION_TYPE_SERIAL);
+        connectionConfig.setProperty("port", "/dev/null");
+        connectionConfig.setProperty("baudRate", Integer.toString(baudRate));
+        connectionConfig.setProperty("stopBits", "1");
+        connectionConfig.setProperty("parity", "0");
+        connectionConfig.setProperty("bitsPerWord", "8");
+        connectionConfig.setProperty("respTimeout", Integer.toString(respTimeout));
+        connectionConfig.setProperty("transmissionMode", transmissionMode);
+        modbusDevice.configureConnection(connectionConfig);
+        modbusDevice.connect();
+    }
+
+    private void expectFailure(ModbusProtocolErrorCode code) {
+        try {
+            modbusDevice.readHoldingRegisters(1, 0, 2);
+            fail("Exception expected");
+        } catch (ModbusProtocolException e) {
+            assertEquals(code, e.getCode());
+        }
+    }
+
+    /**
+     * Builds the response to a read registers request (without checksum), registers contain their address plus 2.
+     */
+    private static byte[] readResponse(byte[] request) {
+        int address = (request[2] & 0xff) << 8 | request[3] & 0xff;
+        int count = (request[4] & 0xff) << 8 | request[5] & 0xff;
+        byte[] response = new byte[3 + count * 2];
+        response[0] = request[0];
+        response[1] = request[1];
+        response[2] = (byte) (count * 2);
+        for (int i = 0; i < count; i++) {
+            response[3 + i * 2] = (byte) (address + i + 2 >> 8);
+            response[4 + i * 2] = (byte) (address + i + 2);
+        }
+        return response;
+    }
+
+    private static byte[] rtu(byte[] pdu) {
+        byte[] frame = Arrays.copyOf(pdu, pdu.length + 2);
+        int crc = Crc16.getCrc16(pdu, pdu.length, 0xffff);
+        frame[pdu.length] = (byte) crc;
+        frame[pdu.length + 1] = (byte) (crc >> 8);
+        return frame;
+    }
+
+    private static byte[] ascii(byte[] pdu) {
+        StringBuilder frame = new StringBuilder(":");
+        int lrc = 0;
+        for (byte b : pdu) {
+            frame.append(String.format("%02X", b & 0xff));
+            lrc += b & 0xff;
+        }
+        frame.append(String.format("%02X", -lrc & 0xff)).append("\r\n");
+        return frame.toString().getBytes();
+    }
+
+    private static byte[] fromAscii(byte[] frame) {
+        byte[] pdu = new byte[(frame.length - 5) / 2];
+        for (int i = 0; i < pdu.length; i++) {
+            pdu[i] = (byte) Integer.parseInt(new String(frame, 1 + i * 2, 2), 16);
+        }
+        return pdu;
+    }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+
+package org.eclipse.kura.protocol.modbus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ModbusTcpTransportTest {
+
+    private static final byte[] READ_REQUEST = { 1, ModbusFunctionCodes.READ_HOLDING_REGS, 0, 0, 0, 1 };
+
+    private ServerSocket server;
+    private Socket accepted;
+    private ModbusTcpTransport transport;
+
+    @Before
+    public void connect() throws IOException {
+        // a device that never responds
+        server = new ServerSocket(0);
+        Socket socket = new Socket("127.0.0.1", server.getLocalPort());
+        accepted = server.accept();
+        transport = new ModbusTcpTransport(socket, 1);
+    }
+
+    @After
+    public void disconnect() throws IOException {
+        transport.close();
+        accepted.close();
+        server.close();
+    }
+
+    @Test(timeout = 5000)
+    public void testTimeout() throws IOException {
+        long start = System.nanoTime();
+        assertRecvTimeout(100);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test(timeout = 5000)
+    public void testExpiredBudget() throws IOException {
+        // the budget is exhausted after obtaining a slot of the pipeline, the response must not be awaited forever
+        try {
+            transport.transact(READ_REQUEST, true, System.nanoTime() - 1);
+            fail("Exception expected");
+        } catch (ModbusProtocolException e) {
+            assertEquals(ModbusProtocolErrorCode.TRANSACTION_FAILURE, e.getCode());
+        }
+
+        // the slot of the pipeline has been released
+        assertRecvTimeout(100);
+    }
+
+    private void assertRecvTimeout(int timeout) throws IOException {
+        try {
+            transport.transact(READ_REQUEST, timeout);
+            fail("Exception expected");
+        } catch (ModbusProtocolException e) {
+            assertEquals(ModbusProtocolErrorCode.TRANSACTION_FAILURE, e.getCode());
+        }
+    }
+}
@@ -9,34 +9,73 @@
 
 package org.eclipse.kura.protocol.modbus.test;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Simulates a Modbus TCP slave on an accepted connection, serving requests until the connection is closed.
+ * <p>
+ * Registers contain their address plus 2, coils and discrete inputs are always on, writes are acknowledged.
+ * If a batch delay is configured, the requests received within the delay after the first one are answered together,
+ * in reverse order.
+ */
 public class ModbusHandler extends Thread {
 
     private static final Logger logger = LoggerFactory.getLogger(ModbusHandler.class);
 
-    private Socket socket = null;
+    private final ModbusServer server;
+    private final Socket socket;
 
-    public ModbusHandler(Socket socket) {
+    public ModbusHandler(ModbusServer server, Socket socket) {
         super("ModbusHandler");
+        this.server = server;
         this.socket = socket;
     }
 
+    @Override
     public void run() {
-        try (OutputStream out = socket.getOutputStream(); InputStream in = socket.getInputStream()) {
-            byte[] input = new byte[256];
-            int length = in.read(input);
-            byte[] output = handleRequest(input);
-            out.write(output);
+        try (OutputStream out = socket.getOutputStream();
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (true) {
+                final List<byte[]> requests = new ArrayList<>();
+                requests.add(readRequest(in));
+
+                final int batchDelay = server.getBatchDelay();
+                if (batchDelay > 0) {
+                    final long deadline = System.currentTimeMillis() + batchDelay;
+                    long remaining;
+                    while ((remaining = deadline - System.currentTimeMillis()) > 0) {
+                        socket.setSoTimeout((int) remaining);
+                        try {
+                            requests.add(readRequest(in));
+                        } catch (SocketTimeoutException e) {
+                            break;
+                        }
+                    }
+                    socket.setSoTimeout(0);
+                }
+                server.recordBatchSize(requests.size());
+
+                for (int i = requests.size() - 1; i >= 0; i--) {
+                    out.write(handleRequest(requests.get(i)));
+                }
+                out.flush();
+            }
+        } catch (EOFException e) {
+            logger.debug("ModbusHandler: connection closed");
         } catch (IOException e) {
-            logger.error("ModbusHandler", e);
-            throw new RuntimeException(e);
+            logger.debug("ModbusHandler", e);
         } finally {
             try {
                 socket.close();
@@ -46,32 +85,55 @@ public class ModbusHandler extends Thread {
         }
     }
 
-    private byte[] handleRequest(byte[] input) {
-        byte command = input[7];
+    private static byte[] readRequest(DataInputStream in) throws IOException {
+        final byte[] header = new byte[6];
+        in.readFully(header);
+        final int length = (header[4] & 0xff) << 8 | header[5] & 0xff;
+        final byte[] request = Arrays.copyOf(header, 6 + length);
+        in.readFully(request, 6, length);
+        return request;
+    }
+
+    private static byte[] handleRequest(byte[] input) {
+        final byte command = input[7];
+        final int address = (input[8] & 0xff) << 8 | input[9] & 0xff;
+        final int count = (input[10] & 0xff) << 8 | input[11] & 0xff;
+
         switch (command) {
-        case 1:
-            return new byte[] { 0, 1, 0, 0, 0, 4, 1, 1, 1, 1, 0, 0, 0, 0, 0, 0, 0, 0, };           // readColis
-        case 5:
-            return new byte[] { 0, 1, 0, 0, 0, 6, 1, 5, 0, 0, input[10], 0, 0, 0, 0 };             // writeSingleCoil
-        case 15:
-            return new byte[] { 0, 1, 0, 0, 0, 6, 1, 15, 0, 1, 0, 5, 0, 0, 0, 0, 0 };              // writeMultiplecoils
-        case 3:
-            return new byte[] { 0, 1, 0, 0, 0, 5, 1, 3, 2, 0, 2, 0, 0, 0, 0, 0, 0, 0 };            // readHoldingRegister
-        case 6:
-            return new byte[] { 0, 1, 0, 0, 0, 6, 1, 6, 0, 0, 0, input[11], 0, 0, 0 };             // wrieSingleRigister
-        case 16:
-            return new byte[] { 0, 1, 0, 0, 0, 6, 1, 16, 0, 0, 0, 4, 0, 0, 0, 0, 0, 0 };           // writeMultipleRegisters
-        case 2:
-            return new byte[] { 0, 1, 0, 0, 0, 6, 1, 2, 1, 127, 0, 0, 0, 0, 0, 0, 0, 0 };          // readDiscreteInputs
-        case 4:
-            return new byte[] { 0, 1, 0, 0, 0, 6, 1, 4, 2, 0, 10, 0, 0, 0, 0, 0, 0, 0 };           // readInputRegisters
-        case 11:
-            return new byte[] {};                                                                  // getCommEventCouner
-        case 7:
-            return new byte[] {};                                                                  // readExceptionStatus
-        case 12:
-            return new byte[] {};                                                                  // getCommEventLog
+        case 1:                                                        // readCoils
+        case 2:                                                        // readDiscreteInputs
+            final byte[] bits = new byte[(count + 7) / 8];
+            for (int i = 0; i < count; i++) {
+                bits[i / 8] |= 1 << i % 8;
+            }
+            return response(input, bits);
+        case 3:                                                        // readHoldingRegisters
+        case 4:                                                        // readInputRegisters
+            final byte[] registers = new byte[count * 2];
+            for (int i = 0; i < count; i++) {
+                final int value = address + i + 2;
+                registers[i * 2] = (byte) (value >> 8);
+                registers[i * 2 + 1] = (byte) value;
+            }
+            return response(input, registers);
+        case 5:                                                        // writeSingleCoil
+        case 6:                                                        // writeSingleRegister
+        case 15:                                                       // writeMultipleCoils
+        case 16:                                                       // writeMultipleRegisters
+            final byte[] echo = Arrays.copyOf(input, 12);
+            echo[5] = 6;
+            return echo;
+        default:                                                       // illegal function exception
+            return new byte[] { input[0], input[1], 0, 0, 0, 3, input[6], (byte) (command | 0x80), 1 };
         }
-        return new byte[] {};
     }
-}
\ No newline at end of file
+
+    private static byte[] response(byte[] input, byte[] data) {
+        final byte[] response = Arrays.copyOf(input, 9 + data.length);
+        response[4] = (byte) (data.length + 3 >> 8);
+        response[5] = (byte) (data.length + 3);
+        response[8] = (byte) data.length;
+        System.arraycopy(data, 0, response, 9, data.length);
+        return response;
+    }
+}
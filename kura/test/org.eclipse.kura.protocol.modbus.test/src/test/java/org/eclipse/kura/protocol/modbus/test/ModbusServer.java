@@ -12,6 +12,7 @@ package org.eclipse.kura.protocol.modbus.test;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,7 +23,9 @@ public class ModbusServer {
 
     CountDownLatch latch = new CountDownLatch(1);
 
-    private boolean listening = true;
+    private volatile boolean listening = true;
+    private volatile int batchDelay;
+    private final AtomicInteger maxBatchSize = new AtomicInteger();
     private ServerSocket serverSocket;
 
     public void start(int port) throws IOException, InterruptedException {
@@ -34,12 +37,14 @@ public class ModbusServer {
                     serverSocket = new ServerSocket(port);
                     latch.countDown();   // make sure server is ready before running tests
                     while (listening) {
-                        ModbusHandler modbusHandler = new ModbusHandler(serverSocket.accept());
+                        ModbusHandler modbusHandler = new ModbusHandler(ModbusServer.this, serverSocket.accept());
                         modbusHandler.start();
                     }
                 } catch (IOException e) {
-                    logger.error("ModbusServer fatal error", e);
-                    System.exit(-1);
+                    if (listening) {
+                        logger.error("ModbusServer fatal error", e);
+                        System.exit(-1);
+                    }
                 }
             }
         }.start();
@@ -47,8 +52,31 @@ public class ModbusServer {
     }
 
     public void stop() throws IOException {
-        // serverSocket.close();
         listening = false;
+        serverSocket.close();
+    }
+
+    /**
+     * Sets the time in milliseconds during which the requests received after a first one are collected and then
+     * answered together in reverse order, 0 for answering each request immediately.
+     */
+    public void setBatchDelay(int batchDelay) {
+        this.batchDelay = batchDelay;
+    }
+
+    public int getBatchDelay() {
+        return batchDelay;
+    }
+
+    void recordBatchSize(int batchSize) {
+        maxBatchSize.accumulateAndGet(batchSize, Math::max);
     }
 
+    /**
+     * Returns the maximum number of requests that have been outstanding at the same time on a connection since the
+     * last call.
+     */
+    public int getAndResetMaxBatchSize() {
+        return maxBatchSize.getAndSet(0);
+    }
 }
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+
+package org.eclipse.kura.protocol.modbus.test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.microedition.io.Connection;
+
+import org.eclipse.kura.comm.CommConnection;
+import org.eclipse.kura.comm.CommURI;
+import org.osgi.service.io.ConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Emulates a serial line with a slave device attached, providing {@link CommConnection} instances.
+ * <p>
+ * The input stream of the connections behaves like the one of a serial port with a receive timeout: reads block until
+ * some data is available or until the receive timeout specified by the connection URI expires, returning no data in
+ * the latter case. Each write performed on the output stream is delivered to the {@link Slave} as a request, the
+ * slave sends its response one character at a time, at the configured character rate.
+ */
+public class SerialPortEmulator implements ConnectionFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(SerialPortEmulator.class);
+
+    public interface Slave {
+
+        void onRequest(byte[] request, SerialPortEmulator port) throws Exception;
+    }
+
+    private final Object lock = new Object();
+    private final ArrayDeque<Byte> received = new ArrayDeque<>();
+    private final ExecutorService slaveExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "SerialPortEmulator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Slave slave;
+    private volatile CommURI uri;
+    private volatile long characterTime;
+    private long lastTransmissionEnd;
+    private long minimumIdleTime = Long.MAX_VALUE;
+    private boolean closed;
+
+    public SerialPortEmulator(Slave slave) {
+        this.slave = slave;
+    }
+
+    @Override
+    public Connection createConnection(String name, int mode, boolean timeouts) throws IOException {
+        try {
+            this.uri = CommURI.parseString(name);
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        this.characterTime = TimeUnit.SECONDS.toNanos(11) / this.uri.getBaudRate();
+        return new EmulatedConnection();
+    }
+
+    public CommURI getURI() {
+        return this.uri;
+    }
+
+    /**
+     * Sends data from the slave to the master, one character at a time.
+     */
+    public void send(byte... data) {
+        for (byte b : data) {
+            LockSupport.parkNanos(this.characterTime);
+            synchronized (this.lock) {
+                this.received.add(b);
+                this.lock.notifyAll();
+            }
+        }
+        synchronized (this.lock) {
+            this.lastTransmissionEnd = System.nanoTime();
+        }
+    }
+
+    /**
+     * Disconnects the line, the reads performed after the data already sent has been consumed report the end of
+     * stream.
+     */
+    public void hangUp() {
+        synchronized (this.lock) {
+            this.closed = true;
+            this.lock.notifyAll();
+        }
+    }
+
+    /**
+     * Keeps the line idle for the provided time.
+     */
+    public void pause(long micros) {
+        final long end = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(micros);
+        long remaining;
+        while ((remaining = end - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Returns the minimum time in nanoseconds the line stayed idle between the end of a response and the
+     * following request.
+     */
+    public long getMinimumIdleTime() {
+        synchronized (this.lock) {
+            return this.minimumIdleTime;
+        }
+    }
+
+    private void onRequest(byte[] request) {
+        synchronized (this.lock) {
+            if (this.lastTransmissionEnd != 0) {
+                this.minimumIdleTime = Math.min(this.minimumIdleTime, System.nanoTime() - this.lastTransmissionEnd);
+            }
+        }
+        this.slaveExecutor.submit(() -> {
+            try {
+                this.slave.onRequest(request, this);
+            } catch (Exception e) {
+                logger.error("Slave failure", e);
+            }
+        });
+    }
+
+    private final class EmulatedInputStream extends InputStream {
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) > 0 ? b[0] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int receiveTimeout = SerialPortEmulator.this.uri.getReceiveTimeout();
+            final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(receiveTimeout);
+            synchronized (SerialPortEmulator.this.lock) {
+                while (SerialPortEmulator.this.received.isEmpty()) {
+                    if (SerialPortEmulator.this.closed) {
+                        return -1;
+                    }
+                    try {
+                        if (receiveTimeout == 0) {
+                            SerialPortEmulator.this.lock.wait();
+                        } else {
+                            final long remaining = end - System.nanoTime();
+                            if (remaining <= 0) {
+                                return 0;
+                            }
+                            TimeUnit.NANOSECONDS.timedWait(SerialPortEmulator.this.lock, remaining);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException(e);
+                    }
+                }
+                int count = 0;
+                while (count < len && !SerialPortEmulator.this.received.isEmpty()) {
+                    b[off + count++] = SerialPortEmulator.this.received.poll();
+                }
+                return count;
+            }
+        }
+
+        @Override
+        public int available() throws IOException {
+            synchronized (SerialPortEmulator.this.lock) {
+                return SerialPortEmulator.this.received.size();
+            }
+        }
+    }
+
+    private final class EmulatedOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            onRequest(Arrays.copyOfRange(b, off, off + len));
+        }
+    }
+
+    private final class EmulatedConnection implements CommConnection {
+
+        private final InputStream inputStream = new EmulatedInputStream();
+        private final OutputStream outputStream = new EmulatedOutputStream();
+
+        @Override
+        public InputStream openInputStream() throws IOException {
+            return this.inputStream;
+        }
+
+        @Override
+        public DataInputStream openDataInputStream() throws IOException {
+            return new DataInputStream(this.inputStream);
+        }
+
+        @Override
+        public OutputStream openOutputStream() throws IOException {
+            return this.outputStream;
+        }
+
+        @Override
+        public DataOutputStream openDataOutputStream() throws IOException {
+            return new DataOutputStream(this.outputStream);
+        }
+
+        @Override
+        public CommURI getURI() {
+            return SerialPortEmulator.this.uri;
+        }
+
+        @Override
+        public void sendMessage(byte[] message) throws IOException {
+            this.outputStream.write(message);
+        }
+
+        @Override
+        public byte[] sendCommand(byte[] command, int timeout) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] sendCommand(byte[] command, int timeout, int demark) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] flushSerialBuffer() throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() throws IOException {
+            SerialPortEmulator.this.slaveExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.kura.internal.wire.aggregator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.kura.type.DoubleValue;
+import org.eclipse.kura.type.IntegerValue;
+import org.eclipse.kura.type.LongValue;
+import org.eclipse.kura.type.StringValue;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireHelperService;
+import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.WireSupport;
+import org.junit.Test;
+
+public class AggregatorTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void testSampleBuffer() {
+        SampleBuffer buffer = new SampleBuffer(2);
+        for (int i = 0; i < 10; i++) {
+            buffer.add(i, i);
+        }
+        assertEquals(10, buffer.size());
+
+        AggregateFunction[] functions = AggregateFunction.values();
+        double[] results = new double[functions.length];
+        assertEquals(4, buffer.aggregate(2, 6, functions, results));
+        assertEquals(2, results[AggregateFunction.MIN.ordinal()], DELTA);
+        assertEquals(5, results[AggregateFunction.MAX.ordinal()], DELTA);
+        assertEquals(3.5, results[AggregateFunction.MEAN.ordinal()], DELTA);
+        assertEquals(14, results[AggregateFunction.SUM.ordinal()], DELTA);
+        assertEquals(4, results[AggregateFunction.COUNT.ordinal()], DELTA);
+        assertEquals(Math.sqrt(1.25), results[AggregateFunction.STDDEV.ordinal()], DELTA);
+        assertEquals(2, results[AggregateFunction.FIRST.ordinal()], DELTA);
+        assertEquals(5, results[AggregateFunction.LAST.ordinal()], DELTA);
+
+        buffer.removeBefore(8);
+        assertEquals(2, buffer.size());
+        assertEquals(8, buffer.getPosition(0));
+
+        // wrap around and grow again
+        for (int i = 10; i < 40; i++) {
+            buffer.add(i, i);
+        }
+        assertEquals(32, buffer.size());
+        assertEquals(0, buffer.aggregate(0, 8, functions, results));
+        assertEquals(32, buffer.aggregate(0, 100, functions, results));
+        assertEquals(39, results[AggregateFunction.LAST.ordinal()], DELTA);
+    }
+
+    @Test
+    public void testCountTumbling() {
+        List<List<WireRecord>> emitted = new ArrayList<>();
+        Aggregator aggregator = createAggregator(emitted);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("window.basis", "COUNT");
+        properties.put("window.type", "TUMBLING");
+        properties.put("window.size", 3);
+        properties.put("aggregates", "min,max,mean,count,unknown");
+        aggregator.activate(properties);
+
+        for (int i = 1; i <= 7; i++) {
+            aggregator.onWireReceive(createEnvelope("x", i));
+        }
+
+        assertEquals(2, emitted.size());
+        Map<String, TypedValue<?>> first = emitted.get(0).get(0).getProperties();
+        assertEquals(1.0, first.get("value_min").getValue());
+        assertEquals(3.0, first.get("value_max").getValue());
+        assertEquals(2.0, first.get("value_mean").getValue());
+        assertEquals(3L, first.get("value_count").getValue());
+        assertNull(first.get("value_timestamp_min"));
+        assertNull(first.get("label_min"));
+        assertEquals(4, first.size());
+
+        Map<String, TypedValue<?>> second = emitted.get(1).get(0).getProperties();
+        assertEquals(4.0, second.get("value_min").getValue());
+        assertEquals(6.0, second.get("value_max").getValue());
+    }
+
+    @Test
+    public void testCountSlidingGroupBy() {
+        List<List<WireRecord>> emitted = new ArrayList<>();
+        Aggregator aggregator = createAggregator(emitted);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("window.basis", "COUNT");
+        properties.put("window.type", "SLIDING");
+        properties.put("window.size", 4);
+        properties.put("window.slide", 2);
+        properties.put("group.by", "label");
+        properties.put("aggregates", "SUM,FIRST,LAST");
+        aggregator.activate(properties);
+
+        for (int i = 1; i <= 8; i++) {
+            aggregator.onWireReceive(createEnvelope("a", i));
+            aggregator.onWireReceive(createEnvelope("b", i * 10));
+        }
+
+        // windows close after 4, 6 and 8 records of every group
+        assertEquals(6, emitted.size());
+        Map<String, TypedValue<?>> a1 = emitted.get(0).get(0).getProperties();
+        assertEquals("a", a1.get("label").getValue());
+        assertEquals(10.0, a1.get("value_sum").getValue());
+        Map<String, TypedValue<?>> b1 = emitted.get(1).get(0).getProperties();
+        assertEquals("b", b1.get("label").getValue());
+        assertEquals(100.0, b1.get("value_sum").getValue());
+        Map<String, TypedValue<?>> a2 = emitted.get(2).get(0).getProperties();
+        assertEquals(3.0, a2.get("value_first").getValue());
+        assertEquals(6.0, a2.get("value_last").getValue());
+        assertEquals(18.0, a2.get("value_sum").getValue());
+        Map<String, TypedValue<?>> b3 = emitted.get(5).get(0).getProperties();
+        assertEquals(50.0, b3.get("value_first").getValue());
+        assertEquals(80.0, b3.get("value_last").getValue());
+    }
+
+    @Test
+    public void testTimeWindows() {
+        List<List<WireRecord>> emitted = new ArrayList<>();
+        Aggregator aggregator = createAggregator(emitted);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("window.basis", "TIME");
+        properties.put("window.type", "SLIDING");
+        properties.put("window.size", 100000);
+        properties.put("window.slide", 50000);
+        properties.put("aggregates", "MAX,COUNT");
+        aggregator.activate(properties);
+
+        try {
+            long base = 1000000;
+            assertTrue(aggregator.receive(createEnvelope("x", 1).getRecords(), base + 10).isEmpty());
+            aggregator.receive(createEnvelope("x", 2).getRecords(), base + 40000);
+            aggregator.receive(createEnvelope("x", 3).getRecords(), base + 60000);
+
+            assertTrue(aggregator.closeTimeWindows(base + 49999).isEmpty());
+
+            List<WireRecord> result = aggregator.closeTimeWindows(base + 50000);
+            assertEquals(1, result.size());
+            Map<String, TypedValue<?>> window = result.get(0).getProperties();
+            assertEquals(2.0, window.get("value_max").getValue());
+            assertEquals(2L, window.get("value_count").getValue());
+            assertEquals(base - 50000, window.get(Aggregator.WINDOW_START).getValue());
+            assertEquals(base + 50000, window.get(Aggregator.WINDOW_END).getValue());
+
+            result = aggregator.closeTimeWindows(base + 100000);
+            window = result.get(0).getProperties();
+            assertEquals(3.0, window.get("value_max").getValue());
+            assertEquals(3L, window.get("value_count").getValue());
+
+            result = aggregator.closeTimeWindows(base + 150000);
+            window = result.get(0).getProperties();
+            assertEquals(1L, window.get("value_count").getValue());
+
+            // all samples evicted, the group is removed
+            assertTrue(aggregator.closeTimeWindows(base + 200000).isEmpty());
+            assertTrue(aggregator.closeTimeWindows(base + 250000).isEmpty());
+        } finally {
+            aggregator.deactivate();
+        }
+    }
+
+    private static Aggregator createAggregator(final List<List<WireRecord>> emitted) {
+        Aggregator aggregator = new Aggregator();
+        WireHelperService wireHelperService = mock(WireHelperService.class);
+        WireSupport wireSupport = mock(WireSupport.class);
+        when(wireHelperService.newWireSupport(aggregator)).thenReturn(wireSupport);
+        doAnswer(invocation -> {
+            emitted.add((List<WireRecord>) invocation.getArguments()[0]);
+            return null;
+        }).when(wireSupport).emit(anyListOf(WireRecord.class));
+        aggregator.bindWireHelperService(wireHelperService);
+        return aggregator;
+    }
+
+    private static WireEnvelope createEnvelope(final String label, final int value) {
+        Map<String, TypedValue<?>> recordProps = new HashMap<>();
+        recordProps.put("label", new StringValue(label));
+        recordProps.put("value", value % 2 == 0 ? new IntegerValue(value) : new DoubleValue(value));
+        recordProps.put("value_timestamp", new LongValue(System.currentTimeMillis()));
+        List<WireRecord> wireRecords = new ArrayList<>();
+        wireRecords.add(new WireRecord(recordProps));
+        return new WireEnvelope("emitter", wireRecords);
+    }
+}
@@ -9,15 +9,20 @@
 package org.eclipse.kura.internal.wire.asset;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.kura.asset.AssetConfiguration;
 import org.eclipse.kura.configuration.ConfigurationService;
@@ -31,6 +36,7 @@ import org.eclipse.kura.channel.ChannelRecord;
 import org.eclipse.kura.channel.ChannelStatus;
 import org.eclipse.kura.type.BooleanValue;
 import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.IntegerValue;
 import org.eclipse.kura.type.LongValue;
 import org.eclipse.kura.type.StringValue;
 import org.eclipse.kura.type.TypedValue;
@@ -40,6 +46,7 @@ import org.eclipse.kura.wire.WireSupport;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
+import org.mockito.ArgumentCaptor;
 
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
 public class WireAssetTest {
@@ -92,8 +99,8 @@ public class WireAssetTest {
             record.setTimestamp(42);
             record.setChannelStatus(new ChannelStatus(ChannelFlag.SUCCESS));
 
-            return null;
-        }).when(mockDriver).read(any());
+            return CompletableFuture.completedFuture(records);
+        }).when(mockDriver).readAsync(any());
 
         doAnswer(invocation -> {
             Object[] arguments = invocation.getArguments();
@@ -112,34 +119,89 @@ public class WireAssetTest {
             record.setTimestamp(111);
             record.setChannelStatus(new ChannelStatus(ChannelFlag.SUCCESS));
 
-            return null;
-        }).when(mockDriver).write(any());
+            return CompletableFuture.completedFuture(null);
+        }).when(mockDriver).writeAsync(any());
 
         WireSupport mockWireSupport = mock(WireSupport.class);
         TestUtil.setFieldValue(wireAsset, "wireSupport", mockWireSupport);
 
+        wireAsset.onWireReceive(wireEnvelope);
+
+        // the driver operations are performed asynchronously
+        ArgumentCaptor<List> emitted = ArgumentCaptor.forClass(List.class);
+        verify(mockWireSupport, timeout(1000)).emit(emitted.capture());
+        verify(mockDriver, timeout(1000)).readAsync(any());
+        verify(mockDriver, timeout(1000)).writeAsync(any());
+
+        List<WireRecord> wireRecords = emitted.getValue();
+
+        assertEquals(1, wireRecords.size());
+        Map<String, TypedValue<?>> properties = wireRecords.get(0).getProperties();
+
+        assertEquals(3, properties.size());
+        assertEquals(new StringValue("componentName"), properties.get("assetName"));
+        assertEquals(new BooleanValue(true), properties.get("readChannel1"));
+        assertEquals(new LongValue(42), properties.get("readChannel1_timestamp"));
+    }
+
+    @Test
+    public void testOnWireReceivePollInterval() throws NoSuchFieldException, ConnectionException {
+        Map<String, Object> fastChannelConfig = new HashMap<>();
+        Channel fastChannel = new Channel("fastChannel", ChannelType.READ, DataType.INTEGER, fastChannelConfig);
+
+        Map<String, Object> slowChannelConfig = new HashMap<>();
+        slowChannelConfig.put("+poll.interval", "3600000");
+        Channel slowChannel = new Channel("slowChannel", ChannelType.READ, DataType.INTEGER, slowChannelConfig);
+
+        Map<String, Channel> channels = new HashMap<>();
+        channels.put(fastChannel.getName(), fastChannel);
+        channels.put(slowChannel.getName(), slowChannel);
+
+        AssetConfiguration assetConfiguration = new AssetConfiguration("description", "driverPid", channels);
+
+        Map<String, Object> assetProperties = new HashMap<>();
+        assetProperties.put(ConfigurationService.KURA_SERVICE_PID, "componentName");
+
+        WireAsset wireAsset = new WireAsset();
+        TestUtil.setFieldValue(wireAsset, "kuraServicePid", "componentName");
+        TestUtil.setFieldValue(wireAsset, "properties", assetProperties);
+        TestUtil.setFieldValue(wireAsset, "assetConfiguration", assetConfiguration);
+
+        Driver mockDriver = mock(Driver.class);
+        wireAsset.setDriver(mockDriver);
+
         doAnswer(invocation -> {
-            Object[] arguments = invocation.getArguments();
-            assertEquals(1, arguments.length);
+            List<ChannelRecord> records = (List<ChannelRecord>) invocation.getArguments()[0];
+            for (ChannelRecord record : records) {
+                record.setValue(new IntegerValue(1));
+                record.setTimestamp(42);
+                record.setChannelStatus(new ChannelStatus(ChannelFlag.SUCCESS));
+            }
+            return CompletableFuture.completedFuture(records);
+        }).when(mockDriver).readAsync(any());
 
-            List<WireRecord> wireRecords = (List<WireRecord>) arguments[0];
+        WireSupport mockWireSupport = mock(WireSupport.class);
+        TestUtil.setFieldValue(wireAsset, "wireSupport", mockWireSupport);
 
-            assertEquals(1, wireRecords.size());
-            Map<String, TypedValue<?>> properties = wireRecords.get(0).getProperties();
+        WireEnvelope wireEnvelope = new WireEnvelope("pid", Collections.emptyList());
 
-            assertEquals(3, properties.size());
-            assertEquals(new StringValue("componentName"), properties.get("assetName"));
-            assertEquals(new BooleanValue(true), properties.get("readChannel1"));
-            assertEquals(new LongValue(42), properties.get("readChannel1_timestamp"));
+        // the first trigger reads all the channels, the following ones only the channels without poll interval
+        wireAsset.onWireReceive(wireEnvelope);
+        ArgumentCaptor<List> emitted = ArgumentCaptor.forClass(List.class);
+        verify(mockWireSupport, timeout(1000)).emit(emitted.capture());
 
-            return null;
-        }).when(mockWireSupport).emit(any());
+        Map<String, TypedValue<?>> properties = ((WireRecord) emitted.getValue().get(0)).getProperties();
+        assertEquals(5, properties.size());
+        assertEquals(new IntegerValue(1), properties.get("fastChannel"));
+        assertEquals(new IntegerValue(1), properties.get("slowChannel"));
 
         wireAsset.onWireReceive(wireEnvelope);
+        verify(mockWireSupport, timeout(1000).times(2)).emit(emitted.capture());
 
-        verify(mockWireSupport).emit(any());
-        verify(mockDriver).read(any());
-        verify(mockDriver).write(any());
+        properties = ((WireRecord) emitted.getValue().get(0)).getProperties();
+        assertEquals(3, properties.size());
+        assertEquals(new IntegerValue(1), properties.get("fastChannel"));
+        assertFalse(properties.containsKey("slowChannel"));
+        verify(mockDriver, times(2)).readAsync(any());
     }
-
 }
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.kura.internal.wire.deadband;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.kura.type.DoubleValue;
+import org.eclipse.kura.type.LongValue;
+import org.eclipse.kura.type.StringValue;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.wire.WireHelperService;
+import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.WireSupport;
+import org.junit.Test;
+
+public class DeadbandTest {
+
+    @Test
+    public void testLastValueTable() {
+        LastValueTable table = new LastValueTable();
+        for (int i = 0; i < 100; i++) {
+            String key = "channel" + i;
+            table.putNumeric(table.find(key), key, i, i);
+        }
+        table.putObject(table.find("status"), "status", "OK", 5);
+        assertEquals(101, table.size());
+
+        for (int i = 0; i < 100; i++) {
+            int slot = table.find("channel" + i);
+            assertTrue(table.isPresent(slot));
+            assertTrue(table.isNumeric(slot));
+            assertEquals(i, table.getNumeric(slot), 0.0);
+            assertEquals(i, table.getTime(slot));
+        }
+        int slot = table.find("status");
+        assertFalse(table.isNumeric(slot));
+        assertEquals("OK", table.getObject(slot));
+        assertFalse(table.isPresent(table.find("missing")));
+
+        table.putNumeric(table.find("channel1"), "channel1", 42, 42);
+        assertEquals(101, table.size());
+        assertEquals(42, table.getNumeric(table.find("channel1")), 0.0);
+    }
+
+    @Test
+    public void testAbsolutePropertySuppression() {
+        Deadband deadband = createDeadband();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("deadband.type", "ABSOLUTE");
+        properties.put("deadband.value", 0.5);
+        deadband.activate(properties);
+
+        WireRecord first = createRecord("asset1", 10.0, "OK");
+        List<WireRecord> result = deadband.filter(Collections.singletonList(first), 0);
+        assertSame(first, result.get(0));
+
+        // temperature within the deadband, status unchanged
+        result = deadband.filter(Collections.singletonList(createRecord("asset1", 10.4, "OK")), 1);
+        assertTrue(result.isEmpty());
+
+        // other assets are tracked separately
+        result = deadband.filter(Collections.singletonList(createRecord("asset2", 10.4, "OK")), 1);
+        assertEquals(1, result.size());
+
+        // the change is computed against the last forwarded value
+        result = deadband.filter(Collections.singletonList(createRecord("asset1", 10.6, "OK")), 2);
+        assertEquals(1, result.size());
+        Map<String, TypedValue<?>> forwarded = result.get(0).getProperties();
+        assertEquals(10.6, forwarded.get("temperature").getValue());
+        assertTrue(forwarded.containsKey("temperature_timestamp"));
+        assertFalse(forwarded.containsKey("status"));
+        assertFalse(forwarded.containsKey("status_timestamp"));
+        assertEquals("asset1", forwarded.get("assetName").getValue());
+
+        result = deadband.filter(Collections.singletonList(createRecord("asset1", 10.6, "ALARM")), 3);
+        forwarded = result.get(0).getProperties();
+        assertEquals("ALARM", forwarded.get("status").getValue());
+        assertFalse(forwarded.containsKey("temperature"));
+    }
+
+    @Test
+    public void testPercentRecordSuppressionAndHeartbeat() {
+        Deadband deadband = createDeadband();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("deadband.type", "PERCENT");
+        properties.put("deadband.value", 10.0);
+        properties.put("suppression.mode", "RECORD");
+        properties.put("heartbeat.interval", 60);
+        deadband.activate(properties);
+
+        assertEquals(1, deadband.filter(Collections.singletonList(createRecord("asset1", 100, "OK")), 0).size());
+        assertTrue(deadband.filter(Collections.singletonList(createRecord("asset1", 109, "OK")), 1000).isEmpty());
+
+        WireRecord changed = createRecord("asset1", 111, "OK");
+        List<WireRecord> result = deadband.filter(Collections.singletonList(changed), 2000);
+        assertSame(changed, result.get(0));
+
+        assertTrue(deadband.filter(Collections.singletonList(createRecord("asset1", 111, "OK")), 61999).isEmpty());
+        assertEquals(1, deadband.filter(Collections.singletonList(createRecord("asset1", 111, "OK")), 62000).size());
+    }
+
+    @Test
+    public void testChannelNamePrefixOfAnother() {
+        Deadband deadband = createDeadband();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("deadband.type", "ABSOLUTE");
+        properties.put("deadband.value", 0.5);
+        deadband.activate(properties);
+
+        deadband.filter(Collections.singletonList(createPumpRecord(1.0, 100.0)), 0);
+
+        // pump unchanged, pump_speed changed: only the pump properties are removed
+        List<WireRecord> result = deadband.filter(Collections.singletonList(createPumpRecord(1.0, 120.0)), 1);
+        assertEquals(1, result.size());
+        Map<String, TypedValue<?>> forwarded = result.get(0).getProperties();
+        assertFalse(forwarded.containsKey("pump"));
+        assertFalse(forwarded.containsKey("pump_timestamp"));
+        assertFalse(forwarded.containsKey("pump_error"));
+        assertEquals(120.0, forwarded.get("pump_speed").getValue());
+        assertTrue(forwarded.containsKey("pump_speed_timestamp"));
+    }
+
+    private static Deadband createDeadband() {
+        Deadband deadband = new Deadband();
+        WireHelperService wireHelperService = mock(WireHelperService.class);
+        when(wireHelperService.newWireSupport(deadband)).thenReturn(mock(WireSupport.class));
+        deadband.bindWireHelperService(wireHelperService);
+        return deadband;
+    }
+
+    private static WireRecord createRecord(final String assetName, final double temperature, final String status) {
+        Map<String, TypedValue<?>> recordProps = new HashMap<>();
+        recordProps.put("assetName", new StringValue(assetName));
+        recordProps.put("temperature", new DoubleValue(temperature));
+        recordProps.put("temperature_timestamp", new LongValue(System.currentTimeMillis()));
+        recordProps.put("status", new StringValue(status));
+        recordProps.put("status_timestamp", new LongValue(System.currentTimeMillis()));
+        return new WireRecord(recordProps);
+    }
+
+    private static WireRecord createPumpRecord(final double pump, final double pumpSpeed) {
+        Map<String, TypedValue<?>> recordProps = new HashMap<>();
+        recordProps.put("assetName", new StringValue("asset1"));
+        recordProps.put("pump", new DoubleValue(pump));
+        recordProps.put("pump_timestamp", new LongValue(System.currentTimeMillis()));
+        recordProps.put("pump_error", new StringValue(""));
+        recordProps.put("pump_speed", new DoubleValue(pumpSpeed));
+        recordProps.put("pump_speed_timestamp", new LongValue(System.currentTimeMillis()));
+        return new WireRecord(recordProps);
+    }
+}
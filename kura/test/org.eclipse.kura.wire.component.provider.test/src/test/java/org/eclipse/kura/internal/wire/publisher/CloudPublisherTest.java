@@ -9,8 +9,10 @@
 package org.eclipse.kura.internal.wire.publisher;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
@@ -29,7 +31,9 @@ import org.eclipse.kura.KuraException;
 import org.eclipse.kura.cloud.CloudClient;
 import org.eclipse.kura.cloud.CloudService;
 import org.eclipse.kura.core.testutil.TestUtil;
+import org.eclipse.kura.internal.wire.common.BatchPayloadCodec;
 import org.eclipse.kura.message.KuraPayload;
+import org.eclipse.kura.type.IntegerValue;
 import org.eclipse.kura.type.StringValue;
 import org.eclipse.kura.type.TypedValue;
 import org.eclipse.kura.wire.WireEnvelope;
@@ -210,4 +214,143 @@ public class CloudPublisherTest {
         verify(cloudClientMock, times(1)).controlPublish(eq(topic), (KuraPayload) anyObject(), eq(qos), eq(retain),
                 eq(prio));
     }
+
+    @Test
+    public void testOnWireReceiveBatch() throws InvalidSyntaxException, NoSuchFieldException, KuraException {
+        // test publishing the records of an envelope in batch messages, grouped by topic
+
+        int prio = 1;
+        int qos = 0;
+        boolean retain = false;
+
+        CloudPublisher cp = new CloudPublisher();
+
+        WireHelperService wireHelperServiceMock = mock(WireHelperService.class);
+        cp.bindWireHelperService(wireHelperServiceMock);
+
+        BundleContext bundleCtxMock = mock(BundleContext.class);
+        Filter filter = mock(Filter.class);
+        when(bundleCtxMock.createFilter(anyString())).thenReturn(filter);
+
+        ComponentContext ctxMock = mock(ComponentContext.class);
+        when(ctxMock.getBundleContext()).thenReturn(bundleCtxMock);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("cloud.service.pid", "cspid");
+        properties.put("publish.priority", prio);
+        properties.put("publish.qos", qos);
+        properties.put("publish.retain", retain);
+        properties.put("publish.topic", "A1/$assetName/data");
+        properties.put("publish.batch", true);
+        properties.put("publish.batch.size", 2);
+
+        cp.activate(ctxMock, properties);
+
+        CloudService cloudServiceMock = mock(CloudService.class);
+        CloudClient cloudClientMock = mock(CloudClient.class);
+
+        List<KuraPayload> asset1Payloads = new ArrayList<>();
+        List<KuraPayload> asset2Payloads = new ArrayList<>();
+        when(cloudClientMock.publish(eq("A1/asset1/data"), (KuraPayload) anyObject(), eq(qos), eq(retain), eq(prio)))
+                .thenAnswer(invocation -> {
+                    asset1Payloads.add(invocation.getArgumentAt(1, KuraPayload.class));
+                    return 1;
+                });
+        when(cloudClientMock.publish(eq("A1/asset2/data"), (KuraPayload) anyObject(), eq(qos), eq(retain), eq(prio)))
+                .thenAnswer(invocation -> {
+                    asset2Payloads.add(invocation.getArgumentAt(1, KuraPayload.class));
+                    return 2;
+                });
+
+        TestUtil.setFieldValue(cp, "cloudService", cloudServiceMock);
+        TestUtil.setFieldValue(cp, "cloudClient", cloudClientMock);
+
+        List<WireRecord> wireRecords = new ArrayList<WireRecord>();
+        for (int i = 0; i < 5; i++) {
+            Map<String, TypedValue<?>> recordProps = new HashMap<String, TypedValue<?>>();
+            recordProps.put("assetName", new StringValue(i == 4 ? "asset2" : "asset1"));
+            recordProps.put("value", new IntegerValue(i));
+            wireRecords.add(new WireRecord(recordProps));
+        }
+
+        cp.onWireReceive(new WireEnvelope("emitter", wireRecords));
+
+        assertEquals(2, asset1Payloads.size());
+        assertEquals(1, asset2Payloads.size());
+
+        KuraPayload first = asset1Payloads.get(0);
+        assertTrue(BatchPayloadCodec.isBatch(first));
+        assertEquals(1, first.getMetric("wire.batch.format"));
+        assertEquals(2, first.getMetric("wire.batch.records"));
+        assertEquals(1, first.getMetric("1.value"));
+
+        List<Map<String, Object>> decoded = BatchPayloadCodec.decode(asset1Payloads.get(1));
+        assertEquals(2, decoded.size());
+        assertEquals(2, decoded.get(0).get("value"));
+        assertEquals(3, decoded.get(1).get("value"));
+        assertEquals("asset1", decoded.get(1).get("assetName"));
+
+        decoded = BatchPayloadCodec.decode(asset2Payloads.get(0));
+        assertEquals(1, decoded.size());
+        assertEquals(4, decoded.get(0).get("value"));
+    }
+
+    @Test
+    public void testOnWireReceiveReservedProperty() throws InvalidSyntaxException, NoSuchFieldException, KuraException {
+        // test that the records that would be mistaken for a batch are not published one per message
+
+        int prio = 1;
+        int qos = 0;
+        boolean retain = false;
+
+        CloudPublisher cp = new CloudPublisher();
+
+        WireHelperService wireHelperServiceMock = mock(WireHelperService.class);
+        cp.bindWireHelperService(wireHelperServiceMock);
+
+        BundleContext bundleCtxMock = mock(BundleContext.class);
+        Filter filter = mock(Filter.class);
+        when(bundleCtxMock.createFilter(anyString())).thenReturn(filter);
+
+        ComponentContext ctxMock = mock(ComponentContext.class);
+        when(ctxMock.getBundleContext()).thenReturn(bundleCtxMock);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("cloud.service.pid", "cspid");
+        properties.put("publish.priority", prio);
+        properties.put("publish.qos", qos);
+        properties.put("publish.retain", retain);
+        properties.put("publish.topic", "A1/data");
+
+        cp.activate(ctxMock, properties);
+
+        CloudService cloudServiceMock = mock(CloudService.class);
+        CloudClient cloudClientMock = mock(CloudClient.class);
+
+        List<KuraPayload> payloads = new ArrayList<>();
+        when(cloudClientMock.publish(eq("A1/data"), (KuraPayload) anyObject(), eq(qos), eq(retain), eq(prio)))
+                .thenAnswer(invocation -> {
+                    payloads.add(invocation.getArgumentAt(1, KuraPayload.class));
+                    return 1;
+                });
+
+        TestUtil.setFieldValue(cp, "cloudService", cloudServiceMock);
+        TestUtil.setFieldValue(cp, "cloudClient", cloudClientMock);
+
+        List<WireRecord> wireRecords = new ArrayList<WireRecord>();
+        for (String name : new String[] { "wire.batch.records", "wire.records", "value" }) {
+            Map<String, TypedValue<?>> recordProps = new HashMap<String, TypedValue<?>>();
+            recordProps.put(name, new IntegerValue(1));
+            wireRecords.add(new WireRecord(recordProps));
+        }
+
+        cp.onWireReceive(new WireEnvelope("emitter", wireRecords));
+
+        assertEquals(2, payloads.size());
+        assertEquals(1, payloads.get(0).getMetric("wire.records"));
+        assertEquals(1, payloads.get(1).getMetric("value"));
+        for (KuraPayload payload : payloads) {
+            assertFalse(BatchPayloadCodec.isBatch(payload));
+        }
+    }
 }
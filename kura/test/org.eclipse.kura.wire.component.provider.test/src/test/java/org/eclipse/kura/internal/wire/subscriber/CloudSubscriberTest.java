@@ -19,6 +19,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -156,6 +157,64 @@ public class CloudSubscriberTest {
         verify(wsMock, times(1)).emit(anyObject());
     }
 
+    @Test
+    public void testOnMessageArrivedBatch() throws InvalidSyntaxException {
+        // test that only the payloads with the batch format markers are decoded as batches
+
+        CloudSubscriber cs = new CloudSubscriber();
+
+        WireHelperService wireHelperServiceMock = mock(WireHelperService.class);
+        cs.bindWireHelperService(wireHelperServiceMock);
+
+        WireSupport wsMock = mock(WireSupport.class);
+        when(wireHelperServiceMock.newWireSupport(anyObject())).thenReturn(wsMock);
+
+        List<List<?>> emitted = new ArrayList<>();
+        doAnswer(invocation -> {
+            emitted.add(invocation.getArgumentAt(0, List.class));
+            return null;
+        }).when(wsMock).emit(anyObject());
+
+        BundleContext bundleCtxMock = mock(BundleContext.class);
+        Filter filter = mock(Filter.class);
+        when(bundleCtxMock.createFilter(anyString())).thenReturn(filter);
+
+        ComponentContext ctxMock = mock(ComponentContext.class);
+        when(ctxMock.getBundleContext()).thenReturn(bundleCtxMock);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("cloud.service.pid", "cspid");
+        properties.put("subscribe.qos", 0);
+        properties.put("subscribe.deviceId", "DevId");
+        properties.put("subscribe.appTopic", "$topic");
+
+        cs.activate(ctxMock, properties);
+
+        KuraPayload batch = new KuraPayload();
+        batch.addMetric("wire.batch.format", 1);
+        batch.addMetric("wire.batch.records", 2);
+        batch.addMetric("0.value", 10);
+        batch.addMetric("1.value", 11);
+        cs.onMessageArrived("DevId", "topic", batch, 0, false);
+
+        KuraPayload record = new KuraPayload();
+        record.addMetric("wire.batch.records", 2);
+        record.addMetric("0.value", 10);
+        cs.onMessageArrived("DevId", "topic", record, 0, false);
+
+        KuraPayload unknownVersion = new KuraPayload();
+        unknownVersion.addMetric("wire.batch.format", 2);
+        unknownVersion.addMetric("wire.batch.records", 1);
+        cs.onMessageArrived("DevId", "topic", unknownVersion, 0, false);
+
+        assertEquals(3, emitted.size());
+        assertEquals(2, emitted.get(0).size());
+        assertEquals(11, ((WireRecord) emitted.get(0).get(1)).getProperties().get("value").getValue());
+        assertEquals(1, emitted.get(1).size());
+        assertEquals(2, ((WireRecord) emitted.get(1).get(0)).getProperties().size());
+        assertEquals(1, emitted.get(2).size());
+    }
+
     @Test
     public void testActivateDeactivate() throws NoSuchFieldException, InvalidSyntaxException, KuraException {
         // test activation and deactivation in a sequence
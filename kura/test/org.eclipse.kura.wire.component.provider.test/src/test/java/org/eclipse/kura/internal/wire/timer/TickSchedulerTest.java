@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class TickSchedulerTest {
+
+    @Test
+    public void testFirstTick() {
+        assertEquals(1100, TickScheduler.firstTick(1042, 100, 0, true));
+        assertEquals(1025, TickScheduler.firstTick(1000, 100, 25, true));
+        assertEquals(1125, TickScheduler.firstTick(1025, 100, 25, true));
+        assertEquals(1142, TickScheduler.firstTick(1042, 100, 0, false));
+    }
+
+    @Test
+    public void testNextTick() {
+        // on time
+        assertEquals(1100, TickScheduler.nextTick(1000, 1050, 100, MisfirePolicy.FIRE_ONCE));
+        assertEquals(1100, TickScheduler.nextTick(1000, 1050, 100, MisfirePolicy.SKIP));
+
+        // the tick fired at 1000 completed at 1350, the ticks at 1100, 1200 and 1300 were missed
+        assertEquals(1100, TickScheduler.nextTick(1000, 1350, 100, MisfirePolicy.FIRE_ALL));
+        assertEquals(1300, TickScheduler.nextTick(1000, 1350, 100, MisfirePolicy.FIRE_ONCE));
+        assertEquals(1400, TickScheduler.nextTick(1000, 1350, 100, MisfirePolicy.SKIP));
+
+        // completed exactly on the next tick
+        assertEquals(1100, TickScheduler.nextTick(1000, 1100, 100, MisfirePolicy.FIRE_ONCE));
+        assertEquals(1200, TickScheduler.nextTick(1000, 1100, 100, MisfirePolicy.SKIP));
+    }
+
+    @Test
+    public void testDriftAndJitter() {
+        final int period = 100;
+        final int expectedTicks = 50;
+        final ManualClock clock = new ManualClock(1_000_042);
+        final ManualExecutor executor = new ManualExecutor(clock);
+        final List<Long> ticks = new ArrayList<>();
+
+        final TickScheduler scheduler = new TickScheduler(period, 0, true, MisfirePolicy.FIRE_ONCE, tick -> {
+            ticks.add(tick);
+            // the tick task takes some time to complete
+            clock.advanceNanos(TimeUnit.MILLISECONDS.toNanos(7));
+        }, executor, clock::currentTimeMillis, clock::nanoTime);
+        scheduler.start();
+        executor.runPending();
+
+        // every tick is fired 0 to 4 ms late
+        final long start = clock.nanoTime();
+        for (int i = 0; i < expectedTicks; i++) {
+            executor.runNext(TimeUnit.MILLISECONDS.toNanos(i % 5));
+        }
+        scheduler.stop();
+
+        // the nominal tick times are phase aligned and evenly spaced
+        for (int i = 0; i < expectedTicks; i++) {
+            assertEquals(1_000_100 + i * period, (long) ticks.get(i));
+        }
+
+        // the lateness and the execution time do not accumulate
+        final long lastTickNanos = start + TimeUnit.MILLISECONDS.toNanos(58 + (expectedTicks - 1) * period + 4 + 7);
+        assertEquals(lastTickNanos, clock.nanoTime());
+
+        final TickStatistics statistics = scheduler.getStatistics();
+        assertEquals(expectedTicks, statistics.getTicks());
+        assertEquals(0, statistics.getMissed());
+        assertEquals(2000, statistics.getMeanLatenessMicros());
+        assertEquals(4000, statistics.getMaxLatenessMicros());
+    }
+
+    @Test
+    public void testMisfire() {
+        final ManualClock clock = new ManualClock(1000);
+        final ManualExecutor executor = new ManualExecutor(clock);
+        final List<Long> ticks = new ArrayList<>();
+
+        final TickScheduler scheduler = new TickScheduler(100, 0, true, MisfirePolicy.FIRE_ONCE, tick -> {
+            ticks.add(tick);
+            if (tick == 1100) {
+                clock.advanceNanos(TimeUnit.MILLISECONDS.toNanos(350));
+            }
+        }, executor, clock::currentTimeMillis, clock::nanoTime);
+        scheduler.start();
+        executor.runPending();
+
+        executor.runNext(0);
+        executor.runNext(0);
+        executor.runNext(0);
+        scheduler.stop();
+
+        // the tick fired at 1100 completed at 1450, the tick at 1400 is fired immediately and 1200, 1300 are missed
+        assertEquals(Arrays.asList(1100L, 1400L, 1500L), ticks);
+        assertEquals(2, scheduler.getStatistics().getMissed());
+    }
+
+    @Test
+    public void testWallClockAdjustment() {
+        final ManualClock clock = new ManualClock(1000);
+        final ManualExecutor executor = new ManualExecutor(clock);
+        final List<Long> ticks = new ArrayList<>();
+
+        final TickScheduler scheduler = new TickScheduler(100, 0, true, MisfirePolicy.FIRE_ONCE, ticks::add,
+                executor, clock::currentTimeMillis, clock::nanoTime);
+        scheduler.start();
+        executor.runPending();
+
+        executor.runNext(0);
+        clock.adjustWallClock(10_030);
+        executor.runNext(0);
+        executor.runNext(0);
+        scheduler.stop();
+
+        // the ticks are realigned to the adjusted wall clock
+        assertEquals(Arrays.asList(1100L, 1200L, 11_300L), ticks);
+    }
+
+    private static final class ManualClock {
+
+        private long nanos = TimeUnit.SECONDS.toNanos(5);
+        private long wallClockOffset;
+
+        ManualClock(final long currentTimeMillis) {
+            this.wallClockOffset = currentTimeMillis - TimeUnit.NANOSECONDS.toMillis(this.nanos);
+        }
+
+        long nanoTime() {
+            return this.nanos;
+        }
+
+        long currentTimeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(this.nanos) + this.wallClockOffset;
+        }
+
+        void advanceNanos(final long delta) {
+            this.nanos += delta;
+        }
+
+        void adjustWallClock(final long delta) {
+            this.wallClockOffset += delta;
+        }
+    }
+
+    /**
+     * An executor that runs the tasks in the test thread, advancing the clock to the deadline of scheduled tasks.
+     */
+    private static final class ManualExecutor extends ScheduledThreadPoolExecutor {
+
+        private final ManualClock clock;
+        private final Queue<Runnable> pending = new ArrayDeque<>();
+        private Runnable scheduled;
+        private long scheduledDelayNanos;
+
+        ManualExecutor(final ManualClock clock) {
+            super(1);
+            this.clock = clock;
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            this.pending.add(command);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(final Runnable command, final long delay, final TimeUnit unit) {
+            assertNull("Only one tick can be scheduled at a time", this.scheduled);
+            this.scheduled = command;
+            this.scheduledDelayNanos = unit.toNanos(delay);
+            return null;
+        }
+
+        void runPending() {
+            while (!this.pending.isEmpty()) {
+                this.pending.poll().run();
+            }
+        }
+
+        /**
+         * Runs the scheduled tick the provided number of nanoseconds after its deadline.
+         */
+        void runNext(final long latenessNanos) {
+            final Runnable command = this.scheduled;
+            assertNotNull("No tick scheduled", command);
+            this.scheduled = null;
+            this.clock.advanceNanos(Math.max(0, this.scheduledDelayNanos) + latenessNanos);
+            command.run();
+        }
+    }
+}
@@ -9,11 +9,14 @@
 package org.eclipse.kura.internal.wire.timer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,7 +35,6 @@ import org.quartz.SchedulerContext;
 import org.quartz.SchedulerException;
 import org.quartz.Trigger;
 import org.quartz.impl.triggers.CronTriggerImpl;
-import org.quartz.impl.triggers.SimpleTriggerImpl;
 
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
 public class TimerTest {
@@ -63,23 +65,6 @@ public class TimerTest {
         properties.put("simple.interval", expectedIntervalSeconds);
         properties.put("simple.time.unit", "SECONDS");
 
-        doAnswer(invocation -> {
-            Object[] arguments = invocation.getArguments();
-
-            assertEquals(2, arguments.length);
-
-            JobDetail job = (JobDetail) arguments[0];
-            Trigger trigger = (Trigger) arguments[1];
-
-            assertTrue(job.getJobDataMap() instanceof TimerJobDataMap);
-            assertTrue(trigger instanceof SimpleTriggerImpl);
-
-            SimpleTriggerImpl simpleTriggerImpl = (SimpleTriggerImpl) trigger;
-            assertEquals((long) expectedIntervalMilliseconds, simpleTriggerImpl.getRepeatInterval());
-
-            return null;
-        }).when(mockScheduler).scheduleJob(any(), any());
-
         timer.activate(null, properties);
 
         assertEquals(mockWireSupport, TestUtil.getFieldValue(timer, "wireSupport"));
@@ -87,10 +72,19 @@ public class TimerTest {
         TimerOptions timerOptions = (TimerOptions) TestUtil.getFieldValue(timer, "timerOptions");
         assertEquals(expectedType, timerOptions.getType());
         assertEquals(expectedIntervalSeconds, timerOptions.getSimpleInterval());
+        assertEquals(expectedIntervalMilliseconds,
+                timerOptions.getSimpleInterval() * timerOptions.getSimpleTimeUnitMultiplier());
+        assertEquals(MisfirePolicy.FIRE_ONCE, timerOptions.getMisfirePolicy());
+        assertFalse(timerOptions.isPhaseAligned());
 
-        assertNotNull(TestUtil.getFieldValue(timer, "jobKey"));
+        assertNotNull(TestUtil.getFieldValue(timer, "tickScheduler"));
+        assertNull(TestUtil.getFieldValue(timer, "jobKey"));
 
-        verify(mockScheduler).scheduleJob(any(), any());
+        // simple intervals do not use the Quartz scheduler
+        verify(mockScheduler, never()).scheduleJob(any(), any());
+
+        timer.deactivate(null);
+        assertNull(TestUtil.getFieldValue(timer, "tickScheduler"));
     }
 
     @Test
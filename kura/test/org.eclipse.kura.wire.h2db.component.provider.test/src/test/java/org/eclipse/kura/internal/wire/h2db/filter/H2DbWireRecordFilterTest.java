@@ -11,17 +11,21 @@ package org.eclipse.kura.internal.wire.h2db.filter;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -30,6 +34,7 @@ import org.eclipse.kura.db.H2DbService;
 import org.eclipse.kura.internal.wire.h2db.common.H2DbServiceHelper;
 import org.eclipse.kura.wire.WireEnvelope;
 import org.eclipse.kura.wire.WireHelperService;
+import org.eclipse.kura.wire.WireRecord;
 import org.eclipse.kura.wire.WireSupport;
 import org.junit.Test;
 import org.osgi.service.wireadmin.Wire;
@@ -286,4 +291,90 @@ public class H2DbWireRecordFilterTest {
         verify(mockWireSupport).updated(mockWire, 42);
     }
 
+    @Test
+    public void testIncrementalModes() throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:filtertest", "SA", "");
+        connection.prepareStatement(
+                "CREATE TABLE \"WR_data\" (ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, TIMESTAMP BIGINT, \"value\" INTEGER)")
+                .execute();
+
+        // every refresh takes its own connection
+        List<Connection> pooled = new ArrayList<>();
+        H2DbService mockDbService = mock(H2DbService.class);
+        when(mockDbService.getConnection()).thenAnswer(invocation -> {
+            Connection pooledConnection = DriverManager.getConnection("jdbc:h2:mem:filtertest", "SA", "");
+            pooled.add(pooledConnection);
+            return pooledConnection;
+        });
+
+        WireHelperService mockWireHelperService = mock(WireHelperService.class);
+
+        H2DbWireRecordFilter filter = new H2DbWireRecordFilter() {
+
+            @Override
+            protected void restartDbServiceTracker() {
+                bindDbService(mockDbService);
+            }
+        };
+        filter.bindWireHelperService(mockWireHelperService);
+
+        List<List<WireRecord>> emitted = new ArrayList<>();
+        WireSupport mockWireSupport = mock(WireSupport.class);
+        doAnswer(invocation -> {
+            emitted.add(new ArrayList<>((List<WireRecord>) invocation.getArguments()[0]));
+            return null;
+        }).when(mockWireSupport).emit(any());
+        when(mockWireHelperService.newWireSupport(filter)).thenReturn(mockWireSupport);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("cache.expiration.interval", 0);
+        properties.put("sql.view", "SELECT * FROM \"WR_data\" WHERE \"value\" <> '-1';");
+        properties.put("incremental.mode", "WINDOW");
+        properties.put("incremental.window.size", 3);
+
+        filter.activate(null, properties);
+
+        WireEnvelope mockWireEnvelope = mock(WireEnvelope.class);
+        for (int i = 0; i < 2; i++) {
+            connection.prepareStatement("INSERT INTO \"WR_data\" (TIMESTAMP, \"value\") VALUES (0, " + i + ")").execute();
+        }
+        filter.onWireReceive(mockWireEnvelope);
+
+        for (int i = 2; i < 4; i++) {
+            connection.prepareStatement("INSERT INTO \"WR_data\" (TIMESTAMP, \"value\") VALUES (0, " + i + ")").execute();
+        }
+        filter.onWireReceive(mockWireEnvelope);
+
+        // the window keeps the last 3 records
+        assertEquals(2, emitted.size());
+        assertEquals(2, emitted.get(0).size());
+        assertEquals(3, emitted.get(1).size());
+        assertEquals(1, emitted.get(1).get(0).getProperties().get("value").getValue());
+        assertEquals(3, emitted.get(1).get(2).getProperties().get("value").getValue());
+
+        // in delta mode only the new records are emitted
+        properties.put("incremental.mode", "DELTA");
+        filter.updated(properties);
+
+        filter.onWireReceive(mockWireEnvelope);
+        connection.prepareStatement("INSERT INTO \"WR_data\" (TIMESTAMP, \"value\") VALUES (0, 4)").execute();
+        filter.onWireReceive(mockWireEnvelope);
+        filter.onWireReceive(mockWireEnvelope);
+
+        assertEquals(5, emitted.size());
+        assertEquals(4, emitted.get(2).size());
+        assertEquals(1, emitted.get(3).size());
+        assertEquals(4, emitted.get(3).get(0).getProperties().get("value").getValue());
+        assertEquals(0, emitted.get(4).size());
+
+        // the connections are released by each refresh
+        assertEquals(5, pooled.size());
+        for (Connection pooledConnection : pooled) {
+            assertTrue(pooledConnection.isClosed());
+        }
+
+        filter.deactivate(null);
+        connection.prepareStatement("SHUTDOWN").execute();
+    }
+
 }
@@ -9,6 +9,7 @@
 package org.eclipse.kura.internal.wire.h2db.store;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -25,6 +26,7 @@ import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.kura.db.H2DbService;
+import org.eclipse.kura.internal.wire.h2db.store.H2DbPartitionedTable.Interval;
 import org.eclipse.kura.type.BooleanValue;
 import org.eclipse.kura.type.ByteArrayValue;
 import org.eclipse.kura.type.DoubleValue;
@@ -429,4 +431,219 @@ public class H2DbWireRecordStoreTest {
         connection.prepareStatement("SHUTDOWN").execute();
     }
 
+    @Test
+    public void testPartitionedSequence() throws SQLException {
+        // create a few partitions, store wire records in the current one and check that retention drops whole
+        // partitions
+
+        Connection connection = getConnection();
+
+        H2DbService dbServiceMock = mock(H2DbService.class);
+        when(dbServiceMock.getConnection()).thenReturn(connection);
+
+        // half past an hour, so that all the records fall in the same partition
+        long now = 1496313000000L;
+
+        H2DbWireRecordStore store = new H2DbWireRecordStore() {
+
+            @Override
+            protected void restartDbServiceTracker() {
+                bindDbService(dbServiceMock);
+            }
+
+            @Override
+            protected long currentTimeMillis() {
+                return now;
+            }
+        };
+
+        WireHelperService whsMock = mock(WireHelperService.class);
+        WireSupport wireSupportMock = mock(WireSupport.class);
+        when(whsMock.newWireSupport(store)).thenReturn(wireSupportMock);
+
+        store.bindWireHelperService(whsMock);
+
+        String tableName = "H2_PARTITION_TEST";
+        String expiredBucket = tableName + "_P" + Interval.HOUR.formatBucketStart(now - 48 * 3600000L);
+        String previousBucket = tableName + "_P" + Interval.HOUR.formatBucketStart(now - 3600000L);
+        String currentBucket = tableName + "_P" + Interval.HOUR.formatBucketStart(now);
+
+        connection.prepareStatement("CREATE TABLE \"" + expiredBucket + "\" (ID BIGINT, TIMESTAMP BIGINT)").execute();
+        connection.prepareStatement("CREATE TABLE \"" + previousBucket
+                + "\" (ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, TIMESTAMP BIGINT, \"key\" VARCHAR)")
+                .execute();
+        for (int i = 0; i < 4; i++) {
+            connection.prepareStatement("INSERT INTO \"" + previousBucket + "\" (TIMESTAMP, \"key\") VALUES (0, 'old')")
+                    .execute();
+        }
+
+        ComponentContext ctx = mock(ComponentContext.class);
+        Map<String, Object> props = new HashMap<String, Object>();
+        props.put("table.name", tableName);
+        props.put("partition.interval", "HOUR");
+        props.put("partition.retention.count", 24);
+        props.put("cleanup.records.keep", 0);
+        props.put("maximum.table.size", 6);
+
+        // init, the expired partition is dropped and the current one is created
+        store.activate(ctx, props);
+
+        DatabaseMetaData metaData = connection.getMetaData();
+        assertFalse(metaData.getTables(null, null, expiredBucket, null).next());
+        assertTrue(metaData.getTables(null, null, previousBucket, null).next());
+        assertTrue(metaData.getTables(null, null, currentBucket, null).next());
+        ResultSet views = metaData.getTables(null, null, tableName, new String[] { "VIEW" });
+        assertTrue("The view was expected", views.next());
+
+        String emitterPid = "emitter";
+        List<WireRecord> wireRecords = new ArrayList<WireRecord>();
+        Map<String, TypedValue<?>> recordProps = new HashMap<String, TypedValue<?>>();
+        recordProps.put("key", new StringValue("val"));
+        recordProps.put("other", new IntegerValue(1));
+        wireRecords.add(new WireRecord(recordProps));
+        WireEnvelope wireEvelope = new WireEnvelope(emitterPid, wireRecords);
+
+        // records are visible through the view, the new column is reported as NULL for the old partition
+        store.onWireReceive(wireEvelope);
+
+        ResultSet resultSet = connection.prepareStatement("SELECT count(*) FROM " + tableName).executeQuery();
+        resultSet.next();
+        assertEquals("Unexpected number of records", 5, resultSet.getInt(1));
+
+        resultSet = connection
+                .prepareStatement("SELECT ID, \"other\" FROM " + tableName + " WHERE \"key\" = 'val'").executeQuery();
+        assertTrue(resultSet.next());
+        assertEquals("Ids must not overlap between partitions", 5, resultSet.getLong(1));
+        assertEquals(1, resultSet.getInt(2));
+
+        resultSet = connection.prepareStatement("SELECT count(\"other\") FROM " + tableName).executeQuery();
+        resultSet.next();
+        assertEquals(1, resultSet.getInt(1));
+
+        // reaching the maximum size drops the previous partition as a whole
+        store.onWireReceive(wireEvelope);
+        store.onWireReceive(wireEvelope);
+
+        assertFalse(metaData.getTables(null, null, previousBucket, null).next());
+        resultSet = connection.prepareStatement("SELECT count(*) FROM " + tableName).executeQuery();
+        resultSet.next();
+        assertEquals("Unexpected number of records", 3, resultSet.getInt(1));
+
+        // switching back to a single table replaces the view and merges the partitions into the table
+        props.put("partition.interval", "NONE");
+        store.updated(props);
+
+        assertFalse(metaData.getTables(null, null, tableName, new String[] { "VIEW" }).next());
+        assertTrue(metaData.getTables(null, null, tableName, new String[] { "TABLE" }).next());
+        assertFalse(metaData.getTables(null, null, currentBucket, null).next());
+        resultSet = connection.prepareStatement("SELECT count(*), count(\"other\") FROM " + tableName)
+                .executeQuery();
+        resultSet.next();
+        assertEquals("Unexpected number of records", 3, resultSet.getInt(1));
+        assertEquals(3, resultSet.getInt(2));
+
+        // the records stored in the single table are merged into the current partition
+        store.onWireReceive(wireEvelope);
+
+        props.put("partition.interval", "HOUR");
+        store.updated(props);
+
+        assertTrue(metaData.getTables(null, null, tableName, new String[] { "VIEW" }).next());
+        resultSet = connection.prepareStatement("SELECT count(*) FROM " + tableName).executeQuery();
+        resultSet.next();
+        assertEquals("Unexpected number of records", 4, resultSet.getInt(1));
+
+        // deinit
+        store.deactivate(null);
+        connection.prepareStatement("SHUTDOWN").execute();
+    }
+
+    @Test
+    public void testPartitionedLateRecords() throws SQLException {
+        // the records whose partition has been dropped are stored in the newest partition, a partition dropped by
+        // other means is created again
+
+        Connection connection = getConnection();
+
+        H2DbService dbServiceMock = mock(H2DbService.class);
+        when(dbServiceMock.getConnection()).thenReturn(connection);
+
+        long start = 1496313000000L;
+        long[] now = { start };
+
+        H2DbWireRecordStore store = new H2DbWireRecordStore() {
+
+            @Override
+            protected void restartDbServiceTracker() {
+                bindDbService(dbServiceMock);
+            }
+
+            @Override
+            protected long currentTimeMillis() {
+                return now[0];
+            }
+        };
+
+        WireHelperService whsMock = mock(WireHelperService.class);
+        WireSupport wireSupportMock = mock(WireSupport.class);
+        when(whsMock.newWireSupport(store)).thenReturn(wireSupportMock);
+
+        store.bindWireHelperService(whsMock);
+
+        String tableName = "H2_LATE_TEST";
+        String firstBucket = tableName + "_P" + Interval.HOUR.formatBucketStart(start);
+        String lastBucket = tableName + "_P" + Interval.HOUR.formatBucketStart(start + 2 * 3600000L);
+
+        ComponentContext ctx = mock(ComponentContext.class);
+        Map<String, Object> props = new HashMap<String, Object>();
+        props.put("table.name", tableName);
+        props.put("partition.interval", "HOUR");
+        props.put("partition.retention.count", 2);
+        props.put("cleanup.records.keep", 0);
+        props.put("maximum.table.size", 100);
+
+        store.activate(ctx, props);
+
+        List<WireRecord> wireRecords = new ArrayList<WireRecord>();
+        Map<String, TypedValue<?>> recordProps = new HashMap<String, TypedValue<?>>();
+        recordProps.put("key", new StringValue("val"));
+        wireRecords.add(new WireRecord(recordProps));
+        WireEnvelope wireEvelope = new WireEnvelope("emitter", wireRecords);
+
+        store.onWireReceive(wireEvelope);
+
+        // two hours later the first partition is out of the retention window
+        now[0] = start + 2 * 3600000L;
+        store.onWireReceive(wireEvelope);
+
+        DatabaseMetaData metaData = connection.getMetaData();
+        assertFalse(metaData.getTables(null, null, firstBucket, null).next());
+        assertTrue(metaData.getTables(null, null, lastBucket, null).next());
+
+        // a late record does not create the dropped partition again
+        now[0] = start;
+        store.onWireReceive(wireEvelope);
+
+        assertFalse(metaData.getTables(null, null, firstBucket, null).next());
+        ResultSet resultSet = connection
+                .prepareStatement("SELECT count(*), min(TIMESTAMP) FROM \"" + lastBucket + "\"").executeQuery();
+        resultSet.next();
+        assertEquals("Unexpected number of records", 2, resultSet.getInt(1));
+        assertEquals(start, resultSet.getLong(2));
+
+        // the current partition is created again if it has been dropped
+        now[0] = start + 2 * 3600000L;
+        connection.prepareStatement("DROP TABLE \"" + lastBucket + "\" CASCADE").execute();
+        store.onWireReceive(wireEvelope);
+
+        assertTrue(metaData.getTables(null, null, lastBucket, null).next());
+        resultSet = connection.prepareStatement("SELECT count(*) FROM " + tableName).executeQuery();
+        resultSet.next();
+        assertEquals("Unexpected number of records", 1, resultSet.getInt(1));
+
+        // deinit
+        store.deactivate(null);
+        connection.prepareStatement("SHUTDOWN").execute();
+    }
+
 }
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.kura.internal.wire.helper;
+
+import static org.junit.Assert.assertEquals;
+
+import org.eclipse.kura.wire.metrics.LatencyHistogram;
+import org.junit.Test;
+
+public class LatencyRecorderTest {
+
+    @Test
+    public void testBucketOf() {
+        assertEquals(0, LatencyHistogram.bucketOf(0, 32));
+        assertEquals(0, LatencyHistogram.bucketOf(1023, 32));
+        assertEquals(1, LatencyHistogram.bucketOf(1024, 32));
+        assertEquals(1, LatencyHistogram.bucketOf(2047, 32));
+        assertEquals(2, LatencyHistogram.bucketOf(2048, 32));
+        assertEquals(3, LatencyHistogram.bucketOf(5000, 32));
+
+        // longer durations are counted by the last bucket
+        assertEquals(31, LatencyHistogram.bucketOf(Long.MAX_VALUE, 32));
+        assertEquals(3, LatencyHistogram.bucketOf(1_000_000, 4));
+    }
+
+    @Test
+    public void testSnapshot() {
+        final LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record(500);
+        recorder.record(1500);
+        recorder.record(1800);
+        recorder.record(5000);
+
+        final LatencyHistogram histogram = recorder.snapshot();
+        assertEquals(4, histogram.getCount());
+        assertEquals(8800, histogram.getTotalNanos());
+        assertEquals(2200, histogram.getMeanNanos());
+        assertEquals(5000, histogram.getMaxNanos());
+        assertEquals(32, histogram.getBucketCount());
+        assertEquals(1, histogram.getBucket(0));
+        assertEquals(2, histogram.getBucket(1));
+        assertEquals(0, histogram.getBucket(2));
+        assertEquals(1, histogram.getBucket(3));
+
+        assertEquals(1024, histogram.getBucketUpperBoundNanos(0));
+        assertEquals(8192, histogram.getBucketUpperBoundNanos(3));
+        assertEquals(Long.MAX_VALUE, histogram.getBucketUpperBoundNanos(31));
+
+        // the snapshot is not affected by later updates
+        recorder.record(500);
+        assertEquals(4, histogram.getCount());
+        assertEquals(5, recorder.snapshot().getCount());
+    }
+
+    @Test
+    public void testPercentiles() {
+        final LatencyRecorder recorder = new LatencyRecorder();
+        assertEquals(0, recorder.snapshot().getPercentileNanos(50));
+
+        recorder.record(500);
+        recorder.record(1500);
+        recorder.record(1800);
+        recorder.record(5000);
+        final LatencyHistogram histogram = recorder.snapshot();
+
+        // the estimate is the upper bound of the bucket containing the percentile
+        assertEquals(1024, histogram.getPercentileNanos(0));
+        assertEquals(1024, histogram.getPercentileNanos(25));
+        assertEquals(2048, histogram.getPercentileNanos(26));
+        assertEquals(2048, histogram.getPercentileNanos(75));
+
+        // but never more than the maximum
+        assertEquals(5000, histogram.getPercentileNanos(99));
+        assertEquals(5000, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void testPercentileInLastBucket() {
+        final LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record(1000);
+        recorder.record(Long.MAX_VALUE / 2);
+
+        assertEquals(1024, recorder.snapshot().getPercentileNanos(50));
+        assertEquals(Long.MAX_VALUE / 2, recorder.snapshot().getPercentileNanos(100));
+    }
+}
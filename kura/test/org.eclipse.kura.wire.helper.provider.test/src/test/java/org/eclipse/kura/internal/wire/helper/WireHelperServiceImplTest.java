@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.kura.internal.wire.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.kura.core.testutil.TestUtil;
+import org.eclipse.kura.internal.wire.helper.WireMetricsRegistry.ComponentCounters;
+import org.junit.Test;
+
+public class WireHelperServiceImplTest {
+
+    @Test
+    public void testDisabledByDefault() {
+        final WireHelperServiceImpl service = new WireHelperServiceImpl();
+        service.activate(new HashMap<>());
+
+        assertFalse(service.isEnabled());
+        assertTrue(service.getComponentMetrics().isEmpty());
+        assertTrue(service.getWireMetrics().isEmpty());
+    }
+
+    @Test
+    public void testCounterReset() throws NoSuchFieldException {
+        final WireHelperServiceImpl service = new WireHelperServiceImpl();
+        service.activate(newProperties(true));
+        assertTrue(service.isEnabled());
+
+        final WireMetricsRegistry registry = (WireMetricsRegistry) TestUtil.getFieldValue(service, "metrics");
+        registry.getComponentCounters("timer").envelopesOut.increment();
+        registry.getWireCounters("timer", "logger.sid").envelopes.increment();
+
+        service.reset();
+        assertTrue(registry.getComponentCounters().isEmpty());
+        assertTrue(registry.getWireCounters().isEmpty());
+        assertTrue(service.isEnabled());
+
+        // counters are discarded when the collection is disabled, and start from zero when enabled again
+        ComponentCounters counters = registry.getComponentCounters("timer");
+        counters.envelopesOut.increment();
+        service.updated(newProperties(false));
+        assertFalse(service.isEnabled());
+        assertTrue(registry.getComponentCounters().isEmpty());
+
+        service.updated(newProperties(true));
+        assertEquals(0, registry.getComponentCounters("timer").envelopesOut.sum());
+
+        service.deactivate();
+        assertFalse(service.isEnabled());
+    }
+
+    private static Map<String, Object> newProperties(final boolean enabled) {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("metrics.enabled", enabled);
+        properties.put("metrics.event.interval", 0);
+        return properties;
+    }
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.kura.internal.wire.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.osgi.service.wireadmin.WireConstants.WIREADMIN_CONSUMER_PID;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.internal.wire.helper.WireMetricsRegistry.ComponentCounters;
+import org.eclipse.kura.internal.wire.helper.WireMetricsRegistry.WireCounters;
+import org.eclipse.kura.wire.WireComponent;
+import org.eclipse.kura.wire.WireEmitter;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireHelperService;
+import org.eclipse.kura.wire.WireReceiver;
+import org.eclipse.kura.wire.WireRecord;
+import org.junit.Test;
+import org.osgi.service.event.EventAdmin;
+import org.osgi.service.wireadmin.Wire;
+
+public class WireSupportImplTest {
+
+    private static final long SLOW_DELIVERY_MILLIS = 50;
+
+    private final WireMetricsRegistry registry = new WireMetricsRegistry();
+
+    @Test
+    public void testEmitPerWireAttribution() {
+        this.registry.setEnabled(true);
+        final WireSupportImpl wireSupport = newWireSupport(mock(WireEmitter.class), "timer");
+
+        final Wire slowWire = newWire("slow.sid");
+        doAnswer(invocation -> {
+            Thread.sleep(SLOW_DELIVERY_MILLIS);
+            return null;
+        }).when(slowWire).update(any());
+        final Wire fastWire = newWire("fast.sid");
+        wireSupport.consumersConnected(new Wire[] { slowWire, fastWire });
+
+        wireSupport.emit(newRecords(2));
+        wireSupport.emit(newRecords(3));
+
+        verify(slowWire, times(2)).update(any());
+        verify(fastWire, times(2)).update(any());
+
+        final ComponentCounters counters = this.registry.getComponentCounters("timer");
+        assertEquals(2, counters.envelopesOut.sum());
+        assertEquals(5, counters.recordsOut.sum());
+
+        final WireCounters slow = this.registry.getWireCounters("timer", "slow.sid");
+        final WireCounters fast = this.registry.getWireCounters("timer", "fast.sid");
+        assertEquals(2, slow.envelopes.sum());
+        assertEquals(5, slow.records.sum());
+        assertEquals(2, fast.envelopes.sum());
+        assertEquals(5, fast.records.sum());
+
+        // the time spent in the slow receiver is attributed to its wire only
+        final long slowNanos = TimeUnit.MILLISECONDS.toNanos(2 * SLOW_DELIVERY_MILLIS);
+        assertTrue(slow.deliveryNanos.sum() >= slowNanos);
+        assertTrue(fast.deliveryNanos.sum() < slowNanos);
+        assertEquals(slow.deliveryNanos.sum() + fast.deliveryNanos.sum(), counters.emitBlockedNanos.sum());
+    }
+
+    @Test
+    public void testEmitDisabled() {
+        final WireSupportImpl wireSupport = newWireSupport(mock(WireEmitter.class), "timer");
+        final Wire wire = newWire("logger.sid");
+        wireSupport.consumersConnected(new Wire[] { wire });
+
+        wireSupport.emit(newRecords(1));
+
+        verify(wire).update(any(WireEnvelope.class));
+        assertTrue(this.registry.getComponentCounters().isEmpty());
+        assertTrue(this.registry.getWireCounters().isEmpty());
+    }
+
+    @Test
+    public void testReceive() {
+        this.registry.setEnabled(true);
+        final WireReceiver receiver = mock(WireReceiver.class);
+        final WireSupportImpl wireSupport = newWireSupport(receiver, "logger");
+        final WireEnvelope envelope = new WireEnvelope("timer", newRecords(4));
+
+        wireSupport.updated(mock(Wire.class), envelope);
+
+        verify(receiver).onWireReceive(envelope);
+        final ComponentCounters counters = this.registry.getComponentCounters("logger");
+        assertEquals(1, counters.envelopesIn.sum());
+        assertEquals(4, counters.recordsIn.sum());
+        assertEquals(1, counters.receiveTime.snapshot().getCount());
+    }
+
+    @Test
+    public void testReceiveDisabled() {
+        final WireReceiver receiver = mock(WireReceiver.class);
+        final WireSupportImpl wireSupport = newWireSupport(receiver, "logger");
+        final WireEnvelope envelope = new WireEnvelope("timer", newRecords(1));
+
+        wireSupport.updated(mock(Wire.class), envelope);
+
+        verify(receiver).onWireReceive(envelope);
+        assertTrue(this.registry.getComponentCounters().isEmpty());
+    }
+
+    @Test
+    public void testUnknownPidNotMeasured() {
+        this.registry.setEnabled(true);
+        final WireReceiver receiver = mock(WireReceiver.class);
+        final WireSupportImpl wireSupport = newWireSupport(receiver, null);
+
+        wireSupport.updated(mock(Wire.class), new WireEnvelope("timer", newRecords(1)));
+
+        verify(receiver).onWireReceive(any());
+        assertTrue(this.registry.getComponentCounters().isEmpty());
+    }
+
+    private WireSupportImpl newWireSupport(final WireComponent component, final String pid) {
+        final WireHelperService wireHelperService = mock(WireHelperService.class);
+        when(wireHelperService.getPid(component)).thenReturn(pid);
+        when(wireHelperService.getServicePid(component)).thenReturn(pid + ".sid");
+        return new WireSupportImpl(component, wireHelperService, mock(EventAdmin.class), this.registry);
+    }
+
+    private static Wire newWire(final String consumerServicePid) {
+        final Wire wire = mock(Wire.class);
+        final Hashtable<String, Object> properties = new Hashtable<>();
+        properties.put(WIREADMIN_CONSUMER_PID, consumerServicePid);
+        when(wire.getProperties()).thenReturn(properties);
+        return wire;
+    }
+
+    private static List<WireRecord> newRecords(final int count) {
+        final WireRecord[] records = new WireRecord[count];
+        Arrays.fill(records, new WireRecord(Collections.emptyMap()));
+        return Arrays.asList(records);
+    }
+}
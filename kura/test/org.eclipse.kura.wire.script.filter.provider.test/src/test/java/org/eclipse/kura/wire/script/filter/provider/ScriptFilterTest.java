@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Eurotech and/or its affiliates and others
+ *
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   which accompanies this distribution, and is available at
+ *   http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.eclipse.kura.wire.script.filter.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.kura.core.testutil.TestUtil;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireHelperService;
+import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.WireSupport;
+import org.junit.After;
+import org.junit.Test;
+
+public class ScriptFilterTest {
+
+    private static final String COUNT_SCRIPT = "var r = newWireRecord(); r.count = newIntegerValue(inputs.length); "
+            + "output.add(r);";
+
+    private final List<Integer> emittedCounts = new CopyOnWriteArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+
+    private ScriptFilter filter;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        for (Thread thread : this.threads) {
+            thread.join(5000);
+        }
+        if (this.filter != null) {
+            this.filter.deactivate();
+        }
+    }
+
+    @Test
+    public void testBatching() throws Exception {
+        // the first invocation blocks, the envelopes received in the meantime are processed in a single batch
+        createFilter("var gate = state.remove('gate'); if (gate != null) { gate.await(); } " + COUNT_SCRIPT, 1, 10,
+                0);
+        CountDownLatch gate = new CountDownLatch(1);
+        getState().put("gate", gate);
+
+        receiveAsync();
+        waitFor(() -> !getState().containsKey("gate"));
+        for (int i = 0; i < 3; i++) {
+            receiveAsync();
+        }
+        waitFor(() -> getPendingEnvelopes().size() == 3);
+        gate.countDown();
+
+        waitFor(() -> this.emittedCounts.size() == 2);
+        assertEquals(Integer.valueOf(1), this.emittedCounts.get(0));
+        assertEquals(Integer.valueOf(3), this.emittedCounts.get(1));
+        assertEquals(2, this.filter.getStatistics().getExecutions());
+        assertEquals(4, this.filter.getStatistics().getEnvelopes());
+    }
+
+    @Test
+    public void testPoolRunsInParallel() throws Exception {
+        createFilter("state.get('started').countDown(); state.get('gate').await(); " + COUNT_SCRIPT, 2, 1, 0);
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch gate = new CountDownLatch(1);
+        getState().put("started", started);
+        getState().put("gate", gate);
+
+        receiveAsync();
+        receiveAsync();
+
+        // both invocations are running at the same time
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        gate.countDown();
+        waitFor(() -> this.emittedCounts.size() == 2);
+    }
+
+    @Test
+    public void testScriptState() {
+        String script = "if (typeof count === 'undefined') { count = 0; } count++; "
+                + "var total = state.containsKey('total') ? state.get('total') + 1 : 1; state.put('total', total); "
+                + "var r = newWireRecord(); r.count = newIntegerValue(count); r.total = newIntegerValue(total); "
+                + "output.add(r);";
+        List<WireRecord> emitted = new ArrayList<>();
+        createFilter(script, 1, 1, 0, emitted);
+
+        this.filter.onWireReceive(newEnvelope());
+        this.filter.onWireReceive(newEnvelope());
+        assertEquals(2, emitted.get(1).getProperties().get("count").getValue());
+        assertEquals(2, emitted.get(1).getProperties().get("total").getValue());
+
+        // the global variables and the state survive an update...
+        this.filter.updated(newProperties(script, 1, 1, 0, false));
+        this.filter.onWireReceive(newEnvelope());
+        assertEquals(3, emitted.get(2).getProperties().get("count").getValue());
+        assertEquals(3, emitted.get(2).getProperties().get("total").getValue());
+
+        // ...unless the context is dropped
+        this.filter.updated(newProperties(script, 1, 1, 0, true));
+        this.filter.onWireReceive(newEnvelope());
+        assertEquals(1, emitted.get(3).getProperties().get("count").getValue());
+        assertEquals(1, emitted.get(3).getProperties().get("total").getValue());
+    }
+
+    @Test
+    public void testExecutionTimeout() throws Exception {
+        createFilter("while (state.containsKey('loop')) {} " + COUNT_SCRIPT, 1, 1, 200);
+        getState().put("loop", true);
+
+        // the first timed out runner is replaced, the second one is not since the pool size is 1
+        this.filter.onWireReceive(newEnvelope());
+        this.filter.onWireReceive(newEnvelope());
+        assertEquals(2, this.filter.getStatistics().getTimeouts());
+        assertEquals(2, this.filter.getAbandonedRunners());
+
+        // no runner available, the envelope is dropped instead of blocking the caller
+        this.filter.onWireReceive(newEnvelope());
+        assertEquals(1, this.filter.getStatistics().getDroppedEnvelopes());
+        assertTrue(this.emittedCounts.isEmpty());
+
+        // the abandoned scripts terminate and the pool is restored
+        getState().remove("loop");
+        waitFor(() -> this.filter.getAbandonedRunners() == 0);
+        this.filter.onWireReceive(newEnvelope());
+        assertEquals(1, this.emittedCounts.size());
+    }
+
+    @Test
+    public void testScriptNotCompiled() {
+        createFilter("var r = ;", 1, 1, 0);
+
+        this.filter.onWireReceive(newEnvelope());
+        this.filter.onWireReceive(newEnvelope());
+
+        assertEquals(2, this.filter.getStatistics().getDroppedEnvelopes());
+        assertEquals(0, this.filter.getStatistics().getExecutions());
+        assertTrue(this.emittedCounts.isEmpty());
+    }
+
+    private void createFilter(String script, int poolSize, int batchSize, int timeout) {
+        createFilter(script, poolSize, batchSize, timeout, new ArrayList<>());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void createFilter(String script, int poolSize, int batchSize, int timeout, List<WireRecord> emitted) {
+        this.filter = new ScriptFilter();
+        WireHelperService wireHelperService = mock(WireHelperService.class);
+        WireSupport wireSupport = mock(WireSupport.class);
+        when(wireHelperService.newWireSupport(this.filter)).thenReturn(wireSupport);
+        doAnswer(invocation -> {
+            List<WireRecord> records = (List<WireRecord>) invocation.getArguments()[0];
+            emitted.addAll(records);
+            this.emittedCounts.add((Integer) records.get(0).getProperties().get("count").getValue());
+            return null;
+        }).when(wireSupport).emit(any());
+        this.filter.bindWireHelperService(wireHelperService);
+        this.filter.activate(newProperties(script, poolSize, batchSize, timeout, false));
+    }
+
+    private static Map<String, Object> newProperties(String script, int poolSize, int batchSize, int timeout,
+            boolean dropContext) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("script", script);
+        properties.put("script.context.drop", dropContext);
+        properties.put("pool.size", poolSize);
+        properties.put("batch.size", batchSize);
+        properties.put("execution.timeout", timeout);
+        return properties;
+    }
+
+    private static WireEnvelope newEnvelope() {
+        return new WireEnvelope("emitter", Collections.emptyList());
+    }
+
+    private void receiveAsync() {
+        Thread thread = new Thread(() -> this.filter.onWireReceive(newEnvelope()));
+        this.threads.add(thread);
+        thread.start();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getState() {
+        try {
+            return (Map<String, Object>) TestUtil.getFieldValue(this.filter, "state");
+        } catch (NoSuchFieldException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private Queue<?> getPendingEnvelopes() {
+        try {
+            return (Queue<?>) TestUtil.getFieldValue(this.filter, "pendingEnvelopes");
+        } catch (NoSuchFieldException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue("Condition not met in time", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -20,13 +20,16 @@
 |=============================================================================*/
 package Moka7;
 
+import java.io.BufferedInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
 import java.util.Date;
 
 
@@ -55,6 +58,11 @@ public class S7Client
     public static final int errS7BufferTooSmall    = 0x000C;
     public static final int errS7FunctionError     = 0x000D;
     public static final int errS7InvalidParams     = 0x000E;           
+    public static final int errS7TooManyItems      = 0x000F;
+    public static final int errS7SizeOverPDU       = 0x0010;
+    
+    // Max number of items in a ReadMultiVars/WriteMultiVars request
+    public static final int MaxVars = 20;
     
     // Public fields
     public boolean Connected = false;
@@ -76,6 +84,7 @@ public class S7Client
     private DataOutputStream OutStream = null;
             
     private String IPAddress;
+    private int RemotePort = ISOTCP;
            
     private byte LocalTSAP_HI;
     private byte LocalTSAP_LO;
@@ -347,6 +356,10 @@ public class S7Client
                 return "S7 function refused by the CPU.";
             case errS7InvalidParams :
                 return "Invalid parameters supplied to the function.";
+            case errS7TooManyItems :
+                return "Too many items in a multi variable request.";
+            case errS7SizeOverPDU :
+                return "The multi variable request exceeds the PDU size.";
             default : 
                 return "Unknown error : 0x"+Integer.toHexString(Error);
         }
@@ -354,13 +367,13 @@ public class S7Client
     
     private int TCPConnect() 
     {
-        SocketAddress sockaddr = new InetSocketAddress(IPAddress, ISOTCP);
+        SocketAddress sockaddr = new InetSocketAddress(IPAddress, RemotePort);
         LastError=0;
         try {                       
             TCPSocket = new Socket(); 
             TCPSocket.connect(sockaddr ,5000);
             TCPSocket.setTcpNoDelay(true);
-            InStream = new DataInputStream(TCPSocket.getInputStream());
+            InStream = new DataInputStream(new BufferedInputStream(TCPSocket.getInputStream(), MaxPduSize));
             OutStream = new DataOutputStream(TCPSocket.getOutputStream());           
         }
         catch (IOException e) {
@@ -369,56 +382,23 @@ public class S7Client
         return LastError;
     }
     
-    private int WaitForData(int Size, int Timeout) 
+    // Blocks until Size bytes are received, RecvTimeout is the maximum time
+    // the line can stay idle while receiving them
+    private int RecvPacket(byte[] Buffer, int Start, int Size)
     {
-        int cnt = 0;
         LastError=0;
-        int SizeAvail;
-        boolean Expired = false;
-        try 
-        {
-            SizeAvail=InStream.available();
-            while ((SizeAvail<Size) && (!Expired) && (LastError==0))
-            {
-                
-                cnt++;
-                try {
-                    Thread.sleep(1);
-                } 
-                catch (InterruptedException ex) {
-                    LastError=errTCPDataRecvTout;
-                }
-                SizeAvail=InStream.available();              
-                Expired=cnt>Timeout;
-                // If timeout we clean the buffer
-                if (Expired && (SizeAvail>0) && (LastError==0))
-                  InStream.read(PDU, 0, SizeAvail);
-            }
+        try {
+            TCPSocket.setSoTimeout(RecvTimeout);
+            InStream.readFully(Buffer, Start, Size);
         } 
-        catch (IOException ex) 
-        {
+        catch (SocketTimeoutException ex) {
             LastError=errTCPDataRecvTout;
         }
-        if (cnt>=Timeout)
-        {
-            LastError=errTCPDataRecvTout;
-        }        
-        return LastError;
-    }
-    
-    private int RecvPacket(byte[] Buffer, int Start, int Size)
-    {
-	int BytesRead=0;
-        LastError=WaitForData(Size,RecvTimeout);
-	if (LastError==0)
-        {
-            try {
-                BytesRead = InStream.read(Buffer, Start, Size);
-            } catch (IOException ex) {
-                LastError=errTCPDataRecv;
-            }
-            if (BytesRead==0)
-                LastError=errTCPConnectionReset;        
+        catch (EOFException ex) {
+            LastError=errTCPConnectionReset;
+        }
+        catch (IOException ex) {
+            LastError=errTCPDataRecv;
         }
         return LastError;
     }
@@ -608,6 +588,11 @@ public class S7Client
         return _PDULength;
     }
     
+    public void SetConnectionPort(int Port)
+    {
+        RemotePort = Port;
+    }
+    
     public void SetConnectionParams(String Address, int LocalTSAP, int RemoteTSAP)
     {
         int LocTSAP = LocalTSAP & 0x0000FFFF;
@@ -800,6 +785,249 @@ public class S7Client
         return LastError;
     }
    
+    private static int ItemWordSize(int Area)
+    {
+        // If we are addressing Timers or counters the element size is 2
+        if ((Area==S7.S7AreaCT) || (Area==S7.S7AreaTM))
+            return 2;
+        return 1;
+    }
+    
+    // Writes the 12 bytes item specification of a multi variable request
+    private void SetItemSpec(int Pos, S7DataItem Item)
+    {
+        int Address;
+        PDU[Pos]   = (byte)0x12; // Var spec.
+        PDU[Pos+1] = (byte)0x0a; // Length of remaining bytes
+        PDU[Pos+2] = (byte)0x10; // Syntax ID
+        if ((Item.Area==S7.S7AreaCT) || (Item.Area==S7.S7AreaTM))
+        {
+            Address = Item.Start;
+            if (Item.Area==S7.S7AreaCT)
+                PDU[Pos+3]=S7WLCounter;
+            else
+                PDU[Pos+3]=S7WLTimer;
+        }
+        else
+        {
+            Address = Item.Start<<3;
+            PDU[Pos+3]=S7WLByte;
+        }
+        S7.SetWordAt(PDU,Pos+4,Item.Amount);
+        if (Item.Area==S7.S7AreaDB)
+            S7.SetWordAt(PDU,Pos+6,Item.DBNumber);
+        else
+            S7.SetWordAt(PDU,Pos+6,0);
+        PDU[Pos+8] = (byte) Item.Area;
+        PDU[Pos+11] = (byte) (Address & 0x0FF);
+        Address = Address >> 8;
+        PDU[Pos+10] = (byte) (Address & 0x0FF);
+        Address = Address >> 8;
+        PDU[Pos+9] = (byte) (Address & 0x0FF);
+    }
+    
+    // Checks the items of a multi variable request, returns the size of the data section
+    private int CheckItems(S7DataItem[] Items, int ItemsCount)
+    {
+        int DataSize = 0;
+        int ItemSize;
+        LastError=0;
+        if ((ItemsCount<1) || (Items==null) || (Items.length<ItemsCount))
+        {
+            LastError=errS7InvalidParams;
+            return 0;
+        }
+        if (ItemsCount>MaxVars)
+        {
+            LastError=errS7TooManyItems;
+            return 0;
+        }
+        for (int c = 0; c < ItemsCount; c++)
+        {
+            ItemSize = Items[c].Amount * ItemWordSize(Items[c].Area);
+            if ((Items[c].Data==null) || (Items[c].Data.length<ItemSize))
+            {
+                LastError=errS7BufferTooSmall;
+                return 0;
+            }
+            // Item header + data, odd sizes are padded except for the last item
+            DataSize += 4 + ItemSize;
+            if ((ItemSize % 2 != 0) && (c < ItemsCount-1))
+                DataSize++;
+        }
+        return DataSize;
+    }
+    
+    // Reads up to MaxVars areas with a single request, both the request and
+    // the reply must fit the negotiated PDU. Returns 0 if the request succeeded,
+    // the result of each item is stored into its Result field.
+    public int ReadMultiVars(S7DataItem[] Items, int ItemsCount)
+    {
+        int ParamSize;
+        int IsoSize;
+        int Length = 0;
+        int Offset;
+        int ItemSize;
+        byte TransportSize;
+        
+        int DataSize = CheckItems(Items, ItemsCount);
+        if (LastError!=0)
+            return LastError;
+        
+        ParamSize = 2 + ItemsCount*12;
+        // Reply : 12 bytes header + function + items count + data
+        if ((10+ParamSize>_PDULength) || (14+DataSize>_PDULength))
+        {
+            LastError=errS7SizeOverPDU;
+            return LastError;
+        }
+        IsoSize = IsoHSize + 10 + ParamSize;
+        
+        // Setup the telegram
+        System.arraycopy(S7_RW, 0, PDU, 0, 19);
+        S7.SetWordAt(PDU,2,IsoSize);
+        S7.SetWordAt(PDU,13,ParamSize);
+        S7.SetWordAt(PDU,15,0);
+        PDU[17] = (byte) 0x04;
+        PDU[18] = (byte) ItemsCount;
+        Offset = 19;
+        for (int c = 0; c < ItemsCount; c++)
+        {
+            SetItemSpec(Offset, Items[c]);
+            Offset+=12;
+        }
+        
+        SendPacket(PDU, IsoSize);
+        if (LastError==0)
+        {
+            Length=RecvIsoPacket();
+            if (LastError==0)
+            {
+                if (Length<21)
+                    LastError=errS7InvalidPDU;
+                else if (S7.GetWordAt(PDU,17)!=0)
+                    LastError=errS7DataRead;
+                else if ((PDU[19]!=(byte)0x04) || ((PDU[20] & 0x0FF)!=ItemsCount))
+                    LastError=errS7InvalidPDU;
+            }
+        }
+        
+        Offset = 21;
+        for (int c = 0; (c < ItemsCount) && (LastError==0); c++)
+        {
+            if (Offset+4>Length)
+            {
+                LastError=errS7InvalidPDU;
+                break;
+            }
+            TransportSize = PDU[Offset+1];
+            ItemSize = S7.GetWordAt(PDU,Offset+2);
+            // Length is in bits unless the transport size is Octet, Real or Bit
+            if ((TransportSize!=0x09) && (TransportSize!=0x07) && (TransportSize!=0x03))
+                ItemSize = ItemSize >> 3;
+            if (Offset+4+ItemSize>Length)
+            {
+                LastError=errS7InvalidPDU;
+                break;
+            }
+            if ((PDU[Offset]==(byte)0xFF) && (ItemSize==Items[c].Amount*ItemWordSize(Items[c].Area)))
+            {
+                System.arraycopy(PDU, Offset+4, Items[c].Data, 0, ItemSize);
+                Items[c].Result=0;
+            }
+            else
+                Items[c].Result=errS7DataRead;
+            Offset+=4+ItemSize;
+            if (ItemSize % 2 != 0)
+                Offset++;
+        }
+        
+        if (LastError!=0)
+        {
+            for (int c = 0; c < ItemsCount; c++)
+                Items[c].Result=LastError;
+        }
+        return LastError;
+    }
+    
+    // Writes up to MaxVars areas with a single request, the request must fit
+    // the negotiated PDU. Returns 0 if the request succeeded, the result of
+    // each item is stored into its Result field.
+    public int WriteMultiVars(S7DataItem[] Items, int ItemsCount)
+    {
+        int ParamSize;
+        int IsoSize;
+        int Length;
+        int Offset;
+        int ItemSize;
+        
+        int DataSize = CheckItems(Items, ItemsCount);
+        if (LastError!=0)
+            return LastError;
+        
+        ParamSize = 2 + ItemsCount*12;
+        if (10+ParamSize+DataSize>_PDULength)
+        {
+            LastError=errS7SizeOverPDU;
+            return LastError;
+        }
+        IsoSize = IsoHSize + 10 + ParamSize + DataSize;
+        
+        // Setup the telegram
+        System.arraycopy(S7_RW, 0, PDU, 0, 19);
+        S7.SetWordAt(PDU,2,IsoSize);
+        S7.SetWordAt(PDU,13,ParamSize);
+        S7.SetWordAt(PDU,15,DataSize);
+        PDU[17] = (byte) 0x05;
+        PDU[18] = (byte) ItemsCount;
+        Offset = 19;
+        for (int c = 0; c < ItemsCount; c++)
+        {
+            SetItemSpec(Offset, Items[c]);
+            Offset+=12;
+        }
+        for (int c = 0; c < ItemsCount; c++)
+        {
+            ItemSize = Items[c].Amount * ItemWordSize(Items[c].Area);
+            PDU[Offset] = (byte) 0x00;   // Reserved
+            PDU[Offset+1] = (byte) 0x04; // Transport size
+            if ((Items[c].Area==S7.S7AreaCT) || (Items[c].Area==S7.S7AreaTM))
+                S7.SetWordAt(PDU,Offset+2,ItemSize);
+            else
+                S7.SetWordAt(PDU,Offset+2,ItemSize<<3);
+            System.arraycopy(Items[c].Data, 0, PDU, Offset+4, ItemSize);
+            Offset+=4+ItemSize;
+            if ((ItemSize % 2 != 0) && (c < ItemsCount-1))
+                PDU[Offset++] = (byte) 0x00;
+        }
+        
+        SendPacket(PDU, IsoSize);
+        if (LastError==0)
+        {
+            Length=RecvIsoPacket();
+            if (LastError==0)
+            {
+                if (Length<21+ItemsCount)
+                    LastError=errS7InvalidPDU;
+                else if (S7.GetWordAt(PDU,17)!=0)
+                    LastError=errS7DataWrite;
+                else if ((PDU[19]!=(byte)0x05) || ((PDU[20] & 0x0FF)!=ItemsCount))
+                    LastError=errS7InvalidPDU;
+            }
+        }
+        
+        for (int c = 0; c < ItemsCount; c++)
+        {
+            if (LastError!=0)
+                Items[c].Result=LastError;
+            else if (PDU[21+c]==(byte)0xFF)
+                Items[c].Result=0;
+            else
+                Items[c].Result=errS7DataWrite;
+        }
+        return LastError;
+    }
+   
     public int GetAgBlockInfo(int BlockType, int BlockNumber, S7BlockInfo Block)
     {
     	int Length;
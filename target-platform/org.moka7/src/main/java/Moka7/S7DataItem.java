@@ -0,0 +1,53 @@
+/*=============================================================================|
+|  PROJECT Moka7                                                         1.0.2 |
+|==============================================================================|
+|  Copyright (C) 2013, 2016 Davide Nardella                                    |
+|  All rights reserved.                                                        |
+|==============================================================================|
+|  SNAP7 is free software: you can redistribute it and/or modify               |
+|  it under the terms of the Lesser GNU General Public License as published by |
+|  the Free Software Foundation, either version 3 of the License, or under     |
+|  EPL Eclipse Public License 1.0.                                             |
+|                                                                              |
+|  This means that you have to chose in advance which take before you import   |
+|  the library into your project.                                              |
+|                                                                              |
+|  SNAP7 is distributed in the hope that it will be useful,                    |
+|  but WITHOUT ANY WARRANTY; without even the implied warranty of              |
+|  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE whatever license you    |
+|  decide to adopt.                                                            |
+|                                                                              |
+|=============================================================================*/
+package Moka7;
+
+/**
+ * Describes a variable read or written by S7Client.ReadMultiVars and
+ * S7Client.WriteMultiVars
+ * @author Davide
+ */
+public class S7DataItem {
+
+    public S7DataItem(int Area, int DBNumber, int Start, int Amount, byte[] Data)
+    {
+        this.Area=Area;
+        this.DBNumber=DBNumber;
+        this.Start=Start;
+        this.Amount=Amount;
+        this.Data=Data;
+    }
+    public S7DataItem()
+    {
+    }
+    // Area (S7AreaPE, S7AreaPA, S7AreaMK, S7AreaDB, S7AreaCT, S7AreaTM)
+    public int Area;
+    // DB Number if Area == S7AreaDB, otherwise ignored
+    public int DBNumber;
+    // Start offset in bytes (elements for Counters and Timers)
+    public int Start;
+    // Number of bytes (elements for Counters and Timers)
+    public int Amount;
+    // Data read or to be written, starting from offset 0
+    public byte[] Data;
+    // Result of the operation on this item, 0 if succeeded
+    public int Result;
+}